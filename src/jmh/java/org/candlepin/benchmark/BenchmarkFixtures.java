@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import org.candlepin.controller.ContentAccessMode;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Content;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductContent;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+
+
+/**
+ * Builds the deterministic data sets used by the benchmarks. The data is shaped after that of
+ * production organizations: content paths share long, repetitive prefixes that vary by release,
+ * variant and architecture, and consumer entitlements are a mix of stacked and non-stacked
+ * subscriptions covering a subset of the consumer's installed products.
+ */
+public final class BenchmarkFixtures {
+
+    /** The seed used for all generated data, so that every run benchmarks the same data set */
+    public static final long SEED = 8675309L;
+
+    private static final String[] RELEASES = { "6", "7", "8", "9", "10" };
+    private static final String[] VARIANTS = { "server", "workstation", "client", "computenode", "sap",
+        "hpc", "rt", "nfv", "sap-solutions", "highavailability", "resilientstorage" };
+    private static final String[] ARCHES = { "x86_64", "aarch64", "ppc64le", "s390x" };
+    private static final String[] REPOS = { "os", "source/SRPMS", "debug", "optional/os",
+        "supplementary/os", "extras/os", "codeready-builder/os", "appstream/os", "baseos/os" };
+
+    private BenchmarkFixtures() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates a mock of the given type which does not record its invocations, so that the memory
+     * footprint of a benchmark remains stable over the course of a run.
+     *
+     * @param type
+     *  the class of the type to mock
+     *
+     * @return
+     *  a new stub-only mock of the given type
+     */
+    public static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    /**
+     * Creates an owner using the given content access mode.
+     *
+     * @param key
+     *  the key of the owner to create
+     *
+     * @param mode
+     *  the content access mode of the owner
+     *
+     * @return
+     *  a new owner
+     */
+    public static Owner createOwner(String key, ContentAccessMode mode) {
+        return new Owner()
+            .setId(key + "-id")
+            .setKey(key)
+            .setDisplayName(key)
+            .setContentAccessModeList(mode.toDatabaseValue())
+            .setContentAccessMode(mode.toDatabaseValue());
+    }
+
+    /**
+     * Creates the given number of content instances with distinct, realistically shaped content
+     * paths.
+     *
+     * @param count
+     *  the number of content instances to create
+     *
+     * @return
+     *  a list containing the generated content
+     */
+    public static List<Content> createContent(int count) {
+        List<Content> output = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            String release = RELEASES[i % RELEASES.length];
+            String variant = VARIANTS[(i / RELEASES.length) % VARIANTS.length];
+            String arch = ARCHES[(i / (RELEASES.length * VARIANTS.length)) % ARCHES.length];
+            String repo = REPOS[(i / (RELEASES.length * VARIANTS.length * ARCHES.length)) % REPOS.length];
+            int stream = i / (RELEASES.length * VARIANTS.length * ARCHES.length * REPOS.length);
+
+            String label = String.format("rhel-%s-%s-%s-%s-%d-rpms", release, variant, arch,
+                repo.replace('/', '-'), stream);
+
+            Content content = new Content("content-" + i)
+                .setLabel(label)
+                .setName(label)
+                .setType("yum")
+                .setVendor("Red Hat")
+                .setContentUrl(String.format("/content/dist/rhel%s/%s/%s/stream%d/%s/%s", release, variant,
+                    "$releasever", stream, arch, repo))
+                .setGpgUrl("file:///etc/pki/rpm-gpg/RPM-GPG-KEY-redhat-release")
+                .setArches(arch);
+
+            output.add(content);
+        }
+
+        return output;
+    }
+
+    /**
+     * Creates a product providing the given content. Every fifth content is disabled by default.
+     *
+     * @param id
+     *  the ID of the product to create
+     *
+     * @param content
+     *  the content to add to the product
+     *
+     * @return
+     *  a new product providing the given content
+     */
+    public static Product createProduct(String id, List<Content> content) {
+        Product product = new Product(id, "Product " + id)
+            .setAttribute(Product.Attributes.VERSION, "1.0")
+            .setAttribute(Product.Attributes.ARCHITECTURE, String.join(",", ARCHES));
+
+        for (int i = 0; i < content.size(); ++i) {
+            product.addContent(content.get(i), i % 5 != 0);
+        }
+
+        return product;
+    }
+
+    /**
+     * Wraps the given content in product content instances, as returned when fetching the active
+     * content of an organization.
+     *
+     * @param content
+     *  the content to wrap
+     *
+     * @return
+     *  a list of product content instances for the given content
+     */
+    public static List<ProductContent> createProductContent(List<Content> content) {
+        List<ProductContent> output = new ArrayList<>(content.size());
+
+        for (int i = 0; i < content.size(); ++i) {
+            output.add(new ProductContent(content.get(i), i % 5 != 0));
+        }
+
+        return output;
+    }
+
+    /**
+     * Creates a system consumer in the given owner with the given number of entitlements. The
+     * consumer has one installed product for every two entitlements; every third entitlement is
+     * part of one of a handful of socket-based stacks, and roughly one in ten entitlements has
+     * expired or is not yet active, so the consumer ends up with a mix of valid, partial and
+     * invalid products.
+     *
+     * @param owner
+     *  the owner of the consumer
+     *
+     * @param type
+     *  the type of the consumer
+     *
+     * @param entitlements
+     *  the number of entitlements to attach to the consumer
+     *
+     * @return
+     *  a new consumer with the requested number of entitlements
+     */
+    public static Consumer createConsumer(Owner owner, ConsumerType type, int entitlements) {
+        Random random = new Random(SEED);
+        Instant now = Instant.now();
+
+        Consumer consumer = new Consumer()
+            .setUuid("consumer-" + entitlements)
+            .setName("consumer-" + entitlements)
+            .setOwner(owner)
+            .setType(type)
+            .setFact("cpu.cpu_socket(s)", "8")
+            .setFact("cpu.core(s)_per_socket", "4")
+            .setFact("memory.memtotal", "16777216")
+            .setFact("uname.machine", "x86_64");
+
+        int installed = Math.max(1, entitlements / 2);
+        List<Product> engProducts = new ArrayList<>(installed);
+        for (int i = 0; i < installed; ++i) {
+            Product engProduct = new Product("eng-" + i, "Engineering Product " + i);
+            engProducts.add(engProduct);
+
+            consumer.addInstalledProduct(new ConsumerInstalledProduct()
+                .setProductId(engProduct.getId())
+                .setProductName(engProduct.getName()));
+        }
+
+        for (int i = 0; i < entitlements; ++i) {
+            Product sku = new Product("sku-" + i, "Subscription " + i)
+                .setProvidedProducts(new HashSet<>(List.of(
+                    engProducts.get(i % installed),
+                    engProducts.get(random.nextInt(installed)))));
+
+            if (i % 3 == 0) {
+                sku.setAttribute(Product.Attributes.STACKING_ID, "stack-" + (i % 7))
+                    .setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes")
+                    .setAttribute(Product.Attributes.SOCKETS, "2");
+            }
+            else {
+                sku.setAttribute(Product.Attributes.SOCKETS, String.valueOf(4 << random.nextInt(3)));
+            }
+
+            Instant start = now.minus(random.nextInt(365), ChronoUnit.DAYS);
+            Instant end = now.plus(random.nextInt(730) + 1, ChronoUnit.DAYS);
+
+            int skew = random.nextInt(10);
+            if (skew == 0) {
+                end = now.minus(random.nextInt(30) + 1, ChronoUnit.DAYS);
+            }
+            else if (skew == 1) {
+                start = now.plus(random.nextInt(30) + 1, ChronoUnit.DAYS);
+            }
+
+            Pool pool = new Pool()
+                .setId("pool-" + i)
+                .setOwner(owner)
+                .setProduct(sku)
+                .setQuantity(100L)
+                .setStartDate(Date.from(start))
+                .setEndDate(Date.from(end))
+                .setContractNumber("contract-" + i)
+                .setAccountNumber("account-" + i)
+                .setOrderNumber("order-" + i);
+
+            Entitlement entitlement = new Entitlement(pool, consumer, owner, 1 + random.nextInt(2));
+            entitlement.setId("ent-" + i);
+            entitlement.setCreated(Date.from(start));
+            entitlement.setUpdated(Date.from(start));
+
+            consumer.addEntitlement(entitlement);
+        }
+
+        return consumer;
+    }
+
+}
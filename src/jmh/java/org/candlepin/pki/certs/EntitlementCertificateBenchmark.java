@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.certs;
+
+import static org.candlepin.benchmark.BenchmarkFixtures.stub;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.benchmark.BenchmarkFixtures;
+import org.candlepin.cache.HuffmanContentCache;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.TestConfig;
+import org.candlepin.controller.ContentAccessMode;
+import org.candlepin.model.CertificateSerialCurator;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.Content;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCertificate;
+import org.candlepin.model.EntitlementCertificateCurator;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.KeyPairDataCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolQuantity;
+import org.candlepin.model.Product;
+import org.candlepin.pki.KeyPairGenerator;
+import org.candlepin.pki.huffman.Huffman;
+import org.candlepin.pki.impl.BouncyCastleKeyPairGenerator;
+import org.candlepin.pki.impl.BouncyCastlePemEncoder;
+import org.candlepin.pki.impl.BouncyCastleSecurityProvider;
+import org.candlepin.pki.impl.BouncyCastleSubjectKeyIdentifierWriter;
+import org.candlepin.pki.impl.Signer;
+import org.candlepin.test.CertificateReaderForTesting;
+import org.candlepin.util.X509ExtensionUtil;
+import org.candlepin.util.X509V3ExtensionUtil;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.security.KeyPair;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Benchmarks the creation of a V3 entitlement certificate, including the mapping of the entitled
+ * products and their content, the Huffman-encoded content extension, the JSON entitlement payload
+ * and the signing of both the certificate and the payload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntitlementCertificateBenchmark {
+
+    /** The number of content sets provided by the entitled products */
+    @Param({ "1000", "4000" })
+    public int content;
+
+    /** The number of engineering products among which the content is split */
+    @Param({ "1", "20" })
+    public int products;
+
+    private EntitlementCertificateGenerator generator;
+    private Consumer consumer;
+    private Map<String, PoolQuantity> poolQuantities;
+    private Map<String, Entitlement> entitlements;
+    private Map<String, Product> skus;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Configuration config = TestConfig.defaults();
+        I18n i18n = I18nFactory.getI18n(this.getClass(), "org.candlepin.i18n.Messages", Locale.US,
+            I18nFactory.FALLBACK);
+
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        ctype.setId("system-ctype");
+
+        Owner owner = BenchmarkFixtures.createOwner("benchmark-org", ContentAccessMode.ENTITLEMENT);
+        this.consumer = new Consumer()
+            .setUuid("benchmark-consumer")
+            .setName("benchmark-consumer")
+            .setOwner(owner)
+            .setType(ctype)
+            .setFact(Consumer.Facts.SYSTEM_CERTIFICATE_VERSION, "3.4");
+
+        ConsumerTypeCurator consumerTypeCurator = stub(ConsumerTypeCurator.class);
+        when(consumerTypeCurator.getConsumerType(any(Consumer.class))).thenReturn(ctype);
+
+        OwnerCurator ownerCurator = stub(OwnerCurator.class);
+        when(ownerCurator.findOwnerById(owner.getId())).thenReturn(owner);
+
+        BouncyCastleSecurityProvider securityProvider = new BouncyCastleSecurityProvider();
+        KeyPair keyPair = new BouncyCastleKeyPairGenerator(securityProvider, stub(KeyPairDataCurator.class))
+            .generateKeyPair();
+
+        KeyPairGenerator keyPairGenerator = stub(KeyPairGenerator.class);
+        when(keyPairGenerator.getKeyPair(any(Consumer.class))).thenReturn(keyPair);
+
+        CertificateReaderForTesting certificateReader = new CertificateReaderForTesting();
+        BouncyCastleSubjectKeyIdentifierWriter subjectKeyIdentifierWriter =
+            new BouncyCastleSubjectKeyIdentifierWriter();
+
+        this.generator = new EntitlementCertificateGenerator(
+            new X509ExtensionUtil(config),
+            new X509V3ExtensionUtil(config, stub(EntitlementCurator.class), new Huffman(),
+                new HuffmanContentCache(config)),
+            new EntitlementPayloadGenerator(new ObjectMapper()),
+            stub(EntitlementCertificateCurator.class),
+            new CertificateSerialAllocator(stub(CertificateSerialCurator.class)),
+            ownerCurator,
+            stub(EntitlementCurator.class),
+            i18n,
+            config,
+            consumerTypeCurator,
+            stub(EnvironmentCurator.class),
+            keyPairGenerator,
+            new BouncyCastlePemEncoder(),
+            new Signer(certificateReader),
+            () -> new X509CertificateBuilder(certificateReader, securityProvider,
+                subjectKeyIdentifierWriter));
+
+        // Split the content evenly among the engineering products provided by the SKU
+        List<Content> content = BenchmarkFixtures.createContent(this.content);
+        int perProduct = (int) Math.ceil((double) this.content / this.products);
+
+        Product sku = new Product("sku-benchmark", "Benchmark Subscription")
+            .setAttribute(Product.Attributes.SOCKETS, "2");
+
+        for (int i = 0; i < this.products; ++i) {
+            int start = Math.min(i * perProduct, content.size());
+            int end = Math.min(start + perProduct, content.size());
+
+            sku.addProvidedProduct(BenchmarkFixtures.createProduct("eng-" + i, content.subList(start, end)));
+        }
+
+        Instant now = Instant.now();
+        Pool pool = new Pool()
+            .setId("pool-benchmark")
+            .setOwner(owner)
+            .setProduct(sku)
+            .setQuantity(100L)
+            .setStartDate(Date.from(now.minus(30, ChronoUnit.DAYS)))
+            .setEndDate(Date.from(now.plus(365, ChronoUnit.DAYS)))
+            .setContractNumber("contract-benchmark")
+            .setAccountNumber("account-benchmark")
+            .setOrderNumber("order-benchmark");
+
+        Entitlement entitlement = new Entitlement(pool, this.consumer, owner, 1);
+        entitlement.setId("ent-benchmark");
+
+        this.poolQuantities = Map.of(pool.getId(), new PoolQuantity(pool, 1));
+        this.entitlements = Map.of(pool.getId(), entitlement);
+        this.skus = Map.of(pool.getId(), sku);
+    }
+
+    @Benchmark
+    public Map<String, EntitlementCertificate> generateCertificate() {
+        return this.generator.generate(this.consumer, this.poolQuantities, this.entitlements, this.skus,
+            false);
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.certs;
+
+import static org.candlepin.benchmark.BenchmarkFixtures.stub;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.benchmark.BenchmarkFixtures;
+import org.candlepin.cache.ContentAccessPayloadCache;
+import org.candlepin.cache.HuffmanContentCache;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.controller.ContentAccessMode;
+import org.candlepin.model.CertificateSerialCurator;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ContentAccessCertificateCurator;
+import org.candlepin.model.ContentAccessPayload;
+import org.candlepin.model.ContentAccessPayloadCurator;
+import org.candlepin.model.ContentCurator;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.KeyPairDataCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.pki.huffman.Huffman;
+import org.candlepin.pki.impl.BouncyCastleKeyPairGenerator;
+import org.candlepin.pki.impl.BouncyCastlePemEncoder;
+import org.candlepin.pki.impl.BouncyCastleSecurityProvider;
+import org.candlepin.pki.impl.BouncyCastleSubjectKeyIdentifierWriter;
+import org.candlepin.pki.impl.Signer;
+import org.candlepin.test.CertificateReaderForTesting;
+import org.candlepin.util.X509V3ExtensionUtil;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Benchmarks the retrieval of the content access payload for a consumer in an organization using
+ * simple content access. The payload curator never returns an existing payload, so unless the
+ * payload is served from the payload cache, every invocation builds, encodes and signs the payload
+ * for the organization's entire content set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SCAPayloadBenchmark {
+
+    /** The number of active content sets in the consumer's organization */
+    @Param({ "1000", "5000" })
+    public int content;
+
+    private ContentAccessPayloadCache payloadCache;
+    private SCACertificateGenerator generator;
+    private Consumer consumer;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        DevConfig config = TestConfig.defaults();
+        config.setProperty(ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_TTL, "3600000");
+        this.payloadCache = new ContentAccessPayloadCache(config, () -> null);
+
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        ctype.setId("system-ctype");
+
+        Owner owner = BenchmarkFixtures.createOwner("benchmark-org", ContentAccessMode.ORG_ENVIRONMENT);
+        this.consumer = new Consumer()
+            .setUuid("benchmark-consumer")
+            .setName("benchmark-consumer")
+            .setOwner(owner)
+            .setType(ctype)
+            .setFact(Consumer.Facts.SYSTEM_CERTIFICATE_VERSION, "3.4");
+
+        V3CapabilityCheck v3CapabilityCheck = stub(V3CapabilityCheck.class);
+        when(v3CapabilityCheck.isCertV3Capable(any(Consumer.class))).thenReturn(true);
+
+        ContentCurator contentCurator = stub(ContentCurator.class);
+        when(contentCurator.getActiveContentByOwner(owner.getId()))
+            .thenReturn(BenchmarkFixtures.createProductContent(
+                BenchmarkFixtures.createContent(this.content)));
+
+        BouncyCastleSecurityProvider securityProvider = new BouncyCastleSecurityProvider();
+        CertificateReaderForTesting certificateReader = new CertificateReaderForTesting();
+        BouncyCastleSubjectKeyIdentifierWriter subjectKeyIdentifierWriter =
+            new BouncyCastleSubjectKeyIdentifierWriter();
+
+        this.generator = new SCACertificateGenerator(
+            new X509V3ExtensionUtil(config, stub(EntitlementCurator.class), new Huffman(),
+                new HuffmanContentCache(config)),
+            v3CapabilityCheck,
+            new EntitlementPayloadGenerator(new ObjectMapper()),
+            stub(ContentAccessCertificateCurator.class),
+            stub(ContentAccessPayloadCurator.class),
+            this.payloadCache,
+            stub(CertificateSerialCurator.class),
+            new CertificateSerialAllocator(stub(CertificateSerialCurator.class)),
+            contentCurator,
+            stub(ConsumerCurator.class),
+            stub(EnvironmentCurator.class),
+            new BouncyCastlePemEncoder(),
+            new BouncyCastleKeyPairGenerator(securityProvider, stub(KeyPairDataCurator.class)),
+            new Signer(certificateReader),
+            () -> new X509CertificateBuilder(certificateReader, securityProvider,
+                subjectKeyIdentifierWriter),
+            config);
+    }
+
+    @Benchmark
+    public ContentAccessPayload buildContentPayload() throws Exception {
+        this.payloadCache.removeAll();
+        return this.generator.getContentPayload(this.consumer);
+    }
+
+    @Benchmark
+    public ContentAccessPayload cachedContentPayload() throws Exception {
+        return this.generator.getContentPayload(this.consumer);
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.huffman;
+
+import org.candlepin.benchmark.BenchmarkFixtures;
+import org.candlepin.model.dto.Content;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+
+
+/**
+ * Benchmarks the Huffman compression of content paths, as embedded in V3 entitlement and content
+ * access certificates, along with the decompression performed by clients.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HuffmanBenchmark {
+
+    /** The number of content paths to compress */
+    @Param({ "100", "1000", "5000" })
+    public int content;
+
+    private List<Content> contentList;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.contentList = BenchmarkFixtures.createContent(this.content)
+            .stream()
+            .map(content -> new Content().setPath(content.getContentUrl()))
+            .collect(Collectors.toList());
+
+        this.encoded = new Huffman().retrieveContentValue(this.contentList);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return new Huffman().retrieveContentValue(this.contentList);
+    }
+
+    @Benchmark
+    public List<String> decode() throws IOException {
+        return new Huffman().hydrateContentPackage(this.encoded);
+    }
+
+}
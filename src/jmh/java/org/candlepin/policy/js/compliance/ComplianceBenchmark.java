@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import static org.candlepin.benchmark.BenchmarkFixtures.stub;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.audit.EventSink;
+import org.candlepin.benchmark.BenchmarkFixtures;
+import org.candlepin.cache.ComplianceStatusCache;
+import org.candlepin.cache.ReferenceDataCache;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.TestConfig;
+import org.candlepin.controller.ContentAccessMode;
+import org.candlepin.dto.StandardTranslator;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.DistributorVersionCurator;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Rules;
+import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.util.ObjectMapperFactory;
+import org.candlepin.util.Util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Benchmarks the calculation of a consumer's compliance status by each of the compliance engines,
+ * for consumers with a varying number of entitlements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComplianceBenchmark {
+
+    @Param({ "50", "500" })
+    public int entitlements;
+
+    @Param({ "js", "native" })
+    public String engine;
+
+    private ComplianceRules complianceRules;
+    private Consumer consumer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ConsumerTypeCurator consumerTypeCurator = stub(ConsumerTypeCurator.class);
+        RulesCurator rulesCurator = stub(RulesCurator.class);
+
+        InputStream rulesStream = this.getClass().getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+        Rules rules = new Rules(Util.readFile(rulesStream));
+        when(rulesCurator.getUpdated()).thenReturn(new Date());
+        when(rulesCurator.getRules()).thenReturn(rules);
+
+        I18n i18n = I18nFactory.getI18n(this.getClass(), "org.candlepin.i18n.Messages", Locale.US,
+            I18nFactory.FALLBACK);
+
+        // Compliance status caching is disabled so that each invocation exercises the engine itself
+        Configuration config = TestConfig.custom(Map.of(
+            ConfigProperties.COMPLIANCE_ENGINE, this.engine,
+            ConfigProperties.CACHE_COMPLIANCE_STATUS_TTL, "0"));
+
+        this.complianceRules = new ComplianceRules(
+            new JsRunnerProvider(rulesCurator, config).get(),
+            stub(EntitlementCurator.class),
+            new StatusReasonMessageGenerator(i18n),
+            stub(EventSink.class),
+            stub(ConsumerCurator.class),
+            new ReferenceDataCache(stub(OwnerCurator.class), consumerTypeCurator,
+                stub(DistributorVersionCurator.class), config),
+            new ComplianceStatusCache(config),
+            ObjectMapperFactory.getRulesObjectMapper(),
+            new StandardTranslator(consumerTypeCurator, stub(EnvironmentCurator.class),
+                stub(OwnerCurator.class)),
+            config);
+
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        ctype.setId("system-ctype");
+
+        when(consumerTypeCurator.get(ctype.getId())).thenReturn(ctype);
+        when(consumerTypeCurator.getConsumerType(any(Consumer.class))).thenReturn(ctype);
+
+        Owner owner = BenchmarkFixtures.createOwner("benchmark-org", ContentAccessMode.ENTITLEMENT);
+        this.consumer = BenchmarkFixtures.createConsumer(owner, ctype, this.entitlements);
+    }
+
+    @Benchmark
+    public ComplianceStatus currentStatus() {
+        return this.complianceRules.getStatus(this.consumer, null, new Date(), false, false, false, false);
+    }
+
+    @Benchmark
+    public ComplianceStatus statusWithCompliantUntilAndDateRanges() {
+        return this.complianceRules.getStatus(this.consumer, null, new Date(), true, false, true, false);
+    }
+
+}
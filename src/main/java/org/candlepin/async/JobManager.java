@@ -69,11 +69,14 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -339,7 +342,11 @@ public class JobManager implements ModeChangeListener {
     private final Injector injector;
     private final Provider<EventSink> eventSinkProvider;
 
-    private ManagerState state;
+    // Impl note: state transitions are serialized with an explicit lock rather than by synchronizing,
+    // as a monitor held by a virtual thread pins it to its carrier thread for the duration of the
+    // transition. The state itself is volatile, so it may be read without taking the lock.
+    private final Lock stateLock;
+    private volatile ManagerState state;
     private JobMessageSynchronizer synchronizer;
     private QuartzJobExecutor qrtzExecutor;
     private Scheduler scheduler;
@@ -375,6 +382,7 @@ public class JobManager implements ModeChangeListener {
         this.eventSinkProvider = Objects.requireNonNull(eventSink);
         this.injector = Objects.requireNonNull(injector);
 
+        this.stateLock = new ReentrantLock();
         this.state = ManagerState.CREATED;
         this.qrtzExecutor = new QuartzJobExecutor(this);
         this.mdcState = new ThreadLocal<>();
@@ -404,75 +412,88 @@ public class JobManager implements ModeChangeListener {
      *  if this JobManager has already been initialized, or is otherwise in a state where
      *  initialization cannot be performed
      */
-    public synchronized void initialize() throws StateManagementException {
-        // TODO: We're probably going to want to add some bits to avoid queuing/scheduling new jobs
-        // during shutdown. We probably also want to have a means of closing the message listeners
-        // backing all of this as well, so we don't try to execute jobs before we're initialized or
-        // during/after shutdown.
+    public void initialize() throws StateManagementException {
+        this.stateLock.lock();
+        try {
+            // TODO: We're probably going to want to add some bits to avoid queuing/scheduling new jobs
+            // during shutdown. We probably also want to have a means of closing the message listeners
+            // backing all of this as well, so we don't try to execute jobs before we're initialized or
+            // during/after shutdown.
 
-        // Perform state transition
-        this.validateStateTransition(ManagerState.INITIALIZED);
+            // Perform state transition
+            this.validateStateTransition(ManagerState.INITIALIZED);
 
-        try {
-            log.info("Initializing job manager");
-
-            if (this.state == ManagerState.CREATED) {
-                if (this.isSchedulerEnabled()) {
-                    // Initialize the scheduler factory with the Quartz-specific configuration, if possible
-                    if (this.schedulerFactory instanceof StdSchedulerFactory) {
-                        Properties quartzConfig = this.configuration.toProperties();
-                        ((StdSchedulerFactory) this.schedulerFactory).initialize(quartzConfig);
-                    }
+            try {
+                log.info("Initializing job manager");
 
-                    if (this.scheduler == null || this.scheduler.isShutdown()) {
-                        this.scheduler = this.schedulerFactory.getScheduler();
+                if (this.state == ManagerState.CREATED) {
+                    if (this.isSchedulerEnabled()) {
+                        // Initialize the scheduler factory with the Quartz-specific configuration, if
+                        // possible
+                        if (this.schedulerFactory instanceof StdSchedulerFactory) {
+                            Properties quartzConfig = this.configuration.toProperties();
+                            ((StdSchedulerFactory) this.schedulerFactory).initialize(quartzConfig);
+                        }
+
+                        if (this.scheduler == null || this.scheduler.isShutdown()) {
+                            this.scheduler = this.schedulerFactory.getScheduler();
+                        }
+
+                        this.synchronizeJobSchedule();
+                        this.scheduler.setJobFactory(this.qrtzExecutor);
+
+                        // Register our executor as a trigger listener, so we can log certain Quartz
+                        // events
+                        this.scheduler.getListenerManager()
+                            .addTriggerListener(this.qrtzExecutor);
                     }
 
-                    this.synchronizeJobSchedule();
-                    this.scheduler.setJobFactory(this.qrtzExecutor);
+                    if (!this.receiver.isInitialized()) {
+                        this.receiver.initialize(this);
+                    }
 
-                    // Register our executor as a trigger listener, so we can log certain Quartz
-                    // events
-                    this.scheduler.getListenerManager()
-                        .addTriggerListener(this.qrtzExecutor);
-                }
+                    this.modeManager.registerModeChangeListener(this);
 
-                if (!this.receiver.isInitialized()) {
-                    this.receiver.initialize(this);
-                }
+                    // Check if Candlepin's current operating mode would prevent us from starting
+                    // normally.
+                    if (this.modeManager.getCurrentMode() == Mode.SUSPEND) {
+                        this.suspendKeys.add(SUSPEND_KEY_TRIGGERED);
+                    }
 
-                this.modeManager.registerModeChangeListener(this);
+                    // Attempt to restore any jobs which were running on this node but did not get
+                    // to gracefully shutdown.
+                    List<AsyncJobStatus> recovered = this.recoverAbandonedJobs();
 
-                // Check if Candlepin's current operating mode would prevent us from starting
-                // normally.
-                if (this.modeManager.getCurrentMode() == Mode.SUSPEND) {
-                    this.suspendKeys.add(SUSPEND_KEY_TRIGGERED);
+                    // Locally dispatched job messages are only held in memory, and are lost when
+                    // this node shuts down. Repost the messages of any jobs still waiting on them.
+                    if (this.configuration.getBoolean(ConfigProperties.ASYNC_JOBS_LOCAL_DISPATCH)) {
+                        this.repostQueuedJobs(recovered);
+                    }
                 }
 
-                // Attempt to restore any jobs which were running on this node but did not get
-                // to gracefully shutdown.
-                this.recoverAbandonedJobs();
+                log.info("Job manager initialization complete");
+                this.state = ManagerState.INITIALIZED;
             }
+            catch (Exception e) {
+                String errmsg = "Unexpected exception occurred during initialization";
 
-            log.info("Job manager initialization complete");
-            this.state = ManagerState.INITIALIZED;
-        }
-        catch (Exception e) {
-            String errmsg = "Unexpected exception occurred during initialization";
-
-            log.error(errmsg, e);
+                log.error(errmsg, e);
 
-            try {
-                if (this.scheduler != null) {
-                    this.scheduler.shutdown();
-                    this.scheduler = null;
+                try {
+                    if (this.scheduler != null) {
+                        this.scheduler.shutdown();
+                        this.scheduler = null;
+                    }
+                }
+                catch (SchedulerException se) {
+                    log.error("Unable to shutdown quartz scheduler while processing other exceptions", se);
                 }
-            }
-            catch (SchedulerException se) {
-                log.error("Unable to shutdown quartz scheduler while processing other exceptions", se);
-            }
 
-            throw new StateManagementException(this.state, ManagerState.INITIALIZED, errmsg, e);
+                throw new StateManagementException(this.state, ManagerState.INITIALIZED, errmsg, e);
+            }
+        }
+        finally {
+            this.stateLock.unlock();
         }
     }
 
@@ -481,8 +502,11 @@ public class JobManager implements ModeChangeListener {
      * while executing jobs. Any jobs in the RUNNING state with an executor set to this node
      * will have their state forcefully rewound to QUEUED in an attempt to allow the task to be
      * rerun.
+     *
+     * @return
+     *  a list of the recovered jobs
      */
-    private void recoverAbandonedJobs() {
+    private List<AsyncJobStatus> recoverAbandonedJobs() {
         AsyncJobStatusQueryArguments queryArgs = new AsyncJobStatusQueryArguments()
             .setJobStates(Collections.singleton(JobState.RUNNING))
             .setExecutors(Collections.singleton(this.getNodeName()));
@@ -492,12 +516,46 @@ public class JobManager implements ModeChangeListener {
         // set the job's state to QUEUED, which will allow us to pick up the job and run it again
         // next time the message is received. If the message has been lost, then the job cleaner
         // will eventually nuke this job as part of its non-terminal job aborting step.
-        for (AsyncJobStatus job : this.jobCurator.findJobs(queryArgs)) {
+        List<AsyncJobStatus> jobs = this.jobCurator.findJobs(queryArgs);
+        for (AsyncJobStatus job : jobs) {
             log.warn("Recovering abandoned job: {}", job);
 
             job.setState(JobState.QUEUED);
             this.jobCurator.merge(job);
         }
+
+        return jobs;
+    }
+
+    /**
+     * Posts new messages for the jobs queued by this node, along with the given recovered jobs.
+     * Used when job messages are dispatched locally, in which case messages are not retained
+     * across restarts. The messages are held by the receiver until it is started.
+     *
+     * @param recovered
+     *  the jobs recovered from this node after it shutdown abnormally
+     */
+    private void repostQueuedJobs(List<AsyncJobStatus> recovered) {
+        AsyncJobStatusQueryArguments queryArgs = new AsyncJobStatusQueryArguments()
+            .setJobStates(Collections.singleton(JobState.QUEUED))
+            .setOrigins(Collections.singleton(this.getNodeName()));
+
+        Map<String, AsyncJobStatus> jobs = new LinkedHashMap<>();
+        Stream.concat(this.jobCurator.findJobs(queryArgs).stream(), recovered.stream())
+            .forEach(job -> jobs.putIfAbsent(job.getId(), job));
+
+        try {
+            for (AsyncJobStatus job : jobs.values()) {
+                log.info("Reposting message for queued job: {}", job);
+                this.dispatcher.postJobMessage(new JobMessage(job.getId(), job.getJobKey()));
+            }
+
+            this.dispatcher.commit();
+        }
+        catch (JobMessageDispatchException e) {
+            // Jobs left without messages will eventually be aborted by the job cleaner
+            log.error("Unable to repost messages for queued jobs", e);
+        }
     }
 
     /**
@@ -527,45 +585,51 @@ public class JobManager implements ModeChangeListener {
      *  if this JobManager has not been initialized, has already shutdown or Candlepin is
      *  in suspend mode
      */
-    public synchronized void start(Object key) throws StateManagementException {
-        log.trace("Start request received with suspend key: {}", key);
+    public void start(Object key) throws StateManagementException {
+        this.stateLock.lock();
+        try {
+            log.trace("Start request received with suspend key: {}", key);
 
-        if (key == null) {
-            throw new IllegalArgumentException("suspend key is null");
-        }
+            if (key == null) {
+                throw new IllegalArgumentException("suspend key is null");
+            }
 
-        this.validateStateTransition(ManagerState.RUNNING);
+            this.validateStateTransition(ManagerState.RUNNING);
 
-        try {
-            if (this.state == ManagerState.INITIALIZED || this.state == ManagerState.SUSPENDED) {
-                if (this.suspendKeys.remove(key)) {
-                    log.debug("Lifted job manager suspend key: {} ({} remaining)", key,
-                        this.suspendKeys.size());
-                }
+            try {
+                if (this.state == ManagerState.INITIALIZED || this.state == ManagerState.SUSPENDED) {
+                    if (this.suspendKeys.remove(key)) {
+                        log.debug("Lifted job manager suspend key: {} ({} remaining)", key,
+                            this.suspendKeys.size());
+                    }
 
-                if (this.suspendKeys.isEmpty()) {
-                    String startType = (this.state == ManagerState.INITIALIZED ? "started" : "resumed");
-                    log.info("Job manager {}", startType);
+                    if (this.suspendKeys.isEmpty()) {
+                        String startType = (this.state == ManagerState.INITIALIZED ? "started" : "resumed");
+                        log.info("Job manager {}", startType);
 
-                    if (this.isSchedulerEnabled()) {
-                        this.scheduler.start();
-                    }
+                        if (this.isSchedulerEnabled()) {
+                            this.scheduler.start();
+                        }
 
-                    this.receiver.start();
+                        this.receiver.start();
 
-                    this.state = ManagerState.RUNNING;
-                }
-                else {
-                    log.debug("Job manager still suspended by {} keys", this.suspendKeys.size());
-                    this.state = ManagerState.SUSPENDED;
+                        this.state = ManagerState.RUNNING;
+                    }
+                    else {
+                        log.debug("Job manager still suspended by {} keys", this.suspendKeys.size());
+                        this.state = ManagerState.SUSPENDED;
+                    }
                 }
             }
-        }
-        catch (Exception e) {
-            String errmsg = "Unexpected exception occurred while starting job manager";
+            catch (Exception e) {
+                String errmsg = "Unexpected exception occurred while starting job manager";
 
-            log.error(errmsg, e);
-            throw new StateManagementException(this.state, ManagerState.RUNNING, errmsg, e);
+                log.error(errmsg, e);
+                throw new StateManagementException(this.state, ManagerState.RUNNING, errmsg, e);
+            }
+        }
+        finally {
+            this.stateLock.unlock();
         }
     }
 
@@ -639,36 +703,42 @@ public class JobManager implements ModeChangeListener {
      * @throws IllegalStateException
      *  if this JobManager has not been initialized or has already shutdown
      */
-    public synchronized void suspend(Object key) throws StateManagementException {
-        log.trace("Suspend request received with key: {}", key);
+    public void suspend(Object key) throws StateManagementException {
+        this.stateLock.lock();
+        try {
+            log.trace("Suspend request received with key: {}", key);
 
-        if (key == null) {
-            throw new IllegalArgumentException("suspend key is null");
-        }
+            if (key == null) {
+                throw new IllegalArgumentException("suspend key is null");
+            }
 
-        this.validateStateTransition(ManagerState.SUSPENDED);
+            this.validateStateTransition(ManagerState.SUSPENDED);
 
-        try {
-            if (this.suspendKeys.add(key)) {
-                log.debug("Suspending job manager with key: {}", key);
-            }
+            try {
+                if (this.suspendKeys.add(key)) {
+                    log.debug("Suspending job manager with key: {}", key);
+                }
 
-            if (this.state == ManagerState.INITIALIZED || this.state == ManagerState.RUNNING) {
-                this.receiver.suspend();
+                if (this.state == ManagerState.INITIALIZED || this.state == ManagerState.RUNNING) {
+                    this.receiver.suspend();
 
-                if (this.isSchedulerEnabled()) {
-                    this.scheduler.standby();
+                    if (this.isSchedulerEnabled()) {
+                        this.scheduler.standby();
+                    }
+
+                    log.info("Job manager suspended");
+                    this.state = ManagerState.SUSPENDED;
                 }
+            }
+            catch (Exception e) {
+                String errmsg = "Unexpected exception occurred while pausing job manager";
 
-                log.info("Job manager suspended");
-                this.state = ManagerState.SUSPENDED;
+                log.error(errmsg, e);
+                throw new StateManagementException(this.state, ManagerState.SUSPENDED, errmsg, e);
             }
         }
-        catch (Exception e) {
-            String errmsg = "Unexpected exception occurred while pausing job manager";
-
-            log.error(errmsg, e);
-            throw new StateManagementException(this.state, ManagerState.SUSPENDED, errmsg, e);
+        finally {
+            this.stateLock.unlock();
         }
     }
 
@@ -681,31 +751,37 @@ public class JobManager implements ModeChangeListener {
      *  if this JobManager has already been shutdown, or is otherwise in a state where a shut
      *  down cannot be performed
      */
-    public synchronized void shutdown() throws StateManagementException {
-        // TODO: actually do something with this
+    public void shutdown() throws StateManagementException {
+        this.stateLock.lock();
+        try {
+            // TODO: actually do something with this
 
-        this.validateStateTransition(ManagerState.SHUTDOWN);
+            this.validateStateTransition(ManagerState.SHUTDOWN);
 
-        try {
-            log.info("Shutting down job manager");
+            try {
+                log.info("Shutting down job manager");
 
-            if (this.state == ManagerState.RUNNING || this.state == ManagerState.SUSPENDED) {
-                this.dispatcher.shutdown();
-                this.receiver.shutdown();
+                if (this.state == ManagerState.RUNNING || this.state == ManagerState.SUSPENDED) {
+                    this.dispatcher.shutdown();
+                    this.receiver.shutdown();
 
-                if (this.isSchedulerEnabled()) {
-                    this.scheduler.shutdown(true);
+                    if (this.isSchedulerEnabled()) {
+                        this.scheduler.shutdown(true);
+                    }
                 }
+
+                log.info("Job manager shut down");
+                this.state = ManagerState.SHUTDOWN;
             }
+            catch (Exception e) {
+                String errmsg = "Unexpected exception occurred while shutting down job manager";
 
-            log.info("Job manager shut down");
-            this.state = ManagerState.SHUTDOWN;
+                log.error(errmsg, e);
+                throw new StateManagementException(this.state, ManagerState.SHUTDOWN, errmsg, e);
+            }
         }
-        catch (Exception e) {
-            String errmsg = "Unexpected exception occurred while shutting down job manager";
-
-            log.error(errmsg, e);
-            throw new StateManagementException(this.state, ManagerState.SHUTDOWN, errmsg, e);
+        finally {
+            this.stateLock.unlock();
         }
     }
 
@@ -715,7 +791,7 @@ public class JobManager implements ModeChangeListener {
      * @return
      *  the current state of this job manager
      */
-    public synchronized ManagerState getManagerState() {
+    public ManagerState getManagerState() {
         return this.state;
     }
 
@@ -1084,6 +1160,7 @@ public class JobManager implements ModeChangeListener {
 
             if (blockingJobIds.isEmpty()) {
                 // Build and send the job message and update the job state accordingly
+                this.dispatcher.registerConstraints(status.getJobKey(), constraints);
                 status = this.postJobStatusMessage(status);
                 log.info("Job queued: {}", status);
             }
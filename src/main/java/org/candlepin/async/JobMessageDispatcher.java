@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -302,6 +303,21 @@ public class JobMessageDispatcher {
         return store;
     }
 
+    /**
+     * Notifies this dispatcher of the constraints configured for jobs with the given key. This is
+     * called as jobs are queued, before their messages are posted. Constraints are enforced by the
+     * job manager as jobs are queued, so this implementation does nothing with them.
+     *
+     * @param jobKey
+     *  the key of the job being queued
+     *
+     * @param constraints
+     *  the constraints configured for the job; may be null
+     */
+    public void registerConstraints(String jobKey, Collection<JobConstraint> constraints) {
+        // Intentionally left empty
+    }
+
     /**
      * Posts a job message to the backing message bus, which may or may not be sent immediately.
      * If the message cannot be posted, this method should throw an exception.
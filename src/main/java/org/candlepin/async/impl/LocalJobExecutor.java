@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.impl;
+
+import org.candlepin.async.JobMessage;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The LocalJobExecutor runs job messages dispatched within this JVM on a work-stealing thread pool,
+ * without passing them through the message broker.
+ * <p></p>
+ * Messages are grouped into lanes by job key. Each lane may be given a concurrency limit, in which
+ * case no more than that many jobs with the key will execute at once; any further messages wait in
+ * the lane until a running job completes. Waiting messages do not occupy a worker thread.
+ * <p></p>
+ * Messages are held in memory only. Messages which have not yet been executed when the executor is
+ * shut down are discarded, leaving their jobs in the queued state; the job manager posts new
+ * messages for such jobs when the node is next initialized.
+ */
+@Singleton
+public class LocalJobExecutor {
+    private static final Logger log = LoggerFactory.getLogger(LocalJobExecutor.class);
+
+    private static final String THREAD_NAME_PREFIX = "local-job-worker-";
+
+    /**
+     * A queue of messages for a single job key, along with the number of messages currently being
+     * executed for the key. All access to a lane must be synchronized on the lane.
+     */
+    private static final class Lane {
+        private final Deque<JobMessage> pending = new ArrayDeque<>();
+        private int limit = Integer.MAX_VALUE;
+        private int running = 0;
+    }
+
+    private final ForkJoinPool pool;
+    private final long shutdownTimeout;
+    private final Map<String, Lane> lanes;
+
+    private volatile Consumer<JobMessage> handler;
+    private volatile boolean started;
+
+    /**
+     * Creates a new local job executor.
+     *
+     * @param config
+     *  the configuration to use to configure this executor
+     */
+    @Inject
+    public LocalJobExecutor(Configuration config) {
+        Objects.requireNonNull(config);
+
+        int threads = Math.max(1, config.getInt(ConfigProperties.ASYNC_JOBS_THREADS));
+        ClassLoader classLoader = LocalJobExecutor.class.getClassLoader();
+        AtomicInteger threadCount = new AtomicInteger();
+
+        // Jobs are independent, long-running tasks, so we use the pool in FIFO (async) mode
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setContextClassLoader(classLoader);
+
+            return thread;
+        }, (thread, throwable) -> log.error("Uncaught exception in local job worker", throwable), true);
+
+        this.shutdownTimeout = config.getLong(ConfigProperties.ASYNC_JOBS_THREAD_SHUTDOWN_TIMEOUT);
+        this.lanes = new ConcurrentHashMap<>();
+        this.started = false;
+    }
+
+    /**
+     * Sets the handler to receive job messages as they are executed. This must be called before the
+     * executor is started.
+     *
+     * @param handler
+     *  the handler to receive job messages
+     *
+     * @throws IllegalArgumentException
+     *  if handler is null
+     */
+    public void setHandler(Consumer<JobMessage> handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler is null");
+        }
+
+        this.handler = handler;
+    }
+
+    /**
+     * Sets the maximum number of jobs with the given key which may execute at once.
+     *
+     * @param jobKey
+     *  the key of the jobs to limit
+     *
+     * @param limit
+     *  the maximum number of concurrently executing jobs, or a non-positive value to remove any
+     *  existing limit
+     *
+     * @throws IllegalArgumentException
+     *  if jobKey is null or empty
+     */
+    public void setConcurrencyLimit(String jobKey, int limit) {
+        if (jobKey == null || jobKey.isEmpty()) {
+            throw new IllegalArgumentException("jobKey is null or empty");
+        }
+
+        Lane lane = this.getLane(jobKey);
+        synchronized (lane) {
+            lane.limit = limit > 0 ? limit : Integer.MAX_VALUE;
+        }
+
+        this.drain(lane);
+    }
+
+    /**
+     * Submits the given job message for execution. If the executor is not started, or the
+     * concurrency limit for the job's key has been reached, the message is held until it can be
+     * executed.
+     *
+     * @param message
+     *  the job message to execute
+     *
+     * @throws IllegalArgumentException
+     *  if message is null
+     */
+    public void submit(JobMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("message is null");
+        }
+
+        Lane lane = this.getLane(message.getJobKey());
+        synchronized (lane) {
+            lane.pending.add(message);
+        }
+
+        this.drain(lane);
+    }
+
+    /**
+     * Submits the given job message for execution once the given delay has elapsed.
+     *
+     * @param message
+     *  the job message to execute
+     *
+     * @param delay
+     *  the delay, in milliseconds, before the message is submitted
+     *
+     * @throws IllegalArgumentException
+     *  if message is null
+     */
+    public void submit(JobMessage message, long delay) {
+        if (message == null) {
+            throw new IllegalArgumentException("message is null");
+        }
+
+        CompletableFuture.runAsync(() -> this.submit(message),
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, this.pool));
+    }
+
+    /**
+     * Starts, or resumes, execution of submitted job messages.
+     *
+     * @throws IllegalStateException
+     *  if a handler has not been set
+     */
+    public void start() {
+        if (this.handler == null) {
+            throw new IllegalStateException("No handler set for local job execution");
+        }
+
+        this.started = true;
+        this.lanes.values().forEach(this::drain);
+    }
+
+    /**
+     * Stops starting the execution of submitted job messages. Jobs which are already executing are
+     * allowed to complete.
+     */
+    public void suspend() {
+        this.started = false;
+    }
+
+    /**
+     * Checks if this executor is currently executing submitted job messages.
+     *
+     * @return
+     *  true if this executor is started; false otherwise
+     */
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    /**
+     * Fetches the number of submitted job messages which are waiting to be executed.
+     *
+     * @return
+     *  the number of waiting job messages
+     */
+    public int getPendingCount() {
+        int count = 0;
+
+        for (Lane lane : this.lanes.values()) {
+            synchronized (lane) {
+                count += lane.pending.size();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Shuts down this executor, waiting for executing jobs to complete for up to the configured
+     * shutdown timeout. Any job messages still waiting to be executed are discarded.
+     */
+    public void shutdown() {
+        this.started = false;
+        this.pool.shutdown();
+
+        try {
+            if (!this.pool.awaitTermination(this.shutdownTimeout, TimeUnit.SECONDS)) {
+                log.warn("Local job workers did not finish within {} seconds", this.shutdownTimeout);
+                this.pool.shutdownNow();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.pool.shutdownNow();
+        }
+
+        int pending = this.getPendingCount();
+        if (pending > 0) {
+            log.warn("Discarding {} job message(s) which were not executed before shutdown", pending);
+        }
+    }
+
+    private Lane getLane(String jobKey) {
+        return this.lanes.computeIfAbsent(String.valueOf(jobKey), key -> new Lane());
+    }
+
+    /**
+     * Starts executing as many waiting messages from the given lane as its limit allows.
+     */
+    private void drain(Lane lane) {
+        if (!this.started || this.pool.isShutdown()) {
+            return;
+        }
+
+        List<JobMessage> messages = new ArrayList<>();
+        synchronized (lane) {
+            while (lane.running < lane.limit && !lane.pending.isEmpty()) {
+                messages.add(lane.pending.poll());
+                ++lane.running;
+            }
+        }
+
+        for (JobMessage message : messages) {
+            try {
+                this.pool.execute(() -> this.execute(lane, message));
+            }
+            catch (RejectedExecutionException e) {
+                // The pool is shutting down; leave the message waiting in the lane
+                synchronized (lane) {
+                    lane.pending.addFirst(message);
+                    --lane.running;
+                }
+            }
+        }
+    }
+
+    private void execute(Lane lane, JobMessage message) {
+        try {
+            this.handler.accept(message);
+        }
+        catch (Exception e) {
+            log.error("Unexpected exception executing job message: {}", message, e);
+        }
+        finally {
+            synchronized (lane) {
+                --lane.running;
+            }
+
+            this.drain(lane);
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.impl;
+
+import org.candlepin.async.JobConstraint;
+import org.candlepin.async.JobMessage;
+import org.candlepin.async.JobMessageDispatchException;
+import org.candlepin.async.JobMessageDispatcher;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.messaging.CPMSessionFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import javax.inject.Inject;
+
+
+
+/**
+ * The LocalJobMessageDispatcher passes job messages directly to the {@link LocalJobExecutor} rather
+ * than sending them to the message bus.
+ * <p></p>
+ * As with the messaging dispatcher, posted messages are held per thread until they are committed,
+ * allowing the JobManager to synchronize their dispatch with the database transaction which queued
+ * the job. Throttling constraints for a job key are applied as concurrency limits on the executor.
+ */
+public class LocalJobMessageDispatcher extends JobMessageDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(LocalJobMessageDispatcher.class);
+
+    private final LocalJobExecutor executor;
+    private final ThreadLocal<List<JobMessage>> pending;
+
+    /**
+     * Creates a new LocalJobMessageDispatcher instance.
+     *
+     * @param config
+     *  the system configuration to use
+     *
+     * @param cpmSessionFactory
+     *  the session factory required by the messaging dispatcher; no sessions are created by this
+     *  dispatcher
+     *
+     * @param objMapper
+     *  the object mapper required by the messaging dispatcher
+     *
+     * @param executor
+     *  the executor to which committed job messages are submitted
+     *
+     * @throws ConfigurationException
+     *  if the necessary configuration cannot be read or is invalid
+     */
+    @Inject
+    public LocalJobMessageDispatcher(Configuration config, CPMSessionFactory cpmSessionFactory,
+        ObjectMapper objMapper, LocalJobExecutor executor) throws ConfigurationException {
+
+        super(config, cpmSessionFactory, objMapper);
+
+        this.executor = Objects.requireNonNull(executor);
+        this.pending = ThreadLocal.withInitial(ArrayList::new);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerConstraints(String jobKey, Collection<JobConstraint> constraints) {
+        if (jobKey == null || constraints == null) {
+            return;
+        }
+
+        for (JobConstraint constraint : constraints) {
+            if (constraint instanceof ThrottledByJobKeyConstraint throttle &&
+                jobKey.equals(throttle.getJobKey())) {
+
+                this.executor.setConcurrencyLimit(jobKey, throttle.getLimit());
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postJobMessage(JobMessage jobMessage) throws JobMessageDispatchException {
+        if (jobMessage == null) {
+            throw new JobMessageDispatchException("jobMessage is null");
+        }
+
+        log.debug("Posting local job message: {}", jobMessage);
+        this.pending.get().add(jobMessage);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void commit() throws JobMessageDispatchException {
+        List<JobMessage> messages = this.pending.get();
+
+        try {
+            for (JobMessage message : messages) {
+                this.executor.submit(message);
+            }
+        }
+        catch (Exception e) {
+            throw new JobMessageDispatchException(e);
+        }
+        finally {
+            messages.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rollback() throws JobMessageDispatchException {
+        List<JobMessage> messages = this.pending.get();
+
+        if (!messages.isEmpty()) {
+            log.debug("Discarding {} uncommitted local job message(s)", messages.size());
+            messages.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdown() {
+        this.pending.remove();
+    }
+
+}
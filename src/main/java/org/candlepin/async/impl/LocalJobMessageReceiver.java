@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.impl;
+
+import org.candlepin.async.JobException;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.async.JobMessage;
+import org.candlepin.async.JobMessageDispatchException;
+import org.candlepin.async.JobMessageReceiver;
+import org.candlepin.async.JobStateManagementException;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.messaging.CPMSessionFactory;
+import org.candlepin.model.AsyncJobStatus.JobState;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.persist.UnitOfWork;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+
+import javax.inject.Inject;
+
+
+
+/**
+ * The LocalJobMessageReceiver executes job messages submitted to the {@link LocalJobExecutor} by the
+ * {@link LocalJobMessageDispatcher}, passing them to the job manager on the executor's worker
+ * threads.
+ * <p></p>
+ * Failures are handled as they are by the messaging receiver: where the messaging receiver would
+ * roll back the message to have it redelivered, the message is resubmitted to the executor after a
+ * short delay.
+ */
+public class LocalJobMessageReceiver extends JobMessageReceiver {
+    private static final Logger log = LoggerFactory.getLogger(LocalJobMessageReceiver.class);
+
+    /** The delay, in milliseconds, before a message which could not be processed is redelivered */
+    private static final long REDELIVERY_DELAY = 5000;
+
+    private final LocalJobExecutor executor;
+    private final UnitOfWork unitOfWork;
+
+    private boolean initialized;
+    private boolean suspended;
+
+    /**
+     * Creates a new local job message receiver instance
+     *
+     * @param config
+     *  the system configuration to use
+     *
+     * @param cpmSessionFactory
+     *  the session factory required by the messaging receiver; no sessions are created by this
+     *  receiver
+     *
+     * @param mapper
+     *  the object mapper required by the messaging receiver
+     *
+     * @param unitOfWork
+     *  the unit of work to wrap the execution of each job
+     *
+     * @param executor
+     *  the executor from which job messages are received
+     */
+    @Inject
+    public LocalJobMessageReceiver(Configuration config, CPMSessionFactory cpmSessionFactory,
+        ObjectMapper mapper, UnitOfWork unitOfWork, LocalJobExecutor executor) throws ConfigurationException {
+
+        super(config, cpmSessionFactory, mapper, unitOfWork);
+
+        this.unitOfWork = Objects.requireNonNull(unitOfWork);
+        this.executor = Objects.requireNonNull(executor);
+
+        this.initialized = false;
+        this.suspended = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void initialize(JobManager manager) throws JobException {
+        if (this.initialized) {
+            throw new IllegalStateException("Message receiver already initialized");
+        }
+
+        if (manager == null) {
+            throw new IllegalArgumentException("manager is null");
+        }
+
+        log.info("Executing job messages locally");
+        this.executor.setHandler(message -> this.handleMessage(manager, message));
+
+        this.initialized = true;
+
+        // As with the messaging receiver, we start out suspended until explicitly started
+        this.suspended = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void shutdown() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean isInitialized() {
+        return this.initialized;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void start() {
+        if (this.suspended) {
+            this.executor.start();
+
+            log.debug("Local job message processing started");
+            this.suspended = false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void suspend() {
+        if (!this.suspended) {
+            this.executor.suspend();
+
+            log.debug("Local job message processing suspended");
+            this.suspended = true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean isSuspended() {
+        return this.suspended;
+    }
+
+    /**
+     * Passes the given job message to the job manager for execution, resubmitting it if it could not
+     * be processed and should be retried.
+     *
+     * @param manager
+     *  the job manager to execute the job
+     *
+     * @param message
+     *  the job message to process
+     */
+    protected void handleMessage(JobManager manager, JobMessage message) {
+        try {
+            log.debug("Received local job message: {}", message);
+
+            this.unitOfWork.begin();
+            manager.executeJob(message);
+        }
+        catch (JobExecutionException e) {
+            // The job failed during execution; retry logic within JobManager will handle this
+            // case for us. We need not handle it any further.
+        }
+        catch (JobStateManagementException e) {
+            JobState intendedState = e.getIntendedState();
+
+            if (intendedState != null && !intendedState.isTerminal()) {
+                log.error("Job processing failed; resubmitting job message to retry later: {}", message, e);
+                this.redeliver(message);
+            }
+            else {
+                log.error("Job processing failed terminally; discarding job message: {}", message, e);
+            }
+        }
+        catch (JobMessageDispatchException e) {
+            log.error("Failed to dispatch job message during job execution; resubmitting job message " +
+                "to retry later: {}", message, e);
+
+            this.redeliver(message);
+        }
+        catch (JobException e) {
+            if (e.isTerminal()) {
+                log.error("Job processing failed terminally; discarding job message: {}", message, e);
+            }
+            else {
+                log.error("Job processing failed; resubmitting job message to retry later: {}", message);
+                this.redeliver(message);
+            }
+        }
+        catch (Exception e) {
+            String reason = (e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+
+            // Log a warning instead of a full stack trace to reduce log size.
+            log.warn("Job message processing failed! {}: {}", message, reason);
+            log.debug("Unable to process job message; resubmitting job message", e);
+
+            this.redeliver(message);
+        }
+        finally {
+            this.unitOfWork.end();
+        }
+    }
+
+    private void redeliver(JobMessage message) {
+        this.executor.submit(message, REDELIVERY_DELAY);
+    }
+
+}
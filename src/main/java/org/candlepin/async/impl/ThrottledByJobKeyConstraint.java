@@ -44,6 +44,26 @@ public class ThrottledByJobKeyConstraint implements JobConstraint {
         this.limit = limit;
     }
 
+    /**
+     * Fetches the key of the jobs being throttled by this constraint.
+     *
+     * @return
+     *  the key of the throttled jobs
+     */
+    public String getJobKey() {
+        return this.jobKey;
+    }
+
+    /**
+     * Fetches the maximum number of jobs with the throttled key allowed by this constraint.
+     *
+     * @return
+     *  the maximum number of throttled jobs
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
     /**
      * @{inheritDoc}
      */
@@ -22,22 +22,17 @@ import org.candlepin.async.JobConfigValidationException;
 import org.candlepin.async.JobConstraints;
 import org.candlepin.async.JobExecutionContext;
 import org.candlepin.async.JobExecutionException;
-import org.candlepin.audit.EventSink;
-import org.candlepin.controller.AutobindDisabledForOwnerException;
-import org.candlepin.controller.AutobindHypervisorDisabledException;
-import org.candlepin.controller.Entitler;
-import org.candlepin.model.Consumer;
-import org.candlepin.model.ConsumerCurator;
-import org.candlepin.model.Entitlement;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.controller.OrgHealEngine;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
-import org.candlepin.resource.dto.AutobindData;
-import org.candlepin.util.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xnap.commons.i18n.I18n;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
@@ -58,20 +53,33 @@ public class HealEntireOrgJob implements AsyncJob {
     public static final String OWNER_KEY = "org";
     public static final String ENTITLE_DATE_KEY = "entitle_date";
 
-    private final Entitler entitler;
-    private final EventSink eventSink;
-    private final ConsumerCurator consumerCurator;
+    private static final String HEALED_PREFIX = "Successfully healed consumer with UUID: ";
+    private static final String FAILED_PREFIX = "Healing failed for consumer with UUID: ";
+
+    /** The maximum number of consumers to heal in a single transaction */
+    public static final String CFG_PARTITION_SIZE = "partition_size";
+    public static final String DEFAULT_PARTITION_SIZE = "100";
+
+    /** The number of threads with which to check the compliance of the org's consumers */
+    public static final String CFG_THREADS = "threads";
+    public static final String DEFAULT_THREADS = "4";
+
+    /** The maximum number of consumer outcomes to include in the job result */
+    public static final String CFG_MAX_RESULT_LINES = "max_result_lines";
+    public static final String DEFAULT_MAX_RESULT_LINES = "10000";
+
+    private final OrgHealEngine healEngine;
     private final OwnerCurator ownerCurator;
+    private final Configuration config;
     private final I18n i18n;
 
     @Inject
-    public HealEntireOrgJob(Entitler entitler, EventSink eventSink, ConsumerCurator consumerCurator,
-        OwnerCurator ownerCurator, I18n i18n) {
+    public HealEntireOrgJob(OrgHealEngine healEngine, OwnerCurator ownerCurator, Configuration config,
+        I18n i18n) {
 
-        this.entitler = Objects.requireNonNull(entitler);
-        this.eventSink = Objects.requireNonNull(eventSink);
-        this.consumerCurator = Objects.requireNonNull(consumerCurator);
+        this.healEngine = Objects.requireNonNull(healEngine);
         this.ownerCurator = Objects.requireNonNull(ownerCurator);
+        this.config = Objects.requireNonNull(config);
         this.i18n = Objects.requireNonNull(i18n);
     }
 
@@ -100,36 +108,68 @@ public class HealEntireOrgJob implements AsyncJob {
             }
 
             Date entitleDate = arguments.getAs(ENTITLE_DATE_KEY, Date.class);
-            StringBuilder result = new StringBuilder();
+            int partitionSize = this.getPositiveConfig(CFG_PARTITION_SIZE);
+            int threads = this.getPositiveConfig(CFG_THREADS);
+            int maxResultLines = this.getPositiveConfig(CFG_MAX_RESULT_LINES);
 
-            Transactional<String> transaction = this.consumerCurator.transactional(this::healSingleConsumer)
-                .onCommit(status -> eventSink.sendEvents())
-                .onRollback(status -> eventSink.rollback());
+            // The engine reports each consumer's outcome as its partition completes; the outcomes of
+            // each partition are appended to the result once the partition has been healed
+            PartitionResultCollector results = new PartitionResultCollector(maxResultLines);
+            this.healEngine.heal(owner, entitleDate, partitionSize, threads, results);
+
+            context.setJobResult(results.getResult());
+        }
+        catch (Exception e) {
+            log.error("HealEntireOrgJob encountered a problem.", e);
+            throw new JobExecutionException(e.getMessage(), e, false);
+        }
+    }
 
-            for (String uuid : ownerCurator.getConsumerUuids(owner)) {
-                // Do not send in product IDs.  CandlepinPoolManager will take care
-                // of looking up the non or partially compliant products to bind.
-                try {
-                    Consumer consumer = consumerCurator.getConsumer(uuid);
+    /**
+     * Collects the outcome of each consumer's heal, appending the outcomes of a partition to the
+     * result once the partition completes. Outcomes beyond the maximum number of result lines are
+     * counted, but omitted from the result.
+     */
+    private static class PartitionResultCollector implements OrgHealEngine.HealListener {
+        private final int maxLines;
+        private final StringBuilder result = new StringBuilder();
+        private final List<String> partition = new ArrayList<>();
+        private int lines;
+        private int omitted;
+
+        public PartitionResultCollector(int maxLines) {
+            this.maxLines = maxLines;
+        }
 
-                    String output = transaction.execute(consumer, owner, entitleDate);
-                    result.append(output);
-                }
-                catch (Exception e) {
-                    // We want to catch everything and continue.
-                    // Perhaps add something to surface errors later
-                    String errmsg = String.format("Healing failed for consumer with UUID: %s", uuid);
+        @Override
+        public void consumerHealed(String consumerUuid, boolean healed) {
+            this.partition.add((healed ? HEALED_PREFIX : FAILED_PREFIX) + consumerUuid);
+        }
 
-                    log.debug(errmsg, e);
-                    result.append(errmsg).append("\n");
+        @Override
+        public void partitionHealed() {
+            for (String line : this.partition) {
+                if (this.lines < this.maxLines) {
+                    this.result.append(line).append('\n');
+                    ++this.lines;
+                }
+                else {
+                    ++this.omitted;
                 }
             }
 
-            context.setJobResult(result.toString());
+            this.partition.clear();
         }
-        catch (Exception e) {
-            log.error("HealEntireOrgJob encountered a problem.", e);
-            throw new JobExecutionException(e.getMessage(), e, false);
+
+        public String getResult() {
+            this.partitionHealed();
+
+            if (this.omitted > 0) {
+                return this.result.toString() +
+                    String.format("Results omitted for %d more consumers\n", this.omitted);
+            }
+
+            return this.result.toString();
         }
     }
 
@@ -143,23 +183,25 @@ public class HealEntireOrgJob implements AsyncJob {
         return new HealEntireOrgJobConfig();
     }
 
-    /*
-     * Each consumer heal should be a separate transaction
+    /**
+     * Retrieves the value of the given job configuration, which must be a positive integer.
+     *
+     * @throws JobExecutionException
+     *  if the configured value is not a positive integer
      */
-    public String healSingleConsumer(Object... args)
-        throws AutobindDisabledForOwnerException, AutobindHypervisorDisabledException {
-
-        Consumer consumer = (Consumer) args[0];
-        Owner owner = (Owner) args[1];
-        Date date = (Date) args[2];
-
-        AutobindData autobindData = new AutobindData(consumer, owner)
-            .on(date);
-
-        List<Entitlement> ents = entitler.bindByProducts(autobindData, true);
-        entitler.sendEvents(ents);
+    private int getPositiveConfig(String cfgName) throws JobExecutionException {
+        String configuration = ConfigProperties.jobConfig(JOB_KEY, cfgName);
+        int value = this.config.getInt(configuration);
+        if (value <= 0) {
+            String errorMessage = String.format(
+                "Invalid value for configuration \"%s\", must be a positive integer: %s",
+                configuration, value);
+
+            log.error(errorMessage);
+            throw new JobExecutionException(errorMessage, true);
+        }
 
-        return String.format("Successfully healed consumer with UUID: %s\n", consumer.getUuid());
+        return value;
     }
 
     /**
@@ -23,6 +23,8 @@ import org.candlepin.async.JobConstraints;
 import org.candlepin.async.JobExecutionContext;
 import org.candlepin.async.JobExecutionException;
 import org.candlepin.auth.Principal;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
 import org.candlepin.dto.api.server.v1.ConsumerDTO;
 import org.candlepin.dto.api.server.v1.HypervisorUpdateResultDTO;
 import org.candlepin.model.Owner;
@@ -59,22 +61,32 @@ public class HypervisorUpdateJob implements AsyncJob {
     public static final String JOB_KEY = "HypervisorUpdateJob";
     public static final String JOB_NAME = "Hypervisor Update";
 
+    /**
+     * The maximum number of hypervisors reconciled in a single transaction. When set to zero, each
+     * hypervisor is looked up and reconciled in its own transaction.
+     */
+    public static final String CFG_BATCH_SIZE = "batch_size";
+    public static final String DEFAULT_BATCH_SIZE = "0";
+
     private static final String OWNER_KEY = "org";
     private static final String CREATE_KEY = "create";
     private static final String REPORTER_ID_KEY = "reporter_id";
     private static final String DATA_KEY = "data";
     private static final String PRINCIPAL_KEY = "principal";
 
+    private final Configuration config;
     private final ObjectMapper mapper;
     private final OwnerCurator ownerCurator;
     private final HypervisorUpdateAction hypervisorUpdateAction;
 
     @Inject
     public HypervisorUpdateJob(
+        final Configuration config,
         final OwnerCurator ownerCurator,
         final HypervisorUpdateAction hypervisorUpdateAction,
         @Named("HypervisorUpdateJobObjectMapper") final ObjectMapper objectMapper) {
 
+        this.config = Objects.requireNonNull(config);
         this.ownerCurator = Objects.requireNonNull(ownerCurator);
         this.hypervisorUpdateAction = Objects.requireNonNull(hypervisorUpdateAction);
         this.mapper = Objects.requireNonNull(objectMapper);
@@ -115,8 +127,9 @@ public class HypervisorUpdateJob implements AsyncJob {
             }
 
             final HypervisorList hypervisors = parsedHypervisors(arguments);
+            final int batchSize = this.config.getInt(ConfigProperties.jobConfig(JOB_KEY, CFG_BATCH_SIZE));
             final HypervisorUpdateAction.Result updateResult = hypervisorUpdateAction.update(
-                owner, hypervisors.getHypervisors(), create, principal, jobReporterId);
+                owner, hypervisors.getHypervisors(), create, principal, jobReporterId, batchSize);
             final HypervisorUpdateResultDTO result = updateResult.getResult();
 
             log.info("Summary for report from {} by principal {}\n {}", jobReporterId, principal, result);
@@ -0,0 +1,651 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import org.candlepin.async.impl.ActiveMQSessionFactory;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.util.MBeanUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The EventOutbox decouples the publication of events from the requests and jobs which generate
+ * them.
+ * <p></p>
+ * When enabled, events are placed in a bounded in-memory buffer, and a background thread serializes
+ * and publishes them to the message broker. Events are published in batches, grouped by message
+ * address, with each batch sent over a single transacted session and committed once.
+ * <p></p>
+ * If a spool directory is configured, events which do not fit in the buffer, or which cannot be
+ * published, are appended to a local spool file instead of being dropped. The spool is replayed once
+ * the broker accepts events again. Replay is at-least-once: if replay is interrupted, events already
+ * published from the spool may be published again. Events held in memory are lost if the process
+ * terminates without a clean shutdown.
+ * <p></p>
+ * Runtime statistics are registered with the platform MBean server as "org.candlepin:type=EventOutbox".
+ */
+@Singleton
+public class EventOutbox implements EventOutboxMXBean {
+    private static final Logger log = LoggerFactory.getLogger(EventOutbox.class);
+
+    private static final String THREAD_NAME = "event-outbox-publisher";
+    private static final String MBEAN_TYPE = "EventOutbox";
+
+    private static final String SPOOL_FILE = "events.spool";
+    private static final String REPLAY_FILE = "events.spool.replay";
+
+    /** The amount of time to wait for the publisher to drain the outbox during shutdown, in seconds */
+    private static final long SHUTDOWN_TIMEOUT = 30;
+
+    /** The amount of time the publisher waits for new events before checking for shutdown, in ms */
+    private static final long POLL_INTERVAL = 250;
+
+    /** The minimum and maximum delays between attempts to publish a batch of events, in ms */
+    private static final long RETRY_DELAY_MIN = 100;
+    private static final long RETRY_DELAY_MAX = 30000;
+
+    private final ActiveMQSessionFactory sessionFactory;
+    private final ObjectMapper mapper;
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+
+    private final BlockingQueue<Entry> buffer;
+    private final ExecutorService executor;
+    private volatile boolean running;
+
+    private final Object spoolLock;
+    private Path spoolFile;
+    private Path replayFile;
+    private volatile boolean spoolPending;
+    private long nextReplayAttempt;
+
+    private final LongAdder queued;
+    private final LongAdder published;
+    private final LongAdder dropped;
+    private final LongAdder spooled;
+    private final LongAdder batches;
+    private final LongAdder publishTime;
+    private final AtomicLong lastPublishTime;
+
+    /**
+     * A single event waiting to be published. The event is serialized by the publisher thread, or
+     * when it is spooled; entries read back from the spool carry only their serialized form.
+     */
+    private static class Entry {
+        private final String address;
+        private final String type;
+        private final String target;
+        private Event event;
+        private String body;
+
+        public Entry(String address, Event event) {
+            this.address = address;
+            this.type = event.getType() != null ? event.getType().name() : null;
+            this.target = event.getTarget() != null ? event.getTarget().name() : null;
+            this.event = event;
+        }
+
+        public Entry(String address, String type, String target, String body) {
+            this.address = address;
+            this.type = type;
+            this.target = target;
+            this.body = body;
+        }
+    }
+
+    @Inject
+    public EventOutbox(ActiveMQSessionFactory sessionFactory, ObjectMapper mapper, Configuration config) {
+        this.sessionFactory = Objects.requireNonNull(sessionFactory);
+        this.mapper = Objects.requireNonNull(mapper);
+
+        Objects.requireNonNull(config);
+        this.enabled = config.getBoolean(ConfigProperties.AUDIT_OUTBOX_ENABLED);
+        this.capacity = config.getInt(ConfigProperties.AUDIT_OUTBOX_CAPACITY);
+        this.batchSize = config.getInt(ConfigProperties.AUDIT_OUTBOX_BATCH_SIZE);
+
+        this.spoolLock = new Object();
+        this.queued = new LongAdder();
+        this.published = new LongAdder();
+        this.dropped = new LongAdder();
+        this.spooled = new LongAdder();
+        this.batches = new LongAdder();
+        this.publishTime = new LongAdder();
+        this.lastPublishTime = new AtomicLong(0);
+
+        if (!this.enabled) {
+            this.buffer = null;
+            this.executor = null;
+            return;
+        }
+
+        this.buffer = new ArrayBlockingQueue<>(this.capacity);
+        this.initSpool(config.getString(ConfigProperties.AUDIT_OUTBOX_SPOOL_DIR));
+
+        log.info("Publishing events through an outbox with a capacity of {} and batch size of {}",
+            this.capacity, this.batchSize);
+
+        this.running = true;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        this.executor.execute(this::run);
+        MBeanUtil.register(MBEAN_TYPE, this);
+    }
+
+    private void initSpool(String directory) {
+        if (directory == null || directory.isBlank()) {
+            return;
+        }
+
+        try {
+            Path path = Files.createDirectories(Paths.get(directory));
+
+            this.spoolFile = path.resolve(SPOOL_FILE);
+            this.replayFile = path.resolve(REPLAY_FILE);
+            this.spoolPending = Files.exists(this.spoolFile) || Files.exists(this.replayFile);
+
+            log.info("Spooling unpublished events to: {}", path);
+        }
+        catch (IOException e) {
+            log.error("Unable to create event spool directory; events which cannot be published will be " +
+                "dropped: {}", directory, e);
+        }
+    }
+
+    /**
+     * Checks if events are published through this outbox.
+     *
+     * @return
+     *  true if events are published through this outbox; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Adds the given events to the outbox to be published to the default event address. Events
+     * which do not fit in the outbox are spooled if a spool directory is configured, or dropped
+     * otherwise.
+     *
+     * @param events
+     *  the events to publish
+     *
+     * @throws IllegalArgumentException
+     *  if events is null
+     *
+     * @throws IllegalStateException
+     *  if the outbox is not enabled
+     */
+    public void enqueue(Collection<Event> events) {
+        this.enqueue(MessageAddress.DEFAULT_EVENT_MESSAGE_ADDRESS, events);
+    }
+
+    /**
+     * Adds the given events to the outbox to be published to the specified address. Events which
+     * do not fit in the outbox are spooled if a spool directory is configured, or dropped
+     * otherwise.
+     *
+     * @param address
+     *  the message address to which the events should be published
+     *
+     * @param events
+     *  the events to publish
+     *
+     * @throws IllegalArgumentException
+     *  if address or events is null
+     *
+     * @throws IllegalStateException
+     *  if the outbox is not enabled
+     */
+    public void enqueue(String address, Collection<Event> events) {
+        if (address == null) {
+            throw new IllegalArgumentException("address is null");
+        }
+
+        if (events == null) {
+            throw new IllegalArgumentException("events is null");
+        }
+
+        if (!this.isEnabled()) {
+            throw new IllegalStateException("event outbox is not enabled");
+        }
+
+        List<Entry> overflow = new ArrayList<>();
+        for (Event event : events) {
+            Entry entry = new Entry(address, event);
+
+            if (this.running && this.buffer.offer(entry)) {
+                this.queued.increment();
+            }
+            else {
+                overflow.add(entry);
+            }
+        }
+
+        if (!overflow.isEmpty()) {
+            log.warn("Event outbox is full or stopped; unable to queue {} events", overflow.size());
+            this.spoolOrDrop(overflow);
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(this.batchSize);
+
+        try {
+            while (this.running) {
+                Entry entry = this.buffer.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    this.replaySpool(false);
+                    continue;
+                }
+
+                batch.add(entry);
+                this.buffer.drainTo(batch, this.batchSize - 1);
+
+                this.process(batch);
+                batch.clear();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.running = false;
+        }
+        catch (Exception e) {
+            // Exceptions escaping the publisher would leave events stranded in the buffer
+            log.error("Unexpected exception while publishing events", e);
+            this.running = false;
+        }
+
+        // Drain anything which was queued before we stopped
+        while (this.buffer.drainTo(batch, this.batchSize) > 0) {
+            this.process(batch);
+            batch.clear();
+        }
+
+        // Give any spooled events a final chance while the broker is still available
+        this.replaySpool(true);
+    }
+
+    /**
+     * Publishes the given batch. If publication fails, the batch is spooled if possible; otherwise
+     * it is retried with an increasing delay until it succeeds or the outbox is shut down.
+     */
+    private void process(List<Entry> batch) {
+        long delay = RETRY_DELAY_MIN;
+
+        while (true) {
+            try {
+                this.publish(batch);
+                this.replaySpool(true);
+
+                return;
+            }
+            catch (Exception e) {
+                if (this.spoolFile != null || !this.running) {
+                    log.warn("Unable to publish {} events", batch.size(), e);
+                    this.spoolOrDrop(batch);
+
+                    return;
+                }
+
+                log.warn("Unable to publish {} events; retrying in {}ms", batch.size(), delay, e);
+            }
+
+            try {
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, RETRY_DELAY_MAX);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.running = false;
+            }
+        }
+    }
+
+    /**
+     * Publishes the given entries over a single transacted session, creating one producer per
+     * message address. Entries which cannot be serialized are logged and dropped.
+     */
+    private void publish(List<Entry> entries) throws Exception {
+        Map<String, List<Entry>> addresses = new LinkedHashMap<>();
+        int count = 0;
+
+        for (Entry entry : entries) {
+            if (this.serialize(entry)) {
+                addresses.computeIfAbsent(entry.address, key -> new ArrayList<>())
+                    .add(entry);
+
+                ++count;
+            }
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try (ClientSession session = this.sessionFactory.getEgressSession(true)) {
+            try {
+                for (Map.Entry<String, List<Entry>> address : addresses.entrySet()) {
+                    try (ClientProducer producer = session.createProducer(address.getKey())) {
+                        for (Entry entry : address.getValue()) {
+                            producer.send(this.createMessage(session, entry));
+                        }
+                    }
+                }
+
+                session.commit();
+            }
+            catch (Exception e) {
+                session.rollback();
+                throw e;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        this.published.add(count);
+        this.batches.increment();
+        this.publishTime.add(elapsed);
+        this.lastPublishTime.set(elapsed);
+
+        log.debug("Published {} events to {} addresses", count, addresses.size());
+    }
+
+    private ClientMessage createMessage(ClientSession session, Entry entry) {
+        ClientMessage message = session.createMessage(ClientMessage.TEXT_TYPE, true);
+        message.getBodyBuffer().writeNullableSimpleString(SimpleString.of(entry.body));
+
+        if (entry.type != null) {
+            message.putStringProperty(EventSinkImpl.EVENT_TYPE_KEY, entry.type);
+        }
+
+        if (entry.target != null) {
+            message.putStringProperty(EventSinkImpl.EVENT_TARGET_KEY, entry.target);
+        }
+
+        return message;
+    }
+
+    private boolean serialize(Entry entry) {
+        if (entry.body == null) {
+            try {
+                entry.body = this.mapper.writeValueAsString(entry.event);
+                entry.event = null;
+            }
+            catch (Exception e) {
+                log.error("Unable to serialize event; dropping it: {}", entry.event, e);
+                this.dropped.increment();
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void spoolOrDrop(List<Entry> entries) {
+        if (this.spoolFile != null) {
+            try {
+                this.spool(entries);
+                return;
+            }
+            catch (IOException e) {
+                log.error("Unable to write events to spool: {}", this.spoolFile, e);
+            }
+        }
+
+        log.error("Dropping {} unpublished events", entries.size());
+        this.dropped.add(entries.size());
+    }
+
+    private void spool(List<Entry> entries) throws IOException {
+        List<String> lines = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (this.serialize(entry)) {
+                ObjectNode node = this.mapper.createObjectNode()
+                    .put("address", entry.address)
+                    .put("type", entry.type)
+                    .put("target", entry.target)
+                    .put("body", entry.body);
+
+                lines.add(this.mapper.writeValueAsString(node));
+            }
+        }
+
+        synchronized (this.spoolLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(this.spoolFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+
+            this.spoolPending = true;
+        }
+
+        this.spooled.add(lines.size());
+        log.debug("Spooled {} events", lines.size());
+    }
+
+    /**
+     * Publishes any spooled events. The spool is moved aside before it is read, so events spooled
+     * during replay are kept for the next replay. If the replay fails, it is resumed from the start
+     * of the moved spool on the next attempt.
+     *
+     * @param force
+     *  whether to attempt the replay immediately, rather than waiting out the delay following a
+     *  failed attempt
+     */
+    private void replaySpool(boolean force) {
+        if (!this.spoolPending || this.spoolFile == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (!force && now < this.nextReplayAttempt) {
+            return;
+        }
+
+        try {
+            synchronized (this.spoolLock) {
+                if (!Files.exists(this.replayFile)) {
+                    if (!Files.exists(this.spoolFile)) {
+                        this.spoolPending = false;
+                        return;
+                    }
+
+                    Files.move(this.spoolFile, this.replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            List<Entry> batch = new ArrayList<>(this.batchSize);
+            int count = 0;
+
+            try (BufferedReader reader = Files.newBufferedReader(this.replayFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Entry entry = this.readSpoolEntry(line);
+                    if (entry == null) {
+                        continue;
+                    }
+
+                    batch.add(entry);
+                    if (batch.size() >= this.batchSize) {
+                        this.publish(batch);
+                        count += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                this.publish(batch);
+                count += batch.size();
+            }
+
+            Files.delete(this.replayFile);
+            log.info("Replayed {} spooled events", count);
+
+            synchronized (this.spoolLock) {
+                this.spoolPending = Files.exists(this.spoolFile);
+            }
+        }
+        catch (Exception e) {
+            log.warn("Unable to replay spooled events; will retry later", e);
+            this.nextReplayAttempt = now + RETRY_DELAY_MAX;
+        }
+    }
+
+    private Entry readSpoolEntry(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+
+        try {
+            JsonNode node = this.mapper.readTree(line);
+
+            return new Entry(node.path("address").asText(MessageAddress.DEFAULT_EVENT_MESSAGE_ADDRESS),
+                node.path("type").textValue(),
+                node.path("target").textValue(),
+                node.path("body").textValue());
+        }
+        catch (IOException e) {
+            log.error("Discarding malformed spooled event: {}", line, e);
+            this.dropped.increment();
+
+            return null;
+        }
+    }
+
+    /**
+     * Stops accepting events and waits for the background thread to publish the events remaining in
+     * the outbox. Any events which could not be published before the timeout expires are spooled if
+     * a spool directory is configured, or dropped otherwise.
+     */
+    public void shutdown() {
+        if (this.executor == null) {
+            return;
+        }
+
+        this.running = false;
+        this.executor.shutdown();
+
+        try {
+            if (!this.executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for event outbox to drain");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Entry> remaining = new ArrayList<>();
+        this.buffer.drainTo(remaining);
+
+        if (!remaining.isEmpty()) {
+            this.spoolOrDrop(remaining);
+        }
+    }
+
+    @Override
+    public int getDepth() {
+        return this.buffer != null ? this.buffer.size() : 0;
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public long getQueued() {
+        return this.queued.sum();
+    }
+
+    @Override
+    public long getPublished() {
+        return this.published.sum();
+    }
+
+    @Override
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    @Override
+    public long getSpooled() {
+        return this.spooled.sum();
+    }
+
+    @Override
+    public double getAveragePublishLatency() {
+        long count = this.batches.sum();
+        return count > 0 ? (double) this.publishTime.sum() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+    }
+
+    @Override
+    public double getLastPublishLatency() {
+        return (double) this.lastPublishTime.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
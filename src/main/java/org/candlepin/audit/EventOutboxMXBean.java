@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+
+
+/**
+ * Management interface exposing the runtime statistics of an {@link EventOutbox}.
+ */
+public interface EventOutboxMXBean {
+
+    /**
+     * @return
+     *  the number of events currently held in the outbox waiting to be published
+     */
+    int getDepth();
+
+    /**
+     * @return
+     *  the maximum number of events the outbox will hold
+     */
+    int getCapacity();
+
+    /**
+     * @return
+     *  the number of events accepted into the outbox
+     */
+    long getQueued();
+
+    /**
+     * @return
+     *  the number of events published to the message broker, including events replayed from the
+     *  spool
+     */
+    long getPublished();
+
+    /**
+     * @return
+     *  the number of events which were discarded without being published or spooled
+     */
+    long getDropped();
+
+    /**
+     * @return
+     *  the number of events written to the local spool
+     */
+    long getSpooled();
+
+    /**
+     * @return
+     *  the average time, in milliseconds, taken to publish and commit a batch of events
+     */
+    double getAveragePublishLatency();
+
+    /**
+     * @return
+     *  the time, in milliseconds, taken to publish and commit the most recent batch of events
+     */
+    double getLastPublishLatency();
+}
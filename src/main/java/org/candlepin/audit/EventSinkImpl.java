@@ -39,6 +39,7 @@ import org.apache.activemq.artemis.api.core.client.ClientSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -66,10 +67,13 @@ public class EventSinkImpl implements EventSink {
     private ActiveMQSessionFactory sessionFactory;
     private EventMessageSender messageSender;
 
+    private EventOutbox outbox;
+    private List<Event> outboxEvents;
+
     @Inject
     public EventSinkImpl(EventFilter eventFilter, EventFactory eventFactory,
         ObjectMapper mapper, Configuration config, ActiveMQSessionFactory sessionFactory,
-        CandlepinModeManager modeManager) {
+        CandlepinModeManager modeManager, EventOutbox outbox) {
 
         this.eventFactory = eventFactory;
         this.mapper = mapper;
@@ -77,6 +81,7 @@ public class EventSinkImpl implements EventSink {
         this.modeManager = modeManager;
         this.config = config;
         this.sessionFactory = sessionFactory;
+        this.outbox = outbox;
     }
 
     // FIXME This method really does not belong here. It should probably be moved
@@ -112,7 +117,9 @@ public class EventSinkImpl implements EventSink {
      * Events are filtered, meaning that some of them might not even get into ActiveMQ.
      * Details about the filtering are documented in EventFilter class
      *
-     * ActiveMQ transaction actually manages the queue of events to be sent.
+     * ActiveMQ transaction actually manages the queue of events to be sent, unless the event
+     * outbox is enabled, in which case the events are held here and handed to the outbox to be
+     * serialized and published in the background.
      */
     @Override
     public void queueEvent(Event event) {
@@ -127,6 +134,15 @@ public class EventSinkImpl implements EventSink {
 
         log.debug("Queuing event: {}", event);
 
+        if (this.outbox.isEnabled()) {
+            if (this.outboxEvents == null) {
+                this.outboxEvents = new ArrayList<>();
+            }
+
+            this.outboxEvents.add(event);
+            return;
+        }
+
         try {
             // Lazily initialize the message sender when the first
             // message gets queued.
@@ -152,6 +168,13 @@ public class EventSinkImpl implements EventSink {
             log.debug("No events to send.");
             return;
         }
+
+        if (this.outboxEvents != null) {
+            this.outbox.enqueue(this.outboxEvents);
+            this.outboxEvents = null;
+            return;
+        }
+
         messageSender.sendMessages();
     }
 
@@ -161,11 +184,18 @@ public class EventSinkImpl implements EventSink {
             log.debug("No events to roll back.");
             return;
         }
+
+        if (this.outboxEvents != null) {
+            log.warn("Discarding {} queued events.", this.outboxEvents.size());
+            this.outboxEvents = null;
+            return;
+        }
+
         messageSender.cancelMessages();
     }
 
     private boolean hasQueuedMessages() {
-        return messageSender != null;
+        return messageSender != null || outboxEvents != null;
     }
 
     public void emitConsumerCreated(Consumer newConsumer) {
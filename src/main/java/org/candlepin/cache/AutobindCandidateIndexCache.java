@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.model.AutobindCandidateIndex;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * A node-local, thread safe cache of the autobind candidate indexes of owners, keyed by owner ID.
+ * <p></p>
+ * Building an owner's index projects every pool of the owner along with the provided products and
+ * attributes of their products, which would otherwise be repeated for every autobind. A cached index
+ * is reused for any autobind on or after the date for which it was built, as pools expiring since
+ * then are filtered out by the caller along with any other pool which does not apply.
+ * <p></p>
+ * Entries are evicted based on a time-to-live eviction policy, and are additionally evicted by the
+ * {@link AutobindCandidateIndexCacheInvalidator} as pool and product changes made on this node are
+ * flushed and committed. Changes made on other nodes are only picked up once the affected entries
+ * expire, so the cache is disabled unless a time-to-live is configured.
+ */
+@Singleton
+public class AutobindCandidateIndexCache {
+
+    private static record Entry(Date activeOn, AutobindCandidateIndex index) {
+    }
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+
+    @Inject
+    public AutobindCandidateIndexCache(Configuration config) {
+        Objects.requireNonNull(config);
+
+        long ttl = config.getLong(ConfigProperties.CACHE_AUTOBIND_CANDIDATES_TTL);
+        long maxEntries = config.getLong(ConfigProperties.CACHE_AUTOBIND_CANDIDATES_MAX_ENTRIES);
+
+        this.enabled = ttl > 0;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(Math.max(ttl, 1)))
+            .maximumSize(this.enabled ? maxEntries : 0)
+            .build();
+    }
+
+    /**
+     * Checks if autobind candidate indexes are cached.
+     *
+     * @return
+     *  true if autobind candidate indexes are cached; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Fetches the autobind candidate index of the given owner for the specified date. If the cache
+     * does not contain an index for the owner, or the cached index was built for a later date, the
+     * index is built with the given loader and cached. If caching is disabled, the index is always
+     * built.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch the index
+     *
+     * @param activeOn
+     *  the date on which the indexed pools must be active
+     *
+     * @param loader
+     *  the function to use to build the index for the owner and date if it is not cached
+     *
+     * @throws IllegalArgumentException
+     *  if any of the provided arguments are null
+     *
+     * @return
+     *  the cached or newly built autobind candidate index for the owner
+     */
+    public AutobindCandidateIndex get(String ownerId, Date activeOn,
+        BiFunction<String, Date, AutobindCandidateIndex> loader) {
+
+        if (ownerId == null) {
+            throw new IllegalArgumentException("ownerId is null");
+        }
+
+        if (activeOn == null) {
+            throw new IllegalArgumentException("activeOn is null");
+        }
+
+        if (loader == null) {
+            throw new IllegalArgumentException("loader is null");
+        }
+
+        if (!this.enabled) {
+            return loader.apply(ownerId, activeOn);
+        }
+
+        Entry entry = this.cache.getIfPresent(ownerId);
+        if (entry != null && !entry.activeOn().after(activeOn)) {
+            return entry.index();
+        }
+
+        AutobindCandidateIndex index = loader.apply(ownerId, activeOn);
+        this.cache.put(ownerId, new Entry(activeOn, index));
+
+        return index;
+    }
+
+    /**
+     * Removes the cached autobind candidate index of the given owner.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to remove the cached index
+     */
+    public void evictOwner(String ownerId) {
+        if (ownerId != null) {
+            this.cache.invalidate(ownerId);
+        }
+    }
+
+    /**
+     * Clears all entries in the cache
+     */
+    public void removeAll() {
+        this.cache.invalidateAll();
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * Hibernate event listener which evicts indexes from the {@link AutobindCandidateIndexCache} as
+ * changes to pools and products are made. The listener is registered for both flushed and committed
+ * changes: eviction at flush time keeps a transaction which changes pools from autobinding against
+ * an index built before its changes, while eviction after the commit keeps concurrent requests from
+ * caching an index built from the previous state of the pools while the transaction is in progress.
+ * <p></p>
+ * Products may be shared between owners, so a product change evicts the indexes of every owner.
+ * Changes made with bulk queries do not fire entity events, and are only picked up once the
+ * affected indexes expire.
+ */
+@Singleton
+public class AutobindCandidateIndexCacheInvalidator implements PostCommitInsertEventListener,
+    PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AutobindCandidateIndexCache cache;
+
+    @Inject
+    public AutobindCandidateIndexCacheInvalidator(AutobindCandidateIndexCache cache) {
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+
+        return Pool.class.isAssignableFrom(type) || Product.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        this.evict(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // The indexes were already evicted when the change was flushed
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        this.evict(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // The indexes were already evicted when the change was flushed
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        this.evict(event.getEntity());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // The indexes were already evicted when the change was flushed
+    }
+
+    /**
+     * Evicts any indexes built from the given entity.
+     *
+     * @param entity
+     *  the entity which was inserted, updated or deleted
+     */
+    public void evict(Object entity) {
+        if (entity instanceof Pool pool) {
+            this.cache.evictOwner(pool.getOwnerId());
+        }
+        else if (entity instanceof Product) {
+            this.cache.removeAll();
+        }
+    }
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.dto.api.server.v1.DateRange;
+import org.candlepin.model.Entitlement;
+import org.candlepin.policy.js.compliance.ComplianceReason;
+import org.candlepin.policy.js.compliance.ComplianceStatus;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * A node-local, thread safe cache of calculated compliance statuses, keyed by a hash of the inputs to
+ * the calculation.
+ * <p></p>
+ * A compliance status only changes over time as entitlements become active or expire. When a status is
+ * cached, the period around the calculation date over which no entitlement starts or ends is stored
+ * with it, and the status is only reused for dates within that period. Entries are additionally evicted
+ * based on a time-to-live eviction policy.
+ * <p></p>
+ * Cached statuses do not hold onto entitlement entities. Instead, entitlements are stored by ID and are
+ * resolved against the entitlements of the current calculation when a status is fetched.
+ */
+@Singleton
+public class ComplianceStatusCache {
+    private static final Logger log = LoggerFactory.getLogger(ComplianceStatusCache.class);
+
+    private final boolean enabled;
+    private final Cache<String, CachedStatus> cache;
+
+    @Inject
+    public ComplianceStatusCache(Configuration config) {
+        Objects.requireNonNull(config);
+
+        long ttl = config.getLong(ConfigProperties.CACHE_COMPLIANCE_STATUS_TTL);
+        long maxEntries = config.getLong(ConfigProperties.CACHE_COMPLIANCE_STATUS_MAX_ENTRIES);
+
+        this.enabled = ttl > 0;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(Math.max(ttl, 1)))
+            .maximumSize(this.enabled ? maxEntries : 0)
+            .build();
+    }
+
+    /**
+     * Checks if compliance statuses are cached.
+     *
+     * @return
+     *  true if compliance statuses are cached; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Fetches the cached compliance status for the given input hash, if the status was cached for the
+     * same inputs and is known to hold on the given date.
+     *
+     * @param fingerprint
+     *  the hash of the compliance inputs
+     *
+     * @param date
+     *  the date for which the compliance status is being calculated
+     *
+     * @param entitlements
+     *  the entitlements considered by the compliance calculation
+     *
+     * @throws IllegalArgumentException
+     *  if any of the provided arguments are null
+     *
+     * @return
+     *  a new compliance status populated from the cached status, or null if a usable status is not
+     *  cached
+     */
+    public ComplianceStatus get(String fingerprint, Date date, Collection<Entitlement> entitlements) {
+        if (fingerprint == null) {
+            throw new IllegalArgumentException("fingerprint is null");
+        }
+
+        if (date == null) {
+            throw new IllegalArgumentException("date is null");
+        }
+
+        if (entitlements == null) {
+            throw new IllegalArgumentException("entitlements is null");
+        }
+
+        if (!this.enabled) {
+            return null;
+        }
+
+        CachedStatus cached = this.cache.getIfPresent(fingerprint);
+        if (cached == null || !cached.covers(date.getTime())) {
+            return null;
+        }
+
+        Map<String, Entitlement> entitlementMap = entitlements.stream()
+            .filter(ent -> ent.getId() != null)
+            .collect(Collectors.toMap(Entitlement::getId, Function.identity(), (ent1, ent2) -> ent1));
+
+        if (!entitlementMap.keySet().containsAll(cached.entitlementIds())) {
+            log.debug("Cached compliance status references entitlements which are no longer present");
+            return null;
+        }
+
+        return cached.toStatus(date, entitlementMap);
+    }
+
+    /**
+     * Caches the given compliance status for the given input hash. If any of the given entitlements has
+     * not yet been persisted, the status is not cached.
+     *
+     * @param fingerprint
+     *  the hash of the compliance inputs
+     *
+     * @param date
+     *  the date for which the compliance status was calculated
+     *
+     * @param entitlements
+     *  the entitlements considered by the compliance calculation
+     *
+     * @param status
+     *  the calculated compliance status
+     *
+     * @throws IllegalArgumentException
+     *  if any of the provided arguments are null
+     */
+    public void put(String fingerprint, Date date, Collection<Entitlement> entitlements,
+        ComplianceStatus status) {
+
+        if (fingerprint == null) {
+            throw new IllegalArgumentException("fingerprint is null");
+        }
+
+        if (date == null) {
+            throw new IllegalArgumentException("date is null");
+        }
+
+        if (entitlements == null) {
+            throw new IllegalArgumentException("entitlements is null");
+        }
+
+        if (status == null) {
+            throw new IllegalArgumentException("status is null");
+        }
+
+        if (!this.enabled || entitlements.stream().anyMatch(ent -> ent.getId() == null)) {
+            return;
+        }
+
+        // The status holds for as long as no entitlement starts or ends. Entitlements are active through
+        // the end of their end date, so the first instant at which one is no longer active is the
+        // boundary.
+        List<Long> boundaries = new ArrayList<>();
+        for (Entitlement entitlement : entitlements) {
+            if (entitlement.getStartDate() != null) {
+                boundaries.add(entitlement.getStartDate().getTime());
+            }
+
+            if (entitlement.getEndDate() != null) {
+                boundaries.add(entitlement.getEndDate().getTime() + 1);
+            }
+        }
+
+        long time = date.getTime();
+        long validFrom = Long.MIN_VALUE;
+        long validUntil = Long.MAX_VALUE;
+
+        for (long boundary : boundaries) {
+            if (boundary <= time) {
+                validFrom = Math.max(validFrom, boundary);
+            }
+            else {
+                validUntil = Math.min(validUntil, boundary);
+            }
+        }
+
+        Date compliantUntil = status.getCompliantUntil();
+        if (compliantUntil != null && compliantUntil.getTime() > time) {
+            validUntil = Math.min(validUntil, compliantUntil.getTime());
+        }
+
+        this.cache.put(fingerprint, CachedStatus.of(status, validFrom, validUntil));
+    }
+
+    /**
+     * Clears all entries in the cache
+     */
+    public void removeAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * An entitlement-free copy of a compliance status, along with the period over which it holds.
+     */
+    private record CachedStatus(long validFrom, long validUntil, Date compliantUntil,
+        Set<String> nonCompliantProducts, Map<String, Set<String>> compliantProducts,
+        Map<String, Set<String>> partiallyCompliantProducts, Map<String, Set<String>> partialStacks,
+        Map<String, DateRange> productComplianceDateRanges, List<ComplianceReason> reasons,
+        Set<String> entitlementIds) {
+
+        public static CachedStatus of(ComplianceStatus status, long validFrom, long validUntil) {
+            Set<String> entitlementIds = new HashSet<>();
+
+            Map<String, Set<String>> compliant = toIds(status.getCompliantProducts(), entitlementIds);
+            Map<String, Set<String>> partial = toIds(status.getPartiallyCompliantProducts(), entitlementIds);
+            Map<String, Set<String>> stacks = toIds(status.getPartialStacks(), entitlementIds);
+
+            Map<String, DateRange> ranges = new HashMap<>();
+            status.getProductComplianceDateRanges()
+                .forEach((productId, range) -> ranges.put(productId, copy(range)));
+
+            List<ComplianceReason> reasons = status.getReasons().stream()
+                .map(CachedStatus::copy)
+                .toList();
+
+            Date compliantUntil = status.getCompliantUntil() != null ?
+                new Date(status.getCompliantUntil().getTime()) :
+                null;
+
+            return new CachedStatus(validFrom, validUntil, compliantUntil,
+                Set.copyOf(status.getNonCompliantProducts()), compliant, partial, stacks, ranges, reasons,
+                entitlementIds);
+        }
+
+        private static Map<String, Set<String>> toIds(Map<String, Set<Entitlement>> source,
+            Set<String> entitlementIds) {
+
+            if (source == null) {
+                return null;
+            }
+
+            Map<String, Set<String>> output = new HashMap<>();
+
+            source.forEach((key, entitlements) -> {
+                Set<String> ids = entitlements.stream()
+                    .map(Entitlement::getId)
+                    .collect(Collectors.toSet());
+
+                entitlementIds.addAll(ids);
+                output.put(key, ids);
+            });
+
+            return output;
+        }
+
+        private static Map<String, Set<Entitlement>> fromIds(Map<String, Set<String>> source,
+            Map<String, Entitlement> entitlements) {
+
+            if (source == null) {
+                return null;
+            }
+
+            Map<String, Set<Entitlement>> output = new HashMap<>();
+
+            source.forEach((key, ids) -> output.put(key, ids.stream()
+                .map(entitlements::get)
+                .collect(Collectors.toSet())));
+
+            return output;
+        }
+
+        private static DateRange copy(DateRange range) {
+            return range == null ? null : new DateRange()
+                .startDate(range.getStartDate())
+                .endDate(range.getEndDate());
+        }
+
+        private static ComplianceReason copy(ComplianceReason reason) {
+            ComplianceReason copy = new ComplianceReason();
+            copy.setKey(reason.getKey());
+            copy.setMessage(reason.getMessage());
+            copy.setAttributes(reason.getAttributes() != null ? new HashMap<>(reason.getAttributes()) : null);
+
+            return copy;
+        }
+
+        public boolean covers(long time) {
+            return time >= this.validFrom && time < this.validUntil;
+        }
+
+        public ComplianceStatus toStatus(Date date, Map<String, Entitlement> entitlements) {
+            ComplianceStatus status = new ComplianceStatus(date);
+
+            status.setCompliantUntil(this.compliantUntil != null ? new Date(this.compliantUntil.getTime()) :
+                null);
+
+            this.nonCompliantProducts.forEach(status::addNonCompliantProduct);
+            status.setCompliantProducts(fromIds(this.compliantProducts, entitlements));
+            status.setPartiallyCompliantProducts(fromIds(this.partiallyCompliantProducts, entitlements));
+            status.setPartialStacks(fromIds(this.partialStacks, entitlements));
+            this.productComplianceDateRanges
+                .forEach((productId, range) -> status.addProductComplianceDateRange(productId, copy(range)));
+
+            status.setReasons(this.reasons.stream()
+                .map(CachedStatus::copy)
+                .collect(Collectors.toSet()));
+
+            return status;
+        }
+    }
+
+}
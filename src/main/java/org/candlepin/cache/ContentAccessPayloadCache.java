@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.model.ContentAccessPayload;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+/**
+ * A node-local, thread safe cache of content access payloads, keyed by owner ID and payload key.
+ * <p></p>
+ * Each cached payload is stamped with the time it was built. A cached payload is only returned
+ * while it is at least as recent as the last content update of the owner and environments from
+ * which it was built; otherwise it is rebuilt. As the content update times are read from the
+ * database by the caller, content changes made through any node invalidate the payloads cached
+ * on every node. Entries are additionally evicted based on a time-to-live eviction policy. Other
+ * changes affecting a payload are only picked up once it expires, so payloads are not cached unless
+ * a time-to-live is configured.
+ * <p></p>
+ * Loads are performed at most once per key at a time; concurrent requests for a payload that is
+ * missing or out of date wait for the first request to load it, rather than each loading it
+ * separately. Loads run outside of the cache's internal locks, so a slow load does not block requests
+ * for other keys. A loaded payload is only added to the cache, or handed to the waiting requests,
+ * once the transaction in which it was loaded has been committed. Concurrent loads are shared in this
+ * way even while caching is disabled.
+ */
+@Singleton
+public class ContentAccessPayloadCache {
+
+    /**
+     * Loads a content access payload, either from the database or by building a new payload.
+     *
+     * @param <E>
+     *  the type of exception thrown by the loader
+     */
+    @FunctionalInterface
+    public interface Loader<E extends Exception> {
+
+        /**
+         * Loads the content access payload.
+         *
+         * @throws E
+         *  if the payload cannot be loaded
+         *
+         * @return
+         *  the loaded content access payload, or null if no payload could be loaded
+         */
+        ContentAccessPayload load() throws E;
+    }
+
+    private static record Key(String ownerId, String payloadKey) {
+    }
+
+    private static record Entry(String id, String ownerId, String payloadKey, String payload,
+        long timestamp) {
+
+        public boolean isCurrent(Date contentUpdated) {
+            return contentUpdated == null || contentUpdated.getTime() <= this.timestamp;
+        }
+
+        public ContentAccessPayload toPayload() {
+            // Always return a new instance, as payloads are mutable and shared between threads
+            ContentAccessPayload payload = new ContentAccessPayload()
+                .setOwnerId(this.ownerId)
+                .setPayloadKey(this.payloadKey)
+                .setPayload(this.payload)
+                .setTimestamp(new Date(this.timestamp));
+
+            return this.id != null ? payload.setId(this.id) : payload;
+        }
+    }
+
+    /** The transaction states in which a payload is considered to be loaded within a transaction */
+    private static final TransactionStatus[] ACTIVE_STATES = {
+        TransactionStatus.ACTIVE, TransactionStatus.MARKED_ROLLBACK
+    };
+
+    private final Provider<EntityManager> entityManagerProvider;
+    private final boolean enabled;
+    private final Cache<Key, Entry> cache;
+    private final ConcurrentMap<Key, CompletableFuture<Entry>> loads;
+
+    @Inject
+    public ContentAccessPayloadCache(Configuration config, Provider<EntityManager> entityManagerProvider)
+        throws ConfigurationException {
+
+        Objects.requireNonNull(config);
+        this.entityManagerProvider = Objects.requireNonNull(entityManagerProvider);
+
+        long expirationDuration = config.getLong(ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_TTL);
+        if (expirationDuration < 0) {
+            String msg = ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_TTL +
+                " must be larger than or equal to 0";
+            throw new ConfigurationException(msg);
+        }
+
+        long maxEntries = config.getLong(ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_MAX_ENTRIES);
+        if (maxEntries < 0) {
+            String msg = ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_MAX_ENTRIES +
+                " must be larger than or equal to 0";
+            throw new ConfigurationException(msg);
+        }
+
+        this.enabled = expirationDuration > 0;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(Math.max(expirationDuration, 1)))
+            .maximumSize(this.enabled ? maxEntries : 0)
+            .build();
+
+        this.loads = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks if content access payloads are cached.
+     *
+     * @return
+     *  true if content access payloads are cached; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Retrieves the content access payload for the given owner and payload key. If the cache does
+     * not contain a payload for the key, or the cached payload was built before the given content
+     * update time, the payload is loaded using the provided loader and cached. Only one load is
+     * performed per key at a time; concurrent callers for the same key wait for it to complete.
+     * <p></p>
+     * The returned payload is a detached copy of the cached payload, and may be modified freely
+     * by the caller without affecting the cache.
+     *
+     * @param ownerId
+     *  the ID of the owner of the payload
+     *
+     * @param payloadKey
+     *  the key of the payload, as built by the ContentAccessPayloadKeyBuilder
+     *
+     * @param contentUpdated
+     *  the time of the last content update affecting the payload; payloads built before this time
+     *  are considered out of date. If null, any cached payload is considered current.
+     *
+     * @param loader
+     *  the loader to use to load the payload if it is not cached or is out of date
+     *
+     * @throws IllegalArgumentException
+     *  if the owner ID, payload key or loader is null
+     *
+     * @throws E
+     *  if the payload must be loaded and the loader fails to load it
+     *
+     * @return
+     *  the current content access payload for the given owner and payload key, or null if the
+     *  payload was not cached and the loader did not return a payload
+     */
+    public <E extends Exception> ContentAccessPayload get(String ownerId, String payloadKey,
+        Date contentUpdated, Loader<E> loader) throws E {
+
+        if (ownerId == null) {
+            throw new IllegalArgumentException("owner ID is null");
+        }
+
+        if (payloadKey == null) {
+            throw new IllegalArgumentException("payload key is null");
+        }
+
+        if (loader == null) {
+            throw new IllegalArgumentException("loader is null");
+        }
+
+        Key key = new Key(ownerId, payloadKey);
+
+        while (true) {
+            Entry entry = this.cache.getIfPresent(key);
+            if (entry != null && entry.isCurrent(contentUpdated)) {
+                return entry.toPayload();
+            }
+
+            CompletableFuture<Entry> load = new CompletableFuture<>();
+            CompletableFuture<Entry> pending = this.loads.putIfAbsent(key, load);
+            if (pending == null) {
+                return this.load(key, load, loader);
+            }
+
+            // Another caller is already loading this payload; wait for its result, and only load
+            // the payload ourselves if the load fails, is rolled back, or produces a payload that is
+            // still out of date
+            try {
+                entry = pending.join();
+            }
+            catch (CompletionException | CancellationException e) {
+                continue;
+            }
+
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.isCurrent(contentUpdated)) {
+                return entry.toPayload();
+            }
+        }
+    }
+
+    /**
+     * Loads the payload for the given key with the given loader, publishing the result to any callers
+     * waiting on the given future. The loaded payload is cached and published once the current
+     * transaction commits; if it is rolled back instead, the waiting callers load the payload
+     * themselves.
+     */
+    private <E extends Exception> ContentAccessPayload load(Key key, CompletableFuture<Entry> future,
+        Loader<E> loader) throws E {
+
+        ContentAccessPayload payload;
+        try {
+            payload = loader.load();
+        }
+        catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        }
+        finally {
+            this.loads.remove(key, future);
+        }
+
+        if (payload == null) {
+            future.complete(null);
+            return null;
+        }
+
+        Entry entry = new Entry(payload.getId(), key.ownerId(), key.payloadKey(), payload.getPayload(),
+            payload.getTimestamp().getTime());
+
+        try {
+            this.cacheAfterCommit(key, entry, future);
+        }
+        catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        return entry.toPayload();
+    }
+
+    /**
+     * Caches the given entry and publishes it to the given future once the current transaction
+     * commits, or immediately if there is no active transaction. Entries loaded in a transaction
+     * which is rolled back are never cached, and cancel the future instead.
+     */
+    private void cacheAfterCommit(Key key, Entry entry, CompletableFuture<Entry> future) {
+        Transaction transaction = this.getActiveTransaction();
+        if (transaction == null) {
+            this.put(key, entry);
+            future.complete(entry);
+            return;
+        }
+
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // Intentionally left empty
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    put(key, entry);
+                    future.complete(entry);
+                }
+                else {
+                    future.cancel(false);
+                }
+            }
+        });
+    }
+
+    private Transaction getActiveTransaction() {
+        EntityManager entityManager = this.entityManagerProvider.get();
+        if (entityManager == null || !entityManager.isOpen()) {
+            return null;
+        }
+
+        Session session = entityManager.unwrap(Session.class);
+        Transaction transaction = session != null ? session.getTransaction() : null;
+
+        return transaction != null && transaction.getStatus().isOneOf(ACTIVE_STATES) ? transaction : null;
+    }
+
+    private void put(Key key, Entry entry) {
+        if (!this.enabled) {
+            return;
+        }
+
+        // Never replace a cached payload with an older one committed later
+        this.cache.asMap().merge(key, entry,
+            (existing, loaded) -> loaded.timestamp() >= existing.timestamp() ? loaded : existing);
+    }
+
+    /**
+     * Removes the cached content access payload for the given owner and payload key.
+     *
+     * @param ownerId
+     *  the ID of the owner of the payload
+     *
+     * @param payloadKey
+     *  the key of the payload to remove
+     *
+     * @throws IllegalArgumentException
+     *  if the owner ID or payload key is null
+     */
+    public void remove(String ownerId, String payloadKey) {
+        if (ownerId == null) {
+            throw new IllegalArgumentException("owner ID is null");
+        }
+
+        if (payloadKey == null) {
+            throw new IllegalArgumentException("payload key is null");
+        }
+
+        this.cache.invalidate(new Key(ownerId, payloadKey));
+    }
+
+    /**
+     * Removes all cached content access payloads for the given owner.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to remove the cached payloads
+     *
+     * @throws IllegalArgumentException
+     *  if the owner ID is null
+     */
+    public void removeAll(String ownerId) {
+        if (ownerId == null) {
+            throw new IllegalArgumentException("owner ID is null");
+        }
+
+        this.cache.asMap().keySet().removeIf(key -> ownerId.equals(key.ownerId()));
+    }
+
+    /**
+     * Clears all entries in the cache
+     */
+    public void removeAll() {
+        this.cache.invalidateAll();
+    }
+
+}
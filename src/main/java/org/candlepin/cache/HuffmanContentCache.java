@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * A node-local, thread safe cache of the Huffman-compressed content blobs embedded in V3
+ * certificates, keyed by a hash of the content paths from which each blob was built.
+ * <p></p>
+ * As a compressed blob is entirely determined by its content paths, cached blobs never go out of
+ * date, and are only evicted once the total size of the cached blobs exceeds the configured limit.
+ * Consumers attached to the same set of subscriptions share a single blob, rather than each having
+ * it rebuilt for every certificate.
+ */
+@Singleton
+public class HuffmanContentCache {
+
+    /**
+     * Builds a compressed content blob.
+     *
+     * @param <E>
+     *  the type of exception thrown by the loader
+     */
+    @FunctionalInterface
+    public interface Loader<E extends Exception> {
+
+        /**
+         * Builds the compressed content blob.
+         *
+         * @throws E
+         *  if the blob cannot be built
+         *
+         * @return
+         *  the compressed content blob
+         */
+        byte[] load() throws E;
+    }
+
+    /**
+     * Runtime exception used to carry the checked exception thrown by a loader out of the cache's
+     * compute function.
+     */
+    private static class LoaderException extends RuntimeException {
+        public LoaderException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final HexFormat HEX_FORMATTER = HexFormat.of();
+
+    private final Cache<String, byte[]> cache;
+
+    @Inject
+    public HuffmanContentCache(Configuration config) throws ConfigurationException {
+        Objects.requireNonNull(config);
+
+        long maxBytes = config.getLong(ConfigProperties.CACHE_HUFFMAN_CONTENT_MAX_BYTES);
+        if (maxBytes < 0) {
+            String msg = ConfigProperties.CACHE_HUFFMAN_CONTENT_MAX_BYTES +
+                " must be larger than or equal to 0";
+            throw new ConfigurationException(msg);
+        }
+
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, byte[] blob) -> key.length() + blob.length)
+            .build();
+    }
+
+    /**
+     * Builds the cache key for the given content paths.
+     *
+     * @param paths
+     *  the content paths for which to build a key
+     *
+     * @return
+     *  the cache key for the given content paths
+     */
+    private String buildKey(Collection<String> paths) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+
+            // Content paths cannot contain null characters, as they're used to separate paths in
+            // the compressed blob itself
+            for (String path : paths) {
+                digest.update(String.valueOf(path).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+
+            return HEX_FORMATTER.formatHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Retrieves the compressed content blob for the given content paths. If the cache does not
+     * contain a blob for the paths, the blob is built using the provided loader and cached. Only one
+     * load is performed per set of paths at a time; concurrent callers for the same paths wait for
+     * it to complete.
+     * <p></p>
+     * The paths are used as-is to build the cache key, and should be provided in a stable order,
+     * such as sorted, for equal sets of paths to share a cached blob. The returned blob is a copy of
+     * the cached blob, and may be modified freely by the caller without affecting the cache.
+     *
+     * @param paths
+     *  the content paths encoded in the blob
+     *
+     * @param loader
+     *  the loader to use to build the blob if it is not cached
+     *
+     * @throws IllegalArgumentException
+     *  if the paths or loader is null
+     *
+     * @throws E
+     *  if the blob must be built and the loader fails to build it
+     *
+     * @return
+     *  the compressed content blob for the given content paths
+     */
+    public <E extends Exception> byte[] get(Collection<String> paths, Loader<E> loader) throws E {
+        if (paths == null) {
+            throw new IllegalArgumentException("paths is null");
+        }
+
+        if (loader == null) {
+            throw new IllegalArgumentException("loader is null");
+        }
+
+        String key = this.buildKey(paths);
+
+        byte[] blob;
+        try {
+            blob = this.cache.get(key, k -> {
+                try {
+                    return loader.load();
+                }
+                catch (RuntimeException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new LoaderException(e);
+                }
+            });
+        }
+        catch (LoaderException e) {
+            @SuppressWarnings("unchecked")
+            E cause = (E) e.getCause();
+            throw cause;
+        }
+
+        return blob != null ? blob.clone() : null;
+    }
+
+    /**
+     * Fetches the number of compressed content blobs currently cached.
+     *
+     * @return
+     *  the number of cached blobs
+     */
+    public long size() {
+        return this.cache.estimatedSize();
+    }
+
+    /**
+     * Clears all entries in the cache
+     */
+    public void removeAll() {
+        this.cache.invalidateAll();
+    }
+
+}
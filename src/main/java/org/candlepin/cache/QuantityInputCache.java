@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.policy.js.quantity.QuantityInputs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * A node-local, thread safe cache of the translated consumer inputs to the quantity rules, keyed by a
+ * hash of the consumer data from which they were translated.
+ * <p></p>
+ * Listing available pools for a consumer translates the consumer, its guest IDs and its active
+ * entitlements for the rules on every request, even though they rarely change between the pages of
+ * a listing or between successive listings. Entries are evicted based on a time-to-live eviction
+ * policy, and the cache is disabled unless a time-to-live is configured.
+ */
+@Singleton
+public class QuantityInputCache {
+
+    private final boolean enabled;
+    private final Cache<String, QuantityInputs> cache;
+
+    @Inject
+    public QuantityInputCache(Configuration config) {
+        Objects.requireNonNull(config);
+
+        long ttl = config.getLong(ConfigProperties.CACHE_QUANTITY_INPUTS_TTL);
+        long maxEntries = config.getLong(ConfigProperties.CACHE_QUANTITY_INPUTS_MAX_ENTRIES);
+
+        this.enabled = ttl > 0;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(Math.max(ttl, 1)))
+            .maximumSize(this.enabled ? maxEntries : 0)
+            .build();
+    }
+
+    /**
+     * Checks if quantity rule inputs are cached.
+     *
+     * @return
+     *  true if quantity rule inputs are cached; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Fetches the cached inputs for the given input hash, building and caching them with the given
+     * supplier if they are not yet cached. If caching is disabled, the inputs are always built.
+     *
+     * @param fingerprint
+     *  the hash of the consumer data from which the inputs are translated
+     *
+     * @param supplier
+     *  the supplier to use to build the inputs if they are not cached
+     *
+     * @throws IllegalArgumentException
+     *  if any of the provided arguments are null
+     *
+     * @return
+     *  the cached or newly built quantity rule inputs
+     */
+    public QuantityInputs get(String fingerprint, Supplier<QuantityInputs> supplier) {
+        if (fingerprint == null) {
+            throw new IllegalArgumentException("fingerprint is null");
+        }
+
+        if (supplier == null) {
+            throw new IllegalArgumentException("supplier is null");
+        }
+
+        if (!this.enabled) {
+            return supplier.get();
+        }
+
+        return this.cache.get(fingerprint, key -> supplier.get());
+    }
+
+    /**
+     * Clears all entries in the cache
+     */
+    public void removeAll() {
+        this.cache.invalidateAll();
+    }
+
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.controller.OwnerContentAccess;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.DistributorVersion;
+import org.candlepin.model.DistributorVersionCapability;
+import org.candlepin.model.DistributorVersionCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.util.MBeanUtil;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * A node-local, thread safe, read-through cache for small and rarely changing data which is looked up
+ * on nearly every consumer request: owner content access settings, consumer types, and distributor
+ * version capabilities.
+ * <p></p>
+ * Entries are evicted based on a time-to-live eviction policy, and are additionally evicted by the
+ * {@link ReferenceDataCacheInvalidator} as changes made on this node are committed. Changes made on
+ * other nodes are only picked up once the affected entries expire, so the cache is disabled unless a
+ * time-to-live is configured. Cached values are detached copies, and must not be persisted or used
+ * to modify the database.
+ * <p></p>
+ * Runtime statistics are registered with the platform MBean server as
+ * "org.candlepin:type=ReferenceDataCache".
+ */
+@Singleton
+public class ReferenceDataCache implements ReferenceDataCacheMXBean {
+    private static final String MBEAN_TYPE = "ReferenceDataCache";
+
+    private final OwnerCurator ownerCurator;
+    private final ConsumerTypeCurator consumerTypeCurator;
+    private final DistributorVersionCurator distributorVersionCurator;
+    private final boolean enabled;
+
+    private final Cache<String, OwnerContentAccess> ownerContentAccess;
+    private final Cache<String, ConsumerType> consumerTypesById;
+    private final Cache<String, ConsumerType> consumerTypesByLabel;
+    private final Cache<String, Optional<Set<String>>> distributorCapabilities;
+    private final LongAdder invalidations;
+
+    @Inject
+    public ReferenceDataCache(OwnerCurator ownerCurator, ConsumerTypeCurator consumerTypeCurator,
+        DistributorVersionCurator distributorVersionCurator, Configuration config) {
+
+        this.ownerCurator = Objects.requireNonNull(ownerCurator);
+        this.consumerTypeCurator = Objects.requireNonNull(consumerTypeCurator);
+        this.distributorVersionCurator = Objects.requireNonNull(distributorVersionCurator);
+
+        Objects.requireNonNull(config);
+        long ttl = config.getLong(ConfigProperties.CACHE_REFERENCE_DATA_TTL);
+        long maxEntries = config.getLong(ConfigProperties.CACHE_REFERENCE_DATA_MAX_ENTRIES);
+
+        this.enabled = ttl > 0;
+        this.ownerContentAccess = buildCache(ttl, maxEntries);
+        this.consumerTypesById = buildCache(ttl, maxEntries);
+        this.consumerTypesByLabel = buildCache(ttl, maxEntries);
+        this.distributorCapabilities = buildCache(ttl, maxEntries);
+        this.invalidations = new LongAdder();
+
+        if (this.enabled) {
+            MBeanUtil.register(MBEAN_TYPE, this);
+        }
+    }
+
+    private static <V> Cache<String, V> buildCache(long ttl, long maxEntries) {
+        return Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(Math.max(ttl, 1)))
+            .maximumSize(maxEntries)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Checks if lookups are cached, or always loaded from the database.
+     *
+     * @return
+     *  true if lookups are cached; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Fetches the content access settings of the owner with the specified ID.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch the content access settings
+     *
+     * @throws IllegalArgumentException
+     *  if ownerId is null or empty
+     *
+     * @throws IllegalStateException
+     *  if the owner was not found for the given id
+     *
+     * @return
+     *  the content access settings of the owner
+     */
+    public OwnerContentAccess getOwnerContentAccess(String ownerId) {
+        if (ownerId == null || ownerId.isEmpty()) {
+            throw new IllegalArgumentException("ownerId is null");
+        }
+
+        if (!this.enabled) {
+            return this.loadOwnerContentAccess(ownerId);
+        }
+
+        return this.ownerContentAccess.get(ownerId, this::loadOwnerContentAccess);
+    }
+
+    private OwnerContentAccess loadOwnerContentAccess(String ownerId) {
+        Owner owner = this.ownerCurator.findOwnerById(ownerId);
+        return new OwnerContentAccess(owner.getContentAccessMode(), owner.getContentAccessModeList());
+    }
+
+    /**
+     * Fetches the consumer type of the specified consumer.
+     *
+     * @param consumer
+     *  the consumer for which to fetch a consumer type
+     *
+     * @throws IllegalArgumentException
+     *  if consumer is null or does not have a defined type ID
+     *
+     * @throws IllegalStateException
+     *  if the consumer's defined type ID is invalid
+     *
+     * @return
+     *  the consumer type of the specified consumer
+     */
+    public ConsumerType getConsumerType(Consumer consumer) {
+        if (consumer == null || consumer.getTypeId() == null) {
+            throw new IllegalArgumentException("consumer is null or does not have a defined type ID");
+        }
+
+        if (!this.enabled) {
+            return this.consumerTypeCurator.getConsumerType(consumer);
+        }
+
+        return this.consumerTypesById.get(consumer.getTypeId(),
+            id -> copy(this.consumerTypeCurator.getConsumerType(consumer)));
+    }
+
+    /**
+     * Fetches the consumer type with the specified label.
+     *
+     * @param label
+     *  the label of the consumer type to fetch
+     *
+     * @throws IllegalArgumentException
+     *  if label is null or empty
+     *
+     * @return
+     *  the consumer type with the specified label, or null if the label does not exist
+     */
+    public ConsumerType getConsumerTypeByLabel(String label) {
+        if (label == null || label.isEmpty()) {
+            throw new IllegalArgumentException("label is null or empty");
+        }
+
+        if (!this.enabled) {
+            return this.consumerTypeCurator.getByLabel(label);
+        }
+
+        // Unknown labels are not cached, as they may be created at any time
+        return this.consumerTypesByLabel.get(label, key -> copy(this.consumerTypeCurator.getByLabel(key)));
+    }
+
+    private static ConsumerType copy(ConsumerType source) {
+        if (source == null) {
+            return null;
+        }
+
+        return new ConsumerType()
+            .setId(source.getId())
+            .setLabel(source.getLabel())
+            .setManifest(source.isManifest())
+            .setCreated(source.getCreated())
+            .setUpdated(source.getUpdated());
+    }
+
+    /**
+     * Fetches the names of the capabilities of the distributor version with the specified name.
+     *
+     * @param name
+     *  the name of the distributor version for which to fetch capabilities
+     *
+     * @return
+     *  an immutable set containing the names of the capabilities of the distributor version, or null
+     *  if the name is null, blank, or no such distributor version exists
+     */
+    public Set<String> getDistributorCapabilities(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+
+        if (!this.enabled) {
+            return this.loadDistributorCapabilities(name).orElse(null);
+        }
+
+        return this.distributorCapabilities.get(name, this::loadDistributorCapabilities)
+            .orElse(null);
+    }
+
+    private Optional<Set<String>> loadDistributorCapabilities(String name) {
+        DistributorVersion version = this.distributorVersionCurator.findByName(name);
+        if (version == null) {
+            return Optional.empty();
+        }
+
+        Set<DistributorVersionCapability> capabilities = version.getCapabilities();
+        if (capabilities == null) {
+            return Optional.of(Set.of());
+        }
+
+        return Optional.of(capabilities.stream()
+            .filter(Objects::nonNull)
+            .map(DistributorVersionCapability::getName)
+            .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    /**
+     * Evicts the cached content access settings of the owner with the specified ID.
+     *
+     * @param ownerId
+     *  the ID of the owner to evict
+     */
+    public void evictOwner(String ownerId) {
+        if (ownerId != null) {
+            this.ownerContentAccess.invalidate(ownerId);
+            this.invalidations.increment();
+        }
+    }
+
+    /**
+     * Evicts the specified consumer type, by both its ID and label.
+     *
+     * @param type
+     *  the consumer type to evict
+     */
+    public void evictConsumerType(ConsumerType type) {
+        if (type == null) {
+            return;
+        }
+
+        if (type.getId() != null) {
+            this.consumerTypesById.invalidate(type.getId());
+        }
+
+        if (type.getLabel() != null) {
+            this.consumerTypesByLabel.invalidate(type.getLabel());
+        }
+
+        this.invalidations.increment();
+    }
+
+    /**
+     * Evicts the cached capabilities of the distributor version with the specified name.
+     *
+     * @param name
+     *  the name of the distributor version to evict
+     */
+    public void evictDistributorVersion(String name) {
+        if (name != null) {
+            this.distributorCapabilities.invalidate(name);
+            this.invalidations.increment();
+        }
+    }
+
+    /**
+     * Clears all entries in the cache
+     */
+    public void evictAll() {
+        this.ownerContentAccess.invalidateAll();
+        this.consumerTypesById.invalidateAll();
+        this.consumerTypesByLabel.invalidateAll();
+        this.distributorCapabilities.invalidateAll();
+    }
+
+    private CacheStats consumerTypeStats() {
+        return this.consumerTypesById.stats()
+            .plus(this.consumerTypesByLabel.stats());
+    }
+
+    private CacheStats totalStats() {
+        return this.ownerContentAccess.stats()
+            .plus(this.consumerTypeStats())
+            .plus(this.distributorCapabilities.stats());
+    }
+
+    @Override
+    public double getOwnerContentAccessHitRate() {
+        return this.ownerContentAccess.stats().hitRate();
+    }
+
+    @Override
+    public double getConsumerTypeHitRate() {
+        return this.consumerTypeStats().hitRate();
+    }
+
+    @Override
+    public double getDistributorVersionHitRate() {
+        return this.distributorCapabilities.stats().hitRate();
+    }
+
+    @Override
+    public long getHits() {
+        return this.totalStats().hitCount();
+    }
+
+    @Override
+    public long getMisses() {
+        return this.totalStats().missCount();
+    }
+
+    @Override
+    public long getInvalidations() {
+        return this.invalidations.sum();
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.DistributorVersion;
+import org.candlepin.model.DistributorVersionCapability;
+import org.candlepin.model.Owner;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * Hibernate event listener which evicts entries from the {@link ReferenceDataCache} once changes to
+ * the entities they were loaded from have been committed. Eviction happens after the commit so that
+ * concurrent requests cannot reload and cache the previous state of an entity while the transaction
+ * changing it is still in progress.
+ * <p></p>
+ * Changes made with bulk queries do not fire entity events, and are only picked up once the
+ * affected cache entries expire.
+ */
+@Singleton
+public class ReferenceDataCacheInvalidator implements PostCommitInsertEventListener,
+    PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ReferenceDataCache cache;
+
+    @Inject
+    public ReferenceDataCacheInvalidator(ReferenceDataCache cache) {
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+
+        return Owner.class.isAssignableFrom(type) ||
+            ConsumerType.class.isAssignableFrom(type) ||
+            DistributorVersion.class.isAssignableFrom(type) ||
+            DistributorVersionCapability.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        this.evict(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was changed; the cache remains valid
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        this.evict(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was changed; the cache remains valid
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        this.evict(event.getEntity());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was changed; the cache remains valid
+    }
+
+    /**
+     * Evicts any cache entries loaded from the given entity.
+     *
+     * @param entity
+     *  the entity which was inserted, updated or deleted
+     */
+    public void evict(Object entity) {
+        if (entity instanceof Owner owner) {
+            this.cache.evictOwner(owner.getId());
+        }
+        else if (entity instanceof ConsumerType type) {
+            this.cache.evictConsumerType(type);
+        }
+        else if (entity instanceof DistributorVersion version) {
+            this.cache.evictDistributorVersion(version.getName());
+        }
+        else if (entity instanceof DistributorVersionCapability capability &&
+            capability.getDistributorVersion() != null) {
+
+            this.cache.evictDistributorVersion(capability.getDistributorVersion().getName());
+        }
+    }
+
+}
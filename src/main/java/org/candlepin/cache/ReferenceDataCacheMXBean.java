@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+
+
+/**
+ * Management interface exposing the runtime statistics of the {@link ReferenceDataCache}.
+ */
+public interface ReferenceDataCacheMXBean {
+
+    /**
+     * @return
+     *  the fraction of owner content access lookups which were served from the cache
+     */
+    double getOwnerContentAccessHitRate();
+
+    /**
+     * @return
+     *  the fraction of consumer type lookups which were served from the cache
+     */
+    double getConsumerTypeHitRate();
+
+    /**
+     * @return
+     *  the fraction of distributor version capability lookups which were served from the cache
+     */
+    double getDistributorVersionHitRate();
+
+    /**
+     * @return
+     *  the total number of lookups which were served from the cache
+     */
+    long getHits();
+
+    /**
+     * @return
+     *  the total number of lookups which had to be loaded from the database
+     */
+    long getMisses();
+
+    /**
+     * @return
+     *  the total number of entries evicted by changes made on this node
+     */
+    long getInvalidations();
+}
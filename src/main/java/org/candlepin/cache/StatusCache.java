@@ -19,6 +19,9 @@ import org.candlepin.dto.api.server.v1.StatusDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 
 
 /**
@@ -26,7 +29,10 @@ import org.slf4j.LoggerFactory;
  */
 public class StatusCache {
     private static Logger log = LoggerFactory.getLogger(StatusCache.class);
-    private static final Object LOCK = new Object();
+
+    // Impl note: a monitor held by a virtual thread pins it to its carrier thread, so we use an
+    // explicit lock rather than synchronizing
+    private static final Lock LOCK = new ReentrantLock();
 
     /** The Time-To-Live setting for our cached status object, in milliseconds */
     private static final int STATUS_CACHE_TTL = 5000;
@@ -40,7 +46,8 @@ public class StatusCache {
      * @return the current {@link Status}, null if it has not yet been set.
      */
     public StatusDTO getStatus() {
-        synchronized (LOCK) {
+        LOCK.lock();
+        try {
             // Check if we can return our cached status
             if (cachedStatus != null && cachedStatus.getTimeUTC() != null) {
                 long lastUpdateTimeSkew =
@@ -56,6 +63,9 @@ public class StatusCache {
             // If the cached value was invalidated, reset it.
             reset();
         }
+        finally {
+            LOCK.unlock();
+        }
         // Return null if the cached value was invalidated.
         return null;
     }
@@ -66,18 +76,26 @@ public class StatusCache {
      * @param status the Status to set.
      */
     public void setStatus(StatusDTO status) {
-        synchronized (LOCK) {
+        LOCK.lock();
+        try {
             cachedStatus = status;
         }
+        finally {
+            LOCK.unlock();
+        }
     }
 
     /**
      * Clear the cached status to allow forced regeneration.
      */
     public void clear() {
-        synchronized (LOCK) {
+        LOCK.lock();
+        try {
             reset();
         }
+        finally {
+            LOCK.unlock();
+        }
     }
 
     private void reset() {
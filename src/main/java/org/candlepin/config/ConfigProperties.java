@@ -20,6 +20,8 @@ import org.candlepin.async.tasks.ActiveEntitlementJob;
 import org.candlepin.async.tasks.CertificateCleanupJob;
 import org.candlepin.async.tasks.EntitlerJob;
 import org.candlepin.async.tasks.ExpiredPoolsCleanupJob;
+import org.candlepin.async.tasks.HealEntireOrgJob;
+import org.candlepin.async.tasks.HypervisorUpdateJob;
 import org.candlepin.async.tasks.ImportRecordCleanerJob;
 import org.candlepin.async.tasks.InactiveConsumerCleanerJob;
 import org.candlepin.async.tasks.JobCleaner;
@@ -35,6 +37,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Defines a map of default properties used to prepopulate the {@link Configuration}.
@@ -121,6 +124,26 @@ public class ConfigProperties {
      * will be filtered, meaning they will not enter ActiveMQ.
      */
     public static final String AUDIT_FILTER_DEFAULT_POLICY = "candlepin.audit.filter.policy";
+    /**
+     * Whether or not events should be handed to an in-memory outbox and published to the message
+     * broker in batches by a background thread, rather than being published by the request or job
+     * which generated them.
+     */
+    public static final String AUDIT_OUTBOX_ENABLED = "candlepin.audit.outbox.enabled";
+    /**
+     * The maximum number of events the event outbox will hold while waiting to be published
+     */
+    public static final String AUDIT_OUTBOX_CAPACITY = "candlepin.audit.outbox.capacity";
+    /**
+     * The maximum number of events the event outbox will publish in a single broker transaction
+     */
+    public static final String AUDIT_OUTBOX_BATCH_SIZE = "candlepin.audit.outbox.batch_size";
+    /**
+     * The directory in which the event outbox will spool events it cannot hold or publish. Spooled
+     * events are published once the broker becomes available again. When empty, events which
+     * cannot be held or published are dropped.
+     */
+    public static final String AUDIT_OUTBOX_SPOOL_DIR = "candlepin.audit.outbox.spool_dir";
 
     public static final String PRETTY_PRINT = "candlepin.pretty_print";
     public static final String ACTIVATION_DEBUG_PREFIX = "candlepin.subscription.activation.debug_prefix";
@@ -152,6 +175,36 @@ public class ConfigProperties {
      */
     public static final String SUSPEND_MODE_ENABLED = "candlepin.suspend_mode_enabled";
 
+    /**
+     * Whether or not API requests should be processed on virtual threads, releasing the container's
+     * request thread while the request blocks on the database, the message broker or signing. Only
+     * takes effect on runtimes which provide virtual threads; requests are otherwise processed on the
+     * container's request thread.
+     */
+    public static final String REQUEST_VIRTUAL_THREADS = "candlepin.request.virtual_threads";
+    /**
+     * The maximum number of requests which may be processed concurrently by any single resource class.
+     * Requests exceeding the limit wait for up to the configured wait timeout, in milliseconds, before
+     * being rejected. When set to zero, concurrency is not limited.
+     */
+    public static final String REQUEST_MAX_CONCURRENCY_PER_RESOURCE =
+        "candlepin.request.max_concurrency_per_resource";
+    public static final String REQUEST_CONCURRENCY_WAIT_TIMEOUT =
+        "candlepin.request.concurrency_wait_timeout";
+
+    /**
+     * The percentage of requests for which request and response bodies are captured for logging.
+     * The percentage may be overridden for individual endpoints, identified by the first segment of
+     * the request path, with keys of the form "candlepin.request.logging.body_sample_percent.owners".
+     */
+    public static final String REQUEST_LOGGING_BODY_SAMPLE_PERCENT =
+        "candlepin.request.logging.body_sample_percent";
+    /**
+     * The maximum number of bytes of a request or response body to be captured for logging; longer
+     * bodies are logged truncated.
+     */
+    public static final String REQUEST_LOGGING_MAX_BODY_SIZE = "candlepin.request.logging.max_body_size";
+
     // Messaging
     public static final String CPM_PROVIDER = "candlepin.messaging.provider";
 
@@ -189,6 +242,52 @@ public class ConfigProperties {
     public static final String CACHE_ANON_CERT_CONTENT_TTL = "candlepin.cache.anonymous.cert.content.ttl";
     public static final String CACHE_ANON_CERT_CONTENT_MAX_ENTRIES =
         "candlepin.cache.anonymous.cert.content.max_entries";
+    /**
+     * The time, in milliseconds, for which content access payloads are cached. Cached payloads built
+     * before the last content update of their owner or environments are always rebuilt; other changes
+     * are only picked up once the payloads expire. When set to zero, the default, payloads are not
+     * cached, though concurrent loads of the same payload are still shared.
+     */
+    public static final String CACHE_CONTENT_ACCESS_PAYLOAD_TTL =
+        "candlepin.cache.content_access_payload.ttl";
+    public static final String CACHE_CONTENT_ACCESS_PAYLOAD_MAX_ENTRIES =
+        "candlepin.cache.content_access_payload.max_entries";
+    public static final String CACHE_HUFFMAN_CONTENT_MAX_BYTES = "candlepin.cache.huffman_content.max_bytes";
+    /**
+     * The time, in milliseconds, for which owner content access settings, consumer types and
+     * distributor version capabilities are cached. Changes made on this node evict the affected entries
+     * as they are committed; changes made on other nodes or through bulk updates are only picked up once
+     * the entries expire. When set to zero, the default, these lookups are not cached.
+     */
+    public static final String CACHE_REFERENCE_DATA_TTL = "candlepin.cache.reference_data.ttl";
+    public static final String CACHE_REFERENCE_DATA_MAX_ENTRIES =
+        "candlepin.cache.reference_data.max_entries";
+    /**
+     * The time, in milliseconds, for which calculated compliance statuses are cached. A cached status
+     * is only reused while the consumer's compliance inputs are unchanged and the requested date falls
+     * within the period over which the status was known to hold. When set to zero, compliance statuses
+     * are not cached.
+     */
+    public static final String CACHE_COMPLIANCE_STATUS_TTL = "candlepin.cache.compliance_status.ttl";
+    public static final String CACHE_COMPLIANCE_STATUS_MAX_ENTRIES =
+        "candlepin.cache.compliance_status.max_entries";
+    /**
+     * The time, in milliseconds, for which the translated consumer inputs to the quantity rules are
+     * cached. Cached inputs are only reused while the consumer's facts, guest IDs and active
+     * entitlements are unchanged. When set to zero, the default, quantity rule inputs are not cached.
+     */
+    public static final String CACHE_QUANTITY_INPUTS_TTL = "candlepin.cache.quantity_inputs.ttl";
+    public static final String CACHE_QUANTITY_INPUTS_MAX_ENTRIES =
+        "candlepin.cache.quantity_inputs.max_entries";
+    /**
+     * The time, in milliseconds, for which the index of an owner's autobind candidate pools is cached.
+     * Pool and product changes made on this node evict the affected indexes as they are flushed and
+     * committed; changes made on other nodes are picked up once the indexes expire. When set to zero,
+     * the default, the index is rebuilt for every autobind.
+     */
+    public static final String CACHE_AUTOBIND_CANDIDATES_TTL = "candlepin.cache.autobind_candidates.ttl";
+    public static final String CACHE_AUTOBIND_CANDIDATES_MAX_ENTRIES =
+        "candlepin.cache.autobind_candidates.max_entries";
 
     // Paging
     public static final String PAGING_DEFAULT_PAGE_SIZE = "candlepin.paging.default_page_size";
@@ -196,6 +295,20 @@ public class ConfigProperties {
 
     public static final String SYNC_WORK_DIR = "candlepin.sync.work_dir";
 
+    /**
+     * Whether manifests exported synchronously are streamed to the client as they are generated,
+     * rather than being written to a file in the sync work directory first. Errors which occur
+     * after streaming has begun cannot be reported to the client, which instead receives a
+     * truncated, unsigned archive.
+     */
+    public static final String SYNC_EXPORT_STREAMING = "candlepin.sync.export_streaming";
+
+    /**
+     * Whether manifests should be imported directly from the uploaded archive stream, rather than
+     * being unpacked to a temporary directory first.
+     */
+    public static final String IMPORT_STREAMING = "candlepin.importer.streaming";
+
     /**
      *  Controls which facts will be stored by Candlepin -- facts with keys that do not match this
      *  value will be discarded.
@@ -220,6 +333,42 @@ public class ConfigProperties {
     public static final String PRODUCT_CACHE_MAX = "candlepin.cache.product_cache_max";
 
     public static final String CONSUMER_MIGRATION_BATCH_SIZE = "candlepin.consumer.migration.batch.size";
+
+    /**
+     * The maximum time, in seconds, consumer check-ins may be held in memory before being written
+     * to the database. When set to a positive value, check-ins are coalesced per consumer and
+     * written periodically in batches; otherwise, each check-in is written as it occurs.
+     */
+    public static final String CONSUMER_CHECKIN_MAX_STALENESS = "candlepin.consumer.checkin.max_staleness";
+
+    /**
+     * The maximum number of upstream entities (subscriptions, products and content) refreshed in a
+     * single transaction. When set to a positive value, refresh operations split the upstream data
+     * into independent chunks, each committed separately. A value of zero or less refreshes all
+     * upstream entities in a single transaction.
+     */
+    public static final String REFRESH_CHUNK_SIZE = "candlepin.refresh.chunk_size";
+
+    /**
+     * The number of threads used to compare upstream entities against their existing local versions
+     * during refresh operations. Changes are always persisted serially. A value of one or less
+     * performs the comparisons serially on the refreshing thread.
+     */
+    public static final String REFRESH_PARALLELISM = "candlepin.refresh.parallelism";
+
+    /**
+     * The number of threads used to sign entitlement certificates during bulk, non-lazy certificate
+     * regeneration. A value of one or less regenerates certificates one entitlement at a time on
+     * the regenerating thread.
+     */
+    public static final String CERT_REGEN_PARALLELISM = "candlepin.cert_regen.parallelism";
+
+    /**
+     * The number of entitlements gathered, signed and persisted together during bulk certificate
+     * regeneration. Only used when certificate regeneration is performed in parallel.
+     */
+    public static final String CERT_REGEN_PAGE_SIZE = "candlepin.cert_regen.page_size";
+
     public static final String INTEGER_FACTS = "candlepin.integer_facts";
     private static final String INTEGER_FACT_LIST = "";
 
@@ -264,6 +413,37 @@ public class ConfigProperties {
      */
     public static final String SCA_X509_CERT_EXPIRY_THRESHOLD = "candlepin.cert.sca.expiry.threshold";
 
+    /**
+     * Whether or not consumer key pairs should be taken from a pool of pre-generated key pairs which is
+     * kept filled by background threads. When disabled, key pairs are always generated inline.
+     */
+    public static final String KEYPAIR_POOL_ENABLED = "candlepin.pki.keypair_pool.enabled";
+
+    /** The maximum number of pre-generated key pairs to hold in the key pair pool */
+    public static final String KEYPAIR_POOL_MAX_SIZE = "candlepin.pki.keypair_pool.max_size";
+
+    /** The pool depth below which the background threads will begin refilling the key pair pool */
+    public static final String KEYPAIR_POOL_LOW_WATER_MARK = "candlepin.pki.keypair_pool.low_water_mark";
+
+    /** The number of background threads used to generate key pairs for the key pair pool */
+    public static final String KEYPAIR_POOL_THREADS = "candlepin.pki.keypair_pool.threads";
+
+    /**
+     * The engine used to calculate consumer compliance. "js" uses the compliance rules, "native" uses the
+     * native Java implementation of the rules, and "differential" runs both, reporting any mismatch
+     * between them while returning the result of the rules.
+     */
+    public static final String COMPLIANCE_ENGINE = "candlepin.compliance.engine";
+
+    /** The maximum number of idle rules execution scopes to retain for reuse */
+    public static final String RULES_SCOPE_POOL_SIZE = "candlepin.rules.scope_pool.max_size";
+
+    /**
+     * The minimum interval, in milliseconds, between checks of the database for rules updated by
+     * another node. Rules updated on the local node are picked up immediately.
+     */
+    public static final String RULES_UPDATE_CHECK_INTERVAL = "candlepin.rules.update_check_interval";
+
     public static final String SWAGGER_ENABLED = "candlepin.swagger.enabled";
 
     /** Enabled dev page used to interactively login to a Keycloak instance and generate offline token. */
@@ -281,6 +461,11 @@ public class ConfigProperties {
     public static final String ASYNC_JOBS_RECEIVE_ADDRESS = "candlepin.async.receive_address";
     public static final String ASYNC_JOBS_RECEIVE_FILTER = "candlepin.async.receive_filter";
 
+    // Whether or not job messages should be passed directly to an executor within this JVM rather
+    // than through the message broker. Jobs will only execute on the node which queued them, so this
+    // is only suitable for single-node deployments.
+    public static final String ASYNC_JOBS_LOCAL_DISPATCH = "candlepin.async.local_dispatch";
+
     // Whether or not we should allow queuing new jobs on this node while the job manager is
     // suspended/paused
     public static final String ASYNC_JOBS_QUEUE_WHILE_SUSPENDED = "candlepin.async.queue_while_suspended";
@@ -417,10 +602,15 @@ public class ConfigProperties {
 
             this.put(AUDIT_FILTER_DO_FILTER, "");
             this.put(AUDIT_FILTER_DEFAULT_POLICY, "DO_FILTER");
+            this.put(AUDIT_OUTBOX_ENABLED, "false");
+            this.put(AUDIT_OUTBOX_CAPACITY, "10000");
+            this.put(AUDIT_OUTBOX_BATCH_SIZE, "500");
+            this.put(AUDIT_OUTBOX_SPOOL_DIR, "");
 
             this.put(PRETTY_PRINT, "false");
 
             this.put(SYNC_WORK_DIR, "/var/cache/candlepin/sync");
+            this.put(SYNC_EXPORT_STREAMING, "false");
             this.put(CONSUMER_FACTS_MATCHER, ".*");
             this.put(TRUSTED_AUTHENTICATION, "false");
             this.put(SSL_AUTHENTICATION, "true");
@@ -439,20 +629,47 @@ public class ConfigProperties {
             this.put(SSL_VERIFY, "false");
 
             this.put(FAIL_ON_UNKNOWN_IMPORT_PROPERTIES, "false");
+            this.put(IMPORT_STREAMING, "false");
 
             this.put(CACHE_JMX_STATS, "false");
             this.put(CACHE_CONFIG_FILE_URI, "ehcache.xml");
             this.put(CACHE_ANON_CERT_CONTENT_TTL, "120000"); // milliseconds
             this.put(CACHE_ANON_CERT_CONTENT_MAX_ENTRIES, "10000");
+            this.put(CACHE_CONTENT_ACCESS_PAYLOAD_TTL, "0"); // milliseconds
+            this.put(CACHE_CONTENT_ACCESS_PAYLOAD_MAX_ENTRIES, "500");
+            this.put(CACHE_HUFFMAN_CONTENT_MAX_BYTES, "33554432"); // 32 MiB
+            this.put(CACHE_REFERENCE_DATA_TTL, "0"); // milliseconds
+            this.put(CACHE_REFERENCE_DATA_MAX_ENTRIES, "10000");
+            this.put(CACHE_COMPLIANCE_STATUS_TTL, "600000"); // milliseconds
+            this.put(CACHE_COMPLIANCE_STATUS_MAX_ENTRIES, "50000");
+            this.put(CACHE_QUANTITY_INPUTS_TTL, "0"); // milliseconds
+            this.put(CACHE_QUANTITY_INPUTS_MAX_ENTRIES, "10000");
+            this.put(CACHE_AUTOBIND_CANDIDATES_TTL, "0"); // milliseconds
+            this.put(CACHE_AUTOBIND_CANDIDATES_MAX_ENTRIES, "1000");
 
             this.put(PAGING_DEFAULT_PAGE_SIZE, "10");
             this.put(PAGING_MAX_PAGE_SIZE, "3000");
 
             this.put(SUSPEND_MODE_ENABLED, "true");
 
+            this.put(REQUEST_VIRTUAL_THREADS, "false");
+            this.put(REQUEST_MAX_CONCURRENCY_PER_RESOURCE, "0");
+            this.put(REQUEST_CONCURRENCY_WAIT_TIMEOUT, "30000"); // milliseconds
+
+            this.put(REQUEST_LOGGING_BODY_SAMPLE_PERCENT, "100");
+            this.put(REQUEST_LOGGING_MAX_BODY_SIZE, "65536"); // bytes
+
             this.put(IDENTITY_CERT_YEAR_ADDENDUM, "5");
             this.put(IDENTITY_CERT_EXPIRY_THRESHOLD, "90");
             this.put(SCA_X509_CERT_EXPIRY_THRESHOLD, "10");
+
+            this.put(KEYPAIR_POOL_ENABLED, "false");
+            this.put(KEYPAIR_POOL_MAX_SIZE, "50");
+            this.put(KEYPAIR_POOL_LOW_WATER_MARK, "10");
+            this.put(KEYPAIR_POOL_THREADS, "1");
+            this.put(COMPLIANCE_ENGINE, "js");
+            this.put(RULES_SCOPE_POOL_SIZE, "64");
+            this.put(RULES_UPDATE_CHECK_INTERVAL, "5000"); // milliseconds
             this.put(SHARD_WEBAPP, "candlepin");
 
             // defaults
@@ -507,6 +724,7 @@ public class ConfigProperties {
             this.put(ASYNC_JOBS_DISPATCH_ADDRESS, "job");
             this.put(ASYNC_JOBS_RECEIVE_ADDRESS, "jobs");
             this.put(ASYNC_JOBS_RECEIVE_FILTER, "");
+            this.put(ASYNC_JOBS_LOCAL_DISPATCH, "false");
 
             // ActiveEntitlementJob
             this.put(jobConfig(ActiveEntitlementJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
@@ -524,6 +742,18 @@ public class ConfigProperties {
             this.put(jobConfig(ExpiredPoolsCleanupJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 ExpiredPoolsCleanupJob.DEFAULT_SCHEDULE);
 
+            // HealEntireOrgJob
+            this.put(jobConfig(HealEntireOrgJob.JOB_KEY, HealEntireOrgJob.CFG_PARTITION_SIZE),
+                HealEntireOrgJob.DEFAULT_PARTITION_SIZE);
+            this.put(jobConfig(HealEntireOrgJob.JOB_KEY, HealEntireOrgJob.CFG_THREADS),
+                HealEntireOrgJob.DEFAULT_THREADS);
+            this.put(jobConfig(HealEntireOrgJob.JOB_KEY, HealEntireOrgJob.CFG_MAX_RESULT_LINES),
+                HealEntireOrgJob.DEFAULT_MAX_RESULT_LINES);
+
+            // HypervisorUpdateJob
+            this.put(jobConfig(HypervisorUpdateJob.JOB_KEY, HypervisorUpdateJob.CFG_BATCH_SIZE),
+                HypervisorUpdateJob.DEFAULT_BATCH_SIZE);
+
             // ImportRecordCleanerJob
             this.put(jobConfig(ImportRecordCleanerJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 ImportRecordCleanerJob.DEFAULT_SCHEDULE);
@@ -568,6 +798,11 @@ public class ConfigProperties {
             // Set the triggerable jobs list
             this.put(ASYNC_JOBS_TRIGGERABLE_JOBS, String.join(", ", ASYNC_JOBS_TRIGGERABLE_JOBS_LIST));
             this.put(CONSUMER_MIGRATION_BATCH_SIZE, "200");
+            this.put(CONSUMER_CHECKIN_MAX_STALENESS, "0"); // seconds
+            this.put(REFRESH_CHUNK_SIZE, "0");
+            this.put(REFRESH_PARALLELISM, "1");
+            this.put(CERT_REGEN_PARALLELISM, "1");
+            this.put(CERT_REGEN_PAGE_SIZE, "500");
 
             // Based on testing with the hypervisor check in process, and going a bit conservative
             this.put(DatabaseConfigFactory.IN_OPERATOR_BLOCK_SIZE, "15000");
@@ -609,7 +844,68 @@ public class ConfigProperties {
             this.add(new IntegerConfigurationValidator(SCA_X509_CERT_EXPIRY_THRESHOLD)
                 .min(1));
 
+            this.add(new IntegerConfigurationValidator(KEYPAIR_POOL_MAX_SIZE)
+                .min(1));
+
+            this.add(new IntegerConfigurationValidator(KEYPAIR_POOL_LOW_WATER_MARK)
+                .min(0)
+                .lessThan(KEYPAIR_POOL_MAX_SIZE));
+
+            this.add(new IntegerConfigurationValidator(KEYPAIR_POOL_THREADS)
+                .min(1));
+
+            this.add(new IntegerConfigurationValidator(AUDIT_OUTBOX_CAPACITY)
+                .min(1));
+
+            this.add(new IntegerConfigurationValidator(AUDIT_OUTBOX_BATCH_SIZE)
+                .min(1));
+
+            this.add(new IntegerConfigurationValidator(CACHE_REFERENCE_DATA_TTL)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(CACHE_REFERENCE_DATA_MAX_ENTRIES)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(CACHE_COMPLIANCE_STATUS_TTL)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(CACHE_COMPLIANCE_STATUS_MAX_ENTRIES)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(CACHE_QUANTITY_INPUTS_TTL)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(CACHE_QUANTITY_INPUTS_MAX_ENTRIES)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(CACHE_AUTOBIND_CANDIDATES_TTL)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(CACHE_AUTOBIND_CANDIDATES_MAX_ENTRIES)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(REQUEST_MAX_CONCURRENCY_PER_RESOURCE)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(REQUEST_CONCURRENCY_WAIT_TIMEOUT)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(REQUEST_LOGGING_BODY_SAMPLE_PERCENT)
+                .range(0, 100));
+
+            this.add(new IntegerConfigurationValidator(REQUEST_LOGGING_MAX_BODY_SIZE)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(RULES_SCOPE_POOL_SIZE)
+                .min(0));
+
+            this.add(new IntegerConfigurationValidator(RULES_UPDATE_CHECK_INTERVAL)
+                .min(0));
+
             this.add(new StringConfigurationValidator(DB_DRIVER_CLASS));
+
+            this.add(new StringConfigurationValidator(COMPLIANCE_ENGINE)
+                .allowedValues(Set.of("js", "native", "differential")));
         }
     };
 }
@@ -21,6 +21,8 @@ package org.candlepin.config;
 public class ConfigurationPrefixes {
     public static final String JPA_CONFIG_PREFIX = "jpa.config.";
     public static final String LOGGING_CONFIG_PREFIX = "log4j.logger.";
+    public static final String REQUEST_LOGGING_BODY_SAMPLE_PERCENT_PREFIX =
+        ConfigProperties.REQUEST_LOGGING_BODY_SAMPLE_PERCENT + ".";
 
     private ConfigurationPrefixes() {
         // This class is not meant to be instantiated.
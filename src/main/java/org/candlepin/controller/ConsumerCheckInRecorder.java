@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+
+import com.google.inject.persist.UnitOfWork;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The ConsumerCheckInRecorder is responsible for persisting consumer check-ins.
+ * <p></p>
+ * When a maximum staleness is configured, check-ins are held in memory, coalesced per consumer, and
+ * written to the database periodically by a background thread. Check-ins received within the same
+ * second are written together with batched updates, rather than with one update per check-in.
+ * Otherwise, each check-in is written to the database as it is recorded.
+ */
+@Singleton
+public class ConsumerCheckInRecorder {
+    private static final Logger log = LoggerFactory.getLogger(ConsumerCheckInRecorder.class);
+
+    private static final String THREAD_NAME = "consumer-checkin-recorder";
+
+    /** The amount of time to wait for an in-progress flush to complete during shutdown, in seconds */
+    private static final long SHUTDOWN_TIMEOUT = 30;
+
+    private final ConsumerCurator consumerCurator;
+    private final UnitOfWork unitOfWork;
+    private final long maxStaleness;
+
+    private final ConcurrentMap<String, Date> pending;
+    private final ScheduledExecutorService executor;
+
+    @Inject
+    public ConsumerCheckInRecorder(ConsumerCurator consumerCurator, UnitOfWork unitOfWork,
+        Configuration config) {
+
+        this.consumerCurator = Objects.requireNonNull(consumerCurator);
+        this.unitOfWork = Objects.requireNonNull(unitOfWork);
+        this.maxStaleness = Objects.requireNonNull(config)
+            .getLong(ConfigProperties.CONSUMER_CHECKIN_MAX_STALENESS);
+
+        this.pending = new ConcurrentHashMap<>();
+
+        if (this.isEnabled()) {
+            log.info("Recording consumer check-ins with a maximum staleness of {} seconds",
+                this.maxStaleness);
+
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+
+                return thread;
+            });
+
+            this.executor.scheduleWithFixedDelay(this::scheduledFlush, this.maxStaleness, this.maxStaleness,
+                TimeUnit.SECONDS);
+        }
+        else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Checks if check-ins are held in memory and written in batches, or written as they are
+     * recorded.
+     *
+     * @return
+     *  true if check-ins are written in batches; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.maxStaleness > 0;
+    }
+
+    /**
+     * Records a check-in for the given consumer at the specified time. If the consumer has a pending
+     * check-in, the later of the two check-ins is retained. The consumer entity itself is not
+     * modified.
+     *
+     * @param consumer
+     *  the consumer which checked in
+     *
+     * @param checkIn
+     *  the time of the check-in
+     *
+     * @throws IllegalArgumentException
+     *  if consumer or checkIn is null, or the consumer has not been persisted
+     */
+    public void record(Consumer consumer, Date checkIn) {
+        if (consumer == null || consumer.getId() == null) {
+            throw new IllegalArgumentException("consumer is null or has not been persisted");
+        }
+
+        if (checkIn == null) {
+            throw new IllegalArgumentException("checkIn is null");
+        }
+
+        if (!this.isEnabled()) {
+            this.consumerCurator.updateLastCheckin(consumer, checkIn);
+            return;
+        }
+
+        this.pending.merge(consumer.getId(), checkIn, ConsumerCheckInRecorder::latest);
+    }
+
+    private static Date latest(Date current, Date update) {
+        return current.after(update) ? current : update;
+    }
+
+    /**
+     * Fetches the number of consumers with check-ins waiting to be written to the database.
+     *
+     * @return
+     *  the number of consumers with pending check-ins
+     */
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Writes all pending check-ins to the database. Check-ins are grouped by the second in which
+     * they occurred, and each group is written with batched updates using the latest check-in of
+     * the group, so that no consumer is recorded as checking in earlier than it actually did. If a
+     * group cannot be written, it and any remaining groups are returned to the pending check-ins, to
+     * be retried on the next flush.
+     * <p></p>
+     * This method begins its own unit of work, and must not be called from a thread which already
+     * has one in progress.
+     *
+     * @return
+     *  the number of consumers updated
+     */
+    public int flush() {
+        Map<Long, CheckInBatch> batches = new HashMap<>();
+
+        for (Map.Entry<String, Date> entry : this.pending.entrySet()) {
+            // If the consumer checked in again since we fetched the entry, leave the newer check-in
+            // for the next flush
+            if (this.pending.remove(entry.getKey(), entry.getValue())) {
+                batches.computeIfAbsent(entry.getValue().getTime() / 1000, key -> new CheckInBatch())
+                    .add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (batches.isEmpty()) {
+            return 0;
+        }
+
+        int updated = 0;
+        Iterator<CheckInBatch> iterator = batches.values().iterator();
+
+        this.unitOfWork.begin();
+        try {
+            while (iterator.hasNext()) {
+                CheckInBatch batch = iterator.next();
+
+                try {
+                    updated += this.consumerCurator.updateLastCheckins(batch.consumerIds, batch.checkIn);
+                }
+                catch (RuntimeException e) {
+                    log.warn("Unable to write consumer check-ins; will retry on next flush", e);
+
+                    this.requeue(batch);
+                    iterator.forEachRemaining(this::requeue);
+                }
+            }
+        }
+        finally {
+            this.unitOfWork.end();
+        }
+
+        log.debug("Wrote check-ins for {} consumers", updated);
+        return updated;
+    }
+
+    private void requeue(CheckInBatch batch) {
+        for (String consumerId : batch.consumerIds) {
+            this.pending.merge(consumerId, batch.checkIn, ConsumerCheckInRecorder::latest);
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            this.flush();
+        }
+        catch (Exception e) {
+            // Exceptions escaping the task would cancel all future flushes
+            log.error("Unexpected exception while writing consumer check-ins", e);
+        }
+    }
+
+    /**
+     * Stops the background flushing of check-ins, and writes any remaining check-ins to the
+     * database.
+     */
+    public void shutdown() {
+        if (this.executor == null) {
+            return;
+        }
+
+        this.executor.shutdown();
+
+        try {
+            if (!this.executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for consumer check-in flush to complete");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.flush();
+    }
+
+    /**
+     * A group of consumers to be written with a single check-in time, being the latest check-in
+     * of any consumer in the group.
+     */
+    private static class CheckInBatch {
+        private final List<String> consumerIds = new ArrayList<>();
+        private Date checkIn;
+
+        public void add(String consumerId, Date date) {
+            this.consumerIds.add(consumerId);
+            this.checkIn = this.checkIn != null ? latest(this.checkIn, date) : date;
+        }
+    }
+
+}
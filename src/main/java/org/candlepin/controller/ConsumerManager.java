@@ -55,23 +55,28 @@ public class ConsumerManager {
     private final EnvironmentCurator envCurator;
     private final EventAdapter eventAdapter;
     private final ObjectMapper objectMapper;
+    private final ConsumerCheckInRecorder checkInRecorder;
 
     @Inject
     public ConsumerManager(ConsumerCurator consumerCurator,
         ContentAccessCertificateCurator caCertificateCurator,
         EnvironmentCurator envCurator,
         EventAdapter eventAdapter,
-        ObjectMapper objectMapper) {
+        ObjectMapper objectMapper,
+        ConsumerCheckInRecorder checkInRecorder) {
         this.consumerCurator = Objects.requireNonNull(consumerCurator);
         this.caCertificateCurator = Objects.requireNonNull(caCertificateCurator);
         this.envCurator = Objects.requireNonNull(envCurator);
         this.eventAdapter = Objects.requireNonNull(eventAdapter);
         this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.checkInRecorder = Objects.requireNonNull(checkInRecorder);
     }
 
     /**
      * Updates the last check-in of the consumer and, if cloud data is present,
-     * publishes a cloud check-in event.
+     * publishes a cloud check-in event. If check-ins are being written in batches,
+     * the check-in is handed to the check-in recorder and the consumer is left
+     * unchanged.
      *
      * @param consumer The Consumer object to be updated.
      */
@@ -81,8 +86,14 @@ public class ConsumerManager {
             throw new IllegalArgumentException("Consumer cannot be null");
         }
 
-        consumer.setLastCheckin(new Date());
-        consumer = consumerCurator.merge(consumer);
+        if (this.checkInRecorder.isEnabled()) {
+            // Leave the consumer itself untouched, so it isn't written along with the request
+            this.checkInRecorder.record(consumer, new Date());
+        }
+        else {
+            consumer.setLastCheckin(new Date());
+            consumer = consumerCurator.merge(consumer);
+        }
 
         ConsumerCloudData cloudData = consumer.getConsumerCloudData();
         if (cloudData != null) {
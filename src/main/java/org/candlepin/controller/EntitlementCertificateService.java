@@ -28,10 +28,12 @@ import org.candlepin.model.PoolCurator;
 import org.candlepin.model.PoolQualifier;
 import org.candlepin.model.PoolQuantity;
 import org.candlepin.model.Product;
+import org.candlepin.pki.certs.EntitlementCertificatePipeline;
 import org.candlepin.service.EntitlementCertServiceAdapter;
 import org.candlepin.util.CertificateSizeException;
 import org.candlepin.version.CertVersionConflictException;
 
+import com.google.common.collect.Iterables;
 import com.google.inject.persist.Transactional;
 
 import org.slf4j.Logger;
@@ -73,13 +75,15 @@ public class EntitlementCertificateService {
     private final PoolCurator poolCurator;
     private final EventSink eventSink;
     private final EventFactory eventFactory;
+    private final EntitlementCertificatePipeline certificatePipeline;
 
 
     @Inject
     public EntitlementCertificateService(EntitlementCertificateCurator entitlementCertificateCurator,
         EntitlementCertServiceAdapter entCertServiceAdapter, EntitlementCurator entitlementCurator,
         PoolCurator poolCurator, EventSink eventSink, EventFactory eventFactory,
-        ContentAccessManager contentAccessManager, OwnerCurator ownerCurator) {
+        ContentAccessManager contentAccessManager, OwnerCurator ownerCurator,
+        EntitlementCertificatePipeline certificatePipeline) {
 
         this.entitlementCertificateCurator = entitlementCertificateCurator;
         this.entCertServiceAdapter = entCertServiceAdapter;
@@ -90,6 +94,7 @@ public class EntitlementCertificateService {
 
         this.eventSink = eventSink;
         this.eventFactory = eventFactory;
+        this.certificatePipeline = certificatePipeline;
     }
 
     /**
@@ -235,7 +240,12 @@ public class EntitlementCertificateService {
      * Regenerates the certificates for the specified entitlements.
      */
     private void regenerateCertificatesImpl(Iterable<Entitlement> entitlements) {
-        if (entitlements != null) {
+        if (entitlements != null && this.certificatePipeline.isEnabled()) {
+            this.certificatePipeline.regenerate(
+                Iterables.partition(entitlements, this.certificatePipeline.getPageSize()),
+                this::queueEntitlementChangedEvent);
+        }
+        else if (entitlements != null) {
             Set<String> entIds = new HashSet<>();
 
             for (Entitlement entitlement : entitlements) {
@@ -249,7 +259,7 @@ public class EntitlementCertificateService {
                     entitlement.setCertificates(Collections.singleton(generated));
 
                     // send entitlement changed event.
-                    this.eventSink.queueEvent(this.eventFactory.entitlementChanged(entitlement));
+                    this.queueEntitlementChangedEvent(entitlement);
 
                     entIds.add(entitlement.getId());
                 }
@@ -268,6 +278,10 @@ public class EntitlementCertificateService {
         }
     }
 
+    private void queueEntitlementChangedEvent(Entitlement entitlement) {
+        this.eventSink.queueEvent(this.eventFactory.entitlementChanged(entitlement));
+    }
+
     /**
      * Regenerates the certificates for the specified entitlements. This method is a utility method
      * which individually regenerates certificates for each entitlement in the provided collection.
@@ -288,6 +302,14 @@ public class EntitlementCertificateService {
         if (lazy) {
             this.entitlementCurator.markEntitlementsDirty(entitlementIds);
         }
+        else if (this.certificatePipeline.isEnabled()) {
+            // Load the entitlements a page at a time, as the pipeline requests them
+            Iterable<List<Entitlement>> pages = Iterables.transform(
+                Iterables.partition(entitlementIds, this.certificatePipeline.getPageSize()),
+                this.entitlementCurator::listAllByIds);
+
+            this.certificatePipeline.regenerate(pages, this::queueEntitlementChangedEvent);
+        }
         else {
             for (String entitlementId : entitlementIds) {
                 Entitlement entitlement = entitlementCurator.get(entitlementId);
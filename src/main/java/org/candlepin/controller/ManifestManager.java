@@ -153,6 +153,61 @@ public class ManifestManager {
         return export;
     }
 
+    /**
+     * Generates a manifest for the specified consumer, writing it directly to the given response
+     * as it is created. Errors which occur once the response has been committed can no longer be
+     * reported to the client; the client receives a truncated archive, lacking the signature which
+     * is written as its final entry.
+     *
+     * @param consumerUuid the target consumer's UUID.
+     * @param cdnLabel the CDN label to store in the meta file.
+     * @param webUrl the URL pointing to the manifest's originating web application.
+     * @param apiUrl the API URL pointing to the manifest's originating candlepin API.
+     * @param response the response to write the manifest to.
+     * @throws ExportCreationException when an export fails.
+     * @throws IseException if there was an issue writing the manifest to the response.
+     */
+    public void writeManifestToResponse(String consumerUuid, String cdnLabel, String webUrl, String apiUrl,
+        HttpServletResponse response) throws ExportCreationException, IseException {
+
+        log.info("Exporting consumer {}", consumerUuid);
+
+        Consumer consumer = validateConsumerForExport(consumerUuid, cdnLabel);
+        poolManager.regenerateDirtyEntitlements(consumer);
+
+        try {
+            response.setContentType("application/zip");
+            response.setHeader("Content-Disposition", "attachment; filename=" +
+                exporter.getExportFileName(consumer));
+
+            // NOTE: The response output stream is expected to be closed by its creator.
+            BufferedOutputStream output = new BufferedOutputStream(response.getOutputStream());
+            exporter.writeFullExport(consumer, cdnLabel, webUrl, apiUrl, output);
+            output.flush();
+        }
+        catch (ExportCreationException | IOException e) {
+            if (response.isCommitted()) {
+                log.error("Unable to complete manifest export for consumer {} after streaming began",
+                    consumerUuid, e);
+            }
+            else {
+                // Discard any partial archive and reset the response data so that a json response
+                // can be returned by RestEasy.
+                response.resetBuffer();
+                response.setContentType("text/json");
+                response.setHeader("Content-Disposition", "");
+            }
+
+            if (e instanceof ExportCreationException) {
+                throw (ExportCreationException) e;
+            }
+
+            throw new IseException(i18n.tr("Unable to create export archive"), e);
+        }
+
+        sink.queueEvent(eventFactory.exportCreated(consumer));
+    }
+
     /**
      * Stores the specified archive via the {@link ManifestFileService} and triggers an
      * asynchronous manifest import.
@@ -346,6 +401,9 @@ public class ManifestManager {
         File export = null;
         try {
             poolManager.regenerateDirtyEntitlements(entitlementCurator.listByConsumer(consumer));
+
+            // The archive is staged in a file, from which it is streamed into storage, rather than
+            // being held in memory
             export = exporter.getFullExport(consumer, cdnLabel, webUrl, apiUrl);
             ManifestFile manifestFile = storeExport(export, consumer);
             sink.queueEvent(eventFactory.exportCreated(consumer));
@@ -0,0 +1,540 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import org.candlepin.audit.EventSink;
+import org.candlepin.auth.Principal;
+import org.candlepin.exceptions.ForbiddenException;
+import org.candlepin.guice.CandlepinRequestScope;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.PoolCurator;
+import org.candlepin.policy.js.compliance.ComplianceRules;
+import org.candlepin.policy.js.compliance.ComplianceStatus;
+import org.candlepin.resource.dto.AutobindData;
+
+import com.google.common.collect.Lists;
+import com.google.inject.persist.UnitOfWork;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+
+
+/**
+ * Heals every consumer in an organization. Rather than performing a full, independent autobind for
+ * each consumer, the engine:
+ *
+ *  - takes a single snapshot of the organization's pool availability, provided products and
+ *    service levels, which is shared by every autobind it performs
+ *  - splits the organization's consumers into partitions, and checks the compliance of each
+ *    partition on a pool of worker threads, skipping consumers which autobind would not change
+ *  - heals the consumers of each partition in a single transaction, debiting the granted
+ *    quantities from the snapshot's ledger so later autobinds skip exhausted pools
+ *
+ * Consumers which autobind refuses are reported as failures without affecting the rest of their
+ * partition. If a partition cannot be healed in a single transaction for any other reason, it is
+ * rolled back and each of its consumers is healed in its own transaction instead, so a single
+ * failing consumer cannot prevent the rest of its partition from being healed.
+ * <p></p>
+ * Compliance checks run in worker threads with their own unit of work, while all entitlements are
+ * granted on the calling thread; entities are never shared between the two.
+ */
+public class OrgHealEngine {
+    private static final Logger log = LoggerFactory.getLogger(OrgHealEngine.class);
+
+    private static final String THREAD_NAME_PREFIX = "Org Heal Worker ";
+
+    /**
+     * Receives the outcome of each consumer's heal. Outcomes are reported as each partition
+     * completes, in the order the consumers were listed for the organization.
+     */
+    @FunctionalInterface
+    public interface HealListener {
+
+        /**
+         * Called once the heal of the given consumer has completed.
+         *
+         * @param consumerUuid
+         *  the UUID of the consumer which was healed
+         *
+         * @param healed
+         *  true if the consumer was healed successfully; false otherwise
+         */
+        void consumerHealed(String consumerUuid, boolean healed);
+
+        /**
+         * Called once the outcome of every consumer in a partition has been reported.
+         */
+        default void partitionHealed() {
+            // Intentionally left empty
+        }
+    }
+
+    private final Entitler entitler;
+    private final EventSink eventSink;
+    private final ConsumerCurator consumerCurator;
+    private final ConsumerTypeCurator consumerTypeCurator;
+    private final OwnerCurator ownerCurator;
+    private final PoolCurator poolCurator;
+    private final ComplianceRules complianceRules;
+    private final UnitOfWork unitOfWork;
+    private final CandlepinRequestScope requestScope;
+
+    @Inject
+    public OrgHealEngine(Entitler entitler, EventSink eventSink, ConsumerCurator consumerCurator,
+        ConsumerTypeCurator consumerTypeCurator, OwnerCurator ownerCurator, PoolCurator poolCurator,
+        ComplianceRules complianceRules, UnitOfWork unitOfWork, CandlepinRequestScope requestScope) {
+
+        this.entitler = Objects.requireNonNull(entitler);
+        this.eventSink = Objects.requireNonNull(eventSink);
+        this.consumerCurator = Objects.requireNonNull(consumerCurator);
+        this.consumerTypeCurator = Objects.requireNonNull(consumerTypeCurator);
+        this.ownerCurator = Objects.requireNonNull(ownerCurator);
+        this.poolCurator = Objects.requireNonNull(poolCurator);
+        this.complianceRules = Objects.requireNonNull(complianceRules);
+        this.unitOfWork = Objects.requireNonNull(unitOfWork);
+        this.requestScope = Objects.requireNonNull(requestScope);
+    }
+
+    /**
+     * Takes a snapshot of the given owner's pools which are active on the specified date.
+     *
+     * @param owner
+     *  the owner for which to take a snapshot
+     *
+     * @param activeOn
+     *  the date on which the pools must be active
+     *
+     * @return
+     *  a snapshot of the owner's pools
+     */
+    public OrgHealSnapshot createSnapshot(Owner owner, Date activeOn) {
+        String ownerId = owner.getId();
+
+        return new OrgHealSnapshot(ownerId, activeOn,
+            this.poolCurator.getAutobindCandidateIndex(ownerId, activeOn),
+            this.poolCurator.retrieveServiceLevelsForOwner(ownerId, true),
+            this.poolCurator.getPoolAvailability(ownerId, activeOn));
+    }
+
+    /**
+     * Heals every consumer in the given organization on the specified date, reporting the outcome
+     * of each consumer's heal to the provided listener.
+     * <p></p>
+     * This method must be called from a thread with an active unit of work, but without an active
+     * transaction.
+     *
+     * @param owner
+     *  the organization to heal
+     *
+     * @param entitleDate
+     *  the date on which to heal the consumers
+     *
+     * @param partitionSize
+     *  the maximum number of consumers to heal in a single transaction
+     *
+     * @param threads
+     *  the number of worker threads with which to check compliance; if one or fewer, compliance is
+     *  checked on the calling thread
+     *
+     * @param listener
+     *  the listener to receive the outcome of each consumer's heal
+     *
+     * @throws IllegalArgumentException
+     *  if owner, entitleDate or listener is null, or partitionSize is not positive
+     */
+    public void heal(Owner owner, Date entitleDate, int partitionSize, int threads, HealListener listener) {
+        if (owner == null) {
+            throw new IllegalArgumentException("owner is null");
+        }
+
+        if (entitleDate == null) {
+            throw new IllegalArgumentException("entitleDate is null");
+        }
+
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException("partitionSize is not a positive integer: " + partitionSize);
+        }
+
+        if (listener == null) {
+            throw new IllegalArgumentException("listener is null");
+        }
+
+        List<String> uuids = this.ownerCurator.getConsumerUuids(owner);
+        if (uuids == null || uuids.isEmpty()) {
+            return;
+        }
+
+        OrgHealSnapshot snapshot = this.createSnapshot(owner, entitleDate);
+        List<List<String>> partitions = Lists.partition(uuids, partitionSize);
+
+        log.info("Healing {} consumers of org {} in {} partitions using {}", uuids.size(), owner.getKey(),
+            partitions.size(), snapshot);
+
+        ExecutorService executor = threads > 1 ? this.createExecutor(threads) : null;
+        AssessmentContext context = new AssessmentContext(entitleDate, owner.isAutobindHypervisorDisabled(),
+            ResteasyContext.getContextData(Principal.class), MDC.getCopyOfContextMap());
+
+        // Keep only a limited number of partitions assessed ahead of the partition being healed, so
+        // the statuses calculated for them are still cached by the time they are needed
+        int lookahead = executor != null ? threads : 0;
+
+        try {
+            Queue<Future<Assessment>> assessments = new ArrayDeque<>();
+            int submitted = 0;
+
+            for (int i = 0; i < partitions.size(); ++i) {
+                while (submitted < partitions.size() && submitted <= i + lookahead) {
+                    assessments.add(this.submitAssessment(executor, partitions.get(submitted++), context));
+                }
+
+                List<String> partition = partitions.get(i);
+                Assessment assessment = this.awaitAssessment(assessments.remove(), partition);
+
+                this.healPartition(owner, entitleDate, partition, assessment, snapshot, listener);
+            }
+        }
+        finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private ExecutorService createExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * The state of the calling thread needed to assess consumers on a worker thread
+     */
+    private record AssessmentContext(Date entitleDate, boolean hypervisorAutobindDisabled,
+        Principal principal, Map<String, String> mdc) {
+    }
+
+    /**
+     * The UUIDs of the consumers of a partition which need to be healed, and of those which autobind
+     * would refuse outright
+     */
+    private record Assessment(Set<String> pending, Set<String> refused) {
+    }
+
+    private Future<Assessment> submitAssessment(ExecutorService executor, List<String> partition,
+        AssessmentContext context) {
+
+        if (executor == null) {
+            return CompletableFuture.completedFuture(this.assessPartition(partition, context));
+        }
+
+        return executor.submit(() -> this.assessPartitionInWorker(partition, context));
+    }
+
+    private Assessment awaitAssessment(Future<Assessment> assessment, List<String> partition) {
+        try {
+            return assessment.get();
+        }
+        catch (ExecutionException e) {
+            // Fall back to a full autobind for the whole partition
+            log.warn("Unable to check compliance for partition; healing all of its consumers", e);
+            return new Assessment(new HashSet<>(partition), Set.of());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking consumer compliance", e);
+        }
+    }
+
+    /**
+     * Sets up the calling thread's request scope, principal, logging context and unit of work
+     * before assessing the given partition.
+     */
+    private Assessment assessPartitionInWorker(List<String> partition, AssessmentContext context) {
+        this.requestScope.enter();
+
+        if (context.principal() != null) {
+            ResteasyContext.pushContext(Principal.class, context.principal());
+        }
+
+        if (context.mdc() != null) {
+            MDC.setContextMap(context.mdc());
+        }
+
+        this.unitOfWork.begin();
+        try {
+            return this.assessPartition(partition, context);
+        }
+        finally {
+            this.unitOfWork.end();
+
+            MDC.clear();
+            if (context.principal() != null) {
+                ResteasyContext.popContextData(Principal.class);
+            }
+
+            this.requestScope.exit();
+        }
+    }
+
+    /**
+     * Determines which consumers in the given partition need to be healed. The compliance statuses
+     * calculated here are cached, and reused when the consumers are healed.
+     *
+     * @return
+     *  the assessment of the consumers of the partition
+     */
+    private Assessment assessPartition(List<String> partition, AssessmentContext context) {
+        Map<String, Consumer> consumers = new HashMap<>();
+        for (Consumer consumer : this.consumerCurator.findByUuids(partition)) {
+            consumers.put(consumer.getUuid(), consumer);
+        }
+
+        Set<String> pending = new HashSet<>();
+        Set<String> refused = new HashSet<>();
+
+        for (String uuid : partition) {
+            Consumer consumer = consumers.get(uuid);
+
+            try {
+                // Autobind refuses hypervisors when hypervisor autobind is disabled; skip them
+                // rather than sending them through the heal
+                if (consumer != null && context.hypervisorAutobindDisabled() &&
+                    ConsumerTypeEnum.HYPERVISOR.matches(this.consumerTypeCurator.getConsumerType(consumer))) {
+
+                    log.debug("Auto-attach is disabled for hypervisors; skipping consumer {}", uuid);
+                    refused.add(uuid);
+                    continue;
+                }
+
+                // Consumers which cannot be found are left to the heal to report as failures
+                if (consumer == null || this.requiresHeal(consumer, context)) {
+                    pending.add(uuid);
+                }
+            }
+            catch (Exception e) {
+                log.debug("Unable to check compliance for consumer {}; healing it regardless", uuid, e);
+                pending.add(uuid);
+            }
+        }
+
+        log.debug("{} of {} consumers in partition require healing", pending.size(), partition.size());
+        return new Assessment(pending, refused);
+    }
+
+    /**
+     * Checks if autobind may change the given consumer's entitlements. Consumers which are fully
+     * compliant and have no role or add-ons have no candidate pools, so healing them is a no-op.
+     */
+    private boolean requiresHeal(Consumer consumer, AssessmentContext context) {
+        // Healing a guest heals its host first, which may create new pools for the guest
+        if (consumer.hasFact(Consumer.Facts.VIRT_UUID)) {
+            return true;
+        }
+
+        // Pools may be attached to match the consumer's role or add-ons regardless of compliance
+        Collection<String> addOns = consumer.getAddOns();
+        if ((consumer.getRole() != null && !consumer.getRole().isBlank()) ||
+            (addOns != null && !addOns.isEmpty())) {
+            return true;
+        }
+
+        // This must match the status check performed when selecting pools, so the status is cached
+        ComplianceStatus status = this.complianceRules.getStatus(consumer, context.entitleDate(), false);
+
+        return !status.getNonCompliantProducts().isEmpty() ||
+            !status.getPartiallyCompliantProducts().isEmpty() ||
+            !status.getPartialStacks().isEmpty();
+    }
+
+    /**
+     * Heals the pending consumers of the given partition, and reports the outcome for every
+     * consumer in the partition. Refused consumers are reported as failures, while any others which
+     * were not pending are reported as healed.
+     */
+    private void healPartition(Owner owner, Date entitleDate, List<String> partition,
+        Assessment assessment, OrgHealSnapshot snapshot, HealListener listener) {
+
+        Set<String> pending = assessment.pending();
+        Set<String> failed = new HashSet<>();
+
+        if (!pending.isEmpty()) {
+            List<String> uuids = partition.stream()
+                .filter(pending::contains)
+                .toList();
+
+            List<Entitlement> granted = new ArrayList<>();
+
+            try {
+                this.consumerCurator.transactional(args -> this.bindConsumers(owner, entitleDate, uuids,
+                    snapshot, granted, failed))
+                    .onCommit(status -> this.eventSink.sendEvents())
+                    .onRollback(status -> this.eventSink.rollback())
+                    .execute();
+            }
+            catch (Exception e) {
+                log.debug("Unable to heal partition in a single transaction; healing consumers individually",
+                    e);
+
+                granted.forEach(entitlement -> snapshot.release(entitlement.getPool().getId(),
+                    entitlement.getQuantity()));
+                failed.clear();
+
+                for (String uuid : uuids) {
+                    if (!this.healConsumer(owner, entitleDate, uuid, snapshot)) {
+                        failed.add(uuid);
+                    }
+                }
+            }
+
+            // Entities from healed partitions are no longer needed; keep the session from growing
+            // with every partition
+            this.consumerCurator.clear();
+        }
+
+        for (String uuid : partition) {
+            listener.consumerHealed(uuid, !failed.contains(uuid) && !assessment.refused().contains(uuid));
+        }
+
+        listener.partitionHealed();
+    }
+
+    /**
+     * Binds each of the given consumers within the current transaction. Consumers which cannot be
+     * found or which autobind refuses are added to the failed consumers; any other failure is
+     * propagated, rolling back the entire partition.
+     */
+    private Void bindConsumers(Owner owner, Date entitleDate, List<String> uuids, OrgHealSnapshot snapshot,
+        List<Entitlement> granted, Set<String> failed) throws Exception {
+
+        Map<String, Consumer> consumers = new HashMap<>();
+        for (Consumer consumer : this.consumerCurator.findByUuids(uuids)) {
+            consumers.put(consumer.getUuid(), consumer);
+        }
+
+        for (String uuid : uuids) {
+            Consumer consumer = consumers.get(uuid);
+
+            if (consumer == null) {
+                log.debug("Healing failed for consumer with UUID: {}; consumer not found", uuid);
+                failed.add(uuid);
+                continue;
+            }
+
+            try {
+                List<Entitlement> entitlements = this.bindConsumer(owner, entitleDate, consumer, snapshot);
+                granted.addAll(entitlements);
+            }
+            catch (ForbiddenException | AutobindDisabledForOwnerException |
+                AutobindHypervisorDisabledException e) {
+
+                // Autobind refuses consumers before granting them anything, so the rest of the
+                // partition is unaffected
+                log.debug("Healing failed for consumer with UUID: {}", uuid, e);
+                failed.add(uuid);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Heals the given consumer in its own transaction.
+     *
+     * @return
+     *  true if the consumer was healed successfully; false otherwise
+     */
+    private boolean healConsumer(Owner owner, Date entitleDate, String uuid, OrgHealSnapshot snapshot) {
+        try {
+            this.consumerCurator.transactional(args -> {
+                Consumer consumer = this.consumerCurator.getConsumer(uuid);
+                if (consumer == null) {
+                    throw new IllegalStateException("Unable to find consumer with UUID: " + uuid);
+                }
+
+                return this.bindConsumer(owner, entitleDate, consumer, snapshot);
+            })
+                .onCommit(status -> this.eventSink.sendEvents())
+                .onRollback(status -> this.eventSink.rollback())
+                .execute();
+
+            return true;
+        }
+        catch (Exception e) {
+            log.debug("Healing failed for consumer with UUID: {}", uuid, e);
+            return false;
+        }
+    }
+
+    /**
+     * Autobinds the given consumer, debiting the granted entitlements from the snapshot's ledger.
+     * Guests are bound without the snapshot, as healing their host may create pools the snapshot
+     * does not include.
+     */
+    private List<Entitlement> bindConsumer(Owner owner, Date entitleDate, Consumer consumer,
+        OrgHealSnapshot snapshot) throws Exception {
+
+        // Do not send in product IDs. The pool manager will take care of looking up the non or
+        // partially compliant products to bind.
+        AutobindData data = new AutobindData(consumer, owner)
+            .on(entitleDate)
+            .setHealSnapshot(consumer.hasFact(Consumer.Facts.VIRT_UUID) ? null : snapshot);
+
+        List<Entitlement> entitlements = this.entitler.bindByProducts(data, true);
+        if (entitlements == null) {
+            return List.of();
+        }
+
+        for (Entitlement entitlement : entitlements) {
+            snapshot.consume(entitlement.getPool().getId(), entitlement.getQuantity());
+        }
+
+        this.entitler.sendEvents(entitlements);
+        return entitlements;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import org.candlepin.model.AutobindCandidateIndex;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+/**
+ * A point-in-time view of the pools of an organization, taken once at the start of an org-wide
+ * heal and shared by every autobind the heal performs. The snapshot holds the organization's
+ * autobind candidate index and service levels, and a ledger of the quantity remaining in each of
+ * its limited pools.
+ * <p></p>
+ * The ledger is debited as entitlements are granted during the heal, allowing autobind to skip
+ * pools which have been exhausted without loading or validating them. The ledger is only a hint:
+ * entitlements granted or revoked outside of the heal are not reflected in it, and every pool
+ * selected through the snapshot is still validated against the rules before it is bound.
+ */
+public class OrgHealSnapshot {
+
+    private final String ownerId;
+    private final Date activeOn;
+    private final AutobindCandidateIndex index;
+    private final Set<String> serviceLevels;
+    private final ConcurrentMap<String, AtomicLong> ledger;
+
+    /**
+     * Creates a new snapshot of the given owner's pools.
+     *
+     * @param ownerId
+     *  the ID of the owner of the pools in the snapshot
+     *
+     * @param activeOn
+     *  the date on which the pools in the snapshot are active
+     *
+     * @param index
+     *  the autobind candidate index of the owner's pools
+     *
+     * @param serviceLevels
+     *  the service levels available in the owner's pools
+     *
+     * @param availability
+     *  a mapping of pool IDs to the quantity remaining in each pool; pools with an unlimited
+     *  quantity should not be included
+     *
+     * @throws IllegalArgumentException
+     *  if any of the provided values are null
+     */
+    public OrgHealSnapshot(String ownerId, Date activeOn, AutobindCandidateIndex index,
+        Set<String> serviceLevels, Map<String, Long> availability) {
+
+        if (ownerId == null) {
+            throw new IllegalArgumentException("ownerId is null");
+        }
+
+        if (activeOn == null) {
+            throw new IllegalArgumentException("activeOn is null");
+        }
+
+        if (index == null) {
+            throw new IllegalArgumentException("index is null");
+        }
+
+        if (serviceLevels == null) {
+            throw new IllegalArgumentException("serviceLevels is null");
+        }
+
+        if (availability == null) {
+            throw new IllegalArgumentException("availability is null");
+        }
+
+        this.ownerId = ownerId;
+        this.activeOn = activeOn;
+        this.index = index;
+        this.serviceLevels = Collections.unmodifiableSet(new HashSet<>(serviceLevels));
+        this.ledger = new ConcurrentHashMap<>();
+
+        availability.forEach((poolId, quantity) -> this.ledger.put(poolId, new AtomicLong(quantity)));
+    }
+
+    public String getOwnerId() {
+        return this.ownerId;
+    }
+
+    public Date getActiveOn() {
+        return this.activeOn;
+    }
+
+    /**
+     * Fetches the service levels available in the owner's pools at the time the snapshot was
+     * taken.
+     *
+     * @return
+     *  an unmodifiable set of the service levels available in the owner's pools
+     */
+    public Set<String> getServiceLevels() {
+        return this.serviceLevels;
+    }
+
+    /**
+     * Checks if the given pool has any quantity remaining according to the ledger. Pools which have
+     * an unlimited quantity, or are not known to the snapshot, are always considered available.
+     *
+     * @param poolId
+     *  the ID of the pool to check
+     *
+     * @return
+     *  true if the pool may have quantity remaining; false otherwise
+     */
+    public boolean isAvailable(String poolId) {
+        AtomicLong remaining = poolId != null ? this.ledger.get(poolId) : null;
+        return remaining == null || remaining.get() > 0;
+    }
+
+    /**
+     * Finds the IDs of the pools in the snapshot which may be of use to an autobind for the given
+     * criteria, and which have quantity remaining according to the ledger.
+     *
+     * @param productIds
+     *  a collection of IDs of the products to cover; may be null
+     *
+     * @param stackingIds
+     *  a collection of IDs of the stacks to complete; may be null
+     *
+     * @param role
+     *  the role of the consumer; may be null
+     *
+     * @param addOns
+     *  a collection of the add-ons of the consumer; may be null
+     *
+     * @return
+     *  a mutable set containing the IDs of the available pools matching any of the given criteria
+     */
+    public Set<String> findCandidates(Collection<String> productIds, Collection<String> stackingIds,
+        String role, Collection<String> addOns) {
+
+        Set<String> candidates = this.index.findCandidates(productIds, stackingIds, role, addOns);
+        candidates.removeIf(poolId -> !this.isAvailable(poolId));
+
+        return candidates;
+    }
+
+    /**
+     * Debits the ledger for the given quantity of the specified pool. If the pool has an unlimited
+     * quantity or is not known to the snapshot, this method has no effect.
+     *
+     * @param poolId
+     *  the ID of the pool from which the quantity was consumed
+     *
+     * @param quantity
+     *  the quantity consumed
+     */
+    public void consume(String poolId, long quantity) {
+        AtomicLong remaining = poolId != null ? this.ledger.get(poolId) : null;
+        if (remaining != null) {
+            remaining.addAndGet(-quantity);
+        }
+    }
+
+    /**
+     * Credits the ledger with the given quantity of the specified pool, reversing a previous call
+     * to consume; generally used when the entitlements consuming the quantity are rolled back. If
+     * the pool has an unlimited quantity or is not known to the snapshot, this method has no
+     * effect.
+     *
+     * @param poolId
+     *  the ID of the pool to which the quantity was returned
+     *
+     * @param quantity
+     *  the quantity returned
+     */
+    public void release(String poolId, long quantity) {
+        AtomicLong remaining = poolId != null ? this.ledger.get(poolId) : null;
+        if (remaining != null) {
+            remaining.addAndGet(quantity);
+        }
+    }
+
+    /**
+     * Fetches the quantity remaining in the given pool according to the ledger.
+     *
+     * @param poolId
+     *  the ID of the pool to check
+     *
+     * @return
+     *  the quantity remaining in the pool, or null if the pool has an unlimited quantity or is not
+     *  known to the snapshot
+     */
+    public Long getRemaining(String poolId) {
+        AtomicLong remaining = poolId != null ? this.ledger.get(poolId) : null;
+        return remaining != null ? remaining.get() : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrgHealSnapshot [owner: %s, active on: %s, limited pools: %d]",
+            this.ownerId, this.activeOn, this.ledger.size());
+    }
+}
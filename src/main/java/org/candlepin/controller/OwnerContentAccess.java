@@ -34,6 +34,15 @@ public class OwnerContentAccess {
         return contentAccessModeList;
     }
 
+    /**
+     * Checks if the org is operating in Simple Content Access (SCA) mode.
+     *
+     * @return true if the org is operating in SCA mode; false otherwise
+     */
+    public boolean isUsingSimpleContentAccess() {
+        return ContentAccessMode.ORG_ENVIRONMENT.matches(contentAccessMode);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
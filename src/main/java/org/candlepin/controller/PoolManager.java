@@ -23,6 +23,7 @@ import org.candlepin.audit.EventSink;
 import org.candlepin.bind.BindChainFactory;
 import org.candlepin.bind.PoolOpProcessor;
 import org.candlepin.bind.PoolOperations;
+import org.candlepin.cache.AutobindCandidateIndexCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.controller.refresher.RefreshResult;
@@ -113,6 +114,7 @@ public class PoolManager {
     private final Provider<RefreshWorker> refreshWorkerProvider;
     private final PoolOpProcessor poolOpProcessor;
     private final PoolConverter poolConverter;
+    private final AutobindCandidateIndexCache autobindCandidateCache;
     private final PoolService poolService;
     private final boolean isStandalone;
 
@@ -137,7 +139,8 @@ public class PoolManager {
         BindChainFactory bindChainFactory,
         Provider<RefreshWorker> refreshWorkerProvider,
         PoolOpProcessor poolOpProcessor,
-        PoolConverter poolConverter) {
+        PoolConverter poolConverter,
+        AutobindCandidateIndexCache autobindCandidateCache) {
 
         this.poolCurator = Objects.requireNonNull(poolCurator);
         this.sink = Objects.requireNonNull(sink);
@@ -157,6 +160,7 @@ public class PoolManager {
         this.refreshWorkerProvider = Objects.requireNonNull(refreshWorkerProvider);
         this.poolOpProcessor = Objects.requireNonNull(poolOpProcessor);
         this.poolConverter = Objects.requireNonNull(poolConverter);
+        this.autobindCandidateCache = Objects.requireNonNull(autobindCandidateCache);
         this.poolService = Objects.requireNonNull(poolService);
         this.isStandalone = config.getBoolean(ConfigProperties.STANDALONE);
     }
@@ -858,7 +862,7 @@ public class PoolManager {
         String ownerId = consumer.getOwnerId();
 
         List<PoolQuantity> bestPools = getBestPools(consumer, productIds, entitleDate,
-            ownerId, null, fromPools);
+            ownerId, null, fromPools, data.getHealSnapshot());
         if (bestPools == null) {
             return null;
         }
@@ -966,7 +970,7 @@ public class PoolManager {
             log.debug("Removing pool host is already entitled to: {}", ent.getPool());
             allOwnerPools.remove(ent.getPool());
         }
-        List<Pool> filteredPools = new LinkedList<>();
+        List<Pool> candidatePools = new ArrayList<>();
 
         ComplianceStatus guestCompliance = complianceRules.getStatus(guest, entitleDate, false);
 
@@ -1049,23 +1053,12 @@ public class PoolManager {
             }
 
             if (providesProduct || matchesAddOns || matchesRole) {
-                ValidationResult result = enforcer.preEntitlement(host, pool, 1, CallerType.BEST_POOLS);
-
-                if (result.hasErrors() || result.hasWarnings()) {
-                    // Just keep the last one around, if we need it
-                    failedResults.put(pool.getId(), result);
-                    if (log.isDebugEnabled()) {
-                        log.debug("Pool filtered from candidates due to failed rule(s): {}", pool);
-                        log.debug("  warnings: {}", Util.collectionToString(result.getWarnings()));
-                        log.debug("  errors: {}", Util.collectionToString(result.getErrors()));
-                    }
-                }
-                else {
-                    filteredPools.add(pool);
-                }
+                candidatePools.add(pool);
             }
         }
 
+        List<Pool> filteredPools = this.validateCandidatePools(host, candidatePools, failedResults);
+
         // Only throw refused exception if we actually hit the rules:
         if (filteredPools.size() == 0 && !failedResults.isEmpty()) {
             throw new EntitlementRefusedException(failedResults);
@@ -1212,6 +1205,49 @@ public class PoolManager {
         String ownerId, String serviceLevelOverride, Collection<String> fromPools)
         throws EntitlementRefusedException {
 
+        return this.getBestPools(consumer, productIds, entitleDate, ownerId, serviceLevelOverride, fromPools,
+            null);
+    }
+
+    /**
+     * Selects the best pools with which to entitle the given consumer. If an org heal snapshot is
+     * provided, candidate pools and service levels are taken from the snapshot, and pools which the
+     * snapshot's ledger shows as exhausted are not considered; otherwise they are looked up from
+     * the owner's pools.
+     *
+     * @param consumer
+     *  the consumer for which to select pools
+     *
+     * @param productIds
+     *  the IDs of the products to cover, or null or empty to cover the products the consumer
+     *  currently needs
+     *
+     * @param entitleDate
+     *  the date on which the consumer is to be entitled
+     *
+     * @param ownerId
+     *  the ID of the owner of the pools to select
+     *
+     * @param serviceLevelOverride
+     *  the service level to prefer over the consumer's own; may be null
+     *
+     * @param fromPools
+     *  a collection of IDs of the pools to which the selection should be limited; may be null or
+     *  empty to consider all of the owner's pools
+     *
+     * @param snapshot
+     *  an org heal snapshot of the owner's pools; may be null
+     *
+     * @throws EntitlementRefusedException
+     *  if no pools could be selected because every candidate pool failed validation
+     *
+     * @return
+     *  a sorted list of the pools and quantities selected for the consumer
+     */
+    public List<PoolQuantity> getBestPools(Consumer consumer, Collection<String> productIds, Date entitleDate,
+        String ownerId, String serviceLevelOverride, Collection<String> fromPools, OrgHealSnapshot snapshot)
+        throws EntitlementRefusedException {
+
         Map<String, ValidationResult> failedResults = new HashMap<>();
 
         Date activePoolDate = entitleDate;
@@ -1219,16 +1255,6 @@ public class PoolManager {
             activePoolDate = new Date();
         }
 
-        PoolQualifier qualifier = new PoolQualifier()
-            .addIds(fromPools)
-            .setOwnerId(ownerId)
-            .setConsumer(consumer)
-            .setActiveOn(activePoolDate);
-
-        List<Pool> allOwnerPools = this.listAvailableEntitlementPools(qualifier)
-            .getPageData();
-        List<Pool> filteredPools = new LinkedList<>();
-
         // We have to check compliance status here so we can replace an empty
         // array of product IDs with the array the consumer actually needs. (i.e. during
         // a healing request)
@@ -1244,6 +1270,10 @@ public class PoolManager {
 
         log.debug("Attempting for products on date: {}: {}", entitleDate, productIds);
 
+        List<Pool> allOwnerPools = this.listAutobindCandidatePools(consumer, ownerId, activePoolDate,
+            fromPools, productIds, compliance.getPartialStacks().keySet(), snapshot);
+        List<Pool> candidatePools = new ArrayList<>();
+
         // Bulk fetch our provided product IDs so we're not hitting the DB several times
         // for this lookup.
         Map<String, Set<String>> providedProductIds = this.poolCurator
@@ -1291,31 +1321,146 @@ public class PoolManager {
             }
 
             if (providesProduct || matchesAddOns || matchesRole) {
-                ValidationResult result = enforcer.preEntitlement(consumer, pool, 1, CallerType.BEST_POOLS);
-
-                if (result.hasErrors() || result.hasWarnings()) {
-                    failedResults.put(pool.getId(), result);
-                    log.debug("Pool filtered from candidates due to rules failure: {}", pool.getId());
-                }
-                else {
-                    filteredPools.add(pool);
-                }
+                candidatePools.add(pool);
             }
         }
 
+        List<Pool> filteredPools = this.validateCandidatePools(consumer, candidatePools, failedResults);
+
         // Only throw refused exception if we actually hit the rules:
         if (filteredPools.isEmpty() && !failedResults.isEmpty()) {
             throw new EntitlementRefusedException(failedResults);
         }
 
+        Set<String> serviceLevels = snapshot != null ?
+            snapshot.getServiceLevels() :
+            poolCurator.retrieveServiceLevelsForOwner(ownerId, true);
+
         List<PoolQuantity> enforced = autobindRules.selectBestPools(consumer,
-            productIds, filteredPools, compliance, serviceLevelOverride,
-            poolCurator.retrieveServiceLevelsForOwner(ownerId, true), false);
+            productIds, filteredPools, compliance, serviceLevelOverride, serviceLevels, false);
         // Sort the resulting pools to avoid deadlocks
         Collections.sort(enforced);
         return enforced;
     }
 
+    /**
+     * Lists the pools available to the given consumer which may be of use to autobind: pools which
+     * provide any of the given products, complete any of the given stacks, or match the consumer's
+     * role or add-ons. Candidates are first selected from the owner's autobind candidate index,
+     * so only those pools are loaded and filtered by the rules, rather than every pool in the
+     * organization.
+     *
+     * @param consumer
+     *  the consumer for which to list candidate pools
+     *
+     * @param ownerId
+     *  the ID of the owner from which to list pools, or null to use the consumer's owner
+     *
+     * @param activeOn
+     *  the date on which the pools must be active
+     *
+     * @param fromPools
+     *  a collection of IDs of the pools to which the candidates should be limited; may be null or
+     *  empty to consider all of the owner's pools
+     *
+     * @param productIds
+     *  a collection of IDs of the products the consumer needs covered
+     *
+     * @param stackingIds
+     *  a collection of IDs of the consumer's partial stacks
+     *
+     * @param snapshot
+     *  an org heal snapshot from which to select candidates instead of the owner's index; ignored
+     *  if null or taken for a different owner
+     *
+     * @return
+     *  a mutable list of the candidate pools available to the consumer
+     */
+    private List<Pool> listAutobindCandidatePools(Consumer consumer, String ownerId, Date activeOn,
+        Collection<String> fromPools, Collection<String> productIds, Collection<String> stackingIds,
+        OrgHealSnapshot snapshot) {
+
+        String indexOwnerId = ownerId != null ? ownerId : consumer.getOwnerId();
+
+        // The index is reused between autobinds until the owner's pools or their products change
+        Set<String> candidateIds = snapshot != null && snapshot.getOwnerId().equals(indexOwnerId) ?
+            snapshot.findCandidates(productIds, stackingIds, consumer.getRole(), consumer.getAddOns()) :
+            this.autobindCandidateCache
+                .get(indexOwnerId, activeOn, this.poolCurator::getAutobindCandidateIndex)
+                .findCandidates(productIds, stackingIds, consumer.getRole(), consumer.getAddOns());
+
+        if (fromPools != null && !fromPools.isEmpty()) {
+            candidateIds.retainAll(fromPools);
+        }
+
+        log.debug("Found {} autobind candidate pools in org", candidateIds.size());
+        if (candidateIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        PoolQualifier qualifier = new PoolQualifier()
+            .addIds(candidateIds)
+            .setOwnerId(ownerId)
+            .setConsumer(consumer)
+            .setActiveOn(activeOn);
+
+        return this.listAvailableEntitlementPools(qualifier)
+            .getPageData();
+    }
+
+    /**
+     * Runs the pre-entitlement rules for the given candidate pools in a single batch, returning the
+     * candidates which passed without errors or warnings. The validation results of the candidates
+     * which did not pass are added to the provided map of failed results.
+     *
+     * @param consumer
+     *  the consumer for which to validate the candidate pools
+     *
+     * @param candidates
+     *  the candidate pools to validate
+     *
+     * @param failedResults
+     *  a map to receive the validation results of the pools which failed validation, keyed by pool
+     *  ID
+     *
+     * @return
+     *  a list containing the candidates which passed validation, in their original order
+     */
+    private List<Pool> validateCandidatePools(Consumer consumer, List<Pool> candidates,
+        Map<String, ValidationResult> failedResults) {
+
+        List<Pool> validPools = new ArrayList<>();
+        if (candidates.isEmpty()) {
+            return validPools;
+        }
+
+        List<PoolQuantity> poolQuantities = candidates.stream()
+            .map(pool -> new PoolQuantity(pool, 1))
+            .collect(Collectors.toList());
+
+        Map<String, ValidationResult> results = this.enforcer
+            .preEntitlement(consumer, poolQuantities, CallerType.BEST_POOLS);
+
+        for (Pool pool : candidates) {
+            ValidationResult result = results.get(pool.getId());
+
+            if (result != null && (result.hasErrors() || result.hasWarnings())) {
+                failedResults.put(pool.getId(), result);
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Pool filtered from candidates due to failed rule(s): {}", pool);
+                    log.debug("  warnings: {}", Util.collectionToString(result.getWarnings()));
+                    log.debug("  errors: {}", Util.collectionToString(result.getErrors()));
+                }
+            }
+            else {
+                validPools.add(pool);
+            }
+        }
+
+        return validPools;
+    }
+
     private Map<String, Integer> convertToMap(List<PoolQuantity> poolQuantities) {
         Map<String, Integer> result = new HashMap<>();
         for (PoolQuantity poolQuantity : poolQuantities) {
@@ -141,15 +141,86 @@ public class RefreshResult {
                 .findAny()
                 .isPresent();
         }
+
+        public int size() {
+            return this.entities.size();
+        }
+
+        public void addEntities(EntityStore<T> store) {
+            for (EntityData<T> data : store.entities.values()) {
+                // An entity may be visited by more than one chunk of a chunked refresh; the chunk
+                // which changed the entity takes precedence over any which left it unchanged
+                EntityData<T> existing = this.entities.get(data.getEntityId());
+                if (existing == null || existing.getEntityState() == EntityState.UNCHANGED) {
+                    this.entities.put(data.getEntityId(), data);
+                }
+            }
+        }
     }
 
     private Map<Class, EntityStore> entityStoreMap;
+    private int chunkCount;
 
     /**
      * Creates a new RefreshResult instance with no data
      */
     public RefreshResult() {
         this.entityStoreMap = new HashMap<>();
+        this.chunkCount = 0;
+    }
+
+    /**
+     * Adds the result of a single chunk of a chunked refresh operation to this result. Entities
+     * present in both results retain the state in which they were created, updated or deleted;
+     * an unchanged state never replaces a state in which the entity was modified.
+     *
+     * @param chunkResult
+     *  the result of the refresh chunk to add to this result
+     *
+     * @throws IllegalArgumentException
+     *  if chunkResult is null
+     *
+     * @return
+     *  a reference to this refresh result
+     */
+    public RefreshResult addChunkResult(RefreshResult chunkResult) {
+        if (chunkResult == null) {
+            throw new IllegalArgumentException("chunkResult is null");
+        }
+
+        for (Map.Entry<Class, EntityStore> entry : chunkResult.entityStoreMap.entrySet()) {
+            this.getEntityStore(entry.getKey(), true)
+                .addEntities(entry.getValue());
+        }
+
+        ++this.chunkCount;
+        return this;
+    }
+
+    /**
+     * Fetches the number of chunks which have been added to this result. Refresh operations which
+     * are not performed in chunks report zero chunks.
+     *
+     * @return
+     *  the number of refresh chunks added to this result
+     */
+    public int getChunkCount() {
+        return this.chunkCount;
+    }
+
+    /**
+     * Fetches the number of entities of the given class which were part of this refresh,
+     * regardless of their state.
+     *
+     * @param cls
+     *  the class of entities to count
+     *
+     * @return
+     *  the number of entities of the given class which were part of this refresh
+     */
+    public <T extends AbstractHibernateObject> int getEntityCount(Class<T> cls) {
+        EntityStore<T> entityStore = this.getEntityStore(cls, false);
+        return entityStore != null ? entityStore.size() : 0;
     }
 
     /**
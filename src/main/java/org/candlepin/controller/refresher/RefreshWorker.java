@@ -14,6 +14,8 @@
  */
 package org.candlepin.controller.refresher;
 
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
 import org.candlepin.controller.refresher.builders.ContentNodeBuilder;
 import org.candlepin.controller.refresher.builders.NodeFactory;
 import org.candlepin.controller.refresher.builders.PoolNodeBuilder;
@@ -46,12 +48,17 @@ import org.hibernate.exception.LockAcquisitionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -62,6 +69,16 @@ import javax.persistence.EntityTransaction;
 /**
  * The RefreshWorker gathers upstream objects to refresh, and then performs the actual work to
  * update their local representations.
+ * <p></p>
+ * By default, all of the gathered objects are refreshed in a single transaction. If a refresh chunk
+ * size is configured, the objects are instead split into independent subgraphs of subscriptions,
+ * products and content which do not share any entities, and the subgraphs are packed into chunks
+ * which are refreshed and committed separately. Only the entities of the chunk being refreshed are
+ * mapped at any given time, bounding the memory and transaction size of large refresh operations.
+ * <p></p>
+ * If a refresh parallelism greater than one is configured, the comparison of the upstream objects
+ * against their existing local versions is performed in parallel on a fork-join pool created for
+ * the duration of the refresh.
  */
 public class RefreshWorker {
     private static final Logger log = LoggerFactory.getLogger(RefreshWorker.class);
@@ -72,9 +89,49 @@ public class RefreshWorker {
      */
     private static final int CONSTRAINT_VIOLATION_RETRIES = 4;
 
+    /**
+     * Key used to identify upstream entities of different types while partitioning them into
+     * refresh chunks
+     */
+    private static record EntityKey(Class<?> entityClass, String id) {
+    }
+
+    /**
+     * A collection of upstream entity IDs to refresh together in a single transaction
+     */
+    private static class RefreshChunk {
+        private final Set<String> subscriptionIds = new HashSet<>();
+        private final Set<String> productIds = new HashSet<>();
+        private final Set<String> contentIds = new HashSet<>();
+
+        public void add(EntityKey key) {
+            if (key.entityClass() == Pool.class) {
+                this.subscriptionIds.add(key.id());
+            }
+            else if (key.entityClass() == Product.class) {
+                this.productIds.add(key.id());
+            }
+            else {
+                this.contentIds.add(key.id());
+            }
+        }
+
+        public void addAll(RefreshChunk chunk) {
+            this.subscriptionIds.addAll(chunk.subscriptionIds);
+            this.productIds.addAll(chunk.productIds);
+            this.contentIds.addAll(chunk.contentIds);
+        }
+
+        public int size() {
+            return this.subscriptionIds.size() + this.productIds.size() + this.contentIds.size();
+        }
+    }
+
     private final PoolCurator poolCurator;
     private final ContentCurator contentCurator;
     private final ProductCurator productCurator;
+    private final int chunkSize;
+    private final int parallelism;
 
     private PoolMapper poolMapper;
     private ProductMapper productMapper;
@@ -86,11 +143,13 @@ public class RefreshWorker {
      */
     @Inject
     public RefreshWorker(PoolCurator poolCurator, ProductCurator productCurator,
-        ContentCurator contentCurator) {
+        ContentCurator contentCurator, Configuration config) {
 
         this.poolCurator = Objects.requireNonNull(poolCurator);
         this.productCurator = Objects.requireNonNull(productCurator);
         this.contentCurator = Objects.requireNonNull(contentCurator);
+        this.chunkSize = Objects.requireNonNull(config).getInt(ConfigProperties.REFRESH_CHUNK_SIZE);
+        this.parallelism = config.getInt(ConfigProperties.REFRESH_PARALLELISM);
 
         this.poolMapper = new PoolMapper();
         this.productMapper = new ProductMapper();
@@ -322,15 +381,26 @@ public class RefreshWorker {
     /**
      * Maps the given collection of existing pools, and their refresh-critical children entities.
      *
+     * @param poolMapper
+     *  the pool mapper in which to map the pools
+     *
+     * @param productMapper
+     *  the product mapper in which to map the products of the pools
+     *
+     * @param contentMapper
+     *  the content mapper in which to map the content of the pools' products
+     *
      * @param pools
      *  the collection of pool entities to map
      */
-    private void mapExistingPools(Collection<Pool> pools) {
+    private void mapExistingPools(PoolMapper poolMapper, ProductMapper productMapper,
+        ContentMapper contentMapper, Collection<Pool> pools) {
+
         if (pools == null || pools.isEmpty()) {
             return;
         }
 
-        this.poolMapper.addExistingEntities(pools);
+        poolMapper.addExistingEntities(pools);
 
         Set<String> productUuids = pools.stream()
             .map(Pool::getProductUuid)
@@ -338,21 +408,29 @@ public class RefreshWorker {
 
         List<Product> products = this.productCurator.getProductsByUuids(productUuids);
 
-        this.mapExistingProducts(products);
+        this.mapExistingProducts(productMapper, contentMapper, products);
     }
 
     /**
      * Maps the given collection of existing products, and their refresh-critical children entities.
      *
+     * @param productMapper
+     *  the product mapper in which to map the products
+     *
+     * @param contentMapper
+     *  the content mapper in which to map the content of the products
+     *
      * @param products
      *  the collection of product entities to map
      */
-    private void mapExistingProducts(Collection<Product> products) {
+    private void mapExistingProducts(ProductMapper productMapper, ContentMapper contentMapper,
+        Collection<Product> products) {
+
         if (products == null || products.isEmpty()) {
             return;
         }
 
-        this.productMapper.addExistingEntities(products);
+        productMapper.addExistingEntities(products);
 
         Set<String> productUuids = products.stream()
             .map(Product::getUuid)
@@ -361,49 +439,76 @@ public class RefreshWorker {
         Set<Product> childrenProducts = this.productCurator
             .getChildrenProductsOfProductsByUuids(productUuids);
 
-        this.mapExistingProducts(childrenProducts);
+        this.mapExistingProducts(productMapper, contentMapper, childrenProducts);
 
         Set<Content> content = this.contentCurator.getChildrenContentOfProductsByUuids(productUuids);
 
-        this.mapExistingContent(content);
+        this.mapExistingContent(contentMapper, content);
     }
 
     /**
      * Maps the given collection of existing content.
      *
+     * @param contentMapper
+     *  the content mapper in which to map the content
+     *
      * @param content
      *  the collection of content entities to map
      */
-    private void mapExistingContent(Collection<Content> content) {
+    private void mapExistingContent(ContentMapper contentMapper, Collection<Content> content) {
         if (content == null || content.isEmpty()) {
             return;
         }
 
-        this.contentMapper.addExistingEntities(content);
+        contentMapper.addExistingEntities(content);
     }
 
     /**
-     * Performs the import operation on the currently compiled objects
+     * Builds the transactional block which refreshes the imported entities of the given mappers.
+     * Any existing entities in the mappers are cleared and remapped from the database when the
+     * block is executed.
+     *
+     * @param owner
+     *  the organization for which the refresh is performed
+     *
+     * @param forkJoinPool
+     *  the fork-join pool on which to process nodes in parallel, or null to process them serially
+     *
+     * @param poolMapper
+     *  the pool mapper containing the subscriptions to refresh
+     *
+     * @param productMapper
+     *  the product mapper containing the products to refresh
+     *
+     * @param contentMapper
+     *  the content mapper containing the content to refresh
+     *
+     * @param existingPoolSupplier
+     *  a supplier of the existing pools to map in the refresh
      *
      * @return
-     *  the result of this refresh operation
+     *  a transactional block which performs the refresh
      */
     @SuppressWarnings("indentation")
-    public RefreshResult execute(Owner owner) {
-        Transactional<RefreshResult> block = this.poolCurator.transactional((args) -> {
+    private Transactional<RefreshResult> buildRefreshBlock(Owner owner, ForkJoinPool forkJoinPool,
+        PoolMapper poolMapper, ProductMapper productMapper, ContentMapper contentMapper,
+        Supplier<List<Pool>> existingPoolSupplier) {
+
+        return this.poolCurator.transactional((args) -> {
             NodeMapper nodeMapper = new NodeMapper();
 
             NodeFactory nodeFactory = new NodeFactory()
                 .setNodeMapper(nodeMapper)
-                .addMapper(this.poolMapper)
-                .addMapper(this.productMapper)
-                .addMapper(this.contentMapper)
+                .addMapper(poolMapper)
+                .addMapper(productMapper)
+                .addMapper(contentMapper)
                 .addBuilder(new PoolNodeBuilder())
                 .addBuilder(new ProductNodeBuilder())
                 .addBuilder(new ContentNodeBuilder());
 
             NodeProcessor nodeProcessor = new NodeProcessor()
                 .setNodeMapper(nodeMapper)
+                .setForkJoinPool(forkJoinPool)
                 .addVisitor(new PoolNodeVisitor(this.poolCurator))
                 .addVisitor(new ProductNodeVisitor(this.productCurator))
                 .addVisitor(new ContentNodeVisitor(this.contentCurator));
@@ -414,18 +519,17 @@ public class RefreshWorker {
             // affecting the global namespace.
 
             // Clear existing entities in the event this isn't the first run of this refresher
-            this.poolMapper.clearExistingEntities();
-            this.productMapper.clearExistingEntities();
-            this.contentMapper.clearExistingEntities();
+            poolMapper.clearExistingEntities();
+            productMapper.clearExistingEntities();
+            contentMapper.clearExistingEntities();
 
             // Add in our existing entities
-            Collection<String> importedProductIds = this.productMapper.getImportedEntities().keySet();
-            Collection<String> importedContentIds = this.contentMapper.getImportedEntities().keySet();
+            Collection<String> importedProductIds = productMapper.getImportedEntities().keySet();
+            Collection<String> importedContentIds = contentMapper.getImportedEntities().keySet();
 
             log.debug("Adding existing subscriptions to mapper...");
-            List<Pool> pools = this.poolCurator
-                .listByOwnerAndTypes(owner.getId(), PoolType.NORMAL);
-            this.mapExistingPools(pools);
+            List<Pool> pools = existingPoolSupplier.get();
+            this.mapExistingPools(poolMapper, productMapper, contentMapper, pools);
 
             // Add globally namespaced products and content to refresh.
             // TODO: FIXME: We don't need to do this on a per-org basis anymore (kind of)!
@@ -433,13 +537,13 @@ public class RefreshWorker {
                 importedProductIds);
             Collection<Product> products = this.productCurator.getProductsByIds(null, importedProductIds)
                 .values();
-            this.mapExistingProducts(products);
+            this.mapExistingProducts(productMapper, contentMapper, products);
 
             log.debug("Adding affected contents to mapper for {} product IDs: {}", importedContentIds.size(),
                 importedContentIds);
             Collection<Content> contents = this.contentCurator.getContentsByIds(null, importedContentIds)
                 .values();
-            this.mapExistingContent(contents);
+            this.mapExistingContent(contentMapper, contents);
 
             // Have our node factory build the node trees
             log.debug("Building entity nodes...");
@@ -453,11 +557,33 @@ public class RefreshWorker {
             log.debug("Done. Returning refresh worker result");
             return result;
         });
+    }
 
+    /**
+     * Checks if a transaction is currently active on the curators used by this worker.
+     *
+     * @return
+     *  true if a transaction is active; false otherwise
+     */
+    private boolean isTransactionActive() {
+        EntityTransaction transaction = this.poolCurator.getTransaction();
+        return transaction != null && transaction.isActive();
+    }
+
+    /**
+     * Executes the given refresh block, retrying it if it fails due to a constraint violation or
+     * deadlock, unless a transaction is already active.
+     *
+     * @param block
+     *  the refresh block to execute
+     *
+     * @return
+     *  the result of the refresh block
+     */
+    private RefreshResult executeBlock(Transactional<RefreshResult> block) {
         // Attempt to retry if we're not already in a transaction
         // Impl note: at the time of writing, nested transactions are not supported in Hibernate
-        EntityTransaction transaction = this.poolCurator.getTransaction();
-        if (transaction == null || !transaction.isActive()) {
+        if (!this.isTransactionActive()) {
             // Retry this operation if we hit a unique constraint violation (two orgs creating the
             // same products or content in simultaneous transactions), or we deadlock (same deal,
             // but in a spicy entity order).
@@ -474,4 +600,235 @@ public class RefreshWorker {
         }
     }
 
+    /**
+     * Adds the given entity to the disjoint set forest tracking the connected components of the
+     * upstream entity graph. If the entity is already present, this method does nothing.
+     *
+     * @param parents
+     *  the map of entities to their parent entities in the forest
+     *
+     * @param key
+     *  the key of the entity to add
+     */
+    private static void addComponentNode(Map<EntityKey, EntityKey> parents, EntityKey key) {
+        parents.putIfAbsent(key, key);
+    }
+
+    /**
+     * Finds the root entity of the component containing the given entity, compressing the path to
+     * the root along the way.
+     *
+     * @param parents
+     *  the map of entities to their parent entities in the forest
+     *
+     * @param key
+     *  the key of the entity for which to find the component root
+     *
+     * @return
+     *  the key of the root entity of the component containing the given entity
+     */
+    private static EntityKey findComponentRoot(Map<EntityKey, EntityKey> parents, EntityKey key) {
+        EntityKey root = key;
+        while (!root.equals(parents.get(root))) {
+            root = parents.get(root);
+        }
+
+        EntityKey current = key;
+        while (!current.equals(root)) {
+            current = parents.put(current, root);
+        }
+
+        return root;
+    }
+
+    /**
+     * Joins the components containing the two given entities. Both entities are added to the
+     * forest if they are not already present.
+     *
+     * @param parents
+     *  the map of entities to their parent entities in the forest
+     *
+     * @param key1
+     *  the key of the first entity
+     *
+     * @param key2
+     *  the key of the second entity
+     */
+    private static void joinComponents(Map<EntityKey, EntityKey> parents, EntityKey key1, EntityKey key2) {
+        addComponentNode(parents, key1);
+        addComponentNode(parents, key2);
+
+        EntityKey root1 = findComponentRoot(parents, key1);
+        EntityKey root2 = findComponentRoot(parents, key2);
+
+        if (!root1.equals(root2)) {
+            parents.put(root1, root2);
+        }
+    }
+
+    /**
+     * Partitions the upstream entities collected by this worker into chunks to refresh separately.
+     * Subscriptions, products and content which reference one another, directly or indirectly, are
+     * always placed in the same chunk, such that no entity is refreshed by more than one chunk.
+     * Independent groups of entities are then packed into chunks of, at most, the configured chunk
+     * size; though a single group larger than the chunk size will be placed in a chunk of its own.
+     *
+     * @return
+     *  a list of refresh chunks covering every upstream entity collected by this worker
+     */
+    private List<RefreshChunk> buildRefreshChunks() {
+        Map<EntityKey, EntityKey> parents = new LinkedHashMap<>();
+
+        for (SubscriptionInfo subscription : this.poolMapper.getImportedEntities().values()) {
+            EntityKey key = new EntityKey(Pool.class, subscription.getId());
+            addComponentNode(parents, key);
+
+            ProductInfo product = subscription.getProduct();
+            if (product != null) {
+                joinComponents(parents, key, new EntityKey(Product.class, product.getId()));
+            }
+        }
+
+        for (ProductInfo product : this.productMapper.getImportedEntities().values()) {
+            EntityKey key = new EntityKey(Product.class, product.getId());
+            addComponentNode(parents, key);
+
+            ProductInfo derived = product.getDerivedProduct();
+            if (derived != null) {
+                joinComponents(parents, key, new EntityKey(Product.class, derived.getId()));
+            }
+
+            Collection<? extends ProductInfo> provided = product.getProvidedProducts();
+            if (provided != null) {
+                provided.stream()
+                    .filter(Objects::nonNull)
+                    .forEach(child -> joinComponents(parents, key, new EntityKey(Product.class,
+                        child.getId())));
+            }
+
+            Collection<? extends ProductContentInfo> productContent = product.getProductContent();
+            if (productContent != null) {
+                productContent.stream()
+                    .filter(pc -> pc != null && pc.getContent() != null)
+                    .forEach(pc -> joinComponents(parents, key, new EntityKey(Content.class,
+                        pc.getContent().getId())));
+            }
+        }
+
+        for (String contentId : this.contentMapper.getImportedEntities().keySet()) {
+            addComponentNode(parents, new EntityKey(Content.class, contentId));
+        }
+
+        // Collect the entities of each component...
+        Map<EntityKey, RefreshChunk> components = new LinkedHashMap<>();
+        for (EntityKey key : List.copyOf(parents.keySet())) {
+            components.computeIfAbsent(findComponentRoot(parents, key), root -> new RefreshChunk())
+                .add(key);
+        }
+
+        // ...and pack them into chunks
+        List<RefreshChunk> chunks = new ArrayList<>();
+        RefreshChunk chunk = null;
+
+        for (RefreshChunk component : components.values()) {
+            if (chunk == null || chunk.size() + component.size() > this.chunkSize) {
+                chunk = new RefreshChunk();
+                chunks.add(chunk);
+            }
+
+            chunk.addAll(component);
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Refreshes the upstream entities collected by this worker in separately committed chunks.
+     *
+     * @param owner
+     *  the organization for which to perform the refresh
+     *
+     * @param forkJoinPool
+     *  the fork-join pool on which to process nodes in parallel, or null to process them serially
+     *
+     * @return
+     *  the aggregated result of every refresh chunk
+     */
+    private RefreshResult executeChunked(Owner owner, ForkJoinPool forkJoinPool) {
+        List<RefreshChunk> chunks = this.buildRefreshChunks();
+        log.info("Refreshing {} subscription(s), {} product(s) and {} content in {} chunk(s)",
+            this.poolMapper.getImportedEntities().size(), this.productMapper.getImportedEntities().size(),
+            this.contentMapper.getImportedEntities().size(), chunks.size());
+
+        RefreshResult result = new RefreshResult();
+
+        for (RefreshChunk chunk : chunks) {
+            PoolMapper poolMapper = new PoolMapper();
+            ProductMapper productMapper = new ProductMapper();
+            ContentMapper contentMapper = new ContentMapper();
+
+            chunk.subscriptionIds.forEach(id -> poolMapper.addImportedEntity(
+                this.poolMapper.getImportedEntity(id)));
+            chunk.productIds.forEach(id -> productMapper.addImportedEntity(
+                this.productMapper.getImportedEntity(id)));
+            chunk.contentIds.forEach(id -> contentMapper.addImportedEntity(
+                this.contentMapper.getImportedEntity(id)));
+
+            // Existing pools for subscriptions which are no longer present upstream do not affect the
+            // refresh of products and content, and are left for the caller to clean up
+            Supplier<List<Pool>> existingPoolSupplier = () -> this.poolCurator
+                .getBySubscriptionIds(owner.getId(), chunk.subscriptionIds)
+                .stream()
+                .filter(pool -> pool.getType() == PoolType.NORMAL)
+                .collect(Collectors.toList());
+
+            Transactional<RefreshResult> block = this.buildRefreshBlock(owner, forkJoinPool, poolMapper,
+                productMapper, contentMapper, existingPoolSupplier);
+
+            result.addChunkResult(this.executeBlock(block));
+
+            log.info("Refreshed chunk {} of {}: {} subscription(s), {} product(s), {} content",
+                result.getChunkCount(), chunks.size(), chunk.subscriptionIds.size(), chunk.productIds.size(),
+                chunk.contentIds.size());
+        }
+
+        return result;
+    }
+
+    /**
+     * Performs the import operation on the currently compiled objects. If a refresh chunk size is
+     * configured and no transaction is active, the objects are refreshed in separately committed
+     * chunks; otherwise, all of the objects are refreshed in a single transaction.
+     *
+     * @param owner
+     *  the organization for which to perform the refresh
+     *
+     * @return
+     *  the result of this refresh operation
+     */
+    public RefreshResult execute(Owner owner) {
+        ForkJoinPool forkJoinPool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism) : null;
+
+        try {
+            if (this.chunkSize > 0) {
+                if (!this.isTransactionActive()) {
+                    return this.executeChunked(owner, forkJoinPool);
+                }
+
+                log.debug("Transaction already active; refreshing all entities in a single chunk");
+            }
+
+            Transactional<RefreshResult> block = this.buildRefreshBlock(owner, forkJoinPool, this.poolMapper,
+                this.productMapper, this.contentMapper,
+                () -> this.poolCurator.listByOwnerAndTypes(owner.getId(), PoolType.NORMAL));
+
+            return this.executeBlock(block);
+        }
+        finally {
+            if (forkJoinPool != null) {
+                forkJoinPool.shutdown();
+            }
+        }
+    }
+
 }
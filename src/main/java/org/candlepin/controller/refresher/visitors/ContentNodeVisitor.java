@@ -111,6 +111,19 @@ public class ContentNodeVisitor implements NodeVisitor<Content, ContentInfo> {
         return Content.class;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepareNode(EntityNode<Content, ContentInfo> node) {
+        Content existingEntity = node.getExistingEntity();
+
+        if (existingEntity != null && node.getImportedEntity() != null) {
+            // Force initialization of the lazily loaded collections examined during processing
+            existingEntity.getModifiedProductIds().size();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
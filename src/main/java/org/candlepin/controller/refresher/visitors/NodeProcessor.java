@@ -30,11 +30,13 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 
@@ -49,6 +51,11 @@ import java.util.function.Predicate;
  * entity types of Product and Content, then the processor must have a visitor for both of these
  * types of nodes. If a node is requested to be processed without a matching visitor, an exception
  * will be thrown.
+ * <p></p>
+ * Nodes are processed in tiers, starting with the deepest nodes. As the nodes within a tier only
+ * depend on nodes of deeper tiers, the comparison of the nodes of a tier may be performed in
+ * parallel on a provided fork-join pool. The application of changes, which performs the actual
+ * persistence operations, is always performed serially on the calling thread.
  */
 public class NodeProcessor {
     private static Logger log = LoggerFactory.getLogger(NodeProcessor.class);
@@ -67,8 +74,15 @@ public class NodeProcessor {
         NODE_SORTER = classComparator.thenComparing(EntityNode::getEntityId);
     }
 
+    /**
+     * The minimum number of nodes a tier must contain to be processed in parallel; smaller tiers are
+     * processed faster serially than it takes to fork them out to the pool.
+     */
+    private static final int PARALLEL_THRESHOLD = 32;
+
     private NodeMapper mapper;
     private Map<Class, NodeVisitor<?, ?>> visitors;
+    private ForkJoinPool forkJoinPool;
 
     /**
      * Creates a new NodeProcessor, without any mappers or visitors.
@@ -98,6 +112,21 @@ public class NodeProcessor {
         return this;
     }
 
+    /**
+     * Sets the fork-join pool to use for processing the nodes of each tier in parallel. If the pool
+     * is null, nodes are processed serially on the calling thread.
+     *
+     * @param forkJoinPool
+     *  the fork-join pool to use for parallel node processing, or null to process nodes serially
+     *
+     * @return
+     *  a reference to this node processor
+     */
+    public NodeProcessor setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+        return this;
+    }
+
     /**
      * Adds a visitor to this processor. The visitor will be used to process nodes for the entity
      * class returned by the visitor's <tt>getEntityClass</tt> method.
@@ -168,6 +197,37 @@ public class NodeProcessor {
             .add(node);
     }
 
+    /**
+     * Processes the given tier of nodes, using the visitors registered for each node. If a fork-join
+     * pool has been set and the tier is large enough, the nodes are prepared serially, and then
+     * processed in parallel on the pool; otherwise, each node is processed serially on the calling
+     * thread.
+     *
+     * @param nodes
+     *  the tier of nodes to process
+     */
+    private void processTier(List<EntityNode<?, ?>> nodes) {
+        if (this.forkJoinPool == null || nodes.size() < PARALLEL_THRESHOLD) {
+            for (EntityNode node : nodes) {
+                log.trace("Processing node: {}", node);
+                this.getVisitor(node).processNode(node);
+            }
+
+            return;
+        }
+
+        // Entities may lazily load state from the database while being compared, which cannot be
+        // done safely from the pool's threads, so ensure it's all loaded before forking
+        for (EntityNode node : nodes) {
+            this.getVisitor(node).prepareNode(node);
+        }
+
+        log.trace("Processing {} nodes in parallel", nodes.size());
+        this.forkJoinPool.submit(() -> nodes.parallelStream()
+            .forEach(node -> this.getVisitor(node).processNode(node)))
+            .join();
+    }
+
     /**
      * Processes all nodes currently mapped by the node mapper backing this node processor. If
      * a node mapper has not yet been set, or a visitor has not been provided for one or more of the
@@ -198,21 +258,21 @@ public class NodeProcessor {
         this.mapper.getRootNodeStream()
             .forEach(node -> this.walkGraph(depthMappedNodes, 0, node));
 
-        // Process each "tier" of the graph in descending order according to node depth
-        depthMappedNodes.descendingMap()
-            .values()
-            .stream()
-            .flatMap(Set::stream)
-            .filter(Predicate.not(visited::contains))
-            .forEachOrdered(node -> {
-                log.trace("Processing node: {}", node);
+        // Process each "tier" of the graph in descending order according to node depth. Nodes
+        // within a tier are independent of one another, so only their changes need to be applied
+        // in order.
+        for (Set<EntityNode<?, ?>> tier : depthMappedNodes.descendingMap().values()) {
+            List<EntityNode<?, ?>> nodes = tier.stream()
+                .filter(Predicate.not(visited::contains))
+                .toList();
 
-                NodeVisitor visitor = this.getVisitor(node);
-                visitor.processNode(node);
-                visitor.applyChanges(node);
+            this.processTier(nodes);
 
+            for (EntityNode node : nodes) {
+                this.getVisitor(node).applyChanges(node);
                 visited.add(node);
-            });
+            }
+        }
 
         // Compile and return the results
         return this.compileResults();
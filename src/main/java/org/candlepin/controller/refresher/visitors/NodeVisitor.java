@@ -42,9 +42,27 @@ public interface NodeVisitor<E extends AbstractHibernateObject, I extends Servic
      */
     Class<E> getEntityClass();
 
+    /**
+     * Prepares the specified node for processing. When nodes are processed in parallel, this method
+     * is invoked on the processing thread for every node before the node is handed to the
+     * <tt>processNode</tt> method, and should load any lazily-loaded state of the node's entities
+     * that will be examined while processing it. By default, this method does nothing.
+     *
+     * @param node
+     *  the EntityNode instance to prepare
+     */
+    default void prepareNode(EntityNode<E, I> node) {
+        // Intentionally left empty
+    }
+
     /**
      * Processes (visits) a the specified node. The node processor and mapper provided can be used
      * for performing processing and lookup of children nodes.
+     * <p></p>
+     * Nodes of the same tier may be processed concurrently from multiple threads. Implementations
+     * must not perform any database operations or modify any state other than that of the given
+     * node in this method; such work must be deferred to the <tt>applyChanges</tt> method, which
+     * is always invoked on the processing thread.
      *
      * @param node
      *  the EntityNode instance to process
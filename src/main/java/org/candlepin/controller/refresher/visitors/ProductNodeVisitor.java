@@ -207,6 +207,23 @@ public class ProductNodeVisitor implements NodeVisitor<Product, ProductInfo> {
         return Product.class;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepareNode(EntityNode<Product, ProductInfo> node) {
+        Product existingEntity = node.getExistingEntity();
+
+        if (existingEntity != null && node.getImportedEntity() != null) {
+            // Force initialization of the lazily loaded collections examined during processing
+            existingEntity.getAttributes().size();
+            existingEntity.getDependentProductIds().size();
+            existingEntity.getProductContent().size();
+            existingEntity.getProvidedProducts().size();
+            existingEntity.getBranding().size();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -18,15 +18,20 @@ import static org.candlepin.config.ConfigProperties.ACTIVEMQ_ENABLED;
 
 import org.candlepin.async.JobManager;
 import org.candlepin.audit.ActiveMQContextListener;
+import org.candlepin.audit.EventOutbox;
+import org.candlepin.cache.AutobindCandidateIndexCacheInvalidator;
+import org.candlepin.cache.ReferenceDataCacheInvalidator;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.config.RyeConfig;
 import org.candlepin.config.validation.ConfigurationValidatorUtil;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.database.DatabaseConnectionManager;
 import org.candlepin.database.MigrationManager;
 import org.candlepin.logging.LoggerContextListener;
 import org.candlepin.logging.LoggingConfigurator;
 import org.candlepin.messaging.CPMContextListener;
+import org.candlepin.pki.impl.PooledKeyPairGenerator;
 import org.candlepin.resteasy.MethodLocator;
 import org.candlepin.resteasy.ResourceLocatorMap;
 import org.candlepin.service.EventAdapter;
@@ -175,6 +180,14 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         // Must call super.contextInitialized() before accessing injector
         insertValidationEventListeners(injector);
 
+        if (config.getLong(ConfigProperties.CACHE_REFERENCE_DATA_TTL) > 0) {
+            insertCacheEventListeners(injector);
+        }
+
+        if (config.getLong(ConfigProperties.CACHE_AUTOBIND_CANDIDATES_TTL) > 0) {
+            insertAutobindCandidateEventListeners(injector);
+        }
+
         MethodLocator methodLocator = injector.getInstance(MethodLocator.class);
         methodLocator.init();
 
@@ -242,6 +255,18 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         // Tear down the job system
         this.jobManager.shutdown();
 
+        if (config.getBoolean(ConfigProperties.KEYPAIR_POOL_ENABLED)) {
+            injector.getInstance(PooledKeyPairGenerator.class)
+                .getPool()
+                .shutdown();
+        }
+
+        // Write any check-ins still held in memory before the persistence service goes away
+        if (config.getLong(ConfigProperties.CONSUMER_CHECKIN_MAX_STALENESS) > 0) {
+            injector.getInstance(ConsumerCheckInRecorder.class)
+                .shutdown();
+        }
+
         injector.getInstance(PersistService.class).stop();
         // deregister jdbc driver to avoid warning in tomcat shutdown log
         Enumeration<Driver> drivers = DriverManager.getDrivers();
@@ -257,6 +282,12 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
 
         eventAdapter.shutdown();
 
+        // Publish any events still held in the outbox while the broker is still available
+        if (config.getBoolean(ACTIVEMQ_ENABLED) && config.getBoolean(ConfigProperties.AUDIT_OUTBOX_ENABLED)) {
+            injector.getInstance(EventOutbox.class)
+                .shutdown();
+        }
+
         if (config.getBoolean(ACTIVEMQ_ENABLED)) {
             activeMQContextListener.contextDestroyed(injector);
         }
@@ -410,4 +441,47 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         registry.getEventListenerGroup(EventType.PRE_DELETE).appendListener(listenerProvider.get());
     }
 
+    /**
+     * Registers the listener which evicts cached reference data as changes to it are committed. As
+     * with the validation listeners, this must be added to the session factory after the fact.
+     *
+     * @param injector
+     */
+    private void insertCacheEventListeners(Injector injector) {
+        EventListenerRegistry registry = this.getEventListenerRegistry(injector);
+
+        ReferenceDataCacheInvalidator invalidator = injector.getInstance(ReferenceDataCacheInvalidator.class);
+        registry.getEventListenerGroup(EventType.POST_COMMIT_INSERT).appendListener(invalidator);
+        registry.getEventListenerGroup(EventType.POST_COMMIT_UPDATE).appendListener(invalidator);
+        registry.getEventListenerGroup(EventType.POST_COMMIT_DELETE).appendListener(invalidator);
+    }
+
+    /**
+     * Registers the listener which evicts cached autobind candidate indexes as changes to pools and
+     * products are flushed and committed.
+     *
+     * @param injector
+     */
+    private void insertAutobindCandidateEventListeners(Injector injector) {
+        EventListenerRegistry registry = this.getEventListenerRegistry(injector);
+
+        AutobindCandidateIndexCacheInvalidator invalidator =
+            injector.getInstance(AutobindCandidateIndexCacheInvalidator.class);
+        registry.getEventListenerGroup(EventType.POST_INSERT).appendListener(invalidator);
+        registry.getEventListenerGroup(EventType.POST_UPDATE).appendListener(invalidator);
+        registry.getEventListenerGroup(EventType.POST_DELETE).appendListener(invalidator);
+        registry.getEventListenerGroup(EventType.POST_COMMIT_INSERT).appendListener(invalidator);
+        registry.getEventListenerGroup(EventType.POST_COMMIT_UPDATE).appendListener(invalidator);
+        registry.getEventListenerGroup(EventType.POST_COMMIT_DELETE).appendListener(invalidator);
+    }
+
+    private EventListenerRegistry getEventListenerRegistry(Injector injector) {
+        HibernateEntityManagerFactory hibernateEntityManagerFactory =
+            (HibernateEntityManagerFactory) injector.getInstance(EntityManagerFactory.class);
+        SessionFactoryImpl sessionFactoryImpl =
+            (SessionFactoryImpl) hibernateEntityManagerFactory.getSessionFactory();
+
+        return sessionFactoryImpl.getServiceRegistry().getService(EventListenerRegistry.class);
+    }
+
 }
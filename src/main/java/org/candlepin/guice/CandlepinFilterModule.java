@@ -20,6 +20,7 @@ import org.candlepin.servlet.filter.CandlepinContentTypeFilter;
 import org.candlepin.servlet.filter.CandlepinPersistFilter;
 import org.candlepin.servlet.filter.CandlepinScopeFilter;
 import org.candlepin.servlet.filter.EventFilter;
+import org.candlepin.servlet.filter.RequestDispatchFilter;
 import org.candlepin.servlet.filter.logging.LoggingFilter;
 
 import com.google.inject.servlet.ServletModule;
@@ -63,6 +64,9 @@ public class CandlepinFilterModule extends ServletModule {
             // don't filter token
             regex = "^(?!/token).*";
         }
+        // The dispatch filter determines the thread on which the rest of the chain runs, so it
+        // must precede any filter binding state to the processing thread
+        filterRegex(regex).through(RequestDispatchFilter.class);
         filterRegex(regex).through(CandlepinContentTypeFilter.class);
         filterRegex(regex).through(CandlepinScopeFilter.class);
         filterRegex(regex).through(CandlepinPersistFilter.class);
@@ -17,6 +17,8 @@ package org.candlepin.guice;
 import org.candlepin.async.JobManager;
 import org.candlepin.async.JobMessageDispatcher;
 import org.candlepin.async.JobMessageReceiver;
+import org.candlepin.async.impl.LocalJobMessageDispatcher;
+import org.candlepin.async.impl.LocalJobMessageReceiver;
 import org.candlepin.async.tasks.ActiveEntitlementJob;
 import org.candlepin.async.tasks.CertificateCleanupJob;
 import org.candlepin.async.tasks.CloudAccountOrgSetupJob;
@@ -111,6 +113,7 @@ import org.candlepin.pki.impl.BouncyCastleKeyPairGenerator;
 import org.candlepin.pki.impl.BouncyCastlePemEncoder;
 import org.candlepin.pki.impl.BouncyCastlePrivateKeyReader;
 import org.candlepin.pki.impl.BouncyCastleSecurityProvider;
+import org.candlepin.pki.impl.PooledKeyPairGenerator;
 import org.candlepin.policy.SystemPurposeComplianceRules;
 import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsRunnerProvider;
@@ -162,6 +165,7 @@ import org.candlepin.resteasy.filter.ConsumerCheckInFilter;
 import org.candlepin.resteasy.filter.DynamicJsonFilter;
 import org.candlepin.resteasy.filter.LinkHeaderResponseFilter;
 import org.candlepin.resteasy.filter.PageRequestFilter;
+import org.candlepin.resteasy.filter.ResourceConcurrencyFilter;
 import org.candlepin.resteasy.filter.SecurityHoleAuthorizationFilter;
 import org.candlepin.resteasy.filter.StoreFactory;
 import org.candlepin.resteasy.filter.SuperAdminAuthorizationFilter;
@@ -309,7 +313,13 @@ public class CandlepinModule extends AbstractModule {
         bind(X509ExtensionUtil.class);
 
         bind(BouncyCastleSecurityProvider.class);
-        bind(KeyPairGenerator.class).to(BouncyCastleKeyPairGenerator.class);
+        if (this.config.getBoolean(ConfigProperties.KEYPAIR_POOL_ENABLED)) {
+            bind(KeyPairGenerator.class).to(PooledKeyPairGenerator.class);
+        }
+        else {
+            bind(KeyPairGenerator.class).to(BouncyCastleKeyPairGenerator.class);
+        }
+
         bind(PemEncoder.class).to(BouncyCastlePemEncoder.class);
         bind(X509CertificateBuilderProvider.class);
         bind(X509CertificateBuilder.class).toProvider(X509CertificateBuilderProvider.class);
@@ -448,14 +458,24 @@ public class CandlepinModule extends AbstractModule {
             bind(CandlepinSuspendModeFilter.class);
         }
 
+        if (this.config.getInt(ConfigProperties.REQUEST_MAX_CONCURRENCY_PER_RESOURCE) > 0) {
+            bind(ResourceConcurrencyFilter.class);
+        }
+
         bindConstant().annotatedWith(Names.named("PREFIX_APIURL_KEY")).to(ConfigProperties.PREFIX_APIURL);
     }
 
     private void configureAsyncJobs() {
         bind(SchedulerFactory.class).to(StdSchedulerFactory.class);
 
-        bind(JobMessageDispatcher.class);
-        bind(JobMessageReceiver.class);
+        if (this.config.getBoolean(ConfigProperties.ASYNC_JOBS_LOCAL_DISPATCH)) {
+            bind(JobMessageDispatcher.class).to(LocalJobMessageDispatcher.class);
+            bind(JobMessageReceiver.class).to(LocalJobMessageReceiver.class);
+        }
+        else {
+            bind(JobMessageDispatcher.class);
+            bind(JobMessageReceiver.class);
+        }
 
         JobManager.registerJob(ActiveEntitlementJob.JOB_KEY, ActiveEntitlementJob.class);
         JobManager.registerJob(CertificateCleanupJob.JOB_KEY, CertificateCleanupJob.class);
@@ -19,8 +19,10 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 
@@ -111,6 +113,29 @@ public class DynamicFilterData {
         return this.allowlist && (iLevel.getLevel() < 1 || iLevel.getLevel() < eLevel.getLevel());
     }
 
+    /**
+     * Fetches the names of the top-level attributes which may be serialized under this filter, if
+     * they can be determined from the filter alone. This is only the case for allowlist filters
+     * which include one or more attributes and exclude none; for any other filter this method
+     * returns null, indicating that any top-level attribute may be serialized.
+     *
+     * @return
+     *  a set containing the lower-cased names of the top-level attributes included by this filter,
+     *  or null if the included attributes cannot be determined
+     */
+    public Set<String> getIncludedRootAttributes() {
+        if (!this.allowlist || this.includeFilters.isEmpty() || !this.excludeFilters.isEmpty()) {
+            return null;
+        }
+
+        Set<String> attributes = new HashSet<>();
+        for (List<String> fpath : this.includeFilters.values()) {
+            attributes.add(fpath.get(0).toLowerCase());
+        }
+
+        return attributes;
+    }
+
     private Match getFilterLevel(Map<String, List<String>> filters, List<String> path) {
         int level = 0;
         boolean exact = false;
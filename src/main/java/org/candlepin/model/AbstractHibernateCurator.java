@@ -48,6 +48,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import javax.inject.Inject;
@@ -57,6 +59,7 @@ import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
 import javax.persistence.OptimisticLockException;
 import javax.persistence.TransactionRequiredException;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -307,12 +310,20 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
         PageRequest.Order order = (p.getOrder() == null) ? PageRequest.DEFAULT_ORDER : p.getOrder();
         CriteriaBuilder criteriaBuilder = this.entityManager.get().getCriteriaBuilder();
 
+        Path<?> sortPath;
+        try {
+            sortPath = root.get(sortBy);
+        }
+        catch (IllegalArgumentException e) {
+            throw new InvalidOrderKeyException(sortBy, root.getModel(), e);
+        }
+
         if (order == PageRequest.Order.ASCENDING) {
-            return criteriaBuilder.asc(root.get(sortBy));
+            return criteriaBuilder.asc(sortPath);
         }
 
         //DESCENDING
-        return criteriaBuilder.desc(root.get(sortBy));
+        return criteriaBuilder.desc(sortPath);
     }
 
     public List<E> listByCriteria(CriteriaQuery<E> query) {
@@ -398,11 +409,53 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
 
     public Page<List<E>> listByCriteria(Root<E> root, CriteriaQuery<E> criteria, PageRequest pageRequest,
         int maxRecords) {
+        return this.listByCriteria(root, criteria, pageRequest, () -> maxRecords);
+    }
+
+    /**
+     * Fetches a page of entities matching the given criteria query, sorted and limited in the
+     * database according to the given page request. Keyset-paged requests are restricted to the
+     * entities following the request's page token and are not counted, so the record count
+     * supplier is only invoked for unpaged or numbered page requests.
+     *
+     * @param root
+     *  the root of the criteria query
+     *
+     * @param criteria
+     *  the criteria query selecting the entities to page
+     *
+     * @param pageRequest
+     *  the page request to apply, or null to fetch all matching entities
+     *
+     * @param maxRecords
+     *  a supplier providing the total number of entities matching the query
+     *
+     * @throws InvalidOrderKeyException
+     *  if the page request is sorted by a field the entity does not define
+     *
+     * @return
+     *  a page containing the matching entities
+     */
+    public Page<List<E>> listByCriteria(Root<E> root, CriteriaQuery<E> criteria, PageRequest pageRequest,
+        IntSupplier maxRecords) {
+
+        if (pageRequest != null && pageRequest.isKeyset()) {
+            CriteriaBuilder builder = this.getEntityManager().getCriteriaBuilder();
+            KeysetCriteria.apply(builder, criteria, root, pageRequest);
+
+            List<E> pageData = this.getEntityManager()
+                .createQuery(criteria)
+                .setMaxResults(pageRequest.getPerPage())
+                .getResultList();
+
+            return this.buildKeysetPage(pageRequest, pageData);
+        }
+
         Page<List<E>> page = new Page<>();
         if (pageRequest != null) {
             criteria.orderBy(createPagingOrder(root, pageRequest));
             // TODO page should store long
-            page.setMaxRecords(maxRecords);
+            page.setMaxRecords(maxRecords.getAsInt());
             page.setPageData(loadPageData(criteria, pageRequest));
             page.setPageRequest(pageRequest);
         }
@@ -415,6 +468,90 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
         return page;
     }
 
+    /**
+     * Fetches a page of projected entity attributes matching the given tuple query, sorted and
+     * limited in the database according to the given page request. This is the projection
+     * counterpart of {@link #listByCriteria(Root, CriteriaQuery, PageRequest, IntSupplier)}, and
+     * does not support keyset paging.
+     *
+     * @param root
+     *  the root of the tuple query
+     *
+     * @param criteria
+     *  the tuple query selecting the rows to page; its selection is set by the projection
+     *
+     * @param projection
+     *  the projection of entity attributes to select
+     *
+     * @param pageRequest
+     *  the page request to apply, or null to fetch all matching rows
+     *
+     * @param maxRecords
+     *  a supplier providing the total number of entities matching the query
+     *
+     * @throws IllegalArgumentException
+     *  if the page request is keyset-paged
+     *
+     * @throws InvalidOrderKeyException
+     *  if the page request is sorted by a field the entity does not define
+     *
+     * @return
+     *  a page containing the projected attributes of the matching entities
+     */
+    public Page<List<Map<String, Object>>> listProjectionByCriteria(Root<E> root,
+        CriteriaQuery<Tuple> criteria, TupleProjection projection, PageRequest pageRequest,
+        IntSupplier maxRecords) {
+
+        if (pageRequest != null && pageRequest.isKeyset()) {
+            throw new IllegalArgumentException("keyset paging is not supported for projections");
+        }
+
+        Page<List<Map<String, Object>>> page = new Page<>();
+        if (pageRequest != null) {
+            projection.select(criteria, root, List.of(createPagingOrder(root, pageRequest)));
+
+            TypedQuery<Tuple> query = this.getEntityManager().createQuery(criteria);
+            if (pageRequest.isPaging()) {
+                query.setFirstResult((pageRequest.getPage() - 1) * pageRequest.getPerPage());
+                query.setMaxResults(pageRequest.getPerPage());
+            }
+
+            page.setMaxRecords(maxRecords.getAsInt());
+            page.setPageData(query.getResultStream().map(projection::toMap).collect(Collectors.toList()));
+            page.setPageRequest(pageRequest);
+        }
+        else {
+            projection.select(criteria, root, null);
+
+            List<Map<String, Object>> pageData = this.getEntityManager()
+                .createQuery(criteria)
+                .getResultStream()
+                .map(projection::toMap)
+                .collect(Collectors.toList());
+
+            page.setMaxRecords(pageData.size());
+            page.setPageData(pageData);
+        }
+
+        return page;
+    }
+
+    /**
+     * Builds a keyset page for the given results, fetched for the given keyset-paged request.
+     *
+     * @param pageRequest
+     *  the keyset-paged request used to fetch the results
+     *
+     * @param results
+     *  the page of results fetched for the request
+     *
+     * @return
+     *  a keyset page containing the given results
+     */
+    public Page<List<E>> buildKeysetPage(PageRequest pageRequest, List<E> results) {
+        return KeysetCriteria.buildPage(this.getEntityManager(), pageRequest, results);
+    }
+
     /**
      * @param entity to be deleted.
      */
@@ -698,7 +835,7 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
         return entity;
     }
 
-    public List<E> takeSubList(QueryArguments<?> query, List<E> results) {
+    public <T> List<T> takeSubList(QueryArguments<?> query, List<T> results) {
         if (query.getOffset() == null || query.getLimit() == null ||
             results == null || results.isEmpty()) {
 
@@ -711,7 +848,7 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
         return takeSubList(fromIndex, toIndex, results);
     }
 
-    private List<E> takeSubList(int fromIndex, int toIndex, List<E> results) {
+    private <T> List<T> takeSubList(int fromIndex, int toIndex, List<T> results) {
         if (fromIndex >= results.size()) {
             return new ArrayList<>();
         }
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.util.Util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+
+
+/**
+ * An index of an organization's pools, keyed by the attributes autobind uses to decide whether a
+ * pool is worth considering for a consumer: the products the pool provides, the stack it belongs
+ * to, and the roles and add-ons of its product. The index only holds pool IDs, allowing autobind to
+ * load and validate only the pools which may be relevant to the consumer, rather than every pool in
+ * the organization.
+ * <p></p>
+ * Lookups against the index are intentionally permissive: a pool returned as a candidate must still
+ * be checked against the consumer by the caller, but a pool which is not returned cannot match any
+ * of the specified criteria.
+ */
+public class AutobindCandidateIndex {
+
+    private final Map<String, Set<String>> poolsByProductId;
+    private final Map<String, Set<String>> poolsByStackingId;
+    private final Map<String, Set<String>> poolsByRole;
+    private final Map<String, Set<String>> poolsByAddOn;
+
+    /**
+     * Creates a new, empty candidate index
+     */
+    public AutobindCandidateIndex() {
+        this.poolsByProductId = new HashMap<>();
+        this.poolsByStackingId = new HashMap<>();
+        this.poolsByRole = new HashMap<>();
+        this.poolsByAddOn = new HashMap<>();
+    }
+
+    /**
+     * Normalizes the given value for case-insensitive lookups. The value is converted to upper case
+     * before being converted to lower case to match the semantics of String.equalsIgnoreCase.
+     */
+    private static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    private static void index(Map<String, Set<String>> index, String key, String poolId) {
+        if (key != null && !key.isBlank() && poolId != null) {
+            index.computeIfAbsent(key, k -> new HashSet<>()).add(poolId);
+        }
+    }
+
+    private static void lookup(Map<String, Set<String>> index, String key, Set<String> output) {
+        if (key != null) {
+            output.addAll(index.getOrDefault(key, Collections.emptySet()));
+        }
+    }
+
+    /**
+     * Indexes the given pool as providing the specified product. Pools should be indexed both by
+     * their own product and each of the products it provides.
+     *
+     * @param poolId
+     *  the ID of the pool to index
+     *
+     * @param productId
+     *  the ID of a product provided by the pool
+     *
+     * @return
+     *  a reference to this index
+     */
+    public AutobindCandidateIndex addProvidedProduct(String poolId, String productId) {
+        index(this.poolsByProductId, productId, poolId);
+        return this;
+    }
+
+    /**
+     * Indexes the given pool by the specified product attribute. Only the stacking ID, roles and
+     * add-ons attributes are indexed; other attributes are silently ignored.
+     *
+     * @param poolId
+     *  the ID of the pool to index
+     *
+     * @param name
+     *  the name of an attribute of the pool's product
+     *
+     * @param value
+     *  the value of the attribute
+     *
+     * @return
+     *  a reference to this index
+     */
+    public AutobindCandidateIndex addProductAttribute(String poolId, String name, String value) {
+        if (name == null || value == null) {
+            return this;
+        }
+
+        switch (name) {
+            case Product.Attributes.STACKING_ID:
+                index(this.poolsByStackingId, value, poolId);
+                break;
+
+            case Product.Attributes.ROLES:
+                Util.toList(value).forEach(role -> index(this.poolsByRole, normalize(role), poolId));
+                break;
+
+            case Product.Attributes.ADDONS:
+                Util.toList(value).forEach(addOn -> index(this.poolsByAddOn, normalize(addOn), poolId));
+                break;
+
+            default:
+                // Not relevant to candidate selection
+        }
+
+        return this;
+    }
+
+    /**
+     * Finds the IDs of all indexed pools which provide any of the given products, belong to any
+     * of the given stacks, or have a product matching the given role or any of the given add-ons.
+     * Roles and add-ons are matched without regard to case.
+     *
+     * @param productIds
+     *  a collection of IDs of the products to cover; may be null
+     *
+     * @param stackingIds
+     *  a collection of IDs of the stacks to complete; may be null
+     *
+     * @param role
+     *  the role of the consumer; may be null
+     *
+     * @param addOns
+     *  a collection of the add-ons of the consumer; may be null
+     *
+     * @return
+     *  a mutable set containing the IDs of the pools matching any of the given criteria
+     */
+    public Set<String> findCandidates(Collection<String> productIds, Collection<String> stackingIds,
+        String role, Collection<String> addOns) {
+
+        Set<String> candidates = new HashSet<>();
+
+        if (productIds != null) {
+            productIds.forEach(productId -> lookup(this.poolsByProductId, productId, candidates));
+        }
+
+        if (stackingIds != null) {
+            stackingIds.forEach(stackingId -> lookup(this.poolsByStackingId, stackingId, candidates));
+        }
+
+        if (role != null) {
+            lookup(this.poolsByRole, normalize(role), candidates);
+        }
+
+        if (addOns != null) {
+            for (String addOn : addOns) {
+                if (addOn != null) {
+                    lookup(this.poolsByAddOn, normalize(addOn), candidates);
+                }
+            }
+        }
+
+        return candidates;
+    }
+}
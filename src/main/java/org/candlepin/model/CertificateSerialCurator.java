@@ -53,6 +53,35 @@ public class CertificateSerialCurator extends AbstractHibernateCurator<Certifica
         return cal.getTime();
     }
 
+    /**
+     * Persists the given serial using the serial number it has already been assigned, without
+     * flushing. Unlike the standard create operation, which rejects entities that arrive with an
+     * identifier, this allows serial numbers to be allocated ahead of time.
+     *
+     * @param serial
+     *  the certificate serial to persist; must have its serial number already assigned
+     *
+     * @throws IllegalArgumentException
+     *  if serial is null or does not have a serial number
+     *
+     * @return
+     *  the persisted certificate serial
+     */
+    public CertificateSerial createAssigned(CertificateSerial serial) {
+        if (serial == null) {
+            throw new IllegalArgumentException("serial is null");
+        }
+
+        if (serial.getId() == null) {
+            throw new IllegalArgumentException("serial does not have a serial number assigned");
+        }
+
+        // Impl note: Hibernate's save operation defers to the ID generator, which retains any
+        // pre-assigned serial number; whereas JPA's persist treats such entities as detached.
+        this.currentSession().save(serial);
+        return serial;
+    }
+
     /**
      * Deletes all cert serials that are both revoked AND expired, and are NOT referenced by any table.
      *
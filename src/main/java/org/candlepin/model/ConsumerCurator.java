@@ -62,6 +62,7 @@ import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -651,6 +652,53 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
             .executeUpdate();
     }
 
+    /**
+     * Updates the last check-in of the consumers with the given IDs to the specified date, using
+     * batched updates rather than one update per consumer. Consumers which have already checked in
+     * at or after the given date are left unchanged.
+     *
+     * @param consumerIds
+     *  a collection of IDs of the consumers to update
+     *
+     * @param checkinDate
+     *  the check-in date to set
+     *
+     * @throws IllegalArgumentException
+     *  if checkinDate is null
+     *
+     * @return
+     *  the number of consumers updated
+     */
+    @Transactional
+    public int updateLastCheckins(Collection<String> consumerIds, Date checkinDate) {
+        if (checkinDate == null) {
+            throw new IllegalArgumentException("checkinDate is null");
+        }
+
+        if (consumerIds == null || consumerIds.isEmpty()) {
+            return 0;
+        }
+
+        String jpql = """
+            UPDATE Consumer c
+            SET c.lastCheckin = :date, c.updated = :date
+            WHERE c.id IN (:cids)
+                AND (c.lastCheckin IS NULL OR c.lastCheckin < :date)
+            """;
+
+        Query query = this.getEntityManager()
+            .createQuery(jpql)
+            .setParameter("date", checkinDate);
+
+        int updated = 0;
+        for (List<String> block : this.partition(consumerIds)) {
+            updated += query.setParameter("cids", block)
+                .executeUpdate();
+        }
+
+        return updated;
+    }
+
     @Transactional
     public void heartbeatUpdate(final String reporterId, final Date checkIn, final String ownerKey)
         throws PersistenceException {
@@ -878,6 +926,97 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
         }
     }
 
+    /**
+     * Fetches the consumers in the given organization that own any of the specified hypervisor IDs,
+     * along with their guest IDs. Hypervisor IDs are matched case-insensitively, in the same manner
+     * as the {@link #getHypervisor(String, String)} method.
+     *
+     * @param ownerId
+     *  the ID of the organization to search
+     *
+     * @param hypervisorIds
+     *  a collection of hypervisor IDs to look up
+     *
+     * @return
+     *  a map of matching consumers, keyed by lower-case hypervisor ID
+     */
+    public Map<String, Consumer> getHypervisorsByHypervisorIds(String ownerId,
+        Collection<String> hypervisorIds) {
+
+        Map<String, Consumer> hypervisors = new HashMap<>();
+
+        if (hypervisorIds == null || hypervisorIds.isEmpty()) {
+            return hypervisors;
+        }
+
+        String jpql = """
+            SELECT DISTINCT c FROM Consumer c
+            JOIN FETCH c.hypervisorId h
+            LEFT JOIN FETCH c.guestIds
+            WHERE c.ownerId = :ownerId
+                AND LOWER(h.hypervisorId) IN (:hypervisorIds)
+            """;
+
+        TypedQuery<Consumer> query = this.getEntityManager()
+            .createQuery(jpql, Consumer.class)
+            .setParameter("ownerId", ownerId);
+
+        for (List<String> block : this.partition(toLowerCase(hypervisorIds))) {
+            for (Consumer consumer : query.setParameter("hypervisorIds", block).getResultList()) {
+                hypervisors.putIfAbsent(consumer.getHypervisorId().getHypervisorId().toLowerCase(),
+                    consumer);
+            }
+        }
+
+        return hypervisors;
+    }
+
+    /**
+     * Fetches the most recently updated consumer in the given organization for each of the
+     * specified system UUIDs, as reported by the DMI system UUID fact. System UUIDs are matched
+     * case-insensitively, in the same manner as the {@link #getConsumerBySystemUuid(String, String)}
+     * method.
+     *
+     * @param ownerId
+     *  the ID of the organization to search
+     *
+     * @param systemUuids
+     *  a collection of system UUIDs to look up
+     *
+     * @return
+     *  a map of matching consumers, keyed by lower-case system UUID
+     */
+    public Map<String, Consumer> getConsumersBySystemUuids(String ownerId, Collection<String> systemUuids) {
+        Map<String, Consumer> consumers = new HashMap<>();
+
+        if (systemUuids == null || systemUuids.isEmpty()) {
+            return consumers;
+        }
+
+        String jpql = """
+            SELECT c, LOWER(f) FROM Consumer c
+            JOIN c.facts f
+            WHERE KEY(f) = :factKey
+                AND LOWER(f) IN (:uuids)
+                AND c.ownerId = :ownerId
+            ORDER BY c.updated DESC
+            """;
+
+        TypedQuery<Object[]> query = this.getEntityManager()
+            .createQuery(jpql, Object[].class)
+            .setParameter("factKey", Consumer.Facts.DMI_SYSTEM_UUID)
+            .setParameter("ownerId", ownerId);
+
+        for (List<String> block : this.partition(toLowerCase(systemUuids))) {
+            for (Object[] row : query.setParameter("uuids", block).getResultList()) {
+                // Rows are ordered by update time, so the first consumer seen for a UUID is the newest
+                consumers.putIfAbsent((String) row[1], (Consumer) row[0]);
+            }
+        }
+
+        return consumers;
+    }
+
     /**
      * Retrieves the identity certificate IDs for the provided consumer ids.
      *
@@ -1378,9 +1517,15 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
             criteriaQuery.where(predicates.toArray(new Predicate[0]));
         }
 
-        List<Order> order = this.buildJPAQueryOrder(criteriaBuilder, root, queryArgs);
-        if (order != null && !order.isEmpty()) {
-            criteriaQuery.orderBy(order);
+        PageRequest keysetPageRequest = queryArgs != null ? queryArgs.getKeysetPageRequest() : null;
+        if (keysetPageRequest != null) {
+            KeysetCriteria.apply(criteriaBuilder, criteriaQuery, root, keysetPageRequest);
+        }
+        else {
+            List<Order> order = this.buildJPAQueryOrder(criteriaBuilder, root, queryArgs);
+            if (order != null && !order.isEmpty()) {
+                criteriaQuery.orderBy(order);
+            }
         }
 
         TypedQuery<Consumer> query = this.getEntityManager()
@@ -1388,7 +1533,7 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
 
         if (queryArgs != null) {
             Integer offset = queryArgs.getOffset();
-            if (offset != null && offset > 0) {
+            if (offset != null && offset > 0 && keysetPageRequest == null) {
                 query.setFirstResult(offset);
             }
 
@@ -1401,6 +1546,76 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
         return query.getResultList();
     }
 
+    /**
+     * Fetches the given projection of the consumers matching the provided filter data in the query
+     * builder. Only the projected attributes are selected, so none of the consumers' collections or
+     * associations are loaded unless they are part of the projection. Keyset paging is not
+     * supported.
+     *
+     * @param queryArgs
+     *     a ConsumerQueryArguments instance containing the various arguments or filters to use to
+     *     select consumers
+     *
+     * @param projection
+     *     the projection of consumer attributes to select
+     *
+     * @throws IllegalArgumentException
+     *     if projection is null, or the query arguments request keyset paging
+     *
+     * @return a list of the projected attributes of each consumer matching the provided query
+     *     arguments/filters
+     */
+    public List<Map<String, Object>> findConsumerProjections(ConsumerQueryArguments queryArgs,
+        TupleProjection projection) {
+
+        if (projection == null) {
+            throw new IllegalArgumentException("projection is null");
+        }
+
+        if (queryArgs != null && queryArgs.getKeysetPageRequest() != null) {
+            throw new IllegalArgumentException("keyset paging is not supported for projections");
+        }
+
+        CriteriaBuilder criteriaBuilder = this.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+
+        Root<Consumer> root = criteriaQuery.from(Consumer.class);
+        criteriaQuery.distinct(true);
+
+        List<Predicate> predicates = this.buildConsumerQueryPredicates(criteriaBuilder, root, queryArgs);
+        Predicate securityPredicate = this.getSecurityPredicate(Consumer.class, criteriaBuilder, root);
+
+        if (securityPredicate != null) {
+            predicates.add(securityPredicate);
+        }
+
+        if (!predicates.isEmpty()) {
+            criteriaQuery.where(predicates.toArray(new Predicate[0]));
+        }
+
+        List<Order> order = this.buildJPAQueryOrder(criteriaBuilder, root, queryArgs);
+        projection.select(criteriaQuery, root, order != null && !order.isEmpty() ? order : null);
+
+        TypedQuery<Tuple> query = this.getEntityManager()
+            .createQuery(criteriaQuery);
+
+        if (queryArgs != null) {
+            Integer offset = queryArgs.getOffset();
+            if (offset != null && offset > 0) {
+                query.setFirstResult(offset);
+            }
+
+            Integer limit = queryArgs.getLimit();
+            if (limit != null && limit > 0) {
+                query.setMaxResults(limit);
+            }
+        }
+
+        return query.getResultStream()
+            .map(projection::toMap)
+            .collect(Collectors.toList());
+    }
+
     /**
      * Fetches the count of consumers matching the provided filter data in the query builder. If the
      * query builder is null or contains no arguments, this method will return the count of all known
@@ -43,6 +43,7 @@ import javax.inject.Singleton;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.Query;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -458,6 +459,53 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
             consumer, "consumer", productId, filters, pageRequest);
     }
 
+    /**
+     * Fetches a page of the given projection of the entitlements of the specified consumer which
+     * match the provided filters. Only the projected attributes are selected, so the pools,
+     * certificates and other associations of the entitlements are not loaded unless they are part
+     * of the projection. Keyset paging is not supported.
+     *
+     * @param consumer
+     *  the consumer for which to fetch entitlement projections
+     *
+     * @param filters
+     *  the filters to apply to the entitlements; may be null
+     *
+     * @param pageRequest
+     *  the page request to apply, or null to fetch all matching entitlements
+     *
+     * @param projection
+     *  the projection of entitlement attributes to select
+     *
+     * @throws IllegalArgumentException
+     *  if consumer or projection is null, or the page request is keyset-paged
+     *
+     * @return
+     *  a page containing the projected attributes of the matching entitlements
+     */
+    public Page<List<Map<String, Object>>> listProjectionsByConsumer(Consumer consumer,
+        EntitlementFilterBuilder filters, PageRequest pageRequest, TupleProjection projection) {
+
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+
+        if (projection == null) {
+            throw new IllegalArgumentException("projection is null");
+        }
+
+        CriteriaBuilder cb = this.entityManager.get().getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Entitlement> root = query.from(Entitlement.class);
+        List<Predicate> criteria = this.createCriteriaFromFilters(root, query, filters);
+        criteria.add(cb.equal(root.get("consumer"), consumer));
+
+        query.distinct(true);
+        query.where(toArray(criteria));
+        return listProjectionByCriteria(root, query, projection, pageRequest,
+            () -> countMatchesByFilters(consumer, "consumer", filters));
+    }
+
     public Page<List<Entitlement>> listByOwner(Owner owner, String productId,
         EntitlementFilterBuilder filters, PageRequest pageRequest) {
         return listFilteredPages(
@@ -506,7 +554,8 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
 
         query.distinct(true);
         query.where(toArray(criteria));
-        return listByCriteria(root, query, pageRequest, countMatchesByFilters(object, objectType, filters));
+        return listByCriteria(root, query, pageRequest,
+            () -> countMatchesByFilters(object, objectType, filters));
     }
 
     private int countMatchesByFilters(AbstractHibernateObject<?> object, String objectType,
@@ -669,6 +718,36 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
             .getResultList();
     }
 
+    /**
+     * Lists the entitlements of the given consumer, fetching the pool and product of each entitlement
+     * in the same query. Intended for callers which need the pools of all of a consumer's entitlements,
+     * such as the rules, which would otherwise load each pool individually.
+     *
+     * @param consumer
+     *  the consumer for which to list entitlements
+     *
+     * @throws IllegalArgumentException
+     *  if consumer is null
+     *
+     * @return
+     *  a list of the consumer's entitlements, with their pools and products initialized
+     */
+    public List<Entitlement> listByConsumerWithPools(Consumer consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+
+        String jpql = "SELECT DISTINCT e FROM Entitlement e " +
+            "JOIN FETCH e.pool p " +
+            "LEFT JOIN FETCH p.product " +
+            "WHERE e.consumer = :consumer";
+
+        return this.getEntityManager()
+            .createQuery(jpql, Entitlement.class)
+            .setParameter("consumer", consumer)
+            .getResultList();
+    }
+
     /**
      * Lists dirty entitlements for the given consumer. If the consumer does not have any dirty
      * entitlements, this method returns an empty collection.
@@ -888,7 +967,7 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
         entitlementQuery.where(createListByProductCriteria(object, objectType, productId, entitlement));
 
         return listByCriteria(entitlement, entitlementQuery, pageRequest,
-            countProducts(object, objectType, productId));
+            () -> countProducts(object, objectType, productId));
     }
 
     private int countProducts(
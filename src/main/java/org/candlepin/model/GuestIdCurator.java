@@ -14,6 +14,9 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.paging.Page;
+import org.candlepin.paging.PageRequest;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +27,7 @@ import javax.inject.Singleton;
 import javax.persistence.NoResultException;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
@@ -60,6 +64,61 @@ public class GuestIdCurator extends AbstractHibernateCurator<GuestId> {
             .getResultList();
     }
 
+    /**
+     * Fetches a page of the guest IDs of the given consumer, sorted and limited in the database
+     * according to the given page request.
+     *
+     * @param consumer
+     *  the consumer for which to fetch guest IDs
+     *
+     * @param pageRequest
+     *  the page request to apply to the query
+     *
+     * @throws InvalidOrderKeyException
+     *  if the page request references a sort field that does not exist on guest IDs
+     *
+     * @return
+     *  a page containing the guest IDs of the consumer
+     */
+    public Page<List<GuestId>> listByConsumer(Consumer consumer, PageRequest pageRequest) {
+        CriteriaBuilder criteriaBuilder = this.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<GuestId> criteriaQuery = criteriaBuilder.createQuery(GuestId.class);
+        Root<GuestId> root = criteriaQuery.from(GuestId.class);
+
+        criteriaQuery.select(root)
+            .where(this.buildConsumerPredicates(criteriaBuilder, root, consumer));
+
+        return this.listByCriteria(root, criteriaQuery, pageRequest, () -> {
+            CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+            Root<GuestId> countRoot = countQuery.from(GuestId.class);
+
+            countQuery.select(criteriaBuilder.count(countRoot))
+                .where(this.buildConsumerPredicates(criteriaBuilder, countRoot, consumer));
+
+            return this.getEntityManager()
+                .createQuery(countQuery)
+                .getSingleResult()
+                .intValue();
+        });
+    }
+
+    private Predicate[] buildConsumerPredicates(CriteriaBuilder criteriaBuilder, Root<GuestId> root,
+        Consumer consumer) {
+
+        Join<GuestId, Consumer> consumerJoin = root.join(GuestId_.consumer);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate securityPredicate = this.getSecurityPredicate(Consumer.class, criteriaBuilder,
+            consumerJoin);
+        if (securityPredicate != null) {
+            predicates.add(securityPredicate);
+        }
+
+        predicates.add(criteriaBuilder.equal(consumerJoin.get(Consumer_.id), consumer.getId()));
+
+        return predicates.toArray(new Predicate[0]);
+    }
+
     public GuestId findByConsumerAndId(Consumer consumer, String guestId) {
         String jpql = """
                 SELECT g FROM GuestId g
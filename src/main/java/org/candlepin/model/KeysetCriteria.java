@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.paging.Page;
+import org.candlepin.paging.PageRequest;
+import org.candlepin.paging.PageToken;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+
+
+
+/**
+ * Utility methods for applying keyset paging to criteria queries. Keyset-paged queries are ordered
+ * by the requested sort field, with the primary key of the entity as a tie-breaker, and are
+ * restricted to the rows which sort after the position recorded in the request's page token.
+ */
+public final class KeysetCriteria {
+
+    private KeysetCriteria() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Fetches the sort field to use for the given keyset-paged request.
+     *
+     * @param pageRequest
+     *  the keyset-paged request
+     *
+     * @return
+     *  the sort field to use for the request
+     */
+    public static String getSortField(PageRequest pageRequest) {
+        String sortBy = pageRequest.getSortBy();
+        return sortBy != null && !sortBy.isBlank() ? sortBy : PageRequest.DEFAULT_SORT_FIELD;
+    }
+
+    private static PageRequest.Order getOrder(PageRequest pageRequest) {
+        return pageRequest.getOrder() != null ? pageRequest.getOrder() : PageRequest.DEFAULT_ORDER;
+    }
+
+    private static String getKeyAttribute(Root<?> root) {
+        EntityType<?> model = root.getModel();
+        return model.getId(model.getIdType().getJavaType()).getName();
+    }
+
+    /**
+     * Applies keyset ordering and restrictions to the given query. Any restriction already present
+     * on the query is retained. The caller remains responsible for limiting the number of results
+     * fetched to the page size.
+     *
+     * @param builder
+     *  the criteria builder to use to build the ordering and restrictions
+     *
+     * @param query
+     *  the query to which keyset paging should be applied
+     *
+     * @param root
+     *  the root of the query representing the paged entity
+     *
+     * @param pageRequest
+     *  the keyset-paged request
+     *
+     * @throws InvalidOrderKeyException
+     *  if the requested sort field is not supported by keyset paging or the paged entity
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static void apply(CriteriaBuilder builder, CriteriaQuery<?> query, Root<?> root,
+        PageRequest pageRequest) {
+
+        if (builder == null || query == null || root == null || pageRequest == null) {
+            throw new IllegalArgumentException("builder, query, root and pageRequest are required");
+        }
+
+        String sortBy = getSortField(pageRequest);
+        boolean reverse = getOrder(pageRequest) == PageRequest.Order.DESCENDING;
+
+        Path<Comparable> sortPath;
+        Path<Comparable> keyPath;
+
+        try {
+            if (!PageToken.SORT_FIELDS.contains(sortBy)) {
+                throw new IllegalArgumentException("unsupported keyset sort field: " + sortBy);
+            }
+
+            sortPath = root.get(sortBy);
+            keyPath = root.get(getKeyAttribute(root));
+        }
+        catch (IllegalArgumentException e) {
+            throw new InvalidOrderKeyException(sortBy, root.getModel(), e);
+        }
+
+        PageToken token = pageRequest.getPageToken();
+        if (token != null) {
+            Comparable value = (Comparable) token.getValue();
+            Comparable key = token.getKey();
+
+            Predicate position = builder.or(
+                reverse ? builder.lessThan(sortPath, value) : builder.greaterThan(sortPath, value),
+                builder.and(
+                    builder.equal(sortPath, value),
+                    reverse ? builder.lessThan((Expression) keyPath, key) :
+                        builder.greaterThan((Expression) keyPath, key)));
+
+            Predicate restriction = query.getRestriction();
+            query.where(restriction != null ? builder.and(restriction, position) : position);
+        }
+
+        query.orderBy(
+            reverse ? builder.desc(sortPath) : builder.asc(sortPath),
+            reverse ? builder.desc(keyPath) : builder.asc(keyPath));
+    }
+
+    /**
+     * Builds the encoded token of the page following the given page of results. If the results do
+     * not fill the requested page, there are no further pages, and this method returns null.
+     *
+     * @param entityManager
+     *  the entity manager to use to resolve the primary keys of the results
+     *
+     * @param pageRequest
+     *  the keyset-paged request used to fetch the results
+     *
+     * @param results
+     *  the page of results fetched for the request
+     *
+     * @throws IllegalArgumentException
+     *  if the results are not timestamped entities
+     *
+     * @return
+     *  the encoded token of the next page, or null if there are no further pages
+     */
+    public static String getNextPageToken(EntityManager entityManager, PageRequest pageRequest,
+        List<?> results) {
+
+        if (results == null || results.isEmpty() || results.size() < pageRequest.getPerPage()) {
+            return null;
+        }
+
+        if (!(results.get(results.size() - 1) instanceof AbstractHibernateObject last)) {
+            throw new IllegalArgumentException("results do not contain timestamped entities");
+        }
+
+        String sortBy = getSortField(pageRequest);
+
+        Object value = switch (sortBy) {
+            case "created" -> new Date(last.getCreated().getTime());
+            case "updated" -> new Date(last.getUpdated().getTime());
+            default -> String.valueOf(last.getId());
+        };
+
+        Serializable key = (Serializable) entityManager.getEntityManagerFactory()
+            .getPersistenceUnitUtil()
+            .getIdentifier(last);
+
+        return new PageToken(sortBy, getOrder(pageRequest), value, String.valueOf(key))
+            .encode();
+    }
+
+    /**
+     * Builds a page for the given keyset-paged results.
+     *
+     * @param entityManager
+     *  the entity manager to use to resolve the primary keys of the results
+     *
+     * @param pageRequest
+     *  the keyset-paged request used to fetch the results
+     *
+     * @param results
+     *  the page of results fetched for the request
+     *
+     * @return
+     *  a keyset page containing the given results
+     */
+    public static <T> Page<List<T>> buildPage(EntityManager entityManager, PageRequest pageRequest,
+        List<T> results) {
+
+        return new Page<List<T>>()
+            .setPageData(results)
+            .setPageRequest(pageRequest)
+            .setKeyset(true)
+            .setNextPageToken(getNextPageToken(entityManager, pageRequest, results));
+    }
+}
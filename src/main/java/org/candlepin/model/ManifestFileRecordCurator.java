@@ -18,16 +18,17 @@ import org.candlepin.sync.file.ManifestFileType;
 
 import com.google.inject.persist.Transactional;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Blob;
-import java.sql.SQLException;
 import java.util.Date;
 
 import javax.inject.Singleton;
+import javax.persistence.EntityManager;
 import javax.persistence.Query;
-import javax.sql.rowset.serial.SerialBlob;
 
 /**
  * Provides DB management for stored manifest archive files.
@@ -56,28 +57,47 @@ public class ManifestFileRecordCurator extends AbstractHibernateCurator<Manifest
         return id == null ? null : this.getEntityManager().find(ManifestFileRecord.class, id);
     }
 
+    /**
+     * Stores the given file as a new manifest file record. The file's data is streamed from the
+     * file into the database as the record is written, rather than being read into memory.
+     *
+     * @param type
+     *  the type of operation the file is being stored for
+     *
+     * @param fileToStore
+     *  the file to store
+     *
+     * @param principalName
+     *  the name of the principal storing the file
+     *
+     * @param targetId
+     *  the ID of the target entity of the operation
+     *
+     * @throws IOException
+     *  if the file cannot be read
+     *
+     * @return
+     *  the created manifest file record
+     */
     @Transactional
     public ManifestFileRecord createFile(ManifestFileType type, File fileToStore,
         String principalName, String targetId) throws IOException {
-        Blob data = createBlob(fileToStore);
 
-        ManifestFileRecord manifestFileRecord =
-            new ManifestFileRecord(type, fileToStore.getName(), principalName, targetId, data);
-        this.getEntityManager().persist(manifestFileRecord);
+        try (InputStream input = new BufferedInputStream(new FileInputStream(fileToStore))) {
+            Blob data = this.currentSession().getLobHelper().createBlob(input, fileToStore.length());
 
-        return manifestFileRecord;
-    }
+            ManifestFileRecord manifestFileRecord =
+                new ManifestFileRecord(type, fileToStore.getName(), principalName, targetId, data);
 
-    private Blob createBlob(File fileToStore) throws IOException {
-        byte[] fileBytes = new byte[(int) fileToStore.length()];
-        try (FileInputStream inputStream = new FileInputStream(fileToStore)) {
-            inputStream.read(fileBytes);
-        }
-        try {
-            return new SerialBlob(fileBytes);
-        }
-        catch (SQLException e) {
-            throw new IOException("Error creating Blob from file bytes", e);
+            // The blob reads from the file as the record is written, so the record must be written
+            // before the file is closed. The record is then detached, so later lookups read its data
+            // from the database rather than from the closed file.
+            EntityManager entityManager = this.getEntityManager();
+            entityManager.persist(manifestFileRecord);
+            entityManager.flush();
+            entityManager.detach(manifestFileRecord);
+
+            return manifestFileRecord;
         }
     }
 
@@ -17,6 +17,7 @@ package org.candlepin.model;
 import org.candlepin.model.Pool.PoolType;
 import org.candlepin.model.activationkeys.ActivationKey;
 import org.candlepin.paging.Page;
+import org.candlepin.paging.PageRequest;
 import org.candlepin.util.Util;
 
 import com.google.common.collect.Iterables;
@@ -49,6 +50,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -366,30 +368,27 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         CriteriaQuery<Pool> query = builder.createQuery(Pool.class);
         Root<Pool> root = query.from(Pool.class);
 
-        List<Predicate> predicates = new ArrayList<>();
-        Predicate securityPredicate = this.getSecurityPredicate(Pool.class, builder, root);
-        if (securityPredicate != null) {
-            predicates.add(securityPredicate);
-        }
-
-        if (consumer != null) {
-            ownerId = consumer.getOwnerId();
-        }
-
-        getConsumerPredicate(query, root, builder, consumer, ownerId)
-            .ifPresent(predicates::add);
-
-        if (ownerId != null) {
-            predicates.add(builder.equal(root.get(Pool_.owner).get(Owner_.id), ownerId));
-        }
-
-        getQualifierPredicates(query, root, builder, qualifier)
-            .ifPresent(predicates::addAll);
+        List<Predicate> predicates = this.buildAvailablePoolPredicates(query, root, builder, qualifier);
 
         query.select(root)
             .distinct(true)
             .where(predicates.toArray(new Predicate[0]));
 
+        PageRequest keysetPageRequest = qualifier.getKeysetPageRequest();
+        if (keysetPageRequest != null) {
+            // Impl note: the next page token is derived from the last pool fetched here, before any
+            // rules filtering is applied, so filtered pools never cause the following page to skip rows.
+            KeysetCriteria.apply(builder, query, root, keysetPageRequest);
+
+            List<Pool> pools = this.getEntityManager()
+                .createQuery(query)
+                .setMaxResults(keysetPageRequest.getPerPage())
+                .getResultList();
+
+            return this.buildKeysetPage(keysetPageRequest, pools)
+                .setMaxRecords(pools.size());
+        }
+
         if (qualifier.getOrder() != null) {
             List<Order> order = this.buildJPAQueryOrder(builder, root, qualifier);
             query.orderBy(order);
@@ -404,6 +403,102 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
             .setMaxRecords(pools.size());
     }
 
+    /**
+     * Retrieves the given projection of the pools that fulfill the restrictions dictated by the
+     * provided {@link PoolQualifier}. Only the projected attributes are selected, so none of the
+     * pools' collections or associations are loaded unless they are part of the projection. Unlike
+     * {@link #listAvailableEntitlementPools(PoolQualifier)}, keyset paging is not supported.
+     *
+     * @param qualifier
+     *  an object that dictates criteria that a pool must meet
+     *
+     * @param projection
+     *  the projection of pool attributes to select
+     *
+     * @throws IllegalArgumentException
+     *  if projection is null, or the qualifier requests keyset paging
+     *
+     * @return a page containing the projected attributes of all the pools that fulfill the
+     *  requirements provided by the {@link PoolQualifier}
+     */
+    public Page<List<Map<String, Object>>> listAvailableEntitlementPoolProjections(PoolQualifier qualifier,
+        TupleProjection projection) {
+
+        if (projection == null) {
+            throw new IllegalArgumentException("projection is null");
+        }
+
+        Page<List<Map<String, Object>>> page = new Page<List<Map<String, Object>>>()
+            .setPageData(new ArrayList<>())
+            .setMaxRecords(0);
+
+        if (qualifier == null) {
+            return page;
+        }
+
+        if (qualifier.getKeysetPageRequest() != null) {
+            throw new IllegalArgumentException("keyset paging is not supported for projections");
+        }
+
+        Consumer consumer = qualifier.getConsumer();
+        String ownerId = qualifier.getOwnerId();
+        if (consumer != null && ownerId != null && !ownerId.equals(consumer.getOwnerId())) {
+            log.warn("Attempting to filter entitlement pools by owner and a consumer belonging to a " +
+                "different owner: {}, {}", ownerId, consumer);
+
+            return page;
+        }
+
+        CriteriaBuilder builder = this.getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Pool> root = query.from(Pool.class);
+
+        List<Predicate> predicates = this.buildAvailablePoolPredicates(query, root, builder, qualifier);
+
+        query.distinct(true)
+            .where(predicates.toArray(new Predicate[0]));
+
+        List<Order> order = qualifier.getOrder() != null ?
+            this.buildJPAQueryOrder(builder, root, qualifier) :
+            null;
+
+        projection.select(query, root, order);
+
+        List<Map<String, Object>> rows = this.getEntityManager()
+            .createQuery(query)
+            .getResultStream()
+            .map(projection::toMap)
+            .collect(Collectors.toList());
+
+        return page.setPageData(rows)
+            .setMaxRecords(rows.size());
+    }
+
+    private List<Predicate> buildAvailablePoolPredicates(CriteriaQuery<?> query, Root<Pool> root,
+        CriteriaBuilder builder, PoolQualifier qualifier) {
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate securityPredicate = this.getSecurityPredicate(Pool.class, builder, root);
+        if (securityPredicate != null) {
+            predicates.add(securityPredicate);
+        }
+
+        Consumer consumer = qualifier.getConsumer();
+        String ownerId = consumer != null ? consumer.getOwnerId() : qualifier.getOwnerId();
+
+        getConsumerPredicate(query, root, builder, consumer, ownerId)
+            .ifPresent(predicates::add);
+
+        if (ownerId != null) {
+            predicates.add(builder.equal(root.get(Pool_.owner).get(Owner_.id), ownerId));
+        }
+
+        getQualifierPredicates(query, root, builder, qualifier)
+            .ifPresent(predicates::addAll);
+
+        return predicates;
+    }
+
     private Optional<List<Predicate>> getQualifierPredicates(CriteriaQuery<?> query, Root<Pool> root,
         CriteriaBuilder builder, PoolQualifier qualifier) {
 
@@ -1815,6 +1910,125 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         return dppMap;
     }
 
+    /**
+     * Builds an index of the pools of the given owner which are active on, or become active after,
+     * the specified date, keyed by the products they provide and the stacking ID, roles and add-ons
+     * of their products. The index is built from a projection of pool, product and attribute
+     * identifiers, without loading the pools themselves.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to build the index
+     *
+     * @param activeOn
+     *  the date on which the indexed pools must be active; pools which have expired before this
+     *  date will not be indexed
+     *
+     * @throws IllegalArgumentException
+     *  if ownerId or activeOn is null
+     *
+     * @return
+     *  an autobind candidate index for the given owner's pools
+     */
+    public AutobindCandidateIndex getAutobindCandidateIndex(String ownerId, Date activeOn) {
+        if (ownerId == null) {
+            throw new IllegalArgumentException("ownerId is null");
+        }
+
+        if (activeOn == null) {
+            throw new IllegalArgumentException("activeOn is null");
+        }
+
+        AutobindCandidateIndex index = new AutobindCandidateIndex();
+
+        // FIXME: This does not properly handle true N-tier; update as necessary
+        String productSql = "SELECT pool.id, prod.product_id FROM cp_pool pool " +
+            "JOIN cp_products prod ON prod.uuid = pool.product_uuid " +
+            "WHERE pool.owner_id = :owner_id AND pool.endDate >= :active_on " +
+            "UNION " +
+            "SELECT pool.id, pprod.product_id FROM cp_pool pool " +
+            "JOIN cp_product_provided_products ppp ON pool.product_uuid = ppp.product_uuid " +
+            "JOIN cp_products pprod ON pprod.uuid = ppp.provided_product_uuid " +
+            "WHERE pool.owner_id = :owner_id AND pool.endDate >= :active_on";
+
+        String attributeSql = "SELECT pool.id, attr.name, attr.value FROM cp_pool pool " +
+            "JOIN cp_product_attributes attr ON attr.product_uuid = pool.product_uuid " +
+            "WHERE pool.owner_id = :owner_id AND pool.endDate >= :active_on " +
+            "AND attr.name IN (:attributes)";
+
+        ((List<Object[]>) this.getEntityManager()
+            .createNativeQuery(productSql)
+            .setParameter("owner_id", ownerId)
+            .setParameter("active_on", activeOn)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(Pool.class)
+            .addSynchronizedEntityClass(Product.class)
+            .addSynchronizedQuerySpace("cp_product_provided_products")
+            .getResultList())
+            .forEach(cols -> index.addProvidedProduct((String) cols[0], (String) cols[1]));
+
+        List<String> attributes = List.of(Product.Attributes.STACKING_ID, Product.Attributes.ROLES,
+            Product.Attributes.ADDONS);
+
+        ((List<Object[]>) this.getEntityManager()
+            .createNativeQuery(attributeSql)
+            .setParameter("owner_id", ownerId)
+            .setParameter("active_on", activeOn)
+            .setParameter("attributes", attributes)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(Pool.class)
+            .addSynchronizedEntityClass(Product.class)
+            .addSynchronizedQuerySpace("cp_product_attributes")
+            .getResultList())
+            .forEach(cols -> index.addProductAttribute((String) cols[0], (String) cols[1], (String) cols[2]));
+
+        return index;
+    }
+
+    /**
+     * Fetches the quantity remaining in each of the given owner's pools which are active on, or
+     * become active after, the specified date. Pools with an unlimited quantity are not included.
+     * The quantities are fetched with a projection, without loading the pools themselves.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch pool availability
+     *
+     * @param activeOn
+     *  the date on which the pools must be active; pools which have expired before this date will
+     *  not be included
+     *
+     * @throws IllegalArgumentException
+     *  if ownerId or activeOn is null
+     *
+     * @return
+     *  a mapping of pool IDs to the quantity remaining in each pool
+     */
+    public Map<String, Long> getPoolAvailability(String ownerId, Date activeOn) {
+        if (ownerId == null) {
+            throw new IllegalArgumentException("ownerId is null");
+        }
+
+        if (activeOn == null) {
+            throw new IllegalArgumentException("activeOn is null");
+        }
+
+        String sql = "SELECT pool.id, pool.quantity, pool.quantity_consumed FROM cp_pool pool " +
+            "WHERE pool.owner_id = :owner_id AND pool.endDate >= :active_on AND pool.quantity >= 0";
+
+        Map<String, Long> availability = new HashMap<>();
+
+        ((List<Object[]>) this.getEntityManager()
+            .createNativeQuery(sql)
+            .setParameter("owner_id", ownerId)
+            .setParameter("active_on", activeOn)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(Pool.class)
+            .getResultList())
+            .forEach(cols -> availability.put((String) cols[0],
+                ((Number) cols[1]).longValue() - ((Number) cols[2]).longValue()));
+
+        return availability;
+    }
+
     @Transactional
     public void removeCdn(Cdn cdn) {
         if (cdn == null) {
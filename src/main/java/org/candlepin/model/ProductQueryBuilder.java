@@ -14,6 +14,9 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.paging.PageRequest;
+import org.candlepin.paging.PageToken;
+
 import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -490,6 +493,100 @@ public class ProductQueryBuilder extends QueryBuilder<ProductQueryBuilder, Produ
         }
     }
 
+    /**
+     * Fetches the name of the database column backing the given attribute of the given entity,
+     * validating the attribute against the entity's metamodel.
+     *
+     * @param metamodel
+     *  the metamodel to use to validate the attribute
+     *
+     * @param attribute
+     *  the name of the attribute for which to fetch the column name
+     *
+     * @throws IllegalArgumentException
+     *  if the attribute does not exist on the entity
+     *
+     * @throws NoSuchFieldException
+     *  if the attribute is not backed by a field of the entity
+     *
+     * @return
+     *  the name of the column backing the attribute
+     */
+    private String getColumnName(EntityType<?> metamodel, String attribute) throws NoSuchFieldException {
+        String validated = metamodel.getSingularAttribute(attribute)
+            .getName();
+
+        Column annotation = this.getAttributeField(metamodel.getJavaType(), validated)
+            .getAnnotation(Column.class);
+
+        // If we have a column annotation, use that; otherwise default to the validated field name
+        return Optional.ofNullable(annotation)
+            .map(Column::name)
+            .filter(name -> !name.isBlank())
+            .orElse(validated);
+    }
+
+    /**
+     * Builds the components for restricting the query to the rows following the position recorded in
+     * the keyset-paged request's page token, and assembles the keyset ORDER BY clause. Any ordering
+     * provided to this builder is ignored in favor of the keyset ordering.
+     *
+     * @param pageRequest
+     *  the keyset-paged request to apply
+     *
+     * @param criteriaChunks
+     *  the list of criteria chunks to receive the keyset restriction
+     *
+     * @param queryArgs
+     *  the map of query arguments to receive the token's position
+     *
+     * @param metamodel
+     *  the metamodel to use to validate the keyset columns
+     *
+     * @param prefix
+     *  a prefix to prepend to all keyset attributes
+     *
+     * @throws InvalidOrderKeyException
+     *  if the requested sort field is not supported by keyset paging
+     *
+     * @return
+     *  the ORDER BY clause for the keyset-paged query
+     */
+    private String buildKeysetComponents(PageRequest pageRequest, List<String> criteriaChunks,
+        Map<String, Object> queryArgs, EntityType<?> metamodel, String prefix) {
+
+        String sortBy = KeysetCriteria.getSortField(pageRequest);
+        String direction = pageRequest.getOrder() == PageRequest.Order.ASCENDING ? "ASC" : "DESC";
+
+        String sortColumn;
+        String keyColumn;
+        try {
+            if (!PageToken.SORT_FIELDS.contains(sortBy)) {
+                throw new IllegalArgumentException("unsupported keyset sort field: " + sortBy);
+            }
+
+            sortColumn = prefix + this.getColumnName(metamodel, sortBy);
+            keyColumn = prefix + this.getColumnName(metamodel,
+                metamodel.getId(metamodel.getIdType().getJavaType()).getName());
+        }
+        catch (IllegalArgumentException | NoSuchFieldException e) {
+            throw new InvalidOrderKeyException(sortBy, metamodel, e);
+        }
+
+        PageToken token = pageRequest.getPageToken();
+        if (token != null) {
+            String operator = "ASC".equals(direction) ? ">" : "<";
+
+            criteriaChunks.add(String.format("(%1$s %3$s :keyset_value OR " +
+                "(%1$s = :keyset_value AND %2$s %3$s :keyset_key))", sortColumn, keyColumn, operator));
+
+            queryArgs.put("keyset_value", token.getValue());
+            queryArgs.put("keyset_key", token.getKey());
+        }
+
+        return String.format("ORDER BY %1$s %3$s, %2$s %3$s", sortColumn, keyColumn, direction);
+    }
+
     /**
      * Assembles the ORDER BY clause from the query ordering provided to this builder.
      *
@@ -526,17 +623,7 @@ public class ProductQueryBuilder extends QueryBuilder<ProductQueryBuilder, Produ
                 // Regardless of the solution picked, we absolutely need to validate this input here because
                 // the field name is going into the query raw otherwise. THE RISK OF SQL INJECTION IS
                 // VERY REAL HERE.
-                String validated = metamodel.getSingularAttribute(order.column())
-                    .getName();
-
-                Column annotation = this.getAttributeField(metamodel.getJavaType(), validated)
-                    .getAnnotation(Column.class);
-
-                // If we have a column annotation, use that; otherwise default to the validated field name
-                String column = Optional.ofNullable(annotation)
-                    .map(Column::name)
-                    .filter(name -> !name.isBlank())
-                    .orElse(validated);
+                String column = this.getColumnName(metamodel, order.column());
 
                 return new StringBuilder(prefix)
                     .append(column)
@@ -630,8 +717,18 @@ public class ProductQueryBuilder extends QueryBuilder<ProductQueryBuilder, Produ
         this.buildProductNameFilterComponents(queryChunks, criteriaChunks, queryArgs, querySpaces);
 
         // Assemble the where clause and order statements
-        this.assembleWhereClause(queryChunks, criteriaChunks);
-        this.assembleOrderByClause(queryChunks, metamodel, "prod.");
+        PageRequest keysetPageRequest = this.getKeysetPageRequest();
+        if (keysetPageRequest != null) {
+            String orderClause = this.buildKeysetComponents(keysetPageRequest, criteriaChunks, queryArgs,
+                metamodel, "prod.");
+
+            this.assembleWhereClause(queryChunks, criteriaChunks);
+            queryChunks.add(orderClause);
+        }
+        else {
+            this.assembleWhereClause(queryChunks, criteriaChunks);
+            this.assembleOrderByClause(queryChunks, metamodel, "prod.");
+        }
 
         String sql = String.join(" ", queryChunks);
 
@@ -650,6 +747,14 @@ public class ProductQueryBuilder extends QueryBuilder<ProductQueryBuilder, Produ
         return query;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsKeysetPaging() {
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
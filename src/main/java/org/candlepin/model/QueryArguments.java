@@ -14,6 +14,8 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.paging.PageRequest;
+
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
@@ -115,6 +117,7 @@ public class QueryArguments<T extends QueryArguments> {
     protected Integer offset;
     protected Integer limit;
     protected Collection<Order> order;
+    protected PageRequest keysetPageRequest;
 
 
     /**
@@ -221,6 +224,41 @@ public class QueryArguments<T extends QueryArguments> {
         return this.order;
     }
 
+    /**
+     * Sets or clears the keyset-paged request to apply to the query. When set, the query is ordered
+     * and restricted according to the request, superseding any offset or ordering otherwise defined
+     * by these arguments. The limit must still be set to the page size of the request.
+     *
+     * @param pageRequest
+     *  the keyset-paged request to apply to the query, or null to clear keyset paging
+     *
+     * @throws IllegalArgumentException
+     *  if the page request is not a keyset-paged request
+     *
+     * @return
+     *  a reference to this QueryArguments
+     */
+    public T setKeysetPageRequest(PageRequest pageRequest) {
+        if (pageRequest != null && !pageRequest.isKeyset()) {
+            throw new IllegalArgumentException("pageRequest is not a keyset-paged request");
+        }
+
+        this.keysetPageRequest = pageRequest;
+        return (T) this;
+    }
+
+    /**
+     * Gets the keyset-paged request to apply to the query. If keyset paging has not been defined,
+     * this method returns null.
+     *
+     * @return
+     *  the keyset-paged request to apply to the query, or null if keyset paging has not been
+     *  defined
+     */
+    public PageRequest getKeysetPageRequest() {
+        return this.keysetPageRequest;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -237,6 +275,7 @@ public class QueryArguments<T extends QueryArguments> {
                 .append(this.getOffset(), that.getOffset())
                 .append(this.getLimit(), that.getLimit())
                 .append(this.getOrder(), that.getOrder())
+                .append(this.getKeysetPageRequest(), that.getKeysetPageRequest())
                 .isEquals();
         }
 
@@ -252,6 +291,7 @@ public class QueryArguments<T extends QueryArguments> {
             .append(this.getOffset())
             .append(this.getLimit())
             .append(this.getOrder())
+            .append(this.getKeysetPageRequest())
             .toHashCode();
     }
 
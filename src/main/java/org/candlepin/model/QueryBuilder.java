@@ -14,6 +14,8 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.paging.PageRequest;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -157,6 +159,7 @@ public abstract class QueryBuilder<Q extends QueryBuilder, T> {
     private Optional<Integer> offset;
     private Optional<Integer> limit;
     private final List<Order> order;
+    private PageRequest keysetPageRequest;
 
     /**
      * Creates a new QueryBuilder using the specified entity manager provider instance.
@@ -328,6 +331,70 @@ public abstract class QueryBuilder<Q extends QueryBuilder, T> {
         return (Q) this;
     }
 
+    /**
+     * Checks whether or not this query builder supports keyset paging. Query builders which do not
+     * support keyset paging will ignore any keyset-paged request provided to them.
+     *
+     * @return
+     *  true if this query builder supports keyset paging; false otherwise
+     */
+    public boolean supportsKeysetPaging() {
+        return false;
+    }
+
+    /**
+     * Sets or clears the keyset-paged request to use to restrict and order the results fetched by
+     * this query builder. When set, any ordering provided to this builder is ignored in favor of the
+     * keyset ordering. Callers remain responsible for setting the result limit to the page size.
+     *
+     * @param pageRequest
+     *  the keyset-paged request to apply, or null to clear keyset paging
+     *
+     * @throws IllegalArgumentException
+     *  if the provided page request is not a keyset-paged request
+     *
+     * @return
+     *  a reference to this query builder
+     */
+    public Q setKeysetPageRequest(PageRequest pageRequest) {
+        if (pageRequest != null && !pageRequest.isKeyset()) {
+            throw new IllegalArgumentException("pageRequest is not a keyset-paged request");
+        }
+
+        this.keysetPageRequest = pageRequest;
+        return (Q) this;
+    }
+
+    /**
+     * Fetches the keyset-paged request set on this query builder. If keyset paging has not been
+     * defined, this method returns null.
+     *
+     * @return
+     *  the keyset-paged request to apply, or null if keyset paging has not been defined
+     */
+    protected PageRequest getKeysetPageRequest() {
+        return this.keysetPageRequest;
+    }
+
+    /**
+     * Builds the encoded token of the page following the given page of results, fetched using the
+     * keyset-paged request set on this builder. If keyset paging has not been defined, or the results
+     * do not fill the page, this method returns null.
+     *
+     * @param results
+     *  the page of results fetched by this query builder
+     *
+     * @return
+     *  the encoded token of the next page, or null if there are no further pages
+     */
+    public String getNextPageToken(List<T> results) {
+        if (this.keysetPageRequest == null) {
+            return null;
+        }
+
+        return KeysetCriteria.getNextPageToken(this.getEntityManager(), this.keysetPageRequest, results);
+    }
+
     // TODO: We're not going to move off JPA any time soon, but if we really want to generalize this
     // interface, we could move these protected methods to a JPAQueryBuilder and leave them undefined
     // here; possibly even converting this class into an interface.
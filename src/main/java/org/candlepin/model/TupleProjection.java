@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+
+
+/**
+ * A set of entity attributes to select with a tuple query in place of the entities themselves.
+ * Attributes are named by their path from the query root, such as "name" or "product.id";
+ * associations along the path are joined with left joins, so a missing association yields a null
+ * value rather than excluding the row.
+ * <p></p>
+ * Projections should include the ID of the entity, as queries selecting distinct rows would
+ * otherwise collapse entities with identical projected values.
+ */
+public class TupleProjection {
+
+    private static final String ALIAS_PREFIX = "attr";
+
+    private final List<String> attributes;
+
+    /**
+     * Creates a new projection of the given attributes
+     *
+     * @param attributes
+     *  the paths of the attributes to select
+     *
+     * @throws IllegalArgumentException
+     *  if attributes is null, empty, or contains null or empty paths
+     */
+    public TupleProjection(Collection<String> attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            throw new IllegalArgumentException("attributes is null or empty");
+        }
+
+        for (String attribute : attributes) {
+            if (attribute == null || attribute.isEmpty()) {
+                throw new IllegalArgumentException("attributes contains a null or empty attribute");
+            }
+        }
+
+        this.attributes = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(attributes)));
+    }
+
+    /**
+     * Fetches the paths of the attributes selected by this projection
+     *
+     * @return
+     *  an unmodifiable list of the paths of the projected attributes
+     */
+    public List<String> getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * Sets the selection of the given tuple query to the attributes of this projection. If the
+     * query is to be ordered, the order must be provided here, as queries selecting distinct rows
+     * may only be ordered by selected expressions; the ordered expressions are selected after the
+     * projected attributes.
+     *
+     * @param query
+     *  the tuple query for which to set the selection
+     *
+     * @param root
+     *  the root of the query from which to select the attributes
+     *
+     * @param order
+     *  the order to be applied to the query; may be null
+     *
+     * @return
+     *  the provided query
+     */
+    public CriteriaQuery<Tuple> select(CriteriaQuery<Tuple> query, Root<?> root, List<Order> order) {
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>();
+
+        for (int i = 0; i < this.attributes.size(); ++i) {
+            String[] chunks = this.attributes.get(i).split("\\.");
+            From<?, ?> from = root;
+
+            StringBuilder joinPath = new StringBuilder();
+            for (int c = 0; c < chunks.length - 1; ++c) {
+                joinPath.append(chunks[c]).append('.');
+
+                From<?, ?> parent = from;
+                String chunk = chunks[c];
+                from = joins.computeIfAbsent(joinPath.toString(), key -> parent.join(chunk, JoinType.LEFT));
+            }
+
+            selections.add(from.get(chunks[chunks.length - 1]).alias(ALIAS_PREFIX + i));
+        }
+
+        if (order != null) {
+            // Paths may be shared between the selection and the order, in which case the ordered
+            // expression is already selected and must not be selected again under the same alias
+            order.stream()
+                .map(Order::getExpression)
+                .filter(expression -> selections.stream().noneMatch(selection -> selection == expression))
+                .forEach(selections::add);
+
+            query.orderBy(order);
+        }
+
+        return query.multiselect(selections);
+    }
+
+    /**
+     * Converts a tuple fetched with this projection to a map of attribute paths to values.
+     *
+     * @param tuple
+     *  the tuple to convert
+     *
+     * @return
+     *  a mapping of the projected attribute paths to their values in the given tuple
+     */
+    public Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> row = new HashMap<>();
+
+        for (int i = 0; i < this.attributes.size(); ++i) {
+            row.put(this.attributes.get(i), tuple.get(ALIAS_PREFIX + i));
+        }
+
+        return row;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TupleProjection %s", this.attributes);
+    }
+}
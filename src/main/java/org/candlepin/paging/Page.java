@@ -25,6 +25,8 @@ public class Page<T> {
     private T pageData;
     private Integer maxRecords;
     private PageRequest pageRequest;
+    private boolean keyset;
+    private String nextPageToken;
 
     public T getPageData() {
         return pageData;
@@ -53,4 +55,36 @@ public class Page<T> {
         return this;
     }
 
+    /**
+     * Checks if this page was fetched using keyset paging. Keyset pages do not have a known
+     * number of records, and are followed using their next page token rather than a page number.
+     *
+     * @return
+     *  true if this page was fetched using keyset paging; false otherwise
+     */
+    public boolean isKeyset() {
+        return keyset;
+    }
+
+    public Page<T> setKeyset(boolean keyset) {
+        this.keyset = keyset;
+        return this;
+    }
+
+    /**
+     * Fetches the encoded token of the page following this page, if this page was fetched using
+     * keyset paging and may be followed by further elements.
+     *
+     * @return
+     *  the encoded token of the next page, or null if there are no further pages
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public Page<T> setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+        return this;
+    }
+
 }
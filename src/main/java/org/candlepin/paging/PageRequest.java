@@ -30,6 +30,7 @@ public class PageRequest {
     public static final String SORT_BY_PARAM = "sort_by";
     public static final String PAGE_PARAM = "page";
     public static final String PER_PAGE_PARAM = "per_page";
+    public static final String PAGE_TOKEN_PARAM = "page_token";
 
     public static final Integer DEFAULT_PAGE = 1;
     public static final Order DEFAULT_ORDER = Order.DESCENDING;
@@ -39,6 +40,8 @@ public class PageRequest {
     private Integer perPage;
     private String sortBy;
     private Order order;
+    private boolean keyset;
+    private PageToken pageToken;
 
     public Integer getPage() {
         return page;
@@ -76,6 +79,32 @@ public class PageRequest {
         return this;
     }
 
+    /**
+     * Checks if this request uses keyset paging. Keyset-paged requests fetch the page following
+     * the position described by their page token, or the first page if they have no page token,
+     * rather than fetching a numbered page.
+     *
+     * @return
+     *  true if this request uses keyset paging; false otherwise
+     */
+    public boolean isKeyset() {
+        return keyset;
+    }
+
+    public PageRequest setKeyset(boolean keyset) {
+        this.keyset = keyset;
+        return this;
+    }
+
+    public PageToken getPageToken() {
+        return pageToken;
+    }
+
+    public PageRequest setPageToken(PageToken pageToken) {
+        this.pageToken = pageToken;
+        return this;
+    }
+
     public boolean isPaging() {
         return perPage != null && page != null;
     }
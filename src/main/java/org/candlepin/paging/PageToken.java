@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Set;
+
+
+
+/**
+ * The PageToken class represents the position of the last element of a page fetched using keyset
+ * (or "cursor") paging. Rather than skipping a number of rows, the next page is fetched by
+ * selecting the rows which sort after this position, allowing the database to seek directly to the
+ * start of the page using an index.
+ * <p>
+ * Page tokens are encoded into an opaque string which is handed to the client in the Link header,
+ * and decoded again when the client requests the next page.
+ */
+public final class PageToken {
+
+    /** The fields which may be used to order a keyset-paged request */
+    public static final Set<String> SORT_FIELDS = Set.of("created", "updated", "id");
+
+    private static final String SEPARATOR = ".";
+    private static final char DATE_TYPE = 'd';
+    private static final char STRING_TYPE = 's';
+
+    private final String sortBy;
+    private final PageRequest.Order order;
+    private final Object value;
+    private final String key;
+
+    /**
+     * Creates a new page token for the given position.
+     *
+     * @param sortBy
+     *  the field by which the page was sorted
+     *
+     * @param order
+     *  the order in which the page was sorted
+     *
+     * @param value
+     *  the value of the sort field of the last element of the page; must be a Date or String
+     *
+     * @param key
+     *  the primary key of the last element of the page
+     *
+     * @throws IllegalArgumentException
+     *  if any of the arguments are null, the sort field is not supported, or the value is not a Date
+     *  or String
+     */
+    public PageToken(String sortBy, PageRequest.Order order, Object value, String key) {
+        if (sortBy == null || sortBy.isBlank()) {
+            throw new IllegalArgumentException("sortBy is null or empty");
+        }
+
+        if (!SORT_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("sortBy is not a supported keyset sort field: " + sortBy);
+        }
+
+        if (order == null) {
+            throw new IllegalArgumentException("order is null");
+        }
+
+        if (!(value instanceof Date || value instanceof String)) {
+            throw new IllegalArgumentException("value is not a date or string: " + value);
+        }
+
+        if (key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+
+        this.sortBy = sortBy;
+        this.order = order;
+        this.value = value;
+        this.key = key;
+    }
+
+    public String getSortBy() {
+        return this.sortBy;
+    }
+
+    public PageRequest.Order getOrder() {
+        return this.order;
+    }
+
+    public Object getValue() {
+        return this.value;
+    }
+
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Encodes this token into an opaque, URL-safe string.
+     *
+     * @return
+     *  the encoded form of this token
+     */
+    public String encode() {
+        String encodedValue = this.value instanceof Date ?
+            DATE_TYPE + String.valueOf(((Date) this.value).getTime()) :
+            STRING_TYPE + (String) this.value;
+
+        return String.join(SEPARATOR,
+            encodeComponent(this.sortBy),
+            encodeComponent(this.order.name()),
+            encodeComponent(encodedValue),
+            encodeComponent(this.key));
+    }
+
+    /**
+     * Decodes a token previously encoded by the {@link #encode()} method.
+     *
+     * @param token
+     *  the encoded token to decode
+     *
+     * @throws IllegalArgumentException
+     *  if the token is null or malformed
+     *
+     * @return
+     *  the decoded page token
+     */
+    public static PageToken decode(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("token is null");
+        }
+
+        String[] components = token.split("\\" + SEPARATOR, -1);
+        if (components.length != 4) {
+            throw new IllegalArgumentException("malformed page token: " + token);
+        }
+
+        String sortBy = decodeComponent(components[0]);
+        PageRequest.Order order = PageRequest.Order.valueOf(decodeComponent(components[1]));
+        String encodedValue = decodeComponent(components[2]);
+        String key = decodeComponent(components[3]);
+
+        if (encodedValue.isEmpty()) {
+            throw new IllegalArgumentException("malformed page token: " + token);
+        }
+
+        Object value = switch (encodedValue.charAt(0)) {
+            case DATE_TYPE -> new Date(Long.parseLong(encodedValue.substring(1)));
+            case STRING_TYPE -> encodedValue.substring(1);
+            default -> throw new IllegalArgumentException("malformed page token: " + token);
+        };
+
+        return new PageToken(sortBy, order, value, key);
+    }
+
+    private static String encodeComponent(String component) {
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(component.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeComponent(String component) {
+        return new String(Base64.getUrlDecoder().decode(component), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (!(obj instanceof PageToken)) {
+            return false;
+        }
+
+        PageToken that = (PageToken) obj;
+        return this.sortBy.equals(that.sortBy) &&
+            this.order == that.order &&
+            this.value.equals(that.value) &&
+            this.key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.sortBy, this.order, this.value, this.key);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PageToken [sortBy: %s, order: %s, value: %s, key: %s]",
+            this.sortBy, this.order, this.value, this.key);
+    }
+}
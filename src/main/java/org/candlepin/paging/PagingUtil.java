@@ -25,6 +25,7 @@ import org.xnap.commons.i18n.I18n;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -218,9 +219,27 @@ public class PagingUtil<T> {
         }
 
         try {
+            PageRequest pageRequest = ResteasyContext.getContextData(PageRequest.class);
+
+            // Keyset pages are fetched directly, without counting all of the matching rows. Builders
+            // which cannot apply keyset paging fall back to the first numbered page below.
+            if (pageRequest != null && pageRequest.isKeyset() && queryBuilder.supportsKeysetPaging()) {
+                queryBuilder.setKeysetPageRequest(pageRequest)
+                    .setLimit(pageRequest.getPerPage());
+
+                List<T> results = queryBuilder.getResultList();
+
+                Page<T> contextPage = new Page<T>()
+                    .setPageRequest(pageRequest)
+                    .setKeyset(true)
+                    .setNextPageToken(queryBuilder.getNextPageToken(results));
+
+                ResteasyContext.pushContext(Page.class, contextPage);
+                return results.stream();
+            }
+
             long count = queryBuilder.getResultCount();
 
-            PageRequest pageRequest = ResteasyContext.getContextData(PageRequest.class);
             if (pageRequest != null) {
                 // Impl note:
                 // Sorting will always be required (for consistency) if a page request object is present --
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.certs;
+
+import org.candlepin.model.CertificateSerial;
+import org.candlepin.model.CertificateSerialCurator;
+import org.candlepin.util.Util;
+
+import java.util.Date;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The CertificateSerialAllocator hands out the serial numbers used by generated certificates.
+ * <p></p>
+ * Serial numbers are random, positive longs, as they have always been (see
+ * Util.generateUniqueLong), and are assigned as soon as the serial is created. Serials are persisted
+ * along with the certificates using them, without flushing, allowing the serial and certificate rows
+ * to be written to the database together in batches rather than with one round-trip per serial.
+ */
+@Singleton
+public class CertificateSerialAllocator {
+
+    private final CertificateSerialCurator serialCurator;
+
+    @Inject
+    public CertificateSerialAllocator(CertificateSerialCurator serialCurator) {
+        this.serialCurator = Objects.requireNonNull(serialCurator);
+    }
+
+    /**
+     * Allocates a new certificate serial with the given expiration. The serial is assigned its
+     * serial number immediately and persisted, but not flushed; its row is written to the database
+     * along with the rows of the certificate using it on the next flush.
+     *
+     * @param expiration
+     *  the expiration of the certificate using the serial
+     *
+     * @return
+     *  the newly allocated certificate serial
+     */
+    public CertificateSerial allocate(Date expiration) {
+        CertificateSerial serial = new CertificateSerial(Util.generateUniqueLong(), expiration);
+        this.serialCurator.createAssigned(serial);
+
+        return serial;
+    }
+
+    /**
+     * Releases a serial allocated for a certificate which will not be persisted. As allocated
+     * serials are not flushed, the serial is removed before its row is ever written to the
+     * database.
+     *
+     * @param serial
+     *  the certificate serial to release; may be null
+     */
+    public void release(CertificateSerial serial) {
+        if (serial != null) {
+            this.serialCurator.delete(serial);
+        }
+    }
+
+}
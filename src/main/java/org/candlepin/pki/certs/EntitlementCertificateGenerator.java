@@ -19,7 +19,6 @@ import org.candlepin.config.Configuration;
 import org.candlepin.controller.util.ContentPathBuilder;
 import org.candlepin.controller.util.PromotedContent;
 import org.candlepin.model.CertificateSerial;
-import org.candlepin.model.CertificateSerialCurator;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCapability;
 import org.candlepin.model.ConsumerType;
@@ -85,11 +84,19 @@ import javax.inject.Singleton;
 public class EntitlementCertificateGenerator {
     private static final Logger log = LoggerFactory.getLogger(EntitlementCertificateGenerator.class);
 
+    /**
+     * The unsigned content of an entitlement certificate. Templates are built from the database, but
+     * hold no references to managed entities, allowing them to be signed on any thread.
+     */
+    record CertificateTemplate(DistinguishedName dn, BigInteger serial, Date startDate, Date endDate,
+        KeyPair keyPair, byte[] pemEncodedKeyPair, Set<X509Extension> extensions, byte[] payload) {
+    }
+
     private final EntitlementCertificateCurator entCertCurator;
     private final X509ExtensionUtil extensionUtil;
     private final X509V3ExtensionUtil v3extensionUtil;
     private final EntitlementPayloadGenerator payloadGenerator;
-    private final CertificateSerialCurator serialCurator;
+    private final CertificateSerialAllocator serialAllocator;
     private final OwnerCurator ownerCurator;
     private final EntitlementCurator entCurator;
     private final I18n i18n;
@@ -107,7 +114,7 @@ public class EntitlementCertificateGenerator {
         X509V3ExtensionUtil v3extensionUtil,
         EntitlementPayloadGenerator payloadGenerator,
         EntitlementCertificateCurator entCertCurator,
-        CertificateSerialCurator serialCurator,
+        CertificateSerialAllocator serialAllocator,
         OwnerCurator ownerCurator,
         EntitlementCurator entCurator, I18n i18n,
         Configuration config,
@@ -122,7 +129,7 @@ public class EntitlementCertificateGenerator {
         this.v3extensionUtil = Objects.requireNonNull(v3extensionUtil);
         this.payloadGenerator = Objects.requireNonNull(payloadGenerator);
         this.entCertCurator = Objects.requireNonNull(entCertCurator);
-        this.serialCurator = Objects.requireNonNull(serialCurator);
+        this.serialAllocator = Objects.requireNonNull(serialAllocator);
         this.ownerCurator = Objects.requireNonNull(ownerCurator);
         this.entCurator = Objects.requireNonNull(entCurator);
         this.i18n = Objects.requireNonNull(i18n);
@@ -157,13 +164,92 @@ public class EntitlementCertificateGenerator {
         Map<String, Product> products,
         boolean save) {
 
+        Map<String, CertificateSerial> serialMap = createSerials(poolQuantities);
+        Map<String, CertificateTemplate> templates = this.prepare(consumer, poolQuantities, entitlements,
+            products, serialMap);
+
+        Map<String, EntitlementCertificate> entitlementCerts = new HashMap<>();
+        for (Entry<String, CertificateTemplate> entry : templates.entrySet()) {
+            EntitlementCertificate cert = this.sign(entry.getValue());
+            if (save) {
+                cert.setEntitlement(entitlements.get(entry.getKey()));
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Generated cert serial number: {}", entry.getValue().serial());
+                log.debug("Key: {}", cert.getKey());
+                log.debug("Cert: {}", cert.getCert());
+            }
+
+            entitlementCerts.put(entry.getKey(), cert);
+        }
+
+        // Now that the serials have been saved, update the newly created
+        // certs with their serials and add them to the entitlements.
+        for (Entry<String, PoolQuantity> entry : poolQuantities.entrySet()) {
+            CertificateSerial nextSerial = serialMap.get(entry.getKey());
+            if (nextSerial == null) {
+                // This should never happen, but checking to be safe.
+                throw new CertificateCreationException(
+                    "Certificate serial not found for entitlement during cert generation.");
+            }
+
+            EntitlementCertificate nextCert = entitlementCerts.get(entry.getKey());
+            if (nextCert == null) {
+                // This should never happen, but checking to be safe.
+                throw new CertificateCreationException(
+                    "Entitlement certificate not found for entitlement during cert generation");
+            }
+
+            nextCert.setSerial(nextSerial);
+            if (save) {
+                Entitlement ent = entitlements.get(entry.getKey());
+                ent.addCertificate(nextCert);
+            }
+        }
+
+        if (save) {
+            log.info("Persisting certs.");
+            entCertCurator.saveOrUpdateAll(entitlementCerts.values(), false, false);
+        }
+
+        return entitlementCerts;
+    }
+
+    /**
+     * Gathers everything needed to build the entitlement certificates for the given consumer into
+     * templates which can be signed without further access to the database. This performs all of
+     * the lookups and entity traversal of certificate generation, and must be called on a thread
+     * with access to the current persistence context.
+     *
+     * @param consumer
+     *  The consumer to use for certificate generation
+     *
+     * @param poolQuantities
+     *  Pools and their quantities to use for certificate generation
+     *
+     * @param entitlements
+     *  A map of entitlements indexed by pool ids to generate the certs
+     *
+     * @param products
+     *  A map of respective products indexed by pool id
+     *
+     * @param serialMap
+     *  A map of persisted certificate serials indexed by pool id
+     *
+     * @return
+     *  The certificate templates, indexed by pool id
+     */
+    Map<String, CertificateTemplate> prepare(Consumer consumer, Map<String, PoolQuantity> poolQuantities,
+        Map<String, Entitlement> entitlements, Map<String, Product> products,
+        Map<String, CertificateSerial> serialMap) {
+
         Owner owner = this.ownerCurator.findOwnerById(consumer.getOwnerId());
 
         log.debug("Generating entitlement cert for entitlements");
         KeyPair keyPair = this.keyPairGenerator.getKeyPair(consumer);
         byte[] pemEncodedKeyPair = this.pemEncoder.encodeAsBytes(keyPair.getPrivate());
 
-        Map<String, CertificateSerial> serialMap = createSerials(poolQuantities);
         Set<Pool> entitledPools = poolQuantities.values().stream()
             .map(PoolQuantity::getPool)
             .collect(Collectors.toSet());
@@ -173,7 +259,7 @@ public class EntitlementCertificateGenerator {
         PromotedContent promotedContent = new PromotedContent(contentPathBuilder)
             .withAll(environments);
 
-        Map<String, EntitlementCertificate> entitlementCerts = new HashMap<>();
+        Map<String, CertificateTemplate> templates = new HashMap<>();
         boolean shouldCreateV3Certificate = shouldGenerateV3(consumer);
         for (Entry<String, PoolQuantity> entry : poolQuantities.entrySet()) {
             Pool pool = entry.getValue().getPool();
@@ -202,63 +288,66 @@ public class EntitlementCertificateGenerator {
             providedProducts.add(product);
             Set<X509Extension> extensions = prepareExtensions(consumer, pool, productModels,
                 providedProducts, ent, promotedContent, entitledPools);
-            X509Certificate x509Cert = createX509Certificate(consumer, owner, pool, ent,
-                BigInteger.valueOf(serial.getId()), keyPair, extensions);
-
-            log.debug("Getting PEM encoded cert.");
-            String pem = this.pemEncoder.encodeAsString(x509Cert);
 
+            byte[] payload = null;
             if (shouldCreateV3Certificate) {
-                pem = createPayloadAndSignature(consumer, productModels, pool, ent, pem);
+                log.debug("Generating v3 entitlement data");
+                payload = this.payloadGenerator.generate(productModels, consumer.getUuid(), pool,
+                    ent.getQuantity());
             }
 
-            // Build a skeleton cert as part of the entitlement processing.
-            EntitlementCertificate cert = new EntitlementCertificate();
-            cert.setKeyAsBytes(pemEncodedKeyPair);
-            cert.setCert(pem);
-            if (save) {
-                cert.setEntitlement(ent);
-            }
+            Date endDate = setupEntitlementEndDate(pool, consumer);
+            ent.setEndDateOverride(endDate);
 
-            if (log.isDebugEnabled()) {
-                log.debug("Generated cert serial number: {}", serial.getId());
-                log.debug("Key: {}", cert.getKey());
-                log.debug("Cert: {}", cert.getCert());
-            }
+            CertificateTemplate template = new CertificateTemplate(
+                new DistinguishedName(ent.getId(), owner),
+                BigInteger.valueOf(serial.getId()),
+                setupEntitlementStartDate(pool),
+                endDate,
+                keyPair,
+                pemEncodedKeyPair,
+                extensions,
+                payload);
 
-            entitlementCerts.put(entry.getKey(), cert);
+            templates.put(entry.getKey(), template);
         }
 
-        // Now that the serials have been saved, update the newly created
-        // certs with their serials and add them to the entitlements.
-        for (Entry<String, PoolQuantity> entry : poolQuantities.entrySet()) {
-            CertificateSerial nextSerial = serialMap.get(entry.getKey());
-            if (nextSerial == null) {
-                // This should never happen, but checking to be safe.
-                throw new CertificateCreationException(
-                    "Certificate serial not found for entitlement during cert generation.");
-            }
+        return templates;
+    }
 
-            EntitlementCertificate nextCert = entitlementCerts.get(entry.getKey());
-            if (nextCert == null) {
-                // This should never happen, but checking to be safe.
-                throw new CertificateCreationException(
-                    "Entitlement certificate not found for entitlement during cert generation");
-            }
+    /**
+     * Builds and signs the entitlement certificate described by the given template. The returned
+     * certificate has neither its serial nor its entitlement set. This method does not access the
+     * database, and may be called from any thread.
+     *
+     * @param template
+     *  The template of the certificate to build
+     *
+     * @return
+     *  The signed entitlement certificate
+     */
+    EntitlementCertificate sign(CertificateTemplate template) {
+        X509Certificate x509Cert = this.certificateBuilder.get()
+            .withDN(template.dn())
+            .withSerial(template.serial())
+            .withValidity(template.startDate().toInstant(), template.endDate().toInstant())
+            .withKeyPair(template.keyPair())
+            .withExtensions(template.extensions())
+            .build();
 
-            nextCert.setSerial(nextSerial);
-            if (save) {
-                Entitlement ent = entitlements.get(entry.getKey());
-                ent.addCertificate(nextCert);
-            }
-        }
+        log.debug("Getting PEM encoded cert.");
+        String pem = this.pemEncoder.encodeAsString(x509Cert);
 
-        if (save) {
-            log.info("Persisting certs.");
-            entCertCurator.saveOrUpdateAll(entitlementCerts.values(), false, false);
+        if (template.payload() != null) {
+            pem = createPayloadAndSignature(template.payload(), pem);
         }
 
-        return entitlementCerts;
+        // Build a skeleton cert as part of the entitlement processing.
+        EntitlementCertificate cert = new EntitlementCertificate();
+        cert.setKeyAsBytes(template.pemEncodedKeyPair());
+        cert.setCert(pem);
+
+        return cert;
     }
 
     private Set<Product> getDerivedProductsForDistributor(Pool pool, Consumer consumer) {
@@ -276,11 +365,7 @@ public class EntitlementCertificateGenerator {
         return derivedProducts;
     }
 
-    private X509Certificate createX509Certificate(Consumer consumer, Owner owner, Pool pool, Entitlement ent,
-        BigInteger serialNumber, KeyPair keyPair, Set<X509Extension> extensions) {
-
-        Date endDate = setupEntitlementEndDate(pool, consumer);
-        ent.setEndDateOverride(endDate);
+    private Date setupEntitlementStartDate(Pool pool) {
         Calendar calNow = Calendar.getInstance();
         Calendar calMinusHour = Calendar.getInstance();
         calMinusHour.add(Calendar.HOUR, -1);
@@ -289,15 +374,8 @@ public class EntitlementCertificateGenerator {
             pool.getStartDate().getTime() < calNow.getTime().getTime()) {
             startDate = calMinusHour.getTime();
         }
-        DistinguishedName dn = new DistinguishedName(ent.getId(), owner);
-
-        return this.certificateBuilder.get()
-            .withDN(dn)
-            .withSerial(serialNumber)
-            .withValidity(startDate.toInstant(), endDate.toInstant())
-            .withKeyPair(keyPair)
-            .withExtensions(extensions)
-            .build();
+
+        return startDate;
     }
 
     private Set<X509Extension> prepareV3ByteExtensions(List<org.candlepin.model.dto.Product> productModels) {
@@ -463,12 +541,7 @@ public class EntitlementCertificateGenerator {
         return result;
     }
 
-    private String createPayloadAndSignature(Consumer consumer,
-        List<org.candlepin.model.dto.Product> productModels, Pool pool, Entitlement ent, String pem) {
-        log.debug("Generating v3 entitlement data");
-        byte[] payloadBytes = this.payloadGenerator.generate(
-            productModels, consumer.getUuid(), pool, ent.getQuantity());
-
+    private String createPayloadAndSignature(byte[] payloadBytes, String pem) {
         String payload = "-----BEGIN ENTITLEMENT DATA-----\n";
         payload += Util.toBase64(payloadBytes);
         payload += "-----END ENTITLEMENT DATA-----\n";
@@ -485,13 +558,10 @@ public class EntitlementCertificateGenerator {
     private Map<String, CertificateSerial> createSerials(Map<String, PoolQuantity> poolQuantities) {
         Map<String, CertificateSerial> serialMap = new HashMap<>();
         for (Entry<String, PoolQuantity> entry : poolQuantities.entrySet()) {
-            serialMap.put(entry.getKey(), new CertificateSerial(entry.getValue().getPool().getEndDate()));
+            Date expiration = entry.getValue().getPool().getEndDate();
+            serialMap.put(entry.getKey(), this.serialAllocator.allocate(expiration));
         }
 
-        // Serials need to be saved to get generated ID.
-        log.debug("Persisting new certificate serials");
-        this.serialCurator.saveOrUpdateAll(serialMap.values(), false, false);
-
         return serialMap;
     }
 
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.certs;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.model.CertificateSerial;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCertificate;
+import org.candlepin.model.EntitlementCertificateCurator;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolQuantity;
+import org.candlepin.pki.certs.EntitlementCertificateGenerator.CertificateTemplate;
+import org.candlepin.util.CertificateSizeException;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The EntitlementCertificatePipeline regenerates entitlement certificates in bulk, splitting the
+ * work into three stages:
+ * <ol>
+ *  <li>entitlements are gathered in pages, their serials are allocated, and the content of each
+ *      certificate is prepared from the database on the calling thread</li>
+ *  <li>the prepared certificates are built and signed on a bounded pool of worker threads</li>
+ *  <li>once a page has been signed, its old certificates are removed and the new certificates are
+ *      persisted in batches, along with their serials, on the calling thread</li>
+ * </ol>
+ * The stages overlap: while the certificates of one page are being signed, the next page is
+ * gathered and prepared. Only the signing stage runs on the worker threads, so all database access
+ * remains on the calling thread and within its transaction.
+ * <p></p>
+ * While regenerating, JDBC batching is enabled on the calling thread's session, allowing the
+ * serial and certificate rows of each page to be written in batches without changing how any
+ * other session flushes.
+ */
+@Singleton
+public class EntitlementCertificatePipeline {
+    private static final Logger log = LoggerFactory.getLogger(EntitlementCertificatePipeline.class);
+
+    private static final String THREAD_NAME_PREFIX = "entitlement-cert-signer-";
+    private static final int JDBC_BATCH_SIZE = 100;
+
+    /**
+     * A certificate which has been prepared and submitted for signing
+     */
+    private static record PendingCertificate(Entitlement entitlement, CertificateSerial serial,
+        Future<EntitlementCertificate> certificate) {
+    }
+
+    private final EntitlementCertificateGenerator generator;
+    private final CertificateSerialAllocator serialAllocator;
+    private final EntitlementCertificateCurator entCertCurator;
+    private final EntitlementCurator entitlementCurator;
+    private final Configuration config;
+
+    @Inject
+    public EntitlementCertificatePipeline(EntitlementCertificateGenerator generator,
+        CertificateSerialAllocator serialAllocator, EntitlementCertificateCurator entCertCurator,
+        EntitlementCurator entitlementCurator, Configuration config) {
+
+        this.generator = Objects.requireNonNull(generator);
+        this.serialAllocator = Objects.requireNonNull(serialAllocator);
+        this.entCertCurator = Objects.requireNonNull(entCertCurator);
+        this.entitlementCurator = Objects.requireNonNull(entitlementCurator);
+        this.config = Objects.requireNonNull(config);
+    }
+
+    /**
+     * Fetches the number of worker threads used to sign certificates.
+     *
+     * @return
+     *  the number of signing threads
+     */
+    public int getParallelism() {
+        return this.config.getInt(ConfigProperties.CERT_REGEN_PARALLELISM);
+    }
+
+    /**
+     * Fetches the number of entitlements gathered and persisted together in a single page.
+     *
+     * @return
+     *  the page size to use when regenerating certificates
+     */
+    public int getPageSize() {
+        return Math.max(1, this.config.getInt(ConfigProperties.CERT_REGEN_PAGE_SIZE));
+    }
+
+    /**
+     * Checks whether or not bulk regeneration should be performed by this pipeline. The pipeline is
+     * only enabled when it is configured to sign certificates on more than one thread.
+     *
+     * @return
+     *  true if the pipeline is enabled; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.getParallelism() > 1;
+    }
+
+    private ThreadFactory buildThreadFactory() {
+        AtomicInteger counter = new AtomicInteger(0);
+
+        return (runnable) -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        };
+    }
+
+    /**
+     * Regenerates the certificates of the entitlements in the given pages. Pages are fetched from
+     * the provided iterable as they are needed, allowing callers to load each page lazily.
+     * <p></p>
+     * Entitlements for which a certificate cannot be generated due to its size are skipped and
+     * keep their existing certificates. Any other failure aborts the regeneration, leaving the
+     * rollback of any persisted changes to the caller's transaction.
+     *
+     * @param pages
+     *  the pages of entitlements for which to regenerate certificates
+     *
+     * @param listener
+     *  a listener to notify of each entitlement after its new certificate has been persisted; may
+     *  be null
+     *
+     * @throws IllegalArgumentException
+     *  if pages is null
+     *
+     * @return
+     *  the number of entitlements for which certificates were regenerated
+     */
+    public int regenerate(Iterable<? extends List<Entitlement>> pages, Consumer<Entitlement> listener) {
+        if (pages == null) {
+            throw new IllegalArgumentException("pages is null");
+        }
+
+        Session session = this.entCertCurator.currentSession();
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(JDBC_BATCH_SIZE);
+
+        ExecutorService workers = Executors.newFixedThreadPool(this.getParallelism(),
+            this.buildThreadFactory());
+
+        int regenerated = 0;
+        int pageCount = 0;
+
+        try {
+            List<PendingCertificate> pending = null;
+
+            for (List<Entitlement> page : pages) {
+                // Prepare and submit the next page before persisting the previous one, so the
+                // database work of one page overlaps with the signing of the other
+                List<PendingCertificate> next = this.submit(page, workers);
+
+                if (pending != null) {
+                    regenerated += this.persist(pending, listener);
+                }
+
+                pending = next;
+                log.debug("Submitted page {} of entitlement certificates for signing", ++pageCount);
+            }
+
+            if (pending != null) {
+                regenerated += this.persist(pending, listener);
+            }
+        }
+        finally {
+            workers.shutdownNow();
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+
+        log.info("Regenerated {} entitlement certificates in {} pages", regenerated, pageCount);
+        return regenerated;
+    }
+
+    /**
+     * Allocates serials for the given page of entitlements, prepares their certificates, and
+     * submits them to the workers for signing.
+     */
+    private List<PendingCertificate> submit(List<Entitlement> page, ExecutorService workers) {
+        List<PendingCertificate> pending = new ArrayList<>();
+
+        for (Entitlement entitlement : page) {
+            if (entitlement == null) {
+                continue;
+            }
+
+            Pool pool = entitlement.getPool();
+            CertificateSerial serial = this.serialAllocator.allocate(pool.getEndDate());
+
+            try {
+                String key = pool.getId();
+                CertificateTemplate template = this.generator.prepare(entitlement.getConsumer(),
+                    Collections.singletonMap(key, new PoolQuantity(pool, entitlement.getQuantity())),
+                    Collections.singletonMap(key, entitlement),
+                    Collections.singletonMap(key, pool.getProduct()),
+                    Collections.singletonMap(key, serial))
+                    .get(key);
+
+                Future<EntitlementCertificate> certificate = workers.submit(() ->
+                    this.generator.sign(template));
+
+                pending.add(new PendingCertificate(entitlement, serial, certificate));
+            }
+            catch (CertificateSizeException cse) {
+                // No certificate will use the serial, so it must not be written either
+                this.serialAllocator.release(serial);
+                log.warn("The certificate cannot be regenerated at this time: {}", cse.getMessage());
+            }
+        }
+
+        return pending;
+    }
+
+    /**
+     * Waits for the given certificates to be signed, then replaces the existing certificates of
+     * their entitlements with them.
+     */
+    private int persist(List<PendingCertificate> pending, Consumer<Entitlement> listener) {
+        List<Entitlement> entitlements = new ArrayList<>();
+        List<String> entitlementIds = new ArrayList<>();
+        List<EntitlementCertificate> certificates = new ArrayList<>();
+
+        for (PendingCertificate entry : pending) {
+            EntitlementCertificate certificate = this.await(entry.certificate());
+            certificate.setSerial(entry.serial());
+
+            Entitlement entitlement = entry.entitlement();
+            entitlement.setDirty(false);
+            entitlement.setCertificates(Collections.singleton(certificate));
+
+            entitlements.add(entitlement);
+            entitlementIds.add(entitlement.getId());
+            certificates.add(certificate);
+        }
+
+        if (entitlements.isEmpty()) {
+            return 0;
+        }
+
+        // Clear the old certs before we save so we don't end up in a weird state
+        int count = this.entCertCurator.deleteByEntitlementIds(entitlementIds);
+        log.debug("{} old entitlement certificates deleted", count);
+
+        this.entCertCurator.saveAll(certificates, true, false);
+        this.entitlementCurator.saveOrUpdateAll(entitlements, true, false);
+
+        if (listener != null) {
+            entitlements.forEach(listener);
+        }
+
+        return entitlements.size();
+    }
+
+    private EntitlementCertificate await(Future<EntitlementCertificate> certificate) {
+        try {
+            return certificate.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CertificateCreationException("Interrupted while signing entitlement certificates", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new CertificateCreationException("Failed to sign entitlement certificate", e.getCause());
+        }
+    }
+
+}
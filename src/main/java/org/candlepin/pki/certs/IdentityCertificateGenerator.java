@@ -17,7 +17,6 @@ package org.candlepin.pki.certs;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.model.CertificateSerial;
-import org.candlepin.model.CertificateSerialCurator;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.IdentityCertificate;
 import org.candlepin.model.IdentityCertificateCurator;
@@ -50,7 +49,7 @@ public class IdentityCertificateGenerator {
     private final KeyPairGenerator keyPairGenerator;
     private final PemEncoder pemEncoder;
     private final IdentityCertificateCurator idCertCurator;
-    private final CertificateSerialCurator serialCurator;
+    private final CertificateSerialAllocator serialAllocator;
     private final Provider<X509CertificateBuilder> certBuilder;
     private final int yearAddendum;
 
@@ -60,12 +59,12 @@ public class IdentityCertificateGenerator {
         PemEncoder pemEncoder,
         KeyPairGenerator keyPairGenerator,
         IdentityCertificateCurator identityCertCurator,
-        CertificateSerialCurator serialCurator,
+        CertificateSerialAllocator serialAllocator,
         Provider<X509CertificateBuilder> certBuilder) {
         this.keyPairGenerator = Objects.requireNonNull(keyPairGenerator);
         this.pemEncoder = Objects.requireNonNull(pemEncoder);
         this.idCertCurator = Objects.requireNonNull(identityCertCurator);
-        this.serialCurator = Objects.requireNonNull(serialCurator);
+        this.serialAllocator = Objects.requireNonNull(serialAllocator);
         this.certBuilder = Objects.requireNonNull(certBuilder);
         this.yearAddendum = config.getInt(ConfigProperties.IDENTITY_CERT_YEAR_ADDENDUM);
     }
@@ -121,10 +120,7 @@ public class IdentityCertificateGenerator {
         Instant from = now.minusHours(1).toInstant();
         Instant to = now.plusYears(this.yearAddendum).toInstant();
         DistinguishedName dn = new DistinguishedName(consumer.getUuid(), consumer.getOwner());
-        CertificateSerial serial = new CertificateSerial(Date.from(to));
-        // We need the sequence generated id before we create the EntitlementCertificate,
-        // otherwise we could have used cascading create
-        this.serialCurator.create(serial);
+        CertificateSerial serial = this.serialAllocator.allocate(Date.from(to));
         KeyPair keyPair = this.keyPairGenerator.getKeyPair(consumer);
 
         X509Certificate certificate = this.certBuilder.get()
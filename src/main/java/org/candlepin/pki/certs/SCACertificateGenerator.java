@@ -14,6 +14,7 @@
  */
 package org.candlepin.pki.certs;
 
+import org.candlepin.cache.ContentAccessPayloadCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.controller.util.ContentPathBuilder;
@@ -83,9 +84,11 @@ public class SCACertificateGenerator {
 
     private final V3CapabilityCheck v3CapabilityCheck;
     private final CertificateSerialCurator serialCurator;
+    private final CertificateSerialAllocator serialAllocator;
     private final ContentCurator contentCurator;
     private final ContentAccessCertificateCurator contentAccessCertificateCurator;
     private final ContentAccessPayloadCurator contentAccessPayloadCurator;
+    private final ContentAccessPayloadCache contentAccessPayloadCache;
     private final X509V3ExtensionUtil v3extensionUtil;
     private final EntitlementPayloadGenerator payloadGenerator;
     private final EnvironmentCurator environmentCurator;
@@ -104,7 +107,9 @@ public class SCACertificateGenerator {
         EntitlementPayloadGenerator payloadGenerator,
         ContentAccessCertificateCurator contentAccessCertificateCurator,
         ContentAccessPayloadCurator contentAccessPayloadCurator,
+        ContentAccessPayloadCache contentAccessPayloadCache,
         CertificateSerialCurator serialCurator,
+        CertificateSerialAllocator serialAllocator,
         ContentCurator contentCurator,
         ConsumerCurator consumerCurator,
         EnvironmentCurator environmentCurator,
@@ -117,7 +122,9 @@ public class SCACertificateGenerator {
         this.v3CapabilityCheck = Objects.requireNonNull(v3CapabilityCheck);
         this.contentAccessCertificateCurator = Objects.requireNonNull(contentAccessCertificateCurator);
         this.contentAccessPayloadCurator = Objects.requireNonNull(contentAccessPayloadCurator);
+        this.contentAccessPayloadCache = Objects.requireNonNull(contentAccessPayloadCache);
         this.serialCurator = Objects.requireNonNull(serialCurator);
+        this.serialAllocator = Objects.requireNonNull(serialAllocator);
         this.v3extensionUtil = Objects.requireNonNull(v3extensionUtil);
         this.payloadGenerator = Objects.requireNonNull(payloadGenerator);
         this.contentCurator = Objects.requireNonNull(contentCurator);
@@ -326,10 +333,23 @@ public class SCACertificateGenerator {
             .setEnvironments(environments)
             .build();
 
+        Date contentUpdated = getLastContentUpdate(owner, environments);
+
+        // Consumers in the same org and environments share the same payload key, so the payload is
+        // cached locally and loaded at most once at a time per key, rather than fetched or rebuilt
+        // by every request
+        return this.contentAccessPayloadCache.get(owner.getId(), payloadKey, contentUpdated,
+            () -> loadContentAccessPayload(owner, consumer, environments, payloadKey, contentUpdated));
+    }
+
+    private ContentAccessPayload loadContentAccessPayload(Owner owner, Consumer consumer,
+        List<Environment> environments, String payloadKey, Date contentUpdated)
+        throws ConcurrentContentPayloadCreationException {
+
         ContentAccessPayload payload = contentAccessPayloadCurator
             .getContentAccessPayload(owner.getId(), payloadKey);
 
-        if (payload == null || isPayloadExpired(payload, owner, environments)) {
+        if (payload == null || isPayloadExpired(payload, contentUpdated)) {
             log.info("Building content access payload for: {}, {}", owner.getKey(), payloadKey);
 
             Date timestamp = new Date();
@@ -373,17 +393,19 @@ public class SCACertificateGenerator {
         return createPayloadAndSignature(payloadBytes);
     }
 
-    private boolean isPayloadExpired(ContentAccessPayload payload, Owner owner,
-        List<Environment> environments) {
-
-        Date payloadTimestamp = payload.getTimestamp();
-
+    private Date getLastContentUpdate(Owner owner, List<Environment> environments) {
         Stream<Date> ownerContentUpdate = Stream.of(owner.getLastContentUpdate());
         Stream<Date> envContentUpdates = environments.stream()
             .map(Environment::getLastContentUpdate);
 
         return Stream.concat(ownerContentUpdate, envContentUpdates)
-            .anyMatch(contentUpdate -> contentUpdate.after(payloadTimestamp));
+            .filter(Objects::nonNull)
+            .max(Date::compareTo)
+            .orElse(null);
+    }
+
+    private boolean isPayloadExpired(ContentAccessPayload payload, Date contentUpdated) {
+        return contentUpdated != null && contentUpdated.after(payload.getTimestamp());
     }
 
     private org.candlepin.model.dto.Product createProductContainer(Owner owner,
@@ -405,10 +427,7 @@ public class SCACertificateGenerator {
     }
 
     private CertificateSerial createSerial(OffsetDateTime end) {
-        CertificateSerial serial = new CertificateSerial(Date.from(end.toInstant()));
-        // We need the sequence generated id before we create the Certificate,
-        // otherwise we could have used cascading create
-        return serialCurator.create(serial);
+        return this.serialAllocator.allocate(Date.from(end.toInstant()));
     }
 
     private X509Certificate createX509Cert(String consumerUuid, Owner owner, CertificateSerial serial,
@@ -36,29 +36,58 @@ import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterOutputStream;
 
+import javax.inject.Singleton;
 
+
+/**
+ * Compresses and decompresses the content paths embedded in V3 certificates. Instances do not hold
+ * any state between invocations, and may be shared freely between threads.
+ */
+@Singleton
 public class Huffman {
     private static final Logger log = LoggerFactory.getLogger(Huffman.class);
     private static final Object END_NODE = new Object();
     private static final boolean TREE_DEBUG = false;
 
-    private long pathNodeId = 0;
-    private long huffNodeId = 0;
+    /**
+     * Generates the IDs of the nodes created during a single compression or decompression
+     * operation. Path node IDs determine the order of nodes in the compressed output, and must be
+     * assigned in creation order.
+     */
+    private static class NodeIds {
+        private long pathNodeId;
+        private long huffNodeId;
+
+        public NodeIds(long pathNodeId, long huffNodeId) {
+            this.pathNodeId = pathNodeId;
+            this.huffNodeId = huffNodeId;
+        }
+
+        public long nextPathNodeId() {
+            return this.pathNodeId++;
+        }
+
+        public long nextHuffNodeId() {
+            return this.huffNodeId++;
+        }
+    }
 
     public byte[] retrieveContentValue(List<Content> contentList) throws IOException {
-        PathNode treeRoot = makePathTree(contentList, new PathNode(this.pathNodeId++));
+        NodeIds ids = new NodeIds(0, 0);
+
+        PathNode treeRoot = makePathTree(ids, contentList, new PathNode(ids.nextPathNodeId()));
         List<String> nodeStrings = orderStrings(treeRoot);
         if (nodeStrings.isEmpty()) {
             return new byte[0];
         }
         ByteArrayOutputStream data = new ByteArrayOutputStream();
-        List<HuffNode> stringHuffNodes = getStringNodeList(nodeStrings);
-        HuffNode stringTrieParent = makeTrie(stringHuffNodes);
+        List<HuffNode> stringHuffNodes = getStringNodeList(ids, nodeStrings);
+        HuffNode stringTrieParent = makeTrie(ids, stringHuffNodes);
         data.write(byteProcess(nodeStrings));
 
-        List<PathNode> orderedNodes = orderNodes(treeRoot);
-        List<HuffNode> pathNodeHuffNodes = getPathNodeNodeList(orderedNodes);
-        HuffNode pathNodeTrieParent = makeTrie(pathNodeHuffNodes);
+        List<PathNode> orderedNodes = orderNodes(ids, treeRoot);
+        List<HuffNode> pathNodeHuffNodes = getPathNodeNodeList(ids, orderedNodes);
+        HuffNode pathNodeTrieParent = makeTrie(ids, pathNodeHuffNodes);
         data.write(makeNodeDictionary(stringTrieParent,
             pathNodeTrieParent, orderedNodes));
 
@@ -66,7 +95,11 @@ public class Huffman {
     }
 
     public PathNode makePathTree(List<Content> contents, PathNode parent) {
-        PathNode endMarker = new PathNode(this.pathNodeId++);
+        return makePathTree(new NodeIds(parent.getId() + 1, 0), contents, parent);
+    }
+
+    private PathNode makePathTree(NodeIds ids, List<Content> contents, PathNode parent) {
+        PathNode endMarker = new PathNode(ids.nextPathNodeId());
         for (Content c : contents) {
             String path = c.getPath();
 
@@ -74,7 +107,7 @@ public class Huffman {
                 log.debug(path);
             }
             StringTokenizer st = new StringTokenizer(path, "/");
-            makePathForURL(st, parent, endMarker);
+            makePathForURL(ids, st, parent, endMarker);
         }
         if (TREE_DEBUG) {
             printTree(parent, 0);
@@ -135,7 +168,9 @@ public class Huffman {
         }
     }
 
-    private void makePathForURL(StringTokenizer tokenizer, PathNode parent, PathNode endMarker) {
+    private void makePathForURL(NodeIds ids, StringTokenizer tokenizer, PathNode parent,
+        PathNode endMarker) {
+
         if (tokenizer.hasMoreTokens()) {
             String nextValue = tokenizer.nextToken();
             if (nextValue.isEmpty()) {
@@ -150,7 +185,7 @@ public class Huffman {
                             peer.getConnection().getChildren().clear();
                         }
                         else {
-                            makePathForURL(tokenizer, peer.getConnection(), endMarker);
+                            makePathForURL(ids, tokenizer, peer.getConnection(), endMarker);
                         }
                     }
                 }
@@ -158,10 +193,10 @@ public class Huffman {
             if (isNew) {
                 PathNode next;
                 if (tokenizer.hasMoreTokens()) {
-                    next = new PathNode(this.pathNodeId++);
+                    next = new PathNode(ids.nextPathNodeId());
                     parent.addChild(new NodePair(nextValue, next));
                     next.addParent(parent);
-                    makePathForURL(tokenizer, next, endMarker);
+                    makePathForURL(ids, tokenizer, next, endMarker);
                 }
                 else {
                     parent.addChild(new NodePair(nextValue, endMarker));
@@ -272,7 +307,7 @@ public class Huffman {
         }
     }
 
-    private List<PathNode> orderNodes(PathNode treeRoot) {
+    private List<PathNode> orderNodes(NodeIds ids, PathNode treeRoot) {
         List<PathNode> result = new ArrayList<>();
 
         // walk tree to make string map
@@ -304,7 +339,7 @@ public class Huffman {
         }
         // single node plus term node. We need to have one more for huffman trie
         if (result.size() == 2) {
-            result.add(new PathNode(this.pathNodeId++));
+            result.add(new PathNode(ids.nextPathNodeId()));
         }
         if (TREE_DEBUG) {
             log.debug("{}", result);
@@ -435,26 +470,35 @@ public class Huffman {
         return baos.toByteArray();
     }
 
-    private List<HuffNode> getStringNodeList(List<String> pathStrings) {
+    private List<HuffNode> getStringNodeList(NodeIds ids, List<String> pathStrings) {
         List<HuffNode> nodes = new ArrayList<>();
         int idx = 1;
         for (String part : pathStrings) {
-            nodes.add(new HuffNode(this.huffNodeId++, part, idx++));
+            nodes.add(new HuffNode(ids.nextHuffNodeId(), part, idx++));
         }
-        nodes.add(new HuffNode(this.huffNodeId++, END_NODE, idx));
+        nodes.add(new HuffNode(ids.nextHuffNodeId(), END_NODE, idx));
         return nodes;
     }
 
-    private List<HuffNode> getPathNodeNodeList(List<PathNode> pathNodes) {
+    private List<HuffNode> getPathNodeNodeList(NodeIds ids, List<PathNode> pathNodes) {
         List<HuffNode> nodes = new ArrayList<>();
         int idx = 0;
         for (PathNode pn : pathNodes) {
-            nodes.add(new HuffNode(this.huffNodeId++, pn, idx++));
+            nodes.add(new HuffNode(ids.nextHuffNodeId(), pn, idx++));
         }
         return nodes;
     }
 
     public HuffNode makeTrie(List<HuffNode> nodesList) {
+        long maxId = nodesList.stream()
+            .mapToLong(HuffNode::getId)
+            .max()
+            .orElse(-1);
+
+        return makeTrie(new NodeIds(0, maxId + 1), nodesList);
+    }
+
+    private HuffNode makeTrie(NodeIds ids, List<HuffNode> nodesList) {
         // drop the first node if path node value, it is not needed
         if (nodesList.get(0).getValue() instanceof PathNode) {
             nodesList.remove(0);
@@ -464,7 +508,7 @@ public class Huffman {
             int node2 = findSmallest(node1, nodesList);
             HuffNode hn1 = nodesList.get(node1);
             HuffNode hn2 = nodesList.get(node2);
-            HuffNode merged = HuffNode.merge(this.huffNodeId++, hn1, hn2);
+            HuffNode merged = HuffNode.merge(ids.nextHuffNodeId(), hn1, hn2);
             nodesList.remove(hn1);
             nodesList.remove(hn2);
             nodesList.add(merged);
@@ -490,6 +534,7 @@ public class Huffman {
     }
 
     public List<String> hydrateContentPackage(byte[] payload) throws IOException {
+        NodeIds ids = new NodeIds(0, 0);
         List<HuffNode> pathDictionary = new ArrayList<>();
         List<HuffNode> nodeDictionary = new ArrayList<>();
 
@@ -504,7 +549,7 @@ public class Huffman {
         int weight = 1;
         for (byte b : baos.toByteArray()) {
             if (b == '\0') {
-                pathDictionary.add(new HuffNode(this.huffNodeId++, name.toString(), weight++));
+                pathDictionary.add(new HuffNode(ids.nextHuffNodeId(), name.toString(), weight++));
                 name = new StringBuilder();
             }
             else {
@@ -512,9 +557,9 @@ public class Huffman {
             }
         }
 
-        pathDictionary.add(new HuffNode(this.huffNodeId++, END_NODE, weight));
+        pathDictionary.add(new HuffNode(ids.nextHuffNodeId(), END_NODE, weight));
         List<HuffNode> triePathDictionary = new ArrayList<>(pathDictionary);
-        HuffNode pathTrie = makeTrie(triePathDictionary);
+        HuffNode pathTrie = makeTrie(ids, triePathDictionary);
 
         StringBuilder nodeBits = new StringBuilder();
         ByteArrayInputStream bais = new ByteArrayInputStream(payload, (int) read,
@@ -558,11 +603,11 @@ public class Huffman {
         }
 
         for (int j = 0; j < nodeCount; j++) {
-            nodeDictionary.add(new HuffNode(this.huffNodeId++, new PathNode(this.pathNodeId++), j));
+            nodeDictionary.add(new HuffNode(ids.nextHuffNodeId(), new PathNode(ids.nextPathNodeId()), j));
         }
 
         List<HuffNode> trieNodeDictionary = new ArrayList<>(nodeDictionary);
-        HuffNode nodeTrie = makeTrie(trieNodeDictionary);
+        HuffNode nodeTrie = makeTrie(ids, trieNodeDictionary);
 
         // populate the PathNodes so we can rebuild the cool url tree
         Set<PathNode> pathNodes =  populatePathNodes(nodeDictionary, pathTrie, nodeTrie, nodeBits);
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.KeyPair;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+
+
+/**
+ * A bounded pool of pre-generated key pairs. The pool is kept filled by a set of background worker
+ * threads: whenever the number of available key pairs drops below the configured low-water mark, the
+ * workers will generate new key pairs until the pool is at capacity again.
+ * <p></p>
+ * Key pairs taken from the pool are removed from it and are never handed out twice. Callers are
+ * expected to fall back to inline generation when the pool is empty.
+ */
+public class KeyPairPool implements KeyPairPoolMXBean {
+    private static final Logger log = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private static final String THREAD_NAME_PREFIX = "keypair-pool-";
+
+    private final Supplier<KeyPair> generator;
+    private final BlockingQueue<KeyPair> pool;
+    private final int capacity;
+    private final int lowWaterMark;
+
+    private final ExecutorService workers;
+    private final Lock lock;
+    private final Condition refillRequested;
+    private final AtomicBoolean filling;
+    private final AtomicInteger pending;
+    private volatile boolean shutdown;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder refills;
+    private final LongAdder refillTime;
+    private final AtomicLong lastRefillTime;
+
+    /**
+     * Creates a new key pair pool and starts its background refill threads. The pool begins empty
+     * and is filled to capacity immediately.
+     *
+     * @param generator
+     *  the supplier to use for generating new key pairs
+     *
+     * @param capacity
+     *  the maximum number of key pairs to hold in the pool; must be a positive integer
+     *
+     * @param lowWaterMark
+     *  the pool depth below which the pool will be refilled; must be a non-negative integer less than
+     *  the capacity
+     *
+     * @param threads
+     *  the number of background threads to use for generating key pairs; must be a positive integer
+     *
+     * @throws IllegalArgumentException
+     *  if the generator is null, or any of the numeric parameters are out of range
+     */
+    public KeyPairPool(Supplier<KeyPair> generator, int capacity, int lowWaterMark, int threads) {
+        if (generator == null) {
+            throw new IllegalArgumentException("generator is null");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be a positive integer");
+        }
+
+        if (lowWaterMark < 0 || lowWaterMark >= capacity) {
+            throw new IllegalArgumentException("low-water mark must be a non-negative integer less than " +
+                "the capacity");
+        }
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be a positive integer");
+        }
+
+        this.generator = generator;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.lowWaterMark = lowWaterMark;
+
+        this.lock = new ReentrantLock();
+        this.refillRequested = this.lock.newCondition();
+        this.filling = new AtomicBoolean(true);
+        this.pending = new AtomicInteger(0);
+        this.shutdown = false;
+
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.refills = new LongAdder();
+        this.refillTime = new LongAdder();
+        this.lastRefillTime = new AtomicLong(0);
+
+        this.workers = Executors.newFixedThreadPool(threads, this.buildThreadFactory());
+        for (int i = 0; i < threads; ++i) {
+            this.workers.execute(this::refill);
+        }
+    }
+
+    private ThreadFactory buildThreadFactory() {
+        AtomicInteger counter = new AtomicInteger(0);
+
+        return (runnable) -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+
+            return thread;
+        };
+    }
+
+    /**
+     * Takes a pre-generated key pair from the pool. If the pool is empty, this method returns null
+     * immediately rather than waiting for a key pair to be generated.
+     *
+     * @return
+     *  a pre-generated key pair, or null if the pool is empty
+     */
+    public KeyPair take() {
+        KeyPair keypair = this.pool.poll();
+
+        if (keypair != null) {
+            this.hits.increment();
+        }
+        else {
+            this.misses.increment();
+        }
+
+        if (this.pool.size() < this.lowWaterMark || keypair == null) {
+            this.requestRefill();
+        }
+
+        return keypair;
+    }
+
+    /**
+     * Stops the background refill threads and discards any pooled key pairs. Once shut down, the
+     * pool will always be empty.
+     */
+    public void shutdown() {
+        this.lock.lock();
+        try {
+            this.shutdown = true;
+            this.refillRequested.signalAll();
+        }
+        finally {
+            this.lock.unlock();
+        }
+
+        this.workers.shutdownNow();
+        this.pool.clear();
+    }
+
+    /**
+     * Checks if this pool has been shut down.
+     *
+     * @return
+     *  true if this pool has been shut down; false otherwise
+     */
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    private void requestRefill() {
+        if (this.shutdown || this.filling.get()) {
+            return;
+        }
+
+        this.lock.lock();
+        try {
+            if (this.filling.compareAndSet(false, true)) {
+                log.debug("Key pair pool depth below low-water mark; refilling...");
+                this.refillRequested.signalAll();
+            }
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Attempts to reserve a slot in the pool for a key pair to be generated. A slot is only reserved
+     * while the pool is in its filling state and the sum of pooled and in-flight key pairs is below
+     * the pool's capacity. Once the pool is full, the filling state is cleared until the next refill
+     * request.
+     *
+     * @return
+     *  true if a slot was reserved; false otherwise
+     */
+    private boolean reserveSlot() {
+        while (this.filling.get()) {
+            int inflight = this.pending.get();
+
+            if (this.pool.size() + inflight >= this.capacity) {
+                this.filling.set(false);
+                break;
+            }
+
+            if (this.pending.compareAndSet(inflight, inflight + 1)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void awaitRefillRequest() throws InterruptedException {
+        this.lock.lock();
+        try {
+            while (!this.shutdown && !this.filling.get()) {
+                this.refillRequested.await();
+            }
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void refill() {
+        try {
+            while (!this.shutdown) {
+                if (!this.reserveSlot()) {
+                    this.awaitRefillRequest();
+                    continue;
+                }
+
+                try {
+                    long start = System.nanoTime();
+                    KeyPair keypair = this.generator.get();
+                    long elapsed = System.nanoTime() - start;
+
+                    this.refills.increment();
+                    this.refillTime.add(elapsed);
+                    this.lastRefillTime.set(elapsed);
+
+                    if (!this.shutdown) {
+                        this.pool.offer(keypair);
+                    }
+                }
+                catch (RuntimeException e) {
+                    // Stop filling until the next request comes in so a persistent generation
+                    // failure doesn't spin the worker threads; request threads will still fall
+                    // back to inline generation and surface the error there.
+                    log.error("Unable to generate key pair for key pair pool", e);
+                    this.filling.set(false);
+                }
+                finally {
+                    this.pending.decrementAndGet();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            log.debug("Key pair pool worker interrupted; shutting down");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int getDepth() {
+        return this.pool.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public int getLowWaterMark() {
+        return this.lowWaterMark;
+    }
+
+    @Override
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public long getRefills() {
+        return this.refills.sum();
+    }
+
+    @Override
+    public double getAverageRefillLatency() {
+        long count = this.refills.sum();
+        return count > 0 ? (double) this.refillTime.sum() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+    }
+
+    @Override
+    public double getLastRefillLatency() {
+        return (double) this.lastRefillTime.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.impl;
+
+
+
+/**
+ * Management interface exposing the runtime statistics of a {@link KeyPairPool}.
+ */
+public interface KeyPairPoolMXBean {
+
+    /**
+     * @return
+     *  the number of pre-generated key pairs currently available in the pool
+     */
+    int getDepth();
+
+    /**
+     * @return
+     *  the maximum number of key pairs the pool will hold
+     */
+    int getCapacity();
+
+    /**
+     * @return
+     *  the pool depth below which the pool will be refilled
+     */
+    int getLowWaterMark();
+
+    /**
+     * @return
+     *  the number of key pair requests which were served from the pool
+     */
+    long getHits();
+
+    /**
+     * @return
+     *  the number of key pair requests which found the pool empty
+     */
+    long getMisses();
+
+    /**
+     * @return
+     *  the number of key pairs generated by the background refill threads
+     */
+    long getRefills();
+
+    /**
+     * @return
+     *  the average time, in milliseconds, taken by the refill threads to generate a key pair
+     */
+    double getAverageRefillLatency();
+
+    /**
+     * @return
+     *  the time, in milliseconds, taken by the refill threads to generate the most recent key pair
+     */
+    double getLastRefillLatency();
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.impl;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.model.KeyPairDataCurator;
+import org.candlepin.util.MBeanUtil;
+
+import com.google.inject.Inject;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.KeyPair;
+import java.util.Objects;
+
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+
+
+/**
+ * A key pair generator which serves new key pairs from a pool of pre-generated key pairs, falling
+ * back to inline generation only when the pool is empty. The pool is refilled in the background, taking
+ * the cost of RSA key generation off of the request threads during registration bursts.
+ * <p></p>
+ * Runtime statistics for the pool are exposed through the platform MBean server as
+ * "org.candlepin:type=KeyPairPool".
+ */
+@Singleton
+public class PooledKeyPairGenerator extends BouncyCastleKeyPairGenerator {
+    private static final Logger log = LoggerFactory.getLogger(PooledKeyPairGenerator.class);
+
+    private static final String MBEAN_TYPE = "KeyPairPool";
+
+    private final KeyPairPool pool;
+
+    @Inject
+    public PooledKeyPairGenerator(Provider<BouncyCastleProvider> securityProvider,
+        KeyPairDataCurator keypairDataCurator, Configuration config) {
+        super(securityProvider, keypairDataCurator);
+        Objects.requireNonNull(config);
+
+        int capacity = config.getInt(ConfigProperties.KEYPAIR_POOL_MAX_SIZE);
+        int lowWaterMark = config.getInt(ConfigProperties.KEYPAIR_POOL_LOW_WATER_MARK);
+        int threads = config.getInt(ConfigProperties.KEYPAIR_POOL_THREADS);
+
+        log.info("Initializing key pair pool; capacity: {}, low-water mark: {}, threads: {}",
+            capacity, lowWaterMark, threads);
+
+        this.pool = new KeyPairPool(super::generateKeyPair, capacity, lowWaterMark, threads);
+        MBeanUtil.register(MBEAN_TYPE, this.pool);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p></p>
+     * The key pair is taken from the pre-generated key pair pool if one is available; otherwise a new
+     * key pair is generated inline.
+     */
+    @Override
+    public KeyPair generateKeyPair() {
+        KeyPair keypair = this.pool.take();
+
+        if (keypair == null) {
+            log.debug("Key pair pool empty; generating key pair inline");
+            keypair = super.generateKeyPair();
+        }
+
+        return keypair;
+    }
+
+    /**
+     * Fetches the key pair pool backing this generator.
+     *
+     * @return
+     *  the key pair pool backing this generator
+     */
+    public KeyPairPool getPool() {
+        return this.pool;
+    }
+}
@@ -28,6 +28,8 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import javax.inject.Inject;
@@ -66,6 +68,26 @@ public class Signer {
         }
     }
 
+    /**
+     * Begins a SHA256withRSA digital signature over data which is supplied incrementally, allowing a
+     * payload to be signed as it is written rather than after it has been stored. The signature is
+     * created with the CA key retrieved using CertificateReader.
+     *
+     * @return
+     *  a new signing to receive the data to sign
+     */
+    public Signing beginSigning() {
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(this.certificateAuthority.getCaKey());
+
+            return new Signing(signature);
+        }
+        catch (Exception e) {
+            throw new SignatureFailedException("Failed to create signature!", e);
+        }
+    }
+
     public boolean verifySignature(File input, byte[] signedHash) throws IOException {
         log.debug("Verify against: {}", certificateAuthority.getCACert().getSerialNumber());
 
@@ -87,6 +109,35 @@ public class Signer {
         return false;
     }
 
+    /**
+     * Begins the verification of a signature over data which is supplied incrementally, allowing a
+     * payload to be verified as it is read rather than after it has been stored. The data is checked
+     * against the CA certificate and each of the upstream CA certificates.
+     *
+     * @return
+     *  a new verification to receive the signed data
+     */
+    public Verification beginVerification() {
+        List<Certificate> certificates = new ArrayList<>();
+        certificates.add(certificateAuthority.getCACert());
+        certificates.addAll(certificateAuthority.getUpstreamCACerts());
+
+        try {
+            List<Signature> signatures = new ArrayList<>();
+            for (Certificate certificate : certificates) {
+                Signature signature = Signature.getInstance("SHA256withRSA");
+                signature.initVerify(certificate);
+
+                signatures.add(signature);
+            }
+
+            return new Verification(signatures);
+        }
+        catch (Exception e) {
+            throw new SignatureFailedException("Failed to verify signature!", e);
+        }
+    }
+
     /**
      * Verify a digital signature.  The method calculates a digital signature using the SHA256withRSA
      * algorithm (and the public key from the certificate parameter) and then compares it with the signature
@@ -112,6 +163,114 @@ public class Signer {
         }
     }
 
+    /**
+     * A signature in progress, receiving the data to sign incrementally. Signings are not thread-safe.
+     */
+    public static class Signing {
+        private final Signature signature;
+
+        private Signing(Signature signature) {
+            this.signature = signature;
+        }
+
+        /**
+         * Adds the given data to the data being signed.
+         *
+         * @param data
+         *  the buffer containing the data to add
+         *
+         * @param offset
+         *  the offset of the data in the buffer
+         *
+         * @param length
+         *  the number of bytes to add
+         */
+        public void update(byte[] data, int offset, int length) {
+            try {
+                this.signature.update(data, offset, length);
+            }
+            catch (SignatureException e) {
+                throw new SignatureFailedException("Failed to create signature!", e);
+            }
+        }
+
+        /**
+         * Completes the signature over all of the data added so far. Once signed, the signing is
+         * reset and may not be used to sign the same data again.
+         *
+         * @return
+         *  a byte array of the SHA256withRSA digital signature
+         */
+        public byte[] sign() {
+            try {
+                return this.signature.sign();
+            }
+            catch (SignatureException e) {
+                throw new SignatureFailedException("Failed to create signature!", e);
+            }
+        }
+    }
+
+    /**
+     * A signature verification in progress, receiving the signed data incrementally. Verifications
+     * are not thread-safe.
+     */
+    public static class Verification {
+        private final List<Signature> signatures;
+
+        private Verification(List<Signature> signatures) {
+            this.signatures = signatures;
+        }
+
+        /**
+         * Adds the given data to the data being verified.
+         *
+         * @param data
+         *  the buffer containing the data to add
+         *
+         * @param offset
+         *  the offset of the data in the buffer
+         *
+         * @param length
+         *  the number of bytes to add
+         */
+        public void update(byte[] data, int offset, int length) {
+            try {
+                for (Signature signature : this.signatures) {
+                    signature.update(data, offset, length);
+                }
+            }
+            catch (SignatureException e) {
+                throw new SignatureFailedException("Failed to verify signature!", e);
+            }
+        }
+
+        /**
+         * Checks the data received by this verification against the given signature.
+         *
+         * @param signedHash
+         *  the signature to verify
+         *
+         * @return
+         *  true if the signature matches the data for any of the trusted certificates; false
+         *  otherwise
+         */
+        public boolean verify(byte[] signedHash) {
+            for (Signature signature : this.signatures) {
+                try {
+                    if (signature.verify(signedHash)) {
+                        return true;
+                    }
+                }
+                catch (SignatureException se) {
+                    log.debug("Signature could not be verified", se);
+                }
+            }
+
+            return false;
+        }
+    }
+
     private void updateSignature(InputStream input, Signature signature)
         throws IOException, SignatureException {
 
@@ -28,6 +28,11 @@ import org.slf4j.LoggerFactory;
  * JsRunner - Responsible for running the javascript rules methods in all
  * namespaces.
  * Used by the various "Rules" classes.
+ * <p></p>
+ * Each invocation borrows an execution scope from the scope pool of the rules
+ * compilation this runner was created from, and returns it to the pool once the
+ * invocation completes. As such, context arguments must be provided with every
+ * invocation that requires them.
  */
 public class JsRunner {
 
@@ -35,12 +40,32 @@ public class JsRunner {
 
     private Object rulesNameSpace;
     private String namespace;
-    private Scriptable scope;
+    private final JsScopePool scopePool;
+    private final String rulesVersion;
 
     private boolean initialized = false;
 
-    public JsRunner(Scriptable scope) {
-        this.scope = scope;
+    public JsRunner(JsScopePool scopePool) {
+        this(scopePool, null);
+    }
+
+    public JsRunner(JsScopePool scopePool, String rulesVersion) {
+        if (scopePool == null) {
+            throw new IllegalArgumentException("scopePool is null");
+        }
+
+        this.scopePool = scopePool;
+        this.rulesVersion = rulesVersion;
+    }
+
+    /**
+     * Fetches the version of the rules this runner executes.
+     *
+     * @return
+     *  the version of the rules executed by this runner, or null if the version is not known
+     */
+    public String getRulesVersion() {
+        return this.rulesVersion;
     }
 
     /**
@@ -55,8 +80,8 @@ public class JsRunner {
         this.namespace = namespace;
 
         if (!initialized) {
-
-            Context context = Context.enter();
+            Scriptable scope = this.scopePool.borrow();
+            Context context = JsScopePool.enterContext();
             try {
                 Object func = ScriptableObject.getProperty(scope, namespace);
                 this.rulesNameSpace = unwrapReturnValue(((Function) func)
@@ -70,6 +95,7 @@ public class JsRunner {
             }
             finally {
                 Context.exit();
+                this.scopePool.release(scope);
             }
         }
     }
@@ -88,36 +114,55 @@ public class JsRunner {
     }
 
     @SuppressWarnings("unchecked")
-    public <T> T invokeMethod(String method)
+    private <T> T invoke(String method, JsContext jsContext)
         throws NoSuchMethodException, RhinoException {
-        Scriptable localScope = Context.toObject(this.rulesNameSpace, scope);
-        Object func = ScriptableObject.getProperty(localScope, method);
-        if (!(func instanceof Function)) {
-            throw new NoSuchMethodException("no such javascript method: " + method);
-        }
-        Context context = Context.enter();
+
+        Scriptable scope = this.scopePool.borrow();
         try {
-            return (T) unwrapReturnValue(((Function) func).call(context, scope,
-                localScope, Context.emptyArgs));
+            if (jsContext != null) {
+                jsContext.applyTo(scope);
+            }
+
+            Scriptable localScope = Context.toObject(this.rulesNameSpace, scope);
+            Object func = ScriptableObject.getProperty(localScope, method);
+            if (!(func instanceof Function)) {
+                throw new NoSuchMethodException("no such javascript method: " + method);
+            }
+
+            Context context = JsScopePool.enterContext();
+            try {
+                return (T) unwrapReturnValue(((Function) func).call(context, scope,
+                    localScope, Context.emptyArgs));
+            }
+            finally {
+                Context.exit();
+            }
         }
         finally {
-            Context.exit();
+            this.scopePool.release(scope);
         }
     }
 
-    @SuppressWarnings("unchecked")
+    public <T> T invokeMethod(String method)
+        throws NoSuchMethodException, RhinoException {
+        return this.invoke(method, null);
+    }
+
     public <T> T invokeMethod(String method, JsContext context)
         throws NoSuchMethodException, RhinoException {
-        context.applyTo(scope);
-        return (T) invokeMethod(method);
+        return this.invoke(method, context);
     }
 
     public <T> T invokeRule(String ruleName) {
+        return this.invokeRule(ruleName, null);
+    }
+
+    public <T> T invokeRule(String ruleName, JsContext context) {
         log.debug("Running rule: {} in namespace: {}", ruleName, namespace);
 
         T returner = null;
         try {
-            returner = this.invokeMethod(ruleName);
+            returner = this.invoke(ruleName, context);
         }
         catch (NoSuchMethodException ex) {
             log.info("No rule found: {} in namespace: {}", ruleName, namespace);
@@ -128,11 +173,6 @@ public class JsRunner {
         return returner;
     }
 
-    public <T> T invokeRule(String ruleName, JsContext context) {
-        context.applyTo(scope);
-        return invokeRule(ruleName);
-    }
-
     public <T extends Object> T runJsFunction(Class<T> clazz, String function,
         JsContext context) {
         T returner = null;
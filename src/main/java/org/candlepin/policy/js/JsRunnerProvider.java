@@ -14,6 +14,8 @@
  */
 package org.candlepin.policy.js;
 
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
 import org.candlepin.model.Rules;
 import org.candlepin.model.Rules.RulesSourceEnum;
 import org.candlepin.model.RulesCurator;
@@ -29,38 +31,44 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.inject.Inject;
 
 /**
  * Reads/compiles our javascript rules and the standard js objects only
- * once across the JVM lifetime (and whenever the rules require a recompile), and creates
- * lightweight execution scopes per thread/request.
+ * once across the JVM lifetime (and whenever the rules require a recompile), and hands
+ * out runners backed by a pool of lightweight execution scopes.
  */
 public class JsRunnerProvider implements Provider<JsRunner> {
     private static Logger log = LoggerFactory.getLogger(JsRunnerProvider.class);
 
-    private RulesCurator rulesCurator;
-    private Provider<JsRunnerRequestCache> cacheProvider;
-    private Script script;
-    private Scriptable scope;
     /**
-     * This date is basically a version of the rules that this
-     * JSRunnerProvider compiled. Note that in clustered environment,
-     * multiple nodes must compile same version of rules. Thats why
-     * this JsRunnerProvider uses database to make sure it compiles and
-     * uses the database dictated version.
+     * A single compilation of the rules, along with the pool of execution scopes derived from it.
+     * Compilations are never modified once published; recompiling the rules publishes a new
+     * compilation, discarding the previous compilation's pooled scopes in bulk.
+     *
+     * @param updated
+     *  the database dictated version of the rules that were compiled. Note that in clustered
+     *  environments, multiple nodes must compile the same version of the rules.
      */
-    private volatile Date currentRulesUpdated;
+    private record CompiledRules(Date updated, String version, RulesSourceEnum source,
+        JsScopePool scopePool) {
+    }
+
+    private final RulesCurator rulesCurator;
+    private final int scopePoolSize;
+    private final long updateCheckInterval;
 
-    // Store the version and source of the compiled rules:
-    private String rulesVersion;
-    private RulesSourceEnum rulesSource;
+    private volatile CompiledRules compiledRules;
 
-    // Use this lock to access script, scope and updated
-    private ReadWriteLock scriptLock = new ReentrantReadWriteLock();
+    // The earliest time, in milliseconds, at which the database should be checked for updated rules
+    private final AtomicLong nextUpdateCheck;
+
+    // Use this lock to serialize compilation of the rules
+    private final Lock compileLock = new ReentrantLock();
 
     /**
      * DynamicScopeContextFactory - replace the standard rhino context factory with one that
@@ -83,9 +91,11 @@ public class JsRunnerProvider implements Provider<JsRunner> {
     }
 
     @Inject
-    public JsRunnerProvider(RulesCurator rulesCurator, Provider<JsRunnerRequestCache> cacheProvider) {
+    public JsRunnerProvider(RulesCurator rulesCurator, Configuration config) {
         this.rulesCurator = rulesCurator;
-        this.cacheProvider = cacheProvider;
+        this.scopePoolSize = config.getInt(ConfigProperties.RULES_SCOPE_POOL_SIZE);
+        this.updateCheckInterval = config.getLong(ConfigProperties.RULES_UPDATE_CHECK_INTERVAL);
+        this.nextUpdateCheck = new AtomicLong();
 
         log.debug("Compiling rules for initial load");
         this.rulesCurator.updateDbRules();
@@ -103,12 +113,15 @@ public class JsRunnerProvider implements Provider<JsRunner> {
     }
 
     public void compileRules(boolean forceRefresh) {
-        scriptLock.writeLock().lock();
+        compileLock.lock();
         try {
-            // Check to see if we need to recompile. we do this inside the write lock
+            // Check to see if we need to recompile. we do this inside the lock
             // just to avoid race conditions where we might double compile
             Date newUpdated = rulesCurator.getUpdated();
-            if (!forceRefresh && newUpdated.equals(this.currentRulesUpdated)) {
+            this.nextUpdateCheck.set(System.currentTimeMillis() + this.updateCheckInterval);
+
+            CompiledRules current = this.compiledRules;
+            if (!forceRefresh && current != null && newUpdated.equals(current.updated())) {
                 return;
             }
 
@@ -116,74 +129,70 @@ public class JsRunnerProvider implements Provider<JsRunner> {
 
             Context context = Context.enter();
             context.setOptimizationLevel(9);
-            scope = context.initStandardObjects(null, true);
+            Scriptable scope = context.initStandardObjects(null, true);
             try {
                 Rules rules = rulesCurator.getRules();
-                rulesVersion = rules.getVersion();
-                rulesSource = rules.getRulesSource();
-                script = context.compileString(
+                Script script = context.compileString(
                     rules.getRules(), "rules", 1, null);
                 script.exec(context, scope);
                 ((ScriptableObject) scope).sealObject();
-                this.currentRulesUpdated = newUpdated;
+
+                this.compiledRules = new CompiledRules(newUpdated, rules.getVersion(),
+                    rules.getRulesSource(), new JsScopePool(scope, this.scopePoolSize));
             }
             finally {
                 Context.exit();
             }
         }
         finally {
-            scriptLock.writeLock().unlock();
+            compileLock.unlock();
         }
     }
 
-    public JsRunner get() {
-        /**
-         * Even though JsRunnerProvider is singleton, the
-         * following cache is being retrieved fresh for
-         * every new HTTP Request
-         */
-        JsRunnerRequestCache cache = cacheProvider.get();
-        Date updated = cache.getUpdated();
-        if (updated == null) {
-            updated = rulesCurator.getUpdated();
-            cache.setUpdated(updated);
+    /**
+     * Checks the database for rules updated by another node, at most once per update check
+     * interval, recompiling the rules if they have changed. Threads arriving while the check is
+     * not due, or while another thread is performing it, continue with the current rules.
+     */
+    private void checkForUpdatedRules() {
+        long now = System.currentTimeMillis();
+        long next = this.nextUpdateCheck.get();
+
+        if (now < next || !this.nextUpdateCheck.compareAndSet(next, now + this.updateCheckInterval)) {
+            return;
         }
-        /*
-         * Create a new thread/request local javascript scope for the JsRules,
-         * based on the preinitialized global one (which contains our js rules).
-         */
-        // Avoid a write lock if we can
-        if (!updated.equals(this.currentRulesUpdated)) {
+
+        // Avoid taking the compile lock if we can
+        CompiledRules current = this.compiledRules;
+        if (current == null || !rulesCurator.getUpdated().equals(current.updated())) {
             compileRules();
         }
-        Scriptable rulesScope;
-        scriptLock.readLock().lock();
-        try {
-            Context context = Context.enter();
-            rulesScope = context.newObject(scope);
-            rulesScope.setPrototype(scope);
-            rulesScope.setParentScope(null);
-            Context.exit();
-        }
-        finally {
-            scriptLock.readLock().unlock();
-        }
+    }
+
+    public JsRunner get() {
+        this.checkForUpdatedRules();
 
-        return new JsRunner(rulesScope);
+        /*
+         * Runners borrow thread/request local javascript scopes for the JsRules, based
+         * on the preinitialized global one (which contains our js rules), from the
+         * scope pool of the current compilation.
+         */
+        CompiledRules current = this.compiledRules;
+        return new JsRunner(current.scopePool(), current.version());
     }
 
     public String getRulesVersion() {
-        if (rulesVersion == null) {
+        if (this.compiledRules == null) {
             compileRules();
         }
-        return rulesVersion;
+        return this.compiledRules.version();
     }
 
     public RulesSourceEnum getRulesSource() {
-        if (rulesSource == null) {
+        if (this.compiledRules == null) {
             compileRules();
         }
-        return rulesSource;
+        return this.compiledRules.source();
     }
 
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+
+/**
+ * A bounded pool of lightweight execution scopes derived from a single compilation of the rules.
+ * <p></p>
+ * Each execution scope is a child of the sealed, shared scope containing the compiled rules, and
+ * receives the arguments of a single rules invocation. Scopes are reset as they are returned to the
+ * pool, and scopes beyond the capacity of the pool are discarded. Since a pool is tied to one
+ * compilation of the rules, recompiling the rules replaces the pool, invalidating all of its scopes
+ * at once.
+ */
+public class JsScopePool {
+
+    /**
+     * Rhino contexts retained per thread. Entering a context creates and initializes a new context
+     * unless one is provided, so we keep one around for each thread to reuse across invocations.
+     */
+    private static final ThreadLocal<Context> CONTEXTS = ThreadLocal.withInitial(() -> {
+        Context context = ContextFactory.getGlobal().enterContext();
+        Context.exit();
+
+        return context;
+    });
+
+    private final Scriptable sharedScope;
+    private final int capacity;
+    private final BlockingQueue<Scriptable> scopes;
+
+    /**
+     * Creates a new scope pool for the given compiled rules scope.
+     *
+     * @param sharedScope
+     *  the sealed scope containing the compiled rules
+     *
+     * @param capacity
+     *  the maximum number of idle scopes to retain in this pool; if zero, scopes will not be reused
+     *
+     * @throws IllegalArgumentException
+     *  if sharedScope is null, or capacity is negative
+     */
+    public JsScopePool(Scriptable sharedScope, int capacity) {
+        if (sharedScope == null) {
+            throw new IllegalArgumentException("sharedScope is null");
+        }
+
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity is negative");
+        }
+
+        this.sharedScope = sharedScope;
+        this.capacity = capacity;
+        this.scopes = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Enters a Rhino context on the current thread, reusing the context retained for the thread
+     * where possible. Callers must call Context.exit once they are finished with the context.
+     *
+     * @return
+     *  the context entered on the current thread
+     */
+    public static Context enterContext() {
+        ContextFactory factory = ContextFactory.getGlobal();
+
+        // A context retained before the global factory was replaced would not have the features
+        // enabled by the current factory, so it must be replaced as well
+        Context context = CONTEXTS.get();
+        if (context.getFactory() != factory) {
+            CONTEXTS.remove();
+            context = CONTEXTS.get();
+        }
+
+        return factory.enterContext(context);
+    }
+
+    private Scriptable createScope() {
+        Context context = enterContext();
+        try {
+            Scriptable scope = context.newObject(this.sharedScope);
+            scope.setPrototype(this.sharedScope);
+            scope.setParentScope(null);
+
+            return scope;
+        }
+        finally {
+            Context.exit();
+        }
+    }
+
+    /**
+     * Takes an execution scope from this pool, creating a new one if the pool is empty. The scope
+     * should be returned to the pool with the release method once the invocation using it has
+     * completed.
+     *
+     * @return
+     *  an empty execution scope
+     */
+    public Scriptable borrow() {
+        Scriptable scope = this.scopes.poll();
+        return scope != null ? scope : this.createScope();
+    }
+
+    /**
+     * Resets the given execution scope and returns it to this pool. If the pool is full, the scope
+     * is discarded.
+     *
+     * @param scope
+     *  the execution scope to return to the pool
+     */
+    public void release(Scriptable scope) {
+        if (this.capacity == 0 || scope == null || scope.getPrototype() != this.sharedScope) {
+            return;
+        }
+
+        Object[] ids = scope instanceof ScriptableObject ?
+            ((ScriptableObject) scope).getAllIds() :
+            scope.getIds();
+
+        for (Object id : ids) {
+            if (id instanceof String) {
+                scope.delete((String) id);
+            }
+            else if (id instanceof Integer) {
+                scope.delete((Integer) id);
+            }
+        }
+
+        this.scopes.offer(scope);
+    }
+
+    /**
+     * Fetches the number of idle execution scopes currently held by this pool.
+     *
+     * @return
+     *  the number of idle scopes in this pool
+     */
+    public int size() {
+        return this.scopes.size();
+    }
+
+}
@@ -15,6 +15,10 @@
 package org.candlepin.policy.js.compliance;
 
 import org.candlepin.audit.EventSink;
+import org.candlepin.cache.ComplianceStatusCache;
+import org.candlepin.cache.ReferenceDataCache;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.rules.v1.ComplianceReasonDTO;
 import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
@@ -25,7 +29,6 @@ import org.candlepin.dto.rules.v1.PoolDTO;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.ConsumerType;
-import org.candlepin.model.ConsumerTypeCurator;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.GuestId;
@@ -35,6 +38,7 @@ import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsonJsContext;
 import org.candlepin.policy.js.RuleExecutionException;
 import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.policy.js.compliance.hash.ComplianceInputHasher;
 import org.candlepin.policy.js.compliance.hash.ComplianceStatusHasher;
 
 import org.slf4j.Logger;
@@ -46,9 +50,12 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -64,33 +71,97 @@ import javax.inject.Inject;
 public class ComplianceRules {
     private static final Logger log = LoggerFactory.getLogger(ComplianceRules.class);
 
+    // The rules versions for which the native engine has been disabled, so each is only reported once
+    private static final Set<String> UNMIRRORED_RULES_VERSIONS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The engines available for calculating consumer compliance
+     */
+    public enum Engine {
+        /** Compliance is calculated by the JS rules */
+        JS,
+
+        /** Compliance is calculated by the native implementation of the rules */
+        NATIVE,
+
+        /**
+         * Compliance is calculated by both the rules and the native implementation, and any mismatch
+         * between the two is reported. The result of the rules is used.
+         */
+        DIFFERENTIAL;
+
+        /**
+         * Fetches the engine matching the given configuration value, defaulting to the rules if the
+         * value is not set.
+         *
+         * @param value
+         *  the configured engine name
+         *
+         * @throws IllegalArgumentException
+         *  if the value does not match any known engine
+         *
+         * @return
+         *  the engine matching the given value
+         */
+        public static Engine fromString(String value) {
+            return value == null || value.isBlank() ? JS : Engine.valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+
     private final JsRunner jsRules;
     private final EntitlementCurator entCurator;
     private final StatusReasonMessageGenerator generator;
     private final EventSink eventSink;
     private final ConsumerCurator consumerCurator;
-    private final ConsumerTypeCurator consumerTypeCurator;
+    private final ReferenceDataCache referenceDataCache;
+    private final ComplianceStatusCache statusCache;
     private final RulesObjectMapper mapper;
     private final ModelTranslator translator;
+    private final Engine engine;
+    private final NativeComplianceEvaluator nativeEvaluator;
 
     @Inject
     public ComplianceRules(JsRunner jsRules, EntitlementCurator entCurator,
         StatusReasonMessageGenerator generator, EventSink eventSink, ConsumerCurator consumerCurator,
-        ConsumerTypeCurator consumerTypeCurator, RulesObjectMapper mapper,
-        ModelTranslator translator) {
+        ReferenceDataCache referenceDataCache, ComplianceStatusCache statusCache, RulesObjectMapper mapper,
+        ModelTranslator translator, Configuration config) {
 
         this.jsRules = Objects.requireNonNull(jsRules);
         this.entCurator = Objects.requireNonNull(entCurator);
         this.generator = Objects.requireNonNull(generator);
         this.eventSink = Objects.requireNonNull(eventSink);
         this.consumerCurator = Objects.requireNonNull(consumerCurator);
-        this.consumerTypeCurator = Objects.requireNonNull(consumerTypeCurator);
+        this.referenceDataCache = Objects.requireNonNull(referenceDataCache);
+        this.statusCache = Objects.requireNonNull(statusCache);
         this.mapper = Objects.requireNonNull(mapper);
         this.translator = Objects.requireNonNull(translator);
 
+        this.engine = resolveEngine(Engine.fromString(Objects.requireNonNull(config)
+            .getString(ConfigProperties.COMPLIANCE_ENGINE)), jsRules.getRulesVersion());
+        this.nativeEvaluator = new NativeComplianceEvaluator(referenceDataCache);
+
         jsRules.init("compliance_name_space");
     }
 
+    /**
+     * Resolves the engine to use for the given version of the rules. The native engine mirrors a
+     * specific version of the rules, and rules may be replaced at runtime; when the loaded rules do not
+     * match the mirrored version, compliance is calculated by the rules instead.
+     */
+    private static Engine resolveEngine(Engine configured, String rulesVersion) {
+        if (configured != Engine.NATIVE || NativeComplianceEvaluator.mirrorsRulesVersion(rulesVersion)) {
+            return configured;
+        }
+
+        if (UNMIRRORED_RULES_VERSIONS.add(String.valueOf(rulesVersion))) {
+            log.warn("Native compliance engine mirrors rules version {}, but rules version {} is " +
+                "loaded; calculating compliance with the rules", NativeComplianceEvaluator.RULES_VERSION,
+                rulesVersion);
+        }
+
+        return Engine.JS;
+    }
+
     /**
      * Check compliance status for a consumer on a specific date.
      * This should NOT calculate compliantUntil.
@@ -168,15 +239,6 @@ public class ComplianceRules {
             updateEntsOnStart(consumer);
         }
 
-        Stream<EntitlementDTO> entStream = Stream.concat(
-            newEntitlements != null ? newEntitlements.stream() : Stream.empty(),
-            consumer.getEntitlements() != null ? consumer.getEntitlements().stream() : Stream.empty())
-            .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
-
-        Stream<GuestIdDTO> guestIdStream = consumer.getGuestIds() == null ? Stream.empty() :
-            consumer.getGuestIds().stream()
-                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class));
-
         // Status can only be 'disabled' when in golden ticket mode
         if (consumer.getOwner() != null && consumer.getOwner().isUsingSimpleContentAccess()) {
             ComplianceStatus cs = new ComplianceStatus(new Date());
@@ -187,11 +249,107 @@ public class ComplianceRules {
 
         // Do not calculate compliance status for distributors. It is prohibitively
         // expensive and meaningless
-        ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
+        ConsumerType ctype = this.referenceDataCache.getConsumerType(consumer);
         if (ctype != null && (ctype.isManifest())) {
             return new ComplianceStatus(new Date());
         }
 
+        List<Entitlement> entitlements = Stream.concat(
+            newEntitlements != null ? newEntitlements.stream() : Stream.empty(),
+            consumer.getEntitlements() != null ? consumer.getEntitlements().stream() : Stream.empty())
+            .collect(Collectors.toList());
+
+        String fingerprint = null;
+        ComplianceStatus status = null;
+
+        // Statuses calculated with prospective entitlements are not reused, and are not worth caching
+        if (this.statusCache.isEnabled() && (newEntitlements == null || newEntitlements.isEmpty())) {
+            // Statuses calculated by other versions of the rules must not be reused
+            fingerprint = new ComplianceInputHasher(consumer, ctype, entitlements, this.engine,
+                this.jsRules.getRulesVersion(), calculateCompliantUntil, calculateProductComplianceDateRanges)
+                .hash();
+
+            status = this.statusCache.get(fingerprint, date, entitlements);
+        }
+
+        if (status == null) {
+            status = this.calculateStatus(consumer, entitlements, date, calculateCompliantUntil,
+                calculateProductComplianceDateRanges);
+
+            if (fingerprint != null) {
+                this.statusCache.put(fingerprint, date, entitlements, status);
+            }
+        }
+        else {
+            log.debug("Using cached compliance status for consumer {}", consumer.getUuid());
+        }
+
+        for (ComplianceReason reason : status.getReasons()) {
+            generator.setMessage(consumer, reason, status.getDate());
+        }
+
+        if (currentCompliance) {
+            applyStatus(consumer, status, updateConsumer);
+        }
+
+        return status;
+    }
+
+    /**
+     * Calculates the compliance status of a consumer using the configured compliance engine.
+     */
+    @SuppressWarnings("checkstyle:indentation")
+    private ComplianceStatus calculateStatus(Consumer consumer, List<Entitlement> entitlements, Date date,
+        boolean calculateCompliantUntil, boolean calculateProductComplianceDateRanges) {
+
+        ComplianceStatus status;
+        switch (this.engine) {
+            case NATIVE:
+                status = this.nativeEvaluator.getStatus(consumer, entitlements, date, calculateCompliantUntil,
+                    calculateProductComplianceDateRanges);
+                break;
+
+            case DIFFERENTIAL:
+                status = this.runStatusRules(consumer, entitlements, date, calculateCompliantUntil,
+                    calculateProductComplianceDateRanges);
+
+                try {
+                    ComplianceStatus nativeStatus = this.nativeEvaluator.getStatus(consumer, entitlements,
+                        date, calculateCompliantUntil, calculateProductComplianceDateRanges);
+
+                    List<String> differences = ComplianceStatusDiff.compare(status, nativeStatus);
+                    if (!differences.isEmpty()) {
+                        log.warn("Native compliance status for consumer {} on {} does not match the " +
+                            "rules: {}", consumer.getUuid(), date, differences);
+                    }
+                }
+                catch (Exception e) {
+                    log.warn("Native compliance evaluation failed for consumer {}", consumer.getUuid(), e);
+                }
+                break;
+
+            default:
+                status = this.runStatusRules(consumer, entitlements, date, calculateCompliantUntil,
+                    calculateProductComplianceDateRanges);
+        }
+
+        return status;
+    }
+
+    /**
+     * Calculates the compliance status of a consumer using the get_status rules function.
+     */
+    @SuppressWarnings("checkstyle:indentation")
+    private ComplianceStatus runStatusRules(Consumer consumer, List<Entitlement> entitlements, Date date,
+        boolean calculateCompliantUntil, boolean calculateProductComplianceDateRanges) {
+
+        Stream<EntitlementDTO> entStream = entitlements.stream()
+            .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
+
+        Stream<GuestIdDTO> guestIdStream = consumer.getGuestIds() == null ? Stream.empty() :
+            consumer.getGuestIds().stream()
+                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class));
+
         JsonJsContext args = new JsonJsContext(mapper);
         args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
         args.put("entitlements", entStream);
@@ -206,19 +364,7 @@ public class ComplianceRules {
         try {
             ComplianceStatusDTO statusDTO = mapper.toObject(json, ComplianceStatusDTO.class);
             ComplianceStatus status = new ComplianceStatus();
-            Set<Entitlement> allEntitlements = Stream.concat(
-                newEntitlements != null ? newEntitlements.stream() : Stream.empty(),
-                consumer.getEntitlements() != null ? consumer.getEntitlements().stream() : Stream.empty())
-                .collect(Collectors.toSet());
-            populateEntity(status, statusDTO, allEntitlements);
-
-            for (ComplianceReason reason : status.getReasons()) {
-                generator.setMessage(consumer, reason, status.getDate());
-            }
-
-            if (currentCompliance) {
-                applyStatus(consumer, status, updateConsumer);
-            }
+            populateEntity(status, statusDTO, new HashSet<>(entitlements));
 
             return status;
         }
@@ -256,8 +402,23 @@ public class ComplianceRules {
         }
     }
 
-    @SuppressWarnings("checkstyle:indentation")
     public boolean isStackCompliant(Consumer consumer, String stackId, List<Entitlement> entsToConsider) {
+        if (this.engine == Engine.NATIVE) {
+            return this.nativeEvaluator.isStackCompliant(consumer, stackId, entsToConsider);
+        }
+
+        boolean compliant = this.runStackRules(consumer, stackId, entsToConsider);
+
+        if (this.engine == Engine.DIFFERENTIAL) {
+            this.reportMismatch("stack " + stackId, consumer, compliant,
+                () -> this.nativeEvaluator.isStackCompliant(consumer, stackId, entsToConsider));
+        }
+
+        return compliant;
+    }
+
+    @SuppressWarnings("checkstyle:indentation")
+    private boolean runStackRules(Consumer consumer, String stackId, List<Entitlement> entsToConsider) {
         Stream<EntitlementDTO> entStream = entsToConsider == null ? Stream.empty() :
             entsToConsider.stream()
                 .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
@@ -276,10 +437,25 @@ public class ComplianceRules {
         return jsRules.runJsFunction(Boolean.class, "is_stack_compliant", args);
     }
 
-    @SuppressWarnings("checkstyle:indentation")
     public boolean isEntitlementCompliant(Consumer consumer, Entitlement ent, Date onDate) {
         List<Entitlement> ents = entCurator.listByConsumerAndDate(consumer, onDate);
 
+        if (this.engine == Engine.NATIVE) {
+            return this.nativeEvaluator.isEntitlementCompliant(consumer, ent, ents);
+        }
+
+        boolean compliant = this.runEntitlementRules(consumer, ent, ents);
+
+        if (this.engine == Engine.DIFFERENTIAL) {
+            this.reportMismatch("entitlement " + ent.getId(), consumer, compliant,
+                () -> this.nativeEvaluator.isEntitlementCompliant(consumer, ent, ents));
+        }
+
+        return compliant;
+    }
+
+    @SuppressWarnings("checkstyle:indentation")
+    private boolean runEntitlementRules(Consumer consumer, Entitlement ent, List<Entitlement> ents) {
         Stream<EntitlementDTO> entStream = ents == null ? Stream.empty() :
             ents.stream().map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
 
@@ -297,6 +473,25 @@ public class ComplianceRules {
         return jsRules.runJsFunction(Boolean.class, "is_ent_compliant", args);
     }
 
+    /**
+     * Runs the given native compliance check, logging a warning if its result does not match the
+     * result of the rules.
+     */
+    private void reportMismatch(String subject, Consumer consumer, boolean expected,
+        BooleanSupplier nativeCheck) {
+
+        try {
+            boolean actual = nativeCheck.getAsBoolean();
+            if (actual != expected) {
+                log.warn("Native compliance check of {} for consumer {} does not match the rules: " +
+                    "expected {}, found {}", subject, consumer.getUuid(), expected, actual);
+            }
+        }
+        catch (Exception e) {
+            log.warn("Native compliance check of {} failed for consumer {}", subject, consumer.getUuid(), e);
+        }
+    }
+
     private String getComplianceStatusHash(ComplianceStatus status, Consumer consumer) {
         ComplianceStatusHasher hasher = new ComplianceStatusHasher(consumer, status);
         return hasher.hash();
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.dto.api.server.v1.DateRange;
+import org.candlepin.model.Entitlement;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+
+/**
+ * Utility class for comparing the compliance status calculated by different compliance engines.
+ * Entitlements are compared by ID, reasons by their key and attributes, and dates by the instant
+ * they represent, as the engines may produce different instances or representations of each.
+ */
+public final class ComplianceStatusDiff {
+
+    private ComplianceStatusDiff() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Compares the given compliance statuses, returning a description of each difference found
+     * between them. Reason messages are not compared, as they are not set by the engines.
+     *
+     * @param expected
+     *  the expected compliance status
+     *
+     * @param actual
+     *  the compliance status to compare against the expected status
+     *
+     * @throws IllegalArgumentException
+     *  if either status is null
+     *
+     * @return
+     *  a list of the differences found between the two statuses; empty if they are equivalent
+     */
+    public static List<String> compare(ComplianceStatus expected, ComplianceStatus actual) {
+        if (expected == null) {
+            throw new IllegalArgumentException("expected is null");
+        }
+
+        if (actual == null) {
+            throw new IllegalArgumentException("actual is null");
+        }
+
+        List<String> differences = new ArrayList<>();
+
+        check(differences, "status", expected.getStatus(), actual.getStatus());
+        check(differences, "compliantUntil", toTime(expected.getCompliantUntil()),
+            toTime(actual.getCompliantUntil()));
+        check(differences, "nonCompliantProducts", expected.getNonCompliantProducts(),
+            actual.getNonCompliantProducts());
+        check(differences, "compliantProducts", toIdMap(expected.getCompliantProducts()),
+            toIdMap(actual.getCompliantProducts()));
+        check(differences, "partiallyCompliantProducts", toIdMap(expected.getPartiallyCompliantProducts()),
+            toIdMap(actual.getPartiallyCompliantProducts()));
+        check(differences, "partialStacks", toIdMap(expected.getPartialStacks()),
+            toIdMap(actual.getPartialStacks()));
+        check(differences, "productComplianceDateRanges",
+            toTimeMap(expected.getProductComplianceDateRanges()),
+            toTimeMap(actual.getProductComplianceDateRanges()));
+        check(differences, "reasons", toReasonSet(expected.getReasons()), toReasonSet(actual.getReasons()));
+
+        return differences;
+    }
+
+    private static void check(List<String> differences, String field, Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            differences.add(String.format("%s: expected %s, found %s", field, expected, actual));
+        }
+    }
+
+    private static Long toTime(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
+    private static Long toTime(OffsetDateTime date) {
+        return date != null ? date.toInstant().toEpochMilli() : null;
+    }
+
+    private static Map<String, Set<String>> toIdMap(Map<String, Set<Entitlement>> entitlements) {
+        if (entitlements == null) {
+            return Map.of();
+        }
+
+        Map<String, Set<String>> output = new HashMap<>();
+        entitlements.forEach((key, ents) -> output.put(key, ents == null ? Set.of() : ents.stream()
+            .map(ent -> ent != null ? ent.getId() : null)
+            .collect(Collectors.toSet())));
+
+        return output;
+    }
+
+    private static Map<String, List<Long>> toTimeMap(Map<String, DateRange> ranges) {
+        if (ranges == null) {
+            return Map.of();
+        }
+
+        Map<String, List<Long>> output = new HashMap<>();
+        ranges.forEach((key, range) -> output.put(key, range == null ? null :
+            Arrays.asList(toTime(range.getStartDate()), toTime(range.getEndDate()))));
+
+        return output;
+    }
+
+    private static Set<List<Object>> toReasonSet(Set<ComplianceReason> reasons) {
+        Set<List<Object>> output = new HashSet<>();
+
+        if (reasons != null) {
+            for (ComplianceReason reason : reasons) {
+                output.add(List.of(String.valueOf(reason.getKey()),
+                    reason.getAttributes() != null ? reason.getAttributes() : Map.of()));
+            }
+        }
+
+        return output;
+    }
+
+}
@@ -0,0 +1,1256 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.cache.ReferenceDataCache;
+import org.candlepin.dto.api.server.v1.DateRange;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.GuestId;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.util.Util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+
+
+/**
+ * A native implementation of the compliance checks performed by the JS rules. The evaluator mirrors
+ * the semantics of the get_status, is_stack_compliant and is_ent_compliant rules functions, but
+ * operates directly on the model objects, avoiding the translation to DTOs and the JSON round trip
+ * through the rules engine.
+ * <p></p>
+ * The rules operate on JS values, so a handful of helpers in this class reproduce the JS number
+ * handling (parseInt, numeric coercion of strings and number formatting) to ensure the evaluator
+ * arrives at the same results, and generates the same reasons, as the rules do.
+ */
+public class NativeComplianceEvaluator {
+    private static final Logger log = LoggerFactory.getLogger(NativeComplianceEvaluator.class);
+
+    /**
+     * The version of the rules whose compliance checks are mirrored by this evaluator. The evaluator
+     * should not be used in place of any other version of the rules.
+     */
+    public static final String RULES_VERSION = "5.44";
+
+    private static final String SYSTEM_TYPE = "system";
+
+    private static final String SOCKET_FACT = "cpu.cpu_socket(s)";
+    private static final String RAM_FACT = "memory.memtotal";
+    private static final String CORES_FACT = "cpu.core(s)_per_socket";
+    private static final String ARCH_FACT = "uname.machine";
+    private static final String IS_VIRT_GUEST_FACT = "virt.is_guest";
+    private static final String STORAGE_BAND_USAGE = "band.storage.usage";
+    private static final String PROD_ARCHITECTURE_SEPARATOR = ",";
+
+    private static final String SOCKETS_ATTRIBUTE = "sockets";
+    private static final String CORES_ATTRIBUTE = "cores";
+    private static final String ARCH_ATTRIBUTE = "arch";
+    private static final String RAM_ATTRIBUTE = "ram";
+    private static final String INSTANCE_ATTRIBUTE = "instance_multiplier";
+    private static final String REQUIRES_HOST_ATTRIBUTE = "requires_host";
+    private static final String UNMAPPED_GUESTS_ONLY = "unmapped_guests_only";
+    private static final String GUEST_LIMIT_ATTRIBUTE = "guest_limit";
+    private static final String VCPU_ATTRIBUTE = "vcpu";
+    private static final String STACKING_ID_ATTRIBUTE = "stacking_id";
+    private static final String STORAGE_BAND_ATTRIBUTE = "storage_band";
+
+    private static final Map<String, String> ATTRIBUTES_TO_CONSUMER_FACTS = Map.of(
+        SOCKETS_ATTRIBUTE, SOCKET_FACT,
+        CORES_ATTRIBUTE, CORES_FACT,
+        ARCH_ATTRIBUTE, ARCH_FACT,
+        RAM_ATTRIBUTE, RAM_FACT,
+        VCPU_ATTRIBUTE, CORES_FACT,
+        STORAGE_BAND_ATTRIBUTE, STORAGE_BAND_USAGE);
+
+    private static final List<String> PHYSICAL_ATTRIBUTES = List.of(SOCKETS_ATTRIBUTE, CORES_ATTRIBUTE,
+        RAM_ATTRIBUTE, ARCH_ATTRIBUTE, GUEST_LIMIT_ATTRIBUTE, STORAGE_BAND_ATTRIBUTE);
+
+    private static final List<String> VIRT_ATTRIBUTES = List.of(VCPU_ATTRIBUTE, RAM_ATTRIBUTE,
+        ARCH_ATTRIBUTE, GUEST_LIMIT_ATTRIBUTE, STORAGE_BAND_ATTRIBUTE);
+
+    private static final Set<String> UNCHECKED_WHEN_HOST_RESTRICTED = Set.of(RAM_ATTRIBUTE, VCPU_ATTRIBUTE);
+    private static final Set<String> GLOBAL_ATTRIBUTES = Set.of(GUEST_LIMIT_ATTRIBUTE);
+
+    private static final String TRACKER_TYPE_STACK = "STACK";
+    private static final String TRACKER_TYPE_ENTITLEMENT = "ENTITLEMENT";
+
+    private static final Pattern JS_DECIMAL_PATTERN =
+        Pattern.compile("[+-]?(\\d+(\\.\\d*)?|\\.\\d+)([eE][+-]?\\d+)?");
+
+    private final ReferenceDataCache referenceDataCache;
+
+    public NativeComplianceEvaluator(ReferenceDataCache referenceDataCache) {
+        this.referenceDataCache = Objects.requireNonNull(referenceDataCache);
+    }
+
+    /**
+     * Checks if this evaluator mirrors the given version of the rules.
+     *
+     * @param rulesVersion
+     *  the version of the rules to check; may be null
+     *
+     * @return
+     *  true if this evaluator mirrors the given version of the rules; false otherwise
+     */
+    public static boolean mirrorsRulesVersion(String rulesVersion) {
+        return RULES_VERSION.equals(rulesVersion);
+    }
+
+    /**
+     * Calculates the compliance status of the given consumer on the specified date. This is the
+     * native equivalent of the get_status rules function. The returned status references the given
+     * entitlement instances directly, and any reasons will have their message set to the reason key.
+     *
+     * @param consumer
+     *  the consumer for which to calculate compliance
+     *
+     * @param entitlements
+     *  the entitlements to consider when calculating compliance
+     *
+     * @param date
+     *  the date on which to calculate compliance
+     *
+     * @param calculateCompliantUntil
+     *  whether or not to calculate the date until which the consumer remains compliant
+     *
+     * @param calculateProductComplianceDateRanges
+     *  whether or not to calculate the compliance date ranges of the individual products
+     *
+     * @throws IllegalArgumentException
+     *  if consumer or date are null
+     *
+     * @return
+     *  the compliance status of the consumer on the given date
+     */
+    public ComplianceStatus getStatus(Consumer consumer, Collection<Entitlement> entitlements, Date date,
+        boolean calculateCompliantUntil, boolean calculateProductComplianceDateRanges) {
+
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+
+        if (date == null) {
+            throw new IllegalArgumentException("date is null");
+        }
+
+        ConsumerView cview = new ConsumerView(consumer);
+        List<EntitlementView> eviews = this.buildViews(cview, entitlements);
+        long ondate = date.getTime();
+
+        StatusOnDate status = this.getComplianceStatusOnDate(cview, eviews, ondate);
+
+        Date compliantUntil = null;
+        if (status.isCompliant() && calculateCompliantUntil && !eviews.isEmpty()) {
+            compliantUntil = this.determineCompliantUntilDate(cview, eviews, ondate);
+        }
+
+        Map<String, Long[]> dateRanges = null;
+        if (status.isPartiallyCompliant() && calculateProductComplianceDateRanges && !eviews.isEmpty()) {
+            dateRanges = this.getProductComplianceDateRanges(cview, eviews, ondate, status);
+        }
+
+        ComplianceStatus output = new ComplianceStatus(date);
+        output.setCompliantUntil(compliantUntil);
+
+        status.compliantProducts.forEach((pid, ents) ->
+            ents.forEach(ent -> output.addCompliantProduct(pid, ent.entitlement)));
+
+        status.partiallyCompliantProducts.forEach((pid, ents) ->
+            ents.forEach(ent -> output.addPartiallyCompliantProduct(pid, ent.entitlement)));
+
+        status.partialStacks.forEach((stackId, ents) ->
+            ents.forEach(ent -> output.addPartialStack(stackId, ent.entitlement)));
+
+        status.nonCompliantProducts.forEach(output::addNonCompliantProduct);
+
+        if (dateRanges != null) {
+            dateRanges.forEach((pid, range) -> output.addProductComplianceDateRange(pid, new DateRange()
+                .startDate(range[0] != null ? Util.toDateTime(new Date(range[0])) : null)
+                .endDate(range[1] != null ? Util.toDateTime(new Date(range[1])) : null)));
+        }
+
+        // Reasons are collected into a set by the rules-based implementation, so we need to drop
+        // any duplicates here as well.
+        Map<List<Object>, ComplianceReason> reasons = new LinkedHashMap<>();
+        for (ComplianceReason reason : status.reasons) {
+            reasons.putIfAbsent(Arrays.asList(reason.getKey(), reason.getAttributes()), reason);
+        }
+
+        output.setReasons(new HashSet<>(reasons.values()));
+        return output;
+    }
+
+    /**
+     * Checks whether or not the stack with the given ID is compliant for the given consumer. This is
+     * the native equivalent of the is_stack_compliant rules function.
+     *
+     * @param consumer
+     *  the consumer for which to check stack compliance
+     *
+     * @param stackId
+     *  the ID of the stack to check
+     *
+     * @param entitlements
+     *  the entitlements to consider when checking compliance
+     *
+     * @throws IllegalArgumentException
+     *  if consumer is null
+     *
+     * @return
+     *  true if the stack covers the consumer; false otherwise
+     */
+    public boolean isStackCompliant(Consumer consumer, String stackId, Collection<Entitlement> entitlements) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+
+        ConsumerView cview = new ConsumerView(consumer);
+        return this.getStackCoverage(cview, stackId, this.buildViews(cview, entitlements)).covered;
+    }
+
+    /**
+     * Checks whether or not the given entitlement is compliant for the given consumer. This is the
+     * native equivalent of the is_ent_compliant rules function.
+     *
+     * @param consumer
+     *  the consumer for which to check entitlement compliance
+     *
+     * @param entitlement
+     *  the entitlement to check
+     *
+     * @param entitlements
+     *  the entitlements to consider when checking global attributes, such as the guest limit
+     *
+     * @throws IllegalArgumentException
+     *  if consumer or entitlement are null
+     *
+     * @return
+     *  true if the entitlement covers the consumer; false otherwise
+     */
+    public boolean isEntitlementCompliant(Consumer consumer, Entitlement entitlement,
+        Collection<Entitlement> entitlements) {
+
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+
+        if (entitlement == null) {
+            throw new IllegalArgumentException("entitlement is null");
+        }
+
+        ConsumerView cview = new ConsumerView(consumer);
+        EntitlementView eview = new EntitlementView(cview, entitlement);
+
+        return this.getEntitlementCoverage(cview, eview, this.buildViews(cview, entitlements)).covered;
+    }
+
+    private List<EntitlementView> buildViews(ConsumerView consumer, Collection<Entitlement> entitlements) {
+        if (entitlements == null || entitlements.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<EntitlementView> views = new ArrayList<>(entitlements.size());
+        for (Entitlement entitlement : entitlements) {
+            views.add(new EntitlementView(consumer, entitlement));
+        }
+
+        return views;
+    }
+
+    private StatusOnDate getComplianceStatusOnDate(ConsumerView consumer, List<EntitlementView> entitlements,
+        long ondate) {
+
+        StatusOnDate status = new StatusOnDate();
+
+        // Track the stack IDs we've already checked to save some time
+        List<String> compliantStackIds = new ArrayList<>();
+        List<String> nonCompliantStackIds = new ArrayList<>();
+
+        List<EntitlementView> entitlementsOnDate = new ArrayList<>();
+        for (EntitlementView ent : entitlements) {
+            if (ent.isValidOn(ondate)) {
+                entitlementsOnDate.add(ent);
+            }
+        }
+
+        for (EntitlementView ent : entitlementsOnDate) {
+            List<String> relevantPids = this.findRelevantPids(ent, consumer);
+            boolean partiallyStacked = false;
+
+            if (ent.stacked) {
+                String stackId = ent.getProductAttribute(STACKING_ID_ATTRIBUTE);
+
+                if (nonCompliantStackIds.contains(stackId)) {
+                    partiallyStacked = true;
+                    status.add(status.partialStacks, stackId, ent);
+                }
+                else if (!compliantStackIds.contains(stackId)) {
+                    Coverage coverage = this.getStackCoverage(consumer, stackId, entitlementsOnDate);
+
+                    if (!coverage.covered) {
+                        partiallyStacked = true;
+                        status.add(status.partialStacks, stackId, ent);
+                        nonCompliantStackIds.add(stackId);
+                        status.reasons.addAll(coverage.reasons);
+                    }
+                    else {
+                        compliantStackIds.add(stackId);
+                    }
+                }
+            }
+
+            // If we have no installed products and the entitlement is partially covered, we want
+            // the system to be partial.
+            if (relevantPids.isEmpty() && !ent.stacked) {
+                Coverage coverage = this.getEntitlementCoverage(consumer, ent, entitlementsOnDate);
+                if (!coverage.covered) {
+                    status.reasons.addAll(coverage.reasons);
+                }
+            }
+
+            // If the consumer has an entitlement from a pool marked unmapped_guests_only, it can only
+            // hope to be yellow
+            if (equalsIgnoreCase("true", ent.getAttribute(UNMAPPED_GUESTS_ONLY))) {
+                Map<String, String> attributes = new HashMap<>();
+                attributes.put(ComplianceReason.Attributes.ENTITLEMENT_ID, ent.id);
+
+                status.reasons.add(buildReason(ComplianceReason.ReasonKeys.UNMAPPED_GUEST, attributes));
+            }
+
+            for (String pid : relevantPids) {
+                if (partiallyStacked) {
+                    status.add(status.partiallyCompliantProducts, pid, ent);
+                    continue;
+                }
+
+                Coverage coverage = this.getEntitlementCoverage(consumer, ent, entitlementsOnDate);
+                if (!coverage.covered && !ent.stacked) {
+                    status.add(status.partiallyCompliantProducts, pid, ent);
+                    status.reasons.addAll(coverage.reasons);
+                }
+                else {
+                    status.add(status.compliantProducts, pid, ent);
+                }
+            }
+        }
+
+        // If we also found a regular entitlement which provides a partially compliant product, it
+        // should not be considered partially compliant. The stack is left in the partial stacks, as
+        // it should still be repaired.
+        status.partiallyCompliantProducts.keySet().removeIf(status.compliantProducts::containsKey);
+
+        // Any installed products we didn't find an entitlement for are not compliant
+        for (String pid : consumer.installedProductIds) {
+            if (!status.compliantProducts.containsKey(pid) &&
+                !status.partiallyCompliantProducts.containsKey(pid)) {
+
+                status.nonCompliantProducts.add(pid);
+
+                Map<String, String> attributes = new HashMap<>();
+                attributes.put(ComplianceReason.Attributes.PRODUCT_ID, pid);
+
+                status.reasons.add(buildReason(ComplianceReason.ReasonKeys.NOT_COVERED, attributes));
+            }
+        }
+
+        return status;
+    }
+
+    private List<String> findRelevantPids(EntitlementView entitlement, ConsumerView consumer) {
+        List<String> pids = new ArrayList<>();
+
+        for (String pid : consumer.installedProductIds) {
+            if (entitlement.provides(pid)) {
+                pids.add(pid);
+            }
+        }
+
+        return pids;
+    }
+
+    private Date determineCompliantUntilDate(ConsumerView consumer, List<EntitlementView> entitlements,
+        long startDate) {
+
+        if (consumer.installedProductIds.isEmpty()) {
+            return null;
+        }
+
+        List<EntitlementView> providing = new ArrayList<>();
+        for (EntitlementView ent : entitlements) {
+            for (String pid : consumer.installedProductIds) {
+                if (ent.provides(pid)) {
+                    providing.add(ent);
+                    break;
+                }
+            }
+        }
+
+        long lastDate = startDate;
+        for (long date : getSortedEntitlementDates(providing, false, true)) {
+            // Ignore past dates and duplicates
+            if (date <= lastDate) {
+                continue;
+            }
+
+            // Check if we are still compliant just after the end date. Note that the date we
+            // compare subsequent dates against includes this additional second.
+            long dateToCheck = date + 1000;
+            lastDate = dateToCheck;
+
+            if (!this.getComplianceStatusOnDate(consumer, entitlements, dateToCheck).isCompliant()) {
+                return new Date(dateToCheck);
+            }
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("checkstyle:methodlength")
+    private Map<String, Long[]> getProductComplianceDateRanges(ConsumerView consumer,
+        List<EntitlementView> entitlements, long ondate, StatusOnDate compStatus) {
+
+        Map<String, Long[]> ranges = new LinkedHashMap<>();
+
+        if (consumer.installedProductIds.isEmpty()) {
+            return ranges;
+        }
+
+        long[] dates = getSortedEntitlementDates(entitlements, true, true);
+        int dateCount = dates.length;
+        int nextDate = -1;
+
+        // Find our next date in the future
+        for (int i = dates.length - 1; i >= 0; --i) {
+            if (dates[i] <= ondate) {
+                nextDate = i + 1;
+                break;
+            }
+        }
+
+        for (String pid : consumer.installedProductIds) {
+            if (!compStatus.nonCompliantProducts.contains(pid)) {
+                ranges.put(pid, new Long[2]);
+            }
+        }
+
+        if (ranges.isEmpty()) {
+            return ranges;
+        }
+
+        // Find start dates. As with the rules, a millisecond is added to each date to move just
+        // outside the range of the entitlement from which an end date came.
+        int complete = 0;
+        long lastValidDate = ondate;
+
+        for (int i = nextDate - 1; i >= 0; --i) {
+            StatusOnDate status = this.getComplianceStatusOnDate(consumer, entitlements, dates[i] + 1);
+
+            for (Map.Entry<String, Long[]> entry : ranges.entrySet()) {
+                String pid = entry.getKey();
+                Long[] range = entry.getValue();
+
+                if (range[0] == null && (status.nonCompliantProducts.contains(pid) ||
+                    (compStatus.isCompliant(pid) && !status.isCompliant(pid)) ||
+                    (compStatus.isPartiallyCompliant(pid) && !status.isPartiallyCompliant(pid)))) {
+
+                    range[0] = lastValidDate;
+                    ++complete;
+                }
+            }
+
+            if (complete >= ranges.size()) {
+                break;
+            }
+
+            lastValidDate = dates[i];
+        }
+
+        // Find end dates
+        complete = 0;
+        for (int i = Math.max(nextDate, 0); i < dateCount; ++i) {
+            StatusOnDate status = this.getComplianceStatusOnDate(consumer, entitlements, dates[i] + 1);
+
+            for (Map.Entry<String, Long[]> entry : ranges.entrySet()) {
+                String pid = entry.getKey();
+                Long[] range = entry.getValue();
+
+                if (range[1] == null && (status.nonCompliantProducts.contains(pid) ||
+                    (compStatus.isCompliant(pid) && !status.isCompliant(pid)) ||
+                    (compStatus.isPartiallyCompliant(pid) && !status.isPartiallyCompliant(pid) &&
+                    !status.isCompliant(pid)))) {
+
+                    range[1] = dates[i];
+                    ++complete;
+                }
+            }
+
+            if (complete >= ranges.size()) {
+                break;
+            }
+        }
+
+        // Any products which were valid all the way to the ends of our date ranges are set to the
+        // extremes of the ranges
+        for (Long[] range : ranges.values()) {
+            if (range[0] == null && dateCount > 0) {
+                range[0] = dates[0];
+            }
+
+            if (range[1] == null && dateCount > 0) {
+                range[1] = dates[dateCount - 1];
+            }
+        }
+
+        return ranges;
+    }
+
+    private static long[] getSortedEntitlementDates(List<EntitlementView> entitlements,
+        boolean useStartDates, boolean useEndDates) {
+
+        // Impl note: the rules do not actually filter duplicate dates, so neither do we.
+        List<Long> dates = new ArrayList<>();
+        for (EntitlementView ent : entitlements) {
+            if (useStartDates && ent.startDate != null) {
+                dates.add(ent.startDate);
+            }
+
+            if (useEndDates && ent.endDate != null) {
+                dates.add(ent.endDate);
+            }
+        }
+
+        return dates.stream()
+            .mapToLong(Long::longValue)
+            .sorted()
+            .toArray();
+    }
+
+    private Coverage getStackCoverage(ConsumerView consumer, String stackId,
+        List<EntitlementView> entitlements) {
+
+        ComplianceTracker tracker = new ComplianceTracker(consumer, stackId);
+
+        for (EntitlementView ent : entitlements) {
+            if (ent.stacked && Objects.equals(stackId, ent.getProductAttribute(STACKING_ID_ATTRIBUTE))) {
+                tracker.updateAccumulatedFromEnt(ent);
+            }
+        }
+
+        return this.getCoverage(tracker, consumer, entitlements);
+    }
+
+    private Coverage getEntitlementCoverage(ConsumerView consumer, EntitlementView entitlement,
+        List<EntitlementView> entitlements) {
+
+        ComplianceTracker tracker = new ComplianceTracker(consumer, null);
+        tracker.updateAccumulatedFromEnt(entitlement);
+
+        return this.getCoverage(tracker, consumer, entitlements);
+    }
+
+    private Coverage getCoverage(ComplianceTracker tracker, ConsumerView consumer,
+        List<EntitlementView> entitlements) {
+
+        // Adjust the values of any global attributes to account for every entitlement
+        for (String attribute : consumer.complianceAttributes) {
+            if (GLOBAL_ATTRIBUTES.contains(attribute) && tracker.enforces(attribute)) {
+                tracker.accumulatedValues.put(attribute, getGuestLimit(entitlements));
+            }
+        }
+
+        Coverage coverage = new Coverage();
+        for (String attribute : consumer.complianceAttributes) {
+            if (!tracker.enforces(attribute)) {
+                continue;
+            }
+
+            ComplianceReason reason;
+            switch (attribute) {
+                case ARCH_ATTRIBUTE:
+                    reason = checkArchitecture(tracker, attribute, consumer);
+                    break;
+
+                case GUEST_LIMIT_ATTRIBUTE:
+                    reason = checkGuestLimit(tracker, attribute, consumer);
+                    break;
+
+                default:
+                    reason = checkQuantity(tracker, attribute, consumer);
+            }
+
+            if (reason != null) {
+                coverage.reasons.add(reason);
+            }
+        }
+
+        coverage.covered = coverage.reasons.isEmpty();
+        return coverage;
+    }
+
+    /**
+     * Calculates the global guest limit across the given entitlements. Returns -1 if any of the
+     * entitlements provide an unlimited number of guests, or null if no entitlement sets a limit.
+     */
+    private static Double getGuestLimit(List<EntitlementView> entitlements) {
+        Double total = null;
+
+        for (EntitlementView ent : entitlements) {
+            String value = ent.getProductAttribute(GUEST_LIMIT_ATTRIBUTE);
+
+            if (value != null) {
+                if (total == null) {
+                    total = 0.0;
+                }
+
+                double limit = parseInt(value);
+                if (limit == -1) {
+                    return limit;
+                }
+
+                if (limit > total) {
+                    total = limit;
+                }
+            }
+        }
+
+        return total;
+    }
+
+    private static ComplianceReason checkArchitecture(ComplianceTracker tracker, String attribute,
+        ConsumerView consumer) {
+
+        String consumerArch = consumer.facts.get(ARCH_FACT);
+
+        @SuppressWarnings("unchecked")
+        List<String> supportedArches = (List<String>) tracker.accumulatedValues.get(attribute);
+
+        for (String archString : supportedArches) {
+            if (!architectureMatches(archString, consumerArch, consumer.typeLabel)) {
+                log.debug("  System architecture not covered by: {}", archString);
+                return buildReason(tracker, attribute, consumerArch, archString);
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean architectureMatches(String productArchStr, String consumerArch,
+        String consumerType) {
+
+        // Non-system consumers without an architecture fact can pass this rule regardless of the
+        // arch the product requires
+        if ((consumerArch == null || consumerArch.isEmpty()) && !SYSTEM_TYPE.equals(consumerType)) {
+            return true;
+        }
+
+        if (productArchStr != null) {
+            List<String> supportedArches = new ArrayList<>(Arrays.asList(
+                productArchStr.toUpperCase().split(PROD_ARCHITECTURE_SEPARATOR, -1)));
+
+            if (supportedArches.contains("X86")) {
+                supportedArches.add("I386");
+                supportedArches.add("I586");
+                supportedArches.add("I686");
+            }
+
+            if (!supportedArches.contains("ALL") && (consumerArch == null || consumerArch.isEmpty() ||
+                !supportedArches.contains(consumerArch.toUpperCase()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static ComplianceReason checkGuestLimit(ComplianceTracker tracker, String attribute,
+        ConsumerView consumer) {
+
+        Object consumerQuantity = consumer.getFact(attribute);
+        Object sourceValue = tracker.accumulatedValues.get(attribute);
+
+        boolean covered = (sourceValue instanceof Double && (Double) sourceValue == -1) ||
+            parseInt(toJsString(sourceValue)) >= toNumber(consumerQuantity);
+
+        return covered ? null : buildReason(tracker, attribute, consumerQuantity, sourceValue);
+    }
+
+    private static ComplianceReason checkQuantity(ComplianceTracker tracker, String attribute,
+        ConsumerView consumer) {
+
+        Object consumerQuantity = consumer.getFact(attribute);
+        Object sourceValue = tracker.accumulatedValues.get(attribute);
+
+        boolean covered = parseInt(toJsString(sourceValue)) >= toNumber(consumerQuantity);
+
+        return covered ? null : buildReason(tracker, attribute, consumerQuantity, sourceValue);
+    }
+
+    private static ComplianceReason buildReason(ComplianceTracker tracker, String attribute, Object has,
+        Object covered) {
+
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(ComplianceReason.Attributes.PRESENT, toJsonString(has));
+        attributes.put(ComplianceReason.Attributes.COVERED, toJsonString(covered));
+
+        if (TRACKER_TYPE_STACK.equals(tracker.type)) {
+            attributes.put(ComplianceReason.Attributes.STACKING_ID, tracker.id);
+        }
+        else {
+            attributes.put(ComplianceReason.Attributes.ENTITLEMENT_ID, tracker.id);
+        }
+
+        return buildReason(attribute.toUpperCase(), attributes);
+    }
+
+    private static ComplianceReason buildReason(String key, Map<String, String> attributes) {
+        ComplianceReason reason = new ComplianceReason();
+        reason.setKey(key);
+        reason.setMessage(key);
+        reason.setAttributes(attributes);
+
+        return reason;
+    }
+
+    private static boolean equalsIgnoreCase(String str1, String str2) {
+        return str1 == null || str2 == null ? Objects.equals(str1, str2) : str1.equalsIgnoreCase(str2);
+    }
+
+    private static boolean isJsWhitespace(char chr) {
+        return Character.isWhitespace(chr) || Character.isSpaceChar(chr) || chr == '\uFEFF';
+    }
+
+    /**
+     * Converts the given value to a string in the same way JS would when concatenating it, which is
+     * also the representation received by parseInt.
+     */
+    private static String toJsString(Object value) {
+        if (value instanceof Double) {
+            return numberToString((Double) value);
+        }
+
+        return String.valueOf(value);
+    }
+
+    /**
+     * Converts the given value to the string it would be represented by once serialized to JSON and
+     * read back into a string map, as happens to the attributes of reasons generated by the rules.
+     */
+    private static String toJsonString(Object value) {
+        if (value instanceof Double) {
+            double number = (Double) value;
+            return Double.isNaN(number) || Double.isInfinite(number) ? null : numberToString(number);
+        }
+
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Mirrors the JS parseInt function, returning NaN if the string does not start with an integer.
+     *
+     * @param value
+     *  the string to parse
+     *
+     * @return
+     *  the integer value parsed from the string, or NaN if the string could not be parsed
+     */
+    static double parseInt(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+
+        int length = value.length();
+        int offset = 0;
+
+        while (offset < length && isJsWhitespace(value.charAt(offset))) {
+            ++offset;
+        }
+
+        double sign = 1;
+        if (offset < length && (value.charAt(offset) == '-' || value.charAt(offset) == '+')) {
+            sign = value.charAt(offset) == '-' ? -1 : 1;
+            ++offset;
+        }
+
+        int radix = 10;
+        if (offset + 1 < length && value.charAt(offset) == '0' &&
+            (value.charAt(offset + 1) == 'x' || value.charAt(offset + 1) == 'X')) {
+
+            radix = 16;
+            offset += 2;
+        }
+
+        double result = 0;
+        int start = offset;
+
+        for (; offset < length; ++offset) {
+            int digit = Character.digit(value.charAt(offset), radix);
+            if (digit < 0 || value.charAt(offset) > 0x7F) {
+                break;
+            }
+
+            result = result * radix + digit;
+        }
+
+        return offset > start ? sign * result : Double.NaN;
+    }
+
+    /**
+     * Mirrors the JS conversion of a value to a number, as happens when comparing a string against
+     * a number.
+     *
+     * @param value
+     *  the value to convert; expected to be a string, a double or null
+     *
+     * @return
+     *  the numeric value of the given value, or NaN if it cannot be converted
+     */
+    static double toNumber(Object value) {
+        if (value == null) {
+            return 0;
+        }
+
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+
+        String str = value.toString();
+        int start = 0;
+        int end = str.length();
+
+        while (start < end && isJsWhitespace(str.charAt(start))) {
+            ++start;
+        }
+
+        while (end > start && isJsWhitespace(str.charAt(end - 1))) {
+            --end;
+        }
+
+        str = str.substring(start, end);
+
+        if (str.isEmpty()) {
+            return 0;
+        }
+
+        switch (str) {
+            case "Infinity":
+            case "+Infinity":
+                return Double.POSITIVE_INFINITY;
+
+            case "-Infinity":
+                return Double.NEGATIVE_INFINITY;
+
+            default:
+                // Intentionally left empty
+        }
+
+        if (str.length() > 2 && str.charAt(0) == '0' && (str.charAt(1) == 'x' || str.charAt(1) == 'X')) {
+            double parsed = parseInt(str);
+            return str.substring(2).chars().allMatch(chr -> Character.digit(chr, 16) >= 0 && chr < 0x80) ?
+                parsed :
+                Double.NaN;
+        }
+
+        return JS_DECIMAL_PATTERN.matcher(str).matches() ? Double.parseDouble(str) : Double.NaN;
+    }
+
+    /**
+     * Mirrors the JS ToInt32 operation, as performed by the "value | 0" idiom.
+     */
+    private static int toInt32(Object value) {
+        double number = value instanceof Double ? (Double) value : toNumber(value);
+
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+            return 0;
+        }
+
+        return (int) (long) (number % 4294967296.0);
+    }
+
+    /**
+     * Formats the given number the same way JS does when converting a number to a string.
+     *
+     * @param number
+     *  the number to format
+     *
+     * @return
+     *  the JS string representation of the number
+     */
+    static String numberToString(double number) {
+        if (Double.isNaN(number)) {
+            return "NaN";
+        }
+
+        if (Double.isInfinite(number)) {
+            return number > 0 ? "Infinity" : "-Infinity";
+        }
+
+        if (number == 0) {
+            return "0";
+        }
+
+        BigDecimal decimal = BigDecimal.valueOf(number).stripTrailingZeros();
+        String digits = decimal.unscaledValue().abs().toString();
+        int exponent = digits.length() - decimal.scale() - 1;
+
+        if (exponent >= -6 && exponent <= 20) {
+            return decimal.toPlainString();
+        }
+
+        StringBuilder builder = new StringBuilder();
+        if (number < 0) {
+            builder.append('-');
+        }
+
+        builder.append(digits.charAt(0));
+        if (digits.length() > 1) {
+            builder.append('.')
+                .append(digits, 1, digits.length());
+        }
+
+        return builder.append('e')
+            .append(exponent >= 0 ? '+' : '-')
+            .append(Math.abs(exponent))
+            .toString();
+    }
+
+    /**
+     * The consumer data used throughout an evaluation, extracted once from the consumer.
+     */
+    private class ConsumerView {
+        private final Map<String, String> facts;
+        private final boolean guest;
+        private final String typeLabel;
+        private final List<String> installedProductIds;
+        private final List<GuestId> guestIds;
+        private final List<String> complianceAttributes;
+
+        private Double activeGuestCount;
+
+        public ConsumerView(Consumer consumer) {
+            this.facts = consumer.getFacts() != null ? consumer.getFacts() : Collections.emptyMap();
+            this.guest = equalsIgnoreCase("true", this.facts.get(IS_VIRT_GUEST_FACT));
+
+            ConsumerType ctype = consumer.getTypeId() != null ?
+                referenceDataCache.getConsumerType(consumer) :
+                null;
+            this.typeLabel = ctype != null ? ctype.getLabel() : null;
+
+            List<String> pids = new ArrayList<>();
+            if (consumer.getInstalledProducts() != null) {
+                for (ConsumerInstalledProduct cip : consumer.getInstalledProducts()) {
+                    pids.add(cip.getProductId());
+                }
+            }
+
+            this.installedProductIds = pids;
+            this.guestIds = consumer.getGuestIds() != null ? consumer.getGuestIds() : Collections.emptyList();
+            this.complianceAttributes = this.guest ? VIRT_ATTRIBUTES : PHYSICAL_ATTRIBUTES;
+        }
+
+        /**
+         * Returns the raw fact value mapped to the given attribute, or 1 if the consumer does not
+         * define the fact.
+         */
+        private Object getRawFact(String attribute) {
+            String value = this.facts.get(ATTRIBUTES_TO_CONSUMER_FACTS.get(attribute));
+            return value != null && !value.isEmpty() ? value : (Object) 1.0;
+        }
+
+        /**
+         * Calculates the consumer value to compare against the given product attribute. The value
+         * will either be a raw fact string or a double.
+         */
+        public Object getFact(String attribute) {
+            switch (attribute) {
+                case RAM_ATTRIBUTE:
+                    // RAM is reported in kB, but compared against the product's value in GB
+                    double ram = parseInt(toJsString(this.getRawFact(attribute))) / 1024 / 1024;
+                    return Double.isNaN(ram) ? ram : Math.floor(ram + 0.5);
+
+                case CORES_ATTRIBUTE:
+                case VCPU_ATTRIBUTE:
+                    return toNumber(this.getRawFact(CORES_ATTRIBUTE)) *
+                        toNumber(this.getRawFact(SOCKETS_ATTRIBUTE));
+
+                case GUEST_LIMIT_ATTRIBUTE:
+                    if (this.activeGuestCount == null) {
+                        this.activeGuestCount = (double) this.guestIds.stream()
+                            .filter(guest -> guest != null && guest.getAttributes() != null &&
+                                "libvirt".equals(guest.getAttributes().get("virtWhoType")) &&
+                                "1".equals(guest.getAttributes().get("active")))
+                            .count();
+                    }
+
+                    return this.activeGuestCount;
+
+                default:
+                    return this.getRawFact(attribute);
+            }
+        }
+    }
+
+    /**
+     * The entitlement and pool data used throughout an evaluation, extracted once from the
+     * entitlement.
+     */
+    private static class EntitlementView {
+        private final Entitlement entitlement;
+        private final String id;
+        private final Integer quantity;
+        private final Long startDate;
+        private final Long endDate;
+        private final Map<String, String> attributes;
+        private final Map<String, String> productAttributes;
+        private final String productId;
+        private final Set<String> providedProductIds;
+        private final boolean stacked;
+
+        public EntitlementView(ConsumerView consumer, Entitlement entitlement) {
+            Pool pool = entitlement.getPool();
+            Product product = pool != null ? pool.getProduct() : null;
+
+            this.entitlement = entitlement;
+            this.id = entitlement.getId();
+            this.quantity = entitlement.getQuantity();
+
+            Date start = entitlement.getStartDate();
+            Date end = entitlement.getEndDate();
+
+            this.startDate = start != null ? start.getTime() : null;
+            this.endDate = end != null ? end.getTime() : null;
+
+            Map<String, String> poolAttributes = pool != null && pool.getAttributes() != null ?
+                pool.getAttributes() :
+                Collections.emptyMap();
+
+            this.productAttributes = product != null && product.getAttributes() != null ?
+                product.getAttributes() :
+                Collections.emptyMap();
+
+            this.productId = product != null ? product.getId() : null;
+            this.providedProductIds = new HashSet<>();
+
+            if (product != null && product.getProvidedProducts() != null) {
+                for (Product provided : product.getProvidedProducts()) {
+                    this.providedProductIds.add(provided.getId());
+                }
+            }
+
+            this.stacked = this.productAttributes.containsKey(STACKING_ID_ATTRIBUTE);
+
+            // When the pool is missing vcpu and the consumer is a guest, the pool should use its
+            // cores value instead
+            if (consumer.guest && find(VCPU_ATTRIBUTE, poolAttributes, this.productAttributes) == null) {
+                String cores = find(CORES_ATTRIBUTE, poolAttributes, this.productAttributes);
+
+                if (cores != null) {
+                    poolAttributes = new HashMap<>(poolAttributes);
+                    poolAttributes.put(VCPU_ATTRIBUTE, numberToString(parseInt(cores)));
+                }
+            }
+
+            this.attributes = poolAttributes;
+        }
+
+        private static String find(String name, Map<String, String> primary, Map<String, String> secondary) {
+            String value = findAttributeIn(name, primary);
+            return value != null ? value : findAttributeIn(name, secondary);
+        }
+
+        private static String findAttributeIn(String name, Map<String, String> attributes) {
+            String value = attributes.get(name);
+
+            // An attribute is considered not set if it has a value of 0
+            return "0".equals(value) ? null : value;
+        }
+
+        public String getAttribute(String name) {
+            return find(name, this.attributes, this.productAttributes);
+        }
+
+        public String getProductAttribute(String name) {
+            return find(name, this.productAttributes, this.attributes);
+        }
+
+        public boolean provides(String pid) {
+            return Objects.equals(this.productId, pid) || this.providedProductIds.contains(pid);
+        }
+
+        public boolean isValidOn(long date) {
+            return this.startDate != null && this.endDate != null &&
+                this.startDate <= date && this.endDate >= date;
+        }
+    }
+
+    /**
+     * Tracks the values accumulated from an entitlement or the entitlements of a stack.
+     */
+    private static class ComplianceTracker {
+        private final ConsumerView consumer;
+        private final String type;
+        private final Map<String, Object> accumulatedValues;
+
+        private String id;
+        private String hostRestricted;
+        private boolean hasEntitlements;
+
+        public ComplianceTracker(ConsumerView consumer, String id) {
+            this.consumer = consumer;
+            this.id = id;
+            this.type = id == null ? TRACKER_TYPE_ENTITLEMENT : TRACKER_TYPE_STACK;
+            this.accumulatedValues = new HashMap<>();
+        }
+
+        public boolean enforces(String attribute) {
+            // Guests are not subjected to RAM/vcpu limitations if using a host-restricted pool
+            if (this.hostRestricted != null && this.consumer.guest &&
+                UNCHECKED_WHEN_HOST_RESTRICTED.contains(attribute)) {
+                return false;
+            }
+
+            return this.accumulatedValues.containsKey(attribute);
+        }
+
+        public void updateAccumulatedFromEnt(EntitlementView ent) {
+            if (TRACKER_TYPE_ENTITLEMENT.equals(this.type) && !this.hasEntitlements) {
+                this.id = ent.id;
+            }
+
+            // Impl note: the rules attempt to skip entitlements which have already been added, but
+            // the check never matches an entitlement ID, so we intentionally don't do so either.
+            this.hasEntitlements = true;
+
+            // If the entitlement is not stacked, only calculate compliance for quantity 1
+            double quantity = ent.quantity != null ? ent.quantity : 0;
+            if (!ent.stacked && quantity > 1) {
+                quantity = 1;
+            }
+
+            this.updateAccumulatedFromPool(ent, quantity);
+        }
+
+        private void updateAccumulatedFromPool(EntitlementView ent, double quantity) {
+            String requiresHost = ent.getAttribute(REQUIRES_HOST_ATTRIBUTE);
+            if (requiresHost != null && !requiresHost.isEmpty()) {
+                this.hostRestricted = requiresHost;
+            }
+
+            for (String attribute : this.consumer.complianceAttributes) {
+                String poolValue = ent.getProductAttribute(attribute);
+
+                if (poolValue != null) {
+                    Object stackValue = this.enforces(attribute) ?
+                        this.accumulatedValues.get(attribute) :
+                        null;
+                    this.accumulatedValues.put(attribute, accumulate(attribute, stackValue, poolValue, ent,
+                        quantity));
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Object accumulate(String attribute, Object stackValue, String poolValue,
+            EntitlementView ent, double quantity) {
+
+            switch (attribute) {
+                case ARCH_ATTRIBUTE:
+                    // Architectures are accumulated as a list of the pools' arch strings
+                    List<String> arches = stackValue instanceof List ?
+                        (List<String>) stackValue :
+                        new ArrayList<>();
+
+                    arches.add(poolValue);
+                    return arches;
+
+                case SOCKETS_ATTRIBUTE:
+                    double increment = parseInt(ent.getProductAttribute(INSTANCE_ATTRIBUTE));
+                    if (Double.isNaN(increment) || increment == 0) {
+                        increment = 1;
+                    }
+
+                    // Use the lowest quantity evenly divisible by the instance multiplier
+                    double adjusted = quantity - (quantity % increment);
+                    return toInt32(stackValue) + (parseInt(poolValue) * adjusted) / increment;
+
+                case GUEST_LIMIT_ATTRIBUTE:
+                    // The value doesn't matter, it just needs to be enforced
+                    return -1.0;
+
+                default:
+                    return toInt32(stackValue) + parseInt(poolValue) * quantity;
+            }
+        }
+    }
+
+    /**
+     * The coverage provided by a tracker, and the reasons for any lack thereof.
+     */
+    private static class Coverage {
+        private final List<ComplianceReason> reasons = new ArrayList<>();
+        private boolean covered;
+    }
+
+    /**
+     * The compliance state of a consumer on a given date.
+     */
+    private static class StatusOnDate {
+        private final Map<String, List<EntitlementView>> partialStacks = new LinkedHashMap<>();
+        private final Map<String, List<EntitlementView>> partiallyCompliantProducts = new LinkedHashMap<>();
+        private final Map<String, List<EntitlementView>> compliantProducts = new LinkedHashMap<>();
+        private final List<String> nonCompliantProducts = new ArrayList<>();
+        private final List<ComplianceReason> reasons = new ArrayList<>();
+
+        public void add(Map<String, List<EntitlementView>> map, String key, EntitlementView ent) {
+            map.computeIfAbsent(key, k -> new ArrayList<>()).add(ent);
+        }
+
+        public boolean isCompliant() {
+            return this.nonCompliantProducts.isEmpty() && this.partiallyCompliantProducts.isEmpty();
+        }
+
+        public boolean isPartiallyCompliant() {
+            return !this.compliantProducts.isEmpty() || !this.partiallyCompliantProducts.isEmpty();
+        }
+
+        public boolean isCompliant(String pid) {
+            return this.compliantProducts.containsKey(pid);
+        }
+
+        public boolean isPartiallyCompliant(String pid) {
+            return this.partiallyCompliantProducts.containsKey(pid);
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance.hash;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+
+import java.util.Collection;
+
+/**
+ * Creates a hash of the inputs to a compliance calculation for a consumer: the consumer's type,
+ * compliance-related facts, installed products, guest IDs and entitlements, including the attributes
+ * and provided products of each entitlement's pool and product, along with the options with which
+ * the calculation was performed.
+ *
+ * Where the {@link ComplianceStatusHasher} hashes the result of a compliance calculation, this hash
+ * identifies the calculation itself; two calculations with the same input hash will produce the
+ * same status for any date at which the same set of entitlements is active.
+ */
+public class ComplianceInputHasher extends Hasher {
+
+    /**
+     * Creates a new hash of the given compliance inputs.
+     *
+     * @param consumer
+     *  the consumer for which compliance is being calculated
+     *
+     * @param type
+     *  the type of the consumer; may be null
+     *
+     * @param entitlements
+     *  the entitlements being considered by the compliance calculation
+     *
+     * @param options
+     *  any additional values which affect the result of the calculation, such as the engine used or
+     *  whether the compliant until date is being calculated
+     */
+    public ComplianceInputHasher(Consumer consumer, ConsumerType type, Collection<Entitlement> entitlements,
+        Object... options) {
+
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+
+        putObject(consumer.getUuid(), HashableStringGenerators.STRING);
+        putObject(type != null ? type.getLabel() : null, HashableStringGenerators.STRING);
+        putCollection(ComplianceFacts.of(consumer), HashableStringGenerators.STRING_ENTRY);
+        putCollection(consumer.getInstalledProducts(), HashableStringGenerators.INSTALLED_PRODUCT);
+        putCollection(consumer.getGuestIds(), HashableStringGenerators.GUEST_ID);
+        putCollection(entitlements, HashableStringGenerators.ENTITLEMENT_INPUT);
+
+        if (options != null) {
+            for (Object option : options) {
+                putObject(String.valueOf(option), HashableStringGenerators.STRING);
+            }
+        }
+    }
+
+}
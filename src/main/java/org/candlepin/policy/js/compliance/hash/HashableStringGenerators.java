@@ -17,7 +17,9 @@ package org.candlepin.policy.js.compliance.hash;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerInstalledProduct;
 import org.candlepin.model.Entitlement;
+import org.candlepin.model.GuestId;
 import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
 import org.candlepin.policy.js.compliance.ComplianceReason;
 
 import java.util.Collection;
@@ -44,6 +46,10 @@ public class HashableStringGenerators {
     public static final ConsumerGenerator CONSUMER = new ConsumerGenerator();
     public static final ConsumerInstalledProductGenerator INSTALLED_PRODUCT =
         new ConsumerInstalledProductGenerator();
+    public static final EntitlementInputGenerator ENTITLEMENT_INPUT = new EntitlementInputGenerator();
+    public static final PoolInputGenerator POOL_INPUT = new PoolInputGenerator();
+    public static final ProductInputGenerator PRODUCT_INPUT = new ProductInputGenerator();
+    public static final GuestIdGenerator GUEST_ID = new GuestIdGenerator();
 
 
     private HashableStringGenerators() {
@@ -239,4 +245,91 @@ public class HashableStringGenerators {
 
     }
 
+    /**
+     * Generates a string from an {@link Entitlement} intended for use in a hash of the compliance inputs.
+     * Unlike the {@link EntitlementGenerator}, this includes the effective dates of the entitlement, as
+     * they determine whether or not the entitlement is active on a given date, and the attributes and
+     * products of its pool, as product changes do not necessarily update the pool.
+     */
+    private static class EntitlementInputGenerator implements HashableStringGenerator<Entitlement> {
+
+        @Override
+        public String generate(Entitlement target) {
+            if (target == null) {
+                return null;
+            }
+
+            String generated = generateFromObject(target, ENTITLEMENT);
+            generated += getTime(target.getStartDate());
+            generated += getTime(target.getEndDate());
+            generated += generateFromObject(target.getPool(), POOL_INPUT);
+            return generated;
+        }
+
+        private Long getTime(Date date) {
+            return date == null ? null : date.getTime();
+        }
+
+    }
+
+    /**
+     * Generates a string from the attributes and product of a {@link Pool} intended for use in a hash
+     * of the compliance inputs.
+     */
+    private static class PoolInputGenerator implements HashableStringGenerator<Pool> {
+
+        @Override
+        public String generate(Pool target) {
+            if (target == null) {
+                return null;
+            }
+
+            String generated = generateFromCollection(target.getAttributes().entrySet(), STRING_ENTRY);
+            generated += generateFromObject(target.getProduct(), PRODUCT_INPUT);
+            return generated;
+        }
+
+    }
+
+    /**
+     * Generates a string from a {@link Product} intended for use in a hash of the compliance inputs,
+     * covering the attributes read by the compliance rules, such as the sockets, cores, ram, vcpu,
+     * arch, stacking ID, instance multiplier and guest limit, and the IDs of its provided products.
+     */
+    private static class ProductInputGenerator implements HashableStringGenerator<Product> {
+
+        @Override
+        public String generate(Product target) {
+            if (target == null) {
+                return null;
+            }
+
+            String generated = target.getId();
+            generated += generateFromCollection(target.getAttributes().entrySet(), STRING_ENTRY);
+            generated += generateFromCollection(target.getProvidedProducts(), Product::getId);
+            return generated;
+        }
+
+    }
+
+    /**
+     * Generates a string from a {@link GuestId} intended for use in a hash.
+     */
+    private static class GuestIdGenerator implements HashableStringGenerator<GuestId> {
+
+        @Override
+        public String generate(GuestId target) {
+            if (target == null) {
+                return null;
+            }
+
+            String generated = target.getGuestId();
+            if (target.getAttributes() != null) {
+                generated += generateFromCollection(target.getAttributes().entrySet(), STRING_ENTRY);
+            }
+            return generated;
+        }
+
+    }
+
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.quantity;
+
+import org.candlepin.dto.rules.v1.ConsumerDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+import org.candlepin.dto.rules.v1.GuestIdDTO;
+
+import java.util.List;
+
+
+
+/**
+ * The translated, per-consumer inputs to the quantity rules: the consumer itself, its guest IDs and
+ * the entitlements it holds which are active on the date of the calculation. Instances are shared
+ * between calculations and must not be modified once built.
+ *
+ * @param consumer
+ *  the translated consumer
+ *
+ * @param guestIds
+ *  the translated guest IDs of the consumer
+ *
+ * @param validEntitlements
+ *  the translated entitlements of the consumer which are active on the date of the calculation
+ */
+public record QuantityInputs(ConsumerDTO consumer, List<GuestIdDTO> guestIds,
+    List<EntitlementDTO> validEntitlements) {
+
+    public QuantityInputs {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+
+        guestIds = guestIds != null ? List.copyOf(guestIds) : List.of();
+        validEntitlements = validEntitlements != null ? List.copyOf(validEntitlements) : List.of();
+    }
+
+    /**
+     * Checks if the consumer is of a manifest (distributor) type.
+     *
+     * @return
+     *  true if the consumer is a manifest consumer; false otherwise
+     */
+    public boolean isManifestConsumer() {
+        return this.consumer.getType() != null && Boolean.TRUE.equals(this.consumer.getType().isManifest());
+    }
+
+}
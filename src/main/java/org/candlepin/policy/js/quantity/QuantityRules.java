@@ -14,6 +14,7 @@
  */
 package org.candlepin.policy.js.quantity;
 
+import org.candlepin.cache.QuantityInputCache;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.rules.v1.ConsumerDTO;
 import org.candlepin.dto.rules.v1.EntitlementDTO;
@@ -24,19 +25,26 @@ import org.candlepin.model.Consumer;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.GuestId;
 import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
 import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsonJsContext;
 import org.candlepin.policy.js.RuleExecutionException;
 import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.policy.js.compliance.hash.ComplianceInputHasher;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -48,22 +56,54 @@ import javax.inject.Inject;
  */
 public class QuantityRules {
 
+    /**
+     * The version of the rules whose suggested quantity checks are mirrored when resolving quantities
+     * without the rules. Quantities for any other version of the rules are always calculated by the
+     * rules.
+     */
+    public static final String RULES_VERSION = "5.44";
+
+    private static final String IS_VIRT_GUEST_FACT = "virt.is_guest";
+    private static final Set<String> UNMIRRORED_RULES_VERSIONS = ConcurrentHashMap.newKeySet();
+
     private JsRunner jsRules;
     private RulesObjectMapper mapper;
     private static Logger log = LoggerFactory.getLogger(QuantityRules.class);
     private ModelTranslator translator;
+    private QuantityInputCache inputCache;
+    private boolean mirrorsRules;
 
     @Inject
     public QuantityRules(JsRunner jsRules, RulesObjectMapper mapper,
-        ModelTranslator translator) {
+        ModelTranslator translator, QuantityInputCache inputCache) {
 
         this.jsRules = jsRules;
         this.mapper = mapper;
         this.translator = translator;
+        this.inputCache = inputCache;
+        this.mirrorsRules = mirrorsRulesVersion(jsRules.getRulesVersion());
 
         jsRules.init("quantity_name_space");
     }
 
+    /**
+     * Checks whether suggested quantities may be resolved without the rules for the given version of
+     * the rules. Rules may be replaced at runtime; quantities for rules that do not match the mirrored
+     * version are always calculated by the rules.
+     */
+    private static boolean mirrorsRulesVersion(String rulesVersion) {
+        if (RULES_VERSION.equals(rulesVersion)) {
+            return true;
+        }
+
+        if (UNMIRRORED_RULES_VERSIONS.add(String.valueOf(rulesVersion))) {
+            log.warn("Suggested quantities mirror rules version {}, but rules version {} is loaded; " +
+                "calculating all suggested quantities with the rules", RULES_VERSION, rulesVersion);
+        }
+
+        return false;
+    }
+
     @SuppressWarnings("checkstyle:indentation")
     public SuggestedQuantityDTO getSuggestedQuantity(Pool p, Consumer c, Date date) {
         JsonJsContext args = new JsonJsContext(mapper);
@@ -100,27 +140,102 @@ public class QuantityRules {
      * @param date
      * @return suggested quantities for all pools requested
      */
-    @SuppressWarnings("checkstyle:indentation")
     public Map<String, SuggestedQuantityDTO> getSuggestedQuantities(List<Pool> pools, Consumer c, Date date) {
-        JsonJsContext args = new JsonJsContext(mapper);
+        return this.getSuggestedQuantities(pools, c, c.getEntitlements(), date);
+    }
+
+    /**
+     * Calculates the suggested quantities for many pools in one call, using the given entitlements as
+     * the entitlements held by the consumer. Callers listing pools for a consumer should provide
+     * entitlements fetched along with their pools, so their translation does not load each pool
+     * individually.
+     * <p></p>
+     * Only pools whose suggested quantity depends on the consumer's existing stack are sent to the
+     * rules, in a single invocation; the quantities of all other pools are fixed by their attributes
+     * and are resolved directly, provided the loaded rules are the version mirrored by this class.
+     * The translated consumer inputs are shared between calculations for
+     * as long as the consumer and its active entitlements are unchanged.
+     *
+     * @param pools
+     *  the pools for which to calculate suggested quantities
+     *
+     * @param c
+     *  the consumer for which to calculate suggested quantities
+     *
+     * @param entitlements
+     *  the entitlements held by the consumer; entitlements which are not active on the given date are
+     *  ignored
+     *
+     * @param date
+     *  the date for which to calculate suggested quantities
+     *
+     * @return
+     *  a map of pool IDs to the suggested quantities for the pool
+     */
+    public Map<String, SuggestedQuantityDTO> getSuggestedQuantities(List<Pool> pools, Consumer c,
+        Collection<Entitlement> entitlements, Date date) {
 
-        Stream<PoolDTO> poolStream = pools == null ? Stream.empty() :
-            pools.stream().map(this.translator.getStreamMapper(Pool.class, PoolDTO.class));
+        Map<String, SuggestedQuantityDTO> resultMap = new HashMap<>();
+        if (pools == null || pools.isEmpty()) {
+            return resultMap;
+        }
 
-        Stream<EntitlementDTO> entStream = c.getEntitlements() == null ? Stream.empty() :
-            c.getEntitlements().stream()
-                .filter(ent -> ent.isValidOnDate(date))
-                .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
+        if (!this.mirrorsRules) {
+            return this.runSuggestedQuantities(pools, this.getInputs(c, entitlements, date));
+        }
 
-        Stream<GuestIdDTO> guestIdStream = c.getGuestIds() == null ? Stream.empty() :
-            c.getGuestIds().stream()
-                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class));
+        List<Pool> stackedPools = new ArrayList<>();
+        QuantityInputs inputs = null;
+
+        // This mirrors the checks made by the rules before any stack is considered
+        for (Pool pool : pools) {
+            if (!"yes".equalsIgnoreCase(getRulesAttribute(pool, Pool.Attributes.MULTI_ENTITLEMENT))) {
+                resultMap.put(pool.getId(), buildSuggestedQuantity(1L, 1L));
+                continue;
+            }
+
+            if (inputs == null) {
+                inputs = this.getInputs(c, entitlements, date);
+            }
+
+            if (inputs.isManifestConsumer()) {
+                resultMap.put(pool.getId(), buildSuggestedQuantity(1L, 1L));
+                continue;
+            }
+
+            Long increment = getIncrement(pool, c);
+            if (getRulesAttribute(pool, Product.Attributes.STACKING_ID) != null || increment == null) {
+                stackedPools.add(pool);
+                continue;
+            }
+
+            resultMap.put(pool.getId(), buildSuggestedQuantity(1L, increment));
+        }
+
+        if (!stackedPools.isEmpty()) {
+            log.debug("Resolved {} of {} suggested quantities without the rules",
+                pools.size() - stackedPools.size(), pools.size());
+
+            resultMap.putAll(this.runSuggestedQuantities(stackedPools, inputs));
+        }
+
+        return resultMap;
+    }
+
+    @SuppressWarnings("checkstyle:indentation")
+    private Map<String, SuggestedQuantityDTO> runSuggestedQuantities(List<Pool> pools,
+        QuantityInputs inputs) {
+
+        JsonJsContext args = new JsonJsContext(mapper);
+
+        Stream<PoolDTO> poolStream = pools.stream()
+            .map(this.translator.getStreamMapper(Pool.class, PoolDTO.class));
 
         args.put("pools", poolStream);
-        args.put("consumer", this.translator.translate(c, ConsumerDTO.class));
-        args.put("validEntitlements", entStream);
+        args.put("consumer", inputs.consumer());
+        args.put("validEntitlements", inputs.validEntitlements());
         args.put("log", log, false);
-        args.put("guestIds", guestIdStream);
+        args.put("guestIds", inputs.guestIds());
 
         String json = jsRules.runJsFunction(String.class, "get_suggested_quantities", args);
         Map<String, SuggestedQuantityDTO> resultMap;
@@ -136,4 +251,66 @@ public class QuantityRules {
 
         return resultMap;
     }
+
+    /**
+     * Fetches the translated rules inputs for the given consumer, translating them only if they have
+     * not been translated for the same consumer data already. The quantity rules read the same consumer
+     * data as the compliance rules, so the inputs are keyed by the compliance input hash.
+     */
+    private QuantityInputs getInputs(Consumer c, Collection<Entitlement> entitlements, Date date) {
+        List<Entitlement> validEntitlements = entitlements == null ? List.of() : entitlements.stream()
+            .filter(ent -> ent.isValidOnDate(date))
+            .toList();
+
+        String fingerprint = new ComplianceInputHasher(c, null, validEntitlements, "quantity",
+            c.getTypeId(), this.jsRules.getRulesVersion()).hash();
+
+        return this.inputCache.get(fingerprint, () -> new QuantityInputs(
+            this.translator.translate(c, ConsumerDTO.class),
+            c.getGuestIds() == null ? List.of() : c.getGuestIds().stream()
+                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class))
+                .toList(),
+            validEntitlements.stream()
+                .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class))
+                .toList()));
+    }
+
+    /**
+     * Fetches the quantity increment of the given pool as the rules would calculate it, or null if the
+     * increment cannot be determined without the rules.
+     */
+    private static Long getIncrement(Pool pool, Consumer c) {
+        String multiplier = getRulesAttribute(pool, Product.Attributes.INSTANCE_MULTIPLIER);
+        if (multiplier == null || "true".equalsIgnoreCase(c.getFact(IS_VIRT_GUEST_FACT))) {
+            return 1L;
+        }
+
+        try {
+            return Long.valueOf(multiplier.trim());
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fetches an attribute of the given pool the way the rules look it up: from the pool's product,
+     * falling back to the pool itself, with a value of zero being treated as unset.
+     */
+    private static String getRulesAttribute(Pool pool, String key) {
+        String value = pool.getProductAttributes().get(key);
+        if (value == null || "0".equals(value)) {
+            value = pool.getAttributes().get(key);
+        }
+
+        return "0".equals(value) ? null : value;
+    }
+
+    private static SuggestedQuantityDTO buildSuggestedQuantity(Long suggested, Long increment) {
+        SuggestedQuantityDTO dto = new SuggestedQuantityDTO();
+        dto.setSuggested(suggested);
+        dto.setIncrement(increment);
+
+        return dto;
+    }
 }
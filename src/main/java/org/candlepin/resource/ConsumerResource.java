@@ -37,15 +37,18 @@ import org.candlepin.auth.TrustedUserPrincipal;
 import org.candlepin.auth.UpdateConsumerCheckIn;
 import org.candlepin.auth.UserPrincipal;
 import org.candlepin.auth.Verify;
+import org.candlepin.cache.ReferenceDataCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.controller.AutobindDisabledForOwnerException;
 import org.candlepin.controller.AutobindHypervisorDisabledException;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.ContentAccessMode;
 import org.candlepin.controller.EntitlementCertificateService;
 import org.candlepin.controller.Entitler;
 import org.candlepin.controller.ManifestManager;
+import org.candlepin.controller.OwnerContentAccess;
 import org.candlepin.controller.PoolManager;
 import org.candlepin.controller.PoolService;
 import org.candlepin.controller.RefresherFactory;
@@ -78,6 +81,7 @@ import org.candlepin.exceptions.IseException;
 import org.candlepin.exceptions.NotFoundException;
 import org.candlepin.exceptions.TooManyRequestsException;
 import org.candlepin.guice.PrincipalProvider;
+import org.candlepin.jackson.DynamicFilterData;
 import org.candlepin.model.AnonymousCloudConsumer;
 import org.candlepin.model.AnonymousCloudConsumerCurator;
 import org.candlepin.model.AnonymousContentAccessCertificate;
@@ -100,9 +104,6 @@ import org.candlepin.model.ContentAccessPayload;
 import org.candlepin.model.ContentOverride;
 import org.candlepin.model.DeletedConsumer;
 import org.candlepin.model.DeletedConsumerCurator;
-import org.candlepin.model.DistributorVersion;
-import org.candlepin.model.DistributorVersionCapability;
-import org.candlepin.model.DistributorVersionCurator;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.EntitlementFilterBuilder;
@@ -145,7 +146,10 @@ import org.candlepin.resource.util.EntitlementEnvironmentFilter;
 import org.candlepin.resource.util.EnvironmentUpdates;
 import org.candlepin.resource.util.GuestMigration;
 import org.candlepin.resource.util.KeyValueStringParser;
+import org.candlepin.resource.util.ResponseProjection;
+import org.candlepin.resource.util.ResponseProjections;
 import org.candlepin.resource.validation.DTOValidator;
+import org.candlepin.resteasy.filter.PageRequestFilter;
 import org.candlepin.service.EntitlementCertServiceAdapter;
 import org.candlepin.service.OwnerServiceAdapter;
 import org.candlepin.service.SubscriptionServiceAdapter;
@@ -218,6 +222,7 @@ public class ConsumerResource implements ConsumerApi {
     private final ConsumerCurator consumerCurator;
     private final ConsumerTypeCurator consumerTypeCurator;
     private final ConsumerCloudDataBuilder consumerCloudDataBuilder;
+    private final ConsumerCheckInRecorder checkInRecorder;
     private final SubscriptionServiceAdapter subAdapter;
     private final EntitlementCurator entitlementCurator;
     private final IdentityCertificateGenerator identityCertificateGenerator;
@@ -240,7 +245,7 @@ public class ConsumerResource implements ConsumerApi {
     private final SystemPurposeComplianceRules systemPurposeComplianceRules;
     private final DeletedConsumerCurator deletedConsumerCurator;
     private final EnvironmentCurator environmentCurator;
-    private final DistributorVersionCurator distributorVersionCurator;
+    private final ReferenceDataCache referenceDataCache;
     private final Configuration config;
     private final CalculatedAttributesUtil calculatedAttributesUtil;
     private final ConsumerBindUtil consumerBindUtil;
@@ -286,7 +291,7 @@ public class ConsumerResource implements ConsumerApi {
         SystemPurposeComplianceRules systemPurposeComplianceRules,
         DeletedConsumerCurator deletedConsumerCurator,
         EnvironmentCurator environmentCurator,
-        DistributorVersionCurator distributorVersionCurator,
+        ReferenceDataCache referenceDataCache,
         Configuration config,
         CalculatedAttributesUtil calculatedAttributesUtil,
         ConsumerBindUtil consumerBindUtil,
@@ -310,7 +315,8 @@ public class ConsumerResource implements ConsumerApi {
         OwnerServiceAdapter ownerService,
         SCACertificateGenerator scaCertificateGenerator,
         AnonymousCertificateGenerator anonymousCertGenerator,
-        ConsumerCloudDataBuilder consumerCloudDataBuilder) {
+        ConsumerCloudDataBuilder consumerCloudDataBuilder,
+        ConsumerCheckInRecorder checkInRecorder) {
 
         this.consumerCurator = Objects.requireNonNull(consumerCurator);
         this.consumerTypeCurator = Objects.requireNonNull(consumerTypeCurator);
@@ -332,7 +338,7 @@ public class ConsumerResource implements ConsumerApi {
         this.systemPurposeComplianceRules = Objects.requireNonNull(systemPurposeComplianceRules);
         this.deletedConsumerCurator = Objects.requireNonNull(deletedConsumerCurator);
         this.environmentCurator = Objects.requireNonNull(environmentCurator);
-        this.distributorVersionCurator = Objects.requireNonNull(distributorVersionCurator);
+        this.referenceDataCache = Objects.requireNonNull(referenceDataCache);
         this.config = Objects.requireNonNull(config);
         this.calculatedAttributesUtil = Objects.requireNonNull(calculatedAttributesUtil);
         this.consumerBindUtil = Objects.requireNonNull(consumerBindUtil);
@@ -356,6 +362,7 @@ public class ConsumerResource implements ConsumerApi {
         this.scaCertificateGenerator = Objects.requireNonNull(scaCertificateGenerator);
         this.anonymousCertGenerator = Objects.requireNonNull(anonymousCertGenerator);
         this.consumerCloudDataBuilder = Objects.requireNonNull(consumerCloudDataBuilder);
+        this.checkInRecorder = Objects.requireNonNull(checkInRecorder);
 
         this.entitlementEnvironmentFilter = new EntitlementEnvironmentFilter(
             entitlementCurator, environmentContentCurator);
@@ -662,11 +669,20 @@ public class ConsumerResource implements ConsumerApi {
         new KeyValueStringParser(this.i18n).parseKeyValuePairs(facts)
             .forEach(kvpair -> queryArgs.addFact(kvpair.getKey(), kvpair.getValue()));
 
+        PageRequest pageRequest = ResteasyContext.getContextData(PageRequest.class);
+
+        // Keyset pages are fetched directly, without counting all of the matching consumers
+        if (pageRequest != null && pageRequest.isKeyset()) {
+            return PageRequestFilter.fetchKeysetPage(pageRequest, queryArgs, this.consumerCurator,
+                this.consumerCurator::findConsumers)
+                .stream()
+                .map(this.translator.getStreamMapper(Consumer.class, ConsumerDTOArrayElement.class));
+        }
+
         long count = this.consumerCurator.getConsumerCount(queryArgs);
         log.debug("Consumer query will fetch {} consumers", count);
 
         // Do paging bits, if necessary
-        PageRequest pageRequest = ResteasyContext.getContextData(PageRequest.class);
         if (pageRequest != null) {
             Page<Stream<ConsumerDTOArrayElement>> pageResponse = new Page<>();
             pageResponse.setPageRequest(pageRequest);
@@ -697,6 +713,17 @@ public class ConsumerResource implements ConsumerApi {
         }
 
         try {
+            // Responses filtered down to plain consumer properties are built from a projection of
+            // those properties, rather than fully loaded and translated consumers
+            ResponseProjection<ConsumerDTOArrayElement>.Plan plan = ResponseProjections.CONSUMERS
+                .plan(ResteasyContext.getContextData(DynamicFilterData.class));
+
+            if (plan != null) {
+                return this.consumerCurator.findConsumerProjections(queryArgs, plan.getTupleProjection())
+                    .stream()
+                    .map(plan::build);
+            }
+
             return this.consumerCurator.findConsumers(queryArgs).stream()
                 .map(this.translator.getStreamMapper(Consumer.class, ConsumerDTOArrayElement.class));
         }
@@ -1286,10 +1313,10 @@ public class ConsumerResource implements ConsumerApi {
         return userName;
     }
 
-    private void populateCapabilities(Consumer consumer, Collection<DistributorVersionCapability> dvcs) {
-        Stream<DistributorVersionCapability> cstream = dvcs != null ? dvcs.stream() : Stream.of();
+    private void populateCapabilities(Consumer consumer, Collection<String> capabilityNames) {
+        Stream<String> cstream = capabilityNames != null ? capabilityNames.stream() : Stream.of();
         Set<ConsumerCapability> ccaps = cstream.filter(Objects::nonNull)
-            .map(dvc -> new ConsumerCapability(dvc.getName()))
+            .map(ConsumerCapability::new)
             .collect(Collectors.toSet());
 
         consumer.setCapabilities(ccaps);
@@ -1302,13 +1329,8 @@ public class ConsumerResource implements ConsumerApi {
             if ((existing.getCapabilities() == null || existing.getCapabilities().isEmpty()) &&
                 existing.getFact(Consumer.Facts.DISTRIBUTOR_VERSION) != null) {
 
-                DistributorVersion distributorVersion = distributorVersionCurator
-                    .findByName(existing.getFact(Consumer.Facts.DISTRIBUTOR_VERSION));
-
-                Set<DistributorVersionCapability> capabilities = null;
-                if (distributorVersion != null) {
-                    capabilities = distributorVersion.getCapabilities();
-                }
+                Set<String> capabilities = this.referenceDataCache
+                    .getDistributorCapabilities(existing.getFact(Consumer.Facts.DISTRIBUTOR_VERSION));
 
                 this.populateCapabilities(existing, capabilities);
                 change = true;
@@ -1341,11 +1363,11 @@ public class ConsumerResource implements ConsumerApi {
                 }
             }
             else if (getFactValue(update.getFacts(), Consumer.Facts.DISTRIBUTOR_VERSION) != null) {
-                DistributorVersion dv = distributorVersionCurator.findByName(
+                Set<String> capabilities = this.referenceDataCache.getDistributorCapabilities(
                     getFactValue(update.getFacts(), Consumer.Facts.DISTRIBUTOR_VERSION));
 
-                if (dv != null) {
-                    this.populateCapabilities(existing, dv.getCapabilities());
+                if (capabilities != null) {
+                    this.populateCapabilities(existing, capabilities);
                 }
 
                 // TODO: FIXME: Shouldn't the change flag only be set if we actually change the consumer?
@@ -2324,8 +2346,9 @@ public class ConsumerResource implements ConsumerApi {
         log.debug("Getting content access certificate for consumer: {}", consumerUuid);
         Consumer consumer = consumerCurator.verifyAndLookupConsumer(consumerUuid);
 
-        Owner owner = ownerCurator.findOwnerById(consumer.getOwnerId());
-        if (!owner.isUsingSimpleContentAccess()) {
+        OwnerContentAccess contentAccess = this.referenceDataCache
+            .getOwnerContentAccess(consumer.getOwnerId());
+        if (!contentAccess.isUsingSimpleContentAccess()) {
             throw new BadRequestException(i18n.tr("Content access mode does not allow this request."));
         }
 
@@ -2400,7 +2423,7 @@ public class ConsumerResource implements ConsumerApi {
             log.debug("Getting client certificates for consumer: {}", consumerUuid);
             if (principal instanceof ConsumerPrincipal) {
                 ConsumerPrincipal p = (ConsumerPrincipal) principal;
-                consumerCurator.updateLastCheckin(p.getConsumer());
+                this.checkInRecorder.record(p.getConsumer(), new Date());
             }
 
             return getEntitlementCertificatesForConsumer(consumerUuid, serials);
@@ -2752,6 +2775,25 @@ public class ConsumerResource implements ConsumerApi {
         new KeyValueStringParser(this.i18n).parseKeyValuePairs(attrFilters)
             .forEach(kvpair -> filters.addAttributeFilter(kvpair.getKey(), kvpair.getValue()));
 
+        // Without certificate regeneration, responses filtered down to plain entitlement properties
+        // are built from a projection of those properties rather than fully loaded entitlements
+        ResponseProjection<EntitlementDTO>.Plan plan = !regen && productId == null &&
+            (pageRequest == null || !pageRequest.isKeyset()) ?
+            ResponseProjections.ENTITLEMENTS.plan(ResteasyContext.getContextData(DynamicFilterData.class)) :
+            null;
+
+        if (plan != null) {
+            Page<List<Map<String, Object>>> projectionPage = entitlementCurator
+                .listProjectionsByConsumer(consumer, filters, pageRequest, plan.getTupleProjection());
+
+            // Store the page for the LinkHeaderPostInterceptor
+            ResteasyContext.pushContext(Page.class, projectionPage);
+
+            return projectionPage.getPageData().stream()
+                .map(plan::build)
+                .collect(Collectors.toList());
+        }
+
         Page<List<Entitlement>> entitlementsPage = entitlementCurator.listByConsumer(consumer, productId,
             filters, pageRequest);
 
@@ -2923,6 +2965,13 @@ public class ConsumerResource implements ConsumerApi {
         ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
         HttpServletResponse response = ResteasyContext.getContextData(HttpServletResponse.class);
         try {
+            if (this.config.getBoolean(ConfigProperties.SYNC_EXPORT_STREAMING)) {
+                manifestManager.writeManifestToResponse(consumerUuid, cdnLabel, webAppPrefix, apiUrl,
+                    response);
+
+                return null;
+            }
+
             File archive = manifestManager.generateManifest(consumerUuid, cdnLabel, webAppPrefix, apiUrl);
             response.addHeader("Content-Disposition", "attachment; filename=" + archive.getName());
             return archive;
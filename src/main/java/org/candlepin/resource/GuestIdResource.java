@@ -34,13 +34,17 @@ import org.candlepin.model.ConsumerType;
 import org.candlepin.model.ConsumerTypeCurator;
 import org.candlepin.model.GuestId;
 import org.candlepin.model.GuestIdCurator;
+import org.candlepin.model.InvalidOrderKeyException;
 import org.candlepin.model.VirtConsumerMap;
+import org.candlepin.paging.Page;
+import org.candlepin.paging.PageRequest;
 import org.candlepin.paging.PagingUtilFactory;
 import org.candlepin.resource.server.v1.GuestIdsApi;
 import org.candlepin.resource.util.GuestMigration;
 
 import com.google.inject.persist.Transactional;
 
+import org.jboss.resteasy.core.ResteasyContext;
 import org.xnap.commons.i18n.I18n;
 
 import java.util.HashSet;
@@ -154,6 +158,23 @@ public class GuestIdResource implements GuestIdsApi {
     @RootResource.LinkedResource
     public Stream<GuestIdDTOArrayElement> getGuestIds(@Verify(Consumer.class) String consumerUuid) {
         Consumer consumer = consumerCurator.findByUuid(consumerUuid);
+
+        // Paged requests are sorted and limited in the database, rather than in memory
+        PageRequest pageRequest = ResteasyContext.getContextData(PageRequest.class);
+        if (pageRequest != null && (pageRequest.isPaging() || pageRequest.isKeyset())) {
+            try {
+                Page<List<GuestId>> page = guestIdCurator.listByConsumer(consumer, pageRequest);
+                ResteasyContext.pushContext(Page.class, page);
+
+                return page.getPageData()
+                    .stream()
+                    .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTOArrayElement.class));
+            }
+            catch (InvalidOrderKeyException e) {
+                throw new BadRequestException(e.getMessage(), e);
+            }
+        }
+
         List<GuestId> guestIds = guestIdCurator.listByConsumer(consumer);
         if (guestIds != null) {
             Stream<GuestIdDTOArrayElement> stream = guestIds.stream()
@@ -69,6 +69,7 @@ import org.candlepin.exceptions.ForbiddenException;
 import org.candlepin.exceptions.IseException;
 import org.candlepin.exceptions.NotFoundException;
 import org.candlepin.guice.PrincipalProvider;
+import org.candlepin.jackson.DynamicFilterData;
 import org.candlepin.model.AsyncJobStatus;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
@@ -113,7 +114,10 @@ import org.candlepin.resource.util.AttachedFile;
 import org.candlepin.resource.util.CalculatedAttributesUtil;
 import org.candlepin.resource.util.ConsumerTypeValidator;
 import org.candlepin.resource.util.KeyValueStringParser;
+import org.candlepin.resource.util.ResponseProjection;
+import org.candlepin.resource.util.ResponseProjections;
 import org.candlepin.resource.validation.DTOValidator;
+import org.candlepin.resteasy.filter.PageRequestFilter;
 import org.candlepin.service.OwnerServiceAdapter;
 import org.candlepin.sync.ConflictOverrides;
 import org.candlepin.sync.file.ManifestFileServiceException;
@@ -1201,11 +1205,20 @@ public class OwnerResource implements OwnerApi {
         new KeyValueStringParser(this.i18n).parseKeyValuePairs(facts)
             .forEach(kvpair -> queryArgs.addFact(kvpair.getKey(), kvpair.getValue()));
 
+        PageRequest pageRequest = ResteasyContext.getContextData(PageRequest.class);
+
+        // Keyset pages are fetched directly, without counting all of the matching consumers
+        if (pageRequest != null && pageRequest.isKeyset()) {
+            return PageRequestFilter.fetchKeysetPage(pageRequest, queryArgs, this.consumerCurator,
+                this.consumerCurator::findConsumers)
+                .stream()
+                .map(this.translator.getStreamMapper(Consumer.class, ConsumerDTOArrayElement.class));
+        }
+
         long count = this.consumerCurator.getConsumerCount(queryArgs);
         log.debug("Consumer query will fetch {} consumers", count);
 
         // Do paging bits, if necessary
-        PageRequest pageRequest = ResteasyContext.getContextData(PageRequest.class);
         if (pageRequest != null) {
             Page<Stream<ConsumerDTOArrayElement>> pageResponse = new Page<>();
             pageResponse.setPageRequest(pageRequest);
@@ -1350,7 +1363,10 @@ public class OwnerResource implements OwnerApi {
             .setAfter(afterDate)
             .setIncludeWarnings(listAll);
 
-        if (pageRequest != null) {
+        if (pageRequest != null && pageRequest.isKeyset()) {
+            qualifier.setKeysetPageRequest(pageRequest);
+        }
+        else if (pageRequest != null) {
             qualifier.setOffset(pageRequest.getPage())
                 .setLimit(pageRequest.getPerPage());
 
@@ -1370,6 +1386,33 @@ public class OwnerResource implements OwnerApi {
             qualifier.setActivationKey(key);
         }
 
+        // Pools which need no rules pass, listed in a response filtered down to plain pool properties,
+        // are built from a projection of those properties rather than fully loaded and translated pools
+        ResponseProjection<PoolDTO>.Plan plan = c == null && key == null &&
+            qualifier.getKeysetPageRequest() == null ?
+            ResponseProjections.POOLS.plan(ResteasyContext.getContextData(DynamicFilterData.class)) :
+            null;
+
+        if (plan != null) {
+            Page<List<Map<String, Object>>> projectionPage;
+            try {
+                projectionPage = poolCurator
+                    .listAvailableEntitlementPoolProjections(qualifier, plan.getTupleProjection())
+                    .setPageRequest(pageRequest);
+            }
+            catch (InvalidOrderKeyException e) {
+                throw new BadRequestException(e.getMessage(), e);
+            }
+
+            projectionPage.setPageData(poolCurator.takeSubList(qualifier, projectionPage.getPageData()));
+
+            // Store the page for the LinkHeaderResponseFilter
+            ResteasyContext.pushContext(Page.class, projectionPage);
+
+            return projectionPage.getPageData().stream()
+                .map(plan::build);
+        }
+
         Page<List<Pool>> poolPage = null;
         try {
             poolPage = poolManager.listAvailableEntitlementPools(qualifier)
@@ -1386,8 +1429,7 @@ public class OwnerResource implements OwnerApi {
         }
 
         List<Pool> poolList = poolPage.getPageData();
-        calculatedAttributesUtil.setCalculatedAttributes(poolList, activeOnDate);
-        calculatedAttributesUtil.setQuantityAttributes(poolList, c, activeOnDate);
+        calculatedAttributesUtil.setCalculatedAttributes(poolList, c, activeOnDate);
 
         // Store the page for the LinkHeaderResponseFilter
         ResteasyContext.pushContext(Page.class, poolPage);
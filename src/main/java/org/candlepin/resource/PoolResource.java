@@ -33,6 +33,7 @@ import org.candlepin.guice.PrincipalProvider;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.Entitlement;
+import org.candlepin.model.InvalidOrderKeyException;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.model.Pool;
@@ -171,7 +172,10 @@ public class PoolResource implements PoolsApi {
             .setActiveOn(activeOnDate)
             .setIncludeWarnings(listAll);
 
-        if (pageRequest != null) {
+        if (pageRequest != null && pageRequest.isKeyset()) {
+            qualifier.setKeysetPageRequest(pageRequest);
+        }
+        else if (pageRequest != null) {
             qualifier.setOffset(pageRequest.getPage())
                 .setLimit(pageRequest.getPerPage());
 
@@ -181,7 +185,13 @@ public class PoolResource implements PoolsApi {
             }
         }
 
-        Page<List<Pool>> pageResponse = poolManager.listAvailableEntitlementPools(qualifier);
+        Page<List<Pool>> pageResponse;
+        try {
+            pageResponse = poolManager.listAvailableEntitlementPools(qualifier);
+        }
+        catch (InvalidOrderKeyException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
 
         List<Pool> poolList = pageResponse.getPageData();
         if (qualifier.getOffset() != null && qualifier.getLimit() != null) {
@@ -189,8 +199,7 @@ public class PoolResource implements PoolsApi {
             pageResponse.setPageData(poolList);
         }
 
-        calculatedAttributesUtil.setCalculatedAttributes(poolList, activeOnDate);
-        calculatedAttributesUtil.setQuantityAttributes(poolList, c, activeOnDate);
+        calculatedAttributesUtil.setCalculatedAttributes(poolList, c, activeOnDate);
 
         // Store the page for the LinkHeaderResponseFilter
         ResteasyContext.pushContext(Page.class, pageResponse);
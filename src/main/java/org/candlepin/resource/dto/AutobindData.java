@@ -14,6 +14,7 @@
  */
 package org.candlepin.resource.dto;
 
+import org.candlepin.controller.OrgHealSnapshot;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.Owner;
 
@@ -41,6 +42,7 @@ public class AutobindData {
     private Date onDate;
     private Set<String> poolIds;
     private SortedSet<String> productIds;
+    private OrgHealSnapshot healSnapshot;
 
     public AutobindData(Consumer consumer, Owner owner) {
         this.setOwner(owner)
@@ -152,6 +154,26 @@ public class AutobindData {
         return this.productIds;
     }
 
+    /**
+     * Sets the org-wide snapshot of pools to use when selecting pools for this bind operation. The
+     * snapshot must have been taken for the consumer's owner, and on the date of the bind. If null,
+     * the owner's pools will be looked up as needed.
+     *
+     * @param snapshot
+     *  the org heal snapshot to use for the bind operation, or null to clear the snapshot
+     *
+     * @return
+     *  a reference to this AutobindData instance
+     */
+    public AutobindData setHealSnapshot(OrgHealSnapshot snapshot) {
+        this.healSnapshot = snapshot;
+        return this;
+    }
+
+    public OrgHealSnapshot getHealSnapshot() {
+        return this.healSnapshot;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (!(other instanceof AutobindData)) {
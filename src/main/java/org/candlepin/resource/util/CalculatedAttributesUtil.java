@@ -16,6 +16,8 @@ package org.candlepin.resource.util;
 
 import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
 import org.candlepin.model.Consumer;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Pool.PoolComplianceType;
 import org.candlepin.policy.js.quantity.QuantityRules;
@@ -23,6 +25,7 @@ import org.candlepin.policy.js.quantity.QuantityRules;
 import org.xnap.commons.i18n.I18n;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -38,12 +41,16 @@ import javax.inject.Inject;
 public class CalculatedAttributesUtil {
 
     private QuantityRules quantityRules;
+    private EntitlementCurator entitlementCurator;
     private I18n i18n;
 
     @Inject
-    public CalculatedAttributesUtil(QuantityRules quantityRules, I18n i18n) {
+    public CalculatedAttributesUtil(QuantityRules quantityRules, EntitlementCurator entitlementCurator,
+        I18n i18n) {
+
         this.i18n = i18n;
         this.quantityRules = quantityRules;
+        this.entitlementCurator = entitlementCurator;
     }
 
     public Map<String, String> buildCalculatedAttributes(Pool pool, Date date) {
@@ -82,21 +89,63 @@ public class CalculatedAttributesUtil {
             return;
         }
 
-        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(poolList, c, date);
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(poolList, c,
+            this.getEntitlements(c), date);
 
         for (Pool p : poolList) {
-            SuggestedQuantityDTO suggested = results.get(p.getId());
+            applyQuantityAttributes(p, results.get(p.getId()));
+        }
+    }
+
+    /**
+     * Sets all calculated attributes on a page of pools in a single pass: the compliance type of each
+     * pool and, if a consumer is provided, the suggested quantity and quantity increment of each pool
+     * for that consumer. The suggested quantities of the entire page are calculated with a single rules
+     * invocation, using the consumer's entitlements fetched along with their pools.
+     *
+     * @param poolList
+     *  the pools on which to set calculated attributes
+     *
+     * @param c
+     *  the consumer for which to calculate quantity attributes; may be null
+     *
+     * @param date
+     *  the date for which to calculate attributes
+     */
+    public void setCalculatedAttributes(List<Pool> poolList, Consumer c, Date date) {
+        Map<String, SuggestedQuantityDTO> results = c != null && !poolList.isEmpty() ?
+            quantityRules.getSuggestedQuantities(poolList, c, this.getEntitlements(c), date) :
+            null;
 
-            Map<String, String> attrMap = p.getCalculatedAttributes();
+        for (Pool pool : poolList) {
+            Map<String, String> attrMap = pool.getCalculatedAttributes();
             if (attrMap == null) {
                 attrMap = new HashMap<>();
-                p.setCalculatedAttributes(attrMap);
+                pool.setCalculatedAttributes(attrMap);
             }
+            attrMap.putAll(this.buildCalculatedAttributes(pool, date));
 
-            attrMap.put("suggested_quantity",
-                String.valueOf(suggested.getSuggested()));
-            attrMap.put("quantity_increment",
-                String.valueOf(suggested.getIncrement()));
+            if (results != null) {
+                applyQuantityAttributes(pool, results.get(pool.getId()));
+            }
         }
     }
+
+    private Collection<Entitlement> getEntitlements(Consumer c) {
+        // Consumers which have not been persisted have no entitlements to prefetch
+        return c.getId() != null ? this.entitlementCurator.listByConsumerWithPools(c) : c.getEntitlements();
+    }
+
+    private static void applyQuantityAttributes(Pool p, SuggestedQuantityDTO suggested) {
+        Map<String, String> attrMap = p.getCalculatedAttributes();
+        if (attrMap == null) {
+            attrMap = new HashMap<>();
+            p.setCalculatedAttributes(attrMap);
+        }
+
+        attrMap.put("suggested_quantity",
+            String.valueOf(suggested.getSuggested()));
+        attrMap.put("quantity_increment",
+            String.valueOf(suggested.getIncrement()));
+    }
 }
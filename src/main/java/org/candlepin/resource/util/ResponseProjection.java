@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resource.util;
+
+import org.candlepin.jackson.DynamicFilterData;
+import org.candlepin.model.TupleProjection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+
+
+/**
+ * Maps the serialized properties of a response DTO to the entity attributes from which they are
+ * populated, allowing responses which are filtered down to a handful of properties by an allowlist
+ * filter to be built from a {@link TupleProjection} rather than fully loaded and translated
+ * entities.
+ * <p></p>
+ * Only properties which are populated directly from entity attributes may be added to a response
+ * projection. Requests which include any other property cannot be planned, and must be served by
+ * translating the entities as usual.
+ *
+ * @param <D>
+ *  the type of DTO built by this projection
+ */
+public class ResponseProjection<D> {
+
+    /** The entity attribute always selected, so distinct queries do not collapse entities */
+    public static final String ID_ATTRIBUTE = "id";
+
+    private static class Field<D> {
+        private final List<String> attributes;
+        private final BiConsumer<D, Map<String, Object>> populator;
+
+        public Field(List<String> attributes, BiConsumer<D, Map<String, Object>> populator) {
+            this.attributes = attributes;
+            this.populator = populator;
+        }
+    }
+
+    /**
+     * A plan for building the DTOs of a single response from projected entity attributes
+     */
+    public class Plan {
+        private final Collection<Field<D>> fields;
+        private final TupleProjection projection;
+
+        private Plan(Collection<Field<D>> fields) {
+            Set<String> attributes = new LinkedHashSet<>();
+            attributes.add(ID_ATTRIBUTE);
+            fields.forEach(field -> attributes.addAll(field.attributes));
+
+            this.fields = fields;
+            this.projection = new TupleProjection(attributes);
+        }
+
+        /**
+         * Fetches the projection of entity attributes required to build the planned DTOs
+         *
+         * @return
+         *  the tuple projection to select for this plan
+         */
+        public TupleProjection getTupleProjection() {
+            return this.projection;
+        }
+
+        /**
+         * Builds a DTO from a row of entity attributes fetched with this plan's projection. Only
+         * the planned properties are populated.
+         *
+         * @param row
+         *  a mapping of entity attribute paths to values
+         *
+         * @return
+         *  a new DTO populated from the given row
+         */
+        public D build(Map<String, Object> row) {
+            D dto = factory.get();
+            this.fields.forEach(field -> field.populator.accept(dto, row));
+
+            return dto;
+        }
+    }
+
+    private final Supplier<D> factory;
+    private final Map<String, Field<D>> fields;
+
+    /**
+     * Creates a new response projection with no properties
+     *
+     * @param factory
+     *  a supplier of new, empty DTO instances
+     */
+    public ResponseProjection(Supplier<D> factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("factory is null");
+        }
+
+        this.factory = factory;
+        this.fields = new HashMap<>();
+    }
+
+    /**
+     * Adds a property populated directly from a single entity attribute
+     *
+     * @param property
+     *  the serialized name of the DTO property
+     *
+     * @param attribute
+     *  the path of the entity attribute from which the property is populated
+     *
+     * @param type
+     *  the type of the entity attribute
+     *
+     * @param setter
+     *  the function to use to set the attribute value on a DTO
+     *
+     * @return
+     *  a reference to this response projection
+     */
+    public <T> ResponseProjection<D> addField(String property, String attribute, Class<T> type,
+        BiConsumer<D, T> setter) {
+
+        if (attribute == null || type == null || setter == null) {
+            throw new IllegalArgumentException("attribute, type or setter is null");
+        }
+
+        return this.addField(property, List.of(attribute),
+            (dto, row) -> setter.accept(dto, type.cast(row.get(attribute))));
+    }
+
+    /**
+     * Adds a property populated from one or more entity attributes
+     *
+     * @param property
+     *  the serialized name of the DTO property
+     *
+     * @param attributes
+     *  the paths of the entity attributes from which the property is populated
+     *
+     * @param populator
+     *  the function to use to populate the property of a DTO from a row of entity attributes
+     *
+     * @return
+     *  a reference to this response projection
+     */
+    public ResponseProjection<D> addField(String property, List<String> attributes,
+        BiConsumer<D, Map<String, Object>> populator) {
+
+        if (property == null || property.isEmpty()) {
+            throw new IllegalArgumentException("property is null or empty");
+        }
+
+        if (attributes == null || attributes.isEmpty() || populator == null) {
+            throw new IllegalArgumentException("attributes is null or empty, or populator is null");
+        }
+
+        this.fields.put(property.toLowerCase(), new Field<>(List.copyOf(attributes), populator));
+        return this;
+    }
+
+    /**
+     * Plans the response for the given filter data. A plan can only be created if the filter
+     * names the properties it includes, and every one of those properties is part of this
+     * projection.
+     *
+     * @param filterData
+     *  the filter data of the current request; may be null
+     *
+     * @return
+     *  a plan for building the filtered response, or null if the response cannot be built from a
+     *  projection
+     */
+    public Plan plan(DynamicFilterData filterData) {
+        Set<String> included = filterData != null ? filterData.getIncludedRootAttributes() : null;
+        if (included == null) {
+            return null;
+        }
+
+        List<Field<D>> planned = new ArrayList<>();
+        for (String property : included) {
+            Field<D> field = this.fields.get(property);
+            if (field == null) {
+                return null;
+            }
+
+            planned.add(field);
+        }
+
+        return new Plan(planned);
+    }
+}
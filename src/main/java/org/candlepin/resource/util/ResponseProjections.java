@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resource.util;
+
+import org.candlepin.dto.api.server.v1.ConsumerDTOArrayElement;
+import org.candlepin.dto.api.server.v1.EntitlementDTO;
+import org.candlepin.dto.api.server.v1.NestedConsumerDTO;
+import org.candlepin.dto.api.server.v1.PoolDTO;
+import org.candlepin.util.Util;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * The response projections of the collection endpoints which may be served from projected entity
+ * attributes. Each projection mirrors the translator of its DTO for the properties it defines;
+ * properties computed from loaded entities or other services are deliberately left out.
+ */
+public final class ResponseProjections {
+
+    /** The projection of consumers listed as ConsumerDTOArrayElement instances */
+    public static final ResponseProjection<ConsumerDTOArrayElement> CONSUMERS =
+        new ResponseProjection<>(ConsumerDTOArrayElement::new)
+            .addField("id", "id", String.class, ConsumerDTOArrayElement::setId)
+            .addField("uuid", "uuid", String.class, ConsumerDTOArrayElement::setUuid)
+            .addField("name", "name", String.class, ConsumerDTOArrayElement::setName)
+            .addField("username", "username", String.class, ConsumerDTOArrayElement::setUsername)
+            .addField("entitlementStatus", "entitlementStatus", String.class,
+                ConsumerDTOArrayElement::setEntitlementStatus)
+            .addField("serviceLevel", "serviceLevel", String.class, ConsumerDTOArrayElement::setServiceLevel)
+            .addField("role", "role", String.class, ConsumerDTOArrayElement::setRole)
+            .addField("usage", "usage", String.class, ConsumerDTOArrayElement::setUsage)
+            .addField("systemPurposeStatus", "systemPurposeStatus", String.class,
+                ConsumerDTOArrayElement::setSystemPurposeStatus)
+            .addField("serviceType", "serviceType", String.class, ConsumerDTOArrayElement::setServiceType)
+            .addField("entitlementCount", "entitlementCount", Long.class,
+                (dto, value) -> dto.setEntitlementCount(value != null ? value : 0L))
+            .addField("lastCheckin", "lastCheckin", Date.class,
+                (dto, value) -> dto.setLastCheckin(Util.toDateTime(value)))
+            .addField("autoheal", "autoheal", Boolean.class, ConsumerDTOArrayElement::setAutoheal)
+            .addField("annotations", "annotations", String.class, ConsumerDTOArrayElement::setAnnotations)
+            .addField("contentAccessMode", "contentAccessMode", String.class,
+                ConsumerDTOArrayElement::setContentAccessMode)
+            .addField("created", "created", Date.class,
+                (dto, value) -> dto.setCreated(Util.toDateTime(value)))
+            .addField("updated", "updated", Date.class,
+                (dto, value) -> dto.setUpdated(Util.toDateTime(value)))
+            .addField("href", "uuid", String.class,
+                (dto, value) -> dto.setHref(value != null ? String.format("/consumers/%s", value) : null));
+
+    /** The projection of pools listed as PoolDTO instances */
+    public static final ResponseProjection<PoolDTO> POOLS = new ResponseProjection<>(PoolDTO::new)
+        .addField("id", "id", String.class, PoolDTO::setId)
+        .addField("activeSubscription", "activeSubscription", Boolean.class, PoolDTO::setActiveSubscription)
+        .addField("quantity", "quantity", Long.class, PoolDTO::setQuantity)
+        .addField("created", "created", Date.class, (dto, value) -> dto.setCreated(Util.toDateTime(value)))
+        .addField("updated", "updated", Date.class, (dto, value) -> dto.setUpdated(Util.toDateTime(value)))
+        .addField("startDate", "startDate", Date.class,
+            (dto, value) -> dto.setStartDate(Util.toDateTime(value)))
+        .addField("endDate", "endDate", Date.class, (dto, value) -> dto.setEndDate(Util.toDateTime(value)))
+        .addField("restrictedToUsername", "restrictedToUsername", String.class,
+            PoolDTO::setRestrictedToUsername)
+        .addField("contractNumber", "contractNumber", String.class, PoolDTO::setContractNumber)
+        .addField("accountNumber", "accountNumber", String.class, PoolDTO::setAccountNumber)
+        .addField("orderNumber", "orderNumber", String.class, PoolDTO::setOrderNumber)
+        .addField("consumed", "consumed", Long.class,
+            (dto, value) -> dto.setConsumed(value != null ? value : 0L))
+        .addField("exported", "exported", Long.class,
+            (dto, value) -> dto.setExported(value != null ? value : 0L))
+        .addField("upstreamPoolId", "upstreamPoolId", String.class, PoolDTO::setUpstreamPoolId)
+        .addField("upstreamEntitlementId", "upstreamEntitlementId", String.class,
+            PoolDTO::setUpstreamEntitlementId)
+        .addField("upstreamConsumerId", "upstreamConsumerId", String.class, PoolDTO::setUpstreamConsumerId)
+        .addField("productId", "product.id", String.class, PoolDTO::setProductId)
+        .addField("productName", "product.name", String.class, PoolDTO::setProductName)
+        .addField("href", "id", String.class,
+            (dto, value) -> dto.setHref(value != null ? String.format("/pools/%s", value) : null));
+
+    /** The projection of entitlements listed as EntitlementDTO instances */
+    public static final ResponseProjection<EntitlementDTO> ENTITLEMENTS =
+        new ResponseProjection<>(EntitlementDTO::new)
+            .addField("id", "id", String.class, EntitlementDTO::setId)
+            .addField("quantity", "quantity", Integer.class, EntitlementDTO::setQuantity)
+            .addField("created", "created", Date.class,
+                (dto, value) -> dto.setCreated(Util.toDateTime(value)))
+            .addField("updated", "updated", Date.class,
+                (dto, value) -> dto.setUpdated(Util.toDateTime(value)))
+            .addField("startDate", "pool.startDate", Date.class,
+                (dto, value) -> dto.setStartDate(Util.toDateTime(value)))
+            .addField("endDate", List.of("endDateOverride", "pool.endDate"),
+                ResponseProjections::populateEntitlementEndDate)
+            .addField("consumer", List.of("consumer.id", "consumer.uuid", "consumer.name"),
+                ResponseProjections::populateEntitlementConsumer);
+
+    private ResponseProjections() {
+        // Intentionally left empty
+    }
+
+    private static void populateEntitlementEndDate(EntitlementDTO dto, Map<String, Object> row) {
+        Date endDate = (Date) row.get("endDateOverride");
+        if (endDate == null) {
+            endDate = (Date) row.get("pool.endDate");
+        }
+
+        dto.setEndDate(Util.toDateTime(endDate));
+    }
+
+    private static void populateEntitlementConsumer(EntitlementDTO dto, Map<String, Object> row) {
+        String uuid = (String) row.get("consumer.uuid");
+
+        dto.setConsumer(new NestedConsumerDTO()
+            .id((String) row.get("consumer.id"))
+            .uuid(uuid)
+            .name((String) row.get("consumer.name"))
+            .href("/consumers/" + uuid));
+    }
+}
@@ -52,8 +52,11 @@ public abstract class AbstractAuthorizationFilter implements ContainerRequestFil
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
+        boolean authorized = false;
+
         try {
             runFilter(requestContext);
+            authorized = true;
         }
         finally {
             /* If a turbo filter returns ACCEPT, a logger will return true for
@@ -72,14 +75,23 @@ public abstract class AbstractAuthorizationFilter implements ContainerRequestFil
                 Marker m =
                     (LoggerFactory.getLogger(LoggingFilter.class).isDebugEnabled()) ?
                     duplicate : null;
-                try {
-                    TeeHttpServletRequest teeRequest = new TeeHttpServletRequest(
-                        ResteasyContext.getContextData(HttpServletRequest.class));
-                    log.debug(m, "{}", ServletLogger.logBasicRequestInfo(teeRequest));
-                    log.debug(m, "{}", ServletLogger.logRequest(teeRequest));
-                }
-                catch (IOException e) {
-                    log.info("Couldn't log request information", e);
+                HttpServletRequest request = ResteasyContext.getContextData(HttpServletRequest.class);
+                log.debug(m, "{}", ServletLogger.logBasicRequestInfo(request));
+                log.debug(m, "{}", ServletLogger.logRequest(request));
+
+                // Impl note: the logging filter captures the request body as the resource reads it,
+                // and logs it once the request completes. Refused requests never reach the resource,
+                // so their body is read here instead; reading it for any other request would consume
+                // it before the resource could.
+                TeeHttpServletRequest teeRequest = ServletLogger.getTeeRequest(request);
+                if (!authorized && teeRequest != null) {
+                    try {
+                        teeRequest.captureUnreadBody();
+                        log.debug(m, "{}", ServletLogger.logRequestBody(teeRequest));
+                    }
+                    catch (IOException e) {
+                        log.info("Couldn't log request information", e);
+                    }
                 }
             }
         }
@@ -94,6 +94,11 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
         builder = addUnchangingQueryParams(builder, params);
         //TODO add missing parameters like the default limit if no limit is given.
 
+        if (page.isKeyset()) {
+            this.addKeysetLinks(respContext, builder, page);
+            return;
+        }
+
         try {
             LinkHeader header = new LinkHeader();
 
@@ -121,6 +126,44 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
         respContext.getHeaders().add(TOTAL_RECORDS_COUNT, page.getMaxRecords());
     }
 
+    /**
+     * Adds the Link header for a keyset page. As keyset pages are navigated using the token of the
+     * next page rather than page numbers, only the first and next pages are linked, and no record
+     * count is available.
+     */
+    private void addKeysetLinks(ContainerResponseContext respContext, UriBuilder builder, Page<?> page) {
+        try {
+            LinkHeader header = new LinkHeader();
+
+            String next = page.getNextPageToken();
+            if (next != null) {
+                header.addLink("next", "next", buildTokenLink(builder, next), LINK_TYPE);
+            }
+
+            header.addLink("first", "first", buildTokenLink(builder, ""), LINK_TYPE);
+
+            respContext.getHeaders().add(LINK_HEADER, header.toString());
+        }
+        catch (LinkTooLongException e) {
+            log.warn("Link length exceeded maximum length ({}). " +
+                "Link headers will be omitted from this response.",
+                MAX_LINK_LENGTH, e);
+        }
+    }
+
+    protected String buildTokenLink(UriBuilder b, String token) {
+        UriBuilder builder = b.clone();
+        builder.queryParam(PageRequest.PAGE_TOKEN_PARAM, token);
+
+        String link = builder.build().toString();
+
+        if (link.length() > MAX_LINK_LENGTH) {
+            throw new LinkTooLongException(link);
+        }
+
+        return link;
+    }
+
     protected String buildPageLink(UriBuilder b, int value) {
         // Copy so we can use the same builder for building each link.
         UriBuilder builder = b.clone();
@@ -201,7 +244,8 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
         // parameters provided too.
         if (params != null) {
             for (Entry<String, List<String>> e : params.entrySet()) {
-                if (!e.getKey().equals(PageRequest.PAGE_PARAM)) {
+                if (!e.getKey().equals(PageRequest.PAGE_PARAM) &&
+                    !e.getKey().equals(PageRequest.PAGE_TOKEN_PARAM)) {
                     for (String v : e.getValue()) {
                         builder = builder.queryParam(e.getKey(), v);
                     }
@@ -17,13 +17,20 @@ package org.candlepin.resteasy.filter;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.exceptions.BadRequestException;
+import org.candlepin.model.AbstractHibernateCurator;
+import org.candlepin.model.InvalidOrderKeyException;
+import org.candlepin.model.QueryArguments;
+import org.candlepin.paging.Page;
 import org.candlepin.paging.PageRequest;
 import org.candlepin.paging.PageRequest.Order;
+import org.candlepin.paging.PageToken;
 
 import org.jboss.resteasy.core.ResteasyContext;
 import org.xnap.commons.i18n.I18n;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
 import javax.annotation.Priority;
 import javax.inject.Inject;
@@ -77,8 +84,12 @@ public class PageRequestFilter implements ContainerRequestFilter {
         String perPage = params.getFirst(PageRequest.PER_PAGE_PARAM);
         String order = params.getFirst(PageRequest.ORDER_PARAM);
         String sortBy = params.getFirst(PageRequest.SORT_BY_PARAM);
+        String pageToken = params.getFirst(PageRequest.PAGE_TOKEN_PARAM);
 
-        if (page != null || perPage != null || order != null || sortBy != null) {
+        if (pageToken != null) {
+            pageRequest = this.buildKeysetPageRequest(pageToken, page, perPage, order, sortBy);
+        }
+        else if (page != null || perPage != null || order != null || sortBy != null) {
             pageRequest = new PageRequest()
                 .setOrder(PageRequest.DEFAULT_ORDER);
 
@@ -111,6 +122,105 @@ public class PageRequestFilter implements ContainerRequestFilter {
         ResteasyContext.pushContext(PageRequest.class, pageRequest);
     }
 
+    /**
+     * Builds a keyset-paged request. An empty page token requests the first page, while any other
+     * token must have been issued for a previous page of the same request.
+     */
+    private PageRequest buildKeysetPageRequest(String pageToken, String page, String perPage, String order,
+        String sortBy) {
+
+        I18n i18n = this.i18nProvider.get();
+
+        if (page != null) {
+            throw new BadRequestException(i18n.tr(
+                "the \"{0}\" and \"{1}\" parameters cannot be used together",
+                PageRequest.PAGE_PARAM, PageRequest.PAGE_TOKEN_PARAM));
+        }
+
+        String sortField = sortBy != null && !sortBy.isBlank() ? sortBy : PageRequest.DEFAULT_SORT_FIELD;
+        if (!PageToken.SORT_FIELDS.contains(sortField)) {
+            throw new BadRequestException(i18n.tr(
+                "Invalid or unsupported sort-by field for keyset paging: {0}", sortField));
+        }
+
+        PageRequest pageRequest = new PageRequest()
+            .setKeyset(true)
+            .setOrder(order != null ? this.readOrder(order) : PageRequest.DEFAULT_ORDER)
+            .setSortBy(sortBy)
+            .setPage(PageRequest.DEFAULT_PAGE)
+            .setPerPage(this.defaultPageSize);
+
+        if (perPage != null) {
+            int perPageValue = this.readInteger(PageRequest.PER_PAGE_PARAM, perPage);
+            if (perPageValue > this.maxPageSize) {
+                throw this.buildPageSizeException(this.maxPageSize);
+            }
+
+            pageRequest.setPerPage(perPageValue);
+        }
+
+        if (!pageToken.isBlank()) {
+            PageToken token;
+
+            try {
+                token = PageToken.decode(pageToken);
+            }
+            catch (IllegalArgumentException e) {
+                throw new BadRequestException(i18n.tr("Invalid page token: {0}", pageToken), e);
+            }
+
+            if (!token.getSortBy().equals(sortField) || token.getOrder() != pageRequest.getOrder()) {
+                throw new BadRequestException(
+                    i18n.tr("The page token does not match the requested ordering"));
+            }
+
+            pageRequest.setPageToken(token);
+        }
+
+        return pageRequest;
+    }
+
+    /**
+     * Fetches a single keyset page of entities for the given keyset-paged request, without counting
+     * all of the entities matching the query. The page built for the results is stored in the
+     * request context for the LinkHeaderResponseFilter.
+     *
+     * @param pageRequest
+     *  the keyset-paged request for which to fetch the page
+     *
+     * @param queryArgs
+     *  the arguments of the query to page; the keyset request and page size are applied to these
+     *  arguments before they are passed to the finder
+     *
+     * @param curator
+     *  the curator used to build the page from the fetched entities
+     *
+     * @param finder
+     *  the function used to fetch the entities matching the query arguments
+     *
+     * @throws BadRequestException
+     *  if the request is sorted by a field the entities cannot be ordered by
+     *
+     * @return
+     *  the entities of the requested page
+     */
+    public static <E, A extends QueryArguments<A>> List<E> fetchKeysetPage(PageRequest pageRequest,
+        A queryArgs, AbstractHibernateCurator<E> curator, Function<A, List<E>> finder) {
+
+        queryArgs.setKeysetPageRequest(pageRequest)
+            .setLimit(pageRequest.getPerPage());
+
+        try {
+            List<E> entities = finder.apply(queryArgs);
+            ResteasyContext.pushContext(Page.class, curator.buildKeysetPage(pageRequest, entities));
+
+            return entities;
+        }
+        catch (InvalidOrderKeyException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
     private Order readOrder(String order) {
         if ("ascending".equalsIgnoreCase(order) || "asc".equalsIgnoreCase(order)) {
             return Order.ASCENDING;
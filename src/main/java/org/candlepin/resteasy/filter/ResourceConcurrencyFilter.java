@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.exceptions.ServiceUnavailableException;
+import org.candlepin.servlet.filter.RequestDispatchMetrics;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xnap.commons.i18n.I18n;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.servlet.ServletRequest;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.ext.Provider;
+
+
+
+/**
+ * Limits the number of requests which may be processed concurrently by each resource class, so a
+ * burst of requests against a single endpoint, such as a check-in storm, cannot occupy every
+ * database connection. Requests exceeding the limit wait for a permit for up to the configured wait
+ * timeout, and are rejected with a 503 if none becomes available.
+ * <p></p>
+ * Permits are held until the request has been fully processed, including writing the response, and
+ * are released by the {@link org.candlepin.servlet.filter.RequestDispatchFilter}.
+ */
+@Priority(Priorities.AUTHENTICATION - 100)
+@Provider
+@Singleton
+public class ResourceConcurrencyFilter implements ContainerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(ResourceConcurrencyFilter.class);
+
+    /** The request property in which the permit held by a request is stored */
+    public static final String PERMIT_PROPERTY = ResourceConcurrencyFilter.class.getName() + ".permit";
+
+    private final javax.inject.Provider<I18n> i18nProvider;
+    private final RequestDispatchMetrics metrics;
+    private final int limit;
+    private final long waitTimeout;
+    private final Map<Class<?>, Semaphore> permits;
+
+    @Inject
+    public ResourceConcurrencyFilter(javax.inject.Provider<I18n> i18nProvider, RequestDispatchMetrics metrics,
+        Configuration config) {
+
+        this.i18nProvider = Objects.requireNonNull(i18nProvider);
+        this.metrics = Objects.requireNonNull(metrics);
+
+        Objects.requireNonNull(config);
+        this.limit = config.getInt(ConfigProperties.REQUEST_MAX_CONCURRENCY_PER_RESOURCE);
+        this.waitTimeout = config.getLong(ConfigProperties.REQUEST_CONCURRENCY_WAIT_TIMEOUT);
+        this.permits = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        ResourceInfo resourceInfo = ResteasyContext.getContextData(ResourceInfo.class);
+        if (this.limit < 1 || resourceInfo == null || resourceInfo.getResourceClass() == null) {
+            return;
+        }
+
+        Class<?> resource = resourceInfo.getResourceClass();
+        Semaphore semaphore = this.permits.computeIfAbsent(resource, key -> new Semaphore(this.limit, true));
+
+        if (!semaphore.tryAcquire()) {
+            this.metrics.concurrencyLimitWaited();
+
+            if (!this.acquire(semaphore)) {
+                this.metrics.concurrencyLimitRejected();
+                log.warn("Rejecting request to {}; concurrency limit of {} reached",
+                    resource.getSimpleName(), this.limit);
+
+                throw new ServiceUnavailableException(this.i18nProvider.get()
+                    .tr("The server is too busy to process this request; please try again later"));
+            }
+        }
+
+        requestContext.setProperty(PERMIT_PROPERTY, semaphore);
+    }
+
+    private boolean acquire(Semaphore semaphore) {
+        try {
+            return semaphore.tryAcquire(this.waitTimeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Releases the concurrency permit held by the given request, if any. Request properties set
+     * by this filter are backed by the attributes of the servlet request, allowing the permit to be
+     * released once the request has been fully processed. Calling this method for a request which
+     * does not hold a permit, or has already released it, has no effect.
+     *
+     * @param request
+     *  the request for which to release the concurrency permit; cannot be null
+     *
+     * @throws IllegalArgumentException
+     *  if request is null
+     */
+    public static void releasePermit(ServletRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request is null");
+        }
+
+        Object permit = request.getAttribute(PERMIT_PROPERTY);
+        if (permit instanceof Semaphore semaphore) {
+            request.removeAttribute(PERMIT_PROPERTY);
+            semaphore.release();
+        }
+    }
+}
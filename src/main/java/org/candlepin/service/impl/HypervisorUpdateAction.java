@@ -17,6 +17,7 @@ package org.candlepin.service.impl;
 import org.candlepin.audit.Event;
 import org.candlepin.audit.EventFactory;
 import org.candlepin.audit.EventSink;
+import org.candlepin.cache.ReferenceDataCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.dto.ModelTranslator;
@@ -38,11 +39,14 @@ import org.candlepin.resource.util.GuestMigration;
 import org.candlepin.service.SubscriptionServiceAdapter;
 import org.candlepin.util.Transactional;
 
+import com.google.common.collect.Iterables;
+
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -50,6 +54,7 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -79,14 +84,21 @@ public class HypervisorUpdateAction {
 
     @Inject
     public HypervisorUpdateAction(ConsumerCurator consumerCurator,
-        ConsumerTypeCurator consumerTypeCurator, ConsumerResource consumerResource,
-        SubscriptionServiceAdapter subAdapter, ModelTranslator translator,
+        ConsumerTypeCurator consumerTypeCurator, ReferenceDataCache referenceDataCache,
+        ConsumerResource consumerResource, SubscriptionServiceAdapter subAdapter, ModelTranslator translator,
         Configuration config, EventSink sink, EventFactory evtFactory) {
         this.consumerCurator = consumerCurator;
         this.consumerResource = consumerResource;
         this.subAdapter = subAdapter;
         this.translator = translator;
-        this.hypervisorType = consumerTypeCurator.getByLabel(ConsumerTypeEnum.HYPERVISOR.getLabel(), true);
+
+        // The hypervisor type only needs to be created once; after that, it can come from the cache
+        String hypervisorLabel = ConsumerTypeEnum.HYPERVISOR.getLabel();
+        ConsumerType cachedType = referenceDataCache.getConsumerTypeByLabel(hypervisorLabel);
+        this.hypervisorType = cachedType != null ?
+            cachedType :
+            consumerTypeCurator.getByLabel(hypervisorLabel, true);
+
         this.config = config;
         this.sink = sink;
         this.evtFactory = evtFactory;
@@ -100,6 +112,49 @@ public class HypervisorUpdateAction {
         final String principal,
         final String jobReporterId) {
 
+        return this.update(owner, hypervisors, create, principal, jobReporterId, 0);
+    }
+
+    /**
+     * Creates or updates the hypervisor consumers described by the given list of hypervisors.
+     * <p></p>
+     * If the batch size is zero or negative, each hypervisor is reconciled in its own transaction,
+     * looking up its existing consumer individually. Otherwise, existing hypervisor consumers and
+     * their guest IDs are fetched in bulk up front, and hypervisors are reconciled in transactions
+     * covering at most the given number of hypervisors. Should a batch fail, its hypervisors are
+     * retried individually so that failures are still reported for the specific hypervisors
+     * affected.
+     *
+     * @param owner
+     *  the organization owning the hypervisors
+     *
+     * @param hypervisors
+     *  the reported hypervisors
+     *
+     * @param create
+     *  whether or not to create consumers for hypervisors which do not yet exist
+     *
+     * @param principal
+     *  the name of the principal reporting the hypervisors
+     *
+     * @param jobReporterId
+     *  the ID of the reporter which reported the hypervisors
+     *
+     * @param batchSize
+     *  the maximum number of hypervisors to reconcile in a single transaction, or zero to
+     *  reconcile each hypervisor separately
+     *
+     * @return
+     *  the result of the update
+     */
+    public Result update(
+        final Owner owner,
+        final List<ConsumerDTO> hypervisors,
+        final Boolean create,
+        final String principal,
+        final String jobReporterId,
+        final int batchSize) {
+
         final String ownerKey = owner.getKey();
 
         log.debug("Hypervisor consumers for create/update: {}", hypervisors.size());
@@ -112,31 +167,171 @@ public class HypervisorUpdateAction {
         parseHypervisorList(hypervisors, hosts, guests, incomingHosts);
         VirtConsumerMap hypervisorConsumersMap = new VirtConsumerMap();
 
-        HypervisorUpdateAction act = this;
-        Transactional<Consumer> transaction = this.consumerCurator.transactional(args ->
-            act.reconcileHost((Owner) args[0], (ConsumerDTO) args[1], (HypervisorUpdateResultDTO) args[2],
-            (Boolean) args[3], (String) args[4], (String) args[5]))
+        if (batchSize > 0) {
+            this.reconcileHostsInBatches(owner, hosts, incomingHosts, result, create, principal,
+                jobReporterId, batchSize, hypervisorConsumersMap);
+        }
+        else {
+            for (String hypervisorId : hosts) {
+                this.reconcileHostInTransaction(owner, hypervisorId, incomingHosts.get(hypervisorId),
+                    result, create, principal, jobReporterId, hypervisorConsumersMap);
+            }
+        }
+
+        return new Result(result, hypervisorConsumersMap);
+    }
+
+    private void reconcileHostInTransaction(Owner owner, String hypervisorId, ConsumerDTO incomingHost,
+        HypervisorUpdateResultDTO result, Boolean create, String principal, String jobReporterId,
+        VirtConsumerMap hypervisorConsumersMap) {
+
+        Transactional<Consumer> transaction = this.consumerCurator.<Consumer>transactional(args ->
+            this.reconcileHost(owner, incomingHost, result, create, principal, jobReporterId))
             .onCommit(status -> sink.sendEvents())
             .onRollback(status -> sink.rollback());
 
-        for (String hypervisorId : hosts) {
-            try {
-                Consumer knownHost = transaction.execute(owner, incomingHosts.get(hypervisorId), result,
-                    create, principal, jobReporterId);
+        try {
+            Consumer knownHost = transaction.execute();
+
+            if (knownHost != null) {
+                hypervisorConsumersMap.add(knownHost.getHypervisorId().getHypervisorId(), knownHost);
+            }
+        }
+        catch (Exception e) {
+            // Nothing needs to be done here, probably. The failure should have already
+            // been logged in the transactional block
+            log.debug("Unexpected exception occurred while processing hypervisor {}:",
+                hypervisorId, e);
+        }
+    }
+
+    private void reconcileHostsInBatches(Owner owner, Set<String> hosts,
+        Map<String, ConsumerDTO> incomingHosts, HypervisorUpdateResultDTO result, Boolean create,
+        String principal, String jobReporterId, int batchSize, VirtConsumerMap hypervisorConsumersMap) {
+
+        for (List<String> batch : Iterables.partition(hosts, batchSize)) {
+            // Results are collected separately for each batch, as a failed batch is rolled back and
+            // retried host-by-host
+            HypervisorUpdateResultDTO batchResult = initResultDTO();
+            List<Consumer> touched = new ArrayList<>();
 
-                if (knownHost != null) {
+            Transactional<List<Consumer>> transaction = this.consumerCurator.<List<Consumer>>transactional(
+                args -> this.reconcileBatch(owner, batch, incomingHosts, batchResult, create, principal,
+                jobReporterId, touched))
+                .onCommit(status -> sink.sendEvents())
+                .onRollback(status -> sink.rollback());
+
+            try {
+                for (Consumer knownHost : transaction.execute()) {
                     hypervisorConsumersMap.add(knownHost.getHypervisorId().getHypervisorId(), knownHost);
                 }
+
+                result.getCreated().addAll(batchResult.getCreated());
+                result.getUpdated().addAll(batchResult.getUpdated());
+                result.getUnchanged().addAll(batchResult.getUnchanged());
+                result.getFailedUpdate().addAll(batchResult.getFailedUpdate());
             }
             catch (Exception e) {
-                // Nothing needs to be done here, probably. The failure should have already
-                // been logged in the transactional block
-                log.debug("Unexpected exception occurred while processing hypervisor {}:",
-                    hypervisorId, e);
+                log.debug("Unable to reconcile batch of {} hypervisors; retrying individually:",
+                    batch.size(), e);
+
+                // Discard any state left over from the failed batch so the hosts are reloaded from
+                // the database when retried
+                touched.stream()
+                    .filter(consumer -> this.consumerCurator.getEntityManager().contains(consumer))
+                    .forEach(this.consumerCurator::evict);
+
+                for (String hypervisorId : batch) {
+                    this.reconcileHostInTransaction(owner, hypervisorId, incomingHosts.get(hypervisorId),
+                        result, create, principal, jobReporterId, hypervisorConsumersMap);
+                }
             }
         }
+    }
 
-        return new Result(result, hypervisorConsumersMap);
+    /*
+     * Fetches the existing consumers for the given hosts, keyed by the incoming hypervisor ID. Hosts
+     * are matched by hypervisor ID first, falling back to their system UUID, if enabled.
+     */
+    private Map<String, Consumer> fetchExistingHosts(Owner owner, Collection<ConsumerDTO> incomingHosts) {
+        Map<String, Consumer> hypervisors = this.consumerCurator.getHypervisorsByHypervisorIds(
+            owner.getId(),
+            incomingHosts.stream()
+                .map(host -> host.getHypervisorId().getHypervisorId())
+                .toList());
+
+        Map<String, String> systemUuids = new HashMap<>();
+        if (this.systemUuidForMatching) {
+            for (ConsumerDTO host : incomingHosts) {
+                String hypervisorId = host.getHypervisorId().getHypervisorId();
+                String systemUuid = getSystemUuid(host);
+
+                if (systemUuid != null && !hypervisors.containsKey(hypervisorId.toLowerCase())) {
+                    systemUuids.put(hypervisorId, systemUuid.toLowerCase());
+                }
+            }
+        }
+
+        Map<String, Consumer> bySystemUuid = this.consumerCurator.getConsumersBySystemUuids(owner.getId(),
+            new HashSet<>(systemUuids.values()));
+
+        Map<String, Consumer> existing = new HashMap<>();
+        for (ConsumerDTO host : incomingHosts) {
+            String hypervisorId = host.getHypervisorId().getHypervisorId();
+            Consumer consumer = hypervisors.get(hypervisorId.toLowerCase());
+
+            if (consumer == null && systemUuids.containsKey(hypervisorId)) {
+                consumer = bySystemUuid.get(systemUuids.get(hypervisorId));
+            }
+
+            if (consumer != null) {
+                existing.put(hypervisorId, consumer);
+            }
+        }
+
+        return existing;
+    }
+
+    private List<Consumer> reconcileBatch(Owner owner, List<String> batch,
+        Map<String, ConsumerDTO> incomingHosts, HypervisorUpdateResultDTO result, Boolean create,
+        String principal, String jobReporterId, List<Consumer> touched) {
+
+        // The existing hosts are fetched within the batch's transaction, so they cannot be changed
+        // by others between being fetched and locked
+        Map<String, Consumer> existingHosts = this.fetchExistingHosts(owner, batch.stream()
+            .map(incomingHosts::get)
+            .toList());
+
+        // Lock the existing hosts up front, in a consistent order, rather than one at a time. Locking
+        // does not reload the hosts, which may have been loaded earlier in this session, so they are
+        // refreshed once locked.
+        List<Consumer> lockedHosts = batch.stream()
+            .map(existingHosts::get)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+
+        this.consumerCurator.lock(lockedHosts);
+        this.consumerCurator.refresh(lockedHosts);
+
+        List<Consumer> knownHosts = new ArrayList<>();
+        for (String hypervisorId : batch) {
+            Consumer existing = existingHosts.get(hypervisorId);
+            if (existing != null) {
+                touched.add(existing);
+            }
+
+            Consumer knownHost = this.reconcileHost(owner, incomingHosts.get(hypervisorId), existing, result,
+                create, principal, jobReporterId, false);
+
+            if (knownHost != null) {
+                touched.add(knownHost);
+                knownHosts.add(knownHost);
+            }
+        }
+
+        this.consumerCurator.flush();
+        return knownHosts;
     }
 
     private HypervisorUpdateResultDTO initResultDTO() {
@@ -151,13 +346,28 @@ public class HypervisorUpdateAction {
     public Consumer reconcileHost(Owner owner, ConsumerDTO incomingHost, HypervisorUpdateResultDTO result,
         boolean create, String principal, String jobReporterId) {
 
-        String systemUuid = incomingHost.getFacts() != null ?
-            incomingHost.getFacts().get(Consumer.Facts.DMI_SYSTEM_UUID) :
-            null;
+        String hypervisorId = incomingHost.getHypervisorId().getHypervisorId();
+        Consumer existingHost = getExistingConsumerByHypervisorIdOrUuid(
+            owner.getId(), hypervisorId, getSystemUuid(incomingHost));
+
+        if (existingHost != null) {
+            consumerCurator.lock(existingHost);
+        }
+
+        return this.reconcileHost(owner, incomingHost, existingHost, result, create, principal,
+            jobReporterId, true);
+    }
+
+    /*
+     * Reconciles the incoming host against its existing consumer, which must already be locked if
+     * present. When not flushing, pending changes are left to be flushed by the caller.
+     */
+    private Consumer reconcileHost(Owner owner, ConsumerDTO incomingHost, Consumer existingHost,
+        HypervisorUpdateResultDTO result, boolean create, String principal, String jobReporterId,
+        boolean flush) {
 
         String hypervisorId = incomingHost.getHypervisorId().getHypervisorId();
-        Consumer resultHost = getExistingConsumerByHypervisorIdOrUuid(
-            owner.getId(), hypervisorId, systemUuid);
+        Consumer resultHost = existingHost;
 
         if (jobReporterId == null) {
             log.debug("hypervisor checkin reported asynchronously without reporter id " +
@@ -185,7 +395,7 @@ public class HypervisorUpdateAction {
                 }
 
                 try {
-                    consumerCurator.create(resultHost);
+                    consumerCurator.create(resultHost, flush);
                     result.setCreated(addHypervisorConsumerDTO(result.getCreated(), resultHost));
                     Event event = evtFactory.consumerCreated(resultHost);
                     sink.queueEvent(event);
@@ -199,7 +409,6 @@ public class HypervisorUpdateAction {
             }
         }
         else {
-            consumerCurator.lock(resultHost);
             boolean hypervisorIdUpdated = updateHypervisorId(resultHost, owner, jobReporterId,
                 hypervisorId);
 
@@ -250,7 +459,7 @@ public class HypervisorUpdateAction {
             }
 
             try {
-                consumerCurator.update(resultHost);
+                consumerCurator.update(resultHost, flush);
             }
             catch (Exception e) {
                 result.setFailedUpdate(addFailed(result.getFailedUpdate(),
@@ -462,6 +671,12 @@ public class HypervisorUpdateAction {
         return failedSet;
     }
 
+    private static String getSystemUuid(ConsumerDTO incomingHost) {
+        return incomingHost.getFacts() != null ?
+            incomingHost.getFacts().get(Consumer.Facts.DMI_SYSTEM_UUID) :
+            null;
+    }
+
     public Consumer getExistingConsumerByHypervisorIdOrUuid(String ownerId, String hypervisorId,
         String systemUuid) {
 
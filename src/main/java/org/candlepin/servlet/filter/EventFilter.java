@@ -61,7 +61,8 @@ public class EventFilter implements Filter {
         // because on creation of the filter we will be out of the
         // CandlepinRequestScope as the filter must be a singleton.
         EventSink eventSink = this.eventSinkProvider.get();
-        TeeHttpServletResponse resp = new TeeHttpServletResponse((HttpServletResponse) response);
+        // Only the status of the response is needed here, so none of the body is captured
+        TeeHttpServletResponse resp = new TeeHttpServletResponse((HttpServletResponse) response, 0);
         chain.doFilter(request, resp);
         Status status = Status.fromStatusCode(resp.getStatus());
         if (status.getFamily() == Status.Family.SUCCESSFUL) {
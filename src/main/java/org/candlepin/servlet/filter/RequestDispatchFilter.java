@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.servlet.filter;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.resteasy.filter.ResourceConcurrencyFilter;
+import org.candlepin.servlet.filter.RequestDispatchMetrics.DispatchMode;
+
+import com.google.inject.servlet.ServletScopes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.servlet.AsyncContext;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+
+
+/**
+ * A servlet filter which determines the thread on which the remainder of the filter chain, and the
+ * resource invocation behind it, is processed.
+ * <p></p>
+ * When virtual thread dispatch is enabled and supported by the runtime, requests are placed in
+ * asynchronous mode and processed on a new virtual thread, releasing the container's request thread
+ * while the request blocks on the database, the message broker or signing operations. Otherwise, or
+ * when the request does not support asynchronous processing, requests are processed on the
+ * container's request thread as usual.
+ * <p></p>
+ * In both modes this filter records the processing statistics exposed by
+ * {@link RequestDispatchMetrics}, and releases any resource concurrency permit held by the request
+ * once it has been processed.
+ * <p></p>
+ * NOTE: As the request scope and unit of work are bound to the processing thread, this filter must
+ * be processed before the {@link CandlepinScopeFilter}.
+ */
+@Singleton
+public class RequestDispatchFilter implements Filter {
+    private static final Logger log = LoggerFactory.getLogger(RequestDispatchFilter.class);
+
+    private final RequestDispatchMetrics metrics;
+    private final ExecutorService executor;
+
+    @Inject
+    public RequestDispatchFilter(Configuration config, RequestDispatchMetrics metrics) {
+        this(metrics, config.getBoolean(ConfigProperties.REQUEST_VIRTUAL_THREADS) ?
+            createVirtualThreadExecutor() :
+            null);
+    }
+
+    /**
+     * Creates a new dispatch filter which processes requests using the given executor.
+     *
+     * @param metrics
+     *  the metrics in which to record request processing statistics; cannot be null
+     *
+     * @param executor
+     *  the executor on which to process requests, or null to process requests on the container's
+     *  request threads
+     */
+    RequestDispatchFilter(RequestDispatchMetrics metrics, ExecutorService executor) {
+        this.metrics = Objects.requireNonNull(metrics);
+        this.executor = executor;
+
+        log.info("Processing requests on {}", executor != null ? "virtual threads" : "container threads");
+    }
+
+    /**
+     * Creates an executor which processes each task on a new virtual thread. As virtual threads are
+     * not available on every runtime Candlepin supports, the executor is looked up reflectively.
+     *
+     * @return
+     *  a virtual thread per task executor, or null if the runtime does not provide virtual threads
+     */
+    static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch (NoSuchMethodException e) {
+            log.warn("Virtual threads are not supported by this runtime ({}); " +
+                "requests will be processed on container threads", Runtime.version());
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Unable to create virtual thread executor; requests will be processed on " +
+                "container threads", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if requests are dispatched to virtual threads.
+     *
+     * @return
+     *  true if requests are processed on virtual threads; false otherwise
+     */
+    public boolean isDispatchingToVirtualThreads() {
+        return this.executor != null;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+
+        if (this.executor == null || !request.isAsyncSupported() || request.isAsyncStarted()) {
+            this.process(DispatchMode.PLATFORM_THREAD, request, response, chain);
+            return;
+        }
+
+        AsyncContext context = request.startAsync(request, response);
+
+        // Async requests are subject to the container's async timeout by default, which would abort
+        // long-running requests that are processed synchronously on the container threads
+        context.setTimeout(0);
+
+        Callable<Void> task = ServletScopes.transferRequest(() -> {
+            this.process(DispatchMode.VIRTUAL_THREAD, request, response, chain);
+            return null;
+        });
+
+        try {
+            this.executor.execute(() -> this.complete(context, task));
+        }
+        catch (RejectedExecutionException e) {
+            log.debug("Virtual thread executor rejected request; processing on container thread", e);
+            this.complete(context, task);
+        }
+    }
+
+    private void process(DispatchMode mode, ServletRequest request, ServletResponse response,
+        FilterChain chain) throws IOException, ServletException {
+
+        long start = this.metrics.requestStarted(mode);
+        try {
+            chain.doFilter(request, response);
+        }
+        finally {
+            ResourceConcurrencyFilter.releasePermit(request);
+            this.metrics.requestCompleted(mode, start);
+        }
+    }
+
+    private void complete(AsyncContext context, Callable<Void> task) {
+        try {
+            task.call();
+        }
+        catch (Exception e) {
+            // There is no container thread left to report this to, so we need to produce the error
+            // response ourselves
+            log.error("Unexpected exception occurred while processing request", e);
+
+            ServletResponse response = context.getResponse();
+            if (!response.isCommitted() && response instanceof HttpServletResponse httpResponse) {
+                try {
+                    httpResponse.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+                catch (IOException | IllegalStateException se) {
+                    log.debug("Unable to send error response", se);
+                }
+            }
+        }
+        finally {
+            context.complete();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    @Override
+    public void init(FilterConfig config) throws ServletException {
+    }
+
+}
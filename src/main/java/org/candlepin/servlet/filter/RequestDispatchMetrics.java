@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.servlet.filter;
+
+import org.candlepin.util.MBeanUtil;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * Gathers request processing statistics for the {@link RequestDispatchFilter}, tracking requests
+ * processed on container request threads separately from those processed on virtual threads.
+ */
+@Singleton
+public class RequestDispatchMetrics implements RequestDispatchMetricsMXBean {
+    private static final String MBEAN_TYPE = "RequestDispatch";
+
+    /**
+     * The kinds of thread on which a request may be processed
+     */
+    public enum DispatchMode {
+        PLATFORM_THREAD,
+        VIRTUAL_THREAD
+    }
+
+    /**
+     * The statistics gathered for a single dispatch mode
+     */
+    private static class ModeStatistics {
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder time = new LongAdder();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong first = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong last = new AtomicLong(Long.MIN_VALUE);
+
+        public void started() {
+            this.active.incrementAndGet();
+        }
+
+        public void completed(long start, long end) {
+            this.active.decrementAndGet();
+            this.time.add(end - start);
+            this.completed.increment();
+
+            this.first.accumulateAndGet(start, Math::min);
+            this.last.accumulateAndGet(end, Math::max);
+        }
+
+        public double getAverageLatency() {
+            long count = this.completed.sum();
+            return count > 0 ? (double) this.time.sum() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+        }
+
+        public double getThroughput() {
+            long first = this.first.get();
+            long last = this.last.get();
+            long elapsed = last - first;
+
+            if (first >= last || elapsed <= 0) {
+                return 0;
+            }
+
+            return (double) this.completed.sum() * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        }
+    }
+
+    private final ModeStatistics platformThreads;
+    private final ModeStatistics virtualThreads;
+    private final LongAdder concurrencyLimitWaits;
+    private final LongAdder concurrencyLimitRejections;
+
+    @Inject
+    public RequestDispatchMetrics() {
+        this.platformThreads = new ModeStatistics();
+        this.virtualThreads = new ModeStatistics();
+        this.concurrencyLimitWaits = new LongAdder();
+        this.concurrencyLimitRejections = new LongAdder();
+
+        MBeanUtil.register(MBEAN_TYPE, this);
+    }
+
+    private ModeStatistics getStatistics(DispatchMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("mode is null");
+        }
+
+        return mode == DispatchMode.VIRTUAL_THREAD ? this.virtualThreads : this.platformThreads;
+    }
+
+    /**
+     * Records the start of processing of a request in the given mode.
+     *
+     * @param mode
+     *  the mode in which the request is being processed; cannot be null
+     *
+     * @throws IllegalArgumentException
+     *  if mode is null
+     *
+     * @return
+     *  the time, in nanoseconds, at which processing started, to be passed to
+     *  {@link #requestCompleted(DispatchMode, long)}
+     */
+    public long requestStarted(DispatchMode mode) {
+        this.getStatistics(mode).started();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the completion of a request processed in the given mode.
+     *
+     * @param mode
+     *  the mode in which the request was processed; cannot be null
+     *
+     * @param start
+     *  the start time returned by {@link #requestStarted(DispatchMode)}
+     *
+     * @throws IllegalArgumentException
+     *  if mode is null
+     */
+    public void requestCompleted(DispatchMode mode, long start) {
+        this.getStatistics(mode).completed(start, System.nanoTime());
+    }
+
+    /**
+     * Records a request which had to wait for its resource's concurrency limit.
+     */
+    public void concurrencyLimitWaited() {
+        this.concurrencyLimitWaits.increment();
+    }
+
+    /**
+     * Records a request which was rejected by its resource's concurrency limit.
+     */
+    public void concurrencyLimitRejected() {
+        this.concurrencyLimitRejections.increment();
+    }
+
+    @Override
+    public long getPlatformThreadRequests() {
+        return this.platformThreads.completed.sum();
+    }
+
+    @Override
+    public long getVirtualThreadRequests() {
+        return this.virtualThreads.completed.sum();
+    }
+
+    @Override
+    public int getPlatformThreadActiveRequests() {
+        return this.platformThreads.active.get();
+    }
+
+    @Override
+    public int getVirtualThreadActiveRequests() {
+        return this.virtualThreads.active.get();
+    }
+
+    @Override
+    public double getPlatformThreadAverageLatency() {
+        return this.platformThreads.getAverageLatency();
+    }
+
+    @Override
+    public double getVirtualThreadAverageLatency() {
+        return this.virtualThreads.getAverageLatency();
+    }
+
+    @Override
+    public double getPlatformThreadThroughput() {
+        return this.platformThreads.getThroughput();
+    }
+
+    @Override
+    public double getVirtualThreadThroughput() {
+        return this.virtualThreads.getThroughput();
+    }
+
+    @Override
+    public long getConcurrencyLimitWaits() {
+        return this.concurrencyLimitWaits.sum();
+    }
+
+    @Override
+    public long getConcurrencyLimitRejections() {
+        return this.concurrencyLimitRejections.sum();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.servlet.filter;
+
+
+
+/**
+ * Management interface exposing the request processing statistics gathered by the
+ * {@link RequestDispatchFilter}, broken down by the kind of thread on which requests were processed
+ * so the throughput of the two dispatch modes can be compared.
+ */
+public interface RequestDispatchMetricsMXBean {
+
+    /**
+     * @return
+     *  the number of requests processed on container request threads
+     */
+    long getPlatformThreadRequests();
+
+    /**
+     * @return
+     *  the number of requests processed on virtual threads
+     */
+    long getVirtualThreadRequests();
+
+    /**
+     * @return
+     *  the number of requests currently being processed on container request threads
+     */
+    int getPlatformThreadActiveRequests();
+
+    /**
+     * @return
+     *  the number of requests currently being processed on virtual threads
+     */
+    int getVirtualThreadActiveRequests();
+
+    /**
+     * @return
+     *  the average time, in milliseconds, taken to process a request on a container request thread
+     */
+    double getPlatformThreadAverageLatency();
+
+    /**
+     * @return
+     *  the average time, in milliseconds, taken to process a request on a virtual thread
+     */
+    double getVirtualThreadAverageLatency();
+
+    /**
+     * @return
+     *  the number of requests per second completed on container request threads, measured between
+     *  the first and most recent request processed on such threads
+     */
+    double getPlatformThreadThroughput();
+
+    /**
+     * @return
+     *  the number of requests per second completed on virtual threads, measured between the first
+     *  and most recent request processed on such threads
+     */
+    double getVirtualThreadThroughput();
+
+    /**
+     * @return
+     *  the number of requests which had to wait for their resource's concurrency limit
+     */
+    long getConcurrencyLimitWaits();
+
+    /**
+     * @return
+     *  the number of requests rejected after waiting for their resource's concurrency limit
+     */
+    long getConcurrencyLimitRejections();
+}
@@ -14,7 +14,11 @@
  */
 package org.candlepin.servlet.filter.logging;
 
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationPrefixes;
 import org.candlepin.logging.LoggingUtil;
+import org.candlepin.util.Util;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,9 +26,13 @@ import org.slf4j.MDC;
 
 import java.io.IOException;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Pattern;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -38,6 +46,10 @@ import javax.servlet.http.HttpServletResponse;
 /**
  * LoggingFilter
  *
+ * Request and response bodies are only captured for a configurable percentage of requests, which
+ * may be set per endpoint, and no more than a configurable number of bytes of each body is kept for
+ * logging. Body sizes of all requests are tracked by endpoint in {@link RequestBodyMetrics}.
+ *
  * This class must be a Singleton as described in
  * <a href="http://code.google.com/p/google-guice/wiki/ServletModule#Filter_Mapping">
  * the Guice documentation</a>.
@@ -50,8 +62,53 @@ public class LoggingFilter implements Filter {
     private static final int CSID_MAX_LENGTH = 40;
     private static final Pattern CSID_REGEX = Pattern.compile("^([a-zA-Z0-9-]){1,}$");
 
+    private final RequestBodyMetrics metrics;
+    private final int defaultSamplePercent;
+    private final Map<String, Integer> endpointSamplePercents;
+    private final int maxBodySize;
+
     private String customHeaderName;
 
+    @Inject
+    public LoggingFilter(Configuration config, RequestBodyMetrics metrics) {
+        if (config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+
+        if (metrics == null) {
+            throw new IllegalArgumentException("metrics is null");
+        }
+
+        this.metrics = metrics;
+        this.defaultSamplePercent = config.getInt(ConfigProperties.REQUEST_LOGGING_BODY_SAMPLE_PERCENT);
+        this.endpointSamplePercents = this.getEndpointSamplePercents(config);
+        this.maxBodySize = config.getInt(ConfigProperties.REQUEST_LOGGING_MAX_BODY_SIZE);
+    }
+
+    private Map<String, Integer> getEndpointSamplePercents(Configuration config) {
+        String prefix = ConfigurationPrefixes.REQUEST_LOGGING_BODY_SAMPLE_PERCENT_PREFIX;
+        Map<String, Integer> percents = new HashMap<>();
+
+        for (Map.Entry<String, String> entry : config.getValuesByPrefix(prefix).entrySet()) {
+            String endpoint = Util.stripPrefix(entry.getKey(), prefix);
+
+            try {
+                int percent = Integer.parseInt(entry.getValue().trim());
+                if (percent < 0 || percent > 100) {
+                    throw new NumberFormatException("value out of range");
+                }
+
+                percents.put(endpoint, percent);
+            }
+            catch (NumberFormatException e) {
+                log.warn("Ignoring invalid body sample percentage for endpoint \"{}\": {}", endpoint,
+                    entry.getValue());
+            }
+        }
+
+        return percents;
+    }
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         customHeaderName = filterConfig.getInitParameter("header.name");
@@ -62,16 +119,59 @@ public class LoggingFilter implements Filter {
         customHeaderName = null;
     }
 
+    /**
+     * Fetches the endpoint of the given request, used to sample requests and track body sizes. The
+     * endpoint is the first segment of the request path below the context path, such as "owners"
+     * for requests to /candlepin/owners/{owner_key}/pools.
+     *
+     * @param request
+     *  the request for which to fetch the endpoint
+     *
+     * @return
+     *  the endpoint of the given request
+     */
+    static String getEndpoint(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path == null) {
+            return "/";
+        }
+
+        String contextPath = request.getContextPath();
+        if (contextPath != null && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        String endpoint = path.substring(start, end >= 0 ? end : path.length());
+
+        return endpoint.isEmpty() ? "/" : endpoint;
+    }
+
+    private boolean isSampled(String endpoint) {
+        int percent = this.endpointSamplePercents.getOrDefault(endpoint, this.defaultSamplePercent);
+        return percent >= 100 || (percent > 0 && ThreadLocalRandom.current().nextInt(100) < percent);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void doFilter(ServletRequest request, ServletResponse response,
         FilterChain chain) throws IOException, ServletException {
 
         long startTime = System.currentTimeMillis();
-        TeeHttpServletRequest req = new TeeHttpServletRequest(
-            (HttpServletRequest) request);
+
+        String endpoint = getEndpoint((HttpServletRequest) request);
+        boolean sampled = this.isSampled(endpoint);
+        this.metrics.recordSampling(sampled);
+
+        // Only sampled requests have their bodies captured; other requests are passed through as-is
+        TeeHttpServletRequest teeRequest = sampled ?
+            new TeeHttpServletRequest((HttpServletRequest) request, this.maxBodySize) :
+            null;
+
+        HttpServletRequest req = teeRequest != null ? teeRequest : (HttpServletRequest) request;
         TeeHttpServletResponse resp = new TeeHttpServletResponse(
-            (HttpServletResponse) response);
+            (HttpServletResponse) response, sampled ? this.maxBodySize : 0);
 
         try {
             // Generate a UUID for this request and store in the thread local MDC.
@@ -122,7 +222,13 @@ public class LoggingFilter implements Filter {
 
             chain.doFilter(req, resp);
 
+            // The request body is captured as it is read while processing the request, so it is
+            // only logged once processing completes, along with the response
             if (log.isDebugEnabled()) {
+                if (teeRequest != null) {
+                    log.debug("{}", ServletLogger.logRequestBody(teeRequest));
+                }
+
                 log.debug("{}", ServletLogger.logResponse(resp, startTime));
             }
             else {
@@ -132,7 +238,27 @@ public class LoggingFilter implements Filter {
             resp.finish();
         }
         finally {
+            this.recordBodySizes(endpoint, (HttpServletRequest) request, teeRequest, resp);
             MDC.clear();
         }
     }
+
+    private void recordBodySizes(String endpoint, HttpServletRequest request,
+        TeeHttpServletRequest teeRequest, TeeHttpServletResponse resp) {
+
+        long requestSize = teeRequest != null ? teeRequest.getBodySize() : request.getContentLengthLong();
+        long responseSize = resp.getBodySize();
+
+        this.metrics.recordRequest(endpoint, requestSize, responseSize);
+
+        if (teeRequest != null) {
+            if (requestSize > this.maxBodySize) {
+                this.metrics.bodyTruncated();
+            }
+
+            if (responseSize > this.maxBodySize) {
+                this.metrics.bodyTruncated();
+            }
+        }
+    }
 }
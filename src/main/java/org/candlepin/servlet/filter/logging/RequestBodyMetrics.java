@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.servlet.filter.logging;
+
+import org.candlepin.util.MBeanUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * Gathers the request and response body sizes observed by the {@link LoggingFilter}, per endpoint.
+ * To keep the number of tracked endpoints bounded regardless of the paths clients request, any
+ * endpoints beyond the first {@value #MAX_ENDPOINTS} are tracked together as
+ * {@value #OTHER_ENDPOINT}.
+ */
+@Singleton
+public class RequestBodyMetrics implements RequestBodyMetricsMXBean {
+    private static final String MBEAN_TYPE = "RequestBodies";
+
+    /** The maximum number of endpoints tracked individually */
+    public static final int MAX_ENDPOINTS = 256;
+
+    /** The name under which endpoints beyond the tracking limit are tracked */
+    public static final String OTHER_ENDPOINT = "(other)";
+
+    /**
+     * The statistics gathered for a single endpoint
+     */
+    private static class EndpointStatistics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final AtomicLong maxRequestSize = new AtomicLong();
+        private final AtomicLong maxResponseSize = new AtomicLong();
+
+        public void record(long requestSize, long responseSize) {
+            this.requests.increment();
+            this.requestBytes.add(requestSize);
+            this.responseBytes.add(responseSize);
+
+            this.maxRequestSize.accumulateAndGet(requestSize, Math::max);
+            this.maxResponseSize.accumulateAndGet(responseSize, Math::max);
+        }
+    }
+
+    private final ConcurrentMap<String, EndpointStatistics> endpoints;
+    private final LongAdder sampledRequests;
+    private final LongAdder unsampledRequests;
+    private final LongAdder truncatedBodies;
+
+    @Inject
+    public RequestBodyMetrics() {
+        this.endpoints = new ConcurrentHashMap<>();
+        this.sampledRequests = new LongAdder();
+        this.unsampledRequests = new LongAdder();
+        this.truncatedBodies = new LongAdder();
+
+        MBeanUtil.register(MBEAN_TYPE, this);
+    }
+
+    private EndpointStatistics getStatistics(String endpoint) {
+        EndpointStatistics stats = this.endpoints.get(endpoint);
+        if (stats != null) {
+            return stats;
+        }
+
+        if (this.endpoints.size() >= MAX_ENDPOINTS) {
+            endpoint = OTHER_ENDPOINT;
+        }
+
+        return this.endpoints.computeIfAbsent(endpoint, key -> new EndpointStatistics());
+    }
+
+    /**
+     * Records the body sizes of a completed request.
+     *
+     * @param endpoint
+     *  the endpoint which processed the request; cannot be null
+     *
+     * @param requestSize
+     *  the size of the request body, in bytes
+     *
+     * @param responseSize
+     *  the size of the response body, in bytes
+     *
+     * @throws IllegalArgumentException
+     *  if endpoint is null
+     */
+    public void recordRequest(String endpoint, long requestSize, long responseSize) {
+        if (endpoint == null) {
+            throw new IllegalArgumentException("endpoint is null");
+        }
+
+        this.getStatistics(endpoint).record(Math.max(requestSize, 0), Math.max(responseSize, 0));
+    }
+
+    /**
+     * Records whether the bodies of a request were sampled for logging.
+     *
+     * @param sampled
+     *  true if the bodies of the request were captured; false otherwise
+     */
+    public void recordSampling(boolean sampled) {
+        (sampled ? this.sampledRequests : this.unsampledRequests).increment();
+    }
+
+    /**
+     * Records a body which exceeded the maximum captured body size.
+     */
+    public void bodyTruncated() {
+        this.truncatedBodies.increment();
+    }
+
+    private Map<String, Long> collect(Function<EndpointStatistics, Long> extractor) {
+        return this.endpoints.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> extractor.apply(entry.getValue())));
+    }
+
+    @Override
+    public long getSampledRequests() {
+        return this.sampledRequests.sum();
+    }
+
+    @Override
+    public long getUnsampledRequests() {
+        return this.unsampledRequests.sum();
+    }
+
+    @Override
+    public long getTruncatedBodies() {
+        return this.truncatedBodies.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRequestCounts() {
+        return this.collect(stats -> stats.requests.sum());
+    }
+
+    @Override
+    public Map<String, Long> getRequestBodyBytes() {
+        return this.collect(stats -> stats.requestBytes.sum());
+    }
+
+    @Override
+    public Map<String, Long> getResponseBodyBytes() {
+        return this.collect(stats -> stats.responseBytes.sum());
+    }
+
+    @Override
+    public Map<String, Long> getMaxRequestBodySizes() {
+        return this.collect(stats -> stats.maxRequestSize.get());
+    }
+
+    @Override
+    public Map<String, Long> getMaxResponseBodySizes() {
+        return this.collect(stats -> stats.maxResponseSize.get());
+    }
+}
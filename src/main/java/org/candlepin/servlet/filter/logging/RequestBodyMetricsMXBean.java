@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.servlet.filter.logging;
+
+import java.util.Map;
+
+
+
+/**
+ * Management interface exposing the request and response body sizes observed by the
+ * {@link LoggingFilter}, broken down by endpoint, along with the effect of body sampling and
+ * capture limits. Endpoints are identified by the first segment of the request path.
+ */
+public interface RequestBodyMetricsMXBean {
+
+    /**
+     * @return
+     *  the number of requests for which bodies were captured for logging
+     */
+    long getSampledRequests();
+
+    /**
+     * @return
+     *  the number of requests for which bodies were not captured, as they were not sampled
+     */
+    long getUnsampledRequests();
+
+    /**
+     * @return
+     *  the number of request and response bodies which exceeded the maximum captured body size
+     */
+    long getTruncatedBodies();
+
+    /**
+     * @return
+     *  the number of requests processed, per endpoint
+     */
+    Map<String, Long> getRequestCounts();
+
+    /**
+     * @return
+     *  the total number of request body bytes received, per endpoint
+     */
+    Map<String, Long> getRequestBodyBytes();
+
+    /**
+     * @return
+     *  the total number of response body bytes sent, per endpoint
+     */
+    Map<String, Long> getResponseBodyBytes();
+
+    /**
+     * @return
+     *  the size of the largest request body received, per endpoint
+     */
+    Map<String, Long> getMaxRequestBodySizes();
+
+    /**
+     * @return
+     *  the size of the largest response body sent, per endpoint
+     */
+    Map<String, Long> getMaxResponseBodySizes();
+}
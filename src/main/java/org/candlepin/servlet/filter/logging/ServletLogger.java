@@ -15,6 +15,7 @@
 package org.candlepin.servlet.filter.logging;
 
 import org.candlepin.util.ObjectMapperFactory;
+import org.candlepin.util.Util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -26,6 +27,8 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletRequestWrapper;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -36,6 +39,9 @@ import javax.ws.rs.core.Response;
  * ServletLogger
  */
 public class ServletLogger {
+    /** The marker appended to bodies which were captured only in part */
+    public static final String TRUNCATION_MARKER = "... [truncated, %d bytes total]";
+
     private static ObjectMapper mapper;
     private static ObjectWriter writer;
 
@@ -71,7 +77,17 @@ public class ServletLogger {
         return builder;
     }
 
-    public static StringBuilder logRequest(TeeHttpServletRequest req) {
+    /**
+     * Builds a log entry for the request line and headers of the given request. As the body of a
+     * request is captured as it is read, it is logged separately with {@link #logRequestBody}.
+     *
+     * @param req
+     *  the request to log
+     *
+     * @return
+     *  a log entry for the request
+     */
+    public static StringBuilder logRequest(HttpServletRequest req) {
         StringBuilder builder = new StringBuilder();
         builder.append("Request: ")
             .append(req.getMethod()).append(" ").append(req.getRequestURI());
@@ -80,11 +96,46 @@ public class ServletLogger {
         }
         builder.append("\n");
 
-        return builder
-            .append(logHeaders(req))
+        builder.append(logHeaders(req));
+        return builder;
+    }
+
+    /**
+     * Builds a log entry for the portion of the body of the given request captured so far.
+     *
+     * @param req
+     *  the request whose body to log
+     *
+     * @return
+     *  a log entry for the request body
+     */
+    public static StringBuilder logRequestBody(TeeHttpServletRequest req) {
+        return new StringBuilder()
+            .append("Request body: ")
+            .append(req.getMethod()).append(" ").append(req.getRequestURI()).append("\n")
             .append(logBody("Request", req, true));
     }
 
+    /**
+     * Finds the {@link TeeHttpServletRequest} capturing the body of the given request, which may be
+     * the request itself or any request it wraps.
+     *
+     * @param req
+     *  the request for which to find the capturing request
+     *
+     * @return
+     *  the request capturing the body of the given request, or null if its body is not captured
+     */
+    public static TeeHttpServletRequest getTeeRequest(ServletRequest req) {
+        // The request may have been wrapped again after its body was captured
+        ServletRequest source = req;
+        while (source instanceof ServletRequestWrapper && !(source instanceof TeeHttpServletRequest)) {
+            source = ((ServletRequestWrapper) source).getRequest();
+        }
+
+        return source instanceof TeeHttpServletRequest ? (TeeHttpServletRequest) source : null;
+    }
+
     public static StringBuilder logResponse(TeeHttpServletResponse resp, long startTime) {
         // Impl note:
         // We're not formatting JSON output here as our JsonProvider already takes care of that.
@@ -92,13 +143,18 @@ public class ServletLogger {
 
         StringBuilder builder = new StringBuilder();
         int statusCode = resp.getStatus();
-        return builder.append("Response: ")
+        builder.append("Response: ")
             .append(statusCode)
             .append(" ")
             .append(Response.Status.fromStatusCode(statusCode))
             .append(" (").append(duration).append(" ms)\n")
-            .append(logHeaders(resp))
-            .append(logBody("Response", resp, false));
+            .append(logHeaders(resp));
+
+        if (resp.isCapturingBody()) {
+            builder.append(logBody("Response", resp, false));
+        }
+
+        return builder;
     }
 
     public static StringBuilder logBody(String type, BodyLogger bodyLogger, boolean formatJson) {
@@ -121,6 +177,31 @@ public class ServletLogger {
         return builder;
     }
 
+    /**
+     * Formats a captured body for logging. Text bodies are logged as-is, while any other content is
+     * logged as an abbreviated base64 string. If only part of the body was captured, a truncation
+     * marker noting the full size of the body is appended.
+     *
+     * @param body
+     *  the captured bytes of the body
+     *
+     * @param size
+     *  the full size of the body, in bytes
+     *
+     * @param contentType
+     *  the content type of the body
+     *
+     * @return
+     *  the formatted body
+     */
+    public static String formatBody(byte[] body, long size, String contentType) {
+        String content = showAsText(contentType) ?
+            new String(body) :
+            StringUtils.abbreviate(Util.toBase64(body), 100);
+
+        return size > body.length ? content + String.format(TRUNCATION_MARKER, size) : content;
+    }
+
     public static StringBuilder logBasicRequestInfo(HttpServletRequest req) {
         StringBuilder requestBuilder = new StringBuilder()
             .append("Request: verb=")
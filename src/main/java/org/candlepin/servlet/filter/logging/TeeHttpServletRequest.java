@@ -14,15 +14,9 @@
  */
 package org.candlepin.servlet.filter.logging;
 
-import org.candlepin.util.Util;
-
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
-
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 
 import javax.servlet.ReadListener;
@@ -31,58 +25,98 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 
 /**
- * This class gives us a new ServletInputStream every time we call getInputStream()
- * so we can read a request body more than once.
+ * This class tees the body of a request as it is read, so it can be logged once the request has
+ * been processed.
+ * <p></p>
+ * The body is never buffered ahead of the reader: only the first bytes read, up to the maximum body
+ * size, are copied for logging, while the rest of the body is passed through and merely counted.
  */
 public class TeeHttpServletRequest extends HttpServletRequestWrapper implements BodyLogger {
-    private final byte[] body;
+    /** The default maximum number of bytes of the body to log */
+    public static final int DEFAULT_MAX_BODY_SIZE = 64 * 1024;
+
+    private final ByteArrayOutputStream captured;
+    private final int maxBodySize;
+    private long byteCount;
+    private ServletInputStream inputStream;
 
-    public TeeHttpServletRequest(HttpServletRequest request) throws IOException {
+    public TeeHttpServletRequest(HttpServletRequest request) {
+        this(request, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    /**
+     * Creates a request wrapper which captures up to the given number of bytes of the body of the
+     * given request as it is read.
+     *
+     * @param request
+     *  the request to wrap
+     *
+     * @param maxBodySize
+     *  the maximum number of bytes of the body to log
+     */
+    public TeeHttpServletRequest(HttpServletRequest request, int maxBodySize) {
         super(request);
-        InputStream inputStream = request.getInputStream();
-        if (inputStream != null) {
-            body = IOUtils.toByteArray(inputStream);
-        }
-        else {
-            body = new byte[0];
+
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("maxBodySize is negative");
         }
+
+        this.maxBodySize = maxBodySize;
+        this.captured = new ByteArrayOutputStream(Math.min(maxBodySize, 1024));
     }
 
     @Override
     public ServletInputStream getInputStream() throws IOException {
-        final ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(body);
-        ServletInputStream servletInputStream = new ServletInputStream() {
-            ReadListener readListener;
-            boolean finished = false;
-            @Override
-            public int read() throws IOException {
-                int output = byteArrayInputStream.read();
-                if (output == -1 && !this.finished) {
-                    this.finished = true;
-                    if (readListener != null) {
-                        // This event probably shouldn't occur more than once
-                        readListener.onAllDataRead();
+        if (this.inputStream == null) {
+            ServletInputStream source = super.getInputStream();
+            if (source == null) {
+                return null;
+            }
+
+            this.inputStream = new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    int output = source.read();
+                    if (output != -1) {
+                        capture(output);
+                    }
+
+                    return output;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int output = source.read(buffer, offset, length);
+                    if (output > 0) {
+                        capture(buffer, offset, output);
                     }
+
+                    return output;
                 }
-                return output;
-            }
 
-            @Override
-            public void setReadListener(ReadListener readListener) {
-                this.readListener = readListener;
-            }
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    source.setReadListener(readListener);
+                }
 
-            @Override
-            public boolean isReady() {
-                return byteArrayInputStream.available() > 0;
-            }
+                @Override
+                public boolean isReady() {
+                    return source.isReady();
+                }
 
-            @Override
-            public boolean isFinished() {
-                return this.finished;
-            }
-        };
-        return servletInputStream;
+                @Override
+                public boolean isFinished() {
+                    return source.isFinished();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    source.close();
+                }
+            };
+        }
+
+        return this.inputStream;
     }
 
     @Override
@@ -90,11 +124,66 @@ public class TeeHttpServletRequest extends HttpServletRequestWrapper implements
         return new BufferedReader(new InputStreamReader(this.getInputStream()));
     }
 
+    private void capture(int value) {
+        if (this.captured.size() < this.maxBodySize) {
+            this.captured.write(value);
+        }
+
+        ++this.byteCount;
+    }
+
+    private void capture(byte[] buffer, int offset, int length) {
+        int count = Math.min(length, this.maxBodySize - this.captured.size());
+        if (count > 0) {
+            this.captured.write(buffer, offset, count);
+        }
+
+        this.byteCount += length;
+    }
+
+    /**
+     * Reads the unread part of the request body up to the maximum body size, so that it can be
+     * logged for requests which will not otherwise be read, such as those refused before reaching
+     * the resource. Any part of the body beyond the maximum body size is left unread.
+     *
+     * @throws IOException
+     *  if the body cannot be read
+     */
+    public void captureUnreadBody() throws IOException {
+        ServletInputStream input = this.getInputStream();
+        if (input == null) {
+            return;
+        }
+
+        byte[] buffer = new byte[1024];
+        while (this.captured.size() < this.maxBodySize) {
+            int length = Math.min(buffer.length, this.maxBodySize - this.captured.size());
+            if (input.read(buffer, 0, length) < 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Fetches the size of the request body. If the body was not read in full while processing the
+     * request, the declared content length of the request is used instead, where available.
+     *
+     * @return
+     *  the size of the request body, in bytes
+     */
+    public long getBodySize() {
+        return Math.max(this.byteCount, this.getContentLengthLong());
+    }
+
+    /**
+     * Fetches the captured portion of the request body, formatted for logging. Only the part of the
+     * body which has been read at the time this method is called is available.
+     *
+     * @return
+     *  the captured portion of the request body
+     */
     @Override
     public String getBody() {
-        if (ServletLogger.showAsText(getContentType())) {
-            return new String(body);
-        }
-        return StringUtils.abbreviate(Util.toBase64(body), 100);
+        return ServletLogger.formatBody(this.captured.toByteArray(), this.getBodySize(), getContentType());
     }
 }
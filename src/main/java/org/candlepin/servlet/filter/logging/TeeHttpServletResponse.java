@@ -14,10 +14,6 @@
  */
 package org.candlepin.servlet.filter.logging;
 
-import org.candlepin.util.Util;
-
-import org.apache.commons.lang3.StringUtils;
-
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -40,16 +36,37 @@ public class TeeHttpServletResponse extends HttpServletResponseWrapper
     protected PrintWriter teeWriter;
     protected Map<String, List<String>> headers = new HashMap<>();
     protected int status;
+    protected final int maxBodySize;
 
     public TeeHttpServletResponse(HttpServletResponse httpServletResponse) {
+        this(httpServletResponse, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a response wrapper which captures at most the given number of bytes of the response
+     * body.
+     *
+     * @param httpServletResponse
+     *  the response to wrap
+     *
+     * @param maxBodySize
+     *  the maximum number of bytes of the body to capture; zero to capture none of it
+     */
+    public TeeHttpServletResponse(HttpServletResponse httpServletResponse, int maxBodySize) {
         super(httpServletResponse);
+
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("maxBodySize is negative");
+        }
+
+        this.maxBodySize = maxBodySize;
     }
 
     @Override
     public ServletOutputStream getOutputStream() throws IOException {
         if (teeServletOutputStream == null) {
             teeServletOutputStream = new TeeServletOutputStream(
-                this.getResponse());
+                this.getResponse(), this.maxBodySize);
         }
         return teeServletOutputStream;
     }
@@ -90,15 +107,29 @@ public class TeeHttpServletResponse extends HttpServletResponseWrapper
         }
     }
 
+    /**
+     * @return
+     *  true if any part of the response body is captured for logging; false otherwise
+     */
+    public boolean isCapturingBody() {
+        return this.maxBodySize > 0;
+    }
+
+    /**
+     * @return
+     *  the number of bytes written to the response body, including any bytes which were not
+     *  captured
+     */
+    public long getBodySize() {
+        return this.teeServletOutputStream != null ? this.teeServletOutputStream.getByteCount() : 0;
+    }
+
     @Override
     public String getBody() {
         byte[] buff = getOutputBuffer();
 
         if (buff != null) {
-            if (ServletLogger.showAsText(getContentType())) {
-                return new String(buff);
-            }
-            return StringUtils.abbreviate(Util.toBase64(buff), 100);
+            return ServletLogger.formatBody(buff, this.getBodySize(), getContentType());
         }
 
         return "";
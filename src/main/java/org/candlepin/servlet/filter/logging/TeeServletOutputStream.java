@@ -23,26 +23,53 @@ import javax.servlet.WriteListener;
 
 /**
  * Heavily borrowed from the logback-access package.
+ * <p></p>
+ * Only the first bytes of the output, up to the configured capture size, are copied; the rest is
+ * written through to the underlying stream and merely counted.
  */
 public class TeeServletOutputStream extends ServletOutputStream {
 
     protected final ServletOutputStream underlyingStream;
     protected final ByteArrayOutputStream baosCopy;
+    protected final int maxCaptureSize;
+    protected long byteCount;
 
     TeeServletOutputStream(ServletResponse httpServletResponse) throws IOException {
+        this(httpServletResponse, Integer.MAX_VALUE);
+    }
+
+    TeeServletOutputStream(ServletResponse httpServletResponse, int maxCaptureSize) throws IOException {
+        if (maxCaptureSize < 0) {
+            throw new IllegalArgumentException("maxCaptureSize is negative");
+        }
+
         this.underlyingStream = httpServletResponse.getOutputStream();
-        baosCopy = new ByteArrayOutputStream();
+        this.maxCaptureSize = maxCaptureSize;
+        baosCopy = new ByteArrayOutputStream(Math.min(maxCaptureSize, 1024));
     }
 
     byte[] getOutputStreamAsByteArray() {
         return baosCopy.toByteArray();
     }
 
+    /**
+     * @return
+     *  the total number of bytes written to this stream, including any bytes which were not captured
+     */
+    long getByteCount() {
+        return this.byteCount;
+    }
+
     @Override
     public void write(int val) throws IOException {
         if (underlyingStream != null) {
             underlyingStream.write(val);
-            baosCopy.write(val);
+
+            if (baosCopy.size() < maxCaptureSize) {
+                baosCopy.write(val);
+            }
+
+            ++byteCount;
         }
     }
 
@@ -61,7 +88,13 @@ public class TeeServletOutputStream extends ServletOutputStream {
         }
 
         underlyingStream.write(byteArray, offset, length);
-        baosCopy.write(byteArray, offset, length);
+
+        int captured = Math.min(length, maxCaptureSize - baosCopy.size());
+        if (captured > 0) {
+            baosCopy.write(byteArray, offset, captured);
+        }
+
+        byteCount += length;
     }
 
     @Override
@@ -19,6 +19,7 @@ import org.candlepin.model.Certificate;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 
 /**
  * Certificate exporter
@@ -27,12 +28,17 @@ public class CertificateExporter {
 
     void exportCertificate(Certificate cert, File file) throws IOException {
         try (FileWriter writer = new FileWriter(file)) {
+            this.exportCertificate(cert, writer);
+        }
+    }
+
+    void exportCertificate(Certificate cert, Writer writer) throws IOException {
+        try {
             writer.write(cert.getCert());
             writer.write(cert.getKey());
         }
         catch (IOException ioExp) {
             throw new IOException("Error occurred while exporting certificates", ioExp);
         }
-
     }
 }
@@ -245,7 +245,32 @@ public class EntitlementImporter {
         Meta meta)
         throws IOException, SyncDataFormatException {
 
-        EntitlementDTO entitlement = mapper.readValue(reader, EntitlementDTO.class);
+        return this.importObject(mapper.readValue(reader, EntitlementDTO.class), owner, consumerUuid, meta);
+    }
+
+    /**
+     * Builds a subscription from the given entitlement, already read from the manifest.
+     *
+     * @param entitlement
+     *  the entitlement read from the manifest
+     *
+     * @param owner
+     *  the owner into which the manifest is being imported
+     *
+     * @param consumerUuid
+     *  the UUID of the upstream consumer
+     *
+     * @param meta
+     *  the metadata of the manifest being imported
+     *
+     * @throws SyncDataFormatException
+     *  if the entitlement references a product which is not defined in the manifest
+     *
+     * @return
+     *  the subscription built from the entitlement
+     */
+    public SubscriptionDTO importObject(EntitlementDTO entitlement, Owner owner, String consumerUuid,
+        Meta meta) throws SyncDataFormatException {
 
         SubscriptionDTO subscription = new SubscriptionDTO();
 
@@ -42,17 +42,21 @@ import org.candlepin.version.VersionUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
@@ -74,6 +78,9 @@ import javax.inject.Named;
 public class Exporter {
     private static final Logger log = LoggerFactory.getLogger(Exporter.class);
 
+    private static final String EXPORT_DIR = "export";
+    private static final String CONSUMER_EXPORT_FILE = "consumer_export.zip";
+
     private final ObjectMapper mapper;
     private final MetaExporter meta;
     private final ConsumerExporter consumerExporter;
@@ -148,21 +155,47 @@ public class Exporter {
     public File getFullExport(Consumer consumer, String cdnLabel, String webUrl,
         String apiUrl) throws ExportCreationException {
         try {
-            File tmpDir = syncUtils.makeTempDir("export");
-            File baseDir = new File(tmpDir.getAbsolutePath(), "export");
-            baseDir.mkdir();
-
-            exportMeta(baseDir, cdnLabel);
-            exportConsumer(baseDir, consumer, webUrl, apiUrl);
-            exportIdentityCertificate(baseDir, consumer);
-            exportEntitlements(baseDir, consumer);
-            exportEntitlementsCerts(baseDir, consumer, null, true);
-            exportProducts(baseDir, consumer);
-            exportConsumerTypes(baseDir);
-            exportRules(baseDir);
-            exportDistributorVersions(baseDir);
-            exportContentDeliveryNetworks(baseDir);
-            return makeArchive(consumer, tmpDir, baseDir);
+            File archive = this.createArchiveFile(consumer);
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(archive))) {
+                this.writeFullExport(consumer, cdnLabel, webUrl, apiUrl, output);
+            }
+
+            log.debug("Returning file: {}", archive.getAbsolutePath());
+            return archive;
+        }
+        catch (IOException e) {
+            log.error("Error generating entitlement export", e);
+            throw new ExportCreationException("Unable to create export archive", e);
+        }
+    }
+
+    /**
+     * Writes a manifest archive for the target {@link Consumer} to the given output stream. The
+     * archive's entries are written and signed as they are generated, without staging any of them
+     * on disk. The output stream is not closed.
+     *
+     * @param consumer the target consumer to export.
+     * @param cdnLabel the CDN label to store in the meta file.
+     * @param webUrl the URL pointing to the manifest's originating web application.
+     * @param apiUrl the API URL pointing to the manifest's originating candlepin API.
+     * @param output the output stream to receive the manifest archive.
+     * @throws ExportCreationException when an error occurs while creating the manifest archive.
+     */
+    public void writeFullExport(Consumer consumer, String cdnLabel, String webUrl, String apiUrl,
+        OutputStream output) throws ExportCreationException {
+        try {
+            this.writeArchive(consumer, output, export -> {
+                exportMeta(export, cdnLabel);
+                exportConsumer(export, consumer, webUrl, apiUrl);
+                exportIdentityCertificate(export, consumer);
+                exportEntitlements(export, consumer);
+                exportEntitlementsCerts(export, consumer, null, true);
+                exportProducts(export, consumer);
+                exportConsumerTypes(export);
+                exportRules(export);
+                exportDistributorVersions(export);
+                exportContentDeliveryNetworks(export);
+            });
         }
         catch (IOException e) {
             log.error("Error generating entitlement export", e);
@@ -175,14 +208,13 @@ public class Exporter {
         // TODO: need to delete tmpDir (which contains the archive,
         // which we need to return...)
         try {
-            File tmpDir = syncUtils.makeTempDir("export");
-            File baseDir = new File(tmpDir.getAbsolutePath(), "export");
-            baseDir.mkdir();
-
-            exportMeta(baseDir, null);
-            exportEntitlementsCerts(baseDir, consumer, serials, false);
-            exportContentAccessCerts(baseDir, consumer, serials);
-            return makeArchive(consumer, tmpDir, baseDir);
+            File archive = this.createArchiveFile(consumer);
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(archive))) {
+                this.writeEntitlementExport(consumer, serials, output);
+            }
+
+            log.debug("Returning file: {}", archive.getAbsolutePath());
+            return archive;
         }
         catch (IOException e) {
             log.error("Error generating entitlement export", e);
@@ -191,102 +223,84 @@ public class Exporter {
     }
 
     /**
-     * Create a tar.gz archive of the exported directory.
+     * Writes an archive of the target {@link Consumer}'s entitlement and content access certificates
+     * to the given output stream. The output stream is not closed.
      *
-     * @param exportDir Directory where Candlepin data was exported.
-     * @return File reference to the new archive zip.
+     * @param consumer
+     *  the target consumer
+     *
+     * @param serials
+     *  the serials of the certificates to export, or null to export all of the consumer's certificates
+     *
+     * @param output
+     *  the output stream to receive the archive
+     *
+     * @throws ExportCreationException
+     *  if an error occurs while creating the archive
+     *
+     * @throws ConcurrentContentPayloadCreationException
+     *  if a concurrent request persists the content payload and causes a database constraint violation
      */
-    private File makeArchive(Consumer consumer, File tempDir, File exportDir) throws IOException {
-        String exportFileName = String.format("%s-%s.zip", consumer.getUuid(), exportDir.getName());
-        log.info("Creating archive of {} in: {}", exportDir.getAbsolutePath(), exportFileName);
-
-        File archive = createZipArchiveWithDir(tempDir, exportDir, "consumer_export.zip",
-            "Candlepin export for " + consumer.getUuid());
-
-        try (InputStream archiveInputStream = new FileInputStream(archive)) {
-            File signedArchive = createSignedZipArchive(
-                tempDir, archive, exportFileName,
-                this.signer.sign(archiveInputStream),
-                "signed Candlepin export for " + consumer.getUuid());
-
-            log.debug("Returning file: {}", archive.getAbsolutePath());
-            return signedArchive;
-        }
-    }
-
-    private File createZipArchiveWithDir(File tempDir, File exportDir,
-        String exportFileName, String comment)
-        throws FileNotFoundException, IOException {
-
-        File archive = new File(tempDir, exportFileName);
-        ZipOutputStream out = null;
+    public void writeEntitlementExport(Consumer consumer, Set<Long> serials, OutputStream output)
+        throws ExportCreationException, ConcurrentContentPayloadCreationException {
         try {
-            out = new ZipOutputStream(new FileOutputStream(archive));
-            out.setComment(comment);
-            addFilesToArchive(out, exportDir.getParent().length() + 1, exportDir);
+            this.writeArchive(consumer, output, export -> {
+                exportMeta(export, null);
+                exportEntitlementsCerts(export, consumer, serials, false);
+                exportContentAccessCerts(export, consumer, serials);
+            });
         }
-        finally {
-            if (out != null) {
-                out.close();
-            }
+        catch (IOException e) {
+            log.error("Error generating entitlement export", e);
+            throw new ExportCreationException("Unable to create export archive", e);
         }
-        return archive;
     }
 
-    private File createSignedZipArchive(File tempDir, File toAdd,
-        String exportFileName, byte[] signature, String comment)
-        throws FileNotFoundException, IOException {
-
-        File archive = new File(tempDir, exportFileName);
-        ZipOutputStream out = null;
-        try {
-            out = new ZipOutputStream(new FileOutputStream(archive));
-            out.setComment(comment);
-            addFileToArchive(out, toAdd.getParent().length() + 1, toAdd);
-            addSignatureToArchive(out, signature);
-        }
-        finally {
-            if (out != null) {
-                out.close();
-            }
-        }
-        return archive;
+    /**
+     * Fetches the file name of archives exported for the given consumer.
+     *
+     * @param consumer
+     *  the consumer being exported
+     *
+     * @return
+     *  the file name of the consumer's export archive
+     */
+    public String getExportFileName(Consumer consumer) {
+        return String.format("%s-%s.zip", consumer.getUuid(), EXPORT_DIR);
     }
 
-    private void addFilesToArchive(ZipOutputStream out, int charsToDropFromName,
-        File directory) throws IOException {
-        for (File file : directory.listFiles()) {
-            if (file.isDirectory()) {
-                addFilesToArchive(out, charsToDropFromName, file);
-            }
-            else {
-                addFileToArchive(out, charsToDropFromName, file);
-            }
-        }
+    private File createArchiveFile(Consumer consumer) throws IOException {
+        File tmpDir = syncUtils.makeTempDir("export");
+        return new File(tmpDir, this.getExportFileName(consumer));
     }
 
-    private void addFileToArchive(ZipOutputStream out, int charsToDropFromName,
-        File file) throws IOException, FileNotFoundException {
-        log.debug("Adding file to archive: " +
-            file.getAbsolutePath().substring(charsToDropFromName));
-        out.putNextEntry(new ZipEntry(
-            file.getAbsolutePath().substring(charsToDropFromName)));
-        FileInputStream in = null;
-        try {
-            in = new FileInputStream(file);
+    /**
+     * Writes a signed archive to the given output stream. The export entries are written into a
+     * nested consumer_export.zip entry, which is signed as it is written; the resulting signature is
+     * then added to the archive as its final entry.
+     */
+    private <E extends Exception> void writeArchive(Consumer consumer, OutputStream output,
+        ExportWriter<E> writer) throws IOException, ExportCreationException, E {
 
-            byte[] buf = new byte[1024];
-            int len;
-            while ((len = in.read(buf)) > 0) {
-                out.write(buf, 0, len);
-            }
-            out.closeEntry();
-        }
-        finally {
-            if (in != null) {
-                in.close();
-            }
+        log.info("Creating archive {}", this.getExportFileName(consumer));
+
+        ZipOutputStream out = new ZipOutputStream(CloseShieldOutputStream.wrap(output));
+        out.setComment("signed Candlepin export for " + consumer.getUuid());
+
+        log.debug("Adding file to archive: {}", CONSUMER_EXPORT_FILE);
+        out.putNextEntry(new ZipEntry(CONSUMER_EXPORT_FILE));
+
+        Signer.Signing signing = this.signer.beginSigning();
+        try (ZipOutputStream export = new ZipOutputStream(
+            new SigningOutputStream(CloseShieldOutputStream.wrap(out), signing))) {
+
+            export.setComment("Candlepin export for " + consumer.getUuid());
+            writer.write(export);
         }
+
+        out.closeEntry();
+        addSignatureToArchive(out, signing.sign());
+        out.finish();
     }
 
     private void addSignatureToArchive(ZipOutputStream out, byte[] signature)
@@ -298,22 +312,31 @@ public class Exporter {
         out.closeEntry();
     }
 
-    private void exportMeta(File baseDir, String cdnKey)
+    private void addEntryToArchive(ZipOutputStream export, String path, EntryWriter writer)
         throws IOException {
-        File file = new File(baseDir.getCanonicalPath(), "meta.json");
-        FileWriter writer = null;
-        try {
-            writer = new FileWriter(file);
-            Meta m = new Meta(getVersion(), new Date(),
-                principalProvider.get().getName(),
-                null, cdnKey);
-            meta.export(mapper, writer, m);
-        }
-        finally {
-            if (writer != null) {
-                writer.close();
-            }
+
+        String name = EXPORT_DIR + "/" + path;
+        log.debug("Adding file to archive: {}", name);
+
+        export.putNextEntry(new ZipEntry(name));
+
+        // Exporters may close the writer they are given, which must not close the archive itself
+        try (Writer entryWriter = new OutputStreamWriter(CloseShieldOutputStream.wrap(export),
+            Charset.defaultCharset())) {
+
+            writer.write(entryWriter);
         }
+
+        export.closeEntry();
+    }
+
+    private void exportMeta(ZipOutputStream export, String cdnKey)
+        throws IOException {
+        Meta m = new Meta(getVersion(), new Date(),
+            principalProvider.get().getName(),
+            null, cdnKey);
+
+        addEntryToArchive(export, "meta.json", writer -> meta.export(mapper, writer, m));
     }
 
     private String getPrefixWebUrl(String override) {
@@ -347,23 +370,17 @@ public class Exporter {
         return map.get("version") + "-" + map.get("release");
     }
 
-    private void exportConsumer(File baseDir, Consumer consumer, String webAppPrefix, String apiUrl)
-        throws IOException {
+    private void exportConsumer(ZipOutputStream export, Consumer consumer, String webAppPrefix,
+        String apiUrl) throws IOException {
 
-        File file = new File(baseDir.getCanonicalPath(), "consumer.json");
-        try (FileWriter writer = new FileWriter(file)) {
-            this.consumerExporter.export(mapper, writer, consumer,
-                getPrefixWebUrl(webAppPrefix), getPrefixApiUrl(apiUrl));
-        }
+        addEntryToArchive(export, "consumer.json", writer -> this.consumerExporter.export(mapper, writer,
+            consumer, getPrefixWebUrl(webAppPrefix), getPrefixApiUrl(apiUrl)));
     }
 
-    private void exportEntitlementsCerts(File baseDir, Consumer consumer,
+    private void exportEntitlementsCerts(ZipOutputStream export, Consumer consumer,
         Set<Long> serials, boolean manifest)
         throws IOException {
 
-        File entCertDir = new File(baseDir.getCanonicalPath(), "entitlement_certificates");
-        entCertDir.mkdir();
-
         for (EntitlementCertificate cert : entCertAdapter.listForConsumer(consumer)) {
             if (manifest && !this.exportRules.canExport(cert.getEntitlement())) {
                 log.debug("Skipping export of entitlement cert with product: {}",
@@ -374,9 +391,10 @@ public class Exporter {
 
             if ((serials == null) || (serials.contains(cert.getSerial().getId()))) {
                 log.debug("Exporting entitlement certificate: {}", cert.getSerial());
-                File file = new File(entCertDir.getCanonicalPath(), cert.getSerial().getId() + ".pem");
+                String path = "entitlement_certificates/" + cert.getSerial().getId() + ".pem";
 
-                new CertificateExporter().exportCertificate(cert, file);
+                addEntryToArchive(export, path,
+                    writer -> new CertificateExporter().exportCertificate(cert, writer));
             }
         }
     }
@@ -385,8 +403,8 @@ public class Exporter {
      * Exports content access certificates for a consumer.
      * Consumer must belong to owner with SCA enabled.
      *
-     * @param baseDir
-     *  Base directory path.
+     * @param export
+     *  The archive to which the certificates are added.
      *
      * @param consumer
      *  Consumer for which content access certificates needs to be exported.
@@ -400,46 +418,38 @@ public class Exporter {
      * @throws ConcurrentContentPayloadCreationException
      *  if a concurrent request persists the content payload and causes a database constraint violation
      */
-    private void exportContentAccessCerts(File baseDir, Consumer consumer,
+    private void exportContentAccessCerts(ZipOutputStream export, Consumer consumer,
         Set<Long> serials) throws IOException, ConcurrentContentPayloadCreationException {
         SCACertificate contentAccessCert = this.scaCertificateGenerator.generate(consumer);
 
         if (contentAccessCert != null &&
             (serials == null || contentAccessCert.getSerial() == null ||
                 serials.contains(contentAccessCert.getSerial().getId()))) {
-            File contentAccessCertDir = new File(baseDir.getCanonicalPath(), "content_access_certificates");
-            contentAccessCertDir.mkdir();
 
             log.debug("Exporting content access certificate: {}", contentAccessCert.getSerial());
-            File file = new File(contentAccessCertDir.getCanonicalPath(),
-                contentAccessCert.getSerial().getId() + ".pem");
+            String path = "content_access_certificates/" + contentAccessCert.getSerial().getId() + ".pem";
 
-            new CertificateExporter().exportCertificate(contentAccessCert, file);
+            addEntryToArchive(export, path,
+                writer -> new CertificateExporter().exportCertificate(contentAccessCert, writer));
         }
     }
 
-    private void exportIdentityCertificate(File baseDir, Consumer consumer)
+    private void exportIdentityCertificate(ZipOutputStream export, Consumer consumer)
         throws IOException {
 
-        File idcertdir = new File(baseDir.getCanonicalPath(), "upstream_consumer");
-        idcertdir.mkdir();
-
         IdentityCertificate cert = consumer.getIdCert();
         if (cert == null) {
             throw new RuntimeException("The consumer for export does not have a valid identity certificate");
         }
 
         // paradigm dictates this should go in an exporter.export method
-        File file = new File(idcertdir.getCanonicalPath(), cert.getSerial().getId() + ".json");
-        try (FileWriter writer = new FileWriter(file)) {
-            mapper.writeValue(writer, this.translator.translate(cert, CertificateDTO.class));
-        }
+        String path = "upstream_consumer/" + cert.getSerial().getId() + ".json";
+        addEntryToArchive(export, path,
+            writer -> mapper.writeValue(writer, this.translator.translate(cert, CertificateDTO.class)));
     }
 
-    private void exportEntitlements(File baseDir, Consumer consumer)
+    private void exportEntitlements(ZipOutputStream export, Consumer consumer)
         throws IOException, ExportCreationException {
-        File entCertDir = new File(baseDir.getCanonicalPath(), "entitlements");
-        entCertDir.mkdir();
 
         for (Entitlement ent : entitlementCurator.listByConsumer(consumer)) {
             if (ent.isDirty()) {
@@ -454,17 +464,12 @@ public class Exporter {
 
             log.debug("Exporting entitlement for product {}", ent.getPool().getProductId());
 
-            File file = new File(entCertDir.getCanonicalPath(), ent.getId() + ".json");
-            try (FileWriter writer = new FileWriter(file)) {
-                entExporter.export(mapper, writer, ent);
-            }
+            addEntryToArchive(export, "entitlements/" + ent.getId() + ".json",
+                writer -> entExporter.export(mapper, writer, ent));
         }
     }
 
-    private void exportProducts(File baseDir, Consumer consumer) throws IOException {
-        File productDir = new File(baseDir.getCanonicalPath(), "products");
-        productDir.mkdir();
-
+    private void exportProducts(ZipOutputStream export, Consumer consumer) throws IOException {
         // TODO: This could be bulked into a single query rather than iterating and likely hitting
         // a bunch of lazy lookups.
         Map<String, Product> productMap = new HashMap<>();
@@ -475,13 +480,10 @@ public class Exporter {
         }
 
         for (Product product : productMap.values()) {
-            String path = productDir.getCanonicalPath();
             String productId = product.getId();
 
-            File file = new File(path, productId + ".json");
-            try (FileWriter writer = new FileWriter(file)) {
-                productExporter.export(mapper, writer, product);
-            }
+            addEntryToArchive(export, "products/" + productId + ".json",
+                writer -> productExporter.export(mapper, writer, product));
         }
     }
 
@@ -515,85 +517,84 @@ public class Exporter {
         this.collectProducts(product.getDerivedProduct(), productMap);
     }
 
-    private void exportConsumerTypes(File baseDir) throws IOException {
-        File typeDir = new File(baseDir.getCanonicalPath(), "consumer_types");
-        typeDir.mkdir();
-
+    private void exportConsumerTypes(ZipOutputStream export) throws IOException {
         for (ConsumerType type : consumerTypeCurator.listAll()) {
-            File file = new File(typeDir.getCanonicalPath(), type.getLabel() + ".json");
-            FileWriter writer = null;
-            try {
-                writer = new FileWriter(file);
-                consumerType.export(mapper, writer, type);
-            }
-            finally {
-                if (writer != null) {
-                    writer.close();
-                }
-            }
+            addEntryToArchive(export, "consumer_types/" + type.getLabel() + ".json",
+                writer -> consumerType.export(mapper, writer, type));
         }
     }
 
-    private void exportRules(File baseDir) throws IOException {
+    private void exportRules(ZipOutputStream export) throws IOException {
         // Because old candlepin servers assume to import a file in rules dir, we had to
         // move to a new directory for versioned rules file:
-        File newRulesDir = new File(baseDir.getCanonicalPath(), "rules2");
-        newRulesDir.mkdir();
-        File newRulesFile = new File(newRulesDir.getCanonicalPath(), "rules.js");
-        FileWriter writer = null;
-        try {
-            writer = new FileWriter(newRulesFile);
-            rules.export(writer);
-        }
-        finally {
-            if (writer != null) {
-                writer.close();
-            }
-        }
+        addEntryToArchive(export, "rules2/rules.js", writer -> rules.export(writer));
     }
 
-    private void exportDistributorVersions(File baseDir) throws IOException {
+    private void exportDistributorVersions(ZipOutputStream export) throws IOException {
         List<DistributorVersion> versions = distVerCurator.listAll();
         if (versions == null || versions.isEmpty()) {
             return;
         }
 
-        File distVerDir = new File(baseDir.getCanonicalPath(), "distributor_version");
-        distVerDir.mkdir();
-
-        FileWriter writer = null;
         for (DistributorVersion dv : versions) {
             if (log.isDebugEnabled()) {
                 log.debug("Exporting Distributor Version" + dv.getName());
             }
-            try {
-                File file = new File(distVerDir.getCanonicalPath(), dv.getName() + ".json");
-                writer = new FileWriter(file);
-                distVerExporter.export(mapper, writer, dv);
-            }
-            finally {
-                if (writer != null) {
-                    writer.close();
-                }
-            }
+
+            addEntryToArchive(export, "distributor_version/" + dv.getName() + ".json",
+                writer -> distVerExporter.export(mapper, writer, dv));
         }
     }
 
-    private void exportContentDeliveryNetworks(File baseDir) throws IOException {
+    private void exportContentDeliveryNetworks(ZipOutputStream export) throws IOException {
         List<Cdn> cdns = this.cdnCurator.listAll();
 
         if (cdns != null && !cdns.isEmpty()) {
-            File cdnDir = new File(baseDir.getCanonicalPath(), "content_delivery_network");
-            cdnDir.mkdir();
-
             for (Cdn cdn : cdns) {
                 log.debug("Exporting CDN: {}", cdn.getName());
-                File file = new File(cdnDir.getCanonicalPath(), cdn.getLabel() + ".json");
 
-                try (FileWriter writer = new FileWriter(file)) {
-                    cdnExporter.export(mapper, writer, cdn);
-                }
+                addEntryToArchive(export, "content_delivery_network/" + cdn.getLabel() + ".json",
+                    writer -> cdnExporter.export(mapper, writer, cdn));
             }
         }
     }
+
+    /**
+     * Writes the contents of an export into its archive.
+     */
+    @FunctionalInterface
+    private interface ExportWriter<E extends Exception> {
+        void write(ZipOutputStream export) throws IOException, ExportCreationException, E;
+    }
+
+    /**
+     * Writes the contents of a single archive entry.
+     */
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * An output stream which adds all of the data written through it to a signature.
+     */
+    private static class SigningOutputStream extends FilterOutputStream {
+        private final Signer.Signing signing;
+
+        SigningOutputStream(OutputStream output, Signer.Signing signing) {
+            super(output);
+            this.signing = signing;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            this.write(new byte[] { (byte) value }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            this.signing.update(buffer, offset, length);
+            this.out.write(buffer, offset, length);
+        }
+    }
 }
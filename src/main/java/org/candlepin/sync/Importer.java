@@ -15,6 +15,8 @@
 package org.candlepin.sync;
 
 import org.candlepin.audit.EventSink;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
 import org.candlepin.controller.RefresherFactory;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.manifest.v1.CdnDTO;
@@ -22,6 +24,7 @@ import org.candlepin.dto.manifest.v1.CertificateDTO;
 import org.candlepin.dto.manifest.v1.ConsumerDTO;
 import org.candlepin.dto.manifest.v1.ConsumerTypeDTO;
 import org.candlepin.dto.manifest.v1.DistributorVersionDTO;
+import org.candlepin.dto.manifest.v1.EntitlementDTO;
 import org.candlepin.dto.manifest.v1.ProductDTO;
 import org.candlepin.dto.manifest.v1.SubscriptionDTO;
 import org.candlepin.model.CdnCurator;
@@ -64,6 +67,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -73,6 +77,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -136,9 +141,10 @@ public class Importer {
     private final ImportRecordCurator importRecordCurator;
     private final SubscriptionReconciler subscriptionReconciler;
     private final ModelTranslator translator;
+    private final boolean streamingImport;
 
     @Inject
-    public Importer(ConsumerTypeCurator consumerTypeCurator,
+    public Importer(Configuration config, ConsumerTypeCurator consumerTypeCurator,
         RulesImporter rulesImporter, OwnerCurator ownerCurator, IdentityCertificateCurator idCertCurator,
         RefresherFactory refresherFactory, Signer signer, ExporterMetadataCurator emc,
         CertificateSerialCurator csc, EventSink sink, I18n i18n, DistributorVersionCurator distVerCurator,
@@ -163,11 +169,19 @@ public class Importer {
         this.importRecordCurator = Objects.requireNonNull(importRecordCurator);
         this.subscriptionReconciler = Objects.requireNonNull(subscriptionReconciler);
         this.translator = Objects.requireNonNull(translator);
+
+        this.streamingImport = config.getBoolean(ConfigProperties.IMPORT_STREAMING);
     }
 
     public ImportRecord loadExport(Owner owner, File archive, ConflictOverrides overrides,
         String uploadedFileName) throws ImporterException {
         try {
+            if (this.streamingImport) {
+                try (InputStream input = new FileInputStream(archive)) {
+                    return doStreamingImport(owner, archive.getName(), input, overrides, uploadedFileName);
+                }
+            }
+
             return doExport(owner, unpackExportFile(archive.getName(), new FileInputStream(archive)),
                 overrides, uploadedFileName);
         }
@@ -175,6 +189,10 @@ public class Importer {
             log.error(String.format("Could not find import archive: %s", archive.getAbsolutePath()));
             throw new ImporterException(i18n.tr("Uploaded manifest file does not exist."), e);
         }
+        catch (IOException e) {
+            log.error("Unable to read export archive", e);
+            throw new ImportExtractionException(i18n.tr("Unable to extract export archive"), e);
+        }
     }
 
     /**
@@ -190,6 +208,10 @@ public class Importer {
     public ImportRecord loadStoredExport(ManifestFile export, Owner owner, ConflictOverrides overrides,
         String uploadedFileName) throws ImporterException {
         try {
+            if (this.streamingImport) {
+                return this.streamFromService(export, owner, overrides, uploadedFileName);
+            }
+
             return doExport(owner, extractFromService(export), overrides, uploadedFileName);
         }
         catch (ManifestFileServiceException e) {
@@ -292,6 +314,41 @@ public class Importer {
         return unpackExportFile(export.getId(), export.getInputStream());
     }
 
+    /**
+     * Pulls the manifest from the {@link ManifestFileService} and imports it directly from the
+     * stored file's stream, without unpacking it.
+     *
+     * @param export
+     *  the manifest's file
+     *
+     * @param owner
+     *  the owner into which the manifest is imported
+     *
+     * @param overrides
+     *  the conflicts that are to be overridden
+     *
+     * @param uploadedFileName
+     *  the name of the file that was initially uploaded
+     *
+     * @throws ImporterException
+     *  if the manifest could not be read or imported
+     *
+     * @return
+     *  the resulting {@link ImportRecord}
+     */
+    @Transactional
+    protected ImportRecord streamFromService(ManifestFile export, Owner owner, ConflictOverrides overrides,
+        String uploadedFileName) throws ImporterException {
+
+        try (InputStream input = export.getInputStream()) {
+            return doStreamingImport(owner, export.getId(), input, overrides, uploadedFileName);
+        }
+        catch (IOException e) {
+            log.error("Unable to read export archive", e);
+            throw new ImportExtractionException(i18n.tr("Unable to extract export archive"), e);
+        }
+    }
+
     /**
      * Check to make sure the meta data is newer than the imported data.
      * @param type ExporterMetadata.TYPE_PER_USER or TYPE_SYSTEM
@@ -304,7 +361,21 @@ public class Importer {
     protected ExporterMetadata validateMetadata(String type, Owner owner, File meta,
         ConflictOverrides forcedConflicts) throws IOException, ImporterException {
 
-        Meta m = mapper.readValue(meta, Meta.class);
+        return this.validateMetadata(type, owner, mapper.readValue(meta, Meta.class), forcedConflicts);
+    }
+
+    /**
+     * Check to make sure the meta data is newer than the imported data.
+     *
+     * @param type ExporterMetadata.TYPE_PER_USER or TYPE_SYSTEM
+     * @param owner Owner in the case of PER_USER
+     * @param m the metadata read from the manifest
+     * @param forcedConflicts Conflicts we will override if encountered
+     * @throws ImporterException thrown if the metadata is invalid.
+     */
+    protected ExporterMetadata validateMetadata(String type, Owner owner, Meta m,
+        ConflictOverrides forcedConflicts) throws ImporterException {
+
         if (type == null) {
             throw new ImporterException(i18n.tr("Wrong metadata type"));
         }
@@ -378,24 +449,7 @@ public class Importer {
                 loadSignature(new File(exportDir, "signature"))
             );
 
-            if (!verifiedSignature) {
-                log.warn("Archive signature check failed.");
-
-                if (!overrides.isForced(Conflict.SIGNATURE_CONFLICT)) {
-                    /*
-                     * Normally for import conflicts that can be overridden, we try to
-                     * report them all the first time so if the user intends to override,
-                     * they can do so with just one more request. However in the case of
-                     * a bad signature, we're going to report immediately due to the nature
-                     * of what this might mean.
-                     */
-                    throw new ImportConflictException(i18n.tr("Archive failed signature check"),
-                        Conflict.SIGNATURE_CONFLICT);
-                }
-                else {
-                    log.warn("Ignoring signature check failure.");
-                }
-            }
+            this.checkSignature(verifiedSignature, overrides);
 
             File consumerExport = new File(exportDir, "consumer_export.zip");
             File consumerExportDir = extractArchive(exportDir, consumerExport.getName(),
@@ -453,6 +507,85 @@ public class Importer {
         }
     }
 
+    private void checkSignature(boolean verifiedSignature, ConflictOverrides overrides)
+        throws ImportConflictException {
+
+        if (!verifiedSignature) {
+            log.warn("Archive signature check failed.");
+
+            if (!overrides.isForced(Conflict.SIGNATURE_CONFLICT)) {
+                /*
+                 * Normally for import conflicts that can be overridden, we try to
+                 * report them all the first time so if the user intends to override,
+                 * they can do so with just one more request. However in the case of
+                 * a bad signature, we're going to report immediately due to the nature
+                 * of what this might mean.
+                 */
+                throw new ImportConflictException(i18n.tr("Archive failed signature check"),
+                    Conflict.SIGNATURE_CONFLICT);
+            }
+            else {
+                log.warn("Ignoring signature check failure.");
+            }
+        }
+    }
+
+    /**
+     * Imports a manifest read directly from the given archive stream. The archive is read in full,
+     * and its signature verified, before any of its contents are imported.
+     */
+    private ImportRecord doStreamingImport(Owner owner, String archiveName, InputStream archive,
+        ConflictOverrides overrides, String uploadedFileName) throws ImporterException {
+
+        Map<String, Object> result = new HashMap<>();
+        try {
+            ManifestContents contents = new ManifestArchiveReader(this.mapper, this.signer, this.i18n)
+                .read(archiveName, archive);
+
+            if (contents.getSignature() == null || contents.getSignature().length == 0) {
+                throw new ImportExtractionException(
+                    i18n.tr("The archive does not contain the required signature file"));
+            }
+
+            if (!contents.hasConsumerExport()) {
+                throw new ImportExtractionException(i18n.tr("The archive does not contain " +
+                    "the required consumer_export.zip file"));
+            }
+
+            this.checkSignature(contents.verifySignature(), overrides);
+
+            if (contents.getConsumerExportEntries() == 0) {
+                throw new ImportExtractionException(i18n.tr(
+                    "The archive {0} is not a properly compressed file or is empty", "consumer_export.zip"));
+            }
+
+            if (contents.isEmpty()) {
+                throw new ImportExtractionException(
+                    i18n.tr("The provided manifest has no content in the exported consumer archive"));
+            }
+
+            List<SubscriptionDTO> importSubs = importObjects(owner, contents, overrides);
+
+            result.put("subscriptions", importSubs);
+            result.put("meta", contents.getMeta());
+
+            sink.emitImportCreated(owner);
+            return recordImportSuccess(owner, result, overrides, uploadedFileName);
+        }
+        catch (ConstraintViolationException cve) {
+            log.error("Failed to import archive", cve);
+            throw new ImporterException(i18n.tr("Failed to import archive"), cve, result);
+        }
+        catch (PersistenceException pe) {
+            log.error("Failed to import archive", pe);
+            throw new ImporterException(i18n.tr("Failed to import archive"), pe, result);
+        }
+        catch (IOException e) {
+            log.error("Exception caught importing archive", e);
+            throw new ImportExtractionException(i18n.tr("Unable to extract export archive"), e, result);
+        }
+    }
+
     @SuppressWarnings("checkstyle:methodlength")
     @Transactional(rollbackOn = { IOException.class, ImporterException.class,
         RuntimeException.class, ImportConflictException.class })
@@ -542,14 +675,7 @@ public class Importer {
         }
 
         // At this point we're done checking for any potential conflicts:
-        if (!conflictExceptions.isEmpty()) {
-            log.error("Conflicts occurred during import that were not overridden:");
-            for (ImportConflictException e : conflictExceptions) {
-                log.error("{}", e.message().getConflicts());
-            }
-
-            throw new ImportConflictException(conflictExceptions);
-        }
+        this.checkConflicts(conflictExceptions);
 
         if (consumer == null) {
             throw new IllegalStateException("No consumer found during import");
@@ -584,14 +710,162 @@ public class Importer {
                 meta);
         }
 
+        this.refreshImportedSubscriptions(owner, importedSubs);
+        return importedSubs;
+    }
+
+    /**
+     * Imports the objects read from a manifest by the {@link ManifestArchiveReader}. The manifest
+     * contents are expected to have been verified before this method is called.
+     *
+     * @param owner
+     *  the owner into which the manifest is imported
+     *
+     * @param contents
+     *  the contents read from the manifest
+     *
+     * @param overrides
+     *  the conflicts that are to be overridden
+     *
+     * @throws ImporterException
+     *  if the manifest contents are incomplete, or conflict with existing data
+     *
+     * @return
+     *  the subscriptions imported from the manifest
+     */
+    @Transactional(rollbackOn = { IOException.class, ImporterException.class,
+        RuntimeException.class, ImportConflictException.class })
+    // WARNING: Keep this method public, otherwise @Transactional is ignored:
+    public List<SubscriptionDTO> importObjects(Owner owner, ManifestContents contents,
+        ConflictOverrides overrides) throws IOException, ImporterException {
+
+        ownerCurator.lock(owner);
+
+        log.debug("Importing objects for owner: {}", owner);
+
+        Meta meta = contents.getMeta();
+        if (meta == null) {
+            throw new ImporterException(i18n.tr("The archive does not contain the required meta.json file"));
+        }
+
+        if (!contents.hasSection(ImportFile.CONSUMER_TYPE.fileName())) {
+            throw new ImporterException(
+                i18n.tr("The archive does not contain the required consumer_types directory"));
+        }
+
+        if (contents.getConsumer() == null) {
+            throw new ImporterException(
+                i18n.tr("The archive does not contain the required consumer.json file"));
+        }
+
+        boolean hasProducts = contents.hasSection(ImportFile.PRODUCTS.fileName());
+        if (hasProducts && !contents.hasSection(ImportFile.ENTITLEMENTS.fileName())) {
+            throw new ImporterException(
+                i18n.tr("The archive does not contain the required entitlements directory"));
+        }
+
+        List<ExporterMetadata> exporterMetadata = new ArrayList<>();
+        List<ImportConflictException> conflictExceptions = new LinkedList<>();
+
+        if (contents.getRules() != null) {
+            rulesImporter.importObject(new StringReader(contents.getRules()));
+        }
+        else {
+            log.warn("Skipping rules import, manifest does not contain rules file: {}",
+                ImportFile.RULES_FILE.fileName());
+        }
+
+        ConsumerTypeImporter consumerTypeImporter = new ConsumerTypeImporter(consumerTypeCurator);
+        consumerTypeImporter.store(contents.getConsumerTypes().stream()
+            .map(consumerTypeImporter::createObject)
+            .collect(Collectors.toSet()));
+
+        if (contents.hasSection(ImportFile.DISTRIBUTOR_VERSIONS.fileName())) {
+            DistributorVersionImporter importer = new DistributorVersionImporter(distVerCurator);
+            importer.store(contents.getDistributorVersions().stream()
+                .map(importer::createObject)
+                .collect(Collectors.toSet()));
+        }
+
+        if (contents.hasSection(ImportFile.CONTENT_DELIVERY_NETWORKS.fileName())) {
+            CdnImporter importer = new CdnImporter(cdnCurator);
+            importer.store(contents.getCdns().stream()
+                .map(importer::createObject)
+                .collect(Collectors.toSet()));
+        }
+
+        // per user elements
+        try {
+            exporterMetadata.add(
+                this.validateMetadata(ExporterMetadata.TYPE_PER_USER, owner, meta, overrides));
+        }
+        catch (ImportConflictException e) {
+            conflictExceptions.add(e);
+        }
+
+        ConsumerDTO consumer = null;
+        try {
+            IdentityCertificate idcert = null;
+            for (CertificateDTO dtoCert : contents.getUpstreamCertificates()) {
+                idcert = this.buildIdentityCertificate(dtoCert);
+            }
+
+            consumer = this.storeConsumer(owner, contents.getConsumer(), idcert, overrides, meta);
+        }
+        catch (ImportConflictException e) {
+            conflictExceptions.add(e);
+        }
+
+        // At this point we're done checking for any potential conflicts:
+        this.checkConflicts(conflictExceptions);
+
+        if (consumer == null) {
+            throw new IllegalStateException("No consumer found during import");
+        }
+
+        // Persist the exporter metadata now that we're validated and at the point where we can
+        // commit data
+        this.expMetaCurator.saveOrUpdateAll(exporterMetadata, true, false);
+
+        List<SubscriptionDTO> importedSubs;
+        if (hasProducts) {
+            Map<String, ProductDTO> importedProductsMap = new ProductImporter(contents.getProducts(),
+                this.i18n).importProductMap();
+
+            importedSubs = this.reconcileEntitlements(owner, importedProductsMap, contents.getEntitlements(),
+                consumer.getUuid(), meta);
+        }
+        else {
+            log.warn("No products found to import, skipping product import.");
+            log.warn("No entitlements in manifest, removing all subscriptions for owner.");
+
+            importedSubs = this.reconcileEntitlements(owner, null, null, consumer.getUuid(), meta);
+        }
+
+        this.refreshImportedSubscriptions(owner, importedSubs);
+        return importedSubs;
+    }
+
+    private void checkConflicts(List<ImportConflictException> conflictExceptions)
+        throws ImportConflictException {
+
+        if (!conflictExceptions.isEmpty()) {
+            log.error("Conflicts occurred during import that were not overridden:");
+            for (ImportConflictException e : conflictExceptions) {
+                log.error("{}", e.message().getConflicts());
+            }
+
+            throw new ImportConflictException(conflictExceptions);
+        }
+    }
+
+    private void refreshImportedSubscriptions(Owner owner, List<SubscriptionDTO> importedSubs) {
         // Setup our import subscription adapter with the subscriptions imported:
         SubscriptionServiceAdapter subAdapter = new ImportSubscriptionServiceAdapter(importedSubs);
 
         this.refresherFactory.getRefresher(subAdapter)
             .add(owner)
             .run();
-
-        return importedSubs;
     }
 
     protected void importRules(File rulesFile, File metadata) throws IOException {
@@ -626,10 +900,7 @@ public class Importer {
                 log.debug("Import upstream consumeridentity certificate: {}", uc.getName());
 
                 try (Reader reader = new FileReader(uc)) {
-                    CertificateDTO dtoCert = mapper.readValue(reader, CertificateDTO.class);
-                    idcert = new IdentityCertificate();
-                    ImporterUtils.populateEntity(idcert, dtoCert);
-                    idcert.setId(dtoCert.getId());
+                    idcert = this.buildIdentityCertificate(mapper.readValue(reader, CertificateDTO.class));
                 }
             }
             else {
@@ -637,28 +908,43 @@ public class Importer {
             }
         }
 
-        ConsumerImporter importer = new ConsumerImporter(ownerCurator, idCertCurator, i18n, csCurator);
-        ConsumerDTO consumer = null;
-
+        ConsumerDTO consumer;
         try (Reader reader = new FileReader(consumerFile)) {
-            consumer = importer.createObject(mapper, reader);
-            // we can not rely on the actual ConsumerType in the ConsumerDto
-            // because it could have an id not in our database. We need to
-            // stick with the label. Hence we need to lookup the ACTUAL type
-            // by label here before attempting to store the UpstreamConsumer
-            ConsumerType type = consumerTypeCurator.getByLabel(consumer.getType().getLabel());
-            consumer.setType(this.translator.translate(type, ConsumerTypeDTO.class));
-
-            // in older manifests the web app prefix will not
-            // be on the consumer, we can use the one stored in
-            // the metadata
-            if (StringUtils.isEmpty(consumer.getUrlWeb())) {
-                consumer.setUrlWeb(meta.getWebAppPrefix());
-            }
+            consumer = mapper.readValue(reader, ConsumerDTO.class);
+        }
+
+        return this.storeConsumer(owner, consumer, idcert, forcedConflicts, meta);
+    }
+
+    private IdentityCertificate buildIdentityCertificate(CertificateDTO dtoCert) {
+        IdentityCertificate idcert = new IdentityCertificate();
+        ImporterUtils.populateEntity(idcert, dtoCert);
+        idcert.setId(dtoCert.getId());
+
+        return idcert;
+    }
 
-            importer.store(owner, consumer, forcedConflicts, idcert);
+    private ConsumerDTO storeConsumer(Owner owner, ConsumerDTO consumer, IdentityCertificate idcert,
+        ConflictOverrides forcedConflicts, Meta meta) throws SyncDataFormatException {
+
+        ConsumerImporter importer = new ConsumerImporter(ownerCurator, idCertCurator, i18n, csCurator);
+
+        // we can not rely on the actual ConsumerType in the ConsumerDto
+        // because it could have an id not in our database. We need to
+        // stick with the label. Hence we need to lookup the ACTUAL type
+        // by label here before attempting to store the UpstreamConsumer
+        ConsumerType type = consumerTypeCurator.getByLabel(consumer.getType().getLabel());
+        consumer.setType(this.translator.translate(type, ConsumerTypeDTO.class));
+
+        // in older manifests the web app prefix will not
+        // be on the consumer, we can use the one stored in
+        // the metadata
+        if (StringUtils.isEmpty(consumer.getUrlWeb())) {
+            consumer.setUrlWeb(meta.getWebAppPrefix());
         }
 
+        importer.store(owner, consumer, forcedConflicts, idcert);
+
         return consumer;
     }
 
@@ -689,6 +975,29 @@ public class Importer {
         return subscriptionsToImport;
     }
 
+    private List<SubscriptionDTO> reconcileEntitlements(Owner owner,
+        Map<String, ProductDTO> importedProductsMap, List<EntitlementDTO> entitlements, String consumerUuid,
+        Meta meta) throws SyncDataFormatException {
+
+        log.debug("Importing entitlements for owner: {}", owner);
+
+        List<SubscriptionDTO> subscriptionsToImport = new ArrayList<>();
+
+        if (importedProductsMap != null && entitlements != null) {
+            EntitlementImporter importer = new EntitlementImporter(cdnCurator, i18n, translator,
+                importedProductsMap);
+
+            for (EntitlementDTO entitlement : entitlements) {
+                subscriptionsToImport.add(importer.importObject(entitlement, owner, consumerUuid, meta));
+            }
+        }
+
+        // Reconcile the subscriptions so they line up with pools we're tracking
+        this.subscriptionReconciler.reconcile(owner, subscriptionsToImport);
+
+        return subscriptionsToImport;
+    }
+
     /**
      * Create a tar.gz archive of the exported directory.
      *
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.sync;
+
+import org.candlepin.dto.manifest.v1.CdnDTO;
+import org.candlepin.dto.manifest.v1.CertificateDTO;
+import org.candlepin.dto.manifest.v1.ConsumerDTO;
+import org.candlepin.dto.manifest.v1.ConsumerTypeDTO;
+import org.candlepin.dto.manifest.v1.DistributorVersionDTO;
+import org.candlepin.dto.manifest.v1.EntitlementDTO;
+import org.candlepin.dto.manifest.v1.ProductDTO;
+import org.candlepin.pki.impl.Signer;
+import org.candlepin.sync.Importer.ImportFile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xnap.commons.i18n.I18n;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+
+
+/**
+ * The ManifestArchiveReader reads the objects of a manifest archive directly from the archive
+ * stream, without extracting the archive or its nested consumer export to disk. The signature of
+ * the consumer export is computed while the export is read, so the caller can verify it as soon as
+ * the archive has been consumed, before any of the read objects are imported.
+ */
+public class ManifestArchiveReader {
+    private static final Logger log = LoggerFactory.getLogger(ManifestArchiveReader.class);
+
+    private static final String SIGNATURE_ENTRY = "signature";
+    private static final String CONSUMER_EXPORT_ENTRY = "consumer_export.zip";
+    private static final String EXPORT_PREFIX = "export/";
+    private static final String JSON_SUFFIX = ".json";
+
+    private final ObjectMapper mapper;
+    private final Signer signer;
+    private final I18n i18n;
+
+    public ManifestArchiveReader(ObjectMapper mapper, Signer signer, I18n i18n) {
+        this.mapper = Objects.requireNonNull(mapper);
+        this.signer = Objects.requireNonNull(signer);
+        this.i18n = Objects.requireNonNull(i18n);
+    }
+
+    /**
+     * Reads the contents of the given manifest archive. The stream is consumed in full, but is not
+     * closed by this method.
+     *
+     * @param archiveName
+     *  the name of the manifest archive, used in error messages
+     *
+     * @param archive
+     *  a stream containing the manifest archive
+     *
+     * @throws ImportExtractionException
+     *  if the archive is not a zip archive, is empty, or contains more than one signature or consumer
+     *  export
+     *
+     * @throws IOException
+     *  if the archive cannot be read, or contains malformed data
+     *
+     * @return
+     *  the contents read from the manifest archive
+     */
+    public ManifestContents read(String archiveName, InputStream archive)
+        throws IOException, ImportExtractionException {
+
+        ManifestContents contents = new ManifestContents();
+
+        ZipInputStream zip = new ZipInputStream(CloseShieldInputStream.wrap(archive));
+        ZipEntry entry = zip.getNextEntry();
+
+        if (entry == null) {
+            throw new ImportExtractionException(i18n.tr(
+                "The archive {0} is not a properly compressed file or is empty", archiveName));
+        }
+
+        while (entry != null) {
+            switch (entry.getName()) {
+                case SIGNATURE_ENTRY -> {
+                    // Only a single signature may be present, as only a single one can be verified
+                    if (contents.getSignature() != null) {
+                        throw this.duplicateEntryException(archiveName, SIGNATURE_ENTRY);
+                    }
+
+                    contents.setSignature(zip.readAllBytes());
+                }
+                case CONSUMER_EXPORT_ENTRY -> {
+                    // The signature covers a single export; any other export would be read unverified
+                    if (contents.hasConsumerExport()) {
+                        throw this.duplicateEntryException(archiveName, CONSUMER_EXPORT_ENTRY);
+                    }
+
+                    this.readConsumerExport(zip, contents);
+                }
+                default -> log.debug("Skipping unexpected manifest archive entry: {}", entry.getName());
+            }
+
+            zip.closeEntry();
+            entry = zip.getNextEntry();
+        }
+
+        return contents;
+    }
+
+    private ImportExtractionException duplicateEntryException(String archiveName, String entryName) {
+        return new ImportExtractionException(i18n.tr("The archive {0} contains more than one {1} entry",
+            archiveName, entryName));
+    }
+
+    /**
+     * Reads the nested consumer export archive from the given stream, passing every byte of the
+     * archive to a signature verification as it is read.
+     */
+    private void readConsumerExport(InputStream input, ManifestContents contents) throws IOException {
+        Signer.Verification verification = this.signer.beginVerification();
+        InputStream verifying = new VerifyingInputStream(input, verification);
+
+        ZipInputStream zip = new ZipInputStream(verifying);
+        for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+            contents.incrementConsumerExportEntries();
+
+            this.readExportEntry(zip, entry, contents);
+            zip.closeEntry();
+        }
+
+        // Consume the remainder of the export (its central directory), so the signature covers the
+        // export in full
+        byte[] buffer = new byte[4096];
+        while (verifying.read(buffer) != -1) {
+            // intentionally left empty
+        }
+
+        contents.setVerification(verification);
+    }
+
+    private void readExportEntry(ZipInputStream zip, ZipEntry entry, ManifestContents contents)
+        throws IOException {
+
+        String name = entry.getName();
+
+        if (!name.startsWith(EXPORT_PREFIX)) {
+            log.debug("Skipping consumer export entry outside of the export: {}", name);
+            return;
+        }
+
+        String path = name.substring(EXPORT_PREFIX.length());
+        if (path.isEmpty()) {
+            return;
+        }
+
+        int separator = path.indexOf('/');
+        String section = separator >= 0 ? path.substring(0, separator) : path;
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+
+        contents.addSection(section);
+        if (entry.isDirectory() || fileName.isEmpty()) {
+            return;
+        }
+
+        if (path.equals(ImportFile.META.fileName())) {
+            contents.setMeta(this.readValue(zip, Meta.class));
+        }
+        else if (path.equals(ImportFile.CONSUMER.fileName())) {
+            contents.setConsumer(this.readValue(zip, ConsumerDTO.class));
+        }
+        else if (path.equals(ImportFile.RULES_FILE.fileName())) {
+            contents.setRules(new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        else if (section.equals(ImportFile.CONSUMER_TYPE.fileName())) {
+            contents.addConsumerType(this.readValue(zip, ConsumerTypeDTO.class));
+        }
+        else if (section.equals(ImportFile.UPSTREAM_CONSUMER.fileName())) {
+            if (fileName.endsWith(JSON_SUFFIX)) {
+                log.debug("Import upstream consumeridentity certificate: {}", fileName);
+                contents.addUpstreamCertificate(this.readValue(zip, CertificateDTO.class));
+            }
+            else {
+                log.warn("Extra file found in upstream_consumer directory: {}", fileName);
+            }
+        }
+        else if (section.equals(ImportFile.DISTRIBUTOR_VERSIONS.fileName())) {
+            contents.addDistributorVersion(this.readValue(zip, DistributorVersionDTO.class));
+        }
+        else if (section.equals(ImportFile.CONTENT_DELIVERY_NETWORKS.fileName())) {
+            contents.addCdn(this.readValue(zip, CdnDTO.class));
+        }
+        else if (section.equals(ImportFile.PRODUCTS.fileName())) {
+            if (fileName.endsWith(ProductImporter.PRODUCT_FILE_SUFFIX)) {
+                String productId = fileName.substring(0,
+                    fileName.length() - ProductImporter.PRODUCT_FILE_SUFFIX.length());
+
+                contents.addProduct(productId, this.readValue(zip, ProductDTO.class));
+            }
+        }
+        else if (section.equals(ImportFile.ENTITLEMENTS.fileName())) {
+            log.debug("Importing entitlement from file: {}", fileName);
+            contents.addEntitlement(this.readValue(zip, EntitlementDTO.class));
+        }
+    }
+
+    private <T> T readValue(InputStream input, Class<T> type) throws IOException {
+        // The mapper closes the streams it reads, so we shield the archive stream from it
+        return this.mapper.readValue(CloseShieldInputStream.wrap(input), type);
+    }
+
+    /**
+     * Input stream which passes all bytes read through it to a signature verification.
+     */
+    private static class VerifyingInputStream extends FilterInputStream {
+        private final Signer.Verification verification;
+
+        VerifyingInputStream(InputStream input, Signer.Verification verification) {
+            super(input);
+            this.verification = verification;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                this.verification.update(new byte[] { (byte) value }, 0, 1);
+            }
+
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                this.verification.update(buffer, offset, count);
+            }
+
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            // Skipped bytes must still be verified, so we read them instead
+            if (count <= 0) {
+                return 0;
+            }
+
+            byte[] buffer = new byte[(int) Math.min(count, 4096)];
+            long skipped = 0;
+
+            while (skipped < count) {
+                int read = this.read(buffer, 0, (int) Math.min(buffer.length, count - skipped));
+                if (read == -1) {
+                    break;
+                }
+
+                skipped += read;
+            }
+
+            return skipped;
+        }
+
+        @Override
+        public void close() {
+            // The underlying stream belongs to the outer archive, and must not be closed here
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
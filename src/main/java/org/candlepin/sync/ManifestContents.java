@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.sync;
+
+import org.candlepin.dto.manifest.v1.CdnDTO;
+import org.candlepin.dto.manifest.v1.CertificateDTO;
+import org.candlepin.dto.manifest.v1.ConsumerDTO;
+import org.candlepin.dto.manifest.v1.ConsumerTypeDTO;
+import org.candlepin.dto.manifest.v1.DistributorVersionDTO;
+import org.candlepin.dto.manifest.v1.EntitlementDTO;
+import org.candlepin.dto.manifest.v1.ProductDTO;
+import org.candlepin.pki.impl.Signer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+
+/**
+ * The ManifestContents class holds the objects read from a manifest archive by the
+ * {@link ManifestArchiveReader}, along with the state needed to verify the archive's signature.
+ * Objects are held as they were read from the manifest, and are normalized by the importers when
+ * the contents are imported.
+ */
+public class ManifestContents {
+
+    private byte[] signature;
+    private Signer.Verification verification;
+
+    private int consumerExportEntries;
+    private final Set<String> sections;
+
+    private Meta meta;
+    private String rules;
+    private ConsumerDTO consumer;
+    private final List<ConsumerTypeDTO> consumerTypes;
+    private final List<CertificateDTO> upstreamCertificates;
+    private final List<DistributorVersionDTO> distributorVersions;
+    private final List<CdnDTO> cdns;
+    private final Map<String, ProductDTO> products;
+    private final List<EntitlementDTO> entitlements;
+
+    public ManifestContents() {
+        this.sections = new HashSet<>();
+        this.consumerTypes = new ArrayList<>();
+        this.upstreamCertificates = new ArrayList<>();
+        this.distributorVersions = new ArrayList<>();
+        this.cdns = new ArrayList<>();
+        this.products = new HashMap<>();
+        this.entitlements = new ArrayList<>();
+    }
+
+    /**
+     * Fetches the signature of the consumer export read from the manifest. If the manifest did not
+     * contain a signature, this method returns null.
+     *
+     * @return
+     *  the signature of the consumer export, or null if the manifest did not contain a signature
+     */
+    public byte[] getSignature() {
+        return this.signature;
+    }
+
+    ManifestContents setSignature(byte[] signature) {
+        this.signature = signature;
+        return this;
+    }
+
+    /**
+     * Checks whether or not the manifest contained a consumer export archive.
+     *
+     * @return
+     *  true if the manifest contained a consumer export archive; false otherwise
+     */
+    public boolean hasConsumerExport() {
+        return this.verification != null;
+    }
+
+    ManifestContents setVerification(Signer.Verification verification) {
+        this.verification = verification;
+        return this;
+    }
+
+    /**
+     * Verifies the signature read from the manifest against the consumer export archive, as it was
+     * read from the manifest.
+     *
+     * @return
+     *  true if the signature is valid for the consumer export; false if the signature is invalid, or
+     *  the manifest did not contain a signature or consumer export
+     */
+    public boolean verifySignature() {
+        if (this.verification == null || this.signature == null || this.signature.length == 0) {
+            return false;
+        }
+
+        return this.verification.verify(this.signature);
+    }
+
+    /**
+     * Fetches the number of entries found in the consumer export archive, including any entries
+     * which are not part of the export itself.
+     *
+     * @return
+     *  the number of entries in the consumer export archive
+     */
+    public int getConsumerExportEntries() {
+        return this.consumerExportEntries;
+    }
+
+    ManifestContents incrementConsumerExportEntries() {
+        ++this.consumerExportEntries;
+        return this;
+    }
+
+    /**
+     * Checks whether or not the consumer export contained the given top-level file or directory.
+     *
+     * @param section
+     *  the name of the top-level file or directory
+     *
+     * @return
+     *  true if the consumer export contained the section; false otherwise
+     */
+    public boolean hasSection(String section) {
+        return this.sections.contains(section);
+    }
+
+    /**
+     * Checks whether or not the consumer export contained any exported data.
+     *
+     * @return
+     *  true if the consumer export contained no exported data; false otherwise
+     */
+    public boolean isEmpty() {
+        return this.sections.isEmpty();
+    }
+
+    ManifestContents addSection(String section) {
+        this.sections.add(section);
+        return this;
+    }
+
+    public Meta getMeta() {
+        return this.meta;
+    }
+
+    ManifestContents setMeta(Meta meta) {
+        this.meta = meta;
+        return this;
+    }
+
+    public String getRules() {
+        return this.rules;
+    }
+
+    ManifestContents setRules(String rules) {
+        this.rules = rules;
+        return this;
+    }
+
+    public ConsumerDTO getConsumer() {
+        return this.consumer;
+    }
+
+    ManifestContents setConsumer(ConsumerDTO consumer) {
+        this.consumer = consumer;
+        return this;
+    }
+
+    public List<ConsumerTypeDTO> getConsumerTypes() {
+        return Collections.unmodifiableList(this.consumerTypes);
+    }
+
+    ManifestContents addConsumerType(ConsumerTypeDTO consumerType) {
+        this.consumerTypes.add(consumerType);
+        return this;
+    }
+
+    public List<CertificateDTO> getUpstreamCertificates() {
+        return Collections.unmodifiableList(this.upstreamCertificates);
+    }
+
+    ManifestContents addUpstreamCertificate(CertificateDTO certificate) {
+        this.upstreamCertificates.add(certificate);
+        return this;
+    }
+
+    public List<DistributorVersionDTO> getDistributorVersions() {
+        return Collections.unmodifiableList(this.distributorVersions);
+    }
+
+    ManifestContents addDistributorVersion(DistributorVersionDTO distributorVersion) {
+        this.distributorVersions.add(distributorVersion);
+        return this;
+    }
+
+    public List<CdnDTO> getCdns() {
+        return Collections.unmodifiableList(this.cdns);
+    }
+
+    ManifestContents addCdn(CdnDTO cdn) {
+        this.cdns.add(cdn);
+        return this;
+    }
+
+    /**
+     * Fetches the products read from the manifest, mapped by the product ID taken from the name of
+     * the file defining each product.
+     *
+     * @return
+     *  a mapping of product IDs to the products read from the manifest
+     */
+    public Map<String, ProductDTO> getProducts() {
+        return Collections.unmodifiableMap(this.products);
+    }
+
+    ManifestContents addProduct(String productId, ProductDTO product) {
+        this.products.put(productId, product);
+        return this;
+    }
+
+    public List<EntitlementDTO> getEntitlements() {
+        return Collections.unmodifiableList(this.entitlements);
+    }
+
+    ManifestContents addEntitlement(EntitlementDTO entitlement) {
+        this.entitlements.add(entitlement);
+        return this;
+    }
+}
@@ -49,6 +49,7 @@ public class ProductImporter {
     private Map<String, ProductDTO> cache;
 
     private File productDir;
+    private Map<String, ProductDTO> manifestProducts;
     private ObjectMapper mapper;
     private I18n i18n;
 
@@ -74,6 +75,31 @@ public class ProductImporter {
         this.i18n = i18n;
     }
 
+    /**
+     * Creates a product importer which imports the given products, already read from the manifest,
+     * rather than reading them from an extracted products directory.
+     *
+     * @param manifestProducts
+     *  a mapping of product IDs to the products defined in the manifest
+     *
+     * @param i18n
+     *  the internationalization module to use for translating error messages
+     */
+    public ProductImporter(Map<String, ProductDTO> manifestProducts, I18n i18n) {
+        if (manifestProducts == null) {
+            throw new IllegalArgumentException("manifestProducts is null");
+        }
+
+        if (i18n == null) {
+            throw new IllegalArgumentException("i18n is null");
+        }
+
+        this.cache = new HashMap<>();
+
+        this.manifestProducts = manifestProducts;
+        this.i18n = i18n;
+    }
+
     /**
      * Normalizes the given product to ensure it is safe for import. If the given product is null,
      * this method returns null.
@@ -148,19 +174,30 @@ public class ProductImporter {
     private ProductDTO readFromManifest(String productId) throws IOException {
         log.debug("loading product from manifest: {}", productId);
 
-        File pfile = new File(this.productDir, productId + PRODUCT_FILE_SUFFIX);
-        if (!pfile.exists()) {
-            return null;
-        }
+        ProductDTO product;
 
-        try (Reader reader = new FileReader(pfile)) {
-            ProductDTO product = this.mapper.readValue(reader, ProductDTO.class);
-            this.normalizeProduct(product);
-            this.resolveChildren(product);
+        if (this.manifestProducts != null) {
+            product = this.manifestProducts.get(productId);
+            if (product == null) {
+                return null;
+            }
+        }
+        else {
+            File pfile = new File(this.productDir, productId + PRODUCT_FILE_SUFFIX);
+            if (!pfile.exists()) {
+                return null;
+            }
 
-            this.cache.put(product.getId(), product);
-            return product;
+            try (Reader reader = new FileReader(pfile)) {
+                product = this.mapper.readValue(reader, ProductDTO.class);
+            }
         }
+
+        this.normalizeProduct(product);
+        this.resolveChildren(product);
+
+        this.cache.put(product.getId(), product);
+        return product;
     }
 
     /**
@@ -322,9 +359,24 @@ public class ProductImporter {
      *  a mapping of products defined in the manifest
      */
     public Map<String, ProductDTO> importProductMap() throws IOException {
-        File[] files = this.productDir.listFiles();
-
         Map<String, ProductDTO> output = new HashMap<>();
+
+        if (this.manifestProducts != null) {
+            try {
+                for (String productId : this.manifestProducts.keySet()) {
+                    ProductDTO product = this.importProduct(productId);
+                    output.put(product.getId(), product);
+                }
+            }
+            catch (SyncDataFormatException e) {
+                // Given that we're feeding it the product IDs from the manifest, this shouldn't ever happen
+                throw new RuntimeException(e);
+            }
+
+            return output;
+        }
+
+        File[] files = this.productDir.listFiles();
         Pattern fnPattern = Pattern.compile("^(.*)" + Pattern.quote(PRODUCT_FILE_SUFFIX));
 
         try {
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+
+/**
+ * Utility methods for exposing runtime statistics of Candlepin components through the platform
+ * MBean server.
+ */
+public final class MBeanUtil {
+    private static final Logger log = LoggerFactory.getLogger(MBeanUtil.class);
+
+    /** The JMX domain under which all Candlepin MBeans are registered */
+    public static final String DOMAIN = "org.candlepin";
+
+    private MBeanUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Registers the given MBean with the platform MBean server using the specified type as the
+     * object name's type key. If an MBean is already registered with the same name, it will be
+     * replaced with the provided instance.
+     * <p></p>
+     * Failure to register an MBean is never fatal: statistics are an optional facility and any
+     * exceptions raised during registration are logged and discarded.
+     *
+     * @param type
+     *  the type to use in the object name of the MBean; cannot be null or empty
+     *
+     * @param mbean
+     *  the MBean instance to register; cannot be null
+     *
+     * @throws IllegalArgumentException
+     *  if type is null or empty, or mbean is null
+     *
+     * @return
+     *  the object name under which the MBean was registered, or null if the registration failed
+     */
+    public static ObjectName register(String type, Object mbean) {
+        if (type == null || type.isEmpty()) {
+            throw new IllegalArgumentException("type is null or empty");
+        }
+
+        if (mbean == null) {
+            throw new IllegalArgumentException("mbean is null");
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN, "type", type);
+
+            try {
+                server.registerMBean(mbean, name);
+            }
+            catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(mbean, name);
+            }
+
+            log.debug("Registered MBean: {}", name);
+            return name;
+        }
+        catch (JMException e) {
+            log.warn("Unable to register MBean for type: {}", type, e);
+            return null;
+        }
+    }
+
+    /**
+     * Unregisters the MBean registered with the given object name. If the name is null or no MBean
+     * is registered with the name, this method silently returns.
+     *
+     * @param name
+     *  the object name of the MBean to unregister
+     */
+    public static void unregister(ObjectName name) {
+        if (name == null) {
+            return;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+        catch (JMException e) {
+            log.warn("Unable to unregister MBean: {}", name, e);
+        }
+    }
+}
@@ -14,6 +14,7 @@
  */
 package org.candlepin.util;
 
+import org.candlepin.cache.HuffmanContentCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.controller.util.PromotedContent;
@@ -56,12 +57,16 @@ public class X509V3ExtensionUtil extends X509Util {
     private final Configuration config;
     private final EntitlementCurator entCurator;
     private final Huffman huffman;
+    private final HuffmanContentCache contentCache;
 
     @Inject
-    public X509V3ExtensionUtil(Configuration config, EntitlementCurator entCurator, Huffman huffman) {
+    public X509V3ExtensionUtil(Configuration config, EntitlementCurator entCurator, Huffman huffman,
+        HuffmanContentCache contentCache) {
+
         this.config = Objects.requireNonNull(config);
         this.entCurator = Objects.requireNonNull(entCurator);
         this.huffman = Objects.requireNonNull(huffman);
+        this.contentCache = Objects.requireNonNull(contentCache);
     }
 
     public Set<X509Extension> getExtensions() {
@@ -83,8 +88,17 @@ public class X509V3ExtensionUtil extends X509Util {
     }
 
     private byte[] retrieveContentValue(EntitlementBody eb) throws IOException {
-        List<Content> contentList = getContentList(eb);
-        return this.huffman.retrieveContentValue(contentList);
+        // The compressed blob only depends on the set of content paths, so the paths are put in a
+        // canonical order to allow certificates with the same content to share a cached blob
+        List<String> paths = getContentList(eb).stream()
+            .map(Content::getPath)
+            .distinct()
+            .sorted()
+            .toList();
+
+        return this.contentCache.get(paths, () -> this.huffman.retrieveContentValue(paths.stream()
+            .map(path -> new Content().setPath(path))
+            .toList()));
     }
 
     public EntitlementBody createEntitlementBodyContent(
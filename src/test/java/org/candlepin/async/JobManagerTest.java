@@ -1323,6 +1323,51 @@ public class JobManagerTest {
         assertEquals(JobState.QUEUED, ejob2.getState());
     }
 
+    @Test
+    public void testInitializationRepostsQueuedJobsWithLocalDispatch() throws Exception {
+        this.config.setProperty(ConfigProperties.ASYNC_JOBS_LOCAL_DISPATCH, "true");
+
+        AsyncJobStatus running = this.createJobStatus("running_job", null, JobState.RUNNING);
+        running.setJobKey(TestJob.JOB_KEY);
+
+        AsyncJobStatus queued = this.createJobStatus("queued_job", null, JobState.QUEUED);
+        queued.setJobKey(TestJob.JOB_KEY);
+
+        AsyncJobStatusQueryArguments runningInput = new AsyncJobStatusQueryArguments()
+            .setJobStates(Collections.singleton(JobState.RUNNING))
+            .setExecutors(Collections.singleton(Util.getHostname()));
+
+        AsyncJobStatusQueryArguments queuedInput = new AsyncJobStatusQueryArguments()
+            .setJobStates(Collections.singleton(JobState.QUEUED))
+            .setOrigins(Collections.singleton(Util.getHostname()));
+
+        doReturn(List.of(running)).when(this.jobCurator).findJobs(eq(runningInput));
+        doReturn(List.of(queued, running)).when(this.jobCurator).findJobs(eq(queuedInput));
+
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+
+        ArgumentCaptor<JobMessage> captor = ArgumentCaptor.forClass(JobMessage.class);
+        verify(this.dispatcher, times(2)).postJobMessage(captor.capture());
+        verify(this.dispatcher).commit();
+
+        List<String> reposted = captor.getAllValues().stream()
+            .map(JobMessage::getJobId)
+            .toList();
+
+        assertEquals(List.of("queued_job", "running_job"), reposted);
+        assertEquals(JobState.QUEUED, running.getState());
+    }
+
+    @Test
+    public void testInitializationDoesNotRepostQueuedJobsWithoutLocalDispatch() throws Exception {
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+
+        verify(this.dispatcher, never()).postJobMessage(any(JobMessage.class));
+        verify(this.dispatcher, never()).commit();
+    }
+
     @Test
     public void testJobIsQueuedIfConstraintsPass() throws Exception {
         Map<String, Object> ejobData1 = new HashMap<>();
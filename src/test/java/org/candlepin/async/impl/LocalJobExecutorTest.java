@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.async.JobMessage;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+public class LocalJobExecutorTest {
+
+    private DevConfig config;
+    private LocalJobExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.ASYNC_JOBS_THREADS, "4");
+        this.config.setProperty(ConfigProperties.ASYNC_JOBS_THREAD_SHUTDOWN_TIMEOUT, "5");
+
+        this.executor = new LocalJobExecutor(this.config);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdown();
+    }
+
+    @Test
+    public void testMessagesAreHeldUntilStarted() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        List<String> executed = new CopyOnWriteArrayList<>();
+
+        this.executor.setHandler(message -> {
+            executed.add(message.getJobId());
+            latch.countDown();
+        });
+
+        this.executor.submit(new JobMessage("job-1", "key"));
+        this.executor.submit(new JobMessage("job-2", "key"));
+
+        assertFalse(this.executor.isStarted());
+        assertEquals(2, this.executor.getPendingCount());
+        assertTrue(executed.isEmpty());
+
+        this.executor.start();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, this.executor.getPendingCount());
+        assertTrue(executed.containsAll(List.of("job-1", "job-2")));
+    }
+
+    @Test
+    public void testConcurrencyLimitIsHonored() throws Exception {
+        int jobs = 12;
+        CountDownLatch latch = new CountDownLatch(jobs);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        this.executor.setConcurrencyLimit("limited", 2);
+        this.executor.setHandler(message -> {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+
+            try {
+                Thread.sleep(20);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            running.decrementAndGet();
+            latch.countDown();
+        });
+
+        this.executor.start();
+        for (int i = 0; i < jobs; ++i) {
+            this.executor.submit(new JobMessage("job-" + i, "limited"));
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 2, "more than two jobs ran concurrently: " + maxRunning.get());
+    }
+
+    @Test
+    public void testLimitsDoNotBlockOtherKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch other = new CountDownLatch(1);
+
+        this.executor.setConcurrencyLimit("limited", 1);
+        this.executor.setHandler(message -> {
+            try {
+                if ("limited".equals(message.getJobKey())) {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                else {
+                    other.countDown();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        this.executor.start();
+        this.executor.submit(new JobMessage("job-1", "limited"));
+        this.executor.submit(new JobMessage("job-2", "limited"));
+        this.executor.submit(new JobMessage("job-3", "other"));
+
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+        assertEquals(1, this.executor.getPendingCount());
+
+        release.countDown();
+    }
+
+    @Test
+    public void testHandlerFailuresDoNotStallLane() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+
+        this.executor.setConcurrencyLimit("key", 1);
+        this.executor.setHandler(message -> {
+            latch.countDown();
+            throw new IllegalStateException("failed");
+        });
+
+        this.executor.start();
+        this.executor.submit(new JobMessage("job-1", "key"));
+        this.executor.submit(new JobMessage("job-2", "key"));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStartRequiresHandler() {
+        assertThrows(IllegalStateException.class, () -> this.executor.start());
+    }
+
+    @Test
+    public void testSubmitRequiresMessage() {
+        assertThrows(IllegalArgumentException.class, () -> this.executor.submit(null));
+    }
+}
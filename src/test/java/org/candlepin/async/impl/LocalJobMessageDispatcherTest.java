@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.async.JobConstraints;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.async.JobMessage;
+import org.candlepin.async.JobMessageDispatcher;
+import org.candlepin.async.JobStateManagementException;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.messaging.CPMSessionFactory;
+import org.candlepin.model.AsyncJobStatus;
+import org.candlepin.model.AsyncJobStatus.JobState;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.persist.UnitOfWork;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+
+
+public class LocalJobMessageDispatcherTest {
+
+    private DevConfig config;
+    private LocalJobExecutor executor;
+    private CPMSessionFactory sessionFactory;
+    private UnitOfWork unitOfWork;
+
+    @BeforeEach
+    public void setUp() {
+        this.config = TestConfig.defaults();
+        this.executor = mock(LocalJobExecutor.class);
+        this.sessionFactory = mock(CPMSessionFactory.class);
+        this.unitOfWork = mock(UnitOfWork.class);
+    }
+
+    private JobMessageDispatcher buildDispatcher() throws Exception {
+        return new LocalJobMessageDispatcher(this.config, this.sessionFactory, new ObjectMapper(),
+            this.executor);
+    }
+
+    private LocalJobMessageReceiver buildReceiver() throws Exception {
+        return new LocalJobMessageReceiver(this.config, this.sessionFactory, new ObjectMapper(),
+            this.unitOfWork, this.executor);
+    }
+
+    @Test
+    public void testMessagesAreSubmittedOnCommit() throws Exception {
+        JobMessageDispatcher dispatcher = this.buildDispatcher();
+        JobMessage message = new JobMessage("job_id-1", "job_key-1");
+
+        dispatcher.postJobMessage(message);
+        verify(this.executor, never()).submit(any(JobMessage.class));
+
+        dispatcher.commit();
+        verify(this.executor).submit(message);
+    }
+
+    @Test
+    public void testMessagesAreDiscardedOnRollback() throws Exception {
+        JobMessageDispatcher dispatcher = this.buildDispatcher();
+
+        dispatcher.postJobMessage(new JobMessage("job_id-1", "job_key-1"));
+        dispatcher.rollback();
+        dispatcher.commit();
+
+        verify(this.executor, never()).submit(any(JobMessage.class));
+    }
+
+    @Test
+    public void testThrottlingConstraintsSetConcurrencyLimit() throws Exception {
+        JobMessageDispatcher dispatcher = this.buildDispatcher();
+
+        dispatcher.registerConstraints("job_key-1", List.of(
+            JobConstraints.uniqueByArguments("arg"),
+            JobConstraints.throttledByJobKey("job_key-1", 3),
+            JobConstraints.throttledByJobKey("job_key-2", 5)));
+
+        verify(this.executor).setConcurrencyLimit("job_key-1", 3);
+        verify(this.executor, never()).setConcurrencyLimit(eq("job_key-2"), anyInt());
+    }
+
+    @Test
+    public void testReceiverControlsExecutor() throws Exception {
+        LocalJobMessageReceiver receiver = this.buildReceiver();
+
+        receiver.initialize(mock(JobManager.class));
+        verify(this.executor).setHandler(any());
+        verify(this.executor, never()).start();
+
+        receiver.start();
+        verify(this.executor).start();
+
+        receiver.suspend();
+        verify(this.executor).suspend();
+
+        receiver.shutdown();
+        verify(this.executor).shutdown();
+    }
+
+    @Test
+    public void testFailedJobsAreNotResubmitted() throws Exception {
+        LocalJobMessageReceiver receiver = this.buildReceiver();
+        JobManager manager = mock(JobManager.class);
+        JobMessage message = new JobMessage("job_id-1", "job_key-1");
+
+        doThrow(new JobExecutionException("failed")).when(manager).executeJob(message);
+        receiver.handleMessage(manager, message);
+
+        verify(this.executor, never()).submit(any(JobMessage.class), anyLong());
+        verify(this.unitOfWork).end();
+    }
+
+    @Test
+    public void testRetryableStateFailuresAreResubmitted() throws Exception {
+        LocalJobMessageReceiver receiver = this.buildReceiver();
+        JobManager manager = mock(JobManager.class);
+        JobMessage message = new JobMessage("job_id-1", "job_key-1");
+
+        AsyncJobStatus status = new AsyncJobStatus();
+        doThrow(new JobStateManagementException(status, JobState.RUNNING, JobState.FAILED_WITH_RETRY,
+            "failed")).when(manager).executeJob(message);
+        receiver.handleMessage(manager, message);
+
+        verify(this.executor).submit(eq(message), anyLong());
+    }
+
+    @Test
+    public void testUnexpectedFailuresAreResubmitted() throws Exception {
+        LocalJobMessageReceiver receiver = this.buildReceiver();
+        JobManager manager = mock(JobManager.class);
+        JobMessage message = new JobMessage("job_id-1", "job_key-1");
+
+        doThrow(new IllegalStateException("not running")).when(manager).executeJob(message);
+        receiver.handleMessage(manager, message);
+
+        verify(this.executor).submit(eq(message), anyLong());
+    }
+}
@@ -18,10 +18,13 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,10 +33,10 @@ import org.candlepin.async.JobArguments;
 import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobExecutionContext;
 import org.candlepin.async.JobExecutionException;
-import org.candlepin.audit.EventSink;
-import org.candlepin.controller.Entitler;
-import org.candlepin.model.Consumer;
-import org.candlepin.model.ConsumerCurator;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.controller.OrgHealEngine;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.test.TestUtil;
@@ -41,43 +44,31 @@ import org.candlepin.test.TestUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.invocation.InvocationOnMock;
-import org.mockito.stubbing.Answer;
 import org.xnap.commons.i18n.I18n;
 import org.xnap.commons.i18n.I18nFactory;
 
 import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-
-import javax.persistence.EntityManager;
 
 
 public class HealEntireOrgJobTest {
 
-    private Entitler entitler;
-    private EventSink eventSink;
-    private ConsumerCurator consumerCurator;
+    private OrgHealEngine healEngine;
     private OwnerCurator ownerCurator;
+    private DevConfig config;
     private I18n i18n;
 
     @BeforeEach
     public void init() {
         i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.READ_PROPERTIES | I18nFactory.FALLBACK);
 
-        this.entitler = mock(Entitler.class);
-        this.eventSink = mock(EventSink.class);
-        this.consumerCurator = mock(ConsumerCurator.class);
+        this.healEngine = mock(OrgHealEngine.class);
         this.ownerCurator = mock(OwnerCurator.class);
-
-        EntityManager entityManager = mock(EntityManager.class);
-        TestUtil.mockTransactionalFunctionality(entityManager, this.consumerCurator);
+        this.config = TestConfig.defaults();
     }
 
     private HealEntireOrgJob createJob() {
-        return new HealEntireOrgJob(entitler, eventSink, consumerCurator, ownerCurator, i18n);
+        return new HealEntireOrgJob(healEngine, ownerCurator, config, i18n);
     }
 
     @Test
@@ -86,24 +77,16 @@ public class HealEntireOrgJobTest {
         owner.setContentAccessMode("entitlement");
         doReturn(owner).when(ownerCurator).getByKey(owner.getKey());
 
-        Consumer consumer1 = TestUtil.createConsumer(owner);
-        Consumer consumer2 = TestUtil.createConsumer(owner);
-        Map<String, Consumer> consumers = new HashMap<String, Consumer>() {
-            {
-                put(consumer1.getUuid(), consumer1);
-                put(consumer2.getUuid(), consumer2);
-            }
-        };
-
-        doReturn(List.of(consumer1.getUuid(), consumer2.getUuid()))
-            .when(ownerCurator).getConsumerUuids(owner);
-
-        doAnswer(new Answer<Consumer>() {
-            @Override
-            public Consumer answer(InvocationOnMock invocation) throws Throwable {
-                return consumers.get(invocation.getArguments()[0].toString());
-            }
-        }).when(consumerCurator).getConsumer(anyString());
+        doAnswer(invocation -> {
+            OrgHealEngine.HealListener listener = invocation.getArgument(4);
+            listener.consumerHealed("uuid1", true);
+            listener.consumerHealed("uuid2", false);
+            listener.partitionHealed();
+            listener.consumerHealed("uuid3", true);
+            listener.partitionHealed();
+
+            return null;
+        }).when(healEngine).heal(eq(owner), any(Date.class), eq(100), eq(4), any());
 
         Date entitleDate = new Date();
         JobConfig config = HealEntireOrgJob.createJobConfig().setOwner(owner).setEntitleDate(entitleDate);
@@ -116,67 +99,90 @@ public class HealEntireOrgJobTest {
 
         healEntireOrgJob.execute(context);
 
+        verify(healEngine, times(1)).heal(eq(owner), eq(entitleDate), eq(100), eq(4), any());
         verify(context, times(1)).setJobResult(captor.capture());
         Object result = captor.getValue();
 
-        StringBuilder expectedResult = new StringBuilder();
-        expectedResult.append("Successfully healed consumer with UUID: ").append(consumer1.getUuid())
-            .append("\n");
-        expectedResult.append("Successfully healed consumer with UUID: ").append(consumer2.getUuid())
-            .append("\n");
+        String expectedResult = "Successfully healed consumer with UUID: uuid1\n" +
+            "Healing failed for consumer with UUID: uuid2\n" +
+            "Successfully healed consumer with UUID: uuid3\n";
 
-        assertEquals(expectedResult.toString(), result.toString());
+        assertEquals(expectedResult, result.toString());
     }
 
     @Test
-    public void testGetConsumerException() throws JobExecutionException {
+    public void testHealEntireOrgJobCapsResultLines() throws JobExecutionException {
         Owner owner = this.createTestOwner(HealEntireOrgJob.OWNER_KEY, "log_level");
         owner.setContentAccessMode("entitlement");
-        // owner.setAutobindDisabled(false);
         doReturn(owner).when(ownerCurator).getByKey(owner.getKey());
 
-        Consumer consumer1 = TestUtil.createConsumer(owner);
-        Consumer consumer2 = TestUtil.createConsumer(owner);
+        this.config.setProperty(ConfigProperties.jobConfig(HealEntireOrgJob.JOB_KEY,
+            HealEntireOrgJob.CFG_MAX_RESULT_LINES), "2");
+
+        doAnswer(invocation -> {
+            OrgHealEngine.HealListener listener = invocation.getArgument(4);
+            listener.consumerHealed("uuid1", true);
+            listener.partitionHealed();
+            listener.consumerHealed("uuid2", false);
+            listener.consumerHealed("uuid3", true);
+            listener.consumerHealed("uuid4", true);
+            listener.partitionHealed();
 
-        doReturn(List.of(consumer1.getUuid(), consumer2.getUuid()))
-            .when(ownerCurator).getConsumerUuids(owner);
+            return null;
+        }).when(healEngine).heal(eq(owner), any(Date.class), eq(100), eq(4), any());
 
-        doAnswer(new Answer<Consumer>() {
+        JobConfig config = HealEntireOrgJob.createJobConfig().setOwner(owner).setEntitleDate(new Date());
 
-            @Override
-            public Consumer answer(InvocationOnMock invocation) throws Throwable {
-                String uuid = invocation.getArguments()[0].toString();
+        JobExecutionContext context = mock(JobExecutionContext.class);
+        when(context.getJobArguments()).thenReturn(config.getJobArguments());
 
-                if (consumer2.getUuid().equals(uuid)) {
-                    return consumer2;
-                }
+        this.createJob().execute(context);
 
-                throw new Exception("Consumer not found");
-            }
-        }).when(consumerCurator).getConsumer(anyString());
+        String expectedResult = "Successfully healed consumer with UUID: uuid1\n" +
+            "Healing failed for consumer with UUID: uuid2\n" +
+            "Results omitted for 2 more consumers\n";
 
-        Date entitleDate = new Date();
-        JobConfig config = HealEntireOrgJob.createJobConfig().setOwner(owner).setEntitleDate(entitleDate);
+        verify(context, times(1)).setJobResult(expectedResult);
+    }
+
+    @Test
+    public void testHealEntireOrgJobUsesConfiguredPartitioning() throws JobExecutionException {
+        Owner owner = this.createTestOwner(HealEntireOrgJob.OWNER_KEY, "log_level");
+        owner.setContentAccessMode("entitlement");
+        doReturn(owner).when(ownerCurator).getByKey(owner.getKey());
+
+        this.config.setProperty(ConfigProperties.jobConfig(HealEntireOrgJob.JOB_KEY,
+            HealEntireOrgJob.CFG_PARTITION_SIZE), "25");
+        this.config.setProperty(ConfigProperties.jobConfig(HealEntireOrgJob.JOB_KEY,
+            HealEntireOrgJob.CFG_THREADS), "1");
+
+        JobConfig config = HealEntireOrgJob.createJobConfig().setOwner(owner).setEntitleDate(new Date());
 
         JobExecutionContext context = mock(JobExecutionContext.class);
         when(context.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HealEntireOrgJob healEntireOrgJob = this.createJob();
+        this.createJob().execute(context);
 
-        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(healEngine, times(1)).heal(eq(owner), any(Date.class), eq(25), eq(1), any());
+    }
 
-        healEntireOrgJob.execute(context);
+    @Test
+    public void testInvalidPartitionSize() {
+        Owner owner = this.createTestOwner(HealEntireOrgJob.OWNER_KEY, "log_level");
+        owner.setContentAccessMode("entitlement");
+        doReturn(owner).when(ownerCurator).getByKey(owner.getKey());
 
-        verify(context, times(1)).setJobResult(captor.capture());
-        Object result = captor.getValue();
+        this.config.setProperty(ConfigProperties.jobConfig(HealEntireOrgJob.JOB_KEY,
+            HealEntireOrgJob.CFG_PARTITION_SIZE), "0");
 
-        final StringBuilder expectedResult = new StringBuilder();
-        expectedResult.append("Healing failed for consumer with UUID: ").append(consumer1.getUuid())
-            .append("\n");
-        expectedResult.append("Successfully healed consumer with UUID: ").append(consumer2.getUuid())
-            .append("\n");
+        JobConfig config = HealEntireOrgJob.createJobConfig().setOwner(owner).setEntitleDate(new Date());
 
-        assertEquals(expectedResult.toString(), result.toString());
+        JobExecutionContext context = mock(JobExecutionContext.class);
+        when(context.getJobArguments()).thenReturn(config.getJobArguments());
+
+        HealEntireOrgJob healEntireOrgJob = this.createJob();
+        assertThrows(JobExecutionException.class, () -> healEntireOrgJob.execute(context));
+        verify(healEngine, never()).heal(any(), any(), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -22,9 +22,11 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -39,16 +41,20 @@ import org.candlepin.async.JobExecutionException;
 import org.candlepin.audit.EventFactory;
 import org.candlepin.audit.EventSink;
 import org.candlepin.auth.Principal;
+import org.candlepin.cache.ReferenceDataCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.dto.api.server.v1.ConsumerDTO;
+import org.candlepin.dto.api.server.v1.HypervisorIdDTO;
+import org.candlepin.dto.api.server.v1.HypervisorUpdateResultDTO;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.ConsumerType;
 import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
 import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.DistributorVersionCurator;
 import org.candlepin.model.EnvironmentCurator;
 import org.candlepin.model.HypervisorId;
 import org.candlepin.model.Owner;
@@ -64,10 +70,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
 
 
 public class HypervisorUpdateJobTest {
@@ -128,9 +140,12 @@ public class HypervisorUpdateJobTest {
             "\"guestIds\" : [{\"guestId\" : \"guestId_1_999\"}]" +
             "}]}";
 
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(ownerCurator, consumerTypeCurator,
+            mock(DistributorVersionCurator.class), config);
+
         hypervisorUpdateAction = new HypervisorUpdateAction(
-            consumerCurator, consumerTypeCurator, consumerResource, subAdapter, translator, config,
-            sink, evtFactory);
+            consumerCurator, consumerTypeCurator, referenceDataCache, consumerResource, subAdapter,
+            translator, config, sink, evtFactory);
 
         TestUtil.mockTransactionalFunctionality(entityManager, this.consumerCurator);
     }
@@ -185,10 +200,10 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
-        verify(consumerCurator).create(any(Consumer.class));
+        verify(consumerCurator).create(any(Consumer.class), eq(true));
     }
 
     @Test
@@ -200,11 +215,11 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
         ArgumentCaptor<Consumer> argument = ArgumentCaptor.forClass(Consumer.class);
-        verify(consumerCurator).create(argument.capture());
+        verify(consumerCurator).create(argument.capture(), eq(true));
         Consumer created = argument.getValue();
         assertEquals("createReporterId", created.getHypervisorId().getReporterId());
     }
@@ -226,11 +241,11 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
         verify(consumerResource).checkForFactsUpdate(any(Consumer.class), any(ConsumerDTO.class));
-        verify(consumerCurator, times(1)).update(any(Consumer.class));
+        verify(consumerCurator, times(1)).update(any(Consumer.class), eq(true));
     }
 
     @Test
@@ -250,7 +265,7 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
         assertEquals("updateReporterId", hypervisor.getHypervisorId().getReporterId());
@@ -285,12 +300,12 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> updateCaptor = ArgumentCaptor.forClass(Consumer.class);
-        verify(consumerCurator, times(1)).update(updateCaptor.capture());
+        verify(consumerCurator, times(1)).update(updateCaptor.capture(), eq(true));
 
         Consumer updated = updateCaptor.getValue();
         assertEquals("expected_hypervisor_id", updated.getHypervisorId().getHypervisorId());
@@ -324,12 +339,12 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> createCaptor = ArgumentCaptor.forClass(Consumer.class);
-        verify(consumerCurator, times(1)).create(createCaptor.capture());
+        verify(consumerCurator, times(1)).create(createCaptor.capture(), eq(true));
 
         Consumer created = createCaptor.getValue();
         assertEquals("expected_hypervisor_id", created.getHypervisorId().getHypervisorId());
@@ -350,7 +365,7 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
         verify(consumerResource, never()).createConsumerFromDTO(any(ConsumerDTO.class),
@@ -375,11 +390,121 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
     }
 
+    @Test
+    public void batchedHypervisorUpdateFetchesExistingHostsInBulk() throws JobExecutionException {
+        when(ownerCurator.getByKey("joe")).thenReturn(owner);
+        when(this.config.getInt(ConfigProperties.jobConfig(HypervisorUpdateJob.JOB_KEY,
+            HypervisorUpdateJob.CFG_BATCH_SIZE))).thenReturn(10);
+
+        Consumer hypervisor = new Consumer();
+        hypervisor.ensureUUID();
+        hypervisor.setName("hypervisor_name");
+        hypervisor.setOwner(owner);
+        hypervisor.setHypervisorId(new HypervisorId().setHypervisorId("uuid_999"));
+
+        when(consumerCurator.getHypervisorsByHypervisorIds(eq("joe"), anyCollection()))
+            .thenReturn(Map.of("uuid_999", hypervisor));
+
+        JobConfig config = createJobConfig("batchReporterId");
+        JobExecutionContext ctx = mock(JobExecutionContext.class);
+        when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
+
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
+            hypervisorUpdateAction, objectMapper);
+        job.execute(ctx);
+
+        verify(consumerCurator, never()).getHypervisor(anyString(), anyString());
+        verify(consumerCurator, never()).lock(any(Consumer.class));
+        InOrder inOrder = inOrder(consumerCurator);
+        inOrder.verify(consumerCurator).lock(List.of(hypervisor));
+        inOrder.verify(consumerCurator).refresh(List.of(hypervisor));
+        inOrder.verify(consumerCurator).update(hypervisor, false);
+        verify(consumerCurator).flush();
+        assertEquals("batchReporterId", hypervisor.getHypervisorId().getReporterId());
+        assertEquals(1, hypervisor.getGuestIds().size());
+    }
+
+    @Test
+    public void batchedHypervisorUpdateMatchesOnSystemUuid() {
+        Consumer system = new Consumer();
+        system.ensureUUID();
+        system.setName("system_name");
+        system.setOwner(owner);
+
+        when(consumerCurator.getHypervisorsByHypervisorIds(eq("joe"), anyCollection()))
+            .thenReturn(Map.of());
+        when(consumerCurator.getConsumersBySystemUuids(eq("joe"), anyCollection()))
+            .thenReturn(Map.of("my-uuid", system));
+
+        ConsumerDTO host = new ConsumerDTO()
+            .name("host")
+            .hypervisorId(new HypervisorIdDTO().hypervisorId("host_1"))
+            .facts(Map.of(Consumer.Facts.DMI_SYSTEM_UUID, "MY-UUID"));
+
+        HypervisorUpdateResultDTO result = hypervisorUpdateAction
+            .update(owner, new ArrayList<>(List.of(host)), true, "joe user", null, 10)
+            .getResult();
+
+        verify(consumerCurator).getConsumersBySystemUuids(eq("joe"), eq(Set.of("my-uuid")));
+        verify(consumerCurator, never()).create(any(Consumer.class), anyBoolean());
+        verify(consumerCurator).update(system, false);
+        assertEquals("host_1", system.getHypervisorId().getHypervisorId());
+        assertEquals(1, result.getUpdated().size());
+    }
+
+    @Test
+    public void batchedHypervisorUpdateReportsMissingHostsIndividually() {
+        when(consumerCurator.getHypervisorsByHypervisorIds(eq("joe"), anyCollection()))
+            .thenReturn(Map.of());
+
+        List<ConsumerDTO> hosts = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            hosts.add(new ConsumerDTO()
+                .name("host_" + i)
+                .hypervisorId(new HypervisorIdDTO().hypervisorId("host_" + i)));
+        }
+
+        HypervisorUpdateResultDTO result = hypervisorUpdateAction
+            .update(owner, hosts, false, "joe user", null, 2)
+            .getResult();
+
+        assertEquals(5, result.getFailedUpdate().size());
+        assertEquals(0, result.getCreated().size());
+        verify(consumerCurator, times(3)).flush();
+
+        // Existing hosts are fetched within each batch's transaction
+        verify(consumerCurator, times(3)).getHypervisorsByHypervisorIds(eq("joe"), anyCollection());
+    }
+
+    @Test
+    public void failedHypervisorBatchIsRetriedPerHost() {
+        when(consumerCurator.getHypervisorsByHypervisorIds(eq("joe"), anyCollection()))
+            .thenReturn(Map.of());
+        when(consumerCurator.create(any(Consumer.class), eq(false)))
+            .thenThrow(new PersistenceException("batch failure"));
+
+        List<ConsumerDTO> hosts = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            hosts.add(new ConsumerDTO()
+                .name("host_" + i)
+                .hypervisorId(new HypervisorIdDTO().hypervisorId("host_" + i)));
+        }
+
+        HypervisorUpdateResultDTO result = hypervisorUpdateAction
+            .update(owner, hosts, true, "joe user", null, 10)
+            .getResult();
+
+        verify(sink).rollback();
+        verify(consumerCurator, times(3)).create(any(Consumer.class), eq(true));
+        assertEquals(3, result.getCreated().size());
+        assertEquals(0, result.getFailedUpdate().size());
+    }
+
     private JobConfig createJobConfig(final String reporterId) {
         return HypervisorUpdateJob.createJobConfig()
             .setOwner(owner)
@@ -417,12 +542,12 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> updateCaptor = ArgumentCaptor.forClass(Consumer.class);
-        verify(consumerCurator, times(1)).update(updateCaptor.capture());
+        verify(consumerCurator, times(1)).update(updateCaptor.capture(), eq(true));
         Consumer updated = updateCaptor.getValue();
 
         assertNotNull(updated.getRHCloudProfileModified());
@@ -448,12 +573,12 @@ public class HypervisorUpdateJobTest {
         when(consumerCurator.getConsumerBySystemUuid(any(String.class), any(String.class)))
             .thenReturn(new Consumer());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> updateCaptor = ArgumentCaptor.forClass(Consumer.class);
-        verify(consumerCurator, times(1)).create(updateCaptor.capture());
+        verify(consumerCurator, times(1)).create(updateCaptor.capture(), eq(true));
         Consumer updated = updateCaptor.getValue();
 
         assertNotNull(updated.getRHCloudProfileModified());
@@ -494,12 +619,12 @@ public class HypervisorUpdateJobTest {
         JobExecutionContext ctx = mock(JobExecutionContext.class);
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
-        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator,
+        HypervisorUpdateJob job = new HypervisorUpdateJob(this.config, ownerCurator,
             hypervisorUpdateAction, objectMapper);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> updateCaptor = ArgumentCaptor.forClass(Consumer.class);
-        verify(consumerCurator, times(1)).update(updateCaptor.capture());
+        verify(consumerCurator, times(1)).update(updateCaptor.capture(), eq(true));
         Consumer updated = updateCaptor.getValue();
 
         assertSame(hypervisor, updated);
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyByte;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.async.impl.ActiveMQSessionFactory;
+import org.candlepin.auth.PrincipalData;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.util.ObjectMapperFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+
+/**
+ * Test suite for the EventOutbox class
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EventOutboxTest {
+
+    @Mock
+    private ClientSessionFactory mockClientSessionFactory;
+    @Mock
+    private ClientSession mockClientSession;
+    @Mock
+    private ClientProducer mockClientProducer;
+    @Mock
+    private ClientMessage mockClientMessage;
+
+    @TempDir
+    private Path spoolDir;
+
+    private DevConfig config;
+    private ObjectMapper mapper;
+    private ActiveMQSessionFactory sessionFactory;
+    private EventOutbox outbox;
+
+    @BeforeEach
+    public void init() throws Exception {
+        doReturn(this.mockClientSession).when(this.mockClientSessionFactory).createSession();
+        doReturn(this.mockClientProducer).when(this.mockClientSession).createProducer(anyString());
+        doReturn(this.mockClientMessage).when(this.mockClientSession).createMessage(anyByte(), anyBoolean());
+        doAnswer(iom -> ActiveMQBuffers.fixedBuffer(2000)).when(this.mockClientMessage).getBodyBuffer();
+
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.AUDIT_OUTBOX_ENABLED, "true");
+
+        this.mapper = ObjectMapperFactory.getObjectMapper();
+        this.sessionFactory = new TestingActiveMQSessionFactory(null, this.mockClientSessionFactory);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (this.outbox != null) {
+            this.outbox.shutdown();
+        }
+    }
+
+    private EventOutbox buildOutbox() {
+        this.outbox = new EventOutbox(this.sessionFactory, this.mapper, this.config);
+        return this.outbox;
+    }
+
+    private Event buildEvent(Event.Target target) {
+        return new Event(Event.Type.CREATED, target, new PrincipalData(null, "admin"))
+            .setEntityId("entity-" + target.name());
+    }
+
+    @Test
+    public void testDisabledOutboxRejectsEvents() {
+        this.config.setProperty(ConfigProperties.AUDIT_OUTBOX_ENABLED, "false");
+        EventOutbox outbox = this.buildOutbox();
+
+        assertFalse(outbox.isEnabled());
+        List<Event> events = List.of(buildEvent(Event.Target.OWNER));
+        assertThrows(IllegalStateException.class, () -> outbox.enqueue(events));
+    }
+
+    @Test
+    public void testEnqueueRequiresEvents() {
+        EventOutbox outbox = this.buildOutbox();
+
+        assertThrows(IllegalArgumentException.class, () -> outbox.enqueue(null));
+        assertThrows(IllegalArgumentException.class, () -> outbox.enqueue(null, List.of()));
+    }
+
+    @Test
+    public void testEventsArePublishedBeforeShutdownCompletes() throws Exception {
+        EventOutbox outbox = this.buildOutbox();
+        assertTrue(outbox.isEnabled());
+
+        outbox.enqueue(List.of(buildEvent(Event.Target.OWNER), buildEvent(Event.Target.CONSUMER)));
+        outbox.enqueue("event.custom", List.of(buildEvent(Event.Target.POOL)));
+        outbox.shutdown();
+
+        verify(this.mockClientProducer, times(3)).send(any(ClientMessage.class));
+        verify(this.mockClientSession, atLeastOnce())
+            .createProducer(MessageAddress.DEFAULT_EVENT_MESSAGE_ADDRESS);
+        verify(this.mockClientSession).createProducer("event.custom");
+        verify(this.mockClientMessage).putStringProperty(EventSinkImpl.EVENT_TARGET_KEY, "POOL");
+        verify(this.mockClientSession, never()).rollback();
+
+        assertEquals(3, outbox.getQueued());
+        assertEquals(3, outbox.getPublished());
+        assertEquals(0, outbox.getDropped());
+        assertEquals(0, outbox.getDepth());
+        assertTrue(outbox.getLastPublishLatency() >= 0);
+    }
+
+    @Test
+    public void testEventsAreDroppedAfterShutdownWithoutSpool() {
+        EventOutbox outbox = this.buildOutbox();
+        outbox.shutdown();
+        outbox.enqueue(List.of(buildEvent(Event.Target.OWNER), buildEvent(Event.Target.CONSUMER)));
+
+        assertEquals(0, outbox.getQueued());
+        assertEquals(0, outbox.getPublished());
+        assertEquals(2, outbox.getDropped());
+    }
+
+    @Test
+    public void testUnpublishedEventsAreSpooledAndReplayed() throws Exception {
+        this.config.setProperty(ConfigProperties.AUDIT_OUTBOX_SPOOL_DIR, this.spoolDir.toString());
+        doThrow(new ActiveMQException("broker unavailable")).when(this.mockClientSession).commit();
+
+        EventOutbox outbox = this.buildOutbox();
+        outbox.enqueue(List.of(buildEvent(Event.Target.OWNER), buildEvent(Event.Target.CONSUMER)));
+        outbox.shutdown();
+
+        assertEquals(0, outbox.getPublished());
+        assertEquals(2, outbox.getSpooled());
+        assertEquals(0, outbox.getDropped());
+
+        assertEquals(2, this.countSpooledEvents());
+
+        // Once the broker recovers, a new outbox should replay the spooled events
+        doNothing().when(this.mockClientSession).commit();
+
+        EventOutbox replayed = this.buildOutbox();
+        replayed.shutdown();
+
+        assertEquals(2, replayed.getPublished());
+        assertEquals(0, this.countSpooledEvents());
+    }
+
+    private long countSpooledEvents() throws Exception {
+        long count = 0;
+
+        try (Stream<Path> files = Files.list(this.spoolDir)) {
+            for (Path file : files.toList()) {
+                count += Files.readAllLines(file).size();
+            }
+        }
+
+        return count;
+    }
+}
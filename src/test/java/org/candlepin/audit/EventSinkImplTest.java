@@ -17,6 +17,7 @@ package org.candlepin.audit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
 import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyByte;
 import static org.mockito.Mockito.anyString;
@@ -91,6 +92,8 @@ public class EventSinkImplTest {
     private ServerLocator mockLocator;
     @Mock
     private CandlepinModeManager mockModeManager;
+    @Mock
+    private EventOutbox mockOutbox;
 
     private ConsumerTypeCurator mockConsumerTypeCurator;
     private EnvironmentCurator mockEnvironmentCurator;
@@ -143,7 +146,7 @@ public class EventSinkImplTest {
      */
     private EventSinkImpl createEventSink(final ClientSessionFactory sessionFactory) throws Exception {
         EventSinkImpl sink = new EventSinkImpl(eventFilter, factory, mapper,
-            TestConfig.defaults(), this.amqSessionFactory, mockModeManager);
+            TestConfig.defaults(), this.amqSessionFactory, mockModeManager, mockOutbox);
         return sink;
     }
 
@@ -257,4 +260,32 @@ public class EventSinkImplTest {
         verify(mockClientProducer).send(any(ClientMessage.class));
     }
 
+    @Test
+    public void sendEventsShouldHandEventsToOutboxWhenEnabled() throws Exception {
+        doReturn(true).when(this.mockOutbox).isEnabled();
+
+        Event event1 = this.factory.ownerCreated(this.o);
+        Event event2 = this.factory.consumerCreated(TestUtil.createConsumer());
+
+        eventSinkImpl.queueEvent(event1);
+        eventSinkImpl.queueEvent(event2);
+        verify(this.mockOutbox, never()).enqueue(anyCollection());
+
+        eventSinkImpl.sendEvents();
+        verify(this.mockOutbox).enqueue(List.of(event1, event2));
+        verify(mockSessionFactory, never()).createSession();
+    }
+
+    @Test
+    public void rollbackShouldDiscardOutboxEvents() throws Exception {
+        doReturn(true).when(this.mockOutbox).isEnabled();
+
+        eventSinkImpl.emitOwnerCreated(this.o);
+        eventSinkImpl.rollback();
+        eventSinkImpl.sendEvents();
+
+        verify(this.mockOutbox, never()).enqueue(anyCollection());
+        verify(mockSessionFactory, never()).createSession();
+    }
+
 }
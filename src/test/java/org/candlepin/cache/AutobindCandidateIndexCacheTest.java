@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.model.AutobindCandidateIndex;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+
+
+public class AutobindCandidateIndexCacheTest {
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.CACHE_AUTOBIND_CANDIDATES_TTL, "30000");
+    }
+
+    private BiFunction<String, Date, AutobindCandidateIndex> countingLoader(AtomicInteger counter) {
+        return (ownerId, activeOn) -> {
+            counter.incrementAndGet();
+            return new AutobindCandidateIndex();
+        };
+    }
+
+    @Test
+    public void testIndexIsBuiltOncePerOwner() {
+        AutobindCandidateIndexCache cache = new AutobindCandidateIndexCache(this.config);
+        AtomicInteger counter = new AtomicInteger();
+        Date now = new Date();
+
+        AutobindCandidateIndex first = cache.get("owner-1", now, this.countingLoader(counter));
+        AutobindCandidateIndex second = cache.get("owner-1", now, this.countingLoader(counter));
+        AutobindCandidateIndex other = cache.get("owner-2", now, this.countingLoader(counter));
+
+        assertTrue(cache.isEnabled());
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testIndexIsReusedForLaterDates() {
+        AutobindCandidateIndexCache cache = new AutobindCandidateIndexCache(this.config);
+        AtomicInteger counter = new AtomicInteger();
+        Date now = new Date();
+
+        AutobindCandidateIndex first = cache.get("owner", now, this.countingLoader(counter));
+        AutobindCandidateIndex later = cache.get("owner", new Date(now.getTime() + 1000),
+            this.countingLoader(counter));
+
+        assertSame(first, later);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void testIndexIsRebuiltForEarlierDates() {
+        AutobindCandidateIndexCache cache = new AutobindCandidateIndexCache(this.config);
+        AtomicInteger counter = new AtomicInteger();
+        Date now = new Date();
+
+        AutobindCandidateIndex first = cache.get("owner", now, this.countingLoader(counter));
+        AutobindCandidateIndex earlier = cache.get("owner", new Date(now.getTime() - 1000),
+            this.countingLoader(counter));
+
+        assertNotSame(first, earlier);
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysBuildsIndex() {
+        this.config.setProperty(ConfigProperties.CACHE_AUTOBIND_CANDIDATES_TTL, "0");
+        AutobindCandidateIndexCache cache = new AutobindCandidateIndexCache(this.config);
+        AtomicInteger counter = new AtomicInteger();
+        Date now = new Date();
+
+        cache.get("owner", now, this.countingLoader(counter));
+        cache.get("owner", now, this.countingLoader(counter));
+
+        assertFalse(cache.isEnabled());
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testEvictOwnerOnlyEvictsThatOwner() {
+        AutobindCandidateIndexCache cache = new AutobindCandidateIndexCache(this.config);
+        AtomicInteger counter = new AtomicInteger();
+        Date now = new Date();
+
+        cache.get("owner-1", now, this.countingLoader(counter));
+        cache.get("owner-2", now, this.countingLoader(counter));
+        cache.evictOwner("owner-1");
+        cache.get("owner-1", now, this.countingLoader(counter));
+        cache.get("owner-2", now, this.countingLoader(counter));
+
+        assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void testPoolChangeEvictsIndexOfPoolOwner() {
+        AutobindCandidateIndexCache cache = new AutobindCandidateIndexCache(this.config);
+        AutobindCandidateIndexCacheInvalidator invalidator =
+            new AutobindCandidateIndexCacheInvalidator(cache);
+        AtomicInteger counter = new AtomicInteger();
+        Date now = new Date();
+
+        cache.get("owner-1", now, this.countingLoader(counter));
+        cache.get("owner-2", now, this.countingLoader(counter));
+        invalidator.evict(new Pool().setOwner(new Owner().setId("owner-1")));
+        cache.get("owner-1", now, this.countingLoader(counter));
+        cache.get("owner-2", now, this.countingLoader(counter));
+
+        assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void testProductChangeEvictsAllIndexes() {
+        AutobindCandidateIndexCache cache = new AutobindCandidateIndexCache(this.config);
+        AutobindCandidateIndexCacheInvalidator invalidator =
+            new AutobindCandidateIndexCacheInvalidator(cache);
+        AtomicInteger counter = new AtomicInteger();
+        Date now = new Date();
+
+        cache.get("owner-1", now, this.countingLoader(counter));
+        cache.get("owner-2", now, this.countingLoader(counter));
+        invalidator.evict(new Product());
+        cache.get("owner-1", now, this.countingLoader(counter));
+        cache.get("owner-2", now, this.countingLoader(counter));
+
+        assertEquals(4, counter.get());
+    }
+
+    @Test
+    public void testGetRejectsNullArguments() {
+        AutobindCandidateIndexCache cache = new AutobindCandidateIndexCache(this.config);
+        Date now = new Date();
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null, now, (id, date) -> null));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("owner", null, (id, date) -> null));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("owner", now, null));
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Pool;
+import org.candlepin.policy.js.compliance.ComplianceReason;
+import org.candlepin.policy.js.compliance.ComplianceStatus;
+import org.candlepin.test.TestUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+
+
+public class ComplianceStatusCacheTest {
+
+    private static final String FINGERPRINT = "fingerprint";
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        this.config = TestConfig.defaults();
+    }
+
+    private Entitlement buildEntitlement(Date start, Date end) {
+        Pool pool = new Pool()
+            .setId(TestUtil.randomString())
+            .setStartDate(start)
+            .setEndDate(end);
+
+        return new Entitlement()
+            .setId(TestUtil.randomString())
+            .setPool(pool)
+            .setQuantity(1);
+    }
+
+    private ComplianceStatus buildStatus(Date date, Entitlement entitlement) {
+        ComplianceStatus status = new ComplianceStatus(date);
+        status.addCompliantProduct("product-1", entitlement);
+        status.addNonCompliantProduct("product-2");
+
+        ComplianceReason reason = new ComplianceReason();
+        reason.setKey(ComplianceReason.ReasonKeys.NOT_COVERED);
+        reason.getAttributes().put(ComplianceReason.Attributes.PRODUCT_ID, "product-2");
+        status.getReasons().add(reason);
+
+        return status;
+    }
+
+    @Test
+    public void testCachedStatusIsRebuiltWithCurrentEntitlements() {
+        Entitlement entitlement = this.buildEntitlement(TestUtil.createDate(2020, 1, 1),
+            TestUtil.createDate(2030, 1, 1));
+        Date date = TestUtil.createDate(2024, 1, 1);
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+
+        cache.put(FINGERPRINT, date, List.of(entitlement), this.buildStatus(date, entitlement));
+
+        Entitlement current = new Entitlement()
+            .setId(entitlement.getId())
+            .setPool(entitlement.getPool());
+        Date requested = TestUtil.createDate(2025, 1, 1);
+
+        ComplianceStatus status = cache.get(FINGERPRINT, requested, List.of(current));
+
+        assertNotNull(status);
+        assertEquals(requested, status.getDate());
+        assertEquals(ComplianceStatus.RED, status.getStatus());
+        assertThat(status.getNonCompliantProducts()).containsExactly("product-2");
+        assertThat(status.getCompliantProducts()).containsOnlyKeys("product-1");
+        assertSame(current, status.getCompliantProducts().get("product-1").iterator().next());
+        assertThat(status.getReasons()).singleElement()
+            .returns(ComplianceReason.ReasonKeys.NOT_COVERED, ComplianceReason::getKey);
+    }
+
+    @Test
+    public void testCachedReasonsAreNotShared() {
+        Entitlement entitlement = this.buildEntitlement(null, null);
+        Date date = new Date();
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+
+        cache.put(FINGERPRINT, date, List.of(entitlement), this.buildStatus(date, entitlement));
+
+        ComplianceStatus first = cache.get(FINGERPRINT, date, List.of(entitlement));
+        ComplianceStatus second = cache.get(FINGERPRINT, date, List.of(entitlement));
+
+        assertNotSame(first.getReasons().iterator().next(), second.getReasons().iterator().next());
+    }
+
+    @Test
+    public void testCachedStatusIsNotUsedAcrossEntitlementBoundaries() {
+        Entitlement entitlement = this.buildEntitlement(TestUtil.createDate(2020, 1, 1),
+            TestUtil.createDate(2030, 1, 1));
+        Entitlement future = this.buildEntitlement(TestUtil.createDate(2026, 1, 1),
+            TestUtil.createDate(2027, 1, 1));
+        List<Entitlement> entitlements = List.of(entitlement, future);
+        Date date = TestUtil.createDate(2024, 1, 1);
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+
+        cache.put(FINGERPRINT, date, entitlements, this.buildStatus(date, entitlement));
+
+        assertNotNull(cache.get(FINGERPRINT, TestUtil.createDate(2025, 12, 1), entitlements));
+        assertNull(cache.get(FINGERPRINT, TestUtil.createDate(2026, 2, 1), entitlements));
+        assertNull(cache.get(FINGERPRINT, TestUtil.createDate(2019, 12, 1), entitlements));
+    }
+
+    @Test
+    public void testCachedStatusIsNotUsedPastCompliantUntil() {
+        Entitlement entitlement = this.buildEntitlement(null, null);
+        Date date = TestUtil.createDate(2024, 1, 1);
+        ComplianceStatus status = this.buildStatus(date, entitlement);
+        status.setCompliantUntil(TestUtil.createDate(2024, 6, 1));
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+
+        cache.put(FINGERPRINT, date, List.of(entitlement), status);
+
+        assertNotNull(cache.get(FINGERPRINT, TestUtil.createDate(2024, 5, 1), List.of(entitlement)));
+        assertNull(cache.get(FINGERPRINT, TestUtil.createDate(2024, 7, 1), List.of(entitlement)));
+    }
+
+    @Test
+    public void testCachedStatusIsNotUsedWhenEntitlementsAreMissing() {
+        Entitlement entitlement = this.buildEntitlement(null, null);
+        Date date = new Date();
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+
+        cache.put(FINGERPRINT, date, List.of(entitlement), this.buildStatus(date, entitlement));
+
+        assertNull(cache.get(FINGERPRINT, date, List.of()));
+        assertNull(cache.get("other", date, List.of(entitlement)));
+    }
+
+    @Test
+    public void testStatusWithUnpersistedEntitlementsIsNotCached() {
+        Entitlement entitlement = this.buildEntitlement(null, null).setId(null);
+        Date date = new Date();
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+
+        cache.put(FINGERPRINT, date, List.of(entitlement), new ComplianceStatus(date));
+
+        assertNull(cache.get(FINGERPRINT, date, List.of(entitlement)));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        this.config.setProperty(ConfigProperties.CACHE_COMPLIANCE_STATUS_TTL, "0");
+        Date date = new Date();
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+
+        assertFalse(cache.isEnabled());
+        cache.put(FINGERPRINT, date, List.of(), new ComplianceStatus(date));
+
+        assertNull(cache.get(FINGERPRINT, date, List.of()));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        Date date = new Date();
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+
+        cache.put(FINGERPRINT, date, List.of(), new ComplianceStatus(date));
+        assertNotNull(cache.get(FINGERPRINT, date, List.of()));
+
+        cache.removeAll();
+        assertNull(cache.get(FINGERPRINT, date, List.of()));
+    }
+
+    @Test
+    public void testGetRequiresArguments() {
+        ComplianceStatusCache cache = new ComplianceStatusCache(this.config);
+        Date date = new Date();
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null, date, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(FINGERPRINT, null, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(FINGERPRINT, date, null));
+    }
+}
@@ -0,0 +1,534 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.model.ContentAccessPayload;
+import org.candlepin.test.TestUtil;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+
+
+public class ContentAccessPayloadCacheTest {
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        config = TestConfig.defaults();
+        config.setProperty(ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_TTL, "3600000");
+    }
+
+    private ContentAccessPayload createPayload(String ownerId, String payloadKey, Date timestamp) {
+        return new ContentAccessPayload()
+            .setId(TestUtil.randomString())
+            .setOwnerId(ownerId)
+            .setPayloadKey(payloadKey)
+            .setPayload(TestUtil.randomString("payload-"))
+            .setTimestamp(timestamp);
+    }
+
+    @Test
+    public void testCacheCreationWithInvalidDuration() {
+        config.setProperty(ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_TTL, "-1000");
+
+        assertThrows(ConfigurationException.class, () -> new ContentAccessPayloadCache(config, () -> null));
+    }
+
+    @Test
+    public void testCacheCreationWithInvalidMaxEntriesConfig() {
+        config.setProperty(ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_MAX_ENTRIES, "-100");
+
+        assertThrows(ConfigurationException.class, () -> new ContentAccessPayloadCache(config, () -> null));
+    }
+
+    @Test
+    public void testGetRequiresOwnerId() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null, "key", new Date(), () -> null));
+    }
+
+    @Test
+    public void testGetRequiresPayloadKey() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("owner", null, new Date(), () -> null));
+    }
+
+    @Test
+    public void testGetRequiresLoader() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("owner", "key", new Date(), null));
+    }
+
+    @Test
+    public void testGetLoadsAndCachesPayload() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date contentUpdated = new Date(System.currentTimeMillis() - 10000);
+        ContentAccessPayload expected = this.createPayload("owner", "key", new Date());
+        AtomicInteger loads = new AtomicInteger();
+
+        ContentAccessPayload first = cache.get("owner", "key", contentUpdated, () -> {
+            loads.incrementAndGet();
+            return expected;
+        });
+
+        ContentAccessPayload second = cache.get("owner", "key", contentUpdated, () -> {
+            loads.incrementAndGet();
+            return this.createPayload("owner", "key", new Date());
+        });
+
+        assertThat(loads.get()).isEqualTo(1);
+
+        for (ContentAccessPayload actual : List.of(first, second)) {
+            assertThat(actual)
+                .isNotNull()
+                .isNotSameAs(expected)
+                .returns(expected.getId(), ContentAccessPayload::getId)
+                .returns(expected.getOwnerId(), ContentAccessPayload::getOwnerId)
+                .returns(expected.getPayloadKey(), ContentAccessPayload::getPayloadKey)
+                .returns(expected.getPayload(), ContentAccessPayload::getPayload)
+                .returns(expected.getTimestamp(), ContentAccessPayload::getTimestamp);
+        }
+
+        // Changes to the returned payloads must not leak back into the cache
+        assertThat(first).isNotSameAs(second);
+    }
+
+    @Test
+    public void testGetReloadsPayloadOlderThanContentUpdate() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date built = new Date(System.currentTimeMillis() - 10000);
+        ContentAccessPayload stale = this.createPayload("owner", "key", built);
+        ContentAccessPayload fresh = this.createPayload("owner", "key", new Date());
+
+        cache.get("owner", "key", built, () -> stale);
+        ContentAccessPayload actual = cache.get("owner", "key", new Date(built.getTime() + 1), () -> fresh);
+
+        assertThat(actual)
+            .returns(fresh.getPayload(), ContentAccessPayload::getPayload);
+    }
+
+    @Test
+    public void testGetReturnsPayloadBuiltAtContentUpdate() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date built = new Date();
+        ContentAccessPayload expected = this.createPayload("owner", "key", built);
+
+        cache.get("owner", "key", built, () -> expected);
+        ContentAccessPayload actual = cache.get("owner", "key", built,
+            () -> this.createPayload("owner", "key", new Date()));
+
+        assertThat(actual)
+            .returns(expected.getPayload(), ContentAccessPayload::getPayload);
+    }
+
+    @Test
+    public void testGetTreatsNullContentUpdateAsCurrent() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        ContentAccessPayload expected = this.createPayload("owner", "key", new Date(0));
+
+        cache.get("owner", "key", null, () -> expected);
+        ContentAccessPayload actual = cache.get("owner", "key", null,
+            () -> this.createPayload("owner", "key", new Date()));
+
+        assertThat(actual)
+            .returns(expected.getPayload(), ContentAccessPayload::getPayload);
+    }
+
+    @Test
+    public void testGetSeparatesOwnersAndKeys() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+
+        ContentAccessPayload payload1 = this.createPayload("owner1", "key", now);
+        ContentAccessPayload payload2 = this.createPayload("owner2", "key", now);
+        ContentAccessPayload payload3 = this.createPayload("owner1", "key2", now);
+
+        cache.get("owner1", "key", now, () -> payload1);
+        cache.get("owner2", "key", now, () -> payload2);
+        cache.get("owner1", "key2", now, () -> payload3);
+
+        assertThat(cache.get("owner1", "key", now, () -> null))
+            .returns(payload1.getPayload(), ContentAccessPayload::getPayload);
+        assertThat(cache.get("owner2", "key", now, () -> null))
+            .returns(payload2.getPayload(), ContentAccessPayload::getPayload);
+        assertThat(cache.get("owner1", "key2", now, () -> null))
+            .returns(payload3.getPayload(), ContentAccessPayload::getPayload);
+    }
+
+    @Test
+    public void testGetDoesNotCacheNullPayloads() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+        ContentAccessPayload expected = this.createPayload("owner", "key", now);
+
+        assertNull(cache.get("owner", "key", now, () -> null));
+        assertThat(cache.get("owner", "key", now, () -> expected))
+            .returns(expected.getPayload(), ContentAccessPayload::getPayload);
+    }
+
+    @Test
+    public void testGetPropagatesLoaderExceptions() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        IOException expected = new IOException("load failed");
+
+        IOException actual = assertThrows(IOException.class,
+            () -> cache.get("owner", "key", new Date(), () -> {
+                throw expected;
+            }));
+
+        assertThat(actual).isSameAs(expected);
+
+        // The failure should not leave anything behind in the cache
+        ContentAccessPayload payload = this.createPayload("owner", "key", new Date());
+        assertThat(cache.get("owner", "key", null, () -> payload))
+            .returns(payload.getPayload(), ContentAccessPayload::getPayload);
+    }
+
+    @Test
+    public void testGetPropagatesLoaderRuntimeExceptions() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("owner", "key", new Date(), () -> {
+            throw new IllegalStateException();
+        }));
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysLoadsPayload() throws Exception {
+        config.setProperty(ConfigProperties.CACHE_CONTENT_ACCESS_PAYLOAD_TTL, "0");
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; ++i) {
+            cache.get("owner", "key", now, () -> {
+                loads.incrementAndGet();
+                return this.createPayload("owner", "key", now);
+            });
+        }
+
+        assertFalse(cache.isEnabled());
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentGetsLoadOnce() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+        int threads = 8;
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ContentAccessPayload>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+
+                    return cache.get("owner", "key", now, () -> {
+                        loads.incrementAndGet();
+
+                        // Give the other threads time to pile up behind this load
+                        Thread.sleep(200);
+                        return this.createPayload("owner", "key", now);
+                    });
+                }));
+            }
+
+            start.countDown();
+
+            String expected = null;
+            for (Future<ContentAccessPayload> future : futures) {
+                ContentAccessPayload payload = future.get(10, TimeUnit.SECONDS);
+                expected = expected != null ? expected : payload.getPayload();
+
+                assertThat(payload)
+                    .returns(expected, ContentAccessPayload::getPayload);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+
+        cache.get("owner", "key", now, () -> this.createPayload("owner", "key", now));
+        cache.get("owner", "key2", now, () -> this.createPayload("owner", "key2", now));
+
+        cache.remove("owner", "key");
+
+        assertNull(cache.get("owner", "key", now, () -> null));
+        assertThat(cache.get("owner", "key2", now, () -> null)).isNotNull();
+    }
+
+    @Test
+    public void testRemoveAllForOwner() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+
+        cache.get("owner1", "key", now, () -> this.createPayload("owner1", "key", now));
+        cache.get("owner1", "key2", now, () -> this.createPayload("owner1", "key2", now));
+        cache.get("owner2", "key", now, () -> this.createPayload("owner2", "key", now));
+
+        cache.removeAll("owner1");
+
+        assertNull(cache.get("owner1", "key", now, () -> null));
+        assertNull(cache.get("owner1", "key2", now, () -> null));
+        assertThat(cache.get("owner2", "key", now, () -> null)).isNotNull();
+    }
+
+    @Test
+    public void testRemoveAll() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+
+        cache.get("owner1", "key", now, () -> this.createPayload("owner1", "key", now));
+        cache.get("owner2", "key", now, () -> this.createPayload("owner2", "key", now));
+
+        cache.removeAll();
+
+        assertNull(cache.get("owner1", "key", now, () -> null));
+        assertNull(cache.get("owner2", "key", now, () -> null));
+    }
+
+    private ContentAccessPayloadCache buildTransactionalCache(AtomicReference<Synchronization> sync)
+        throws Exception {
+
+        Transaction transaction = mock(Transaction.class);
+        when(transaction.getStatus()).thenReturn(TransactionStatus.ACTIVE);
+        doAnswer(invocation -> {
+            sync.set(invocation.getArgument(0));
+            return null;
+        }).when(transaction).registerSynchronization(any(Synchronization.class));
+
+        Session session = mock(Session.class);
+        when(session.getTransaction()).thenReturn(transaction);
+
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.isOpen()).thenReturn(true);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+
+        return new ContentAccessPayloadCache(config, () -> entityManager);
+    }
+
+    @Test
+    public void testGetCachesPayloadOnceTransactionCommits() throws Exception {
+        AtomicReference<Synchronization> sync = new AtomicReference<>();
+        ContentAccessPayloadCache cache = this.buildTransactionalCache(sync);
+        Date now = new Date();
+        AtomicInteger loads = new AtomicInteger();
+
+        ContentAccessPayloadCache.Loader<RuntimeException> loader = () -> {
+            loads.incrementAndGet();
+            return this.createPayload("owner", "key", now);
+        };
+
+        cache.get("owner", "key", now, loader);
+        cache.get("owner", "key", now, loader);
+        assertThat(loads.get()).isEqualTo(2);
+
+        sync.get().afterCompletion(Status.STATUS_COMMITTED);
+
+        cache.get("owner", "key", now, loader);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testGetDoesNotCachePayloadFromRolledBackTransaction() throws Exception {
+        AtomicReference<Synchronization> sync = new AtomicReference<>();
+        ContentAccessPayloadCache cache = this.buildTransactionalCache(sync);
+        Date now = new Date();
+
+        cache.get("owner", "key", now, () -> this.createPayload("owner", "key", now));
+        sync.get().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertNull(cache.get("owner", "key", now, () -> null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testWaitingCallerWaitsForTransactionCompletion(boolean commit) throws Exception {
+        AtomicReference<Synchronization> sync = new AtomicReference<>();
+        ContentAccessPayloadCache cache = this.buildTransactionalCache(sync);
+        Date now = new Date();
+
+        ContentAccessPayload loaded = this.createPayload("owner", "key", now);
+        ContentAccessPayload reloaded = this.createPayload("owner", "key", now);
+        AtomicInteger reloads = new AtomicInteger();
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ContentAccessPayload> loader = executor.submit(() -> cache.get("owner", "key", now,
+                () -> {
+                    loading.countDown();
+                    release.await();
+                    return loaded;
+                }));
+
+            loading.await(10, TimeUnit.SECONDS);
+
+            Future<ContentAccessPayload> waiting = executor.submit(() -> cache.get("owner", "key", now,
+                () -> {
+                    reloads.incrementAndGet();
+                    return reloaded;
+                }));
+
+            // Give the waiting caller time to queue up behind the load
+            Thread.sleep(200);
+            release.countDown();
+            assertThat(loader.get(10, TimeUnit.SECONDS)).isNotNull();
+
+            // The waiting caller must not see the payload until the loading transaction completes
+            assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+
+            sync.get().afterCompletion(commit ? Status.STATUS_COMMITTED : Status.STATUS_ROLLEDBACK);
+
+            ContentAccessPayload expected = commit ? loaded : reloaded;
+            assertThat(waiting.get(10, TimeUnit.SECONDS))
+                .returns(expected.getPayload(), ContentAccessPayload::getPayload);
+            assertThat(reloads.get()).isEqualTo(commit ? 0 : 1);
+        }
+        finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSlowLoadDoesNotBlockOtherKeys() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ContentAccessPayload> slow = executor.submit(() -> cache.get("owner", "slow", now, () -> {
+                loading.countDown();
+                release.await();
+                return this.createPayload("owner", "slow", now);
+            }));
+
+            loading.await(10, TimeUnit.SECONDS);
+
+            // Keys are loaded independently, regardless of how the cache distributes its entries
+            for (int i = 0; i < 64; ++i) {
+                String key = "key-" + i;
+                assertThat(cache.get("owner", key, now, () -> this.createPayload("owner", key, now)))
+                    .isNotNull();
+            }
+
+            release.countDown();
+            assertThat(slow.get(10, TimeUnit.SECONDS)).isNotNull();
+        }
+        finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWaitingCallerLoadsAfterFailedLoad() throws Exception {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(config, () -> null);
+        Date now = new Date();
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ContentAccessPayload> failing = executor.submit(() -> cache.get("owner", "key", now,
+                () -> {
+                    loading.countDown();
+                    release.await();
+                    throw new IOException("load failed");
+                }));
+
+            loading.await(10, TimeUnit.SECONDS);
+
+            ExecutorService waiter = Executors.newSingleThreadExecutor();
+            try {
+                Future<ContentAccessPayload> waiting = waiter.submit(() -> cache.get("owner", "key", now,
+                    () -> this.createPayload("owner", "key", now)));
+
+                release.countDown();
+
+                assertThat(waiting.get(10, TimeUnit.SECONDS)).isNotNull();
+            }
+            finally {
+                waiter.shutdownNow();
+            }
+
+            assertThrows(Exception.class, () -> failing.get(10, TimeUnit.SECONDS));
+        }
+        finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+public class HuffmanContentCacheTest {
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        config = TestConfig.defaults();
+    }
+
+    @Test
+    public void testCacheCreationWithInvalidMaxBytesConfig() {
+        config.setProperty(ConfigProperties.CACHE_HUFFMAN_CONTENT_MAX_BYTES, "-100");
+
+        assertThrows(ConfigurationException.class, () -> new HuffmanContentCache(config));
+    }
+
+    @Test
+    public void testGetRequiresPaths() throws Exception {
+        HuffmanContentCache cache = new HuffmanContentCache(config);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null, () -> new byte[0]));
+    }
+
+    @Test
+    public void testGetRequiresLoader() throws Exception {
+        HuffmanContentCache cache = new HuffmanContentCache(config);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(List.of("/path"), null));
+    }
+
+    @Test
+    public void testGetLoadsAndCachesBlob() throws Exception {
+        HuffmanContentCache cache = new HuffmanContentCache(config);
+        List<String> paths = List.of("/content/a", "/content/b");
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.get(paths, () -> {
+            loads.incrementAndGet();
+            return new byte[] { 1, 2, 3 };
+        });
+
+        byte[] second = cache.get(List.of("/content/a", "/content/b"), () -> {
+            loads.incrementAndGet();
+            return new byte[] { 4, 5, 6 };
+        });
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(first).containsExactly(1, 2, 3);
+        assertThat(second).containsExactly(1, 2, 3);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetCachesBlobsPerPathSet() throws Exception {
+        HuffmanContentCache cache = new HuffmanContentCache(config);
+
+        byte[] first = cache.get(List.of("/content/a", "/content/b"), () -> new byte[] { 1 });
+        byte[] second = cache.get(List.of("/content/a"), () -> new byte[] { 2 });
+        byte[] third = cache.get(List.of("/content/ab"), () -> new byte[] { 3 });
+
+        assertThat(first).containsExactly(1);
+        assertThat(second).containsExactly(2);
+        assertThat(third).containsExactly(3);
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testGetReturnsCopyOfCachedBlob() throws Exception {
+        HuffmanContentCache cache = new HuffmanContentCache(config);
+        List<String> paths = List.of("/content/a");
+
+        byte[] first = cache.get(paths, () -> new byte[] { 1, 2, 3 });
+        first[0] = 9;
+
+        byte[] second = cache.get(paths, () -> new byte[] { 4, 5, 6 });
+        assertThat(second).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void testGetPropagatesLoaderException() throws Exception {
+        HuffmanContentCache cache = new HuffmanContentCache(config);
+        List<String> paths = List.of("/content/a");
+
+        assertThrows(IOException.class, () -> cache.get(paths, () -> {
+            throw new IOException("failed");
+        }));
+
+        // Failed loads must not be cached
+        byte[] blob = cache.get(paths, () -> new byte[] { 1 });
+        assertThat(blob).containsExactly(1);
+    }
+
+    @Test
+    public void testRemoveAll() throws Exception {
+        HuffmanContentCache cache = new HuffmanContentCache(config);
+        List<String> paths = List.of("/content/a");
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(paths, () -> new byte[] { (byte) loads.incrementAndGet() });
+        cache.removeAll();
+        byte[] blob = cache.get(paths, () -> new byte[] { (byte) loads.incrementAndGet() });
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(blob).containsExactly(2);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.dto.rules.v1.ConsumerDTO;
+import org.candlepin.policy.js.quantity.QuantityInputs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+
+public class QuantityInputCacheTest {
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.CACHE_QUANTITY_INPUTS_TTL, "300000");
+    }
+
+    private Supplier<QuantityInputs> countingSupplier(AtomicInteger counter) {
+        return () -> {
+            counter.incrementAndGet();
+            return new QuantityInputs(new ConsumerDTO(), List.of(), List.of());
+        };
+    }
+
+    @Test
+    public void testInputsAreBuiltOncePerFingerprint() {
+        QuantityInputCache cache = new QuantityInputCache(this.config);
+        AtomicInteger counter = new AtomicInteger();
+
+        QuantityInputs first = cache.get("fingerprint-1", this.countingSupplier(counter));
+        QuantityInputs second = cache.get("fingerprint-1", this.countingSupplier(counter));
+        QuantityInputs other = cache.get("fingerprint-2", this.countingSupplier(counter));
+
+        assertTrue(cache.isEnabled());
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testInputsAreRebuiltAfterRemoveAll() {
+        QuantityInputCache cache = new QuantityInputCache(this.config);
+        AtomicInteger counter = new AtomicInteger();
+
+        cache.get("fingerprint", this.countingSupplier(counter));
+        cache.removeAll();
+        cache.get("fingerprint", this.countingSupplier(counter));
+
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysBuildsInputs() {
+        this.config.setProperty(ConfigProperties.CACHE_QUANTITY_INPUTS_TTL, "0");
+        QuantityInputCache cache = new QuantityInputCache(this.config);
+        AtomicInteger counter = new AtomicInteger();
+
+        cache.get("fingerprint", this.countingSupplier(counter));
+        cache.get("fingerprint", this.countingSupplier(counter));
+
+        assertFalse(cache.isEnabled());
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testGetRejectsNullArguments() {
+        QuantityInputCache cache = new QuantityInputCache(this.config);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null, () -> null));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("fingerprint", null));
+    }
+
+}
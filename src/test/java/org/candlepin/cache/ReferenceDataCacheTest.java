@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.controller.ContentAccessMode;
+import org.candlepin.controller.OwnerContentAccess;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.DistributorVersion;
+import org.candlepin.model.DistributorVersionCapability;
+import org.candlepin.model.DistributorVersionCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.test.TestUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Set;
+
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ReferenceDataCacheTest {
+
+    @Mock
+    private OwnerCurator ownerCurator;
+    @Mock
+    private ConsumerTypeCurator consumerTypeCurator;
+    @Mock
+    private DistributorVersionCurator distributorVersionCurator;
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.CACHE_REFERENCE_DATA_TTL, "60000");
+    }
+
+    private ReferenceDataCache buildCache() {
+        return new ReferenceDataCache(this.ownerCurator, this.consumerTypeCurator,
+            this.distributorVersionCurator, this.config);
+    }
+
+    private Owner mockOwner(ContentAccessMode mode) {
+        Owner owner = new Owner()
+            .setId(TestUtil.randomString())
+            .setKey(TestUtil.randomString())
+            .setContentAccessMode(mode.toDatabaseValue());
+
+        doReturn(owner).when(this.ownerCurator).findOwnerById(owner.getId());
+        return owner;
+    }
+
+    private Consumer mockConsumer(ConsumerType ctype) {
+        Consumer consumer = new Consumer()
+            .setUuid(TestUtil.randomString())
+            .setType(ctype);
+
+        doReturn(ctype).when(this.consumerTypeCurator).getConsumerType(consumer);
+        return consumer;
+    }
+
+    @Test
+    public void testOwnerContentAccessIsCached() {
+        Owner owner = this.mockOwner(ContentAccessMode.ORG_ENVIRONMENT);
+        ReferenceDataCache cache = this.buildCache();
+
+        OwnerContentAccess first = cache.getOwnerContentAccess(owner.getId());
+        OwnerContentAccess second = cache.getOwnerContentAccess(owner.getId());
+
+        assertTrue(first.isUsingSimpleContentAccess());
+        assertEquals(first, second);
+        verify(this.ownerCurator, times(1)).findOwnerById(owner.getId());
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getOwnerContentAccessHitRate());
+    }
+
+    @Test
+    public void testEvictedOwnerContentAccessIsReloaded() {
+        Owner owner = this.mockOwner(ContentAccessMode.ORG_ENVIRONMENT);
+        ReferenceDataCache cache = this.buildCache();
+
+        assertTrue(cache.getOwnerContentAccess(owner.getId()).isUsingSimpleContentAccess());
+
+        owner.setContentAccessMode(ContentAccessMode.ENTITLEMENT.toDatabaseValue());
+        new ReferenceDataCacheInvalidator(cache).evict(owner);
+
+        assertFalse(cache.getOwnerContentAccess(owner.getId()).isUsingSimpleContentAccess());
+        verify(this.ownerCurator, times(2)).findOwnerById(owner.getId());
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    public void testGetOwnerContentAccessRequiresOwnerId() {
+        ReferenceDataCache cache = this.buildCache();
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getOwnerContentAccess(null));
+        assertThrows(IllegalArgumentException.class, () -> cache.getOwnerContentAccess(""));
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysLoads() {
+        this.config.setProperty(ConfigProperties.CACHE_REFERENCE_DATA_TTL, "0");
+        Owner owner = this.mockOwner(ContentAccessMode.ORG_ENVIRONMENT);
+        ReferenceDataCache cache = this.buildCache();
+
+        assertFalse(cache.isEnabled());
+        cache.getOwnerContentAccess(owner.getId());
+        cache.getOwnerContentAccess(owner.getId());
+
+        verify(this.ownerCurator, times(2)).findOwnerById(owner.getId());
+    }
+
+    @Test
+    public void testConsumerTypeIsCachedAsDetachedCopy() {
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.CANDLEPIN);
+        ctype.setId("ctype-id");
+
+        Consumer consumer1 = this.mockConsumer(ctype);
+        Consumer consumer2 = this.mockConsumer(ctype);
+        ReferenceDataCache cache = this.buildCache();
+
+        ConsumerType first = cache.getConsumerType(consumer1);
+        ConsumerType second = cache.getConsumerType(consumer2);
+
+        assertNotSame(ctype, first);
+        assertEquals(ctype.getId(), first.getId());
+        assertEquals(ctype.getLabel(), first.getLabel());
+        assertTrue(first.isManifest());
+        assertEquals(first, second);
+
+        verify(this.consumerTypeCurator, times(1)).getConsumerType(any(Consumer.class));
+    }
+
+    @Test
+    public void testGetConsumerTypeRequiresTypedConsumer() {
+        ReferenceDataCache cache = this.buildCache();
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getConsumerType(null));
+        assertThrows(IllegalArgumentException.class, () -> cache.getConsumerType(new Consumer()));
+    }
+
+    @Test
+    public void testUnknownConsumerTypeLabelsAreNotCached() {
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.HYPERVISOR);
+        ctype.setId("hypervisor-id");
+
+        ReferenceDataCache cache = this.buildCache();
+        assertNull(cache.getConsumerTypeByLabel(ctype.getLabel()));
+
+        doReturn(ctype).when(this.consumerTypeCurator).getByLabel(ctype.getLabel());
+        assertEquals(ctype.getId(), cache.getConsumerTypeByLabel(ctype.getLabel()).getId());
+        assertEquals(ctype.getId(), cache.getConsumerTypeByLabel(ctype.getLabel()).getId());
+
+        verify(this.consumerTypeCurator, times(2)).getByLabel(ctype.getLabel());
+    }
+
+    @Test
+    public void testDistributorCapabilitiesAreCached() {
+        DistributorVersion version = new DistributorVersion("sat-6.15");
+        version.setCapabilities(Set.of(
+            new DistributorVersionCapability(version, "cert_v3"),
+            new DistributorVersionCapability(version, "ram")));
+
+        doReturn(version).when(this.distributorVersionCurator).findByName(version.getName());
+        ReferenceDataCache cache = this.buildCache();
+
+        assertThat(cache.getDistributorCapabilities(version.getName()))
+            .containsExactlyInAnyOrder("cert_v3", "ram");
+        assertThat(cache.getDistributorCapabilities(version.getName()))
+            .containsExactlyInAnyOrder("cert_v3", "ram");
+
+        verify(this.distributorVersionCurator, times(1)).findByName(version.getName());
+    }
+
+    @Test
+    public void testUnknownDistributorVersionsAreCachedUntilEvicted() {
+        ReferenceDataCache cache = this.buildCache();
+        ReferenceDataCacheInvalidator invalidator = new ReferenceDataCacheInvalidator(cache);
+
+        assertNull(cache.getDistributorCapabilities("unknown"));
+        assertNull(cache.getDistributorCapabilities("unknown"));
+        verify(this.distributorVersionCurator, times(1)).findByName("unknown");
+
+        DistributorVersion version = new DistributorVersion("unknown");
+        version.setCapabilities(Set.of(new DistributorVersionCapability(version, "ram")));
+        doReturn(version).when(this.distributorVersionCurator).findByName("unknown");
+
+        invalidator.evict(version.getCapabilities().iterator().next());
+
+        assertThat(cache.getDistributorCapabilities("unknown"))
+            .containsExactly("ram");
+    }
+
+    @Test
+    public void testGetDistributorCapabilitiesWithBlankName() {
+        ReferenceDataCache cache = this.buildCache();
+
+        assertNull(cache.getDistributorCapabilities(null));
+        assertNull(cache.getDistributorCapabilities(" "));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+
+import com.google.inject.persist.UnitOfWork;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+
+
+@ExtendWith(MockitoExtension.class)
+public class ConsumerCheckInRecorderTest {
+    @Mock private ConsumerCurator consumerCurator;
+    @Mock private UnitOfWork unitOfWork;
+
+    private DevConfig config;
+    private ConsumerCheckInRecorder recorder;
+
+    @BeforeEach
+    public void init() {
+        this.config = TestConfig.defaults();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (this.recorder != null) {
+            this.recorder.shutdown();
+        }
+    }
+
+    private ConsumerCheckInRecorder buildRecorder(long maxStaleness) {
+        this.config.setProperty(ConfigProperties.CONSUMER_CHECKIN_MAX_STALENESS,
+            String.valueOf(maxStaleness));
+        this.recorder = new ConsumerCheckInRecorder(this.consumerCurator, this.unitOfWork, this.config);
+
+        return this.recorder;
+    }
+
+    private Consumer createConsumer(String id) {
+        return new Consumer()
+            .setId(id);
+    }
+
+    @Test
+    public void testRecordWritesImmediatelyWhenDisabled() {
+        ConsumerCheckInRecorder recorder = this.buildRecorder(0);
+        Consumer consumer = this.createConsumer("consumer-1");
+        Date checkIn = new Date();
+
+        recorder.record(consumer, checkIn);
+
+        assertFalse(recorder.isEnabled());
+        assertEquals(0, recorder.getPendingCount());
+        verify(this.consumerCurator).updateLastCheckin(consumer, checkIn);
+    }
+
+    @Test
+    public void testRecordRequiresPersistedConsumer() {
+        ConsumerCheckInRecorder recorder = this.buildRecorder(3600);
+
+        assertThrows(IllegalArgumentException.class, () -> recorder.record(null, new Date()));
+        assertThrows(IllegalArgumentException.class, () -> recorder.record(new Consumer(), new Date()));
+        assertThrows(IllegalArgumentException.class,
+            () -> recorder.record(this.createConsumer("consumer-1"), null));
+    }
+
+    @Test
+    public void testRecordCoalescesCheckIns() {
+        ConsumerCheckInRecorder recorder = this.buildRecorder(3600);
+        Consumer consumer = this.createConsumer("consumer-1");
+        Date early = new Date(1000000);
+        Date late = new Date(2000000);
+
+        recorder.record(consumer, early);
+        recorder.record(consumer, late);
+        recorder.record(consumer, early);
+
+        assertTrue(recorder.isEnabled());
+        assertEquals(1, recorder.getPendingCount());
+        verify(this.consumerCurator, never()).updateLastCheckin(any(Consumer.class), any(Date.class));
+
+        doReturn(1).when(this.consumerCurator).updateLastCheckins(anyCollection(), any(Date.class));
+        assertEquals(1, recorder.flush());
+
+        verify(this.consumerCurator).updateLastCheckins(List.of("consumer-1"), late);
+        verify(this.unitOfWork).begin();
+        verify(this.unitOfWork).end();
+        assertEquals(0, recorder.getPendingCount());
+    }
+
+    @Test
+    public void testFlushBatchesCheckInsBySecond() {
+        ConsumerCheckInRecorder recorder = this.buildRecorder(3600);
+
+        recorder.record(this.createConsumer("consumer-1"), new Date(5000100));
+        recorder.record(this.createConsumer("consumer-2"), new Date(5000900));
+        recorder.record(this.createConsumer("consumer-3"), new Date(7000000));
+
+        doReturn(2).when(this.consumerCurator).updateLastCheckins(anyCollection(), eq(new Date(5000900)));
+        doReturn(1).when(this.consumerCurator).updateLastCheckins(anyCollection(), eq(new Date(7000000)));
+
+        assertEquals(3, recorder.flush());
+
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(this.consumerCurator).updateLastCheckins(captor.capture(), eq(new Date(5000900)));
+        assertEquals(2, captor.getValue().size());
+        assertTrue(captor.getValue().containsAll(List.of("consumer-1", "consumer-2")));
+
+        verify(this.consumerCurator).updateLastCheckins(List.of("consumer-3"), new Date(7000000));
+    }
+
+    @Test
+    public void testFlushRequeuesCheckInsOnFailure() {
+        ConsumerCheckInRecorder recorder = this.buildRecorder(3600);
+
+        recorder.record(this.createConsumer("consumer-1"), new Date(5000000));
+        recorder.record(this.createConsumer("consumer-2"), new Date(7000000));
+
+        doThrow(new RuntimeException("kaboom")).when(this.consumerCurator)
+            .updateLastCheckins(anyCollection(), any(Date.class));
+
+        assertEquals(0, recorder.flush());
+        assertEquals(2, recorder.getPendingCount());
+        verify(this.unitOfWork).end();
+    }
+
+    @Test
+    public void testFlushWithoutCheckInsDoesNothing() {
+        ConsumerCheckInRecorder recorder = this.buildRecorder(3600);
+
+        assertEquals(0, recorder.flush());
+        verify(this.unitOfWork, never()).begin();
+    }
+
+    @Test
+    public void testShutdownFlushesPendingCheckIns() {
+        ConsumerCheckInRecorder recorder = this.buildRecorder(3600);
+        Date checkIn = new Date(5000000);
+
+        recorder.record(this.createConsumer("consumer-1"), checkIn);
+        recorder.shutdown();
+
+        verify(this.consumerCurator).updateLastCheckins(List.of("consumer-1"), checkIn);
+        assertEquals(0, recorder.getPendingCount());
+    }
+
+}
@@ -16,9 +16,11 @@
 package org.candlepin.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -64,6 +66,8 @@ public class ConsumerManagerTest {
     private EventAdapter eventAdapter;
     @Mock
     private EnvironmentCurator envCurator;
+    @Mock
+    private ConsumerCheckInRecorder checkInRecorder;
 
     private ObjectMapper objectMapper;
 
@@ -127,6 +131,25 @@ public class ConsumerManagerTest {
         ));
     }
 
+    @Test
+    public void testUpdateLastCheckInWithCheckInRecorder() {
+        ConsumerManager consumerManager = buildConsumerManager();
+        Consumer consumer = createConsumer();
+        ConsumerCloudData consumerCloudData = createConsumerCloudData();
+        consumerCloudData.setConsumer(consumer);
+        consumer.setConsumerCloudData(consumerCloudData);
+        Date lastCheckin = consumer.getLastCheckin();
+
+        doReturn(true).when(checkInRecorder).isEnabled();
+
+        consumerManager.updateLastCheckIn(consumer);
+
+        verify(checkInRecorder).record(eq(consumer), any(Date.class));
+        verify(consumerCurator, never()).merge(any(Consumer.class));
+        verify(eventAdapter).publish(any(CloudCheckInEvent.class));
+        assertEquals(lastCheckin, consumer.getLastCheckin());
+    }
+
     @ParameterizedTest(name = "{displayName} {index}: {0} {1}")
     @NullAndEmptySource
     public void testSetConsumersEnvironmentsWithNullOrEmptyConsumerUuids(List<String> consumerUuids) {
@@ -274,7 +297,7 @@ public class ConsumerManagerTest {
 
     private ConsumerManager buildConsumerManager() {
         return new ConsumerManager(consumerCurator, contentAccessCertificateCurator, envCurator, eventAdapter,
-            objectMapper);
+            objectMapper, checkInRecorder);
     }
 
     private Consumer createConsumer() {
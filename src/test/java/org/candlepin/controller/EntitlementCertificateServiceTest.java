@@ -24,6 +24,7 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -50,6 +51,7 @@ import org.candlepin.model.PoolQuantity;
 import org.candlepin.model.Product;
 import org.candlepin.model.SourceSubscription;
 import org.candlepin.paging.Page;
+import org.candlepin.pki.certs.EntitlementCertificatePipeline;
 import org.candlepin.service.EntitlementCertServiceAdapter;
 import org.candlepin.test.TestUtil;
 
@@ -88,6 +90,7 @@ public class EntitlementCertificateServiceTest {
     @Mock private EventSink mockEventSink;
     @Mock private EventFactory mockEventFactory;
     @Mock private OwnerCurator mockOwnerCurator;
+    @Mock private EntitlementCertificatePipeline mockCertificatePipeline;
 
     @Captor private ArgumentCaptor<Map<String, Entitlement>> entMapCaptor;
     @Captor private ArgumentCaptor<Map<String, Product>> productMapCaptor;
@@ -100,7 +103,7 @@ public class EntitlementCertificateServiceTest {
         this.ecService = new EntitlementCertificateService(
             this.mockEntCertCurator, this.mockEntCertAdapter, this.mockEntitlementCurator,
             this.mockPoolCurator, this.mockEventSink, this.mockEventFactory,
-            this.mockContentAccessManager, this.mockOwnerCurator);
+            this.mockContentAccessManager, this.mockOwnerCurator, this.mockCertificatePipeline);
     }
 
     @Test
@@ -108,7 +111,7 @@ public class EntitlementCertificateServiceTest {
         this.ecService = new EntitlementCertificateService(this.mockEntCertCurator,
                 this.mockEntCertAdapter, this.mockEntitlementCurator, this.mockPoolCurator,
                 this.mockEventSink, this.mockEventFactory,
-                this.mockContentAccessManager, this.mockOwnerCurator);
+                this.mockContentAccessManager, this.mockOwnerCurator, this.mockCertificatePipeline);
 
         Consumer consumer = mock(Consumer.class);
         Pool pool = mock(Pool.class);
@@ -133,7 +136,7 @@ public class EntitlementCertificateServiceTest {
         this.ecService = new EntitlementCertificateService(this.mockEntCertCurator,
             this.mockEntCertAdapter, this.mockEntitlementCurator, this.mockPoolCurator,
             this.mockEventSink, this.mockEventFactory,
-            this.mockContentAccessManager, this.mockOwnerCurator);
+            this.mockContentAccessManager, this.mockOwnerCurator, this.mockCertificatePipeline);
         Consumer consumer = mock(Consumer.class);
         Product product = mock(Product.class);
         Entitlement entitlement = mock(Entitlement.class);
@@ -439,6 +442,76 @@ public class EntitlementCertificateServiceTest {
         verify(this.mockEventSink, times(1)).queueEvent(any(Event.class));
     }
 
+    @Test
+    public void testNonLazyRegenerateUsesPipelineWhenEnabled() {
+        Owner owner = TestUtil.createOwner("test-owner", "Test Owner");
+        Consumer consumer = TestUtil.createConsumer(owner);
+        Pool pool = TestUtil.createPool(owner, TestUtil.createProduct());
+
+        List<Entitlement> entitlements = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            entitlements.add(TestUtil.createEntitlement(owner, consumer, pool, null));
+        }
+
+        when(this.mockCertificatePipeline.isEnabled()).thenReturn(true);
+        when(this.mockCertificatePipeline.getPageSize()).thenReturn(2);
+        when(mockEventFactory.entitlementChanged(any(Entitlement.class))).thenReturn(mock(Event.class));
+
+        List<List<Entitlement>> pages = new ArrayList<>();
+        doAnswer(iom -> {
+            Iterable<List<Entitlement>> input = iom.getArgument(0);
+            java.util.function.Consumer<Entitlement> listener = iom.getArgument(1);
+
+            input.forEach(pages::add);
+            pages.forEach(page -> page.forEach(listener));
+            return entitlements.size();
+        }).when(this.mockCertificatePipeline).regenerate(any(Iterable.class), any());
+
+        this.ecService.regenerateCertificatesOf(entitlements, false);
+
+        assertThat(pages)
+            .hasSize(3)
+            .flatMap(page -> page)
+            .containsExactlyElementsOf(entitlements);
+
+        verify(this.mockEventSink, times(5)).queueEvent(any(Event.class));
+        verifyNoInteractions(this.mockEntCertAdapter);
+    }
+
+    @Test
+    public void testNonLazyRegenerationByEntitlementIdUsesPipelineWhenEnabled() {
+        Owner owner = TestUtil.createOwner("test-owner", "Test Owner");
+        Consumer consumer = TestUtil.createConsumer(owner);
+        Pool pool = TestUtil.createPool(owner, TestUtil.createProduct());
+
+        Entitlement entitlement1 = TestUtil.createEntitlement(owner, consumer, pool, null);
+        entitlement1.setId("test-ent-1");
+        Entitlement entitlement2 = TestUtil.createEntitlement(owner, consumer, pool, null);
+        entitlement2.setId("test-ent-2");
+
+        when(this.mockCertificatePipeline.isEnabled()).thenReturn(true);
+        when(this.mockCertificatePipeline.getPageSize()).thenReturn(1);
+        when(this.mockEntitlementCurator.listAllByIds(List.of(entitlement1.getId())))
+            .thenReturn(List.of(entitlement1));
+        when(this.mockEntitlementCurator.listAllByIds(List.of(entitlement2.getId())))
+            .thenReturn(List.of(entitlement2));
+
+        List<List<Entitlement>> pages = new ArrayList<>();
+        doAnswer(iom -> {
+            Iterable<List<Entitlement>> input = iom.getArgument(0);
+            input.forEach(pages::add);
+            return 2;
+        }).when(this.mockCertificatePipeline).regenerate(any(Iterable.class), any());
+
+        this.ecService.regenerateCertificatesByEntitlementIds(
+            List.of(entitlement1.getId(), entitlement2.getId()), false);
+
+        assertThat(pages).containsExactly(List.of(entitlement1), List.of(entitlement2));
+
+        verify(this.mockEntitlementCurator, never()).get(any());
+        verifyNoInteractions(this.mockEntCertAdapter);
+    }
+
     @Test
     public void testRegenerateCertificatesOfWithNullOrEmptyOwners() {
         Product product = TestUtil.createProduct();
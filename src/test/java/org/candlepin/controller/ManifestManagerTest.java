@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.anyCollection;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -51,6 +52,7 @@ import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.sync.ConflictOverrides;
+import org.candlepin.sync.ExportCreationException;
 import org.candlepin.sync.ExportResult;
 import org.candlepin.sync.Exporter;
 import org.candlepin.sync.Importer;
@@ -73,6 +75,7 @@ import org.xnap.commons.i18n.I18nFactory;
 
 import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -393,6 +396,78 @@ public class ManifestManagerTest {
         verify(responseOutputStream).flush();
     }
 
+    @Test
+    public void testWriteManifestToResponse() throws Exception {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ServletOutputStream responseOutputStream = mock(ServletOutputStream.class);
+        when(response.getOutputStream()).thenReturn(responseOutputStream);
+
+        Consumer consumer = this.createMockConsumer(true);
+        Cdn cdn = new Cdn("test-cdn", "Test CDN", "");
+        String webAppPrefix = "webapp-prefix";
+        String apiUrl = "api-url";
+        String filename = consumer.getUuid() + "-export.zip";
+
+        Event event = mock(Event.class);
+        when(eventFactory.exportCreated(eq(consumer))).thenReturn(event);
+        when(consumerCurator.verifyAndLookupConsumer(eq(consumer.getUuid()))).thenReturn(consumer);
+        when(cdnCurator.getByLabel(eq(cdn.getLabel()))).thenReturn(cdn);
+        when(exporter.getExportFileName(eq(consumer))).thenReturn(filename);
+
+        manager.writeManifestToResponse(consumer.getUuid(), cdn.getLabel(), webAppPrefix, apiUrl, response);
+
+        verify(poolManager).regenerateDirtyEntitlements(eq(consumer));
+        verify(exporter).writeFullExport(eq(consumer), eq(cdn.getLabel()), eq(webAppPrefix), eq(apiUrl),
+            any(OutputStream.class));
+        verify(response).setContentType("application/zip");
+        verify(response).setHeader(eq("Content-Disposition"), eq("attachment; filename=" + filename));
+        verify(responseOutputStream).flush();
+        verify(eventSink).queueEvent(eq(event));
+        verifyNoInteractions(fileService);
+    }
+
+    @Test
+    public void testWriteManifestToResponseResetsResponseOnFailure() throws Exception {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ServletOutputStream responseOutputStream = mock(ServletOutputStream.class);
+        when(response.getOutputStream()).thenReturn(responseOutputStream);
+
+        Consumer consumer = this.createMockConsumer(true);
+        when(consumerCurator.verifyAndLookupConsumer(eq(consumer.getUuid()))).thenReturn(consumer);
+
+        doThrow(new ExportCreationException("failed")).when(exporter)
+            .writeFullExport(eq(consumer), any(), any(), any(), any(OutputStream.class));
+
+        assertThrows(ExportCreationException.class, () ->
+            manager.writeManifestToResponse(consumer.getUuid(), null, null, null, response));
+
+        verify(response).resetBuffer();
+        verify(response).setContentType("text/json");
+        verify(response).setHeader("Content-Disposition", "");
+        verifyNoInteractions(eventSink);
+    }
+
+    @Test
+    public void testWriteManifestToResponseLeavesCommittedResponseOnFailure() throws Exception {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ServletOutputStream responseOutputStream = mock(ServletOutputStream.class);
+        when(response.getOutputStream()).thenReturn(responseOutputStream);
+        when(response.isCommitted()).thenReturn(true);
+
+        Consumer consumer = this.createMockConsumer(true);
+        when(consumerCurator.verifyAndLookupConsumer(eq(consumer.getUuid()))).thenReturn(consumer);
+
+        doThrow(new ExportCreationException("failed")).when(exporter)
+            .writeFullExport(eq(consumer), any(), any(), any(), any(OutputStream.class));
+
+        assertThrows(ExportCreationException.class, () ->
+            manager.writeManifestToResponse(consumer.getUuid(), null, null, null, response));
+
+        verify(response, never()).resetBuffer();
+        verify(response, never()).setContentType("text/json");
+        verifyNoInteractions(eventSink);
+    }
+
     @Test
     public void testWriteStoredExportToResponseFailsWhenManifestFileNotFound() throws Exception {
         HttpServletResponse response = mock(HttpServletResponse.class);
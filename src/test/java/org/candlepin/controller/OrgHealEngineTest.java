@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.audit.EventSink;
+import org.candlepin.exceptions.ForbiddenException;
+import org.candlepin.guice.CandlepinRequestScope;
+import org.candlepin.model.AutobindCandidateIndex;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolCurator;
+import org.candlepin.policy.js.compliance.ComplianceRules;
+import org.candlepin.policy.js.compliance.ComplianceStatus;
+import org.candlepin.resource.dto.AutobindData;
+import org.candlepin.test.TestUtil;
+
+import com.google.inject.persist.UnitOfWork;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class OrgHealEngineTest {
+    @Mock private Entitler entitler;
+    @Mock private EventSink eventSink;
+    @Mock private ConsumerCurator consumerCurator;
+    @Mock private ConsumerTypeCurator consumerTypeCurator;
+    @Mock private OwnerCurator ownerCurator;
+    @Mock private PoolCurator poolCurator;
+    @Mock private ComplianceRules complianceRules;
+    @Mock private UnitOfWork unitOfWork;
+
+    private Owner owner;
+    private Pool pool;
+    private Map<String, Consumer> consumers;
+    private Map<String, Boolean> results;
+
+    @BeforeEach
+    public void init() {
+        this.owner = TestUtil.createOwner();
+        this.owner.setId(TestUtil.randomString());
+        this.owner.setContentAccessMode("entitlement");
+
+        this.pool = TestUtil.createPool(this.owner);
+        this.pool.setId("pool_id");
+
+        this.consumers = new LinkedHashMap<>();
+        this.results = new LinkedHashMap<>();
+
+        TestUtil.mockTransactionalFunctionality(mock(EntityManager.class), this.consumerCurator);
+
+        doReturn(new AutobindCandidateIndex()).when(this.poolCurator)
+            .getAutobindCandidateIndex(anyString(), any(Date.class));
+        doReturn(Set.of("Premium")).when(this.poolCurator)
+            .retrieveServiceLevelsForOwner(anyString(), anyBoolean());
+        doReturn(Map.of(this.pool.getId(), 10L)).when(this.poolCurator)
+            .getPoolAvailability(anyString(), any(Date.class));
+
+        doAnswer(invocation -> ((Collection<String>) invocation.getArgument(0)).stream()
+            .map(this.consumers::get)
+            .filter(consumer -> consumer != null)
+            .collect(Collectors.toList()))
+            .when(this.consumerCurator).findByUuids(anyCollection());
+
+        doAnswer(invocation -> this.consumers.get((String) invocation.getArgument(0)))
+            .when(this.consumerCurator).getConsumer(anyString());
+    }
+
+    private OrgHealEngine buildEngine() {
+        return new OrgHealEngine(this.entitler, this.eventSink, this.consumerCurator,
+            this.consumerTypeCurator, this.ownerCurator, this.poolCurator, this.complianceRules,
+            this.unitOfWork, new CandlepinRequestScope());
+    }
+
+    private Consumer createConsumer(boolean compliant) {
+        Consumer consumer = TestUtil.createConsumer(this.owner);
+        this.consumers.put(consumer.getUuid(), consumer);
+
+        ComplianceStatus status = new ComplianceStatus(new Date());
+        if (!compliant) {
+            status.addNonCompliantProduct("product_id");
+        }
+
+        doReturn(status).when(this.complianceRules)
+            .getStatus(eq(consumer), any(Date.class), eq(false));
+
+        return consumer;
+    }
+
+    private Entitlement createEntitlement(Consumer consumer, int quantity) {
+        Entitlement entitlement = TestUtil.createEntitlement(this.owner, consumer, this.pool, null);
+        entitlement.setQuantity(quantity);
+
+        return entitlement;
+    }
+
+    private void heal(int partitionSize, int threads) {
+        doReturn(new ArrayList<>(this.consumers.keySet())).when(this.ownerCurator)
+            .getConsumerUuids(this.owner);
+
+        this.buildEngine().heal(this.owner, new Date(), partitionSize, threads, this.results::put);
+    }
+
+    @Test
+    public void testHealValidatesArguments() {
+        OrgHealEngine engine = this.buildEngine();
+        Date date = new Date();
+
+        assertThrows(IllegalArgumentException.class, () -> engine.heal(null, date, 1, 1, (u, h) -> {}));
+        assertThrows(IllegalArgumentException.class, () -> engine.heal(this.owner, null, 1, 1, (u, h) -> {}));
+        assertThrows(IllegalArgumentException.class, () -> engine.heal(this.owner, date, 0, 1, (u, h) -> {}));
+        assertThrows(IllegalArgumentException.class, () -> engine.heal(this.owner, date, 1, 1, null));
+    }
+
+    @Test
+    public void testCompliantConsumersAreNotBound() throws Exception {
+        Consumer consumer1 = this.createConsumer(true);
+        Consumer consumer2 = this.createConsumer(true);
+
+        this.heal(10, 1);
+
+        verify(this.entitler, never()).bindByProducts(any(AutobindData.class), anyBoolean());
+        assertEquals(Map.of(consumer1.getUuid(), true, consumer2.getUuid(), true), this.results);
+    }
+
+    @Test
+    public void testConsumersWithRoleAreBoundRegardlessOfCompliance() throws Exception {
+        Consumer consumer = this.createConsumer(true);
+        consumer.setRole("role");
+
+        this.heal(10, 1);
+
+        verify(this.entitler).bindByProducts(any(AutobindData.class), eq(true));
+        assertEquals(Map.of(consumer.getUuid(), true), this.results);
+    }
+
+    @Test
+    public void testPartitionIsBoundInSingleTransactionUsingSnapshot() throws Exception {
+        Consumer consumer1 = this.createConsumer(false);
+        Consumer consumer2 = this.createConsumer(false);
+
+        doReturn(List.of(this.createEntitlement(consumer1, 3)))
+            .doReturn(List.of(this.createEntitlement(consumer2, 4)))
+            .when(this.entitler).bindByProducts(any(AutobindData.class), eq(true));
+
+        this.heal(10, 1);
+
+        ArgumentCaptor<AutobindData> captor = ArgumentCaptor.forClass(AutobindData.class);
+        verify(this.entitler, times(2)).bindByProducts(captor.capture(), eq(true));
+
+        OrgHealSnapshot snapshot = captor.getAllValues().get(0).getHealSnapshot();
+        assertSame(snapshot, captor.getAllValues().get(1).getHealSnapshot());
+        assertEquals(this.owner.getId(), snapshot.getOwnerId());
+        assertEquals(Set.of("Premium"), snapshot.getServiceLevels());
+        assertEquals(3L, snapshot.getRemaining(this.pool.getId()));
+
+        // Both consumers are committed together
+        verify(this.eventSink, times(1)).sendEvents();
+        verify(this.consumerCurator, never()).getConsumer(anyString());
+        assertEquals(Map.of(consumer1.getUuid(), true, consumer2.getUuid(), true), this.results);
+    }
+
+    @Test
+    public void testGuestsAreBoundWithoutSnapshot() throws Exception {
+        Consumer guest = this.createConsumer(true);
+        guest.setFact(Consumer.Facts.VIRT_UUID, "virt_uuid");
+
+        this.heal(10, 1);
+
+        ArgumentCaptor<AutobindData> captor = ArgumentCaptor.forClass(AutobindData.class);
+        verify(this.entitler).bindByProducts(captor.capture(), eq(true));
+
+        assertNull(captor.getValue().getHealSnapshot());
+        assertEquals(Map.of(guest.getUuid(), true), this.results);
+    }
+
+    @Test
+    public void testFailedPartitionFallsBackToIndividualTransactions() throws Exception {
+        Consumer consumer1 = this.createConsumer(false);
+        Consumer consumer2 = this.createConsumer(false);
+
+        Map<String, Integer> attempts = new HashMap<>();
+        doAnswer(invocation -> {
+            Consumer consumer = ((AutobindData) invocation.getArgument(0)).getConsumer();
+            attempts.merge(consumer.getUuid(), 1, Integer::sum);
+
+            if (consumer == consumer2) {
+                throw new IllegalStateException("bind failed");
+            }
+
+            return List.of(this.createEntitlement(consumer, 2));
+        }).when(this.entitler).bindByProducts(any(AutobindData.class), eq(true));
+
+        this.heal(10, 1);
+
+        // The first consumer is bound in the failed partition and again on its own
+        assertEquals(2, attempts.get(consumer1.getUuid()));
+        assertEquals(2, attempts.get(consumer2.getUuid()));
+        verify(this.eventSink, times(2)).rollback();
+        verify(this.eventSink, times(1)).sendEvents();
+
+        // The quantity consumed by the rolled back partition is returned to the ledger
+        ArgumentCaptor<AutobindData> captor = ArgumentCaptor.forClass(AutobindData.class);
+        verify(this.entitler, atLeastOnce()).bindByProducts(captor.capture(), eq(true));
+        assertEquals(8L, captor.getValue().getHealSnapshot().getRemaining(this.pool.getId()));
+
+        Map<String, Boolean> expected = new LinkedHashMap<>();
+        expected.put(consumer1.getUuid(), true);
+        expected.put(consumer2.getUuid(), false);
+        assertEquals(expected, this.results);
+    }
+
+    @Test
+    public void testRefusedConsumersDoNotRollBackPartition() throws Exception {
+        Consumer consumer1 = this.createConsumer(false);
+        Consumer consumer2 = this.createConsumer(false);
+        Consumer consumer3 = this.createConsumer(false);
+
+        doAnswer(invocation -> {
+            Consumer consumer = ((AutobindData) invocation.getArgument(0)).getConsumer();
+            if (consumer == consumer2) {
+                throw new ForbiddenException("refused");
+            }
+
+            return List.of(this.createEntitlement(consumer, 2));
+        }).when(this.entitler).bindByProducts(any(AutobindData.class), eq(true));
+
+        this.heal(10, 1);
+
+        // The refusal is recorded without retrying the partition consumer by consumer
+        verify(this.entitler, times(3)).bindByProducts(any(AutobindData.class), eq(true));
+        verify(this.consumerCurator, never()).getConsumer(anyString());
+        verify(this.eventSink, never()).rollback();
+        verify(this.eventSink, times(1)).sendEvents();
+
+        Map<String, Boolean> expected = new LinkedHashMap<>();
+        expected.put(consumer1.getUuid(), true);
+        expected.put(consumer2.getUuid(), false);
+        expected.put(consumer3.getUuid(), true);
+        assertEquals(expected, this.results);
+    }
+
+    @Test
+    public void testHypervisorsAreSkippedWhenHypervisorAutobindDisabled() throws Exception {
+        this.owner.setAutobindHypervisorDisabled(true);
+
+        Consumer hypervisor = this.createConsumer(false);
+        Consumer consumer = this.createConsumer(false);
+
+        ConsumerType hypervisorType = new ConsumerType(ConsumerTypeEnum.HYPERVISOR);
+        doReturn(hypervisorType).when(this.consumerTypeCurator).getConsumerType(hypervisor);
+        doReturn(new ConsumerType(ConsumerTypeEnum.SYSTEM)).when(this.consumerTypeCurator)
+            .getConsumerType(consumer);
+
+        this.heal(10, 1);
+
+        ArgumentCaptor<AutobindData> captor = ArgumentCaptor.forClass(AutobindData.class);
+        verify(this.entitler, times(1)).bindByProducts(captor.capture(), eq(true));
+        assertSame(consumer, captor.getValue().getConsumer());
+
+        Map<String, Boolean> expected = new LinkedHashMap<>();
+        expected.put(hypervisor.getUuid(), false);
+        expected.put(consumer.getUuid(), true);
+        assertEquals(expected, this.results);
+    }
+
+    @Test
+    public void testListenerIsNotifiedAfterEachPartition() {
+        for (int i = 0; i < 5; ++i) {
+            this.createConsumer(true);
+        }
+
+        doReturn(new ArrayList<>(this.consumers.keySet())).when(this.ownerCurator)
+            .getConsumerUuids(this.owner);
+
+        OrgHealEngine.HealListener listener = mock(OrgHealEngine.HealListener.class);
+        this.buildEngine().heal(this.owner, new Date(), 2, 1, listener);
+
+        verify(listener, times(5)).consumerHealed(anyString(), eq(true));
+        verify(listener, times(3)).partitionHealed();
+    }
+
+    @Test
+    public void testMissingConsumersAreReportedAsFailed() throws Exception {
+        Consumer consumer = this.createConsumer(false);
+        this.consumers.put("missing", null);
+
+        this.heal(10, 1);
+
+        verify(this.entitler, times(1)).bindByProducts(any(AutobindData.class), eq(true));
+        assertEquals(Map.of(consumer.getUuid(), true, "missing", false), this.results);
+    }
+
+    @Test
+    public void testComplianceIsCheckedInWorkerThreads() throws Exception {
+        List<Consumer> created = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            created.add(this.createConsumer(i % 2 == 0));
+        }
+
+        this.heal(2, 2);
+
+        // Three partitions, each assessed within its own unit of work
+        verify(this.unitOfWork, times(3)).begin();
+        verify(this.unitOfWork, times(3)).end();
+        verify(this.entitler, times(2)).bindByProducts(any(AutobindData.class), eq(true));
+
+        assertEquals(created.stream().map(Consumer::getUuid).collect(Collectors.toList()),
+            new ArrayList<>(this.results.keySet()));
+        assertTrue(this.results.values().stream().allMatch(healed -> healed));
+    }
+
+    @Test
+    public void testFailedAssessmentHealsEntirePartition() throws Exception {
+        Consumer consumer = this.createConsumer(true);
+        doThrow(new IllegalStateException("compliance failed")).when(this.complianceRules)
+            .getStatus(eq(consumer), any(Date.class), eq(false));
+
+        this.heal(10, 1);
+
+        verify(this.entitler).bindByProducts(any(AutobindData.class), eq(true));
+        assertEquals(Map.of(consumer.getUuid(), true), this.results);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.model.AutobindCandidateIndex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+
+public class OrgHealSnapshotTest {
+
+    private OrgHealSnapshot buildSnapshot(Map<String, Long> availability) {
+        AutobindCandidateIndex index = new AutobindCandidateIndex()
+            .addProvidedProduct("pool1", "product")
+            .addProvidedProduct("pool2", "product")
+            .addProvidedProduct("pool3", "product");
+
+        return new OrgHealSnapshot("owner_id", new Date(), index, Set.of("Premium"), availability);
+    }
+
+    @Test
+    public void testRequiresArguments() {
+        AutobindCandidateIndex index = new AutobindCandidateIndex();
+        Date date = new Date();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new OrgHealSnapshot(null, date, index, Set.of(), Map.of()));
+        assertThrows(IllegalArgumentException.class,
+            () -> new OrgHealSnapshot("owner_id", null, index, Set.of(), Map.of()));
+        assertThrows(IllegalArgumentException.class,
+            () -> new OrgHealSnapshot("owner_id", date, null, Set.of(), Map.of()));
+        assertThrows(IllegalArgumentException.class,
+            () -> new OrgHealSnapshot("owner_id", date, index, null, Map.of()));
+        assertThrows(IllegalArgumentException.class,
+            () -> new OrgHealSnapshot("owner_id", date, index, Set.of(), null));
+    }
+
+    @Test
+    public void testLedgerTracksConsumedQuantity() {
+        OrgHealSnapshot snapshot = this.buildSnapshot(Map.of("pool1", 5L));
+
+        snapshot.consume("pool1", 3);
+        assertEquals(2L, snapshot.getRemaining("pool1"));
+        assertTrue(snapshot.isAvailable("pool1"));
+
+        snapshot.consume("pool1", 2);
+        assertEquals(0L, snapshot.getRemaining("pool1"));
+        assertFalse(snapshot.isAvailable("pool1"));
+
+        snapshot.release("pool1", 1);
+        assertEquals(1L, snapshot.getRemaining("pool1"));
+        assertTrue(snapshot.isAvailable("pool1"));
+    }
+
+    @Test
+    public void testUnlimitedAndUnknownPoolsAreAlwaysAvailable() {
+        OrgHealSnapshot snapshot = this.buildSnapshot(Map.of());
+
+        snapshot.consume("pool1", 100);
+
+        assertNull(snapshot.getRemaining("pool1"));
+        assertTrue(snapshot.isAvailable("pool1"));
+        assertTrue(snapshot.isAvailable(null));
+    }
+
+    @Test
+    public void testFindCandidatesSkipsExhaustedPools() {
+        OrgHealSnapshot snapshot = this.buildSnapshot(Map.of("pool1", 0L, "pool2", 1L));
+
+        assertEquals(Set.of("pool2", "pool3"), snapshot.findCandidates(List.of("product"), null, null, null));
+
+        snapshot.consume("pool2", 1);
+        assertEquals(Set.of("pool3"), snapshot.findCandidates(List.of("product"), null, null, null));
+    }
+}
@@ -66,11 +66,13 @@ import org.candlepin.bind.PoolOperations;
 import org.candlepin.bind.PostBindBonusPoolsOp;
 import org.candlepin.bind.PreEntitlementRulesCheckOp;
 import org.candlepin.bind.PreEntitlementRulesCheckOpFactory;
+import org.candlepin.cache.AutobindCandidateIndexCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.controller.refresher.RefreshResult;
 import org.candlepin.controller.refresher.RefreshResult.EntityState;
 import org.candlepin.controller.refresher.RefreshWorker;
+import org.candlepin.model.AutobindCandidateIndex;
 import org.candlepin.model.Branding;
 import org.candlepin.model.CdnCurator;
 import org.candlepin.model.Consumer;
@@ -255,7 +257,7 @@ public class PoolManagerTest {
         this.principal = TestUtil.createOwnerPrincipal(owner);
 
         this.refreshWorker = spy(new RefreshWorker(this.poolCurator, this.mockProductCurator,
-            this.mockContentCurator));
+            this.mockContentCurator, config));
 
         this.refreshWorkerProvider = () -> refreshWorker;
 
@@ -268,7 +270,7 @@ public class PoolManagerTest {
             poolCurator, mockEventSink, eventFactory, config, enforcer, poolRules, entitlementCurator,
             consumerCuratorMock, consumerTypeCurator, mockecService, complianceRules, autobindRules,
             activationKeyRules, mockOwnerCurator, i18n, poolService, mockBindChainFactory,
-            refreshWorkerProvider, poolOpProcessor, poolConverter));
+            refreshWorkerProvider, poolOpProcessor, poolConverter, new AutobindCandidateIndexCache(config)));
 
         this.refresherFactory = new RefresherFactory(ownerCurator, manager, poolCurator, poolConverter);
 
@@ -1105,9 +1107,11 @@ public class PoolManagerTest {
 
         Product product = TestUtil.createProduct();
         List<Pool> pools = new ArrayList<>();
-        Pool pool1 = TestUtil.createPool(product);
+        Pool pool1 = TestUtil.createPool(product)
+            .setId("poolId1");
         pools.add(pool1);
-        Pool pool2 = TestUtil.createPool(product);
+        Pool pool2 = TestUtil.createPool(product)
+            .setId("poolId2");
         pools.add(pool2);
         Date now = new Date();
 
@@ -1117,10 +1121,14 @@ public class PoolManagerTest {
         when(page.getPageData()).thenReturn(pools);
         when(poolCurator.listAvailableEntitlementPools(any(PoolQualifier.class)))
             .thenReturn(page);
+        this.mockAutobindCandidates(pools);
+        when(complianceRules.getStatus(any(Consumer.class), any(Date.class), anyBoolean()))
+            .thenReturn(dummyComplianceStatus);
 
         when(poolCurator.listAllByIds(nullable(Set.class))).thenReturn(List.of(pool1));
-        when(enforcer.preEntitlement(any(Consumer.class), any(Pool.class), anyInt(),
-            any(CallerType.class))).thenReturn(result);
+        this.mockBestPoolsValidation(result);
+        when(mockecService.generateEntitlementCertificates(any(Consumer.class), anyMap(), anyMap(),
+            anyMap(), eq(false))).thenReturn(Map.of(pool1.getId(), new EntitlementCertificate()));
 
         when(enforcer.postEntitlement(any(Consumer.class), anyMap(),
             anyList(), eq(false), anyMap())).thenReturn(new PoolOperations());
@@ -1149,6 +1157,7 @@ public class PoolManagerTest {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     public void testEntitleByProductRetry() {
         Date now = new Date();
 
@@ -1172,14 +1181,16 @@ public class PoolManagerTest {
         page.setPageData(pools);
 
         doReturn(page).when(poolCurator).listAvailableEntitlementPools(any(PoolQualifier.class));
+        this.mockAutobindCandidates(pools);
+        when(complianceRules.getStatus(any(Consumer.class), any(Date.class), anyBoolean()))
+            .thenReturn(dummyComplianceStatus);
 
         doAnswer(iom -> iom.getArgument(1)).when(enforcer)
             .filterPools(eq(consumer), anyList(), anyBoolean());
 
         when(poolCurator.listAllByIds(nullable(Set.class))).thenReturn(new LinkedList<>());
 
-        when(enforcer.preEntitlement(any(Consumer.class), any(Pool.class), any(Integer.class),
-            any(CallerType.class))).thenReturn(validationResult);
+        this.mockBestPoolsValidation(validationResult);
 
         // Impl note: this list *must* be mutable, or we'll cause an exception deep in the guts of
         // the autobind flow
@@ -1192,12 +1203,17 @@ public class PoolManagerTest {
 
         assertThrows(EntitlementRefusedException.class, () -> manager.entitleByProducts(data));
 
-        // Impl note: Enforcer.preEntitlement gets hit once per iteration for each pool, for a total
-        // of 8 times for this test.
-        verify(enforcer, times(4)).preEntitlement(eq(consumer), eq(pool1), any(Integer.class),
-            any(CallerType.class));
-        verify(enforcer, times(4)).preEntitlement(eq(consumer), eq(pool2), any(Integer.class),
-            any(CallerType.class));
+        // Impl note: Enforcer.preEntitlement gets hit once per iteration with a batch containing
+        // both pools, for a total of 4 times for this test.
+        ArgumentCaptor<Collection<PoolQuantity>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(enforcer, times(4)).preEntitlement(eq(consumer), captor.capture(),
+            eq(CallerType.BEST_POOLS));
+
+        for (Collection<PoolQuantity> batch : captor.getAllValues()) {
+            assertEquals(Set.of(pool1, pool2), batch.stream()
+                .map(PoolQuantity::getPool)
+                .collect(Collectors.toSet()));
+        }
     }
 
     @Test
@@ -1363,7 +1379,8 @@ public class PoolManagerTest {
     public void testEntitleByProductsEmptyArray() throws Exception {
         Product product = TestUtil.createProduct();
         List<Pool> pools = new ArrayList<>();
-        Pool pool1 = TestUtil.createPool(product);
+        Pool pool1 = TestUtil.createPool(product)
+            .setId("poolId1");
         pools.add(pool1);
         Date now = new Date();
 
@@ -1384,10 +1401,11 @@ public class PoolManagerTest {
             .listAvailableEntitlementPools(any(PoolQualifier.class)))
             .thenReturn(page);
 
+        this.mockAutobindCandidates(pools);
+
         when(poolCurator.listAllByIds(anyList())).thenReturn(List.of(pool1));
 
-        when(enforcer.preEntitlement(any(Consumer.class), any(Pool.class), anyInt(),
-            any(CallerType.class))).thenReturn(result);
+        this.mockBestPoolsValidation(result);
         when(enforcer.postEntitlement(any(Consumer.class), anyMap(),
             anyList(), eq(false), anyMap())).thenReturn(new PoolOperations());
         when(result.isSuccessful()).thenReturn(true);
@@ -1473,6 +1491,25 @@ public class PoolManagerTest {
         assertPoolsAreEqual(TestUtil.copyFromSub(sub), argPool.getValue());
     }
 
+    private void mockAutobindCandidates(List<Pool> pools) {
+        AutobindCandidateIndex index = new AutobindCandidateIndex();
+        pools.forEach(pool -> index.addProvidedProduct(pool.getId(), pool.getProductId()));
+
+        doReturn(index).when(poolCurator).getAutobindCandidateIndex(anyString(), any(Date.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockBestPoolsValidation(ValidationResult result) {
+        doAnswer(iom -> {
+            Map<String, ValidationResult> results = new HashMap<>();
+            for (PoolQuantity poolQuantity : (Collection<PoolQuantity>) iom.getArgument(1)) {
+                results.put(poolQuantity.getPool().getId(), result);
+            }
+
+            return results;
+        }).when(enforcer).preEntitlement(any(Consumer.class), anyCollection(), eq(CallerType.BEST_POOLS));
+    }
+
     private void mockPoolsList(List<Pool> pools) {
         List<Pool> floating = new LinkedList<>();
         subToPools = new HashMap<>();
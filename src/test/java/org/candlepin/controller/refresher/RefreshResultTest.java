@@ -380,6 +380,54 @@ public class RefreshResultTest {
         assertEquals(0, output.size());
     }
 
+    @Test
+    public void testAddChunkResultMergesEntities() {
+        Product product1 = new Product().setId("product-1");
+        Product product2 = new Product().setId("product-2");
+        Content content = new Content("content-1");
+
+        RefreshResult chunk1 = new RefreshResult()
+            .addEntity(Product.class, product1, EntityState.CREATED);
+
+        RefreshResult chunk2 = new RefreshResult()
+            .addEntity(Product.class, product2, EntityState.UNCHANGED)
+            .addEntity(Content.class, content, EntityState.UPDATED);
+
+        RefreshResult result = new RefreshResult();
+        assertEquals(0, result.getChunkCount());
+
+        assertSame(result, result.addChunkResult(chunk1));
+        assertSame(result, result.addChunkResult(chunk2));
+
+        assertEquals(2, result.getChunkCount());
+        assertEquals(2, result.getEntityCount(Product.class));
+        assertEquals(1, result.getEntityCount(Content.class));
+        assertEquals(0, result.getEntityCount(Pool.class));
+
+        assertEquals(EntityState.CREATED, result.getEntityState(Product.class, product1.getId()));
+        assertEquals(EntityState.UNCHANGED, result.getEntityState(Product.class, product2.getId()));
+        assertEquals(EntityState.UPDATED, result.getEntityState(Content.class, content.getId()));
+    }
 
+    @Test
+    public void testAddChunkResultRetainsModifiedEntityStates() {
+        Product product1 = new Product().setId("product-1");
+        Product product2 = new Product().setId("product-2");
+
+        RefreshResult chunk1 = new RefreshResult()
+            .addEntity(Product.class, product1, EntityState.UPDATED)
+            .addEntity(Product.class, product2, EntityState.UNCHANGED);
+
+        RefreshResult chunk2 = new RefreshResult()
+            .addEntity(Product.class, product1, EntityState.UNCHANGED)
+            .addEntity(Product.class, product2, EntityState.CREATED);
+
+        RefreshResult result = new RefreshResult()
+            .addChunkResult(chunk1)
+            .addChunkResult(chunk2);
+
+        assertEquals(EntityState.UPDATED, result.getEntityState(Product.class, product1.getId()));
+        assertEquals(EntityState.CREATED, result.getEntityState(Product.class, product2.getId()));
+    }
 
 }
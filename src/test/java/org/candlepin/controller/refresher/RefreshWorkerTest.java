@@ -29,9 +29,14 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.controller.refresher.RefreshResult.EntityState;
 import org.candlepin.model.Content;
 import org.candlepin.model.ContentCurator;
 import org.candlepin.model.Owner;
@@ -86,6 +91,7 @@ import javax.persistence.EntityManager;
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class RefreshWorkerTest {
 
+    private DevConfig config;
     private EntityManager mockEntityManager;
     private PoolCurator mockPoolCurator;
     private ProductCurator mockProductCurator;
@@ -93,6 +99,7 @@ public class RefreshWorkerTest {
 
     @BeforeEach
     protected void init() {
+        this.config = TestConfig.defaults();
         this.mockEntityManager = mock(EntityManager.class);
         this.mockPoolCurator = mock(PoolCurator.class);
         this.mockProductCurator = mock(ProductCurator.class);
@@ -172,7 +179,8 @@ public class RefreshWorkerTest {
     }
 
     private RefreshWorker buildRefreshWorker() {
-        return new RefreshWorker(this.mockPoolCurator, this.mockProductCurator, this.mockContentCurator);
+        return new RefreshWorker(this.mockPoolCurator, this.mockProductCurator, this.mockContentCurator,
+            this.config);
     }
 
     private SubscriptionInfo mockSubscriptionInfo(String id, ProductInfo pinfo) {
@@ -1273,4 +1281,180 @@ public class RefreshWorkerTest {
         verify(mockProductCurator, times(1)).create(Mockito.any(Product.class), anyBoolean());
     }
 
+    @Test
+    public void testExecuteChunkedRefreshesIndependentSubscriptionsSeparately() {
+        Owner owner = new Owner();
+        owner.setId("owner_id");
+
+        ProductContentInfo pcinfo1 = this.mockProductContentInfo("cid-1", "content-1");
+        ProductContentInfo pcinfo2 = this.mockProductContentInfo("cid-2", "content-2");
+        ProductInfo pinfo1 = this.mockProductInfo("pid-1", "product-1");
+        ProductInfo pinfo2 = this.mockProductInfo("pid-2", "product-2");
+
+        doReturn(List.of(pcinfo1)).when(pinfo1).getProductContent();
+        doReturn(List.of(pcinfo2)).when(pinfo2).getProductContent();
+
+        SubscriptionInfo sinfo1 = this.mockSubscriptionInfo("sub-1", pinfo1);
+        SubscriptionInfo sinfo2 = this.mockSubscriptionInfo("sub-2", pinfo2);
+
+        this.mockProductLookup(List.of());
+        this.mockContentLookup(List.of());
+
+        this.config.setProperty(ConfigProperties.REFRESH_CHUNK_SIZE, "3");
+
+        RefreshWorker worker = this.buildRefreshWorker();
+        worker.addSubscriptions(sinfo1, sinfo2);
+
+        RefreshResult result = worker.execute(owner);
+
+        assertNotNull(result);
+        assertEquals(2, result.getChunkCount());
+
+        Map<String, Product> productMap = result.getEntities(Product.class, EntityState.CREATED);
+        assertEquals(2, productMap.size());
+        assertThat(productMap, hasKey(pinfo1.getId()));
+        assertThat(productMap, hasKey(pinfo2.getId()));
+
+        Map<String, Content> contentMap = result.getEntities(Content.class, EntityState.CREATED);
+        assertEquals(2, contentMap.size());
+        assertThat(contentMap, hasKey(pcinfo1.getContent().getId()));
+        assertThat(contentMap, hasKey(pcinfo2.getContent().getId()));
+
+        // Each chunk should only map the existing pools of its own subscriptions
+        verify(this.mockPoolCurator).getBySubscriptionIds(owner.getId(), Set.of(sinfo1.getId()));
+        verify(this.mockPoolCurator).getBySubscriptionIds(owner.getId(), Set.of(sinfo2.getId()));
+        verify(this.mockPoolCurator, never()).listByOwnerAndTypes(any(String.class), any(PoolType[].class));
+        verify(this.mockProductCurator, times(2)).getProductsByIds(eq(null), any(Collection.class));
+    }
+
+    @Test
+    public void testExecuteChunkedKeepsSubscriptionsWithSharedEntitiesTogether() {
+        Owner owner = new Owner();
+        owner.setId("owner_id");
+
+        ProductContentInfo pcinfo1 = this.mockProductContentInfo("cid-1", "content-1");
+        ProductContentInfo pcinfo2 = this.mockProductContentInfo("cid-2", "content-2");
+        ProductInfo pinfo1 = this.mockProductInfo("pid-1", "product-1");
+        ProductInfo pinfo2 = this.mockProductInfo("pid-2", "product-2");
+        ProductInfo pinfo3 = this.mockProductInfo("pid-3", "product-3");
+
+        // Both subscriptions provide the same engineering product
+        doReturn(List.of(pcinfo1, pcinfo2)).when(pinfo3).getProductContent();
+        doReturn(List.of(pinfo3)).when(pinfo1).getProvidedProducts();
+        doReturn(List.of(pinfo3)).when(pinfo2).getProvidedProducts();
+
+        SubscriptionInfo sinfo1 = this.mockSubscriptionInfo("sub-1", pinfo1);
+        SubscriptionInfo sinfo2 = this.mockSubscriptionInfo("sub-2", pinfo2);
+
+        this.mockProductLookup(List.of());
+        this.mockContentLookup(List.of());
+
+        this.config.setProperty(ConfigProperties.REFRESH_CHUNK_SIZE, "1");
+
+        RefreshWorker worker = this.buildRefreshWorker();
+        worker.addSubscriptions(sinfo1, sinfo2);
+
+        RefreshResult result = worker.execute(owner);
+
+        assertNotNull(result);
+        assertEquals(1, result.getChunkCount());
+        assertEquals(3, result.getEntityCount(Product.class));
+        assertEquals(2, result.getEntityCount(Content.class));
+
+        verify(this.mockPoolCurator)
+            .getBySubscriptionIds(owner.getId(), Set.of(sinfo1.getId(), sinfo2.getId()));
+        verify(this.mockProductCurator, times(1)).getProductsByIds(eq(null), any(Collection.class));
+        verify(this.mockProductCurator, times(3)).create(Mockito.any(Product.class), anyBoolean());
+    }
+
+    @Test
+    public void testExecuteChunkedPacksSmallSubgraphsIntoChunks() {
+        Owner owner = new Owner();
+        owner.setId("owner_id");
+
+        List<SubscriptionInfo> subscriptions = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            ProductInfo pinfo = this.mockProductInfo("pid-" + i, "product-" + i);
+            subscriptions.add(this.mockSubscriptionInfo("sub-" + i, pinfo));
+        }
+
+        this.mockProductLookup(List.of());
+        this.mockContentLookup(List.of());
+
+        // Each subscription and its product make up a subgraph of two entities
+        this.config.setProperty(ConfigProperties.REFRESH_CHUNK_SIZE, "4");
+
+        RefreshWorker worker = this.buildRefreshWorker();
+        worker.addSubscriptions(subscriptions);
+
+        RefreshResult result = worker.execute(owner);
+
+        assertNotNull(result);
+        assertEquals(3, result.getChunkCount());
+        assertEquals(5, result.getEntities(Product.class, EntityState.CREATED).size());
+    }
+
+    @Test
+    public void testExecuteChunkedUsesSingleChunkWhenTransactionAlreadyExists() {
+        Owner owner = new Owner();
+        owner.setId("owner_id");
+
+        ProductInfo pinfo1 = this.mockProductInfo("pid-1", "product-1");
+        ProductInfo pinfo2 = this.mockProductInfo("pid-2", "product-2");
+
+        SubscriptionInfo sinfo1 = this.mockSubscriptionInfo("sub-1", pinfo1);
+        SubscriptionInfo sinfo2 = this.mockSubscriptionInfo("sub-2", pinfo2);
+
+        this.mockProductLookup(List.of());
+        this.mockContentLookup(List.of());
+
+        this.config.setProperty(ConfigProperties.REFRESH_CHUNK_SIZE, "1");
+
+        RefreshWorker worker = this.buildRefreshWorker();
+        worker.addSubscriptions(sinfo1, sinfo2);
+
+        // Chunks cannot be committed separately within an existing transaction
+        this.mockEntityManager.getTransaction().begin();
+        RefreshResult result = worker.execute(owner);
+
+        assertNotNull(result);
+        assertEquals(0, result.getChunkCount());
+        assertEquals(2, result.getEntities(Product.class, EntityState.CREATED).size());
+
+        verify(this.mockPoolCurator).listByOwnerAndTypes(owner.getId(), PoolType.NORMAL);
+        verify(this.mockPoolCurator, never()).getBySubscriptionIds(any(String.class), any(Collection.class));
+    }
+
+    @Test
+    public void testExecuteWithParallelism() {
+        Owner owner = new Owner();
+        owner.setId("owner_id");
+
+        List<SubscriptionInfo> subscriptions = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            ProductContentInfo pcinfo = this.mockProductContentInfo("cid-" + i, "content-" + i);
+            ProductInfo pinfo = this.mockProductInfo("pid-" + i, "product-" + i);
+            doReturn(List.of(pcinfo)).when(pinfo).getProductContent();
+
+            subscriptions.add(this.mockSubscriptionInfo("sub-" + i, pinfo));
+        }
+
+        this.mockProductLookup(List.of());
+        this.mockContentLookup(List.of());
+
+        this.config.setProperty(ConfigProperties.REFRESH_PARALLELISM, "4");
+
+        RefreshWorker worker = this.buildRefreshWorker();
+        worker.addSubscriptions(subscriptions);
+
+        RefreshResult result = worker.execute(owner);
+
+        assertNotNull(result);
+        assertEquals(50, result.getEntities(Product.class, EntityState.CREATED).size());
+        assertEquals(50, result.getEntities(Content.class, EntityState.CREATED).size());
+
+        verify(this.mockProductCurator, times(50)).create(Mockito.any(Product.class), anyBoolean());
+        verify(this.mockContentCurator, times(50)).create(Mockito.any(Content.class), anyBoolean());
+    }
+
 }
@@ -52,11 +52,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 
 
@@ -445,4 +450,128 @@ public class NodeProcessorTest {
         }
     }
 
+    @Test
+    public void testSetForkJoinPool() {
+        NodeProcessor processor = new NodeProcessor();
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            assertSame(processor, processor.setForkJoinPool(pool));
+            assertSame(processor, processor.setForkJoinPool(null));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testProcessNodesInParallel() {
+        Owner owner = TestUtil.createOwner();
+
+        NodeProcessor processor = new NodeProcessor();
+        NodeMapper mapper = new NodeMapper();
+        NodeVisitor visitor = this.mockNodeVisitor(Product.class);
+
+        // Build a large tier of leaf nodes beneath a smaller tier of parent nodes
+        List<EntityNode> parents = new ArrayList<>();
+        List<EntityNode> children = new ArrayList<>();
+
+        for (int i = 0; i < 20; ++i) {
+            EntityNode parent = this.buildEntityNode(owner, "parent-" + i, Product.class, ProductInfo.class);
+
+            for (int c = 0; c < 5; ++c) {
+                EntityNode child = this.buildEntityNode(owner, "child-" + i + "-" + c, Product.class,
+                    ProductInfo.class);
+
+                parent.addChildNode(child);
+                children.add(child);
+                mapper.addNode(child);
+            }
+
+            parents.add(parent);
+            mapper.addNode(parent);
+        }
+
+        Thread callingThread = Thread.currentThread();
+        Set<Thread> processingThreads = ConcurrentHashMap.newKeySet();
+        List<EntityNode> prepared = Collections.synchronizedList(new ArrayList<>());
+        List<EntityNode> applied = new ArrayList<>();
+
+        doAnswer(iom -> {
+            prepared.add(iom.getArgument(0));
+            return null;
+        }).when(visitor).prepareNode(any(EntityNode.class));
+
+        doAnswer(iom -> {
+            EntityNode node = iom.getArgument(0);
+
+            node.setNodeState(NodeState.UNCHANGED);
+            processingThreads.add(Thread.currentThread());
+            return null;
+        }).when(visitor).processNode(any(EntityNode.class));
+
+        doAnswer(iom -> {
+            // Changes must always be applied on the calling thread
+            assertSame(callingThread, Thread.currentThread());
+            applied.add(iom.getArgument(0));
+            return null;
+        }).when(visitor).applyChanges(any(EntityNode.class));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            processor.setNodeMapper(mapper)
+                .setForkJoinPool(pool)
+                .addVisitor(visitor);
+
+            RefreshResult result = processor.processNodes();
+            assertEquals(120, result.getEntities(Product.class, EntityState.UNCHANGED).size());
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        // Only the tier large enough to be processed in parallel should have been prepared
+        assertEquals(children.size(), prepared.size());
+        assertTrue(prepared.containsAll(children));
+        assertTrue(processingThreads.stream().anyMatch(thread -> thread != callingThread));
+
+        // Children changes must be applied before those of their parents
+        assertEquals(120, applied.size());
+        for (EntityNode parent : parents) {
+            this.validateNodeProcessingOrder(applied, parent);
+        }
+    }
+
+    @Test
+    public void testParallelProcessingPropagatesVisitorExceptions() {
+        Owner owner = TestUtil.createOwner();
+
+        NodeProcessor processor = new NodeProcessor();
+        NodeMapper mapper = new NodeMapper();
+        NodeVisitor visitor = this.mockNodeVisitor(Product.class);
+
+        for (int i = 0; i < 50; ++i) {
+            mapper.addNode(this.buildEntityNode(owner, "node-" + i, Product.class, ProductInfo.class));
+        }
+
+        doAnswer(iom -> {
+            throw new IllegalStateException("processing failure");
+        }).when(visitor).processNode(any(EntityNode.class));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            processor.setNodeMapper(mapper)
+                .setForkJoinPool(pool)
+                .addVisitor(visitor);
+
+            assertThrows(IllegalStateException.class, () -> processor.processNodes());
+            verify(visitor, never()).applyChanges(any(EntityNode.class));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
 }
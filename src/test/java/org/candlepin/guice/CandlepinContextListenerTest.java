@@ -26,11 +26,17 @@ import static org.mockito.Mockito.when;
 
 import org.candlepin.TestingModules;
 import org.candlepin.audit.ActiveMQContextListener;
+import org.candlepin.cache.AutobindCandidateIndexCache;
+import org.candlepin.cache.AutobindCandidateIndexCacheInvalidator;
+import org.candlepin.cache.ReferenceDataCacheInvalidator;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
 import org.candlepin.junit.LiquibaseExtension;
+import org.candlepin.model.AutobindCandidateIndex;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
 import org.candlepin.service.EventAdapter;
 
 import com.google.inject.AbstractModule;
@@ -39,6 +45,12 @@ import com.google.inject.Module;
 import com.google.inject.Stage;
 import com.google.inject.util.Modules;
 
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.jpa.HibernateEntityManagerFactory;
 import org.jboss.resteasy.spi.Registry;
 import org.jboss.resteasy.spi.ResteasyDeployment;
 import org.jboss.resteasy.spi.ResteasyProviderFactory;
@@ -49,12 +61,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
+import javax.persistence.EntityManagerFactory;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 
@@ -73,6 +90,7 @@ public class CandlepinContextListenerTest {
     private ResteasyDeployment resteasyDeployment;
     private boolean configRead;
     private EventAdapter mockEventAdapter;
+    private Injector injector;
 
     @BeforeEach
     public void init() {
@@ -291,6 +309,69 @@ public class CandlepinContextListenerTest {
         verify(mockEventAdapter).shutdown();
     }
 
+    @Test
+    public void autobindCandidateIndexesAreEvictedWithReferenceDataCacheDisabled() {
+        this.config.setProperty(ConfigProperties.CACHE_REFERENCE_DATA_TTL, "0");
+        this.config.setProperty(ConfigProperties.CACHE_AUTOBIND_CANDIDATES_TTL, "30000");
+
+        prepareForInitialization();
+        listener.contextInitialized(evt);
+
+        AutobindCandidateIndexCache cache = injector.getInstance(AutobindCandidateIndexCache.class);
+        AtomicInteger counter = new AtomicInteger();
+        BiFunction<String, Date, AutobindCandidateIndex> loader = (ownerId, activeOn) -> {
+            counter.incrementAndGet();
+            return new AutobindCandidateIndex();
+        };
+
+        Date now = new Date();
+        cache.get("owner", now, loader);
+
+        Pool pool = new Pool().setOwner(new Owner().setId("owner"));
+        PostUpdateEvent event = new PostUpdateEvent(pool, "pool", null, null, null, null, null);
+        for (EventType<PostUpdateEventListener> type : List.of(EventType.POST_UPDATE,
+            EventType.POST_COMMIT_UPDATE)) {
+
+            List<PostUpdateEventListener> listeners = this.getEventListeners(type).stream()
+                .filter(AutobindCandidateIndexCacheInvalidator.class::isInstance)
+                .toList();
+
+            assertEquals(1, listeners.size());
+            listeners.forEach(elem -> elem.onPostUpdate(event));
+        }
+
+        cache.get("owner", now, loader);
+
+        assertTrue(cache.isEnabled());
+        assertEquals(2, counter.get());
+        assertFalse(this.getEventListeners(EventType.POST_COMMIT_UPDATE).stream()
+            .anyMatch(ReferenceDataCacheInvalidator.class::isInstance));
+    }
+
+    @Test
+    public void autobindCandidateListenersNotRegisteredWithCacheDisabled() {
+        this.config.setProperty(ConfigProperties.CACHE_AUTOBIND_CANDIDATES_TTL, "0");
+
+        prepareForInitialization();
+        listener.contextInitialized(evt);
+
+        assertFalse(this.getEventListeners(EventType.POST_UPDATE).stream()
+            .anyMatch(AutobindCandidateIndexCacheInvalidator.class::isInstance));
+    }
+
+    private <T> List<T> getEventListeners(EventType<T> type) {
+        HibernateEntityManagerFactory emf = (HibernateEntityManagerFactory) injector
+            .getInstance(EntityManagerFactory.class);
+        EventListenerRegistry registry = ((SessionFactoryImpl) emf.getSessionFactory())
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+
+        List<T> listeners = new ArrayList<>();
+        registry.getEventListenerGroup(type).listeners().forEach(listeners::add);
+
+        return listeners;
+    }
+
     @Test
     public void exitStageLeft() {
         assertEquals(Stage.PRODUCTION, listener.getStage(ctx));
@@ -348,6 +429,12 @@ public class CandlepinContextListenerTest {
             protected void initializeDatabase() {
                 // Intentionally left blank
             }
+
+            @Override
+            public void withInjector(Injector injector) {
+                CandlepinContextListenerTest.this.injector = injector;
+                super.withInjector(injector);
+            }
         };
     }
 
@@ -14,7 +14,9 @@
  */
 package org.candlepin.jackson;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
@@ -22,6 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
+import java.util.Set;
 
 
 
@@ -130,4 +133,37 @@ public class DynamicFilterDataTest {
         assertTrue(filterData.isAttributeExcluded(Arrays.asList("a", "b2", "d3")));
     }
 
+    @Test
+    public void testGetIncludedRootAttributes() {
+        DynamicFilterData filterData = new DynamicFilterData(true);
+        filterData.includeAttribute("Bacon");
+        filterData.includeAttribute("egg.cheese");
+        filterData.includeAttribute("egg.spinach");
+
+        assertEquals(Set.of("bacon", "egg"), filterData.getIncludedRootAttributes());
+    }
+
+    @Test
+    public void testGetIncludedRootAttributesRequiresAllowlist() {
+        DynamicFilterData filterData = new DynamicFilterData(false);
+        filterData.includeAttribute("bacon");
+
+        assertNull(filterData.getIncludedRootAttributes());
+    }
+
+    @Test
+    public void testGetIncludedRootAttributesRequiresIncludes() {
+        DynamicFilterData filterData = new DynamicFilterData(true);
+
+        assertNull(filterData.getIncludedRootAttributes());
+    }
+
+    @Test
+    public void testGetIncludedRootAttributesWithExcludes() {
+        DynamicFilterData filterData = new DynamicFilterData(true);
+        filterData.includeAttribute("bacon");
+        filterData.excludeAttribute("bacon.egg");
+
+        assertNull(filterData.getIncludedRootAttributes());
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+
+
+public class AutobindCandidateIndexTest {
+
+    @Test
+    public void testFindCandidatesByProvidedProduct() {
+        AutobindCandidateIndex index = new AutobindCandidateIndex()
+            .addProvidedProduct("pool-1", "product-1")
+            .addProvidedProduct("pool-1", "product-2")
+            .addProvidedProduct("pool-2", "product-2")
+            .addProvidedProduct("pool-3", "product-3");
+
+        assertEquals(Set.of("pool-1", "pool-2"),
+            index.findCandidates(List.of("product-2"), null, null, null));
+        assertEquals(Set.of("pool-1", "pool-3"),
+            index.findCandidates(List.of("product-1", "product-3"), null, null, null));
+        assertEquals(Set.of(), index.findCandidates(List.of("product-4"), null, null, null));
+    }
+
+    @Test
+    public void testFindCandidatesByStackingId() {
+        AutobindCandidateIndex index = new AutobindCandidateIndex()
+            .addProductAttribute("pool-1", Product.Attributes.STACKING_ID, "stack-1")
+            .addProductAttribute("pool-2", Product.Attributes.STACKING_ID, "stack-2");
+
+        assertEquals(Set.of("pool-2"), index.findCandidates(null, List.of("stack-2"), null, null));
+        assertEquals(Set.of(), index.findCandidates(null, List.of("STACK-1"), null, null));
+    }
+
+    @Test
+    public void testFindCandidatesByRoleIgnoresCase() {
+        AutobindCandidateIndex index = new AutobindCandidateIndex()
+            .addProductAttribute("pool-1", Product.Attributes.ROLES, "Role One,  role two")
+            .addProductAttribute("pool-2", Product.Attributes.ROLES, "role three");
+
+        assertEquals(Set.of("pool-1"), index.findCandidates(null, null, "ROLE TWO", null));
+        assertEquals(Set.of("pool-1"), index.findCandidates(null, null, "role one", null));
+        assertEquals(Set.of(), index.findCandidates(null, null, "role four", null));
+    }
+
+    @Test
+    public void testFindCandidatesByAddOnIgnoresCase() {
+        AutobindCandidateIndex index = new AutobindCandidateIndex()
+            .addProductAttribute("pool-1", Product.Attributes.ADDONS, "Addon One, Addon Two")
+            .addProductAttribute("pool-2", Product.Attributes.ADDONS, "addon two");
+
+        assertEquals(Set.of("pool-1", "pool-2"),
+            index.findCandidates(null, null, null, Set.of(" ADDON TWO ")));
+    }
+
+    @Test
+    public void testFindCandidatesCombinesCriteria() {
+        AutobindCandidateIndex index = new AutobindCandidateIndex()
+            .addProvidedProduct("pool-1", "product-1")
+            .addProductAttribute("pool-2", Product.Attributes.STACKING_ID, "stack-1")
+            .addProductAttribute("pool-3", Product.Attributes.ROLES, "role")
+            .addProductAttribute("pool-4", Product.Attributes.ADDONS, "addon")
+            .addProductAttribute("pool-5", Product.Attributes.USAGE, "usage");
+
+        assertEquals(Set.of("pool-1", "pool-2", "pool-3", "pool-4"), index.findCandidates(
+            List.of("product-1"), List.of("stack-1"), "role", List.of("addon", "usage")));
+    }
+}
@@ -16,6 +16,7 @@ package org.candlepin.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.candlepin.test.DatabaseTestFixture;
@@ -89,6 +90,26 @@ public class CertificateSerialCuratorTest extends DatabaseTestFixture {
         assertNotNull(serial.getId());
     }
 
+    @Test
+    public void testCreateAssignedRetainsSerialNumber() {
+        CertificateSerial serial = new CertificateSerial(8675309L, new Date());
+
+        certSerialCurator.createAssigned(serial);
+        certSerialCurator.flush();
+        certSerialCurator.clear();
+
+        CertificateSerial fetched = certSerialCurator.get(8675309L);
+        assertNotNull(fetched);
+        assertEquals(8675309L, fetched.getId());
+    }
+
+    @Test
+    public void testCreateAssignedRequiresSerialNumber() {
+        CertificateSerial serial = new CertificateSerial(new Date());
+
+        assertThrows(IllegalArgumentException.class, () -> certSerialCurator.createAssigned(serial));
+    }
+
     @Test
     public void listExistingRevokedSerials() {
         CertSerialBuilder builder = new CertSerialBuilder(this.certSerialCurator);
@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -30,12 +31,15 @@ import org.candlepin.auth.Principal;
 import org.candlepin.auth.permissions.OwnerPermission;
 import org.candlepin.auth.permissions.Permission;
 import org.candlepin.model.ConsumerCurator.ConsumerQueryArguments;
+import org.candlepin.paging.PageRequest;
+import org.candlepin.paging.PageToken;
 import org.candlepin.test.DatabaseTestFixture;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -1119,4 +1123,102 @@ public class ConsumerCuratorSearchTest extends DatabaseTestFixture {
         assertEquals(fetched.size(), fetchCount);
         assertEquals(expected, fetched.size());
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "created", "id" })
+    public void testFindConsumersWithKeysetPaging(String sortBy) {
+        List<Consumer> created = this.createConsumersForQueryTests();
+
+        Owner owner = created.stream()
+            .map(Consumer::getOwner)
+            .filter(Objects::nonNull)
+            .findFirst()
+            .get();
+
+        Set<String> expected = created.stream()
+            .filter(consumer -> owner.getId().equals(consumer.getOwnerId()))
+            .map(Consumer::getId)
+            .collect(Collectors.toSet());
+        assertTrue(expected.size() > 2);
+
+        List<String> fetched = new ArrayList<>();
+        String nextToken = "";
+
+        while (nextToken != null) {
+            PageRequest pageRequest = new PageRequest()
+                .setKeyset(true)
+                .setPage(1)
+                .setPerPage(2)
+                .setSortBy(sortBy)
+                .setOrder(PageRequest.Order.ASCENDING);
+
+            if (!nextToken.isEmpty()) {
+                pageRequest.setPageToken(PageToken.decode(nextToken));
+            }
+
+            ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+                .setOwner(owner)
+                .setKeysetPageRequest(pageRequest)
+                .setLimit(pageRequest.getPerPage());
+
+            List<Consumer> page = this.consumerCurator.findConsumers(queryArgs);
+            assertTrue(page.size() <= 2);
+
+            page.stream()
+                .map(Consumer::getId)
+                .forEach(fetched::add);
+
+            nextToken = this.consumerCurator.buildKeysetPage(pageRequest, page)
+                .getNextPageToken();
+        }
+
+        assertEquals(expected.size(), fetched.size());
+        assertEquals(expected, Set.copyOf(fetched));
+    }
+
+    @Test
+    public void testFindConsumerProjections() {
+        List<Consumer> created = this.createConsumersForQueryTests();
+        Owner owner = created.get(0).getOwner();
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .setOwner(owner)
+            .addOrder("name", false)
+            .setOffset(2)
+            .setLimit(5);
+
+        List<Consumer> expected = this.consumerCurator.findConsumers(queryArgs);
+        assertEquals(5, expected.size());
+
+        TupleProjection projection = new TupleProjection(List.of("id", "uuid", "name", "entitlementCount"));
+        List<Map<String, Object>> fetched = this.consumerCurator.findConsumerProjections(queryArgs,
+            projection);
+
+        assertEquals(expected.size(), fetched.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            Consumer consumer = expected.get(i);
+            Map<String, Object> row = fetched.get(i);
+
+            assertEquals(consumer.getId(), row.get("id"));
+            assertEquals(consumer.getUuid(), row.get("uuid"));
+            assertEquals(consumer.getName(), row.get("name"));
+            assertEquals(consumer.getEntitlementCount(), row.get("entitlementCount"));
+        }
+    }
+
+    @Test
+    public void testFindConsumerProjectionsRejectsKeysetPaging() {
+        PageRequest pageRequest = new PageRequest()
+            .setKeyset(true)
+            .setPage(1)
+            .setPerPage(2);
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .setKeysetPageRequest(pageRequest);
+
+        TupleProjection projection = new TupleProjection(List.of("id"));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> this.consumerCurator.findConsumerProjections(queryArgs, projection));
+    }
 }
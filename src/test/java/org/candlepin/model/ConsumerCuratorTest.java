@@ -43,6 +43,7 @@ import org.candlepin.util.PropertyValidationException;
 import org.candlepin.util.Util;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -1164,6 +1165,39 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         assertTrue(consumer.getLastCheckin().getTime() > date.getTime());
     }
 
+    @Test
+    public void testUpdateLastCheckins() {
+        Date previous = TestUtil.createDate(2020, 1, 1);
+        Date checkin = TestUtil.createDate(2021, 1, 1);
+        Date future = TestUtil.createDate(2022, 1, 1);
+
+        Consumer consumer1 = this.createConsumer(owner).setLastCheckin(previous);
+        Consumer consumer2 = this.createConsumer(owner).setLastCheckin(null);
+        Consumer consumer3 = this.createConsumer(owner).setLastCheckin(future);
+        Consumer consumer4 = this.createConsumer(owner).setLastCheckin(previous);
+        consumerCurator.merge(consumer1);
+        consumerCurator.merge(consumer2);
+        consumerCurator.merge(consumer3);
+        consumerCurator.merge(consumer4);
+        consumerCurator.flush();
+
+        int updated = consumerCurator.updateLastCheckins(
+            List.of(consumer1.getId(), consumer2.getId(), consumer3.getId()), checkin);
+        consumerCurator.clear();
+
+        // Consumers which have already checked in later should not be moved backward
+        assertEquals(2, updated);
+        assertEquals(checkin.getTime(), consumerCurator.get(consumer1.getId()).getLastCheckin().getTime());
+        assertEquals(checkin.getTime(), consumerCurator.get(consumer2.getId()).getLastCheckin().getTime());
+        assertEquals(future.getTime(), consumerCurator.get(consumer3.getId()).getLastCheckin().getTime());
+        assertEquals(previous.getTime(), consumerCurator.get(consumer4.getId()).getLastCheckin().getTime());
+    }
+
+    @Test
+    public void testUpdateLastCheckinsWithNoConsumers() {
+        assertEquals(0, consumerCurator.updateLastCheckins(List.of(), new Date()));
+    }
+
     @Test
     public void delete() {
         Consumer consumer = new Consumer()
@@ -1705,6 +1739,58 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         assertEquals(0, results.size());
     }
 
+    @Test
+    public void testGetHypervisorsByHypervisorIds() {
+        Consumer hypervisor1 = createHypervisor(owner, "HYpervisor-1");
+        Consumer hypervisor2 = createHypervisor(owner);
+        hypervisor1.addGuestId(new GuestId("guest-1"));
+        consumerCurator.merge(hypervisor1);
+        consumerCurator.flush();
+        consumerCurator.clear();
+
+        Map<String, Consumer> results = consumerCurator.getHypervisorsByHypervisorIds(owner.getId(),
+            List.of("hypervisor-1", hypervisor2.getHypervisorId().getHypervisorId(), "not a hypervisor"));
+
+        assertEquals(2, results.size());
+        assertEquals(hypervisor1.getId(), results.get("hypervisor-1").getId());
+        assertEquals(hypervisor2.getId(),
+            results.get(hypervisor2.getHypervisorId().getHypervisorId().toLowerCase()).getId());
+        assertTrue(Hibernate.isInitialized(results.get("hypervisor-1").getGuestIds()));
+        assertEquals(1, results.get("hypervisor-1").getGuestIds().size());
+    }
+
+    @Test
+    public void testGetHypervisorsByHypervisorIdsWrongOwner() {
+        Owner otherOwner = ownerCurator.create(new Owner()
+            .setKey("test-owner-other")
+            .setDisplayName("Test Other Owner"));
+        Consumer consumer = createHypervisor(owner);
+
+        Map<String, Consumer> results = consumerCurator.getHypervisorsByHypervisorIds(otherOwner.getId(),
+            List.of(consumer.getHypervisorId().getHypervisorId()));
+
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void testGetConsumersBySystemUuids() {
+        String uuid1 = UUID.randomUUID().toString();
+        String uuid2 = UUID.randomUUID().toString();
+        Consumer consumer1 = createConsumer(owner).setFact(Consumer.Facts.DMI_SYSTEM_UUID, uuid1);
+        Consumer consumer2 = createConsumer(owner).setFact(Consumer.Facts.DMI_SYSTEM_UUID,
+            uuid2.toUpperCase());
+        consumerCurator.merge(consumer1);
+        consumerCurator.merge(consumer2);
+        consumerCurator.flush();
+
+        Map<String, Consumer> results = consumerCurator.getConsumersBySystemUuids(owner.getId(),
+            List.of(uuid1.toUpperCase(), uuid2, UUID.randomUUID().toString()));
+
+        assertEquals(2, results.size());
+        assertEquals(consumer1.getId(), results.get(uuid1).getId());
+        assertEquals(consumer2.getId(), results.get(uuid2).getId());
+    }
+
     @Test
     public void testGetHypervisorsByOwner() {
         Owner otherOwner = this.createOwner("other owner");
@@ -398,6 +398,43 @@ public class EntitlementCuratorTest extends DatabaseTestFixture {
         assertEquals(p.getAttributeValue("pool_attr_1"), "attr1");
     }
 
+    @Test
+    public void listProjectionsByConsumerWithPaging() {
+        PageRequest req = createPageRequest();
+        req.setPerPage(1);
+
+        EntitlementFilterBuilder filters = new EntitlementFilterBuilder();
+        Page<List<Entitlement>> expected = entitlementCurator.listByConsumer(consumer, null, filters, req);
+
+        TupleProjection projection = new TupleProjection(List.of("id", "quantity", "pool.endDate"));
+        Page<List<Map<String, Object>>> fetched = entitlementCurator.listProjectionsByConsumer(consumer,
+            filters, req, projection);
+
+        assertEquals(expected.getMaxRecords(), fetched.getMaxRecords());
+        assertEquals(1, fetched.getPageData().size());
+
+        Entitlement entitlement = expected.getPageData().get(0);
+        Map<String, Object> row = fetched.getPageData().get(0);
+        assertEquals(entitlement.getId(), row.get("id"));
+        assertEquals(entitlement.getQuantity(), row.get("quantity"));
+        assertEquals(entitlement.getPool().getEndDate().getTime(),
+            ((Date) row.get("pool.endDate")).getTime());
+    }
+
+    @Test
+    public void listProjectionsByConsumerFilteringByPoolAttribute() {
+        EntitlementFilterBuilder filters = new EntitlementFilterBuilder();
+        filters.addAttributeFilter("pool_attr_1", "attr1");
+
+        TupleProjection projection = new TupleProjection(List.of("id"));
+        Page<List<Map<String, Object>>> fetched = entitlementCurator.listProjectionsByConsumer(consumer,
+            filters, null, projection);
+
+        List<Entitlement> expected = entitlementCurator.listByConsumer(consumer, filters);
+        assertEquals(1, fetched.getPageData().size());
+        assertEquals(expected.get(0).getId(), fetched.getPageData().get(0).get("id"));
+    }
+
     @Test
     public void listAllByOwner() {
         PageRequest req = createPageRequest();
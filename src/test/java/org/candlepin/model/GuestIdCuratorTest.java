@@ -16,6 +16,7 @@ package org.candlepin.model;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -23,6 +24,9 @@ import org.candlepin.auth.UserPrincipal;
 import org.candlepin.auth.permissions.ConsumerPermission;
 import org.candlepin.auth.permissions.Permission;
 import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.paging.Page;
+import org.candlepin.paging.PageRequest;
+import org.candlepin.paging.PageToken;
 import org.candlepin.test.DatabaseTestFixture;
 import org.candlepin.test.TestUtil;
 
@@ -239,4 +243,76 @@ public class GuestIdCuratorTest extends DatabaseTestFixture {
          */
         assertEquals(new GuestId(guestId), result);
     }
+
+    @Test
+    public void listByConsumerWithPageRequest() {
+        Consumer consumer = new Consumer()
+            .setName("testConsumer")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+
+        for (int i = 0; i < 5; i++) {
+            consumer.addGuestId(new GuestId("guest-" + i));
+        }
+
+        consumerCurator.create(consumer);
+
+        PageRequest pageRequest = new PageRequest()
+            .setPage(2)
+            .setPerPage(2)
+            .setSortBy("guestId")
+            .setOrder(PageRequest.Order.ASCENDING);
+
+        Page<List<GuestId>> page = guestIdCurator.listByConsumer(consumer, pageRequest);
+
+        assertEquals(5, page.getMaxRecords());
+        assertThat(page.getPageData())
+            .extracting(GuestId::getGuestId)
+            .containsExactly("guest-2", "guest-3");
+    }
+
+    @Test
+    public void listByConsumerWithKeysetPageRequest() {
+        Consumer consumer = new Consumer()
+            .setName("testConsumer")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+
+        for (int i = 0; i < 5; i++) {
+            consumer.addGuestId(new GuestId("guest-" + i));
+        }
+
+        consumerCurator.create(consumer);
+
+        List<GuestId> fetched = new ArrayList<>();
+        String nextToken = "";
+        int pages = 0;
+
+        while (nextToken != null) {
+            PageRequest pageRequest = new PageRequest()
+                .setKeyset(true)
+                .setPage(1)
+                .setPerPage(2)
+                .setOrder(PageRequest.Order.ASCENDING);
+
+            if (!nextToken.isEmpty()) {
+                pageRequest.setPageToken(PageToken.decode(nextToken));
+            }
+
+            Page<List<GuestId>> page = guestIdCurator.listByConsumer(consumer, pageRequest);
+            assertTrue(page.isKeyset());
+            assertNotNull(page.getPageData());
+
+            fetched.addAll(page.getPageData());
+            nextToken = page.getNextPageToken();
+            ++pages;
+        }
+
+        assertEquals(3, pages);
+        assertThat(fetched)
+            .hasSize(5)
+            .containsExactlyInAnyOrderElementsOf(consumer.getGuestIds());
+    }
 }
@@ -14,6 +14,7 @@
  */
 package org.candlepin.model;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -26,6 +27,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Calendar;
@@ -61,6 +64,20 @@ public class ManifestFileRecordCuratorTest extends DatabaseTestFixture {
         assertNotNull(manifestFileRecordCurator.findFile(record.getId()));
     }
 
+    @Test
+    public void testCreateFileStoresFileData() throws Exception {
+        byte[] data = "manifest data".getBytes(StandardCharsets.UTF_8);
+        Files.write(tempFile.toPath(), data);
+
+        ManifestFileRecord created = manifestFileRecordCurator.createFile(ManifestFileType.EXPORT, tempFile,
+            "principalId", "ownerId");
+
+        ManifestFileRecord found = manifestFileRecordCurator.findFile(created.getId());
+        try (InputStream input = found.getInputStream()) {
+            assertArrayEquals(data, input.readAllBytes());
+        }
+    }
+
     @Test
     public void testDeleteExpired() throws Exception {
         Calendar cal = Calendar.getInstance();
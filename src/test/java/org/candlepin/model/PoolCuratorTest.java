@@ -1339,6 +1339,50 @@ public class PoolCuratorTest extends DatabaseTestFixture {
             .containsExactlyElementsOf(expectedIds);
     }
 
+    @Test
+    public void testListAvailableEntitlementPoolProjections() {
+        List<String> expectedIds = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            Pool pool = TestUtil.createPool(owner, product);
+            pool.setStartDate(TestUtil.createDate(2011, 1, 2));
+            pool.setEndDate(TestUtil.createDate(2011, 3, 2));
+            pool = poolCurator.create(pool);
+
+            expectedIds.add(pool.getId());
+        }
+
+        PoolQualifier qualifier = new PoolQualifier()
+            .setOwnerId(owner.getId())
+            .addProductId(product.getId())
+            .setActiveOn(TestUtil.createDate(2011, 2, 2))
+            .addOrder("id", false);
+
+        TupleProjection projection = new TupleProjection(List.of("id", "quantity", "product.id"));
+        Page<List<Map<String, Object>>> page = poolCurator
+            .listAvailableEntitlementPoolProjections(qualifier, projection);
+
+        assertEquals(expectedIds.size(), page.getMaxRecords());
+        assertThat(page.getPageData())
+            .isNotNull()
+            .hasSize(expectedIds.size())
+            .extracting(row -> row.get("id"))
+            .containsExactlyElementsOf(expectedIds);
+
+        assertThat(page.getPageData())
+            .allSatisfy(row -> assertEquals(product.getId(), row.get("product.id")));
+    }
+
+    @Test
+    public void testListAvailableEntitlementPoolProjectionsWithNullQualifier() {
+        TupleProjection projection = new TupleProjection(List.of("id"));
+        Page<List<Map<String, Object>>> actual = poolCurator
+            .listAvailableEntitlementPoolProjections(null, projection);
+
+        assertThat(actual.getPageData())
+            .isEmpty();
+    }
+
     @Test
     public void testActivationKeyList() {
         Date setActiveOn = TestUtil.createDate(2011, 2, 2);
@@ -2459,6 +2503,66 @@ public class PoolCuratorTest extends DatabaseTestFixture {
         assertEquals(expectedPoolProductMap, actualPoolProductMap);
     }
 
+    @Test
+    public void testAutobindCandidateIndex() {
+        Owner owner = this.createOwner();
+        Owner otherOwner = this.createOwner();
+
+        Product provided = this.createProduct("provided-1", "provided-1");
+        Product base = TestUtil.createProduct("base-1", "base-1");
+        base.addProvidedProduct(provided);
+        base = this.createProduct(base);
+        Product stacked = this.createProduct(TestUtil.createProduct("stacked-1", "stacked-1")
+            .setAttribute(Product.Attributes.STACKING_ID, "stack-1"));
+        Product roles = this.createProduct(TestUtil.createProduct("roles-1", "roles-1")
+            .setAttribute(Product.Attributes.ROLES, "Role One, Role Two"));
+        Product addOns = this.createProduct(TestUtil.createProduct("addons-1", "addons-1")
+            .setAttribute(Product.Attributes.ADDONS, "Addon One"));
+
+        Pool basePool = this.createPool(owner, base);
+        Pool stackedPool = this.createPool(owner, stacked);
+        Pool rolesPool = this.createPool(owner, roles);
+        Pool addOnsPool = this.createPool(owner, addOns);
+        Pool expiredPool = this.createPool(owner, base, 10L, TestUtil.createDateOffset(-2, 0, 0),
+            TestUtil.createDateOffset(-1, 0, 0));
+        Pool otherOwnerPool = this.createPool(otherOwner, base);
+
+        AutobindCandidateIndex index = this.poolCurator.getAutobindCandidateIndex(owner.getId(), new Date());
+
+        assertEquals(Set.of(basePool.getId()), index.findCandidates(List.of("provided-1"), null, null, null));
+        assertEquals(Set.of(basePool.getId()), index.findCandidates(List.of("base-1"), null, null, null));
+        assertEquals(Set.of(stackedPool.getId()), index.findCandidates(null, List.of("stack-1"), null, null));
+        assertEquals(Set.of(rolesPool.getId()), index.findCandidates(null, null, "role two", null));
+        assertEquals(Set.of(addOnsPool.getId()), index.findCandidates(null, null, null,
+            List.of("ADDON ONE")));
+        assertEquals(Set.of(), index.findCandidates(List.of("unknown"), List.of("stack-2"), "role three",
+            List.of("addon two")));
+    }
+
+    @Test
+    public void testGetPoolAvailability() {
+        Owner owner = this.createOwner();
+        Owner otherOwner = this.createOwner();
+        Product product = this.createProduct();
+
+        Pool pool = this.createPool(owner, product, 10L, TestUtil.createDateOffset(-1, 0, 0),
+            TestUtil.createDateOffset(1, 0, 0));
+        pool.setConsumed(4L);
+        this.poolCurator.merge(pool);
+
+        this.createPool(owner, product, -1L, TestUtil.createDateOffset(-1, 0, 0),
+            TestUtil.createDateOffset(1, 0, 0));
+        this.createPool(owner, product, 10L, TestUtil.createDateOffset(-2, 0, 0),
+            TestUtil.createDateOffset(-1, 0, 0));
+        this.createPool(otherOwner, product, 10L, TestUtil.createDateOffset(-1, 0, 0),
+            TestUtil.createDateOffset(1, 0, 0));
+        this.poolCurator.flush();
+
+        Map<String, Long> availability = this.poolCurator.getPoolAvailability(owner.getId(), new Date());
+
+        assertEquals(Map.of(pool.getId(), 6L), availability);
+    }
+
     @Test
     public void testFetchingPoolDerivedProvidedProductIdsByPoolIds() {
         Owner owner = this.createOwner();
@@ -16,9 +16,12 @@ package org.candlepin.model;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.candlepin.model.QueryBuilder.Inclusion;
+import org.candlepin.paging.PageRequest;
+import org.candlepin.paging.PageToken;
 import org.candlepin.test.DatabaseTestFixture;
 import org.candlepin.test.TestUtil;
 
@@ -686,6 +689,78 @@ public class ProductQueryBuilderTest extends DatabaseTestFixture {
         assertThrows(InvalidOrderKeyException.class, () -> queryBuilder.getResultStream());
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = { "ASCENDING", "DESCENDING" })
+    public void testQueryBuilderPagesResultsByKeyset(PageRequest.Order order) {
+        this.createDataForQueryBuilderTesting();
+
+        List<String> expectedPids = List.of("g-prod-1", "g-prod-2", "g-prod-3", "o1-prod-1", "o1-prod-2",
+            "o2-prod-1", "o2-prod-2", "o3-prod-1", "o3-prod-2");
+
+        List<String> fetched = new ArrayList<>();
+        String nextToken = "";
+        int pages = 0;
+
+        while (nextToken != null) {
+            PageRequest pageRequest = new PageRequest()
+                .setKeyset(true)
+                .setPage(1)
+                .setPerPage(4)
+                .setSortBy("id")
+                .setOrder(order);
+
+            if (!nextToken.isEmpty()) {
+                pageRequest.setPageToken(PageToken.decode(nextToken));
+            }
+
+            ProductQueryBuilder queryBuilder = this.buildQueryBuilder()
+                .setKeysetPageRequest(pageRequest)
+                .setLimit(pageRequest.getPerPage());
+
+            List<Product> page = queryBuilder.getResultList();
+            page.stream()
+                .map(Product::getId)
+                .forEach(fetched::add);
+
+            nextToken = queryBuilder.getNextPageToken(page);
+            ++pages;
+        }
+
+        List<String> expectedOrder = new ArrayList<>(expectedPids);
+        if (order == PageRequest.Order.DESCENDING) {
+            expectedOrder.sort(Comparator.reverseOrder());
+        }
+
+        assertEquals(3, pages);
+        assertEquals(expectedOrder, fetched);
+    }
+
+    @Test
+    public void testQueryBuilderWithoutKeysetPagingHasNoNextPageToken() {
+        this.createDataForQueryBuilderTesting();
+
+        ProductQueryBuilder queryBuilder = this.buildQueryBuilder()
+            .setLimit(2);
+
+        assertNull(queryBuilder.getNextPageToken(queryBuilder.getResultList()));
+    }
+
+    @Test
+    public void testQueryBuilderErrorsWithUnsupportedKeysetSortField() {
+        this.createDataForQueryBuilderTesting();
+
+        PageRequest pageRequest = new PageRequest()
+            .setKeyset(true)
+            .setPage(1)
+            .setPerPage(4)
+            .setSortBy("name");
+
+        ProductQueryBuilder queryBuilder = this.buildQueryBuilder()
+            .setKeysetPageRequest(pageRequest);
+
+        assertThrows(InvalidOrderKeyException.class, () -> queryBuilder.getResultList());
+    }
+
     // These tests verify the definition of "active" is properly implemented, ensuring "active" is defined
     // as a product which is attached to a pool which has started and has not expired, or attached to
     // another active product (recursively).
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.paging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+
+
+public class PageTokenTest {
+
+    @Test
+    public void testDateTokenRoundTrip() {
+        PageToken token = new PageToken("created", PageRequest.Order.DESCENDING, new Date(1700000000123L),
+            "8a8d01f5-uuid");
+
+        PageToken decoded = PageToken.decode(token.encode());
+
+        assertEquals(token, decoded);
+        assertEquals("created", decoded.getSortBy());
+        assertEquals(PageRequest.Order.DESCENDING, decoded.getOrder());
+        assertEquals(new Date(1700000000123L), decoded.getValue());
+        assertEquals("8a8d01f5-uuid", decoded.getKey());
+    }
+
+    @Test
+    public void testStringTokenRoundTrip() {
+        PageToken token = new PageToken("id", PageRequest.Order.ASCENDING, "some.id/with=chars", "key.1");
+
+        PageToken decoded = PageToken.decode(token.encode());
+
+        assertEquals(token, decoded);
+        assertEquals("some.id/with=chars", decoded.getValue());
+    }
+
+    @Test
+    public void testEncodedTokenIsUrlSafe() {
+        PageToken token = new PageToken("id", PageRequest.Order.ASCENDING, "a+b/c?d&e", "f g");
+
+        assertTrue(token.encode().matches("[A-Za-z0-9_.-]+"));
+    }
+
+    @Test
+    public void testTokensWithDifferentPositionsDiffer() {
+        PageToken token1 = new PageToken("created", PageRequest.Order.ASCENDING, new Date(1000L), "key1");
+        PageToken token2 = new PageToken("created", PageRequest.Order.ASCENDING, new Date(1000L), "key2");
+
+        assertNotEquals(token1, token2);
+        assertNotEquals(token1.encode(), token2.encode());
+    }
+
+    @Test
+    public void testConstructorRejectsUnsupportedSortField() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new PageToken("name", PageRequest.Order.ASCENDING, "value", "key"));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = { "garbage", "a.b.c", "a.b.c.d.e", "!!!.???.***.###" })
+    public void testDecodeRejectsMalformedTokens(String encoded) {
+        assertThrows(IllegalArgumentException.class, () -> PageToken.decode(encoded));
+    }
+
+    @Test
+    public void testDecodeRejectsUnknownValueType() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String encoded = String.join(".",
+            encoder.encodeToString("created".getBytes(StandardCharsets.UTF_8)),
+            encoder.encodeToString("ASCENDING".getBytes(StandardCharsets.UTF_8)),
+            encoder.encodeToString("x123".getBytes(StandardCharsets.UTF_8)),
+            encoder.encodeToString("key".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(IllegalArgumentException.class, () -> PageToken.decode(encoded));
+    }
+}
@@ -30,7 +30,9 @@ import static org.mockito.Mockito.when;
 
 import org.candlepin.cache.AnonymousCertContent;
 import org.candlepin.cache.AnonymousCertContentCache;
+import org.candlepin.cache.HuffmanContentCache;
 import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.ConfigurationException;
 import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
 import org.candlepin.model.AnonymousCloudConsumer;
@@ -89,11 +91,11 @@ class AnonymousCertificateGeneratorTest {
     private AnonymousCertificateGenerator generator;
 
     @BeforeEach
-    void setUp() throws CertificateException, IOException {
+    void setUp() throws CertificateException, ConfigurationException, IOException {
         this.config = TestConfig.defaults();
         this.config.setProperty(ConfigProperties.STANDALONE, "false");
         X509V3ExtensionUtil extensionUtil = spy(new X509V3ExtensionUtil(
-            config, this.entitlementCurator, new Huffman()));
+            config, this.entitlementCurator, new Huffman(), new HuffmanContentCache(config)));
         BouncyCastleSecurityProvider securityProvider = new BouncyCastleSecurityProvider();
         BouncyCastleKeyPairGenerator keyPairGenerator = new BouncyCastleKeyPairGenerator(
             securityProvider, mock(KeyPairDataCurator.class));
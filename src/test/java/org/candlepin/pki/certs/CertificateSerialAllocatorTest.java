@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.certs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.model.CertificateSerial;
+import org.candlepin.model.CertificateSerialCurator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+
+
+
+@ExtendWith(MockitoExtension.class)
+public class CertificateSerialAllocatorTest {
+    @Mock private CertificateSerialCurator serialCurator;
+
+    @Test
+    public void testRequiresCurator() {
+        assertThrows(NullPointerException.class, () -> new CertificateSerialAllocator(null));
+    }
+
+    @Test
+    public void testAllocate() {
+        CertificateSerialAllocator allocator = new CertificateSerialAllocator(this.serialCurator);
+        Date expiration = new Date();
+
+        CertificateSerial serial = allocator.allocate(expiration);
+
+        assertNotNull(serial);
+        assertNotNull(serial.getId());
+        assertThat(serial.getSerial()).isNotNegative();
+        assertEquals(expiration, serial.getExpiration());
+        verify(this.serialCurator).createAssigned(serial);
+    }
+
+    @Test
+    public void testAllocateAssignsDistinctSerials() {
+        CertificateSerialAllocator allocator = new CertificateSerialAllocator(this.serialCurator);
+
+        CertificateSerial serial1 = allocator.allocate(new Date());
+        CertificateSerial serial2 = allocator.allocate(new Date());
+
+        assertNotEquals(serial1.getSerial(), serial2.getSerial());
+    }
+
+    @Test
+    public void testRelease() {
+        CertificateSerialAllocator allocator = new CertificateSerialAllocator(this.serialCurator);
+        CertificateSerial serial = allocator.allocate(new Date());
+
+        allocator.release(serial);
+
+        verify(this.serialCurator).delete(serial);
+    }
+
+}
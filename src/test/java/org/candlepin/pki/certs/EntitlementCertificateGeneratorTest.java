@@ -19,16 +19,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
-import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.cache.HuffmanContentCache;
+import org.candlepin.config.ConfigurationException;
 import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
 import org.candlepin.model.AbstractCertificate;
-import org.candlepin.model.CertificateSerial;
 import org.candlepin.model.CertificateSerialCurator;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCapability;
@@ -152,7 +151,7 @@ public class EntitlementCertificateGeneratorTest {
     private EntitlementCertificateGenerator generator;
 
     @BeforeEach
-    public void setUp() throws CertificateException, IOException {
+    public void setUp() throws CertificateException, ConfigurationException, IOException {
         this.owner = createOwner();
         when(this.ownerCurator.findOwnerById(owner.getOwnerId())).thenReturn(this.owner);
         BouncyCastleSecurityProvider securityProvider = new BouncyCastleSecurityProvider();
@@ -160,20 +159,11 @@ public class EntitlementCertificateGeneratorTest {
             securityProvider, mock(KeyPairDataCurator.class));
         this.i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK);
 
-        when(this.serialCurator.saveOrUpdateAll(anyIterable(), anyBoolean(), anyBoolean()))
-            .thenAnswer(invocation -> {
-                Iterable<CertificateSerial> argument = invocation.getArgument(0);
-                for (CertificateSerial serial : argument) {
-                    serial.setSerial((long) TestUtil.randomInt());
-                }
-                return argument;
-            });
-
         DevConfig config = TestConfig.defaults();
         X509ExtensionUtil x509ExtensionUtil = new X509ExtensionUtil(config);
         ObjectMapper mapper = new ObjectMapper();
         X509V3ExtensionUtil x509V3ExtensionUtil = new X509V3ExtensionUtil(
-            config, entitlementCurator, new Huffman());
+            config, entitlementCurator, new Huffman(), new HuffmanContentCache(config));
         PemEncoder pemEncoder = new BouncyCastlePemEncoder();
         CertificateReaderForTesting certificateReader = new CertificateReaderForTesting();
         Signer signer = new Signer(certificateReader);
@@ -185,7 +175,7 @@ public class EntitlementCertificateGeneratorTest {
             x509V3ExtensionUtil,
             new EntitlementPayloadGenerator(mapper),
             entitlementCertificateCurator,
-            serialCurator,
+            new CertificateSerialAllocator(serialCurator),
             ownerCurator,
             entitlementCurator,
             i18n,
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.certs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.model.CertificateSerial;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCertificate;
+import org.candlepin.model.EntitlementCertificateCurator;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolQuantity;
+import org.candlepin.pki.certs.EntitlementCertificateGenerator.CertificateTemplate;
+import org.candlepin.test.TestUtil;
+import org.candlepin.util.CertificateSizeException;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EntitlementCertificatePipelineTest {
+    @Mock private EntitlementCertificateGenerator generator;
+    @Mock private CertificateSerialAllocator serialAllocator;
+    @Mock private EntitlementCertificateCurator entCertCurator;
+    @Mock private EntitlementCurator entitlementCurator;
+    @Mock private Session session;
+
+    private DevConfig config;
+    private Owner owner;
+    private Consumer consumer;
+    private Pool pool;
+
+    @BeforeEach
+    public void init() {
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.CERT_REGEN_PARALLELISM, "4");
+
+        this.owner = TestUtil.createOwner();
+        this.consumer = TestUtil.createConsumer(this.owner);
+        this.pool = TestUtil.createPool(this.owner, TestUtil.createProduct())
+            .setId("test-pool");
+
+        when(this.entCertCurator.currentSession()).thenReturn(this.session);
+
+        AtomicLong serialIds = new AtomicLong();
+        when(this.serialAllocator.allocate(any()))
+            .thenAnswer(iom -> new CertificateSerial(serialIds.incrementAndGet(), iom.getArgument(0)));
+
+        when(this.generator.prepare(any(Consumer.class), anyMap(), anyMap(), anyMap(), anyMap()))
+            .thenAnswer(iom -> {
+                Map<String, PoolQuantity> poolQuantities = iom.getArgument(1);
+                String key = poolQuantities.keySet().iterator().next();
+
+                CertificateTemplate template = new CertificateTemplate(null, null, null, null, null, null,
+                    null, null);
+
+                return Map.of(key, template);
+            });
+
+        when(this.generator.sign(any(CertificateTemplate.class))).thenAnswer(iom -> {
+            EntitlementCertificate cert = new EntitlementCertificate();
+            cert.setCert("cert-" + Thread.currentThread().getName());
+            return cert;
+        });
+    }
+
+    private EntitlementCertificatePipeline buildPipeline() {
+        return new EntitlementCertificatePipeline(this.generator, this.serialAllocator, this.entCertCurator,
+            this.entitlementCurator, this.config);
+    }
+
+    private List<Entitlement> createEntitlements(int count) {
+        List<Entitlement> entitlements = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            Entitlement entitlement = TestUtil.createEntitlement(this.owner, this.consumer, this.pool, null);
+            entitlement.setQuantity(1);
+            entitlement.setDirty(true);
+
+            entitlements.add(entitlement);
+        }
+
+        return entitlements;
+    }
+
+    @Test
+    public void testIsEnabled() {
+        this.config.setProperty(ConfigProperties.CERT_REGEN_PARALLELISM, "1");
+        assertFalse(this.buildPipeline().isEnabled());
+
+        this.config.setProperty(ConfigProperties.CERT_REGEN_PARALLELISM, "2");
+        assertTrue(this.buildPipeline().isEnabled());
+    }
+
+    @Test
+    public void testRegenerateRequiresPages() {
+        EntitlementCertificatePipeline pipeline = this.buildPipeline();
+
+        assertThrows(IllegalArgumentException.class, () -> pipeline.regenerate(null, null));
+    }
+
+    @Test
+    public void testRegenerate() {
+        List<Entitlement> page1 = this.createEntitlements(3);
+        List<Entitlement> page2 = this.createEntitlements(2);
+        List<Entitlement> notified = new ArrayList<>();
+
+        int count = this.buildPipeline().regenerate(List.of(page1, page2), notified::add);
+
+        assertEquals(5, count);
+        assertThat(notified)
+            .containsExactlyElementsOf(List.of(page1.get(0), page1.get(1), page1.get(2), page2.get(0),
+                page2.get(1)));
+
+        for (Entitlement entitlement : notified) {
+            assertFalse(entitlement.isDirty());
+            assertThat(entitlement.getCertificates())
+                .singleElement()
+                .satisfies(cert -> {
+                    assertThat(cert.getCert()).startsWith("cert-entitlement-cert-signer-");
+                    assertThat(cert.getSerial()).isNotNull();
+                    assertEquals(entitlement, cert.getEntitlement());
+                });
+        }
+
+        // Serials should be allocated per entitlement, and certificates persisted once per page
+        verify(this.serialAllocator, times(5)).allocate(this.pool.getEndDate());
+        verify(this.entCertCurator).deleteByEntitlementIds(page1.stream().map(Entitlement::getId).toList());
+        verify(this.entCertCurator).deleteByEntitlementIds(page2.stream().map(Entitlement::getId).toList());
+
+        ArgumentCaptor<Collection<EntitlementCertificate>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(this.entCertCurator, times(2)).saveAll(captor.capture(), eq(true), eq(false));
+        assertThat(captor.getAllValues())
+            .extracting(Collection::size)
+            .containsExactly(3, 2);
+
+        verify(this.entitlementCurator).saveOrUpdateAll(page1, true, false);
+        verify(this.entitlementCurator).saveOrUpdateAll(page2, true, false);
+    }
+
+    @Test
+    public void testRegenerateBatchesWritesOnlyWhileRegenerating() {
+        when(this.session.getJdbcBatchSize()).thenReturn(null);
+
+        this.buildPipeline().regenerate(List.of(this.createEntitlements(2)), null);
+
+        InOrder order = inOrder(this.session, this.entCertCurator);
+        order.verify(this.session).setJdbcBatchSize(100);
+        order.verify(this.entCertCurator).saveAll(anyCollection(), eq(true), eq(false));
+        order.verify(this.session).setJdbcBatchSize(null);
+    }
+
+    @Test
+    public void testRegenerateSkipsOversizedCertificates() {
+        List<Entitlement> entitlements = this.createEntitlements(3);
+        Entitlement oversized = entitlements.get(1);
+
+        Pool oversizedPool = TestUtil.createPool(this.owner, TestUtil.createProduct())
+            .setId("oversized-pool");
+        oversized.setPool(oversizedPool);
+
+        when(this.generator.prepare(any(Consumer.class), anyMap(), eq(Map.of(oversizedPool.getId(),
+            oversized)), anyMap(), anyMap())).thenThrow(new CertificateSizeException("too big"));
+
+        List<Entitlement> notified = new ArrayList<>();
+        int count = this.buildPipeline().regenerate(List.of(entitlements), notified::add);
+
+        assertEquals(2, count);
+        assertThat(notified).containsExactly(entitlements.get(0), entitlements.get(2));
+        assertTrue(oversized.isDirty());
+        assertThat(oversized.getCertificates()).isEmpty();
+
+        // Only the serial allocated for the oversized certificate is released
+        verify(this.serialAllocator, times(3)).allocate(any());
+        verify(this.serialAllocator, times(1)).release(any(CertificateSerial.class));
+    }
+
+    @Test
+    public void testRegeneratePropagatesSigningFailures() {
+        List<Entitlement> entitlements = this.createEntitlements(2);
+
+        when(this.generator.sign(any(CertificateTemplate.class)))
+            .thenThrow(new CertificateCreationException("signing failed"));
+
+        EntitlementCertificatePipeline pipeline = this.buildPipeline();
+
+        assertThrows(CertificateCreationException.class,
+            () -> pipeline.regenerate(List.of(entitlements), null));
+
+        verify(this.entCertCurator, never()).saveAll(any(), anyBoolean(), anyBoolean());
+        verify(this.entitlementCurator, never()).saveOrUpdateAll(any(), anyBoolean(), anyBoolean());
+    }
+
+}
@@ -23,7 +23,6 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.config.TestConfig;
-import org.candlepin.model.CertificateSerial;
 import org.candlepin.model.CertificateSerialCurator;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.IdentityCertificate;
@@ -67,7 +66,7 @@ class IdentityCertificateGeneratorTest {
             pemEncoder,
             keyPairGenerator,
             this.identityCertificateCurator,
-            this.serialCurator,
+            new CertificateSerialAllocator(this.serialCurator),
             () -> this.certificateBuilder
         );
     }
@@ -79,11 +78,6 @@ class IdentityCertificateGeneratorTest {
             .setUuid("test_uuid")
             .setOwner(owner)
             .setName("name");
-        when(this.serialCurator.create(any(CertificateSerial.class))).thenAnswer(invocation -> {
-            CertificateSerial argument = invocation.getArgument(0);
-            argument.setSerial(123L);
-            return argument;
-        });
         when(this.identityCertificateCurator.create(any(IdentityCertificate.class)))
             .thenAnswer(returnsFirstArg());
 
@@ -100,11 +94,6 @@ class IdentityCertificateGeneratorTest {
             .setOwner(owner)
             .setName("name")
             .setIdCert(new IdentityCertificate());
-        when(this.serialCurator.create(any(CertificateSerial.class))).thenAnswer(invocation -> {
-            CertificateSerial argument = invocation.getArgument(0);
-            argument.setSerial(123L);
-            return argument;
-        });
         when(this.identityCertificateCurator.get(any())).thenReturn(new IdentityCertificate());
 
         IdentityCertificate certificate = this.identityCertificateGenerator.generate(consumer);
@@ -119,11 +108,6 @@ class IdentityCertificateGeneratorTest {
             .setUuid("test_uuid")
             .setOwner(owner)
             .setName("name");
-        when(this.serialCurator.create(any(CertificateSerial.class))).thenAnswer(invocation -> {
-            CertificateSerial argument = invocation.getArgument(0);
-            argument.setSerial(123L);
-            return argument;
-        });
         when(this.identityCertificateCurator.create(any(IdentityCertificate.class)))
             .thenAnswer(returnsFirstArg());
 
@@ -142,11 +126,6 @@ class IdentityCertificateGeneratorTest {
             .setOwner(owner)
             .setName("name")
             .setIdCert(existingCert);
-        when(this.serialCurator.create(any(CertificateSerial.class))).thenAnswer(invocation -> {
-            CertificateSerial argument = invocation.getArgument(0);
-            argument.setSerial(123L);
-            return argument;
-        });
         when(this.identityCertificateCurator.get(any())).thenReturn(existingCert);
         when(this.identityCertificateCurator.create(any(IdentityCertificate.class)))
             .thenAnswer(returnsFirstArg());
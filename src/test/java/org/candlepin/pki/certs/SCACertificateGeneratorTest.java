@@ -26,7 +26,10 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.cache.ContentAccessPayloadCache;
+import org.candlepin.cache.HuffmanContentCache;
 import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationException;
 import org.candlepin.config.TestConfig;
 import org.candlepin.controller.ContentAccessMode;
 import org.candlepin.model.CertificateSerial;
@@ -107,22 +110,24 @@ class SCACertificateGeneratorTest extends DatabaseTestFixture {
     private ObjectMapper mapper = new ObjectMapper();
 
     @BeforeEach
-    void setUp() throws CertificateException, IOException {
+    void setUp() throws CertificateException, ConfigurationException, IOException {
         this.config = TestConfig.defaults();
         this.extensionUtil = spy(new X509V3ExtensionUtil(
-            this.config, this.entitlementCurator, new Huffman()));
+            this.config, this.entitlementCurator, new Huffman(), new HuffmanContentCache(this.config)));
 
         this.generator = getNewGenerator();
     }
 
-    private SCACertificateGenerator getNewGenerator() throws CertificateException, IOException {
+    private SCACertificateGenerator getNewGenerator()
+        throws CertificateException, ConfigurationException, IOException {
+
         BouncyCastleSecurityProvider securityProvider = new BouncyCastleSecurityProvider();
         keyPairGenerator = new BouncyCastleKeyPairGenerator(
             securityProvider, mock(KeyPairDataCurator.class));
 
         CertificateReaderForTesting certificateReader = new CertificateReaderForTesting();
         this.extensionUtil = spy(new X509V3ExtensionUtil(
-            config, this.entitlementCurator, new Huffman()));
+            config, this.entitlementCurator, new Huffman(), new HuffmanContentCache(config)));
         SubjectKeyIdentifierWriter subjectKeyIdentifierWriter = new BouncyCastleSubjectKeyIdentifierWriter();
 
         X509CertificateBuilder builder =
@@ -135,7 +140,9 @@ class SCACertificateGeneratorTest extends DatabaseTestFixture {
             new EntitlementPayloadGenerator(new ObjectMapper()),
             this.caCertCurator,
             this.caPayloadCurator,
+            new ContentAccessPayloadCache(this.config, this::getEntityManager),
             this.certSerialCurator,
+            new CertificateSerialAllocator(this.certSerialCurator),
             this.contentCurator,
             this.consumerCurator,
             this.environmentCurator,
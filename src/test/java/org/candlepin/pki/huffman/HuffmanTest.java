@@ -31,7 +31,13 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class HuffmanTest {
@@ -346,6 +352,38 @@ public class HuffmanTest {
         }
     }
 
+    @Test
+    public void testSharedInstanceEncodesConcurrently() throws Exception {
+        List<Content> contentList = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            contentList.add(new Content()
+                .setPath("/content/dist/product-" + (i % 20) + "/repo-" + i + "/os"));
+        }
+
+        Set<String> expected = contentList.stream()
+            .map(Content::getPath)
+            .collect(Collectors.toSet());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; ++i) {
+                futures.add(executor.submit(() -> this.huffman.retrieveContentValue(contentList)));
+            }
+
+            // The node ordering within the blob may differ between invocations, so compare the
+            // decoded paths rather than the raw bytes
+            for (Future<byte[]> future : futures) {
+                List<String> actual = this.huffman.hydrateContentPackage(future.get());
+                assertEquals(expected.size(), actual.size());
+                assertEquals(expected, new HashSet<>(actual));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     public static Stream<Arguments> pathTreeCondensationProvider() {
         // BZ 2131312
         Arguments block1 = arguments(List.of(
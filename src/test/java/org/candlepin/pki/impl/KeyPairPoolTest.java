@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.security.KeyPair;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class KeyPairPoolTest {
+
+    private KeyPairPool pool;
+
+    @AfterEach
+    public void tearDown() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    private static void awaitDepth(KeyPairPool pool, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (pool.getDepth() < depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(depth, pool.getDepth());
+    }
+
+    @Test
+    public void testRequiresGenerator() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyPairPool(null, 10, 2, 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, -1 })
+    public void testRequiresPositiveCapacity(int capacity) {
+        assertThrows(IllegalArgumentException.class,
+            () -> new KeyPairPool(() -> new KeyPair(null, null), capacity, 0, 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -1, 10, 11 })
+    public void testRequiresLowWaterMarkBelowCapacity(int lowWaterMark) {
+        assertThrows(IllegalArgumentException.class,
+            () -> new KeyPairPool(() -> new KeyPair(null, null), 10, lowWaterMark, 1));
+    }
+
+    @Test
+    public void testRequiresPositiveThreadCount() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new KeyPairPool(() -> new KeyPair(null, null), 10, 2, 0));
+    }
+
+    @Test
+    public void testPoolFillsToCapacity() throws Exception {
+        AtomicInteger generated = new AtomicInteger(0);
+        Supplier<KeyPair> generator = () -> {
+            generated.incrementAndGet();
+            return new KeyPair(null, null);
+        };
+
+        this.pool = new KeyPairPool(generator, 5, 2, 2);
+        awaitDepth(this.pool, 5);
+
+        // Give the workers a moment to (incorrectly) overfill
+        Thread.sleep(50);
+        assertEquals(5, generated.get());
+        assertEquals(5, this.pool.getRefills());
+    }
+
+    @Test
+    public void testTakeCountsHitsAndMisses() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Supplier<KeyPair> generator = () -> {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return new KeyPair(null, null);
+        };
+
+        this.pool = new KeyPairPool(generator, 3, 1, 1);
+
+        // Nothing can be generated until the latch is released, so this is a miss
+        assertNull(this.pool.take());
+        assertEquals(0, this.pool.getHits());
+        assertEquals(1, this.pool.getMisses());
+
+        latch.countDown();
+        awaitDepth(this.pool, 3);
+
+        assertNotNull(this.pool.take());
+        assertEquals(1, this.pool.getHits());
+        assertEquals(1, this.pool.getMisses());
+    }
+
+    @Test
+    public void testPoolRefillsBelowLowWaterMark() throws Exception {
+        this.pool = new KeyPairPool(() -> new KeyPair(null, null), 4, 2, 1);
+        awaitDepth(this.pool, 4);
+
+        // Dropping to the low-water mark should not trigger a refill
+        assertNotNull(this.pool.take());
+        assertNotNull(this.pool.take());
+        Thread.sleep(50);
+        assertEquals(2, this.pool.getDepth());
+        assertEquals(4, this.pool.getRefills());
+
+        // Dropping below it should refill the pool back to capacity
+        assertNotNull(this.pool.take());
+        awaitDepth(this.pool, 4);
+        assertEquals(7, this.pool.getRefills());
+        assertTrue(this.pool.getAverageRefillLatency() >= 0);
+    }
+
+    @Test
+    public void testGenerationFailureDoesNotStopPool() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+        Supplier<KeyPair> generator = () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("kaboom");
+            }
+
+            return new KeyPair(null, null);
+        };
+
+        this.pool = new KeyPairPool(generator, 2, 1, 1);
+
+        // The first attempt fails, which halts filling until a subsequent take requests a refill
+        long deadline = System.currentTimeMillis() + 5000;
+        while (this.pool.getRefills() == 0 && System.currentTimeMillis() < deadline) {
+            this.pool.take();
+            Thread.sleep(10);
+        }
+
+        assertTrue(attempts.get() > 1);
+        assertTrue(this.pool.getRefills() > 0);
+    }
+
+    @Test
+    public void testShutdownEmptiesPool() throws Exception {
+        this.pool = new KeyPairPool(() -> new KeyPair(null, null), 3, 1, 1);
+        awaitDepth(this.pool, 3);
+
+        this.pool.shutdown();
+
+        assertTrue(this.pool.isShutdown());
+        assertEquals(0, this.pool.getDepth());
+        assertNull(this.pool.take());
+    }
+}
@@ -52,7 +52,6 @@ import org.candlepin.model.SourceSubscription;
 import org.candlepin.pki.certs.V3CapabilityCheck;
 import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsRunnerProvider;
-import org.candlepin.policy.js.JsRunnerRequestCache;
 import org.candlepin.policy.js.JsonJsContext;
 import org.candlepin.policy.js.RulesObjectMapper;
 import org.candlepin.policy.js.autobind.AutobindRules;
@@ -62,8 +61,6 @@ import org.candlepin.util.ObjectMapperFactory;
 import org.candlepin.util.Util;
 import org.candlepin.util.X509ExtensionUtil;
 
-import com.google.inject.Provider;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -89,10 +86,6 @@ import java.util.Set;
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class AutobindRulesTest {
-    @Mock
-    private Provider<JsRunnerRequestCache> cacheProvider;
-    @Mock
-    private JsRunnerRequestCache cache;
     @Mock
     private DevConfig config;
     @Mock
@@ -129,9 +122,8 @@ public class AutobindRulesTest {
 
         doReturn(rules).when(this.rulesCurator).getRules();
         doReturn(TestUtil.createDate(2010, 1, 1)).when(this.rulesCurator).getUpdated();
-        doReturn(cache).when(this.cacheProvider).get();
 
-        jsRules = new JsRunnerProvider(rulesCurator, cacheProvider).get();
+        jsRules = new JsRunnerProvider(rulesCurator, config).get();
         mapper = ObjectMapperFactory.getRulesObjectMapper();
 
         translator = new StandardTranslator(consumerTypeCurator, environmentCurator, mockOwnerCurator);
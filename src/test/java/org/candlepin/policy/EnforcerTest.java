@@ -35,7 +35,6 @@ import org.candlepin.model.Rules;
 import org.candlepin.model.RulesCurator;
 import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsRunnerProvider;
-import org.candlepin.policy.js.JsRunnerRequestCache;
 import org.candlepin.policy.js.RuleExecutionException;
 import org.candlepin.policy.js.entitlement.Enforcer;
 import org.candlepin.policy.js.entitlement.EntitlementRules;
@@ -45,8 +44,6 @@ import org.candlepin.test.DateSourceForTesting;
 import org.candlepin.test.TestUtil;
 import org.candlepin.util.ObjectMapperFactory;
 
-import com.google.inject.Provider;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -76,10 +73,6 @@ public class EnforcerTest extends DatabaseTestFixture {
     @Mock
     private Configuration config;
     @Mock
-    private Provider<JsRunnerRequestCache> cacheProvider;
-    @Mock
-    private JsRunnerRequestCache cache;
-    @Mock
     private OwnerCurator mockOwnerCurator;
     @Mock
     private EnvironmentCurator mockEnvironmentCurator;
@@ -112,9 +105,8 @@ public class EnforcerTest extends DatabaseTestFixture {
         when(rules.getRules()).thenReturn(builder.toString());
         when(rulesCurator.getRules()).thenReturn(rules);
         when(rulesCurator.getUpdated()).thenReturn(TestUtil.createDate(2010, 1, 1));
-        when(cacheProvider.get()).thenReturn(cache);
 
-        JsRunner jsRules = new JsRunnerProvider(rulesCurator, cacheProvider).get();
+        JsRunner jsRules = new JsRunnerProvider(rulesCurator, config).get();
 
         modelTranslator = new StandardTranslator(consumerTypeCurator, mockEnvironmentCurator,
             mockOwnerCurator);
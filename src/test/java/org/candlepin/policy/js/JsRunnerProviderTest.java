@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
  *
  * This software is licensed to you under the GNU General Public License,
  * version 2 (GPLv2). There is NO WARRANTY for this software, express or
@@ -15,37 +15,43 @@
 package org.candlepin.policy.js;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
 import org.candlepin.model.Rules;
 import org.candlepin.model.Rules.RulesSourceEnum;
 import org.candlepin.model.RulesCurator;
 
-import com.google.inject.Provider;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mozilla.javascript.NativeObject;
+import org.mozilla.javascript.Scriptable;
 
 import java.util.Date;
 
 
 public class JsRunnerProviderTest {
-    @Mock
-    private Provider<JsRunnerRequestCache> cacheProvider;
+    private static final String TEST_RULES = "function test_name_space() { return Test; }\n" +
+        "var Test = {\n" +
+        "    echo: function() { return value; },\n" +
+        "    leak: function() { leaked = 'leaked'; return typeof leaked; },\n" +
+        "    check_leak: function() { return typeof leaked; }\n" +
+        "};\n";
+
     @Mock
     private RulesCurator rulesCurator;
     @Mock
-    private JsRunnerRequestCache mockedCache;
-    @Mock
     private Rules rules;
     private Date time1;
-    private JsRunnerProvider provider;
+    private DevConfig config;
 
     @BeforeEach
     public void setUp() {
@@ -53,51 +59,111 @@ public class JsRunnerProviderTest {
         time1 = new Date();
         when(rulesCurator.getUpdated()).thenReturn(time1);
         when(rulesCurator.getRules()).thenReturn(rules);
-        when(rules.getRules()).thenReturn("");
+        when(rules.getRules()).thenReturn(TEST_RULES);
+        when(rules.getVersion()).thenReturn("1.0");
         when(rules.getRulesSource()).thenReturn(RulesSourceEnum.DATABASE);
-        provider = new JsRunnerProvider(rulesCurator, cacheProvider);
+
+        config = TestConfig.defaults();
     }
 
-    @Test
-    public void valueGetsCachedMockedTest() {
-        when(cacheProvider.get()).thenReturn(mockedCache);
-        when(mockedCache.getUpdated()).thenReturn(null).thenReturn(time1);
-        provider.get();
-        verify(mockedCache).getUpdated();
-        verify(mockedCache).setUpdated(time1);
-        provider.get();
-        verify(mockedCache, times(2)).getUpdated();
-        verifyNoMoreInteractions(mockedCache);
+    private JsRunner getInitializedRunner(JsRunnerProvider provider) {
+        JsRunner runner = provider.get();
+        runner.init("test_name_space");
+
+        return runner;
     }
 
     /**
      * The rules curator is hit once during the initialization, but
      * then subsequent calls to provider.get() will not hit it anymore
+     * until the update check interval has elapsed
      */
     @Test
     public void rulesCuratorIsNotHitMultipleTimes() {
-        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        JsRunnerProvider provider = new JsRunnerProvider(rulesCurator, config);
         provider.get();
         provider.get();
         provider.get();
         provider.get();
         provider.get();
-        verify(rulesCurator, times(2)).getUpdated();
+        verify(rulesCurator, times(1)).getUpdated();
     }
 
     @Test
-    public void cacheInvalidationOnNewRequest() {
-        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
-        provider.get();
-        provider.get();
-        provider.get();
-        JsRunnerRequestCache newCache = new JsRunnerRequestCache();
-        when(cacheProvider.get()).thenReturn(newCache);
-        assertNull(newCache.getUpdated());
+    public void rulesCuratorIsHitOnceCheckIntervalElapses() {
+        config.setProperty(ConfigProperties.RULES_UPDATE_CHECK_INTERVAL, "0");
+
+        JsRunnerProvider provider = new JsRunnerProvider(rulesCurator, config);
         provider.get();
-        assertEquals(time1, newCache.getUpdated());
         provider.get();
         verify(rulesCurator, times(3)).getUpdated();
+        verify(rulesCurator, times(1)).getRules();
+    }
+
+    @Test
+    public void rulesAreRecompiledWhenUpdated() {
+        config.setProperty(ConfigProperties.RULES_UPDATE_CHECK_INTERVAL, "0");
+
+        JsRunnerProvider provider = new JsRunnerProvider(rulesCurator, config);
+        assertEquals("1.0", provider.getRulesVersion());
+
+        when(rulesCurator.getUpdated()).thenReturn(new Date(time1.getTime() + 1000));
+        when(rules.getVersion()).thenReturn("2.0");
+        provider.get();
+
+        assertEquals("2.0", provider.getRulesVersion());
+        verify(rulesCurator, times(2)).getRules();
+    }
+
+    @Test
+    public void forcedRefreshRecompilesRules() {
+        JsRunnerProvider provider = new JsRunnerProvider(rulesCurator, config);
+        provider.compileRules();
+        verify(rulesCurator, times(1)).getRules();
+
+        provider.compileRules(true);
+        verify(rulesCurator, times(2)).getRules();
+    }
+
+    @Test
+    public void runnersReuseScopesAcrossInvocations() throws Exception {
+        config.setProperty(ConfigProperties.RULES_SCOPE_POOL_SIZE, "1");
+        JsRunner runner = this.getInitializedRunner(new JsRunnerProvider(rulesCurator, config));
+
+        ArgumentJsContext context = new ArgumentJsContext();
+        context.put("value", "first");
+        assertEquals("first", runner.invokeMethod("echo", context));
+
+        context.put("value", "second");
+        assertEquals("second", runner.invokeMethod("echo", context));
+    }
+
+    @Test
+    public void pooledScopesAreResetBetweenInvocations() throws Exception {
+        config.setProperty(ConfigProperties.RULES_SCOPE_POOL_SIZE, "1");
+        JsRunner runner = this.getInitializedRunner(new JsRunnerProvider(rulesCurator, config));
+
+        assertEquals("string", runner.invokeMethod("leak"));
+        assertEquals("undefined", runner.invokeMethod("check_leak"));
+    }
+
+    @Test
+    public void scopePoolRetainsReleasedScopes() {
+        JsScopePool pool = new JsScopePool(new NativeObject(), 1);
+        Scriptable scope = pool.borrow();
+        pool.release(scope);
+
+        assertEquals(1, pool.size());
+        assertSame(scope, pool.borrow());
+        assertNotSame(scope, pool.borrow());
+    }
+
+    @Test
+    public void disabledScopePoolRetainsNothing() {
+        JsScopePool pool = new JsScopePool(new NativeObject(), 0);
+        pool.release(pool.borrow());
+
+        assertEquals(0, pool.size());
     }
 
 }
@@ -23,10 +23,15 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.audit.EventSink;
+import org.candlepin.cache.ComplianceStatusCache;
+import org.candlepin.cache.ReferenceDataCache;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.TestConfig;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.model.Consumer;
@@ -34,6 +39,7 @@ import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.ConsumerInstalledProduct;
 import org.candlepin.model.ConsumerType;
 import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.DistributorVersionCurator;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.EnvironmentCurator;
@@ -47,13 +53,10 @@ import org.candlepin.model.RulesCurator;
 import org.candlepin.policy.js.JsContext;
 import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsRunnerProvider;
-import org.candlepin.policy.js.JsRunnerRequestCache;
 import org.candlepin.test.TestUtil;
 import org.candlepin.util.ObjectMapperFactory;
 import org.candlepin.util.Util;
 
-import com.google.inject.Provider;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -97,6 +100,8 @@ public class ComplianceRulesTest {
     @Mock
     private ConsumerTypeCurator consumerTypeCurator;
     @Mock
+    private DistributorVersionCurator distributorVersionCurator;
+    @Mock
     private OwnerCurator mockOwnerCurator;
     @Mock
     private EntitlementCurator entCurator;
@@ -105,19 +110,19 @@ public class ComplianceRulesTest {
     @Mock
     private EventSink eventSink;
     @Mock
-    private Provider<JsRunnerRequestCache> cacheProvider;
-    @Mock
-    private JsRunnerRequestCache cache;
-    @Mock
     private EnvironmentCurator environmentCurator;
 
     private ModelTranslator translator;
     private I18n i18n;
     private JsRunnerProvider provider;
+    private ReferenceDataCache referenceDataCache;
     private Map<String, String> activeGuestAttrs;
 
     @BeforeEach
     public void setUp() {
+        this.referenceDataCache = new ReferenceDataCache(this.mockOwnerCurator, this.consumerTypeCurator,
+            this.distributorVersionCurator, TestConfig.defaults());
+
         translator = new StandardTranslator(consumerTypeCurator, environmentCurator, mockOwnerCurator);
 
         Locale locale = new Locale("en_US");
@@ -127,11 +132,10 @@ public class ComplianceRulesTest {
         Rules rules = new Rules(Util.readFile(is));
         when(rulesCuratorMock.getUpdated()).thenReturn(new Date());
         when(rulesCuratorMock.getRules()).thenReturn(rules);
-        when(cacheProvider.get()).thenReturn(cache);
-        provider = new JsRunnerProvider(rulesCuratorMock, cacheProvider);
+        provider = new JsRunnerProvider(rulesCuratorMock, TestConfig.defaults());
         compliance = new ComplianceRules(provider.get(), entCurator, new StatusReasonMessageGenerator(i18n),
-            eventSink, consumerCurator, consumerTypeCurator, ObjectMapperFactory.getRulesObjectMapper(),
-            translator);
+            eventSink, consumerCurator, referenceDataCache, new ComplianceStatusCache(this.getConfig()),
+            ObjectMapperFactory.getRulesObjectMapper(), translator, this.getConfig());
 
         this.owner = new Owner()
             .setId(TestUtil.randomString())
@@ -147,6 +151,14 @@ public class ComplianceRulesTest {
         ctype.setId("test-ctype");
     }
 
+    /**
+     * Builds the configuration used to create the compliance rules under test; subclasses may
+     * override this to select a different compliance engine.
+     */
+    protected Configuration getConfig() {
+        return TestConfig.defaults();
+    }
+
     /*
      * Make sure additive properties coming back from the javascript do not break when
      * we deserialize.
@@ -155,8 +167,8 @@ public class ComplianceRulesTest {
     public void additivePropertiesCanStillDeserialize() {
         JsRunner mockRunner = mock(JsRunner.class);
         compliance = new ComplianceRules(mockRunner, entCurator, new StatusReasonMessageGenerator(i18n),
-            eventSink, consumerCurator, consumerTypeCurator, ObjectMapperFactory.getRulesObjectMapper(),
-            translator);
+            eventSink, consumerCurator, referenceDataCache, new ComplianceStatusCache(this.getConfig()),
+            ObjectMapperFactory.getRulesObjectMapper(), translator, this.getConfig());
 
         when(mockRunner.runJsFunction(any(Class.class), eq("get_status"),
             any(JsContext.class))).thenReturn("{\"unknown\": \"thing\"}");
@@ -166,6 +178,61 @@ public class ComplianceRulesTest {
         compliance.getStatus(c, TestUtil.createDate(2011, 8, 30));
     }
 
+    @Test
+    public void testStatusIsReusedWhileInputsAreUnchanged() {
+        JsRunner mockRunner = mock(JsRunner.class);
+        Configuration config = TestConfig.defaults();
+        compliance = new ComplianceRules(mockRunner, entCurator, new StatusReasonMessageGenerator(i18n),
+            eventSink, consumerCurator, referenceDataCache, new ComplianceStatusCache(config),
+            ObjectMapperFactory.getRulesObjectMapper(), translator, config);
+
+        when(mockRunner.runJsFunction(any(Class.class), eq("get_status"),
+            any(JsContext.class))).thenReturn("{}");
+        Consumer c = mockConsumerWithTwoProductsAndNoEntitlements();
+        c.setUuid(TestUtil.randomString());
+
+        compliance.getStatus(c, TestUtil.createDate(2011, 8, 30));
+        ComplianceStatus status = compliance.getStatus(c, TestUtil.createDate(2011, 9, 30));
+
+        assertEquals(TestUtil.createDate(2011, 9, 30), status.getDate());
+        verify(mockRunner, times(1)).runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class));
+
+        c.setFact("cpu.cpu_socket(s)", "16");
+        compliance.getStatus(c, TestUtil.createDate(2011, 9, 30));
+
+        verify(mockRunner, times(2)).runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class));
+    }
+
+    @Test
+    public void testStatusIsNotReusedAcrossRulesVersions() {
+        Configuration config = TestConfig.defaults();
+        ComplianceStatusCache statusCache = new ComplianceStatusCache(config);
+
+        JsRunner oldRunner = mock(JsRunner.class);
+        when(oldRunner.getRulesVersion()).thenReturn("5.43");
+        when(oldRunner.runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class)))
+            .thenReturn("{}");
+
+        JsRunner newRunner = mock(JsRunner.class);
+        when(newRunner.getRulesVersion()).thenReturn("5.44");
+        when(newRunner.runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class)))
+            .thenReturn("{}");
+
+        Consumer c = mockConsumerWithTwoProductsAndNoEntitlements();
+        c.setUuid(TestUtil.randomString());
+
+        new ComplianceRules(oldRunner, entCurator, new StatusReasonMessageGenerator(i18n), eventSink,
+            consumerCurator, referenceDataCache, statusCache, ObjectMapperFactory.getRulesObjectMapper(),
+            translator, config).getStatus(c, TestUtil.createDate(2011, 8, 30));
+
+        new ComplianceRules(newRunner, entCurator, new StatusReasonMessageGenerator(i18n), eventSink,
+            consumerCurator, referenceDataCache, statusCache, ObjectMapperFactory.getRulesObjectMapper(),
+            translator, config).getStatus(c, TestUtil.createDate(2011, 8, 30));
+
+        verify(oldRunner, times(1)).runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class));
+        verify(newRunner, times(1)).runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class));
+    }
+
     private Consumer mockConsumer(Product... installedProducts) {
         ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
         ctype.setId("test-ctype-" + TestUtil.randomInt());
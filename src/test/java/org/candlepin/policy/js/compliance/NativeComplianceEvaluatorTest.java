@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.audit.EventSink;
+import org.candlepin.cache.ComplianceStatusCache;
+import org.candlepin.cache.ReferenceDataCache;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.dto.ModelTranslator;
+import org.candlepin.dto.StandardTranslator;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.DistributorVersionCurator;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.GuestId;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.Rules;
+import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.js.JsContext;
+import org.candlepin.policy.js.JsRunner;
+import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.test.TestUtil;
+import org.candlepin.util.ObjectMapperFactory;
+import org.candlepin.util.Util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class NativeComplianceEvaluatorTest {
+
+    @Mock
+    private ConsumerTypeCurator consumerTypeCurator;
+    @Mock
+    private DistributorVersionCurator distributorVersionCurator;
+    @Mock
+    private EntitlementCurator entCurator;
+    @Mock
+    private RulesCurator rulesCurator;
+    @Mock
+    private EventSink eventSink;
+    @Mock
+    private EnvironmentCurator environmentCurator;
+    @Mock
+    private OwnerCurator ownerCurator;
+    @Mock
+    private ConsumerCurator consumerCurator;
+
+    private ReferenceDataCache referenceDataCache;
+    private ModelTranslator translator;
+    private I18n i18n;
+    private ComplianceRules rules;
+    private ComplianceRules nativeRules;
+    private NativeComplianceEvaluator evaluator;
+    private Owner owner;
+
+    @BeforeEach
+    public void setUp() {
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(this.ownerCurator,
+            this.consumerTypeCurator, this.distributorVersionCurator, TestConfig.defaults());
+        this.referenceDataCache = referenceDataCache;
+
+        InputStream is = this.getClass().getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+        when(this.rulesCurator.getUpdated()).thenReturn(new Date());
+        when(this.rulesCurator.getRules()).thenReturn(new Rules(Util.readFile(is)));
+
+        ModelTranslator translator = new StandardTranslator(this.consumerTypeCurator,
+            this.environmentCurator, this.ownerCurator);
+        I18n i18n = I18nFactory.getI18n(getClass(), "org.candlepin.i18n.Messages", Locale.US,
+            I18nFactory.FALLBACK);
+        this.translator = translator;
+        this.i18n = i18n;
+
+        this.rules = new ComplianceRules(new JsRunnerProvider(this.rulesCurator, TestConfig.defaults()).get(),
+            this.entCurator, new StatusReasonMessageGenerator(i18n), this.eventSink, this.consumerCurator,
+            referenceDataCache, new ComplianceStatusCache(TestConfig.defaults()),
+            ObjectMapperFactory.getRulesObjectMapper(), translator, TestConfig.defaults());
+
+        DevConfig config = TestConfig.defaults();
+        config.setProperty(ConfigProperties.COMPLIANCE_ENGINE, "native");
+
+        this.nativeRules = new ComplianceRules(new JsRunnerProvider(this.rulesCurator, config)
+            .get(), this.entCurator, new StatusReasonMessageGenerator(i18n), this.eventSink,
+            this.consumerCurator, referenceDataCache, new ComplianceStatusCache(config),
+            ObjectMapperFactory.getRulesObjectMapper(), translator, config);
+
+        this.evaluator = new NativeComplianceEvaluator(referenceDataCache);
+
+        this.owner = new Owner()
+            .setId(TestUtil.randomString())
+            .setKey("test_owner")
+            .setDisplayName("test owner");
+    }
+
+    public static Stream<Arguments> parseIntInputs() {
+        return Stream.of(
+            Arguments.of("8", 8.0),
+            Arguments.of("  -12abc", -12.0),
+            Arguments.of("+7", 7.0),
+            Arguments.of("0x1F", 31.0),
+            Arguments.of("2.9", 2.0),
+            Arguments.of("abc", Double.NaN),
+            Arguments.of("", Double.NaN),
+            Arguments.of(null, Double.NaN),
+            Arguments.of("NaN", Double.NaN));
+    }
+
+    @ParameterizedTest
+    @MethodSource("parseIntInputs")
+    public void testParseInt(String input, double expected) {
+        assertEquals(expected, NativeComplianceEvaluator.parseInt(input));
+    }
+
+    public static Stream<Arguments> toNumberInputs() {
+        return Stream.of(
+            Arguments.of("8", 8.0),
+            Arguments.of(" 2.5 ", 2.5),
+            Arguments.of("", 0.0),
+            Arguments.of(null, 0.0),
+            Arguments.of("0x10", 16.0),
+            Arguments.of("1e3", 1000.0),
+            Arguments.of("-Infinity", Double.NEGATIVE_INFINITY),
+            Arguments.of("8 sockets", Double.NaN),
+            Arguments.of("1d", Double.NaN),
+            Arguments.of(4.0, 4.0));
+    }
+
+    @ParameterizedTest
+    @MethodSource("toNumberInputs")
+    public void testToNumber(Object input, double expected) {
+        assertEquals(expected, NativeComplianceEvaluator.toNumber(input));
+    }
+
+    public static Stream<Arguments> numberToStringInputs() {
+        return Stream.of(
+            Arguments.of(8.0, "8"),
+            Arguments.of(-0.0, "0"),
+            Arguments.of(2.5, "2.5"),
+            Arguments.of(0.000001, "0.000001"),
+            Arguments.of(0.0000001, "1e-7"),
+            Arguments.of(1e21, "1e+21"),
+            Arguments.of(123456789012345680000.0, "123456789012345680000"),
+            Arguments.of(Double.NaN, "NaN"),
+            Arguments.of(Double.NEGATIVE_INFINITY, "-Infinity"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("numberToStringInputs")
+    public void testNumberToString(double input, String expected) {
+        assertEquals(expected, NativeComplianceEvaluator.numberToString(input));
+    }
+
+    private Consumer buildConsumer(Map<String, String> facts, String... installedPids) {
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        ctype.setId("test-ctype-" + TestUtil.randomInt());
+
+        Consumer consumer = new Consumer()
+            .setUuid(TestUtil.randomString())
+            .setType(ctype)
+            .setFacts(facts);
+
+        when(this.consumerTypeCurator.get(ctype.getId())).thenReturn(ctype);
+        when(this.consumerTypeCurator.getConsumerType(consumer)).thenReturn(ctype);
+
+        for (String pid : installedPids) {
+            consumer.addInstalledProduct(new ConsumerInstalledProduct()
+                .setProductId(pid)
+                .setProductName(pid));
+        }
+
+        return consumer;
+    }
+
+    private Entitlement buildEntitlement(Consumer consumer, String pid, int quantity,
+        Map<String, String> productAttributes, Map<String, String> poolAttributes) {
+
+        Product product = new Product(pid, pid)
+            .setAttributes(productAttributes);
+
+        Pool pool = new Pool()
+            .setId(TestUtil.randomString())
+            .setOwner(this.owner)
+            .setProduct(product)
+            .setQuantity(100L)
+            .setStartDate(TestUtil.createDate(2000, 1, 1))
+            .setEndDate(TestUtil.createDate(2050, 1, 1))
+            .setAttributes(poolAttributes);
+
+        Entitlement entitlement = new Entitlement(pool, consumer, this.owner, quantity);
+        entitlement.setId(TestUtil.randomString());
+        consumer.addEntitlement(entitlement);
+
+        return entitlement;
+    }
+
+    private void assertSameStatus(Consumer consumer, Date date) {
+        ComplianceStatus expected = this.rules.getStatus(consumer, null, date, true, false, true, false);
+        ComplianceStatus actual = this.nativeRules.getStatus(consumer, null, date, true, false, true, false);
+
+        assertEquals(List.of(), ComplianceStatusDiff.compare(expected, actual));
+    }
+
+    @Test
+    public void testGuestUsesPoolCoresForVcpu() {
+        Consumer consumer = this.buildConsumer(Map.of("virt.is_guest", "true",
+            "cpu.core(s)_per_socket", "4", "cpu.cpu_socket(s)", "2"), "p1");
+
+        this.buildEntitlement(consumer, "p1", 1, Map.of("cores", "4"), Map.of());
+
+        assertSameStatus(consumer, new Date());
+    }
+
+    @Test
+    public void testUnparsableFactsAndAttributes() {
+        Consumer consumer = this.buildConsumer(Map.of("cpu.cpu_socket(s)", "eight",
+            "memory.memtotal", "16GB", "uname.machine", "x86_64"), "p1", "p2");
+
+        this.buildEntitlement(consumer, "p1", 1, Map.of("sockets", "many", "ram", "8"), Map.of());
+        this.buildEntitlement(consumer, "p2", 3, Map.of("arch", "ppc64, x86_64", "stacking_id", "s1",
+            "sockets", "2"), Map.of());
+
+        assertSameStatus(consumer, new Date());
+    }
+
+    @Test
+    public void testHostRestrictedGuestWithGuestLimits() {
+        Consumer consumer = this.buildConsumer(Map.of("virt.is_guest", "true", "memory.memtotal",
+            "33554432", "cpu.core(s)_per_socket", "8"), "p1");
+
+        consumer.addGuestId(new GuestId("guest-1", consumer, Map.of("virtWhoType", "libvirt",
+            "active", "1")));
+
+        this.buildEntitlement(consumer, "p1", 2, Map.of("ram", "4", "vcpu", "2", "guest_limit", "0",
+            "stacking_id", "s1"), Map.of("requires_host", "host-uuid"));
+        this.buildEntitlement(consumer, "p2", 1, Map.of("guest_limit", "4", "stacking_id", "s1"),
+            Map.of("unmapped_guests_only", "TRUE"));
+
+        assertSameStatus(consumer, new Date());
+    }
+
+    @Test
+    public void testStackAndEntitlementChecksMatchRules() {
+        Consumer consumer = this.buildConsumer(Map.of("cpu.cpu_socket(s)", "8"), "p1");
+
+        Entitlement ent1 = this.buildEntitlement(consumer, "p1", 2, Map.of("sockets", "2",
+            "instance_multiplier", "2", "stacking_id", "s1"), Map.of());
+        Entitlement ent2 = this.buildEntitlement(consumer, "p1", 5, Map.of("sockets", "2",
+            "stacking_id", "s1"), Map.of());
+
+        List<Entitlement> ents = List.of(ent1, ent2);
+        when(this.entCurator.listByConsumerAndDate(consumer, null)).thenReturn(ents);
+
+        assertEquals(this.rules.isStackCompliant(consumer, "s1", ents),
+            this.evaluator.isStackCompliant(consumer, "s1", ents));
+        assertEquals(this.rules.isStackCompliant(consumer, "s1", List.of(ent1)),
+            this.evaluator.isStackCompliant(consumer, "s1", List.of(ent1)));
+        assertEquals(this.rules.isEntitlementCompliant(consumer, ent1, null),
+            this.evaluator.isEntitlementCompliant(consumer, ent1, ents));
+    }
+
+    @Test
+    public void testDiffReportsMismatches() {
+        ComplianceStatus expected = new ComplianceStatus(new Date());
+        ComplianceStatus actual = new ComplianceStatus(new Date());
+
+        assertTrue(ComplianceStatusDiff.compare(expected, actual).isEmpty());
+
+        actual.addNonCompliantProduct("p1");
+
+        List<String> differences = ComplianceStatusDiff.compare(expected, actual);
+        assertFalse(differences.isEmpty());
+        assertTrue(differences.stream().anyMatch(diff -> diff.startsWith("nonCompliantProducts")));
+    }
+
+    private ComplianceRules buildNativeRules(JsRunner runner) {
+        DevConfig config = TestConfig.defaults();
+        config.setProperty(ConfigProperties.COMPLIANCE_ENGINE, "native");
+
+        return new ComplianceRules(runner, this.entCurator, new StatusReasonMessageGenerator(this.i18n),
+            this.eventSink, this.consumerCurator, this.referenceDataCache, new ComplianceStatusCache(config),
+            ObjectMapperFactory.getRulesObjectMapper(), this.translator, config);
+    }
+
+    @Test
+    public void testEvaluatorMirrorsDefaultRules() {
+        String version = new JsRunnerProvider(this.rulesCurator, TestConfig.defaults()).getRulesVersion();
+
+        assertTrue(NativeComplianceEvaluator.mirrorsRulesVersion(version));
+    }
+
+    @Test
+    public void testNativeEngineUsesRulesForOtherRulesVersion() {
+        JsRunner runner = mock(JsRunner.class);
+        when(runner.getRulesVersion()).thenReturn("1.0");
+        when(runner.runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class)))
+            .thenReturn("{}");
+
+        Consumer consumer = this.buildConsumer(Map.of(), "product-1");
+        this.buildNativeRules(runner).getStatus(consumer, new Date());
+
+        verify(runner).runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class));
+    }
+
+    @Test
+    public void testNativeEngineUsedForMirroredRulesVersion() {
+        JsRunner runner = mock(JsRunner.class);
+        when(runner.getRulesVersion()).thenReturn(NativeComplianceEvaluator.RULES_VERSION);
+
+        Consumer consumer = this.buildConsumer(Map.of(), "product-1");
+        ComplianceStatus status = this.buildNativeRules(runner).getStatus(consumer, new Date());
+
+        assertEquals(ComplianceStatus.RED, status.getStatus());
+        verify(runner, never()).runJsFunction(any(Class.class), eq("get_status"), any(JsContext.class));
+    }
+
+    @Test
+    public void testGetStatusRequiresConsumer() {
+        assertThrows(IllegalArgumentException.class,
+            () -> this.evaluator.getStatus(null, List.of(), new Date(), false, false));
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+
+
+
+/**
+ * Runs the compliance rules tests against the native compliance engine, verifying that it
+ * reproduces the behavior of the JS rules.
+ */
+public class NativeComplianceRulesTest extends ComplianceRulesTest {
+
+    @Override
+    protected Configuration getConfig() {
+        DevConfig config = TestConfig.defaults();
+        config.setProperty(ConfigProperties.COMPLIANCE_ENGINE, "native");
+
+        return config;
+    }
+
+}
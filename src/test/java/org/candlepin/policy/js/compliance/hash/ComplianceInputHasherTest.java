@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance.hash;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.GuestId;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.test.TestUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class ComplianceInputHasherTest {
+
+    private ConsumerType ctype;
+    private Consumer consumer;
+    private Entitlement entitlement;
+    private Product product;
+
+    @BeforeEach
+    public void setUp() {
+        this.ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        this.ctype.setId("test-ctype");
+
+        this.consumer = new Consumer()
+            .setUuid("test-consumer")
+            .setFact("cpu.cpu_socket(s)", "4")
+            .setFact("unrelated", "value");
+
+        this.consumer.addInstalledProduct(new ConsumerInstalledProduct()
+            .setProductId("product-1")
+            .setArch("x86_64")
+            .setVersion("1.0"));
+
+        this.product = new Product()
+            .setId("test-product")
+            .setAttribute(Product.Attributes.SOCKETS, "2");
+
+        Pool pool = new Pool()
+            .setId("test-pool")
+            .setProduct(this.product)
+            .setStartDate(TestUtil.createDate(2020, 1, 1))
+            .setEndDate(TestUtil.createDate(2030, 1, 1));
+
+        this.entitlement = new Entitlement()
+            .setId("test-ent")
+            .setPool(pool)
+            .setQuantity(1);
+    }
+
+    private String hash(Object... options) {
+        return new ComplianceInputHasher(this.consumer, this.ctype, List.of(this.entitlement), options)
+            .hash();
+    }
+
+    @Test
+    public void testSameInputsProduceSameHash() {
+        assertEquals(this.hash(true), this.hash(true));
+    }
+
+    @Test
+    public void testUnrelatedFactsDoNotChangeHash() {
+        String initial = this.hash();
+        this.consumer.setFact("unrelated", "changed");
+
+        assertEquals(initial, this.hash());
+    }
+
+    @Test
+    public void testComplianceFactsChangeHash() {
+        String initial = this.hash();
+        this.consumer.setFact("cpu.cpu_socket(s)", "8");
+
+        assertNotEquals(initial, this.hash());
+    }
+
+    @Test
+    public void testInstalledProductsChangeHash() {
+        String initial = this.hash();
+        this.consumer.addInstalledProduct(new ConsumerInstalledProduct()
+            .setProductId("product-2"));
+
+        assertNotEquals(initial, this.hash());
+    }
+
+    @Test
+    public void testGuestIdsChangeHash() {
+        String initial = this.hash();
+
+        GuestId guest = new GuestId("guest-1");
+        guest.setAttributes(Map.of("active", "1"));
+        this.consumer.addGuestId(guest);
+        String withGuest = this.hash();
+
+        guest.setAttributes(Map.of("active", "0"));
+
+        assertNotEquals(initial, withGuest);
+        assertNotEquals(withGuest, this.hash());
+    }
+
+    @Test
+    public void testEntitlementDatesChangeHash() {
+        String initial = this.hash();
+        this.entitlement.setEndDateOverride(TestUtil.createDate(2025, 1, 1));
+
+        assertNotEquals(initial, this.hash());
+    }
+
+    @Test
+    public void testEntitlementQuantityChangesHash() {
+        String initial = this.hash();
+        this.entitlement.setQuantity(2);
+
+        assertNotEquals(initial, this.hash());
+    }
+
+    @Test
+    public void testProductAttributesChangeHash() {
+        String initial = this.hash();
+        this.product.setAttribute(Product.Attributes.SOCKETS, "4");
+        String withSockets = this.hash();
+
+        this.product.setAttribute(Product.Attributes.STACKING_ID, "stack");
+
+        assertNotEquals(initial, withSockets);
+        assertNotEquals(withSockets, this.hash());
+    }
+
+    @Test
+    public void testProvidedProductsChangeHash() {
+        String initial = this.hash();
+        this.product.setProvidedProducts(List.of(new Product().setId("provided-1")));
+
+        assertNotEquals(initial, this.hash());
+    }
+
+    @Test
+    public void testPoolAttributesChangeHash() {
+        String initial = this.hash();
+        this.entitlement.getPool().setAttribute(Pool.Attributes.VIRT_ONLY, "true");
+
+        assertNotEquals(initial, this.hash());
+    }
+
+    @Test
+    public void testOptionsChangeHash() {
+        assertNotEquals(this.hash(true, false), this.hash(false, true));
+    }
+
+    @Test
+    public void testRequiresConsumer() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ComplianceInputHasher(null, this.ctype, List.of()));
+    }
+}
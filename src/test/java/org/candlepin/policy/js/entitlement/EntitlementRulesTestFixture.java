@@ -43,15 +43,12 @@ import org.candlepin.model.Rules;
 import org.candlepin.model.RulesCurator;
 import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsRunnerProvider;
-import org.candlepin.policy.js.JsRunnerRequestCache;
 import org.candlepin.policy.js.compliance.ComplianceStatus;
 import org.candlepin.test.TestUtil;
 import org.candlepin.util.DateSourceImpl;
 import org.candlepin.util.ObjectMapperFactory;
 import org.candlepin.util.Util;
 
-import com.google.inject.Provider;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -86,10 +83,6 @@ public class EntitlementRulesTestFixture {
     @Mock
     protected EntitlementCurator entitlementCurator;
     @Mock
-    private Provider<JsRunnerRequestCache> cacheProvider;
-    @Mock
-    private JsRunnerRequestCache cache;
-    @Mock
     private OwnerCurator ownerCurator;
     @Mock
     protected EnvironmentCurator environmentCurator;
@@ -113,9 +106,8 @@ public class EntitlementRulesTestFixture {
 
         when(rulesCurator.getRules()).thenReturn(rules);
         when(rulesCurator.getUpdated()).thenReturn(TestUtil.createDate(2010, 1, 1));
-        when(cacheProvider.get()).thenReturn(cache);
 
-        JsRunner jsRules = new JsRunnerProvider(rulesCurator, cacheProvider).get();
+        JsRunner jsRules = new JsRunnerProvider(rulesCurator, config).get();
 
         poolService = mock(PoolService.class);
 
@@ -63,7 +63,6 @@ import org.candlepin.model.dto.Subscription;
 import org.candlepin.policy.SystemPurposeComplianceRules;
 import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsRunnerProvider;
-import org.candlepin.policy.js.JsRunnerRequestCache;
 import org.candlepin.policy.js.compliance.ComplianceRules;
 import org.candlepin.policy.js.pool.PoolRules;
 import org.candlepin.test.TestUtil;
@@ -71,8 +70,6 @@ import org.candlepin.util.DateSourceImpl;
 import org.candlepin.util.ObjectMapperFactory;
 import org.candlepin.util.Util;
 
-import com.google.inject.Provider;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -114,10 +111,6 @@ public class HostedVirtLimitEntitlementRulesTest {
     @Mock
     private EntitlementCurator entCurMock;
     @Mock
-    private Provider<JsRunnerRequestCache> cacheProvider;
-    @Mock
-    private JsRunnerRequestCache cache;
-    @Mock
     private OwnerCurator ownerCurator;
     @Mock
     private EnvironmentCurator environmentCurator;
@@ -158,9 +151,8 @@ public class HostedVirtLimitEntitlementRulesTest {
 
         when(rulesCurator.getRules()).thenReturn(rules);
         when(rulesCurator.getUpdated()).thenReturn(TestUtil.createDate(2010, 1, 1));
-        when(cacheProvider.get()).thenReturn(cache);
 
-        JsRunner jsRules = new JsRunnerProvider(rulesCurator, cacheProvider).get();
+        JsRunner jsRules = new JsRunnerProvider(rulesCurator, config).get();
 
         ModelTranslator translator = new StandardTranslator(
             consumerTypeCurator, environmentCurator, ownerCurator);
@@ -16,8 +16,16 @@ package org.candlepin.policy.js.quantity;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.cache.QuantityInputCache;
+import org.candlepin.config.TestConfig;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
@@ -34,14 +42,13 @@ import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
 import org.candlepin.model.Rules;
 import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.js.JsContext;
+import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsRunnerProvider;
-import org.candlepin.policy.js.JsRunnerRequestCache;
 import org.candlepin.test.TestUtil;
 import org.candlepin.util.ObjectMapperFactory;
 import org.candlepin.util.Util;
 
-import com.google.inject.Provider;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -88,10 +95,6 @@ public class QuantityRulesTest {
     @Mock
     private OwnerCurator ownerCuratorMock;
     @Mock
-    private Provider<JsRunnerRequestCache> cacheProvider;
-    @Mock
-    private JsRunnerRequestCache cache;
-    @Mock
     private ConsumerTypeCurator consumerTypeCurator;
     @Mock
     private EnvironmentCurator environmentCurator;
@@ -103,12 +106,11 @@ public class QuantityRulesTest {
         Rules rules = new Rules(Util.readFile(is));
         when(rulesCuratorMock.getUpdated()).thenReturn(new Date());
         when(rulesCuratorMock.getRules()).thenReturn(rules);
-        when(cacheProvider.get()).thenReturn(cache);
-        provider = new JsRunnerProvider(rulesCuratorMock, cacheProvider);
+        provider = new JsRunnerProvider(rulesCuratorMock, TestConfig.defaults());
 
         translator = new StandardTranslator(consumerTypeCurator, environmentCurator, ownerCuratorMock);
         quantityRules = new QuantityRules(provider.get(), ObjectMapperFactory.getRulesObjectMapper(),
-            translator);
+            translator, new QuantityInputCache(TestConfig.defaults()));
 
         owner = TestUtil.createOwner();
         product = TestUtil.createProduct();
@@ -592,4 +594,156 @@ public class QuantityRulesTest {
         assertEquals(1L, suggested.getSuggested());
         assertEquals(1L, suggested.getIncrement());
     }
+
+    private Pool createPool(String multiEnt, String stackingId, String instanceMultiplier) {
+        Product product = TestUtil.createProduct();
+        product.setAttribute(SOCKET_ATTRIBUTE, "2");
+
+        if (multiEnt != null) {
+            product.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, multiEnt);
+        }
+
+        if (stackingId != null) {
+            product.setAttribute(Product.Attributes.STACKING_ID, stackingId);
+        }
+
+        if (instanceMultiplier != null) {
+            product.setAttribute(INSTANCE_ATTRIBUTE, instanceMultiplier);
+        }
+
+        Pool pool = TestUtil.createPool(owner, product);
+        pool.setId(TestUtil.randomString());
+
+        return pool;
+    }
+
+    private List<Pool> createBulkPools() {
+        return List.of(
+            this.createPool(null, null, null),
+            this.createPool("no", "stack", "2"),
+            this.createPool("yes", null, null),
+            this.createPool("YES", null, "4"),
+            this.createPool("yes", "0", "3"),
+            this.createPool("yes", null, "0"),
+            this.createPool("yes", "stack", null),
+            this.createPool("yes", "stack", "2"));
+    }
+
+    @Test
+    public void testBulkQuantitiesMatchRulesForPhysicalConsumer() {
+        consumer.setFact(SOCKET_FACT, "8");
+        List<Pool> pools = this.createBulkPools();
+
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(pools, consumer,
+            new Date());
+
+        assertEquals(pools.size(), results.size());
+        for (Pool p : pools) {
+            assertEquals(quantityRules.getSuggestedQuantity(p, consumer, new Date()), results.get(p.getId()));
+        }
+    }
+
+    @Test
+    public void testBulkQuantitiesMatchRulesForGuestConsumer() {
+        consumer.setFact(IS_VIRT, "true");
+        consumer.setFact(SOCKET_FACT, "8");
+        List<Pool> pools = this.createBulkPools();
+
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(pools, consumer,
+            new Date());
+
+        assertEquals(pools.size(), results.size());
+        for (Pool p : pools) {
+            assertEquals(quantityRules.getSuggestedQuantity(p, consumer, new Date()), results.get(p.getId()));
+        }
+    }
+
+    @Test
+    public void testBulkQuantitiesOnDistributor() {
+        ctype.setManifest(true);
+        List<Pool> pools = this.createBulkPools();
+
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(pools, consumer,
+            new Date());
+
+        assertEquals(pools.size(), results.size());
+        for (SuggestedQuantityDTO suggested : results.values()) {
+            assertEquals(1L, suggested.getSuggested());
+            assertEquals(1L, suggested.getIncrement());
+        }
+    }
+
+    @Test
+    public void testBulkQuantitiesSkipRulesWithoutStackedPools() {
+        JsRunner runner = mock(JsRunner.class);
+        when(runner.getRulesVersion()).thenReturn(QuantityRules.RULES_VERSION);
+        QuantityRules rules = new QuantityRules(runner, ObjectMapperFactory.getRulesObjectMapper(),
+            translator, new QuantityInputCache(TestConfig.defaults()));
+
+        Pool unstacked = this.createPool("yes", null, "4");
+        Pool standard = this.createPool("no", null, null);
+
+        Map<String, SuggestedQuantityDTO> results = rules.getSuggestedQuantities(
+            List.of(unstacked, standard), consumer, new Date());
+
+        assertEquals(4L, results.get(unstacked.getId()).getIncrement());
+        assertEquals(1L, results.get(standard.getId()).getIncrement());
+        verify(runner, never()).runJsFunction(any(), anyString(), any(JsContext.class));
+    }
+
+    @Test
+    public void testDefaultRulesMatchMirroredRulesVersion() {
+        assertEquals(QuantityRules.RULES_VERSION, provider.get().getRulesVersion());
+    }
+
+    @Test
+    public void testBulkQuantitiesUseRulesForOtherRulesVersion() {
+        JsRunner runner = mock(JsRunner.class);
+        when(runner.getRulesVersion()).thenReturn("999.0");
+        QuantityRules rules = new QuantityRules(runner, ObjectMapperFactory.getRulesObjectMapper(),
+            translator, new QuantityInputCache(TestConfig.defaults()));
+
+        Pool unstacked = this.createPool("yes", null, "4");
+        Pool standard = this.createPool("no", null, null);
+
+        String json = String.format("{\"%s\":{\"suggested\":1,\"increment\":8}," +
+            "\"%s\":{\"suggested\":1,\"increment\":1}}", unstacked.getId(), standard.getId());
+        when(runner.runJsFunction(eq(String.class), eq("get_suggested_quantities"), any(JsContext.class)))
+            .thenReturn(json);
+
+        Map<String, SuggestedQuantityDTO> results = rules.getSuggestedQuantities(
+            List.of(unstacked, standard), consumer, new Date());
+
+        assertEquals(8L, results.get(unstacked.getId()).getIncrement());
+        assertEquals(1L, results.get(standard.getId()).getIncrement());
+    }
+
+    @Test
+    public void testBulkQuantitiesUseUpdatedConsumerFacts() {
+        consumer.setFact(SOCKET_FACT, "4");
+        pool.getProduct().setAttribute(SOCKET_ATTRIBUTE, "2");
+
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(List.of(pool),
+            consumer, new Date());
+        assertEquals(2L, results.get(pool.getId()).getSuggested());
+
+        consumer.setFact(SOCKET_FACT, "8");
+
+        results = quantityRules.getSuggestedQuantities(List.of(pool), consumer, new Date());
+        assertEquals(4L, results.get(pool.getId()).getSuggested());
+    }
+
+    @Test
+    public void testBulkQuantitiesUsePrefetchedEntitlements() {
+        consumer.setFact(SOCKET_FACT, "4");
+        pool.getProduct().setAttribute(SOCKET_ATTRIBUTE, "1");
+
+        Entitlement e = createValidEntitlement(pool);
+        e.setQuantity(2);
+
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(List.of(pool),
+            consumer, List.of(e), new Date());
+
+        assertEquals(2L, results.get(pool.getId()).getSuggested());
+    }
 }
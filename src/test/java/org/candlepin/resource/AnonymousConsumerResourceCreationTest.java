@@ -33,9 +33,11 @@ import org.candlepin.auth.AnonymousCloudConsumerPrincipal;
 import org.candlepin.auth.AuthenticationMethod;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.permissions.PermissionFactory;
+import org.candlepin.cache.ReferenceDataCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.EntitlementCertificateService;
 import org.candlepin.controller.Entitler;
@@ -198,6 +200,8 @@ public class AnonymousConsumerResourceCreationTest {
     private AnonymousCertificateGenerator anonymousCertificateGenerator;
     @Mock
     private ConsumerCloudDataBuilder consumerCloudDataBuilder;
+    @Mock
+    private ConsumerCheckInRecorder checkInRecorder;
 
     protected ModelTranslator modelTranslator;
 
@@ -224,7 +228,9 @@ public class AnonymousConsumerResourceCreationTest {
             this.entitlementCertServiceAdapter, this.i18n, this.sink, this.eventFactory, this.userService,
             this.poolManager, this.refresherFactory, this.consumerRules, this.ownerCurator,
             this.activationKeyCurator, this.entitler, this.complianceRules, this.systemPurposeComplianceRules,
-            this.deletedConsumerCurator, this.environmentCurator, this.distributorVersionCurator, this.config,
+            this.deletedConsumerCurator, this.environmentCurator,
+            new ReferenceDataCache(this.ownerCurator, this.consumerTypeCurator,
+                this.distributorVersionCurator, this.config), this.config,
             this.calculatedAttributesUtil, this.consumerBindUtil, this.manifestManager,
             this.contentAccessManager, new FactValidator(this.config, () -> this.i18n),
             new ConsumerTypeValidator(consumerTypeCurator, i18n), this.consumerEnricher,
@@ -233,7 +239,8 @@ public class AnonymousConsumerResourceCreationTest {
             this.consumerContentOverrideCurator, this.entCertService, this.poolService,
             this.environmentContentCurator, this.anonymousConsumerCurator, this.anonymousCertCurator,
             this.ownerService, this.scaCertificateGenerator, this.anonymousCertificateGenerator,
-            this.consumerCloudDataBuilder
+            this.consumerCloudDataBuilder,
+            this.checkInRecorder
         );
 
         this.system = this.initConsumerType();
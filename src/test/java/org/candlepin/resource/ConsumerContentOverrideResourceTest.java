@@ -27,6 +27,8 @@ import org.candlepin.audit.EventSink;
 import org.candlepin.auth.Access;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.SubResource;
+import org.candlepin.cache.ReferenceDataCache;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.EntitlementCertificateService;
 import org.candlepin.controller.Entitler;
@@ -140,6 +142,8 @@ public class ConsumerContentOverrideResourceTest extends DatabaseTestFixture {
     private AnonymousCertificateGenerator anonymousCertificateGenerator;
     @Mock
     private ConsumerCloudDataBuilder consumerCloudDataBuilder;
+    @Mock
+    private ConsumerCheckInRecorder checkInRecorder;
 
     private ConsumerResource resource;
 
@@ -171,7 +175,8 @@ public class ConsumerContentOverrideResourceTest extends DatabaseTestFixture {
             this.systemPurposeComplianceRules,
             this.deletedConsumerCurator,
             this.environmentCurator,
-            this.distributorVersionCurator,
+            new ReferenceDataCache(this.ownerCurator, this.consumerTypeCurator,
+                this.distributorVersionCurator, this.config),
             this.config,
             this.calculatedAttributesUtil,
             this.consumerBindUtil,
@@ -195,7 +200,8 @@ public class ConsumerContentOverrideResourceTest extends DatabaseTestFixture {
             this.ownerService,
             this.scaCertificateGenerator,
             this.anonymousCertificateGenerator,
-            this.consumerCloudDataBuilder
+            this.consumerCloudDataBuilder,
+            this.checkInRecorder
         );
     }
 
@@ -31,9 +31,11 @@ import org.candlepin.auth.UserPrincipal;
 import org.candlepin.auth.permissions.OwnerPermission;
 import org.candlepin.auth.permissions.Permission;
 import org.candlepin.auth.permissions.PermissionFactory;
+import org.candlepin.cache.ReferenceDataCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.EntitlementCertificateService;
 import org.candlepin.controller.Entitler;
@@ -196,6 +198,8 @@ public class ConsumerResourceCreationLiberalNameRules {
     private OwnerServiceAdapter ownerService;
     @Mock
     private ConsumerCloudDataBuilder consumerCloudDataBuilder;
+    @Mock
+    private ConsumerCheckInRecorder checkInRecorder;
     protected ModelTranslator modelTranslator;
 
     private I18n i18n;
@@ -237,7 +241,8 @@ public class ConsumerResourceCreationLiberalNameRules {
             this.systemPurposeComplianceRules,
             this.deletedConsumerCurator,
             this.environmentCurator,
-            this.distributorVersionCurator,
+            new ReferenceDataCache(this.ownerCurator, this.consumerTypeCurator,
+                this.distributorVersionCurator, this.config),
             this.config,
             this.calculatedAttributesUtil,
             this.consumerBindUtil,
@@ -261,7 +266,8 @@ public class ConsumerResourceCreationLiberalNameRules {
             this.ownerService,
             this.scaCertificateGenerator,
             this.anonymousCertificateGenerator,
-            this.consumerCloudDataBuilder
+            this.consumerCloudDataBuilder,
+            this.checkInRecorder
         );
 
         this.system = this.initConsumerType();
@@ -40,9 +40,11 @@ import org.candlepin.auth.UserPrincipal;
 import org.candlepin.auth.permissions.OwnerPermission;
 import org.candlepin.auth.permissions.Permission;
 import org.candlepin.auth.permissions.PermissionFactory.PermissionType;
+import org.candlepin.cache.ReferenceDataCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.EntitlementCertificateService;
 import org.candlepin.controller.Entitler;
@@ -218,6 +220,8 @@ public class ConsumerResourceCreationTest {
     private OwnerServiceAdapter ownerService;
     @Mock
     private ConsumerCloudDataBuilder consumerCloudDataBuilder;
+    @Mock
+    private ConsumerCheckInRecorder checkInRecorder;
     protected ModelTranslator modelTranslator;
 
     private I18n i18n;
@@ -259,7 +263,8 @@ public class ConsumerResourceCreationTest {
             this.systemPurposeComplianceRules,
             this.deletedConsumerCurator,
             this.environmentCurator,
-            this.distributorVersionCurator,
+            new ReferenceDataCache(this.ownerCurator, this.consumerTypeCurator,
+                this.distributorVersionCurator, this.config),
             this.config,
             this.calculatedAttributesUtil,
             this.consumerBindUtil,
@@ -283,7 +288,8 @@ public class ConsumerResourceCreationTest {
             this.ownerService,
             this.scaCertificateGenerator,
             this.anonymousCertificateGenerator,
-            this.consumerCloudDataBuilder
+            this.consumerCloudDataBuilder,
+            this.checkInRecorder
         );
 
         this.system = this.initConsumerType();
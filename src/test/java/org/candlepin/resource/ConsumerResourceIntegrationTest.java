@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -95,6 +96,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Response;
 
@@ -462,7 +464,7 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
     }
 
     @Test
-    public void testReadOnlyUsersCanGenerateExports() {
+    public void testReadOnlyUsersCanGenerateExports() throws Exception {
         // add an identity certificate for the export
         IdentityCertificate idCert = TestUtil.createIdCert();
         idCert.setId(null); // needs to be null to persist
@@ -474,7 +476,9 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
         consumerCurator.update(consumer);
         setupPrincipal(owner, Access.READ_ONLY);
         securityInterceptor.enable();
-        ResteasyContext.pushContext(HttpServletResponse.class, mock(HttpServletResponse.class));
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        doReturn(mock(ServletOutputStream.class)).when(response).getOutputStream();
+        ResteasyContext.pushContext(HttpServletResponse.class, response);
         consumerResource.exportData(consumer.getUuid(), null, null, null);
         // if no exception, we're good
     }
@@ -32,6 +32,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -49,10 +50,13 @@ import org.candlepin.auth.Principal;
 import org.candlepin.auth.SubResource;
 import org.candlepin.auth.TrustedUserPrincipal;
 import org.candlepin.auth.UserPrincipal;
-import org.candlepin.config.Configuration;
+import org.candlepin.cache.ReferenceDataCache;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
 import org.candlepin.controller.AutobindDisabledForOwnerException;
 import org.candlepin.controller.AutobindHypervisorDisabledException;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.ContentAccessMode;
 import org.candlepin.controller.EntitlementCertificateService;
@@ -203,7 +207,7 @@ public class ConsumerResourceTest {
 
     private I18n i18n;
     private Provider<I18n> i18nProvider = () -> i18n;
-    private Configuration config;
+    private DevConfig config;
     private FactValidator factValidator;
 
     @Mock
@@ -292,6 +296,8 @@ public class ConsumerResourceTest {
     private Principal principal;
     @Mock
     private ConsumerCloudDataBuilder consumerCloudDataBuilder;
+    @Mock
+    private ConsumerCheckInRecorder checkInRecorder;
 
     private ModelTranslator translator;
     private ConsumerResource consumerResource;
@@ -350,7 +356,8 @@ public class ConsumerResourceTest {
             this.systemPurposeComplianceRules,
             this.deletedConsumerCurator,
             this.environmentCurator,
-            this.distributorVersionCurator,
+            new ReferenceDataCache(this.ownerCurator, this.consumerTypeCurator,
+                this.distributorVersionCurator, this.config),
             this.config,
             this.calculatedAttributesUtil,
             this.consumerBindUtil,
@@ -374,7 +381,8 @@ public class ConsumerResourceTest {
             this.ownerService,
             this.scaCertificateGenerator,
             this.anonymousCertificateGenerator,
-            this.consumerCloudDataBuilder
+            this.consumerCloudDataBuilder,
+            this.checkInRecorder
         );
     }
 
@@ -642,7 +650,8 @@ public class ConsumerResourceTest {
             this.systemPurposeComplianceRules,
             this.deletedConsumerCurator,
             this.environmentCurator,
-            this.distributorVersionCurator,
+            new ReferenceDataCache(this.ownerCurator, this.consumerTypeCurator,
+                this.distributorVersionCurator, this.config),
             this.config,
             this.calculatedAttributesUtil,
             this.consumerBindUtil,
@@ -666,7 +675,8 @@ public class ConsumerResourceTest {
             this.ownerService,
             this.scaCertificateGenerator,
             this.anonymousCertificateGenerator,
-            this.consumerCloudDataBuilder
+            this.consumerCloudDataBuilder,
+            this.checkInRecorder
         );
 
         // Fixme throw custom exception from generator instead of generic RuntimeException
@@ -1329,6 +1339,40 @@ public class ConsumerResourceTest {
             cdn.getLabel(), "prefix", cdn.getUrl());
     }
 
+    @Test
+    public void testSyncExportReturnsArchiveFile() throws Exception {
+        Owner owner = this.createOwner();
+        ConsumerType ctype = this.mockConsumerType(new ConsumerType(ConsumerType.ConsumerTypeEnum.CANDLEPIN));
+        Consumer consumer = this.createConsumer(owner, ctype);
+
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ResteasyContext.pushContext(HttpServletResponse.class, response);
+
+        File archive = new File("export.zip");
+        when(manifestManager.generateManifest(consumer.getUuid(), "cdn", "prefix", "url"))
+            .thenReturn(archive);
+
+        assertSame(archive, consumerResource.exportData(consumer.getUuid(), "cdn", "prefix", "url"));
+        verify(response).addHeader("Content-Disposition", "attachment; filename=export.zip");
+        verify(manifestManager, never()).writeManifestToResponse(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testSyncExportStreamsArchiveWhenEnabled() throws Exception {
+        this.config.setProperty(ConfigProperties.SYNC_EXPORT_STREAMING, "true");
+
+        Owner owner = this.createOwner();
+        ConsumerType ctype = this.mockConsumerType(new ConsumerType(ConsumerType.ConsumerTypeEnum.CANDLEPIN));
+        Consumer consumer = this.createConsumer(owner, ctype);
+
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ResteasyContext.pushContext(HttpServletResponse.class, response);
+
+        assertNull(consumerResource.exportData(consumer.getUuid(), "cdn", "prefix", "url"));
+        verify(manifestManager).writeManifestToResponse(consumer.getUuid(), "cdn", "prefix", "url", response);
+        verify(manifestManager, never()).generateManifest(any(), any(), any(), any());
+    }
+
     @Test
     public void deleteConsumerThrowsGoneExceptionIfConsumerDoesNotExistOnInitialLookup() {
         String targetConsumerUuid = "my-test-consumer";
@@ -38,8 +38,10 @@ import org.candlepin.audit.Event.Type;
 import org.candlepin.audit.EventBuilder;
 import org.candlepin.audit.EventFactory;
 import org.candlepin.audit.EventSink;
+import org.candlepin.cache.ReferenceDataCache;
 import org.candlepin.config.Configuration;
 import org.candlepin.config.TestConfig;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.EntitlementCertificateService;
 import org.candlepin.controller.Entitler;
@@ -235,6 +237,8 @@ public class ConsumerResourceUpdateTest {
     private AnonymousCertificateGenerator anonymousCertificateGenerator;
     @Mock
     private ConsumerCloudDataBuilder cloudDataBuilder;
+    @Mock
+    private ConsumerCheckInRecorder checkInRecorder;
 
     private ModelTranslator translator;
 
@@ -275,7 +279,8 @@ public class ConsumerResourceUpdateTest {
             this.systemPurposeComplianceRules,
             this.deletedConsumerCurator,
             this.environmentCurator,
-            this.distributorVersionCurator,
+            new ReferenceDataCache(this.ownerCurator, this.consumerTypeCurator,
+                this.distributorVersionCurator, this.config),
             this.config,
             this.calculatedAttributesUtil,
             this.consumerBindUtil,
@@ -299,7 +304,8 @@ public class ConsumerResourceUpdateTest {
             this.ownerService,
             this.scaCertificateGenerator,
             this.anonymousCertificateGenerator,
-            this.cloudDataBuilder
+            this.cloudDataBuilder,
+            this.checkInRecorder
         );
 
         when(this.complianceRules.getStatus(any(Consumer.class), any(Date.class), any(Boolean.class),
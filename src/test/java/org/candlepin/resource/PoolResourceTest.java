@@ -205,7 +205,7 @@ public class PoolResourceTest extends DatabaseTestFixture {
         assertEquals(1, pools.size());
 
         verify(attrUtil, times(1))
-            .setCalculatedAttributes(argThat(x -> x.size() == 1), any(Date.class));
+            .setCalculatedAttributes(argThat(x -> x.size() == 1), any(Consumer.class), any(Date.class));
     }
 
     @Test
@@ -235,7 +235,7 @@ public class PoolResourceTest extends DatabaseTestFixture {
         assertEquals(2, pools.size());
 
         verify(attrUtil, times(1))
-            .setCalculatedAttributes(argThat(x -> x.size() == 2), any(Date.class));
+            .setCalculatedAttributes(argThat(x -> x.size() == 2), any(Consumer.class), any(Date.class));
     }
 
     @Test
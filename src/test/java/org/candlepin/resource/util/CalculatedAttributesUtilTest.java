@@ -15,13 +15,18 @@
 package org.candlepin.resource.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
 import org.candlepin.model.Consumer;
+import org.candlepin.model.Entitlement;
 import org.candlepin.model.Owner;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Pool.PoolComplianceType;
@@ -37,8 +42,10 @@ import org.mockito.MockitoAnnotations;
 import org.xnap.commons.i18n.I18n;
 import org.xnap.commons.i18n.I18nFactory;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -77,7 +84,7 @@ public class CalculatedAttributesUtilTest extends DatabaseTestFixture {
             I18nFactory.FALLBACK);
 
         consumer = createConsumer(owner1);
-        attrUtil = new CalculatedAttributesUtil(quantityRules, i18n);
+        attrUtil = new CalculatedAttributesUtil(quantityRules, entitlementCurator, i18n);
     }
 
     @Test
@@ -97,7 +104,7 @@ public class CalculatedAttributesUtilTest extends DatabaseTestFixture {
         Map<String, SuggestedQuantityDTO> suggestedMap = new HashMap<>();
         suggestedMap.put(pool1.getId(), suggested);
         when(quantityRules.getSuggestedQuantities(anyList(),
-            any(Consumer.class), any(Date.class))).thenReturn(suggestedMap);
+            any(Consumer.class), anyCollection(), any(Date.class))).thenReturn(suggestedMap);
 
         Date date = new Date();
         attrUtil.setQuantityAttributes(pool1, consumer, date);
@@ -148,11 +155,55 @@ public class CalculatedAttributesUtilTest extends DatabaseTestFixture {
         Map<String, SuggestedQuantityDTO> suggestedMap = new HashMap<>();
         suggestedMap.put(pool2.getId(), suggested);
         when(quantityRules.getSuggestedQuantities(anyList(),
-            any(Consumer.class), any(Date.class))).thenReturn(suggestedMap);
+            any(Consumer.class), anyCollection(), any(Date.class))).thenReturn(suggestedMap);
 
         Date date = new Date();
         attrUtil.setQuantityAttributes(pool2, consumer, date);
         assertEquals("1", pool2.getCalculatedAttributes().get("suggested_quantity"));
         assertEquals("12", pool2.getCalculatedAttributes().get("quantity_increment"));
     }
+
+    @Test
+    public void testSetAllCalculatedAttributes() {
+        Pool pool2 = createPool(owner1, product1, 500L,
+            TestUtil.createDate(2000, 1, 1), TestUtil.createDate(3000, 1, 1));
+        createEntitlement(owner1, consumer, pool2, null);
+        entitlementCurator.flush();
+        entitlementCurator.clear();
+
+        SuggestedQuantityDTO suggested = new SuggestedQuantityDTO();
+        suggested.setSuggested(2L);
+        suggested.setIncrement(1L);
+        Map<String, SuggestedQuantityDTO> suggestedMap = new HashMap<>();
+        suggestedMap.put(pool1.getId(), suggested);
+        suggestedMap.put(pool2.getId(), suggested);
+
+        when(quantityRules.getSuggestedQuantities(anyList(), any(Consumer.class), anyCollection(),
+            any(Date.class))).thenAnswer(invocation -> {
+                Collection<Entitlement> ents = invocation.getArgument(2);
+                assertEquals(1, ents.size());
+                assertEquals(pool2.getId(), ents.iterator().next().getPool().getId());
+                return suggestedMap;
+            });
+
+        List<Pool> pools = List.of(pool1, pool2);
+        attrUtil.setCalculatedAttributes(pools, consumer, new Date());
+
+        for (Pool pool : pools) {
+            assertEquals(PoolComplianceType.STANDARD.getDescription(),
+                pool.getCalculatedAttributes().get("compliance_type"));
+            assertEquals("2", pool.getCalculatedAttributes().get("suggested_quantity"));
+            assertEquals("1", pool.getCalculatedAttributes().get("quantity_increment"));
+        }
+    }
+
+    @Test
+    public void testSetAllCalculatedAttributesWithoutConsumer() {
+        attrUtil.setCalculatedAttributes(List.of(pool1), null, new Date());
+
+        assertTrue(pool1.getCalculatedAttributes().containsKey("compliance_type"));
+        assertFalse(pool1.getCalculatedAttributes().containsKey("suggested_quantity"));
+        verify(quantityRules, never()).getSuggestedQuantities(anyList(), any(Consumer.class),
+            anyCollection(), any(Date.class));
+    }
 }
@@ -24,6 +24,9 @@ import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.audit.EventSink;
+import org.candlepin.cache.ComplianceStatusCache;
+import org.candlepin.cache.ReferenceDataCache;
+import org.candlepin.config.TestConfig;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.dto.api.server.v1.DateRange;
@@ -32,6 +35,7 @@ import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.ConsumerInstalledProduct;
 import org.candlepin.model.ConsumerType;
 import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.DistributorVersionCurator;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.EnvironmentCurator;
@@ -44,7 +48,6 @@ import org.candlepin.model.ProductCurator;
 import org.candlepin.model.Rules;
 import org.candlepin.model.RulesCurator;
 import org.candlepin.policy.js.JsRunnerProvider;
-import org.candlepin.policy.js.JsRunnerRequestCache;
 import org.candlepin.policy.js.compliance.ComplianceRules;
 import org.candlepin.policy.js.compliance.ComplianceStatus;
 import org.candlepin.policy.js.compliance.StatusReasonMessageGenerator;
@@ -52,8 +55,6 @@ import org.candlepin.test.TestUtil;
 import org.candlepin.util.ObjectMapperFactory;
 import org.candlepin.util.Util;
 
-import com.google.inject.Provider;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -94,6 +95,8 @@ public class InstalledProductStatusCalculatorTest {
     @Mock
     private ConsumerTypeCurator consumerTypeCurator;
     @Mock
+    private DistributorVersionCurator distributorVersionCurator;
+    @Mock
     private EntitlementCurator entCurator;
     @Mock
     private EnvironmentCurator environmentCurator;
@@ -102,10 +105,6 @@ public class InstalledProductStatusCalculatorTest {
     @Mock
     private EventSink eventSink;
     @Mock
-    private Provider<JsRunnerRequestCache> cacheProvider;
-    @Mock
-    private JsRunnerRequestCache cache;
-    @Mock
     private ProductCurator productCurator;
     @Mock
     private OwnerCurator ownerCurator;
@@ -118,6 +117,9 @@ public class InstalledProductStatusCalculatorTest {
 
     @BeforeEach
     public void setUp() {
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(this.ownerCurator,
+            this.consumerTypeCurator, this.distributorVersionCurator, TestConfig.defaults());
+
         translator = new StandardTranslator(this.consumerTypeCurator,
             this.environmentCurator,
             this.ownerCurator);
@@ -129,14 +131,14 @@ public class InstalledProductStatusCalculatorTest {
 
         when(rulesCuratorMock.getUpdated()).thenReturn(new Date());
         when(rulesCuratorMock.getRules()).thenReturn(rules);
-        when(cacheProvider.get()).thenReturn(cache);
 
-        this.provider = new JsRunnerProvider(rulesCuratorMock, cacheProvider);
+        this.provider = new JsRunnerProvider(rulesCuratorMock, TestConfig.defaults());
         i18n = I18nFactory.getI18n(getClass(), "org.candlepin.i18n.Messages", locale, I18nFactory.FALLBACK);
 
         this.complianceRules = new ComplianceRules(provider.get(), this.entCurator,
-            new StatusReasonMessageGenerator(i18n), eventSink, this.consumerCurator, this.consumerTypeCurator,
-            ObjectMapperFactory.getRulesObjectMapper(), translator);
+            new StatusReasonMessageGenerator(i18n), eventSink, this.consumerCurator, referenceDataCache,
+            new ComplianceStatusCache(TestConfig.defaults()), ObjectMapperFactory.getRulesObjectMapper(),
+            translator, TestConfig.defaults());
 
         this.consumerEnricher = new ConsumerEnricher(this.complianceRules, this.productCurator);
     }
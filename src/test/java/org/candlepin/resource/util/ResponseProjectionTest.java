@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resource.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.candlepin.dto.api.server.v1.ConsumerDTOArrayElement;
+import org.candlepin.dto.api.server.v1.EntitlementDTO;
+import org.candlepin.dto.api.server.v1.PoolDTO;
+import org.candlepin.jackson.DynamicFilterData;
+import org.candlepin.util.Util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+
+public class ResponseProjectionTest {
+
+    private DynamicFilterData allowlist(String... paths) {
+        DynamicFilterData filterData = new DynamicFilterData(true);
+        for (String path : paths) {
+            filterData.includeAttribute(path);
+        }
+
+        return filterData;
+    }
+
+    @Test
+    public void testPlanRequiresFilterData() {
+        assertNull(ResponseProjections.CONSUMERS.plan(null));
+    }
+
+    @Test
+    public void testPlanRequiresAllowlistFilter() {
+        DynamicFilterData filterData = new DynamicFilterData(false);
+        filterData.excludeAttribute("facts");
+
+        assertNull(ResponseProjections.CONSUMERS.plan(filterData));
+    }
+
+    @Test
+    public void testPlanRequiresProjectableProperties() {
+        assertNull(ResponseProjections.CONSUMERS.plan(this.allowlist("uuid", "facts")));
+        assertNull(ResponseProjections.POOLS.plan(this.allowlist("id", "calculatedAttributes")));
+    }
+
+    @Test
+    public void testPlanAlwaysSelectsId() {
+        ResponseProjection<ConsumerDTOArrayElement>.Plan plan = ResponseProjections.CONSUMERS
+            .plan(this.allowlist("uuid", "Name"));
+
+        assertNotNull(plan);
+        List<String> attributes = plan.getTupleProjection().getAttributes();
+        assertEquals("id", attributes.get(0));
+        assertEquals(Set.of("id", "uuid", "name"), Set.copyOf(attributes));
+    }
+
+    @Test
+    public void testBuildPopulatesOnlyPlannedProperties() {
+        ResponseProjection<ConsumerDTOArrayElement>.Plan plan = ResponseProjections.CONSUMERS
+            .plan(this.allowlist("uuid", "href", "entitlementCount"));
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", "consumer_id");
+        row.put("uuid", "consumer_uuid");
+        row.put("entitlementCount", null);
+
+        ConsumerDTOArrayElement dto = plan.build(row);
+
+        assertEquals("consumer_uuid", dto.getUuid());
+        assertEquals("/consumers/consumer_uuid", dto.getHref());
+        assertEquals(0L, dto.getEntitlementCount());
+        assertNull(dto.getId());
+        assertNull(dto.getName());
+    }
+
+    @Test
+    public void testBuildPoolFromNestedAttributes() {
+        ResponseProjection<PoolDTO>.Plan plan = ResponseProjections.POOLS
+            .plan(this.allowlist("id", "productId", "consumed"));
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", "pool_id");
+        row.put("product.id", "product_id");
+        row.put("consumed", 3L);
+
+        PoolDTO dto = plan.build(row);
+
+        assertEquals("pool_id", dto.getId());
+        assertEquals("product_id", dto.getProductId());
+        assertEquals(3L, dto.getConsumed());
+    }
+
+    @Test
+    public void testBuildEntitlementEndDatePrefersOverride() {
+        ResponseProjection<EntitlementDTO>.Plan plan = ResponseProjections.ENTITLEMENTS
+            .plan(this.allowlist("endDate"));
+
+        Date override = new Date(1000000L);
+        Date poolEndDate = new Date(2000000L);
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("endDateOverride", override);
+        row.put("pool.endDate", poolEndDate);
+        assertEquals(Util.toDateTime(override), plan.build(row).getEndDate());
+
+        row.put("endDateOverride", null);
+        assertEquals(Util.toDateTime(poolEndDate), plan.build(row).getEndDate());
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.exceptions.ForbiddenException;
+import org.candlepin.servlet.filter.logging.TeeHttpServletRequest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.ContainerRequestContext;
+
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AbstractAuthorizationFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private ContainerRequestContext requestContext;
+    @Mock
+    private Appender<ILoggingEvent> mockapp;
+
+    private Logger filterLogger;
+    private ByteArrayInputStream body;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
+        this.filterLogger = lc.getLogger(AbstractAuthorizationFilter.class);
+        this.filterLogger.addAppender(this.mockapp);
+        this.filterLogger.setLevel(Level.DEBUG);
+
+        this.body = new ByteArrayInputStream("this is my body".getBytes());
+        when(this.request.getMethod()).thenReturn("POST");
+        when(this.request.getRequestURI()).thenReturn("/candlepin/owners");
+        when(this.request.getContentType()).thenReturn("text/plain");
+        when(this.request.getHeaderNames()).thenReturn(Collections.emptyEnumeration());
+        when(this.request.getInputStream()).thenReturn(new ServletInputStream() {
+            @Override
+            public int read() throws IOException {
+                return body.read();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+
+            @Override
+            public boolean isReady() {
+                return body.available() > 0;
+            }
+
+            @Override
+            public boolean isFinished() {
+                return body.available() < 1;
+            }
+        });
+
+        ResteasyContext.pushContext(HttpServletRequest.class, new TeeHttpServletRequest(this.request));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.filterLogger.detachAppender(this.mockapp);
+        ResteasyContext.clearContextData();
+    }
+
+    private AbstractAuthorizationFilter buildFilter(boolean authorized) {
+        return new AbstractAuthorizationFilter() {
+            @Override
+            void runFilter(ContainerRequestContext requestContext) {
+                if (!authorized) {
+                    throw new ForbiddenException("Insufficient permissions");
+                }
+            }
+        };
+    }
+
+    private List<String> getLoggedMessages() {
+        ArgumentCaptor<LoggingEvent> message = ArgumentCaptor.forClass(LoggingEvent.class);
+        verify(this.mockapp, atLeastOnce()).doAppend(message.capture());
+
+        return message.getAllValues().stream()
+            .map(LoggingEvent::getFormattedMessage)
+            .toList();
+    }
+
+    @Test
+    public void testRefusedRequestBodyIsLogged() {
+        AbstractAuthorizationFilter filter = this.buildFilter(false);
+
+        assertThrows(ForbiddenException.class, () -> filter.filter(this.requestContext));
+
+        List<String> logged = this.getLoggedMessages();
+        assertEquals(3, logged.size());
+        assertTrue(logged.get(2).startsWith("Request body: POST /candlepin/owners"));
+        assertTrue(logged.get(2).endsWith("this is my body"));
+    }
+
+    @Test
+    public void testAuthorizedRequestBodyIsLeftForResource() throws IOException {
+        AbstractAuthorizationFilter filter = this.buildFilter(true);
+
+        filter.filter(this.requestContext);
+
+        List<String> logged = this.getLoggedMessages();
+        assertEquals(2, logged.size());
+        assertTrue(logged.get(1).startsWith("Request: POST /candlepin/owners"));
+        verify(this.request, never()).getInputStream();
+    }
+
+}
@@ -25,6 +25,7 @@ import static org.mockito.Mockito.when;
 import org.candlepin.auth.ConsumerPrincipal;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.UpdateConsumerCheckIn;
+import org.candlepin.controller.ConsumerCheckInRecorder;
 import org.candlepin.controller.ConsumerManager;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCloudData;
@@ -105,7 +106,8 @@ public class ConsumerCheckInFilterTest extends DatabaseTestFixture {
         AnnotationLocator annotationLocator = new AnnotationLocator(methodLocator);
 
         ConsumerManager consumerManager = new ConsumerManager(consumerCurator, caCertificateCurator,
-            envCurator, mockEventAdapter, ObjectMapperFactory.getObjectMapper());
+            envCurator, mockEventAdapter, ObjectMapperFactory.getObjectMapper(),
+            injector.getInstance(ConsumerCheckInRecorder.class));
         interceptor = new ConsumerCheckInFilter(annotationLocator, consumerManager);
     }
 
@@ -15,6 +15,7 @@
 package org.candlepin.resteasy.filter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.times;
@@ -410,4 +411,62 @@ public class LinkHeaderResponseFilterTest {
         // Make sure that the page variable is only contained 4 times (once for each URI)
         assertEquals(4, StringUtils.countMatches(header, "&page="));
     }
+
+    @Test
+    public void testPostProcessWithKeysetPaging() throws Exception {
+        Page<Object> keysetPage = new Page<>()
+            .setPageRequest(new PageRequest()
+                .setKeyset(true)
+                .setPage(1)
+                .setPerPage(10))
+            .setKeyset(true)
+            .setNextPageToken("next-token");
+
+        MultivaluedMap<String, Object> map = new MultivaluedMapImpl<>();
+        ResteasyContext.pushContext(Page.class, keysetPage);
+
+        mockReq = MockHttpRequest.create("GET",
+            new URI("/candlepin/resource?order=asc&per_page=10&page_token=prev-token"),
+            new URI("https://example.com"));
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+        when(mockResponseContext.getHeaders()).thenReturn(map);
+
+        LinkHeaderResponseFilter interceptor = new LinkHeaderResponseFilter(config, apiUrlPrefixKey);
+        interceptor.filter(mockRequestContext, mockResponseContext);
+
+        String header = (String) map.getFirst(LinkHeaderResponseFilter.LINK_HEADER);
+        assertTrue(header.contains("rel=\"next\""));
+        assertTrue(header.contains("rel=\"first\""));
+        assertFalse(header.contains("rel=\"last\""));
+        assertFalse(header.contains("rel=\"prev\""));
+        assertTrue(header.contains("page_token=next-token"));
+        assertFalse(header.contains("prev-token"));
+        assertNull(map.getFirst("X-total-count"));
+    }
+
+    @Test
+    public void testPostProcessWithLastKeysetPage() throws Exception {
+        Page<Object> keysetPage = new Page<>()
+            .setPageRequest(new PageRequest()
+                .setKeyset(true)
+                .setPage(1)
+                .setPerPage(10))
+            .setKeyset(true);
+
+        MultivaluedMap<String, Object> map = new MultivaluedMapImpl<>();
+        ResteasyContext.pushContext(Page.class, keysetPage);
+
+        mockReq = MockHttpRequest.create("GET",
+            new URI("/candlepin/resource?per_page=10&page_token=prev-token"),
+            new URI("https://example.com"));
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+        when(mockResponseContext.getHeaders()).thenReturn(map);
+
+        LinkHeaderResponseFilter interceptor = new LinkHeaderResponseFilter(config, apiUrlPrefixKey);
+        interceptor.filter(mockRequestContext, mockResponseContext);
+
+        String header = (String) map.getFirst(LinkHeaderResponseFilter.LINK_HEADER);
+        assertFalse(header.contains("rel=\"next\""));
+        assertTrue(header.contains("rel=\"first\""));
+    }
 }
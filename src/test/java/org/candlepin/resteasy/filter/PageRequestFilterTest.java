@@ -29,6 +29,7 @@ import org.candlepin.config.TestConfig;
 import org.candlepin.exceptions.BadRequestException;
 import org.candlepin.guice.I18nProvider;
 import org.candlepin.paging.PageRequest;
+import org.candlepin.paging.PageToken;
 
 import org.jboss.resteasy.core.ResteasyContext;
 import org.jboss.resteasy.mock.MockHttpRequest;
@@ -41,6 +42,7 @@ import org.mockito.quality.Strictness;
 import org.xnap.commons.i18n.I18n;
 
 import java.net.URISyntaxException;
+import java.util.Date;
 
 import javax.inject.Provider;
 import javax.servlet.http.HttpServletRequest;
@@ -230,4 +232,76 @@ public class PageRequestFilterTest {
         assertEquals(maxPageSize, pageRequest.getPerPage());
     }
 
+    @Test
+    public void testEmptyPageTokenRequestsFirstKeysetPage() throws Exception {
+        ContainerRequestContext mockRequestContext = this.mockRequestContext("GET",
+            "http://localhost/candlepin/status?page_token=&per_page=10");
+
+        PageRequestFilter interceptor = this.buildPageRequestFilter();
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyContext.getContextData(PageRequest.class);
+        assertTrue(p.isKeyset());
+        assertTrue(p.isPaging());
+        assertNull(p.getPageToken());
+        assertEquals(10, p.getPerPage());
+        assertEquals(PageRequest.DEFAULT_PAGE, p.getPage());
+        assertEquals(PageRequest.DEFAULT_ORDER, p.getOrder());
+    }
+
+    @Test
+    public void testPageTokenIsDecoded() throws Exception {
+        PageToken token = new PageToken("updated", PageRequest.Order.ASCENDING, new Date(1234567L), "key-1");
+
+        ContainerRequestContext mockRequestContext = this.mockRequestContext("GET",
+            "http://localhost/candlepin/status?sort_by=updated&order=asc&page_token=" + token.encode());
+
+        PageRequestFilter interceptor = this.buildPageRequestFilter();
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyContext.getContextData(PageRequest.class);
+        assertTrue(p.isKeyset());
+        assertEquals(token, p.getPageToken());
+        assertEquals("updated", p.getSortBy());
+        assertEquals(PageRequest.Order.ASCENDING, p.getOrder());
+    }
+
+    @Test
+    public void testPageTokenRejectsMismatchedOrdering() throws Exception {
+        PageToken token = new PageToken("updated", PageRequest.Order.ASCENDING, new Date(1234567L), "key-1");
+
+        ContainerRequestContext mockRequestContext = this.mockRequestContext("GET",
+            "http://localhost/candlepin/status?sort_by=created&order=asc&page_token=" + token.encode());
+
+        PageRequestFilter interceptor = this.buildPageRequestFilter();
+        assertThrows(BadRequestException.class, () -> interceptor.filter(mockRequestContext));
+    }
+
+    @Test
+    public void testPageTokenRejectsMalformedToken() throws Exception {
+        ContainerRequestContext mockRequestContext = this.mockRequestContext("GET",
+            "http://localhost/candlepin/status?page_token=bad_token");
+
+        PageRequestFilter interceptor = this.buildPageRequestFilter();
+        assertThrows(BadRequestException.class, () -> interceptor.filter(mockRequestContext));
+    }
+
+    @Test
+    public void testPageTokenRejectsPageNumber() throws Exception {
+        ContainerRequestContext mockRequestContext = this.mockRequestContext("GET",
+            "http://localhost/candlepin/status?page=2&page_token=");
+
+        PageRequestFilter interceptor = this.buildPageRequestFilter();
+        assertThrows(BadRequestException.class, () -> interceptor.filter(mockRequestContext));
+    }
+
+    @Test
+    public void testPageTokenRejectsUnsupportedSortField() throws Exception {
+        ContainerRequestContext mockRequestContext = this.mockRequestContext("GET",
+            "http://localhost/candlepin/status?sort_by=name&page_token=");
+
+        PageRequestFilter interceptor = this.buildPageRequestFilter();
+        assertThrows(BadRequestException.class, () -> interceptor.filter(mockRequestContext));
+    }
+
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.exceptions.ServiceUnavailableException;
+import org.candlepin.resource.OwnerResource;
+import org.candlepin.resource.StatusResource;
+import org.candlepin.servlet.filter.RequestDispatchMetrics;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+import javax.servlet.ServletRequest;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ResourceInfo;
+
+
+
+public class ResourceConcurrencyFilterTest {
+
+    private DevConfig config;
+    private I18n i18n;
+    private RequestDispatchMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.REQUEST_MAX_CONCURRENCY_PER_RESOURCE, "2");
+        this.config.setProperty(ConfigProperties.REQUEST_CONCURRENCY_WAIT_TIMEOUT, "0");
+
+        this.i18n = I18nFactory.getI18n(this.getClass(), Locale.US, I18nFactory.FALLBACK);
+        this.metrics = new RequestDispatchMetrics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ResteasyContext.clearContextData();
+    }
+
+    private ResourceConcurrencyFilter buildFilter() {
+        return new ResourceConcurrencyFilter(() -> this.i18n, this.metrics, this.config);
+    }
+
+    private void setResource(Class<?> resource) {
+        ResourceInfo resourceInfo = mock(ResourceInfo.class);
+        doReturn(resource).when(resourceInfo).getResourceClass();
+
+        ResteasyContext.pushContext(ResourceInfo.class, resourceInfo);
+    }
+
+    private Semaphore filterAndCapturePermit(ResourceConcurrencyFilter filter) {
+        ContainerRequestContext context = mock(ContainerRequestContext.class);
+        filter.filter(context);
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(context).setProperty(eq(ResourceConcurrencyFilter.PERMIT_PROPERTY), captor.capture());
+
+        return (Semaphore) captor.getValue();
+    }
+
+    @Test
+    public void testRequestsAreRejectedOnceTheLimitIsReached() {
+        ResourceConcurrencyFilter filter = this.buildFilter();
+        this.setResource(OwnerResource.class);
+
+        Semaphore permit = this.filterAndCapturePermit(filter);
+        this.filterAndCapturePermit(filter);
+
+        ContainerRequestContext context = mock(ContainerRequestContext.class);
+        assertThrows(ServiceUnavailableException.class, () -> filter.filter(context));
+        verify(context, never()).setProperty(any(), any());
+
+        assertEquals(0, permit.availablePermits());
+        assertEquals(1, this.metrics.getConcurrencyLimitWaits());
+        assertEquals(1, this.metrics.getConcurrencyLimitRejections());
+    }
+
+    @Test
+    public void testLimitIsAppliedPerResourceClass() {
+        ResourceConcurrencyFilter filter = this.buildFilter();
+
+        this.setResource(OwnerResource.class);
+        Semaphore ownerPermit = this.filterAndCapturePermit(filter);
+        this.filterAndCapturePermit(filter);
+
+        this.setResource(StatusResource.class);
+        Semaphore statusPermit = this.filterAndCapturePermit(filter);
+
+        assertEquals(0, ownerPermit.availablePermits());
+        assertEquals(1, statusPermit.availablePermits());
+    }
+
+    @Test
+    public void testReleasedPermitsAdmitWaitingRequests() {
+        ResourceConcurrencyFilter filter = this.buildFilter();
+        this.setResource(OwnerResource.class);
+
+        Semaphore permit = this.filterAndCapturePermit(filter);
+        this.filterAndCapturePermit(filter);
+
+        ServletRequest request = mock(ServletRequest.class);
+        doReturn(permit).when(request).getAttribute(ResourceConcurrencyFilter.PERMIT_PROPERTY);
+
+        ResourceConcurrencyFilter.releasePermit(request);
+        verify(request).removeAttribute(ResourceConcurrencyFilter.PERMIT_PROPERTY);
+
+        this.filterAndCapturePermit(filter);
+        assertEquals(0, this.metrics.getConcurrencyLimitRejections());
+    }
+
+    @Test
+    public void testReleasingWithoutPermitHasNoEffect() {
+        ServletRequest request = mock(ServletRequest.class);
+
+        ResourceConcurrencyFilter.releasePermit(request);
+        verify(request, never()).removeAttribute(any());
+    }
+
+    @Test
+    public void testUnlimitedConcurrencyDoesNotAcquirePermits() {
+        this.config.setProperty(ConfigProperties.REQUEST_MAX_CONCURRENCY_PER_RESOURCE, "0");
+        ResourceConcurrencyFilter filter = this.buildFilter();
+        this.setResource(OwnerResource.class);
+
+        ContainerRequestContext context = mock(ContainerRequestContext.class);
+        filter.filter(context);
+
+        verify(context, never()).setProperty(any(), any());
+    }
+}
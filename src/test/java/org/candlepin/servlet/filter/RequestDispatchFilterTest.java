@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.servlet.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.resteasy.filter.ResourceConcurrencyFilter;
+
+import com.google.inject.servlet.ServletScopes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+
+
+public class RequestDispatchFilterTest {
+
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private FilterChain chain;
+    private RequestDispatchMetrics metrics;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        this.request = mock(HttpServletRequest.class);
+        this.response = mock(HttpServletResponse.class);
+        this.chain = mock(FilterChain.class);
+        this.metrics = new RequestDispatchMetrics();
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    private AsyncContext mockAsyncContext() {
+        AsyncContext context = mock(AsyncContext.class);
+        doReturn(this.response).when(context).getResponse();
+
+        doReturn(true).when(this.request).isAsyncSupported();
+        doReturn(context).when(this.request).startAsync(this.request, this.response);
+
+        return context;
+    }
+
+    private void dispatch(RequestDispatchFilter filter) throws Exception {
+        // The filter transfers the request scope to the processing thread, which requires a scope
+        // to be present on the calling thread
+        ServletScopes.scopeRequest(() -> {
+            filter.doFilter(this.request, this.response, this.chain);
+            return null;
+        }, Map.of()).call();
+
+        this.executor.shutdown();
+        assertTrue(this.executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRequestsAreProcessedInlineWithoutExecutor() throws Exception {
+        RequestDispatchFilter filter = new RequestDispatchFilter(this.metrics, null);
+        doReturn(true).when(this.request).isAsyncSupported();
+
+        filter.doFilter(this.request, this.response, this.chain);
+
+        verify(this.chain).doFilter(this.request, this.response);
+        verify(this.request, never()).startAsync(this.request, this.response);
+        assertFalse(filter.isDispatchingToVirtualThreads());
+        assertEquals(1, this.metrics.getPlatformThreadRequests());
+        assertEquals(0, this.metrics.getVirtualThreadRequests());
+    }
+
+    @Test
+    public void testRequestsAreProcessedInlineWhenAsyncIsUnsupported() throws Exception {
+        RequestDispatchFilter filter = new RequestDispatchFilter(this.metrics, this.executor);
+        doReturn(false).when(this.request).isAsyncSupported();
+
+        filter.doFilter(this.request, this.response, this.chain);
+
+        verify(this.chain).doFilter(this.request, this.response);
+        verify(this.request, never()).startAsync(this.request, this.response);
+        assertEquals(1, this.metrics.getPlatformThreadRequests());
+    }
+
+    @Test
+    public void testRequestsAreDispatchedToExecutor() throws Exception {
+        RequestDispatchFilter filter = new RequestDispatchFilter(this.metrics, this.executor);
+        AsyncContext context = this.mockAsyncContext();
+
+        this.dispatch(filter);
+
+        verify(context).setTimeout(0);
+        verify(this.chain).doFilter(this.request, this.response);
+        verify(context).complete();
+        assertTrue(filter.isDispatchingToVirtualThreads());
+        assertEquals(0, this.metrics.getPlatformThreadRequests());
+        assertEquals(1, this.metrics.getVirtualThreadRequests());
+        assertEquals(0, this.metrics.getVirtualThreadActiveRequests());
+    }
+
+    @Test
+    public void testDispatchedRequestFailureProducesErrorResponse() throws Exception {
+        RequestDispatchFilter filter = new RequestDispatchFilter(this.metrics, this.executor);
+        AsyncContext context = this.mockAsyncContext();
+        doThrow(new ServletException("kaboom")).when(this.chain).doFilter(this.request, this.response);
+
+        this.dispatch(filter);
+
+        verify(this.response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        verify(context).complete();
+        assertEquals(1, this.metrics.getVirtualThreadRequests());
+    }
+
+    @Test
+    public void testConcurrencyPermitIsReleasedAfterProcessing() throws Exception {
+        RequestDispatchFilter filter = new RequestDispatchFilter(this.metrics, null);
+        Semaphore permit = new Semaphore(0);
+        doReturn(permit).when(this.request).getAttribute(ResourceConcurrencyFilter.PERMIT_PROPERTY);
+        doThrow(new ServletException("kaboom")).when(this.chain).doFilter(this.request, this.response);
+
+        assertThrows(ServletException.class, () -> filter.doFilter(this.request, this.response, this.chain));
+
+        assertEquals(1, permit.availablePermits());
+        assertEquals(1, this.metrics.getPlatformThreadRequests());
+    }
+
+    @Test
+    public void testVirtualThreadExecutorRequiresRuntimeSupport() {
+        ExecutorService executor = RequestDispatchFilter.createVirtualThreadExecutor();
+
+        if (Runtime.version().feature() >= 21) {
+            assertNotNull(executor);
+            executor.shutdown();
+        }
+        else {
+            assertNull(executor);
+        }
+    }
+}
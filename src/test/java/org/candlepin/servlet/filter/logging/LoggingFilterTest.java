@@ -15,13 +15,23 @@
 package org.candlepin.servlet.filter.logging;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.ConfigurationPrefixes;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
@@ -32,6 +42,8 @@ import ch.qos.logback.core.Appender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -40,11 +52,14 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
 
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -58,6 +73,8 @@ public class LoggingFilterTest {
     @Mock private HttpServletResponse response;
     @Mock private FilterChain chain;
 
+    private DevConfig config;
+    private RequestBodyMetrics metrics;
     private LoggingFilter filter;
     private Logger filterlogger;
 
@@ -69,7 +86,9 @@ public class LoggingFilterTest {
 
     @BeforeEach
     public void setUp() {
-        filter = new LoggingFilter();
+        config = TestConfig.defaults();
+        metrics = new RequestBodyMetrics();
+        filter = new LoggingFilter(config, metrics);
 
         // prepare logger
         LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -154,6 +173,7 @@ public class LoggingFilterTest {
             }
         });
 
+        this.readBodyInChain();
         ArgumentCaptor<LoggingEvent> message = ArgumentCaptor.forClass(LoggingEvent.class);
 
         // DO FILTER!
@@ -162,4 +182,149 @@ public class LoggingFilterTest {
         // VERIFY
         verify(mockapp, atLeastOnce()).doAppend(message.capture());
     }
+
+    private ServletInputStream mockInputStream(String body) {
+        final ByteArrayInputStream bais = new ByteArrayInputStream(body.getBytes());
+
+        return new ServletInputStream() {
+            @Override
+            public int read() throws IOException {
+                return bais.read();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+
+            @Override
+            public boolean isReady() {
+                return bais.available() > 0;
+            }
+
+            @Override
+            public boolean isFinished() {
+                return bais.available() < 1;
+            }
+        };
+    }
+
+    private void readBodyInChain() throws Exception {
+        doAnswer(invocation -> {
+            ServletRequest req = invocation.getArgument(0);
+            req.getInputStream().readAllBytes();
+            return null;
+        }).when(chain).doFilter(any(), any());
+    }
+
+    @Test
+    public void testUnsampledRequestBodyIsNotCaptured() throws Exception {
+        config.setProperty(ConfigProperties.REQUEST_LOGGING_BODY_SAMPLE_PERCENT, "0");
+        filter = new LoggingFilter(config, metrics);
+
+        when(request.getRequestURI()).thenReturn("/candlepin/owners/admin/pools");
+        when(request.getContextPath()).thenReturn("/candlepin");
+        when(request.getContentLengthLong()).thenReturn(15L);
+
+        filter.doFilter(request, response, chain);
+
+        verify(request, never()).getInputStream();
+        verify(chain).doFilter(eq(request), any());
+        assertEquals(1, metrics.getUnsampledRequests());
+        assertEquals(Map.of("owners", 15L), metrics.getRequestBodyBytes());
+    }
+
+    @Test
+    public void testEndpointSamplePercentOverridesDefault() throws Exception {
+        config.setProperty(ConfigProperties.REQUEST_LOGGING_BODY_SAMPLE_PERCENT, "0");
+        config.setProperty(ConfigurationPrefixes.REQUEST_LOGGING_BODY_SAMPLE_PERCENT_PREFIX + "owners",
+            "100");
+        filter = new LoggingFilter(config, metrics);
+
+        when(request.getRequestURI()).thenReturn("/candlepin/owners/admin/pools");
+        when(request.getContextPath()).thenReturn("/candlepin");
+        when(request.getInputStream()).thenReturn(this.mockInputStream("this is my body"));
+        this.readBodyInChain();
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(any(TeeHttpServletRequest.class), any());
+        assertEquals(1, metrics.getSampledRequests());
+        assertEquals(Map.of("owners", 15L), metrics.getRequestBodyBytes());
+    }
+
+    @Test
+    public void testBodiesLargerThanMaxSizeAreTruncated() throws Exception {
+        config.setProperty(ConfigProperties.REQUEST_LOGGING_MAX_BODY_SIZE, "4");
+        filter = new LoggingFilter(config, metrics);
+
+        when(request.getInputStream()).thenReturn(this.mockInputStream("this is my body"));
+        when(request.getContentType()).thenReturn("text/plain");
+        this.readBodyInChain();
+
+        ArgumentCaptor<LoggingEvent> message = ArgumentCaptor.forClass(LoggingEvent.class);
+        filter.doFilter(request, response, chain);
+
+        verify(mockapp, atLeastOnce()).doAppend(message.capture());
+        String logged = message.getAllValues().get(1).getFormattedMessage();
+        assertTrue(logged.startsWith("Request body: "));
+        assertTrue(logged.endsWith("this" + String.format(ServletLogger.TRUNCATION_MARKER, 15)));
+        assertEquals(1, metrics.getTruncatedBodies());
+    }
+
+    @Test
+    public void testRequestIsLoggedBeforeProcessingAndBodyWithResponse() throws Exception {
+        Logger resourceLogger = ((LoggerContext) LoggerFactory.getILoggerFactory())
+            .getLogger(LoggingFilterTest.class);
+        resourceLogger.addAppender(mockapp);
+        resourceLogger.setLevel(Level.DEBUG);
+
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getRequestURI()).thenReturn("/candlepin/owners");
+        when(request.getContentType()).thenReturn("text/plain");
+        when(request.getInputStream()).thenReturn(this.mockInputStream("this is my body"));
+
+        doAnswer(invocation -> {
+            ServletRequest req = invocation.getArgument(0);
+            req.getInputStream().readAllBytes();
+            resourceLogger.debug("processing request");
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        ArgumentCaptor<LoggingEvent> message = ArgumentCaptor.forClass(LoggingEvent.class);
+        try {
+            filter.doFilter(request, response, chain);
+        }
+        finally {
+            resourceLogger.detachAppender(mockapp);
+        }
+
+        verify(mockapp, times(4)).doAppend(message.capture());
+        List<String> logged = message.getAllValues().stream()
+            .map(LoggingEvent::getFormattedMessage)
+            .toList();
+
+        assertTrue(logged.get(0).startsWith("Request: POST /candlepin/owners"));
+        assertEquals("processing request", logged.get(1));
+        assertTrue(logged.get(2).startsWith("Request body: POST /candlepin/owners"));
+        assertTrue(logged.get(2).endsWith("this is my body"));
+        assertTrue(logged.get(3).startsWith("Response: "));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "/candlepin/owners/admin/pools, /candlepin, owners",
+        "/candlepin/status, /candlepin, status",
+        "/candlepin/, /candlepin, /",
+        "/pools/1234, '', pools"
+    })
+    public void testBodySizesAreTrackedByEndpoint(String uri, String contextPath, String expected)
+        throws Exception {
+
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getContextPath()).thenReturn(contextPath);
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(Map.of(expected, 1L), metrics.getRequestCounts());
+    }
 }
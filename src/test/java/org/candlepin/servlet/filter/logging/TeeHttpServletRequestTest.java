@@ -16,6 +16,9 @@ package org.candlepin.servlet.filter.logging;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.util.Util;
@@ -85,13 +88,13 @@ public class TeeHttpServletRequestTest {
         TeeHttpServletRequest tee = new TeeHttpServletRequest(request);
         assertNotNull(tee);
         assertNotNull(tee.getInputStream());
-        assertEquals("this is my body", readData(tee.getInputStream()));
         assertEquals("this is my body", readData(tee.getReader()));
     }
 
     @Test
     public void getBodyTest() throws IOException {
         TeeHttpServletRequest tee = new TeeHttpServletRequest(request);
+        assertEquals("this is my body", readData(tee.getInputStream()));
 
         // Map content types to whether they should be logged as text or base64 encoded
         Map<String, Boolean> types = new HashMap<>();
@@ -116,6 +119,66 @@ public class TeeHttpServletRequestTest {
         }
     }
 
+    @Test
+    public void testBodyLargerThanMaxSizeIsTruncated() throws IOException {
+        when(request.getContentType()).thenReturn(MediaType.TEXT_PLAIN);
+        TeeHttpServletRequest tee = new TeeHttpServletRequest(request, 4);
+
+        // The body itself must remain intact
+        assertEquals("this is my body", readData(tee.getInputStream()));
+
+        assertEquals(15, tee.getBodySize());
+        assertEquals("this" + String.format(ServletLogger.TRUNCATION_MARKER, 15), tee.getBody());
+    }
+
+    @Test
+    public void testBodyIsCapturedAsItIsRead() throws IOException {
+        when(request.getContentType()).thenReturn(MediaType.TEXT_PLAIN);
+        TeeHttpServletRequest tee = new TeeHttpServletRequest(request, 1024);
+
+        InputStream input = tee.getInputStream();
+        assertEquals("", tee.getBody());
+
+        byte[] buffer = new byte[4];
+        assertEquals(4, input.read(buffer, 0, buffer.length));
+        assertEquals("this", tee.getBody());
+
+        assertEquals(" is my body", readData(input));
+        assertEquals("this is my body", tee.getBody());
+        assertEquals(15, tee.getBodySize());
+    }
+
+    @Test
+    public void testCaptureUnreadBodyReadsUpToMaxSize() throws IOException {
+        when(request.getContentType()).thenReturn(MediaType.TEXT_PLAIN);
+        when(request.getContentLengthLong()).thenReturn(15L);
+        TeeHttpServletRequest tee = new TeeHttpServletRequest(request, 4);
+
+        tee.captureUnreadBody();
+        assertEquals("this" + String.format(ServletLogger.TRUNCATION_MARKER, 15), tee.getBody());
+
+        // Anything beyond the maximum body size is left unread
+        assertEquals(" is my body", readData(tee.getInputStream()));
+    }
+
+    @Test
+    public void testGetInputStreamReturnsSameStream() throws IOException {
+        TeeHttpServletRequest tee = new TeeHttpServletRequest(request);
+
+        assertSame(tee.getInputStream(), tee.getInputStream());
+        verify(request, times(1)).getInputStream();
+    }
+
+    @Test
+    public void testUnreadBodySizeUsesContentLength() throws IOException {
+        when(request.getContentLengthLong()).thenReturn(2048L);
+
+        TeeHttpServletRequest tee = new TeeHttpServletRequest(request);
+        assertEquals(4, tee.getInputStream().read(new byte[4], 0, 4));
+
+        assertEquals(2048, tee.getBodySize());
+    }
+
     private String readData(InputStream is) throws IOException {
         return readData(new InputStreamReader(is));
     }
@@ -15,6 +15,7 @@
 package org.candlepin.servlet.filter.logging;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.util.Util;
@@ -92,4 +93,26 @@ public class TeeHttpServletResponseTest {
             }
         }
     }
+
+    @Test
+    public void testBodyLargerThanMaxSizeIsTruncated() throws IOException {
+        when(resp.getContentType()).thenReturn(MediaType.TEXT_PLAIN);
+
+        TeeHttpServletResponse tee = new TeeHttpServletResponse(resp, 4);
+        tee.getOutputStream().write("this is ".getBytes());
+        tee.getOutputStream().write("my body".getBytes());
+
+        assertEquals(15, tee.getBodySize());
+        assertEquals("this" + String.format(ServletLogger.TRUNCATION_MARKER, 15), tee.getBody());
+    }
+
+    @Test
+    public void testBodyIsNotCapturedWithZeroMaxSize() throws IOException {
+        TeeHttpServletResponse tee = new TeeHttpServletResponse(resp, 0);
+        tee.getOutputStream().write("this is my body".getBytes());
+
+        assertFalse(tee.isCapturingBody());
+        assertEquals(15, tee.getBodySize());
+        assertEquals(0, tee.getOutputBuffer().length);
+    }
 }
@@ -14,12 +14,15 @@
  */
 package org.candlepin.sync;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -75,17 +78,19 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -175,6 +180,14 @@ public class ExporterTest {
             .setPrivateKeyData(privKeyBytes);
     }
 
+    private Signer.Signing mockSignature(byte[] signature) {
+        Signer.Signing signing = mock(Signer.Signing.class);
+        when(signing.sign()).thenReturn(signature);
+        when(this.signer.beginSigning()).thenReturn(signing);
+
+        return signing;
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void exportProducts() throws Exception {
@@ -224,7 +237,7 @@ public class ExporterTest {
 
         when(ent.getPool()).thenReturn(pool);
         when(mrules.getRules()).thenReturn("foobar");
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(consumer.getEntitlements()).thenReturn(entitlements);
         when(pprov.get()).thenReturn(principal);
@@ -282,8 +295,7 @@ public class ExporterTest {
         List<Entitlement> entitlements = new ArrayList<>();
         entitlements.add(ent);
 
-        when(this.signer.sign(any(InputStream.class))).thenReturn(
-            "signature".getBytes());
+        this.mockSignature("signature".getBytes());
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
 
@@ -319,7 +331,7 @@ public class ExporterTest {
         IdentityCertificate idcert = new IdentityCertificate();
 
         when(mrules.getRules()).thenReturn("foobar");
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
@@ -356,6 +368,72 @@ public class ExporterTest {
         assertTrue(new File("/tmp/meta.json").delete());
     }
 
+    @Test
+    public void writeFullExportSignsConsumerExport() throws Exception {
+        Rules mrules = mock(Rules.class);
+        Consumer consumer = mock(Consumer.class);
+        Principal principal = mock(Principal.class);
+        IdentityCertificate idcert = new IdentityCertificate();
+
+        ByteArrayOutputStream signed = new ByteArrayOutputStream();
+        Signer.Signing signing = this.mockSignature("signature".getBytes());
+        doAnswer(invocation -> {
+            signed.write((byte[]) invocation.getArgument(0), invocation.getArgument(1),
+                invocation.getArgument(2));
+            return null;
+        }).when(signing).update(any(byte[].class), anyInt(), anyInt());
+
+        when(mrules.getRules()).thenReturn("foobar");
+        when(rc.getRules()).thenReturn(mrules);
+        when(pprov.get()).thenReturn(principal);
+        when(principal.getUsername()).thenReturn("testUser");
+
+        idcert.setSerial(new CertificateSerial(10L, new Date()));
+        idcert.setKey("euh0876puhapodifbvj094");
+        idcert.setCert("hpj-08ha-w4gpoknpon*)&^%#");
+        idcert.setCreated(new Date());
+        idcert.setUpdated(new Date());
+        when(consumer.getIdCert()).thenReturn(idcert);
+        when(consumer.getUuid()).thenReturn("consumer_uuid");
+
+        when(ctc.listAll()).thenReturn(List.of(new ConsumerType("system")));
+        when(cdnc.listAll()).thenReturn(new LinkedList<>());
+        ObjectMapper mapper = ObjectMapperFactory.getSyncObjectMapper(config);
+
+        Exporter e = new Exporter(ctc, me, ce, cte, re, ecsa, pe,
+            ec, ee, signer, config, exportRules, pprov, dvc, dve, cdnc, cdne, su, mapper,
+            translator, scaCertificateGenerator);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        e.writeFullExport(consumer, null, null, null, output);
+
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                entries.put(entry.getName(), zis.readAllBytes());
+            }
+        }
+
+        assertEquals(Set.of("consumer_export.zip", "signature"), entries.keySet());
+        assertArrayEquals("signature".getBytes(), entries.get("signature"));
+        assertArrayEquals(signed.toByteArray(), entries.get("consumer_export.zip"));
+
+        Set<String> exported = new HashSet<>();
+        try (ZipInputStream zis = new ZipInputStream(
+            new ByteArrayInputStream(entries.get("consumer_export.zip")))) {
+
+            for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                exported.add(entry.getName());
+            }
+        }
+
+        assertTrue(exported.contains("export/meta.json"));
+        assertTrue(exported.contains("export/consumer_types/system.json"));
+        assertTrue(exported.contains("export/rules2/rules.js"));
+        assertTrue(exported.contains("export/upstream_consumer/10.json"));
+        assertEquals("consumer_uuid-export.zip", e.getExportFileName(consumer));
+    }
+
     @Test
     public void exportIdentityCertificate() throws Exception {
         config.setProperty(ConfigProperties.SYNC_WORK_DIR, "/tmp/");
@@ -364,7 +442,7 @@ public class ExporterTest {
         Principal principal = mock(Principal.class);
 
         when(mrules.getRules()).thenReturn("foobar");
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
@@ -408,7 +486,7 @@ public class ExporterTest {
         Principal principal = mock(Principal.class);
 
         when(mrules.getRules()).thenReturn("foobar");
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
@@ -459,7 +537,7 @@ public class ExporterTest {
         Principal principal = mock(Principal.class);
 
         when(mrules.getRules()).thenReturn("foobar");
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
@@ -525,7 +603,7 @@ public class ExporterTest {
         when(ctc.getConsumerType(consumer)).thenReturn(ctype);
         when(ctc.get(ctype.getId())).thenReturn(ctype);
 
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
 
         // Setup principal
         Principal principal = mock(Principal.class);
@@ -584,7 +662,7 @@ public class ExporterTest {
         doReturn(ctype).when(ctc).getConsumerType(consumer);
         doReturn(ctype).when(ctc).get(ctype.getId());
 
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
 
         // Setup principal
         Principal principal = mock(Principal.class);
@@ -645,7 +723,7 @@ public class ExporterTest {
         doReturn(ctype).when(ctc).getConsumerType(consumer);
         doReturn(ctype).when(ctc).get(ctype.getId());
 
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
 
         // Setup principal
         Principal principal = mock(Principal.class);
@@ -706,7 +784,7 @@ public class ExporterTest {
         doReturn(ctype).when(ctc).getConsumerType(consumer);
         doReturn(ctype).when(ctc).get(ctype.getId());
 
-        when(this.signer.sign(any(InputStream.class))).thenReturn("signature".getBytes());
+        this.mockSignature("signature".getBytes());
 
         // Setup principal
         Principal principal = mock(Principal.class);
@@ -45,6 +45,7 @@ import org.candlepin.dto.manifest.v1.DistributorVersionDTO;
 import org.candlepin.dto.manifest.v1.DistributorVersionDTO.DistributorVersionCapabilityDTO;
 import org.candlepin.dto.manifest.v1.EntitlementDTO;
 import org.candlepin.dto.manifest.v1.OwnerDTO;
+import org.candlepin.dto.manifest.v1.ProductDTO;
 import org.candlepin.dto.manifest.v1.SubscriptionDTO;
 import org.candlepin.model.CdnCurator;
 import org.candlepin.model.CertificateSerialCurator;
@@ -188,7 +189,7 @@ public class ImporterTest {
     }
 
     private Importer buildImporter() {
-        return new Importer(this.mockConsumerTypeCurator, this.mockRulesImporter,
+        return new Importer(this.config, this.mockConsumerTypeCurator, this.mockRulesImporter,
             this.mockOwnerCurator, this.mockIdentityCertCurator, this.refresherFactory,
             this.signer, this.mockExporterMetadataCurator,
             this.mockCertSerialCurator, this.mockEventSink, this.i18n, this.mockDistributorVersionCurator,
@@ -591,6 +592,90 @@ public class ImporterTest {
         assertThat(throwable.getMessage(), StringContains.containsString(errmsg));
     }
 
+    @Test
+    public void testStreamingImportBadSignature() throws Exception {
+        this.config.setProperty(ConfigProperties.IMPORT_STREAMING, "true");
+
+        Signer.Verification verification = mock(Signer.Verification.class);
+        doReturn(false).when(verification).verify(any(byte[].class));
+        doReturn(verification).when(this.signer).beginVerification();
+
+        Owner owner = mock(Owner.class);
+        ConflictOverrides co = mock(ConflictOverrides.class);
+
+        File archive = new File(this.tmpFolder, "file.zip");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        out.putNextEntry(new ZipEntry("signature"));
+        out.write("This is the placeholder for the signature file".getBytes());
+
+        File ceArchive = new File(this.tmpFolder, "consumer_export.zip");
+        ZipOutputStream cezip = new ZipOutputStream(new FileOutputStream(ceArchive));
+        cezip.putNextEntry(new ZipEntry("no_content"));
+        cezip.close();
+
+        addFileToArchive(out, ceArchive);
+        out.close();
+
+        Importer importer = this.buildImporter();
+        assertThrows(ImportConflictException.class,
+            () -> importer.loadExport(owner, archive, co, "original_file.zip"));
+
+        verify(this.signer, never()).verifySignature(any(File.class), any(byte[].class));
+    }
+
+    @Test
+    public void testStreamingImportZipSigAndEmptyConsumerZip() throws Exception {
+        this.config.setProperty(ConfigProperties.IMPORT_STREAMING, "true");
+
+        Signer.Verification verification = mock(Signer.Verification.class);
+        doReturn(true).when(verification).verify(any(byte[].class));
+        doReturn(verification).when(this.signer).beginVerification();
+
+        Owner owner = mock(Owner.class);
+        ConflictOverrides co = mock(ConflictOverrides.class);
+
+        File archive = new File(this.tmpFolder, "file.zip");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        out.putNextEntry(new ZipEntry("signature"));
+        out.write("This is the placeholder for the signature file".getBytes());
+
+        File ceArchive = new File(this.tmpFolder, "consumer_export.zip");
+        ZipOutputStream cezip = new ZipOutputStream(new FileOutputStream(ceArchive));
+        cezip.putNextEntry(new ZipEntry("no_content"));
+        cezip.close();
+
+        addFileToArchive(out, ceArchive);
+        out.close();
+
+        Importer importer = this.buildImporter();
+        Throwable throwable = assertThrows(ImportExtractionException.class,
+            () -> importer.loadExport(owner, archive, co, "original_file.zip"));
+
+        String errmsg = "The provided manifest has no content in the exported consumer archive";
+        assertThat(throwable.getMessage(), StringContains.containsString(errmsg));
+    }
+
+    @Test
+    public void testStreamingImportRequiresConsumerExport() throws Exception {
+        this.config.setProperty(ConfigProperties.IMPORT_STREAMING, "true");
+
+        Owner owner = mock(Owner.class);
+        ConflictOverrides co = mock(ConflictOverrides.class);
+
+        File archive = new File(this.tmpFolder, "file.zip");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        out.putNextEntry(new ZipEntry("signature"));
+        out.write("This is the placeholder for the signature file".getBytes());
+        out.close();
+
+        Importer importer = this.buildImporter();
+        Throwable throwable = assertThrows(ImportExtractionException.class,
+            () -> importer.loadExport(owner, archive, co, "original_file.zip"));
+
+        String errmsg = "The archive does not contain the required consumer_export.zip file";
+        assertThat(throwable.getMessage(), StringContains.containsString(errmsg));
+    }
+
     @Test
     public void testImportNoMeta() {
         Owner owner = mock(Owner.class);
@@ -760,6 +845,73 @@ public class ImporterTest {
         assertEquals(2, subscriptions.get(0).getQuantity().longValue());
     }
 
+    @Test
+    public void testReturnsSubscriptionsFromManifestContents() throws IOException, ImporterException {
+        Owner owner = new Owner()
+            .setKey("admin")
+            .setDisplayName("Admin Owner");
+
+        Refresher mockRefresher = mock(Refresher.class);
+        doReturn(mockRefresher)
+            .when(this.refresherFactory)
+            .getRefresher(any(SubscriptionServiceAdapter.class));
+        doReturn(mockRefresher).when(mockRefresher).add(any(Owner.class));
+
+        ConsumerType ctype = new ConsumerType(ConsumerTypeEnum.CANDLEPIN);
+        ctype.setId("test-ctype");
+        this.mockConsumerType(ctype);
+
+        ConsumerTypeDTO typeDTO = new ConsumerTypeDTO();
+        typeDTO.setLabel("candlepin");
+        typeDTO.setManifest(true);
+
+        ConsumerDTO consumerDTO = new ConsumerDTO();
+        consumerDTO.setUuid("eb5e04bf-be27-44cf-abe3-0c0b1edd523e");
+        consumerDTO.setName("mymachine");
+        consumerDTO.setType(typeDTO);
+        consumerDTO.setUrlWeb("foo.example.com/subscription");
+        consumerDTO.setUrlApi("/candlepin");
+        consumerDTO.setContentAccessMode("");
+        OwnerDTO ownerDTO = new OwnerDTO();
+        ownerDTO.setKey("admin");
+        ownerDTO.setDisplayName("Admin Owner");
+        consumerDTO.setOwner(ownerDTO);
+
+        Meta meta = new Meta("0.0.3", new Date(), "test_user", "prefix", null);
+
+        Product prod = new Product("prodId", "prodTest", null)
+            .setDependentProductIds(null);
+        ProductDTO prodDTO = this.mapper.convertValue(prod, ProductDTO.class);
+
+        Pool pool = new Pool()
+            .setProduct(prod);
+
+        Entitlement ent = new Entitlement()
+            .setPool(pool)
+            .setQuantity(2);
+
+        ManifestContents contents = new ManifestContents()
+            .setMeta(meta)
+            .setConsumer(consumerDTO)
+            .addSection(ImportFile.CONSUMER_TYPE.fileName())
+            .addConsumerType(typeDTO)
+            .addSection(ImportFile.PRODUCTS.fileName())
+            .addProduct(prodDTO.getId(), prodDTO)
+            .addSection(ImportFile.ENTITLEMENTS.fileName())
+            .addEntitlement(this.modelTranslator.translate(ent, EntitlementDTO.class));
+
+        ConflictOverrides co = mock(ConflictOverrides.class);
+
+        Importer importer = this.buildImporter();
+        List<SubscriptionDTO> subscriptions = importer.importObjects(owner, contents, co);
+
+        assertEquals(1, subscriptions.size());
+        assertEquals("prodId", subscriptions.get(0).getProduct().getId());
+        assertEquals(2, subscriptions.get(0).getQuantity().longValue());
+        verify(this.mockRulesImporter, never()).importObject(any(Reader.class));
+        verify(mockRefresher).run();
+    }
+
     @Test
     public void testImportProductNoEntitlementDir() {
         Owner owner = mock(Owner.class);
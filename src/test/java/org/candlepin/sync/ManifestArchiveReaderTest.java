@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2009 - 2025 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.sync;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.config.TestConfig;
+import org.candlepin.dto.manifest.v1.ConsumerDTO;
+import org.candlepin.dto.manifest.v1.ConsumerTypeDTO;
+import org.candlepin.dto.manifest.v1.ProductDTO;
+import org.candlepin.pki.impl.Signer;
+import org.candlepin.util.ObjectMapperFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+
+
+public class ManifestArchiveReaderTest {
+
+    private ObjectMapper mapper;
+    private I18n i18n;
+    private Signer signer;
+    private Signer.Verification verification;
+    private ByteArrayOutputStream verified;
+
+    @BeforeEach
+    public void init() {
+        this.mapper = ObjectMapperFactory.getSyncObjectMapper(TestConfig.defaults());
+        this.i18n = I18nFactory.getI18n(this.getClass(), Locale.US, I18nFactory.FALLBACK);
+
+        this.verified = new ByteArrayOutputStream();
+        this.verification = mock(Signer.Verification.class);
+        doAnswer(invocation -> {
+            this.verified.write((byte[]) invocation.getArgument(0), invocation.getArgument(1),
+                invocation.getArgument(2));
+            return null;
+        }).when(this.verification).update(any(byte[].class), anyInt(), anyInt());
+        doReturn(true).when(this.verification).verify(any(byte[].class));
+
+        this.signer = mock(Signer.class);
+        doReturn(this.verification).when(this.signer).beginVerification();
+    }
+
+    private ManifestArchiveReader buildReader() {
+        return new ManifestArchiveReader(this.mapper, this.signer, this.i18n);
+    }
+
+    private void addEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    private byte[] buildConsumerExport() throws IOException {
+        ConsumerTypeDTO type = new ConsumerTypeDTO();
+        type.setLabel("candlepin");
+        type.setManifest(true);
+
+        ConsumerDTO consumer = new ConsumerDTO();
+        consumer.setUuid("consumer_uuid");
+        consumer.setName("consumer");
+        consumer.setType(type);
+
+        ProductDTO product = new ProductDTO();
+        product.setId("prod_id");
+        product.setName("product");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(buffer)) {
+            this.addEntry(zip, "export/meta.json",
+                this.mapper.writeValueAsBytes(new Meta("0.0.3", new Date(), "user", "prefix", null)));
+            this.addEntry(zip, "export/consumer.json", this.mapper.writeValueAsBytes(consumer));
+            this.addEntry(zip, "export/consumer_types/candlepin.json", this.mapper.writeValueAsBytes(type));
+            this.addEntry(zip, "export/products/prod_id.json", this.mapper.writeValueAsBytes(product));
+            this.addEntry(zip, "export/products/prod_id.pem", "cert".getBytes(StandardCharsets.UTF_8));
+            this.addEntry(zip, "export/rules2/rules.js", "var rules;".getBytes(StandardCharsets.UTF_8));
+        }
+
+        return buffer.toByteArray();
+    }
+
+    private byte[] buildArchive(byte[] signature, byte[] consumerExport) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(buffer)) {
+            if (signature != null) {
+                this.addEntry(zip, "signature", signature);
+            }
+
+            if (consumerExport != null) {
+                this.addEntry(zip, "consumer_export.zip", consumerExport);
+            }
+        }
+
+        return buffer.toByteArray();
+    }
+
+    @Test
+    public void testReadsManifestContents() throws Exception {
+        byte[] signature = "signature".getBytes(StandardCharsets.UTF_8);
+        byte[] archive = this.buildArchive(signature, this.buildConsumerExport());
+
+        ManifestContents contents = this.buildReader()
+            .read("manifest.zip", new ByteArrayInputStream(archive));
+
+        assertArrayEquals(signature, contents.getSignature());
+        assertTrue(contents.hasConsumerExport());
+        assertEquals(6, contents.getConsumerExportEntries());
+        assertFalse(contents.isEmpty());
+
+        assertNotNull(contents.getMeta());
+        assertEquals("0.0.3", contents.getMeta().getVersion());
+        assertEquals("consumer_uuid", contents.getConsumer().getUuid());
+        assertEquals(1, contents.getConsumerTypes().size());
+        assertEquals("candlepin", contents.getConsumerTypes().get(0).getLabel());
+        assertEquals("var rules;", contents.getRules());
+
+        assertTrue(contents.hasSection(Importer.ImportFile.PRODUCTS.fileName()));
+        assertEquals(1, contents.getProducts().size());
+        assertEquals("product", contents.getProducts().get("prod_id").getName());
+        assertFalse(contents.hasSection(Importer.ImportFile.ENTITLEMENTS.fileName()));
+    }
+
+    @Test
+    public void testVerifiesConsumerExportBytes() throws Exception {
+        byte[] signature = "signature".getBytes(StandardCharsets.UTF_8);
+        byte[] consumerExport = this.buildConsumerExport();
+        byte[] archive = this.buildArchive(signature, consumerExport);
+
+        ManifestContents contents = this.buildReader()
+            .read("manifest.zip", new ByteArrayInputStream(archive));
+
+        assertArrayEquals(consumerExport, this.verified.toByteArray());
+        assertTrue(contents.verifySignature());
+        verify(this.verification).verify(signature);
+    }
+
+    @Test
+    public void testSignatureNotVerifiedWithoutSignature() throws Exception {
+        byte[] archive = this.buildArchive(null, this.buildConsumerExport());
+
+        ManifestContents contents = this.buildReader()
+            .read("manifest.zip", new ByteArrayInputStream(archive));
+
+        assertTrue(contents.hasConsumerExport());
+        assertFalse(contents.verifySignature());
+        verify(this.verification, never()).verify(any(byte[].class));
+    }
+
+    @Test
+    public void testReadsArchiveWithoutConsumerExport() throws Exception {
+        byte[] archive = this.buildArchive("signature".getBytes(StandardCharsets.UTF_8), null);
+
+        ManifestContents contents = this.buildReader()
+            .read("manifest.zip", new ByteArrayInputStream(archive));
+
+        assertFalse(contents.hasConsumerExport());
+        assertTrue(contents.isEmpty());
+        verify(this.signer, never()).beginVerification();
+    }
+
+    /**
+     * Builds an archive with the given entries, renaming the entries named with the given alias to
+     * the given name once written. Zip archives may contain multiple entries with the same name, but
+     * ZipOutputStream refuses to write them.
+     */
+    private byte[] buildArchiveWithDuplicate(byte[] signature, String name, String alias, byte[] first,
+        byte[] second) throws IOException {
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(buffer)) {
+            if (signature != null) {
+                this.addEntry(zip, "signature", signature);
+            }
+
+            this.addEntry(zip, name, first);
+            this.addEntry(zip, alias, second);
+        }
+
+        String archive = buffer.toString(StandardCharsets.ISO_8859_1);
+        return archive.replace(alias, name).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void testRejectsDuplicateConsumerExport() throws Exception {
+        byte[] signature = "signature".getBytes(StandardCharsets.UTF_8);
+        byte[] archive = this.buildArchiveWithDuplicate(signature, "consumer_export.zip",
+            "consumer_exporX.zip", this.buildConsumerExport(), this.buildConsumerExport());
+
+        ManifestArchiveReader reader = this.buildReader();
+
+        assertThrows(ImportExtractionException.class,
+            () -> reader.read("manifest.zip", new ByteArrayInputStream(archive)));
+    }
+
+    @Test
+    public void testRejectsDuplicateSignature() throws Exception {
+        byte[] signature = "signature".getBytes(StandardCharsets.UTF_8);
+        byte[] archive = this.buildArchiveWithDuplicate(null, "signature", "signaturX", signature,
+            "forged".getBytes(StandardCharsets.UTF_8));
+
+        ManifestArchiveReader reader = this.buildReader();
+
+        assertThrows(ImportExtractionException.class,
+            () -> reader.read("manifest.zip", new ByteArrayInputStream(archive)));
+    }
+
+    @Test
+    public void testRejectsNonZipArchive() {
+        byte[] archive = "Just a flat file".getBytes(StandardCharsets.UTF_8);
+        ManifestArchiveReader reader = this.buildReader();
+
+        assertThrows(ImportExtractionException.class,
+            () -> reader.read("manifest.zip", new ByteArrayInputStream(archive)));
+    }
+}
@@ -18,7 +18,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 
+import org.candlepin.cache.HuffmanContentCache;
 import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.config.TestConfig;
 import org.candlepin.controller.util.ContentPathBuilder;
 import org.candlepin.controller.util.PromotedContent;
 import org.candlepin.model.Branding;
@@ -49,12 +52,13 @@ public class X509V3ExtensionUtilTest {
     private ObjectMapper mapper;
 
     @BeforeEach
-    public void init() {
+    public void init() throws ConfigurationException {
         this.mapper = ObjectMapperFactory.getX509V3ExtensionUtilObjectMapper();
 
         Configuration config = mock(Configuration.class);
         EntitlementCurator ec = mock(EntitlementCurator.class);
-        util = new X509V3ExtensionUtil(config, ec, new Huffman());
+        util = new X509V3ExtensionUtil(config, ec, new Huffman(),
+            new HuffmanContentCache(TestConfig.defaults()));
     }
 
     @Test